@@ -45,6 +45,10 @@ public class CassandraConfiguration {
     public static final int DEFAULT_FLAGS_UPDATE_MESSAGE_ID_MAX_RETRY = 1000;
     public static final int DEFAULT_MODSEQ_MAX_RETRY = 100000;
     public static final int DEFAULT_UID_MAX_RETRY = 100000;
+    public static final int DEFAULT_UID_MODSEQ_ALLOCATION_MAX_RANGE = 128;
+    public static final int DEFAULT_QUOTA_COUNTER_SHARD_COUNT = 8;
+    public static final int DEFAULT_MAILBOX_DELETION_CONCURRENCY = 8;
+    public static final int DEFAULT_MAILBOX_DELETION_MESSAGES_PER_SECOND = 1000;
     public static final int DEFAULT_ACL_MAX_RETRY = 1000;
     public static final int DEFAULT_FETCH_NEXT_PAGE_ADVANCE_IN_ROW = 100;
     public static final int DEFAULT_BLOB_PART_SIZE = 100 * 1024;
@@ -58,6 +62,11 @@ public class CassandraConfiguration {
     private static final String MAILBOX_MAX_RETRY_ACL = "mailbox.max.retry.acl";
     private static final String MAILBOX_MAX_RETRY_MODSEQ = "mailbox.max.retry.modseq";
     private static final String MAILBOX_MAX_RETRY_UID = "mailbox.max.retry.uid";
+    private static final String MAILBOX_UID_MODSEQ_ALLOCATION_MAX_RANGE = "mailbox.uid.modseq.allocation.max.range";
+    private static final String MAILBOX_QUOTA_COUNTER_SHARD_COUNT = "mailbox.quota.counter.shard.count";
+    private static final String MAILBOX_UID_INDEX_BUCKET_SIZE = "mailbox.uid.index.bucket.size";
+    private static final String MAILBOX_DELETION_CONCURRENCY = "mailbox.deletion.concurrency";
+    private static final String MAILBOX_DELETION_MESSAGES_PER_SECOND = "mailbox.deletion.messages.per.second";
     private static final String MAILBOX_MAX_RETRY_MESSAGE_FLAGS_UPDATE = "mailbox.max.retry.message.flags.update";
     private static final String MAILBOX_MAX_RETRY_MESSAGE_ID_FLAGS_UPDATE = "mailbox.max.retry.message.id.flags.update";
     private static final String FETCH_ADVANCE_ROW_COUNT = "fetch.advance.row.count";
@@ -78,6 +87,11 @@ public class CassandraConfiguration {
         private Optional<Integer> flagsUpdateMessageMaxRetry = Optional.empty();
         private Optional<Integer> modSeqMaxRetry = Optional.empty();
         private Optional<Integer> uidMaxRetry = Optional.empty();
+        private Optional<Integer> uidModSeqAllocationMaxRange = Optional.empty();
+        private Optional<Integer> quotaCounterShardCount = Optional.empty();
+        private Optional<Integer> uidIndexBucketSize = Optional.empty();
+        private Optional<Integer> mailboxDeletionConcurrency = Optional.empty();
+        private Optional<Integer> mailboxDeletionMessagesPerSecond = Optional.empty();
         private Optional<Integer> aclMaxRetry = Optional.empty();
         private Optional<Integer> fetchNextPageInAdvanceRow = Optional.empty();
         private Optional<Integer> blobPartSize = Optional.empty();
@@ -122,6 +136,36 @@ public class CassandraConfiguration {
             return this;
         }
 
+        public Builder uidModSeqAllocationMaxRange(int value) {
+            Preconditions.checkArgument(value > 0, "uidModSeqAllocationMaxRange needs to be strictly positive");
+            this.uidModSeqAllocationMaxRange = Optional.of(value);
+            return this;
+        }
+
+        public Builder quotaCounterShardCount(int value) {
+            Preconditions.checkArgument(value > 0, "quotaCounterShardCount needs to be strictly positive");
+            this.quotaCounterShardCount = Optional.of(value);
+            return this;
+        }
+
+        public Builder uidIndexBucketSize(int value) {
+            Preconditions.checkArgument(value > 0, "uidIndexBucketSize needs to be strictly positive");
+            this.uidIndexBucketSize = Optional.of(value);
+            return this;
+        }
+
+        public Builder mailboxDeletionConcurrency(int value) {
+            Preconditions.checkArgument(value > 0, "mailboxDeletionConcurrency needs to be strictly positive");
+            this.mailboxDeletionConcurrency = Optional.of(value);
+            return this;
+        }
+
+        public Builder mailboxDeletionMessagesPerSecond(int value) {
+            Preconditions.checkArgument(value > 0, "mailboxDeletionMessagesPerSecond needs to be strictly positive");
+            this.mailboxDeletionMessagesPerSecond = Optional.of(value);
+            return this;
+        }
+
         public Builder aclMaxRetry(int value) {
             Preconditions.checkArgument(value > 0, "aclMaxRetry needs to be strictly positive");
             this.aclMaxRetry = Optional.of(value);
@@ -182,6 +226,31 @@ public class CassandraConfiguration {
             return this;
         }
 
+        public Builder uidModSeqAllocationMaxRange(Optional<Integer> value) {
+            value.ifPresent(this::uidModSeqAllocationMaxRange);
+            return this;
+        }
+
+        public Builder quotaCounterShardCount(Optional<Integer> value) {
+            value.ifPresent(this::quotaCounterShardCount);
+            return this;
+        }
+
+        public Builder uidIndexBucketSize(Optional<Integer> value) {
+            value.ifPresent(this::uidIndexBucketSize);
+            return this;
+        }
+
+        public Builder mailboxDeletionConcurrency(Optional<Integer> value) {
+            value.ifPresent(this::mailboxDeletionConcurrency);
+            return this;
+        }
+
+        public Builder mailboxDeletionMessagesPerSecond(Optional<Integer> value) {
+            value.ifPresent(this::mailboxDeletionMessagesPerSecond);
+            return this;
+        }
+
         public Builder aclMaxRetry(Optional<Integer> value) {
             value.ifPresent(this::aclMaxRetry);
             return this;
@@ -247,6 +316,11 @@ public class CassandraConfiguration {
                 flagsUpdateMessageMaxRetry.orElse(DEFAULT_FLAGS_UPDATE_MESSAGE_MAX_RETRY),
                 modSeqMaxRetry.orElse(DEFAULT_MODSEQ_MAX_RETRY),
                 uidMaxRetry.orElse(DEFAULT_UID_MAX_RETRY),
+                uidModSeqAllocationMaxRange.orElse(DEFAULT_UID_MODSEQ_ALLOCATION_MAX_RANGE),
+                quotaCounterShardCount.orElse(DEFAULT_QUOTA_COUNTER_SHARD_COUNT),
+                uidIndexBucketSize,
+                mailboxDeletionConcurrency.orElse(DEFAULT_MAILBOX_DELETION_CONCURRENCY),
+                mailboxDeletionMessagesPerSecond.orElse(DEFAULT_MAILBOX_DELETION_MESSAGES_PER_SECOND),
                 fetchNextPageInAdvanceRow.orElse(DEFAULT_FETCH_NEXT_PAGE_ADVANCE_IN_ROW),
                 blobPartSize.orElse(DEFAULT_BLOB_PART_SIZE),
                 attachmentV2MigrationReadTimeout.orElse(DEFAULT_ATTACHMENT_V2_MIGRATION_READ_TIMEOUT),
@@ -268,6 +342,16 @@ public class CassandraConfiguration {
                 propertiesConfiguration.getInteger(MAILBOX_MAX_RETRY_MODSEQ, null)))
             .uidMaxRetry(Optional.ofNullable(
                 propertiesConfiguration.getInteger(MAILBOX_MAX_RETRY_UID, null)))
+            .uidModSeqAllocationMaxRange(Optional.ofNullable(
+                propertiesConfiguration.getInteger(MAILBOX_UID_MODSEQ_ALLOCATION_MAX_RANGE, null)))
+            .quotaCounterShardCount(Optional.ofNullable(
+                propertiesConfiguration.getInteger(MAILBOX_QUOTA_COUNTER_SHARD_COUNT, null)))
+            .uidIndexBucketSize(Optional.ofNullable(
+                propertiesConfiguration.getInteger(MAILBOX_UID_INDEX_BUCKET_SIZE, null)))
+            .mailboxDeletionConcurrency(Optional.ofNullable(
+                propertiesConfiguration.getInteger(MAILBOX_DELETION_CONCURRENCY, null)))
+            .mailboxDeletionMessagesPerSecond(Optional.ofNullable(
+                propertiesConfiguration.getInteger(MAILBOX_DELETION_MESSAGES_PER_SECOND, null)))
             .flagsUpdateMessageMaxRetry(Optional.ofNullable(
                 propertiesConfiguration.getInteger(MAILBOX_MAX_RETRY_MESSAGE_FLAGS_UPDATE, null)))
             .flagsUpdateMessageIdMaxRetry(Optional.ofNullable(
@@ -297,6 +381,11 @@ public class CassandraConfiguration {
     private final int flagsUpdateMessageMaxRetry;
     private final int modSeqMaxRetry;
     private final int uidMaxRetry;
+    private final int uidModSeqAllocationMaxRange;
+    private final int quotaCounterShardCount;
+    private final Optional<Integer> uidIndexBucketSize;
+    private final int mailboxDeletionConcurrency;
+    private final int mailboxDeletionMessagesPerSecond;
     private final int aclMaxRetry;
     private final int fetchNextPageInAdvanceRow;
     private final int blobPartSize;
@@ -308,7 +397,9 @@ public class CassandraConfiguration {
     @VisibleForTesting
     CassandraConfiguration(int aclMaxRetry, int messageReadChunkSize, int expungeChunkSize,
                            int flagsUpdateMessageIdMaxRetry, int flagsUpdateMessageMaxRetry,
-                           int modSeqMaxRetry, int uidMaxRetry, int fetchNextPageInAdvanceRow,
+                           int modSeqMaxRetry, int uidMaxRetry, int uidModSeqAllocationMaxRange, int quotaCounterShardCount,
+                           Optional<Integer> uidIndexBucketSize, int mailboxDeletionConcurrency,
+                           int mailboxDeletionMessagesPerSecond, int fetchNextPageInAdvanceRow,
                            int blobPartSize, final int attachmentV2MigrationReadTimeout, int messageAttachmentIdsReadTimeout,
                            String consistencyLevelRegular, String consistencyLevelLightweightTransaction) {
         this.aclMaxRetry = aclMaxRetry;
@@ -318,6 +409,11 @@ public class CassandraConfiguration {
         this.flagsUpdateMessageMaxRetry = flagsUpdateMessageMaxRetry;
         this.modSeqMaxRetry = modSeqMaxRetry;
         this.uidMaxRetry = uidMaxRetry;
+        this.uidModSeqAllocationMaxRange = uidModSeqAllocationMaxRange;
+        this.quotaCounterShardCount = quotaCounterShardCount;
+        this.uidIndexBucketSize = uidIndexBucketSize;
+        this.mailboxDeletionConcurrency = mailboxDeletionConcurrency;
+        this.mailboxDeletionMessagesPerSecond = mailboxDeletionMessagesPerSecond;
         this.fetchNextPageInAdvanceRow = fetchNextPageInAdvanceRow;
         this.blobPartSize = blobPartSize;
         this.attachmentV2MigrationReadTimeout = attachmentV2MigrationReadTimeout;
@@ -358,6 +454,26 @@ public class CassandraConfiguration {
         return uidMaxRetry;
     }
 
+    public int getUidModSeqAllocationMaxRange() {
+        return uidModSeqAllocationMaxRange;
+    }
+
+    public int getQuotaCounterShardCount() {
+        return quotaCounterShardCount;
+    }
+
+    public Optional<Integer> getUidIndexBucketSize() {
+        return uidIndexBucketSize;
+    }
+
+    public int getMailboxDeletionConcurrency() {
+        return mailboxDeletionConcurrency;
+    }
+
+    public int getMailboxDeletionMessagesPerSecond() {
+        return mailboxDeletionMessagesPerSecond;
+    }
+
     public int getFetchNextPageInAdvanceRow() {
         return fetchNextPageInAdvanceRow;
     }
@@ -390,6 +506,11 @@ public class CassandraConfiguration {
                 && Objects.equals(this.flagsUpdateMessageMaxRetry, that.flagsUpdateMessageMaxRetry)
                 && Objects.equals(this.modSeqMaxRetry, that.modSeqMaxRetry)
                 && Objects.equals(this.uidMaxRetry, that.uidMaxRetry)
+                && Objects.equals(this.uidModSeqAllocationMaxRange, that.uidModSeqAllocationMaxRange)
+                && Objects.equals(this.quotaCounterShardCount, that.quotaCounterShardCount)
+                && Objects.equals(this.uidIndexBucketSize, that.uidIndexBucketSize)
+                && Objects.equals(this.mailboxDeletionConcurrency, that.mailboxDeletionConcurrency)
+                && Objects.equals(this.mailboxDeletionMessagesPerSecond, that.mailboxDeletionMessagesPerSecond)
                 && Objects.equals(this.fetchNextPageInAdvanceRow, that.fetchNextPageInAdvanceRow)
                 && Objects.equals(this.blobPartSize, that.blobPartSize)
                 && Objects.equals(this.attachmentV2MigrationReadTimeout, that.attachmentV2MigrationReadTimeout)
@@ -403,7 +524,8 @@ public class CassandraConfiguration {
     @Override
     public final int hashCode() {
         return Objects.hash(aclMaxRetry, messageReadChunkSize, expungeChunkSize, flagsUpdateMessageIdMaxRetry,
-            flagsUpdateMessageMaxRetry, modSeqMaxRetry, uidMaxRetry, fetchNextPageInAdvanceRow,
+            flagsUpdateMessageMaxRetry, modSeqMaxRetry, uidMaxRetry, uidModSeqAllocationMaxRange, quotaCounterShardCount, uidIndexBucketSize,
+            mailboxDeletionConcurrency, mailboxDeletionMessagesPerSecond, fetchNextPageInAdvanceRow,
             blobPartSize, attachmentV2MigrationReadTimeout, messageAttachmentIdsReadTimeout,
             consistencyLevelRegular, consistencyLevelLightweightTransaction);
     }
@@ -419,6 +541,11 @@ public class CassandraConfiguration {
             .add("modSeqMaxRetry", modSeqMaxRetry)
             .add("fetchNextPageInAdvanceRow", fetchNextPageInAdvanceRow)
             .add("uidMaxRetry", uidMaxRetry)
+            .add("uidModSeqAllocationMaxRange", uidModSeqAllocationMaxRange)
+            .add("quotaCounterShardCount", quotaCounterShardCount)
+            .add("uidIndexBucketSize", uidIndexBucketSize)
+            .add("mailboxDeletionConcurrency", mailboxDeletionConcurrency)
+            .add("mailboxDeletionMessagesPerSecond", mailboxDeletionMessagesPerSecond)
             .add("blobPartSize", blobPartSize)
             .add("attachmentV2MigrationReadTimeout", attachmentV2MigrationReadTimeout)
             .add("messageAttachmentIdsReadTimeout", messageAttachmentIdsReadTimeout)
@@ -0,0 +1,256 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.cassandra.utils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.TimeMetric;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Statement;
+import com.github.steveash.guavate.Guavate;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+/**
+ * Records, for each statement, latencies, returned rows, paging, driver retries and lightweight transaction
+ * contention through the {@link MetricFactory}, and keeps aggregated {@link StatementStatistics} in order to expose
+ * the statements dominating the load.
+ *
+ * Statements are labeled with the class preparing them, followed by their operation and table, for instance
+ * <code>CassandraMessageDAO:select:messageV2</code>.
+ */
+public class CassandraStatementProfiler {
+    public static final String METRIC_PREFIX = "cassandra:statement:";
+    public static final String ROWS_METRIC_PREFIX = METRIC_PREFIX + "rows:";
+    public static final String PAGED_RESULTS_METRIC_PREFIX = METRIC_PREFIX + "pagedResults:";
+    public static final String RETRIES_METRIC_PREFIX = METRIC_PREFIX + "retries:";
+    public static final String FAILURES_METRIC_PREFIX = METRIC_PREFIX + "failures:";
+    public static final String LWT_NOT_APPLIED_METRIC_PREFIX = METRIC_PREFIX + "lwtNotApplied:";
+
+    private static final String UNPREPARED = "unprepared";
+    private static final String BATCH = "batch";
+    private static final Pattern OPERATION_PATTERN = Pattern.compile(
+        "^\\s*(select|insert|update|delete|truncate)\\b(?:.*?\\bfrom\\b|\\s+into\\b|\\s+table\\b)?\\s+([\\w.\"]+)",
+        Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern LWT_PATTERN = Pattern.compile("\\bIF\\s+(NOT\\s+EXISTS|EXISTS|\\w+\\s*(=|<|>|!=|IN\\b))",
+        Pattern.CASE_INSENSITIVE);
+
+    private static class ProfiledStatement {
+        private final String label;
+        private final boolean lightweightTransaction;
+        private final Metric rows;
+        private final Metric pagedResults;
+        private final Metric retries;
+        private final Metric failures;
+        private final Metric lwtNotApplied;
+        private final LongAdder executionCount = new LongAdder();
+        private final LongAdder failureCount = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder rowCount = new LongAdder();
+        private final LongAdder pagedResultCount = new LongAdder();
+        private final LongAdder retryCount = new LongAdder();
+        private final LongAdder lwtNotAppliedCount = new LongAdder();
+
+        ProfiledStatement(MetricFactory metricFactory, String label, boolean lightweightTransaction) {
+            this.label = label;
+            this.lightweightTransaction = lightweightTransaction;
+            this.rows = metricFactory.generate(ROWS_METRIC_PREFIX + label);
+            this.pagedResults = metricFactory.generate(PAGED_RESULTS_METRIC_PREFIX + label);
+            this.retries = metricFactory.generate(RETRIES_METRIC_PREFIX + label);
+            this.failures = metricFactory.generate(FAILURES_METRIC_PREFIX + label);
+            this.lwtNotApplied = metricFactory.generate(LWT_NOT_APPLIED_METRIC_PREFIX + label);
+        }
+
+        void recordDuration(Duration duration) {
+            executionCount.increment();
+            totalNanos.add(duration.toNanos());
+            maxNanos.accumulate(duration.toNanos());
+        }
+
+        void recordSuccess(Duration duration, ResultSet resultSet) {
+            recordDuration(duration);
+
+            int availableRows = resultSet.getAvailableWithoutFetching();
+            rows.add(availableRows);
+            rowCount.add(availableRows);
+            if (!resultSet.isFullyFetched()) {
+                pagedResults.increment();
+                pagedResultCount.increment();
+            }
+            int attempts = resultSet.getExecutionInfo().getTriedHosts().size();
+            if (attempts > 1) {
+                retries.add(attempts - 1);
+                retryCount.add(attempts - 1);
+            }
+            if (lightweightTransaction && !resultSet.wasApplied()) {
+                lwtNotApplied.increment();
+                lwtNotAppliedCount.increment();
+            }
+        }
+
+        void recordFailure(Duration duration) {
+            recordDuration(duration);
+            failures.increment();
+            failureCount.increment();
+        }
+
+        StatementStatistics statistics() {
+            return new StatementStatistics(label,
+                executionCount.sum(),
+                failureCount.sum(),
+                Duration.ofNanos(totalNanos.sum()),
+                Duration.ofNanos(maxNanos.get()),
+                rowCount.sum(),
+                pagedResultCount.sum(),
+                retryCount.sum(),
+                lwtNotAppliedCount.sum());
+        }
+
+        void reset() {
+            executionCount.reset();
+            failureCount.reset();
+            totalNanos.reset();
+            maxNanos.reset();
+            rowCount.reset();
+            pagedResultCount.reset();
+            retryCount.reset();
+            lwtNotAppliedCount.reset();
+        }
+    }
+
+    public class Execution {
+        private final ProfiledStatement statement;
+        private final TimeMetric timer;
+
+        private Execution(ProfiledStatement statement) {
+            this.statement = statement;
+            this.timer = metricFactory.timer(METRIC_PREFIX + statement.label);
+        }
+
+        public void success(ResultSet resultSet) {
+            statement.recordSuccess(timer.stopAndPublish().elasped(), resultSet);
+        }
+
+        public void failure() {
+            statement.recordFailure(timer.stopAndPublish().elasped());
+        }
+    }
+
+    private final MetricFactory metricFactory;
+    private final ConcurrentHashMap<String, String> labelsByPreparedQuery;
+    private final ConcurrentHashMap<String, ProfiledStatement> statementsByLabel;
+
+    @Inject
+    public CassandraStatementProfiler(MetricFactory metricFactory) {
+        this.metricFactory = metricFactory;
+        this.labelsByPreparedQuery = new ConcurrentHashMap<>();
+        this.statementsByLabel = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Labels a prepared statement with the name of the class that prepared it.
+     */
+    public void registerPreparedStatement(PreparedStatement preparedStatement, String preparingClass) {
+        String query = preparedStatement.getQueryString();
+        labelsByPreparedQuery.put(query, preparingClass + ":" + operation(query));
+    }
+
+    public Execution startExecution(Statement statement) {
+        String label = label(statement);
+        ProfiledStatement profiledStatement = statementsByLabel.computeIfAbsent(label,
+            key -> new ProfiledStatement(metricFactory, key, isLightweightTransaction(statement)));
+        return new Execution(profiledStatement);
+    }
+
+    public List<StatementStatistics> top(int limit, StatementStatistics.SortBy sortBy) {
+        Preconditions.checkArgument(limit > 0, "'limit' needs to be strictly positive");
+
+        return statementsByLabel.values()
+            .stream()
+            .map(ProfiledStatement::statistics)
+            .filter(statistics -> statistics.getExecutions() > 0)
+            .sorted(sortBy.descending())
+            .limit(limit)
+            .collect(Guavate.toImmutableList());
+    }
+
+    public void reset() {
+        statementsByLabel.values().forEach(ProfiledStatement::reset);
+    }
+
+    @VisibleForTesting
+    String label(Statement statement) {
+        if (statement instanceof BoundStatement) {
+            String query = ((BoundStatement) statement).preparedStatement().getQueryString();
+            return Optional.ofNullable(labelsByPreparedQuery.get(query))
+                .orElseGet(() -> UNPREPARED + ":" + operation(query));
+        }
+        if (statement instanceof RegularStatement) {
+            return UNPREPARED + ":" + operation(((RegularStatement) statement).getQueryString());
+        }
+        if (statement instanceof BatchStatement) {
+            return BATCH;
+        }
+        return statement.getClass().getSimpleName();
+    }
+
+    @VisibleForTesting
+    static String operation(String query) {
+        Matcher matcher = OPERATION_PATTERN.matcher(query);
+        if (matcher.find()) {
+            return matcher.group(1).toLowerCase(Locale.US) + ":" + matcher.group(2).replace("\"", "");
+        }
+        return "other";
+    }
+
+    private static boolean isLightweightTransaction(Statement statement) {
+        return queryString(statement)
+            .map(query -> LWT_PATTERN.matcher(query).find())
+            .orElse(false);
+    }
+
+    private static Optional<String> queryString(Statement statement) {
+        if (statement instanceof BoundStatement) {
+            return Optional.of(((BoundStatement) statement).preparedStatement().getQueryString());
+        }
+        if (statement instanceof RegularStatement) {
+            return Optional.of(((RegularStatement) statement).getQueryString());
+        }
+        return Optional.empty();
+    }
+}
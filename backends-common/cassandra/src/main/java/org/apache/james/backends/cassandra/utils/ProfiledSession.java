@@ -0,0 +1,193 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.cassandra.utils;
+
+import java.util.Map;
+
+import com.datastax.driver.core.CloseFuture;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * {@link Session} reporting every statement it executes to a {@link CassandraStatementProfiler}.
+ *
+ * Prepared statements are attributed to the class preparing them, which is looked up once, when preparing.
+ */
+public class ProfiledSession implements Session {
+    private static final String UNKNOWN = "unknown";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    private final Session delegate;
+    private final CassandraStatementProfiler profiler;
+
+    public ProfiledSession(Session delegate, CassandraStatementProfiler profiler) {
+        this.delegate = delegate;
+        this.profiler = profiler;
+    }
+
+    @Override
+    public String getLoggedKeyspace() {
+        return delegate.getLoggedKeyspace();
+    }
+
+    @Override
+    public Session init() {
+        delegate.init();
+        return this;
+    }
+
+    @Override
+    public ListenableFuture<Session> initAsync() {
+        return Futures.transform(delegate.initAsync(), any -> this, MoreExecutors.directExecutor());
+    }
+
+    @Override
+    public ResultSet execute(String query) {
+        return execute(new SimpleStatement(query));
+    }
+
+    @Override
+    public ResultSet execute(String query, Object... values) {
+        return execute(new SimpleStatement(query, values));
+    }
+
+    @Override
+    public ResultSet execute(String query, Map<String, Object> values) {
+        return execute(new SimpleStatement(query, values));
+    }
+
+    @Override
+    public ResultSet execute(Statement statement) {
+        return executeAsync(statement).getUninterruptibly();
+    }
+
+    @Override
+    public ResultSetFuture executeAsync(String query) {
+        return executeAsync(new SimpleStatement(query));
+    }
+
+    @Override
+    public ResultSetFuture executeAsync(String query, Object... values) {
+        return executeAsync(new SimpleStatement(query, values));
+    }
+
+    @Override
+    public ResultSetFuture executeAsync(String query, Map<String, Object> values) {
+        return executeAsync(new SimpleStatement(query, values));
+    }
+
+    @Override
+    public ResultSetFuture executeAsync(Statement statement) {
+        CassandraStatementProfiler.Execution execution = profiler.startExecution(statement);
+        ResultSetFuture future = delegate.executeAsync(statement);
+        Futures.addCallback(future, new FutureCallback<ResultSet>() {
+            @Override
+            public void onSuccess(ResultSet resultSet) {
+                execution.success(resultSet);
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                execution.failure();
+            }
+        }, MoreExecutors.directExecutor());
+        return future;
+    }
+
+    @Override
+    public PreparedStatement prepare(String query) {
+        return register(delegate.prepare(query));
+    }
+
+    @Override
+    public PreparedStatement prepare(RegularStatement statement) {
+        return register(delegate.prepare(statement));
+    }
+
+    @Override
+    public ListenableFuture<PreparedStatement> prepareAsync(String query) {
+        String preparingClass = preparingClass();
+        return Futures.transform(delegate.prepareAsync(query),
+            preparedStatement -> register(preparedStatement, preparingClass),
+            MoreExecutors.directExecutor());
+    }
+
+    @Override
+    public ListenableFuture<PreparedStatement> prepareAsync(RegularStatement statement) {
+        String preparingClass = preparingClass();
+        return Futures.transform(delegate.prepareAsync(statement),
+            preparedStatement -> register(preparedStatement, preparingClass),
+            MoreExecutors.directExecutor());
+    }
+
+    private PreparedStatement register(PreparedStatement preparedStatement) {
+        return register(preparedStatement, preparingClass());
+    }
+
+    private PreparedStatement register(PreparedStatement preparedStatement, String preparingClass) {
+        profiler.registerPreparedStatement(preparedStatement, preparingClass);
+        return preparedStatement;
+    }
+
+    private String preparingClass() {
+        return STACK_WALKER.walk(frames -> frames
+            .<Class<?>>map(StackWalker.StackFrame::getDeclaringClass)
+            .filter(clazz -> !clazz.equals(ProfiledSession.class))
+            .filter(clazz -> !clazz.getName().startsWith("com.datastax."))
+            .findFirst()
+            .map(Class::getSimpleName)
+            .orElse(UNKNOWN));
+    }
+
+    @Override
+    public CloseFuture closeAsync() {
+        return delegate.closeAsync();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return delegate.isClosed();
+    }
+
+    @Override
+    public Cluster getCluster() {
+        return delegate.getCluster();
+    }
+
+    @Override
+    public State getState() {
+        return delegate.getState();
+    }
+}
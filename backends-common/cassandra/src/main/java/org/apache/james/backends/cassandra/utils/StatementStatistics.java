@@ -0,0 +1,173 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.cassandra.utils;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Aggregated execution statistics of a statement, as recorded by {@link CassandraStatementProfiler}.
+ */
+public class StatementStatistics {
+    public enum SortBy {
+        TOTAL_DURATION("totalDuration", Comparator.comparing(StatementStatistics::getTotalDuration)),
+        MEAN_DURATION("meanDuration", Comparator.comparing(StatementStatistics::getMeanDuration)),
+        MAX_DURATION("maxDuration", Comparator.comparing(StatementStatistics::getMaxDuration)),
+        EXECUTIONS("executions", Comparator.comparingLong(StatementStatistics::getExecutions));
+
+        private final String asParameter;
+        private final Comparator<StatementStatistics> comparator;
+
+        SortBy(String asParameter, Comparator<StatementStatistics> comparator) {
+            this.asParameter = asParameter;
+            this.comparator = comparator;
+        }
+
+        public String asParameter() {
+            return asParameter;
+        }
+
+        public Comparator<StatementStatistics> descending() {
+            return comparator.reversed();
+        }
+    }
+
+    private final String label;
+    private final long executions;
+    private final long failures;
+    private final Duration totalDuration;
+    private final Duration maxDuration;
+    private final long rows;
+    private final long pagedResults;
+    private final long retries;
+    private final long lwtNotApplied;
+
+    public StatementStatistics(String label, long executions, long failures, Duration totalDuration, Duration maxDuration,
+                               long rows, long pagedResults, long retries, long lwtNotApplied) {
+        this.label = label;
+        this.executions = executions;
+        this.failures = failures;
+        this.totalDuration = totalDuration;
+        this.maxDuration = maxDuration;
+        this.rows = rows;
+        this.pagedResults = pagedResults;
+        this.retries = retries;
+        this.lwtNotApplied = lwtNotApplied;
+    }
+
+    /**
+     * Name of the class that prepared the statement, followed by the kind of operation and the table it targets.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public Duration getTotalDuration() {
+        return totalDuration;
+    }
+
+    public Duration getMeanDuration() {
+        if (executions == 0) {
+            return Duration.ZERO;
+        }
+        return totalDuration.dividedBy(executions);
+    }
+
+    public Duration getMaxDuration() {
+        return maxDuration;
+    }
+
+    /**
+     * Rows returned within the first page of results.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Count of results that did not fit within a single page.
+     */
+    public long getPagedResults() {
+        return pagedResults;
+    }
+
+    /**
+     * Additional attempts performed by the driver, on the same or on other hosts.
+     */
+    public long getRetries() {
+        return retries;
+    }
+
+    /**
+     * Count of lightweight transactions that were not applied, a sign of contention.
+     */
+    public long getLwtNotApplied() {
+        return lwtNotApplied;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof StatementStatistics) {
+            StatementStatistics that = (StatementStatistics) o;
+
+            return Objects.equals(this.executions, that.executions)
+                && Objects.equals(this.failures, that.failures)
+                && Objects.equals(this.rows, that.rows)
+                && Objects.equals(this.pagedResults, that.pagedResults)
+                && Objects.equals(this.retries, that.retries)
+                && Objects.equals(this.lwtNotApplied, that.lwtNotApplied)
+                && Objects.equals(this.label, that.label)
+                && Objects.equals(this.totalDuration, that.totalDuration)
+                && Objects.equals(this.maxDuration, that.maxDuration);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(label, executions, failures, totalDuration, maxDuration, rows, pagedResults, retries, lwtNotApplied);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("label", label)
+            .add("executions", executions)
+            .add("failures", failures)
+            .add("totalDuration", totalDuration)
+            .add("maxDuration", maxDuration)
+            .add("rows", rows)
+            .add("pagedResults", pagedResults)
+            .add("retries", retries)
+            .add("lwtNotApplied", lwtNotApplied)
+            .toString();
+    }
+}
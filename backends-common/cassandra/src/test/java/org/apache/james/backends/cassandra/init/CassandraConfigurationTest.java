@@ -154,6 +154,20 @@ class CassandraConfigurationTest {
             .isInstanceOf(IllegalArgumentException.class);
     }
 
+    @Test
+    void uidModSeqAllocationMaxRangeShouldThrowOnNegativeValue() {
+        assertThatThrownBy(() -> CassandraConfiguration.builder()
+                .uidModSeqAllocationMaxRange(-1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void uidModSeqAllocationMaxRangeShouldThrowOnZero() {
+        assertThatThrownBy(() -> CassandraConfiguration.builder()
+                .uidModSeqAllocationMaxRange(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     void attachmentV2MigrationReadTimeoutShouldThrowOnZero() {
         assertThatThrownBy(() -> CassandraConfiguration.builder()
@@ -209,6 +223,7 @@ class CassandraConfigurationTest {
         int blobPartSize = 10;
         int attachmentV2MigrationReadTimeout = 11;
         int messageAttachmentIdReadTimeout = 12;
+        int uidModSeqAllocationMaxRange = 13;
         String consistencyLevelRegular = "LOCAL_QUORUM";
         String consistencyLevelLightweightTransaction = "LOCAL_SERIAL";
 
@@ -224,6 +239,7 @@ class CassandraConfigurationTest {
             .blobPartSize(blobPartSize)
             .attachmentV2MigrationReadTimeout(attachmentV2MigrationReadTimeout)
             .messageAttachmentIdsReadTimeout(messageAttachmentIdReadTimeout)
+            .uidModSeqAllocationMaxRange(uidModSeqAllocationMaxRange)
             .consistencyLevelRegular(consistencyLevelRegular)
             .consistencyLevelLightweightTransaction(consistencyLevelLightweightTransaction)
             .build();
@@ -240,6 +256,7 @@ class CassandraConfigurationTest {
             softly.assertThat(configuration.getBlobPartSize()).isEqualTo(blobPartSize);
             softly.assertThat(configuration.getAttachmentV2MigrationReadTimeout()).isEqualTo(attachmentV2MigrationReadTimeout);
             softly.assertThat(configuration.getMessageAttachmentIdsReadTimeout()).isEqualTo(messageAttachmentIdReadTimeout);
+            softly.assertThat(configuration.getUidModSeqAllocationMaxRange()).isEqualTo(uidModSeqAllocationMaxRange);
             softly.assertThat(configuration.getConsistencyLevelRegular()).isEqualTo(consistencyLevelRegular);
             softly.assertThat(configuration.getConsistencyLevelLightweightTransaction()).isEqualTo(consistencyLevelLightweightTransaction);
         });
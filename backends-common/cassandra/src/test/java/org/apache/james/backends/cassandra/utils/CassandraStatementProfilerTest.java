@@ -0,0 +1,213 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.cassandra.utils;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.backends.cassandra.components.CassandraModule;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+
+class CassandraStatementProfilerTest {
+    private static final String TABLE_NAME = "test";
+    private static final String ID = "id";
+    private static final String VALUE = "value";
+    private static final String INSERT_LABEL = "CassandraStatementProfilerTest:insert:test";
+    private static final String SELECT_LABEL = "CassandraStatementProfilerTest:select:test";
+
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(CassandraModule.table(TABLE_NAME)
+        .comment("Testing table")
+        .statement(statement -> statement
+            .addPartitionKey(ID, DataType.text())
+            .addColumn(VALUE, DataType.text()))
+        .build());
+
+    private RecordingMetricFactory metricFactory;
+    private CassandraStatementProfiler profiler;
+    private Session session;
+    private PreparedStatement insert;
+    private PreparedStatement insertIfNotExists;
+    private PreparedStatement select;
+
+    @BeforeEach
+    void setUp(CassandraCluster cassandra) {
+        metricFactory = new RecordingMetricFactory();
+        profiler = new CassandraStatementProfiler(metricFactory);
+        session = new ProfiledSession(cassandra.getConf(), profiler);
+
+        insert = session.prepare(insertInto(TABLE_NAME)
+            .value(ID, bindMarker(ID))
+            .value(VALUE, bindMarker(VALUE)));
+        insertIfNotExists = session.prepare(insertInto(TABLE_NAME)
+            .value(ID, bindMarker(ID))
+            .value(VALUE, bindMarker(VALUE))
+            .ifNotExists());
+        select = session.prepare(select()
+            .from(TABLE_NAME)
+            .where(eq(ID, bindMarker(ID))));
+    }
+
+    @Test
+    void operationShouldExtractVerbAndTable() {
+        assertThat(CassandraStatementProfiler.operation("SELECT id,value FROM messageIdTable WHERE id=:id;"))
+            .isEqualTo("select:messageIdTable");
+    }
+
+    @Test
+    void operationShouldHandleInsertions() {
+        assertThat(CassandraStatementProfiler.operation("INSERT INTO test (id,value) VALUES (:id,:value);"))
+            .isEqualTo("insert:test");
+    }
+
+    @Test
+    void operationShouldHandleUpdates() {
+        assertThat(CassandraStatementProfiler.operation("UPDATE test SET value=:value WHERE id=:id;"))
+            .isEqualTo("update:test");
+    }
+
+    @Test
+    void operationShouldHandleDeletions() {
+        assertThat(CassandraStatementProfiler.operation("DELETE FROM test WHERE id=:id;"))
+            .isEqualTo("delete:test");
+    }
+
+    @Test
+    void operationShouldFallbackToOtherWhenUnknown() {
+        assertThat(CassandraStatementProfiler.operation("BEGIN BATCH"))
+            .isEqualTo("other");
+    }
+
+    @Test
+    void preparedStatementsShouldBeLabeledWithTheClassPreparingThem() {
+        session.execute(insert.bind().setString(ID, "1").setString(VALUE, "a"));
+
+        assertThat(profiler.top(10, StatementStatistics.SortBy.EXECUTIONS))
+            .extracting(StatementStatistics::getLabel)
+            .containsExactly(INSERT_LABEL);
+    }
+
+    @Test
+    void unpreparedStatementsShouldBeLabeledAsSuch() {
+        session.execute("SELECT * FROM test;");
+
+        assertThat(profiler.top(10, StatementStatistics.SortBy.EXECUTIONS))
+            .extracting(StatementStatistics::getLabel)
+            .containsExactly("unprepared:select:test");
+    }
+
+    @Test
+    void executionsShouldBeTimed() {
+        session.execute(insert.bind().setString(ID, "1").setString(VALUE, "a"));
+        session.execute(insert.bind().setString(ID, "2").setString(VALUE, "b"));
+
+        assertThat(metricFactory.executionTimesFor(CassandraStatementProfiler.METRIC_PREFIX + INSERT_LABEL))
+            .hasSize(2);
+    }
+
+    @Test
+    void rowsShouldBeRecorded() {
+        session.execute(insert.bind().setString(ID, "1").setString(VALUE, "a"));
+        session.execute(select.bind().setString(ID, "1"));
+        session.execute(select.bind().setString(ID, "2"));
+
+        assertThat(metricFactory.countFor(CassandraStatementProfiler.ROWS_METRIC_PREFIX + SELECT_LABEL))
+            .isEqualTo(1);
+    }
+
+    @Test
+    void notAppliedLightweightTransactionsShouldBeRecorded() {
+        session.execute(insertIfNotExists.bind().setString(ID, "1").setString(VALUE, "a"));
+        session.execute(insertIfNotExists.bind().setString(ID, "1").setString(VALUE, "b"));
+
+        assertThat(metricFactory.countFor(CassandraStatementProfiler.LWT_NOT_APPLIED_METRIC_PREFIX + INSERT_LABEL))
+            .isEqualTo(1);
+    }
+
+    @Test
+    void appliedStatementsShouldNotBeRecordedAsLightweightTransactionContention() {
+        session.execute(insert.bind().setString(ID, "1").setString(VALUE, "a"));
+        session.execute(insert.bind().setString(ID, "1").setString(VALUE, "b"));
+
+        assertThat(metricFactory.countFor(CassandraStatementProfiler.LWT_NOT_APPLIED_METRIC_PREFIX + INSERT_LABEL))
+            .isEqualTo(0);
+    }
+
+    @Test
+    void failuresShouldBeRecorded() {
+        assertThatThrownBy(() -> session.execute("SELECT * FROM notExisting;"))
+            .isInstanceOf(Exception.class);
+
+        assertThat(profiler.top(10, StatementStatistics.SortBy.EXECUTIONS))
+            .extracting(StatementStatistics::getFailures)
+            .containsExactly(1L);
+    }
+
+    @Test
+    void topShouldSortStatements() {
+        session.execute(insert.bind().setString(ID, "1").setString(VALUE, "a"));
+        session.execute(select.bind().setString(ID, "1"));
+        session.execute(select.bind().setString(ID, "1"));
+
+        assertThat(profiler.top(10, StatementStatistics.SortBy.EXECUTIONS))
+            .extracting(StatementStatistics::getLabel)
+            .containsExactly(SELECT_LABEL, INSERT_LABEL);
+    }
+
+    @Test
+    void topShouldApplyLimit() {
+        session.execute(insert.bind().setString(ID, "1").setString(VALUE, "a"));
+        session.execute(select.bind().setString(ID, "1"));
+        session.execute(select.bind().setString(ID, "1"));
+
+        assertThat(profiler.top(1, StatementStatistics.SortBy.EXECUTIONS))
+            .extracting(StatementStatistics::getLabel)
+            .containsExactly(SELECT_LABEL);
+    }
+
+    @Test
+    void topShouldRejectNonPositiveLimit() {
+        assertThatThrownBy(() -> profiler.top(0, StatementStatistics.SortBy.EXECUTIONS))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void resetShouldClearStatistics() {
+        session.execute(insert.bind().setString(ID, "1").setString(VALUE, "a"));
+
+        profiler.reset();
+
+        assertThat(profiler.top(10, StatementStatistics.SortBy.EXECUTIONS))
+            .isEmpty();
+    }
+}
@@ -0,0 +1,496 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.es;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.DocWriteResponse;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.publisher.UnicastProcessor;
+
+/**
+ * Buffers write requests and sends them to ElasticSearch as {@link BulkRequest}s, once enough of them were submitted or
+ * once the flush delay elapsed, while bounding the count of in-flight bulks. Bulks are further split so that their
+ * estimated size does not exceed the configured byte limit.
+ *
+ * The count of pending writes is bounded: once reached, submissions wait for earlier writes to complete. Writes of a
+ * same document are applied one after the other, so that neither concurrent bulks nor retries can reorder them.
+ *
+ * The {@link Mono} returned upon submission completes once the corresponding item is written. Failed items are retried
+ * individually and the submission fails once retries are exhausted, letting the caller, typically a mailbox listener,
+ * record the failure.
+ */
+public class BulkIndexer implements AutoCloseable {
+    public static class Configuration {
+        public static class Builder {
+            private Optional<Integer> maxBulkSize = Optional.empty();
+            private Optional<Long> maxBulkBytes = Optional.empty();
+            private Optional<Integer> maxPendingWrites = Optional.empty();
+            private Optional<Duration> flushDelay = Optional.empty();
+            private Optional<Integer> maxInFlightBulks = Optional.empty();
+            private Optional<Integer> maxRetries = Optional.empty();
+            private Optional<Duration> minRetryBackoff = Optional.empty();
+
+            public Builder maxBulkSize(int maxBulkSize) {
+                Preconditions.checkArgument(maxBulkSize > 0, "'maxBulkSize' needs to be strictly positive");
+                this.maxBulkSize = Optional.of(maxBulkSize);
+                return this;
+            }
+
+            public Builder maxBulkBytes(long maxBulkBytes) {
+                Preconditions.checkArgument(maxBulkBytes > 0, "'maxBulkBytes' needs to be strictly positive");
+                this.maxBulkBytes = Optional.of(maxBulkBytes);
+                return this;
+            }
+
+            public Builder maxPendingWrites(int maxPendingWrites) {
+                Preconditions.checkArgument(maxPendingWrites > 0, "'maxPendingWrites' needs to be strictly positive");
+                this.maxPendingWrites = Optional.of(maxPendingWrites);
+                return this;
+            }
+
+            public Builder flushDelay(Duration flushDelay) {
+                Preconditions.checkArgument(!flushDelay.isNegative() && !flushDelay.isZero(), "'flushDelay' needs to be strictly positive");
+                this.flushDelay = Optional.of(flushDelay);
+                return this;
+            }
+
+            public Builder maxInFlightBulks(int maxInFlightBulks) {
+                Preconditions.checkArgument(maxInFlightBulks > 0, "'maxInFlightBulks' needs to be strictly positive");
+                this.maxInFlightBulks = Optional.of(maxInFlightBulks);
+                return this;
+            }
+
+            public Builder maxRetries(int maxRetries) {
+                Preconditions.checkArgument(maxRetries >= 0, "'maxRetries' needs to be positive");
+                this.maxRetries = Optional.of(maxRetries);
+                return this;
+            }
+
+            public Builder minRetryBackoff(Duration minRetryBackoff) {
+                Preconditions.checkArgument(!minRetryBackoff.isNegative(), "'minRetryBackoff' needs to be positive");
+                this.minRetryBackoff = Optional.of(minRetryBackoff);
+                return this;
+            }
+
+            public Configuration build() {
+                return new Configuration(
+                    maxBulkSize.orElse(DEFAULT_MAX_BULK_SIZE),
+                    maxBulkBytes.orElse(DEFAULT_MAX_BULK_BYTES),
+                    maxPendingWrites.orElse(DEFAULT_MAX_PENDING_WRITES),
+                    flushDelay.orElse(DEFAULT_FLUSH_DELAY),
+                    maxInFlightBulks.orElse(DEFAULT_MAX_IN_FLIGHT_BULKS),
+                    maxRetries.orElse(DEFAULT_MAX_RETRIES),
+                    minRetryBackoff.orElse(DEFAULT_MIN_RETRY_BACKOFF));
+            }
+        }
+
+        public static final int DEFAULT_MAX_BULK_SIZE = 100;
+        public static final long DEFAULT_MAX_BULK_BYTES = 5 * 1024 * 1024;
+        public static final int DEFAULT_MAX_PENDING_WRITES = 10_000;
+        public static final Duration DEFAULT_FLUSH_DELAY = Duration.ofMillis(50);
+        public static final int DEFAULT_MAX_IN_FLIGHT_BULKS = 4;
+        public static final int DEFAULT_MAX_RETRIES = 3;
+        public static final Duration DEFAULT_MIN_RETRY_BACKOFF = Duration.ofMillis(100);
+        public static final Configuration DEFAULT = builder().build();
+
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        private final int maxBulkSize;
+        private final long maxBulkBytes;
+        private final int maxPendingWrites;
+        private final Duration flushDelay;
+        private final int maxInFlightBulks;
+        private final int maxRetries;
+        private final Duration minRetryBackoff;
+
+        private Configuration(int maxBulkSize, long maxBulkBytes, int maxPendingWrites, Duration flushDelay,
+                              int maxInFlightBulks, int maxRetries, Duration minRetryBackoff) {
+            this.maxBulkSize = maxBulkSize;
+            this.maxBulkBytes = maxBulkBytes;
+            this.maxPendingWrites = maxPendingWrites;
+            this.flushDelay = flushDelay;
+            this.maxInFlightBulks = maxInFlightBulks;
+            this.maxRetries = maxRetries;
+            this.minRetryBackoff = minRetryBackoff;
+        }
+
+        public int getMaxBulkSize() {
+            return maxBulkSize;
+        }
+
+        /**
+         * Bulks are split once their estimated size exceeds this limit. A single write bigger than it is sent alone.
+         */
+        public long getMaxBulkBytes() {
+            return maxBulkBytes;
+        }
+
+        /**
+         * Bounds the count of submitted writes not completed yet.
+         */
+        public int getMaxPendingWrites() {
+            return maxPendingWrites;
+        }
+
+        public Duration getFlushDelay() {
+            return flushDelay;
+        }
+
+        public int getMaxInFlightBulks() {
+            return maxInFlightBulks;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public Duration getMinRetryBackoff() {
+            return minRetryBackoff;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof Configuration) {
+                Configuration that = (Configuration) o;
+
+                return Objects.equals(this.maxBulkSize, that.maxBulkSize)
+                    && Objects.equals(this.maxBulkBytes, that.maxBulkBytes)
+                    && Objects.equals(this.maxPendingWrites, that.maxPendingWrites)
+                    && Objects.equals(this.flushDelay, that.flushDelay)
+                    && Objects.equals(this.maxInFlightBulks, that.maxInFlightBulks)
+                    && Objects.equals(this.maxRetries, that.maxRetries)
+                    && Objects.equals(this.minRetryBackoff, that.minRetryBackoff);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(maxBulkSize, maxBulkBytes, maxPendingWrites, flushDelay, maxInFlightBulks, maxRetries, minRetryBackoff);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                .add("maxBulkSize", maxBulkSize)
+                .add("maxBulkBytes", maxBulkBytes)
+                .add("maxPendingWrites", maxPendingWrites)
+                .add("flushDelay", flushDelay)
+                .add("maxInFlightBulks", maxInFlightBulks)
+                .add("maxRetries", maxRetries)
+                .add("minRetryBackoff", minRetryBackoff)
+                .toString();
+        }
+    }
+
+    private static class PendingOperation {
+        private final DocWriteRequest<?> request;
+        private final long sizeInBytes;
+        private final MonoProcessor<DocWriteResponse> result;
+
+        PendingOperation(DocWriteRequest<?> request) {
+            this.request = request;
+            this.sizeInBytes = new BulkRequest().add(request).estimatedSizeInBytes();
+            this.result = MonoProcessor.create();
+        }
+
+        String documentKey() {
+            return request.index() + "/" + request.id();
+        }
+
+        Mono<Void> completion() {
+            return result.then()
+                .onErrorResume(e -> Mono.empty());
+        }
+
+        void succeed(DocWriteResponse response) {
+            result.onNext(response);
+        }
+
+        void skip() {
+            result.onComplete();
+        }
+
+        void fail(Throwable throwable) {
+            result.onError(throwable);
+        }
+    }
+
+    public static final String BULK_LATENCY_METRIC_NAME = "es-bulk";
+    public static final String BULK_COUNT_METRIC_NAME = "es-bulk-count";
+    public static final String BULK_ITEMS_METRIC_NAME = "es-bulk-items";
+    public static final String RETRIED_ITEMS_METRIC_NAME = "es-bulk-retried-items";
+    public static final String FAILED_ITEMS_METRIC_NAME = "es-bulk-failed-items";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkIndexer.class);
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ReactorElasticSearchClient client;
+    private final Configuration configuration;
+    private final MetricFactory metricFactory;
+    private final Metric bulkCount;
+    private final Metric bulkItems;
+    private final Metric retriedItems;
+    private final Metric failedItems;
+    private final FluxSink<PendingOperation> pendingOperations;
+    private final MonoProcessor<Void> termination;
+    private final AtomicInteger availablePermits;
+    private final Queue<MonoProcessor<Void>> permitWaiters;
+    private final Map<String, Mono<Void>> lastWritePerDocument;
+    private final AtomicBoolean closed;
+
+    public BulkIndexer(ReactorElasticSearchClient client, Configuration configuration, MetricFactory metricFactory) {
+        this.client = client;
+        this.configuration = configuration;
+        this.metricFactory = metricFactory;
+        this.bulkCount = metricFactory.generate(BULK_COUNT_METRIC_NAME);
+        this.bulkItems = metricFactory.generate(BULK_ITEMS_METRIC_NAME);
+        this.retriedItems = metricFactory.generate(RETRIED_ITEMS_METRIC_NAME);
+        this.failedItems = metricFactory.generate(FAILED_ITEMS_METRIC_NAME);
+
+        this.availablePermits = new AtomicInteger(configuration.getMaxPendingWrites());
+        this.permitWaiters = new ConcurrentLinkedQueue<>();
+        this.lastWritePerDocument = new ConcurrentHashMap<>();
+        this.closed = new AtomicBoolean(false);
+
+        UnicastProcessor<PendingOperation> processor = UnicastProcessor.create();
+        this.pendingOperations = processor.sink();
+        this.termination = processor
+            .bufferTimeout(configuration.getMaxBulkSize(), configuration.getFlushDelay())
+            .onBackpressureBuffer(configuration.getMaxPendingWrites())
+            .concatMapIterable(this::splitBySize)
+            .flatMap(this::execute, configuration.getMaxInFlightBulks())
+            .then()
+            .subscribeWith(MonoProcessor.create());
+    }
+
+    /**
+     * The returned {@link Mono} waits for a pending write slot before submitting the request.
+     */
+    public Mono<DocWriteResponse> submit(DocWriteRequest<?> request) {
+        return acquirePermit()
+            .then(Mono.defer(() -> {
+                PendingOperation operation = new PendingOperation(request);
+                enqueueAfterPreviousWriteOfSameDocument(operation);
+                return operation.result;
+            }));
+    }
+
+    private void enqueueAfterPreviousWriteOfSameDocument(PendingOperation operation) {
+        String documentKey = operation.documentKey();
+        Mono<Void> completion = operation.completion();
+        Mono<Void> previousWrite = Optional.ofNullable(lastWritePerDocument.put(documentKey, completion))
+            .orElse(Mono.empty());
+
+        completion
+            .doFinally(signal -> {
+                lastWritePerDocument.remove(documentKey, completion);
+                releasePermit();
+            })
+            .subscribe();
+        previousWrite
+            .then(Mono.fromRunnable(() -> enqueue(operation)))
+            .subscribe();
+    }
+
+    private void enqueue(PendingOperation operation) {
+        if (closed.get()) {
+            operation.fail(new IllegalStateException("BulkIndexer is closed"));
+            return;
+        }
+        pendingOperations.next(operation);
+    }
+
+    private Mono<Void> acquirePermit() {
+        return Mono.defer(() -> {
+            if (closed.get()) {
+                return Mono.error(new IllegalStateException("BulkIndexer is closed"));
+            }
+            if (tryAcquirePermit()) {
+                return Mono.empty();
+            }
+            MonoProcessor<Void> waiter = MonoProcessor.create();
+            permitWaiters.add(waiter);
+            // A permit might have been released before the waiter was registered
+            if (tryAcquirePermit()) {
+                if (!permitWaiters.remove(waiter)) {
+                    releasePermit();
+                }
+                return Mono.empty();
+            }
+            return waiter.doOnCancel(() -> {
+                if (!permitWaiters.remove(waiter)) {
+                    releasePermit();
+                }
+            });
+        });
+    }
+
+    private boolean tryAcquirePermit() {
+        int permits = availablePermits.get();
+        while (permits > 0) {
+            if (availablePermits.compareAndSet(permits, permits - 1)) {
+                return true;
+            }
+            permits = availablePermits.get();
+        }
+        return false;
+    }
+
+    private void releasePermit() {
+        MonoProcessor<Void> waiter = permitWaiters.poll();
+        if (waiter != null) {
+            waiter.onComplete();
+        } else {
+            availablePermits.incrementAndGet();
+        }
+    }
+
+    private List<List<PendingOperation>> splitBySize(List<PendingOperation> operations) {
+        ImmutableList.Builder<List<PendingOperation>> bulks = ImmutableList.builder();
+        List<PendingOperation> bulk = new ArrayList<>();
+        long bulkSize = 0;
+        for (PendingOperation operation : operations) {
+            if (!bulk.isEmpty() && bulkSize + operation.sizeInBytes > configuration.getMaxBulkBytes()) {
+                bulks.add(bulk);
+                bulk = new ArrayList<>();
+                bulkSize = 0;
+            }
+            bulk.add(operation);
+            bulkSize += operation.sizeInBytes;
+        }
+        if (!bulk.isEmpty()) {
+            bulks.add(bulk);
+        }
+        return bulks.build();
+    }
+
+    private Mono<Void> execute(List<PendingOperation> operations) {
+        BulkRequest bulkRequest = new BulkRequest();
+        operations.forEach(operation -> bulkRequest.add(operation.request));
+        bulkCount.increment();
+        bulkItems.add(operations.size());
+
+        return Mono.from(metricFactory.decoratePublisherWithTimerMetric(BULK_LATENCY_METRIC_NAME,
+                client.bulk(bulkRequest, RequestOptions.DEFAULT)))
+            .flatMapMany(response -> complete(operations, response))
+            .onErrorResume(e -> {
+                LOGGER.warn("Bulk of {} items failed, retrying them individually", operations.size(), e);
+                return Flux.fromIterable(operations)
+                    .flatMap(this::retryIndividually);
+            })
+            .then();
+    }
+
+    private Flux<Void> complete(List<PendingOperation> operations, BulkResponse response) {
+        BulkItemResponse[] items = response.getItems();
+        return Flux.range(0, operations.size())
+            .flatMap(i -> complete(operations.get(i), items[i]));
+    }
+
+    private Mono<Void> complete(PendingOperation operation, BulkItemResponse item) {
+        if (!item.isFailed()) {
+            operation.succeed(item.<DocWriteResponse>getResponse());
+            return Mono.empty();
+        }
+        if (item.getFailure().getStatus() == RestStatus.NOT_FOUND) {
+            LOGGER.warn("Skipping {} of missing document {}", item.getOpType(), item.getId());
+            operation.skip();
+            return Mono.empty();
+        }
+        return retryIndividually(operation);
+    }
+
+    private Mono<Void> retryIndividually(PendingOperation operation) {
+        retriedItems.increment();
+
+        return Mono.defer(() -> client.bulk(new BulkRequest().add(operation.request), RequestOptions.DEFAULT))
+            .map(response -> response.getItems()[0])
+            .flatMap(item -> {
+                if (item.isFailed() && item.getFailure().getStatus() != RestStatus.NOT_FOUND) {
+                    return Mono.<DocWriteResponse>error(item.getFailure().getCause());
+                }
+                return Mono.justOrEmpty(item.<DocWriteResponse>getResponse());
+            })
+            .retryBackoff(configuration.getMaxRetries(), configuration.getMinRetryBackoff())
+            .doOnNext(operation::succeed)
+            .switchIfEmpty(Mono.fromRunnable(operation::skip))
+            .onErrorResume(e -> {
+                LOGGER.error("Failed to write {} after {} retries", operation.request, configuration.getMaxRetries(), e);
+                failedItems.increment();
+                operation.fail(e);
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    /**
+     * Rejects further submissions, then waits for the pending writes to be flushed.
+     */
+    @Override
+    public void close() {
+        if (closed.getAndSet(true)) {
+            return;
+        }
+        MonoProcessor<Void> waiter = permitWaiters.poll();
+        while (waiter != null) {
+            waiter.onError(new IllegalStateException("BulkIndexer is closed"));
+            waiter = permitWaiters.poll();
+        }
+        pendingOperations.complete();
+        try {
+            termination.block(CLOSE_TIMEOUT);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Pending writes were not flushed within {}", CLOSE_TIMEOUT, e);
+            termination.dispose();
+        }
+    }
+}
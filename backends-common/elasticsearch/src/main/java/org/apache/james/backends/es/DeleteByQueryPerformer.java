@@ -19,6 +19,8 @@
 
 package org.apache.james.backends.es;
 
+import java.util.Optional;
+
 import org.apache.james.backends.es.search.ScrolledSearch;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
@@ -26,6 +28,7 @@ import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.common.document.DocumentField;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.search.SearchHit;
@@ -50,20 +53,32 @@ public class DeleteByQueryPerformer {
     }
 
     public Mono<Void> perform(QueryBuilder queryBuilder, RoutingKey routingKey) {
-        SearchRequest searchRequest = prepareSearch(queryBuilder, routingKey);
+        SearchRequest searchRequest = prepareSearch(queryBuilder)
+            .routing(routingKey.asString());
 
+        return perform(searchRequest);
+    }
+
+    /**
+     * Searches all shards, for documents whose routing key is unknown. Each of them is deleted with the routing key it
+     * was indexed with.
+     */
+    public Mono<Void> perform(QueryBuilder queryBuilder) {
+        return perform(prepareSearch(queryBuilder));
+    }
+
+    private Mono<Void> perform(SearchRequest searchRequest) {
         return new ScrolledSearch(client, searchRequest).searchResponses()
             .filter(searchResponse -> searchResponse.getHits().getHits().length > 0)
-            .flatMap(searchResponse -> deleteRetrievedIds(searchResponse, routingKey))
+            .flatMap(this::deleteRetrievedIds)
             .then();
     }
 
-    private SearchRequest prepareSearch(QueryBuilder queryBuilder, RoutingKey routingKey) {
+    private SearchRequest prepareSearch(QueryBuilder queryBuilder) {
         return new SearchRequest(aliasName.getValue())
             .types(NodeMappingFactory.DEFAULT_MAPPING_NAME)
             .scroll(TIMEOUT)
-            .source(searchSourceBuilder(queryBuilder))
-            .routing(routingKey.asString());
+            .source(searchSourceBuilder(queryBuilder));
     }
 
     private SearchSourceBuilder searchSourceBuilder(QueryBuilder queryBuilder) {
@@ -72,7 +87,7 @@ public class DeleteByQueryPerformer {
             .size(batchSize);
     }
 
-    private Mono<BulkResponse> deleteRetrievedIds(SearchResponse searchResponse, RoutingKey routingKey) {
+    private Mono<BulkResponse> deleteRetrievedIds(SearchResponse searchResponse) {
         BulkRequest request = new BulkRequest();
 
         for (SearchHit hit : searchResponse.getHits()) {
@@ -80,9 +95,16 @@ public class DeleteByQueryPerformer {
                 new DeleteRequest(aliasName.getValue())
                     .type(NodeMappingFactory.DEFAULT_MAPPING_NAME)
                     .id(hit.getId())
-                    .routing(routingKey.asString()));
+                    .routing(routing(hit)));
         }
 
         return client.bulk(request, RequestOptions.DEFAULT);
     }
+
+    private String routing(SearchHit hit) {
+        return Optional.ofNullable(hit.field(NodeMappingFactory.ROUTING))
+            .map(DocumentField::getValue)
+            .map(String::valueOf)
+            .orElse(null);
+    }
 }
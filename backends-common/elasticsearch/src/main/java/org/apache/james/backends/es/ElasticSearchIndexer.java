@@ -19,10 +19,13 @@
 package org.apache.james.backends.es;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.apache.commons.lang3.StringUtils;
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.ActionRequestValidationException;
+import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.bulk.BulkRequest;
-import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.get.GetRequest;
 import org.elasticsearch.action.get.GetResponse;
@@ -36,9 +39,11 @@ import org.elasticsearch.index.query.QueryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.steveash.guavate.Guavate;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class ElasticSearchIndexer {
@@ -50,30 +55,51 @@ public class ElasticSearchIndexer {
     private final ReactorElasticSearchClient client;
     private final AliasName aliasName;
     private final DeleteByQueryPerformer deleteByQueryPerformer;
+    private final Optional<BulkIndexer> bulkIndexer;
 
     public ElasticSearchIndexer(ReactorElasticSearchClient client,
                                 WriteAliasName aliasName) {
         this(client, aliasName, DEFAULT_BATCH_SIZE);
     }
 
+    /**
+     * Writes are buffered by the given {@link BulkIndexer}, and grouped with other writes into bulks.
+     */
+    public ElasticSearchIndexer(ReactorElasticSearchClient client,
+                                WriteAliasName aliasName,
+                                BulkIndexer bulkIndexer) {
+        this(client, aliasName, DEFAULT_BATCH_SIZE, Optional.of(bulkIndexer));
+    }
+
     @VisibleForTesting
     public ElasticSearchIndexer(ReactorElasticSearchClient client,
                                 WriteAliasName aliasName,
                                 int batchSize) {
+        this(client, aliasName, batchSize, Optional.empty());
+    }
+
+    private ElasticSearchIndexer(ReactorElasticSearchClient client,
+                                 WriteAliasName aliasName,
+                                 int batchSize,
+                                 Optional<BulkIndexer> bulkIndexer) {
         this.client = client;
         this.deleteByQueryPerformer = new DeleteByQueryPerformer(client, batchSize, aliasName);
         this.aliasName = aliasName;
+        this.bulkIndexer = bulkIndexer;
     }
 
     public Mono<IndexResponse> index(DocumentId id, String content, RoutingKey routingKey) {
         checkArgument(content);
         logContent(id, content);
-        return client.index(new IndexRequest(aliasName.getValue())
-                .type(NodeMappingFactory.DEFAULT_MAPPING_NAME)
-                .id(id.asString())
-                .source(content, XContentType.JSON)
-                .routing(routingKey.asString()),
-            RequestOptions.DEFAULT);
+        IndexRequest request = new IndexRequest(aliasName.getValue())
+            .type(NodeMappingFactory.DEFAULT_MAPPING_NAME)
+            .id(id.asString())
+            .source(content, XContentType.JSON)
+            .routing(routingKey.asString());
+
+        return bulkIndexer
+            .map(indexer -> indexer.submit(request).cast(IndexResponse.class))
+            .orElseGet(() -> client.index(request, RequestOptions.DEFAULT));
     }
 
     private void logContent(DocumentId id, String content) {
@@ -82,43 +108,76 @@ public class ElasticSearchIndexer {
         }
     }
 
-    public Mono<BulkResponse> update(List<UpdatedRepresentation> updatedDocumentParts, RoutingKey routingKey) {
+    public Mono<Void> update(List<UpdatedRepresentation> updatedDocumentParts, RoutingKey routingKey) {
         Preconditions.checkNotNull(updatedDocumentParts);
         Preconditions.checkNotNull(routingKey);
-        BulkRequest request = new BulkRequest();
-        updatedDocumentParts.forEach(updatedDocumentPart -> request.add(
-            new UpdateRequest(aliasName.getValue(),
-                NodeMappingFactory.DEFAULT_MAPPING_NAME,
-                updatedDocumentPart.getId().asString())
+        List<UpdateRequest> requests = updatedDocumentParts.stream()
+            .map(updatedDocumentPart -> new UpdateRequest(aliasName.getValue(),
+                    NodeMappingFactory.DEFAULT_MAPPING_NAME,
+                    updatedDocumentPart.getId().asString())
                 .doc(updatedDocumentPart.getUpdatedDocumentPart(), XContentType.JSON)
-                .routing(routingKey.asString())));
+                .routing(routingKey.asString()))
+            .collect(Guavate.toImmutableList());
 
-        return client.bulk(request, RequestOptions.DEFAULT)
-            .onErrorResume(ValidationException.class, exception -> {
-                LOGGER.warn("Error while updating index", exception);
-                return Mono.empty();
-            });
+        return write(requests, "Error while updating index");
     }
 
-    public Mono<BulkResponse> delete(List<DocumentId> ids, RoutingKey routingKey) {
-        BulkRequest request = new BulkRequest();
-        ids.forEach(id -> request.add(
-            new DeleteRequest(aliasName.getValue())
+    public Mono<Void> delete(List<DocumentId> ids, RoutingKey routingKey) {
+        List<DeleteRequest> requests = ids.stream()
+            .map(id -> new DeleteRequest(aliasName.getValue())
                 .type(NodeMappingFactory.DEFAULT_MAPPING_NAME)
                 .id(id.asString())
-                .routing(routingKey.asString())));
+                .routing(routingKey.asString()))
+            .collect(Guavate.toImmutableList());
+
+        return write(requests, "Error while deleting index");
+    }
+
+    private Mono<Void> write(List<? extends DocWriteRequest<?>> requests, String errorMessage) {
+        return bulkIndexer
+            .map(indexer -> writeThroughBulkIndexer(indexer, requests, errorMessage))
+            .orElseGet(() -> writeAsSingleBulk(requests, errorMessage));
+    }
+
+    private Mono<Void> writeAsSingleBulk(List<? extends DocWriteRequest<?>> requests, String errorMessage) {
+        BulkRequest request = new BulkRequest();
+        requests.forEach(request::add);
 
         return client.bulk(request, RequestOptions.DEFAULT)
             .onErrorResume(ValidationException.class, exception -> {
-                LOGGER.warn("Error while deleting index", exception);
+                LOGGER.warn(errorMessage, exception);
                 return Mono.empty();
-            });
+            })
+            .then();
+    }
+
+    private Mono<Void> writeThroughBulkIndexer(BulkIndexer indexer, List<? extends DocWriteRequest<?>> requests, String errorMessage) {
+        return Flux.fromIterable(requests)
+            .filter(request -> isValid(request, errorMessage))
+            .flatMap(indexer::submit)
+            .then();
+    }
+
+    private boolean isValid(DocWriteRequest<?> request, String errorMessage) {
+        ActionRequestValidationException exception = ((ActionRequest) request).validate();
+        if (exception != null) {
+            LOGGER.warn(errorMessage, exception);
+            return false;
+        }
+        return true;
     }
 
     public Mono<Void> deleteAllMatchingQuery(QueryBuilder queryBuilder, RoutingKey routingKey) {
         return deleteByQueryPerformer.perform(queryBuilder, routingKey);
     }
 
+    /**
+     * Searches all shards, for documents whose routing key is not known.
+     */
+    public Mono<Void> deleteAllMatchingQuery(QueryBuilder queryBuilder) {
+        return deleteByQueryPerformer.perform(queryBuilder);
+    }
+
     private void checkArgument(String content) {
         Preconditions.checkArgument(content != null, "content should be provided");
     }
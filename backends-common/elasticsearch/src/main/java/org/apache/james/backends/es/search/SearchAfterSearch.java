@@ -0,0 +1,110 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.backends.es.search;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.apache.james.backends.es.ReactorElasticSearchClient;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.search.SearchHit;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Pages through search results using search_after on the sort values of the last hit of the previous page.
+ *
+ * Unlike {@link ScrolledSearch}, no search context is held server side between pages, and nothing needs to be cleared
+ * once the caller stops reading. Pages are read as they are requested.
+ *
+ * Each page is issued with a fresh request of the supplier. Its sort needs to define a total order (eg. by ending with
+ * a field unique per document) otherwise documents sharing the same sort values across two pages could be skipped.
+ */
+public class SearchAfterSearch {
+    private static class Page {
+        private final int requestedSize;
+        private final SearchResponse response;
+
+        Page(int requestedSize, SearchResponse response) {
+            this.requestedSize = requestedSize;
+            this.response = response;
+        }
+
+        SearchHit[] hits() {
+            return response.getHits().getHits();
+        }
+
+        boolean isLast() {
+            return hits().length == 0 || hits().length < requestedSize;
+        }
+
+        Object[] lastSortValues() {
+            SearchHit[] hits = hits();
+            return hits[hits.length - 1].getSortValues();
+        }
+    }
+
+    private static final int DEFAULT_ELASTICSEARCH_PAGE_SIZE = 10;
+
+    private final ReactorElasticSearchClient client;
+    private final Supplier<SearchRequest> searchRequestSupplier;
+
+    public SearchAfterSearch(ReactorElasticSearchClient client, Supplier<SearchRequest> searchRequestSupplier) {
+        this.client = client;
+        this.searchRequestSupplier = searchRequestSupplier;
+    }
+
+    public Flux<SearchHit> searchHits() {
+        return searchResponses()
+            .concatMap(searchResponse -> Flux.just(searchResponse.getHits().getHits()), 1);
+    }
+
+    public Flux<SearchResponse> searchResponses() {
+        return search(Optional.empty())
+            .expand(this::nextPage)
+            .map(page -> page.response);
+    }
+
+    private Mono<Page> nextPage(Page previousPage) {
+        if (previousPage.isLast()) {
+            return Mono.empty();
+        }
+        return search(Optional.of(previousPage.lastSortValues()));
+    }
+
+    private Mono<Page> search(Optional<Object[]> searchAfter) {
+        return Mono.fromCallable(searchRequestSupplier::get)
+            .flatMap(searchRequest -> {
+                searchAfter.ifPresent(searchRequest.source()::searchAfter);
+                return client.search(searchRequest, RequestOptions.DEFAULT)
+                    .map(response -> new Page(requestedSize(searchRequest), response));
+            });
+    }
+
+    private int requestedSize(SearchRequest searchRequest) {
+        int size = searchRequest.source().size();
+        if (size < 0) {
+            return DEFAULT_ELASTICSEARCH_PAGE_SIZE;
+        }
+        return size;
+    }
+}
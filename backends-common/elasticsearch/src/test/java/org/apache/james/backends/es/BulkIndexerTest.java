@@ -0,0 +1,250 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.es;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.get.GetRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.google.common.base.Strings;
+
+import reactor.core.publisher.Flux;
+
+class BulkIndexerTest {
+    private static final IndexName INDEX_NAME = new IndexName("index_name");
+    private static final WriteAliasName ALIAS_NAME = new WriteAliasName("alias_name");
+    private static final BulkIndexer.Configuration CONFIGURATION = BulkIndexer.Configuration.builder()
+        .maxBulkSize(3)
+        .flushDelay(Duration.ofMillis(200))
+        .maxRetries(1)
+        .minRetryBackoff(Duration.ofMillis(1))
+        .build();
+
+    @RegisterExtension
+    public DockerElasticSearchExtension elasticSearch = new DockerElasticSearchExtension();
+    private ReactorElasticSearchClient client;
+    private RecordingMetricFactory metricFactory;
+    private BulkIndexer testee;
+
+    @BeforeEach
+    void setup() {
+        client = elasticSearch.getDockerElasticSearch().clientProvider().get();
+        new IndexCreationFactory(ElasticSearchConfiguration.DEFAULT_CONFIGURATION)
+            .useIndex(INDEX_NAME)
+            .addAlias(ALIAS_NAME)
+            .createIndexAndAliases(client);
+        metricFactory = new RecordingMetricFactory();
+        testee = new BulkIndexer(client, CONFIGURATION, metricFactory);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        testee.close();
+        client.close();
+    }
+
+    @Test
+    void submittedWritesShouldBeIndexed() {
+        Flux.range(0, 2)
+            .flatMap(i -> testee.submit(indexRequest(String.valueOf(i), "{\"message\": \"trying out Elasticsearch\"}")))
+            .blockLast();
+        elasticSearch.awaitForElasticSearch();
+
+        assertThat(client.search(new SearchRequest(INDEX_NAME.getValue())
+                    .source(new SearchSourceBuilder().query(QueryBuilders.matchQuery("message", "trying"))),
+                RequestOptions.DEFAULT)
+            .block()
+            .getHits()
+            .getTotalHits())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void concurrentWritesShouldBeGroupedIntoBulks() {
+        Flux.range(0, 2)
+            .flatMap(i -> testee.submit(indexRequest(String.valueOf(i), "{\"message\": \"trying out Elasticsearch\"}")))
+            .blockLast();
+
+        assertThat(metricFactory.countFor(BulkIndexer.BULK_COUNT_METRIC_NAME)).isEqualTo(1);
+        assertThat(metricFactory.countFor(BulkIndexer.BULK_ITEMS_METRIC_NAME)).isEqualTo(2);
+    }
+
+    @Test
+    void bulksShouldBeSentOnceFull() {
+        Flux.range(0, 6)
+            .flatMap(i -> testee.submit(indexRequest(String.valueOf(i), "{\"message\": \"trying out Elasticsearch\"}")))
+            .blockLast();
+
+        assertThat(metricFactory.countFor(BulkIndexer.BULK_COUNT_METRIC_NAME)).isEqualTo(2);
+        assertThat(metricFactory.countFor(BulkIndexer.BULK_ITEMS_METRIC_NAME)).isEqualTo(6);
+    }
+
+    @Test
+    void bulkLatencyShouldBeRecorded() {
+        testee.submit(indexRequest("1", "{\"message\": \"trying out Elasticsearch\"}")).block();
+
+        assertThat(metricFactory.executionTimesFor(BulkIndexer.BULK_LATENCY_METRIC_NAME)).hasSize(1);
+    }
+
+    @Test
+    void failingItemsShouldNotFailOtherItemsOfTheBulk() {
+        testee.submit(indexRequest("1", "{\"count\": 1}")).block();
+        elasticSearch.awaitForElasticSearch();
+
+        Flux.just(indexRequest("2", "{\"count\": \"notANumber\"}"), indexRequest("3", "{\"count\": 3}"))
+            .flatMap(request -> testee.submit(request)
+                .onErrorResume(e -> Flux.empty()))
+            .blockLast();
+
+        assertThat(client.get(new GetRequest(ALIAS_NAME.getValue())
+                    .type(NodeMappingFactory.DEFAULT_MAPPING_NAME)
+                    .id("3"), RequestOptions.DEFAULT)
+            .block()
+            .isExists())
+            .isTrue();
+    }
+
+    @Test
+    void failingItemsShouldFailTheirSubmissionOnceRetriesExhausted() {
+        testee.submit(indexRequest("1", "{\"count\": 1}")).block();
+        elasticSearch.awaitForElasticSearch();
+
+        assertThatThrownBy(() -> testee.submit(indexRequest("2", "{\"count\": \"notANumber\"}")).block())
+            .isInstanceOf(Exception.class);
+        assertThat(metricFactory.countFor(BulkIndexer.RETRIED_ITEMS_METRIC_NAME)).isEqualTo(1);
+        assertThat(metricFactory.countFor(BulkIndexer.FAILED_ITEMS_METRIC_NAME)).isEqualTo(1);
+    }
+
+    @Test
+    void updatingMissingDocumentsShouldNotFail() {
+        DocWriteRequest<?> update = new UpdateRequest(ALIAS_NAME.getValue(), NodeMappingFactory.DEFAULT_MAPPING_NAME, "missing")
+            .doc("{\"message\": \"mastering out Elasticsearch\"}", XContentType.JSON);
+
+        assertThatCode(() -> testee.submit(update).block())
+            .doesNotThrowAnyException();
+    }
+
+    @Test
+    void bulksShouldBeSplitOnceTheirSizeExceedsTheLimit() {
+        BulkIndexer indexer = new BulkIndexer(client, BulkIndexer.Configuration.builder()
+                .maxBulkSize(3)
+                .maxBulkBytes(1024)
+                .build(),
+            metricFactory);
+        String bigContent = "{\"message\": \"" + Strings.repeat("a", 600) + "\"}";
+
+        Flux.range(0, 3)
+            .flatMap(i -> indexer.submit(indexRequest(String.valueOf(i), bigContent)))
+            .blockLast();
+        indexer.close();
+
+        assertThat(metricFactory.countFor(BulkIndexer.BULK_COUNT_METRIC_NAME)).isEqualTo(3);
+        assertThat(metricFactory.countFor(BulkIndexer.BULK_ITEMS_METRIC_NAME)).isEqualTo(3);
+    }
+
+    @Test
+    void writesOfASameDocumentShouldBeAppliedInSubmissionOrder() {
+        Flux.just(indexRequest("1", "{\"message\": \"trying out Elasticsearch\"}"), deleteRequest("1"))
+            .flatMap(testee::submit)
+            .blockLast();
+
+        assertThat(client.get(new GetRequest(ALIAS_NAME.getValue())
+                    .type(NodeMappingFactory.DEFAULT_MAPPING_NAME)
+                    .id("1"), RequestOptions.DEFAULT)
+            .block()
+            .isExists())
+            .isFalse();
+    }
+
+    @Test
+    void writesOfASameDocumentShouldNotBeGroupedWithinABulk() {
+        Flux.just(indexRequest("1", "{\"message\": \"trying out Elasticsearch\"}"), deleteRequest("1"))
+            .flatMap(testee::submit)
+            .blockLast();
+
+        assertThat(metricFactory.countFor(BulkIndexer.BULK_COUNT_METRIC_NAME)).isEqualTo(2);
+    }
+
+    @Test
+    void submissionsShouldWaitOnceMaxPendingWritesIsReached() {
+        BulkIndexer indexer = new BulkIndexer(client, BulkIndexer.Configuration.builder()
+                .maxBulkSize(3)
+                .maxPendingWrites(1)
+                .build(),
+            metricFactory);
+
+        Flux.range(0, 3)
+            .flatMap(i -> indexer.submit(indexRequest(String.valueOf(i), "{\"message\": \"trying out Elasticsearch\"}")))
+            .blockLast();
+        indexer.close();
+
+        assertThat(metricFactory.countFor(BulkIndexer.BULK_COUNT_METRIC_NAME)).isEqualTo(3);
+        assertThat(metricFactory.countFor(BulkIndexer.BULK_ITEMS_METRIC_NAME)).isEqualTo(3);
+    }
+
+    @Test
+    void closeShouldFlushPendingWrites() {
+        testee.submit(indexRequest("1", "{\"message\": \"trying out Elasticsearch\"}")).subscribe();
+
+        testee.close();
+
+        assertThat(metricFactory.countFor(BulkIndexer.BULK_ITEMS_METRIC_NAME)).isEqualTo(1);
+    }
+
+    @Test
+    void submitShouldFailOnceClosed() {
+        testee.close();
+
+        assertThatThrownBy(() -> testee.submit(indexRequest("1", "{\"message\": \"trying out Elasticsearch\"}")).block())
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    private DeleteRequest deleteRequest(String id) {
+        return new DeleteRequest(ALIAS_NAME.getValue())
+            .type(NodeMappingFactory.DEFAULT_MAPPING_NAME)
+            .id(id);
+    }
+
+    private IndexRequest indexRequest(String id, String content) {
+        return new IndexRequest(ALIAS_NAME.getValue())
+            .type(NodeMappingFactory.DEFAULT_MAPPING_NAME)
+            .id(id)
+            .source(content, XContentType.JSON);
+    }
+}
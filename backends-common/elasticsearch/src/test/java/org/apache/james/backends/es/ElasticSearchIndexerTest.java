@@ -176,6 +176,28 @@ class ElasticSearchIndexerTest {
                 .getHits().getTotalHits() == 0);
     }
 
+    @Test
+    void deleteByQueryWithoutRoutingKeyShouldDeleteDocumentsOfAllRoutingKeys() {
+        DocumentId documentId = DocumentId.fromString("1:1");
+        DocumentId documentId2 = DocumentId.fromString("2:1");
+        String content = "{\"message\": \"trying out Elasticsearch\", \"property\":\"1\"}";
+
+        testee.index(documentId, content, useDocumentId(documentId)).block();
+        testee.index(documentId2, content, useDocumentId(documentId2)).block();
+        elasticSearch.awaitForElasticSearch();
+
+        testee.deleteAllMatchingQuery(termQuery("property", "1")).block();
+        elasticSearch.awaitForElasticSearch();
+
+        CALMLY_AWAIT.atMost(Duration.TEN_SECONDS)
+            .until(() -> client.search(
+                    new SearchRequest(INDEX_NAME.getValue())
+                        .source(new SearchSourceBuilder().query(QueryBuilders.matchAllQuery())),
+                    RequestOptions.DEFAULT)
+                .block()
+                .getHits().getTotalHits() == 0);
+    }
+
     @Test
     void deleteByQueryShouldWorkWhenMultipleMessages() {
         DocumentId documentId = DocumentId.fromString("1:1");
@@ -57,6 +57,9 @@ import org.apache.james.mime4j.message.DefaultMessageWriter;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
 /**
  * Interface which represent a Mailbox
  * 
@@ -112,6 +115,27 @@ public interface MessageManager {
      */
     Stream<MessageUid> search(SearchQuery searchQuery, MailboxSession mailboxSession) throws MailboxException;
 
+    /**
+     * Threads the messages matching the given query following the ORDEREDSUBJECT algorithm of RFC-5256: messages
+     * sharing the same base subject belong to the same thread. Sorts of the query are ignored.
+     *
+     * @return the threads, ordered by the sent date of their first message. Each thread lists its first message
+     *         followed by the other ones, ordered by sent date
+     * @throws MailboxException
+     *             when search fails
+     */
+    List<List<MessageUid>> searchThreads(SearchQuery searchQuery, MailboxSession mailboxSession) throws MailboxException;
+
+    /**
+     * Return the uids of the messages expunged since the given mod-sequence, as tracked by the mailbox implementation.
+     * Uids of messages expunged earlier may be returned too.
+     *
+     * @return empty when expunges are not tracked back to the given mod-sequence
+     */
+    default Optional<List<MessageUid>> listExpungedUidsSince(ModSeq modSeq, MailboxSession mailboxSession) throws MailboxException {
+        return Optional.empty();
+    }
+
     /**
      * Expunges messages in the given range from this mailbox by first retrieving the messages to be deleted
      * and then deleting them.
@@ -217,11 +241,13 @@ public interface MessageManager {
             private Optional<Date> internalDate;
             private Optional<Boolean> isRecent;
             private Optional<Flags> flags;
+            private Optional<String> storedBodyBlobId;
 
             private Builder() {
                 this.internalDate = Optional.empty();
                 this.isRecent = Optional.empty();
                 this.flags = Optional.empty();
+                this.storedBodyBlobId = Optional.empty();
             }
 
             public Builder withFlags(Flags flags) {
@@ -247,12 +273,23 @@ public interface MessageManager {
                 return isRecent(false);
             }
 
+            /**
+             * The body of the message is already stored in the blob store, under the given blob id. Implementations
+             * storing bodies in that blob store may reference it rather than storing the body again, once checked that
+             * it matches the appended body.
+             */
+            public Builder withStoredBody(String blobId) {
+                this.storedBodyBlobId = Optional.of(blobId);
+                return this;
+            }
+
             public AppendCommand build(InputStream msgIn) {
                 return new AppendCommand(
                     msgIn,
                     internalDate.orElse(new Date()),
                     isRecent.orElse(true),
-                    flags.orElse(new Flags()));
+                    flags.orElse(new Flags()),
+                    storedBodyBlobId);
             }
 
             public AppendCommand build(byte[] msgIn) {
@@ -280,12 +317,14 @@ public interface MessageManager {
         private final Date internalDate;
         private final boolean isRecent;
         private final Flags flags;
+        private final Optional<String> storedBodyBlobId;
 
-        private AppendCommand(InputStream msgIn, Date internalDate, boolean isRecent, Flags flags) {
+        private AppendCommand(InputStream msgIn, Date internalDate, boolean isRecent, Flags flags, Optional<String> storedBodyBlobId) {
             this.msgIn = msgIn;
             this.internalDate = internalDate;
             this.isRecent = isRecent;
             this.flags = flags;
+            this.storedBodyBlobId = storedBodyBlobId;
         }
 
         public InputStream getMsgIn() {
@@ -303,10 +342,29 @@ public interface MessageManager {
         public Flags getFlags() {
             return flags;
         }
+
+        public Optional<String> getStoredBodyBlobId() {
+            return storedBodyBlobId;
+        }
     }
 
     AppendResult appendMessage(AppendCommand appendCommand, MailboxSession session) throws MailboxException;
 
+    /**
+     * Appends several messages to this mailbox.
+     *
+     * Implementations are free to group the supplied commands in batches sharing UID allocation, quota checks and
+     * event dispatching. The default implementation appends the messages one at a time.
+     *
+     * UIDs follow the order of the supplied commands. Upon failure, the results of the messages already stored are
+     * emitted, and these messages notified, before the error is propagated.
+     *
+     * @return the result of each append, in the order of the supplied commands
+     */
+    default Flux<AppendResult> appendMessages(Flux<AppendCommand> appendCommands, MailboxSession session) {
+        return appendCommands.concatMap(appendCommand -> Mono.fromCallable(() -> appendMessage(appendCommand, session)));
+    }
+
     /**
      * Gets messages in the given range. The messages may get fetched under
      * the-hood in batches so the caller should check if
@@ -0,0 +1,39 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.extractor;
+
+import org.apache.james.mailbox.model.BlobId;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Persists extracted text, keyed by the {@link BlobId} of the extracted content, so that a content shared by several
+ * messages, or processed by several James servers, is extracted only once.
+ *
+ * Only the textual content is stored: metadata of the retrieved {@link ParsedContent} are empty.
+ */
+public interface ExtractedTextStore {
+    Mono<Void> store(BlobId blobId, ParsedContent parsedContent);
+
+    /**
+     * @return the stored content, or empty when the text of this content had not been extracted yet
+     */
+    Mono<ParsedContent> retrieve(BlobId blobId);
+}
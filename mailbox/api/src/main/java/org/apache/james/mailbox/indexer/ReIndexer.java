@@ -29,16 +29,24 @@ import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MailboxPath;
 import org.apache.james.task.Task;
 
+import com.google.common.base.Preconditions;
+
 public interface ReIndexer {
 
     class RunningOptions {
         public static class Builder {
             private Optional<Integer> messagesPerSecond;
             private Optional<Mode> mode;
+            private Optional<Integer> mailboxConcurrency;
+            private Optional<Integer> messageConcurrency;
+            private Optional<String> resumeAfter;
 
             public Builder() {
                 this.messagesPerSecond = Optional.empty();
                 this.mode = Optional.empty();
+                this.mailboxConcurrency = Optional.empty();
+                this.messageConcurrency = Optional.empty();
+                this.resumeAfter = Optional.empty();
             }
 
             public Builder messagesPerSeconds(Optional<Integer> messagesPerSecond) {
@@ -55,11 +63,36 @@ public interface ReIndexer {
                 return mode(Optional.of(mode));
             }
 
+            public Builder mailboxConcurrency(Optional<Integer> mailboxConcurrency) {
+                this.mailboxConcurrency = mailboxConcurrency;
+                return this;
+            }
+
+            public Builder messageConcurrency(Optional<Integer> messageConcurrency) {
+                this.messageConcurrency = messageConcurrency;
+                return this;
+            }
+
+            public Builder resumeAfter(Optional<String> resumeAfter) {
+                this.resumeAfter = resumeAfter;
+                return this;
+            }
+
+            public Builder resumeAfter(String resumeAfter) {
+                return resumeAfter(Optional.of(resumeAfter));
+            }
+
             public RunningOptions build() {
+                mailboxConcurrency.ifPresent(value -> Preconditions.checkArgument(value > 0, "'mailboxConcurrency' must be strictly positive"));
+                messageConcurrency.ifPresent(value -> Preconditions.checkArgument(value > 0, "'messageConcurrency' must be strictly positive"));
+                resumeAfter.ifPresent(value -> Preconditions.checkArgument(!value.isEmpty(), "'resumeAfter' must not be empty"));
+
                 return new RunningOptions(
                     messagesPerSecond.orElse(DEFAULT_MESSAGES_PER_SECONDS),
-                    mode.orElse(DEFAULT_MODE)
-                );
+                    mode.orElse(DEFAULT_MODE),
+                    mailboxConcurrency.orElse(DEFAULT_MAILBOX_CONCURRENCY),
+                    messageConcurrency.orElse(DEFAULT_MESSAGE_CONCURRENCY),
+                    resumeAfter);
             }
         }
 
@@ -95,15 +128,23 @@ public interface ReIndexer {
 
         private static final Mode DEFAULT_MODE = Mode.REBUILD_ALL;
         private static final int DEFAULT_MESSAGES_PER_SECONDS = 50;
+        private static final int DEFAULT_MAILBOX_CONCURRENCY = 1;
+        private static final int DEFAULT_MESSAGE_CONCURRENCY = 50;
 
         public static final RunningOptions DEFAULT = builder().build();
 
         private final int messagesPerSecond;
         private final Mode mode;
+        private final int mailboxConcurrency;
+        private final int messageConcurrency;
+        private final Optional<String> resumeAfter;
 
-        private RunningOptions(int messagesPerSecond, Mode mode) {
+        private RunningOptions(int messagesPerSecond, Mode mode, int mailboxConcurrency, int messageConcurrency, Optional<String> resumeAfter) {
             this.messagesPerSecond = messagesPerSecond;
             this.mode = mode;
+            this.mailboxConcurrency = mailboxConcurrency;
+            this.messageConcurrency = messageConcurrency;
+            this.resumeAfter = resumeAfter;
         }
 
         public int getMessagesPerSecond() {
@@ -113,6 +154,29 @@ public interface ReIndexer {
         public Mode getMode() {
             return mode;
         }
+
+        /**
+         * Number of mailboxes whose messages are listed at the same time.
+         */
+        public int getMailboxConcurrency() {
+            return mailboxConcurrency;
+        }
+
+        /**
+         * Number of messages being reindexed at the same time, within the limit of {@link #getMessagesPerSecond()}.
+         */
+        public int getMessageConcurrency() {
+            return messageConcurrency;
+        }
+
+        /**
+         * Checkpoint reported by a previous full reindexing: the serialized id of the last mailbox such that it and all
+         * the mailboxes preceding it, in serialized id order, had already been fully reindexed and can be skipped. Only
+         * full reindexing honours it.
+         */
+        public Optional<String> getResumeAfter() {
+            return resumeAfter;
+        }
     }
 
     Task reIndex(Username username, RunningOptions runningOptions) throws MailboxException;
@@ -40,7 +40,12 @@ public class FetchGroup extends Profiles<FetchGroup> {
         FULL_CONTENT,
         BODY_CONTENT,
         MIME_HEADERS,
-        MIME_CONTENT;
+        MIME_CONTENT,
+        /**
+         * Only the headers needed to build an IMAP envelope. Implementations may serve them from a precomputed
+         * projection rather than from the message content, in which case other headers are not available.
+         */
+        ENVELOPE;
     }
 
     /**
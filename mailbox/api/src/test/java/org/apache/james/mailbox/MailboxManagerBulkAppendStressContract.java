@@ -0,0 +1,82 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.james.core.Username;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mime4j.dom.Message;
+import org.apache.james.mime4j.message.DefaultMessageWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Stopwatch;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Only run with the 'stress' maven profile.
+ */
+public interface MailboxManagerBulkAppendStressContract<T extends MailboxManager> {
+    Logger LOGGER = LoggerFactory.getLogger(MailboxManagerBulkAppendStressContract.class);
+
+    int BULK_APPEND_OPERATIONS = 100_000;
+
+    T getManager();
+
+    @Test
+    @EnabledIfSystemProperty(named = "james.stress.tests", matches = "true")
+    default void bulkAppendThroughputTest() throws Exception {
+        Username username = Username.of("username");
+        MailboxSession session = getManager().createSystemSession(username);
+        getManager().startProcessingRequest(session);
+        MailboxPath path = MailboxPath.forUser(username, "bulk");
+        getManager().createMailbox(path, session);
+        MessageManager messageManager = getManager().getMailbox(path, session);
+        byte[] message = DefaultMessageWriter.asBytes(Message.Builder.of()
+            .setSubject("test")
+            .setBody("testmail", StandardCharsets.UTF_8)
+            .build());
+        Set<MessageUid> uids = new HashSet<>();
+
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        messageManager.appendMessages(Flux.range(0, BULK_APPEND_OPERATIONS)
+                .map(i -> MessageManager.AppendCommand.builder().build(message)), session)
+            .doOnNext(appendResult -> uids.add(appendResult.getId().getUid()))
+            .blockLast(Duration.ofMinutes(30));
+        long elapsedMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+
+        LOGGER.info("Appended {} messages in {} ms ({} messages/s)", BULK_APPEND_OPERATIONS, elapsedMillis,
+            BULK_APPEND_OPERATIONS * 1000L / Math.max(elapsedMillis, 1));
+        assertThat(uids).hasSize(BULK_APPEND_OPERATIONS);
+        assertThat(messageManager.getMessageCount(session)).isEqualTo(BULK_APPEND_OPERATIONS);
+        getManager().endProcessingRequest(session);
+        getManager().logout(session);
+    }
+}
@@ -811,6 +811,43 @@ public abstract class MailboxManagerTest<T extends MailboxManager> {
                 .satisfies(event -> assertThat(event.getUids()).hasSize(1));
         }
 
+        @Test
+        void appendMessagesShouldFireASingleAddedEvent() throws Exception {
+            Mono.from(retrieveEventBus(mailboxManager).register(listener, new MailboxIdRegistrationKey(inboxId))).block();
+            inboxManager.appendMessages(Flux.just(
+                    MessageManager.AppendCommand.builder().build(message),
+                    MessageManager.AppendCommand.builder().build(message),
+                    MessageManager.AppendCommand.builder().build(message)), session)
+                .blockLast();
+
+            assertThat(listener.getEvents())
+                .filteredOn(event -> event instanceof MailboxListener.Added)
+                .hasSize(1)
+                .extracting(event -> (MailboxListener.Added) event)
+                .element(0)
+                .satisfies(event -> assertThat(event.getMailboxId()).isEqualTo(inboxId))
+                .satisfies(event -> assertThat(event.getUids()).hasSize(3));
+        }
+
+        @Test
+        void appendMessagesShouldFireASingleQuotaUpdateEvent() throws Exception {
+            assumeTrue(mailboxManager.hasCapability(MailboxCapabilities.Quota));
+            retrieveEventBus(mailboxManager).register(listener);
+
+            inboxManager.appendMessages(Flux.just(
+                    MessageManager.AppendCommand.builder().build(message),
+                    MessageManager.AppendCommand.builder().build(message)), session)
+                .blockLast();
+
+            assertThat(listener.getEvents())
+                .filteredOn(event -> event instanceof MailboxListener.QuotaUsageUpdatedEvent)
+                .hasSize(1)
+                .extracting(event -> (MailboxListener.QuotaUsageUpdatedEvent) event)
+                .element(0)
+                .satisfies(event -> assertThat(event.getSizeQuota().getUsed()).isEqualTo(QuotaSizeUsage.size(170)))
+                .satisfies(event -> assertThat(event.getCountQuota().getUsed()).isEqualTo(QuotaCountUsage.count(2)));
+        }
+
         @Test
         void expungeMessageShouldFireExpungedEvent() throws Exception {
             inboxManager.appendMessage(MessageManager.AppendCommand.builder().build(message), session);
@@ -2246,6 +2283,50 @@ public abstract class MailboxManagerTest<T extends MailboxManager> {
                 .containsExactly(messageId1, messageId2);
         }
 
+        @Test
+        void copyMessagesShouldCopyAllMessagesOfARangeLargerThanABatch() throws Exception {
+            session = mailboxManager.createSystemSession(USER_1);
+            MailboxPath inbox = MailboxPath.inbox(session);
+            mailboxManager.createMailbox(inbox, session);
+            MailboxPath otherMailbox = MailboxPath.forUser(USER_1, "otherMailbox");
+            mailboxManager.createMailbox(otherMailbox, session);
+            MessageManager inboxMessageManager = mailboxManager.getMailbox(inbox, session);
+            // Ranges are copied by windows of 200 messages by default
+            int messageCount = 250;
+            for (int i = 0; i < messageCount; i++) {
+                inboxMessageManager.appendMessage(AppendCommand.from(message), session);
+            }
+
+            mailboxManager.copyMessages(MessageRange.all(), inbox, otherMailbox, session);
+
+            assertThat(mailboxManager.getMailbox(otherMailbox, session).getMessageCount(session))
+                .isEqualTo(messageCount);
+        }
+
+        @Test
+        void moveMessagesShouldMoveAllMessagesOfARangeLargerThanABatch() throws Exception {
+            assumeTrue(mailboxManager.hasCapability(MailboxCapabilities.Move));
+
+            session = mailboxManager.createSystemSession(USER_1);
+            MailboxPath inbox = MailboxPath.inbox(session);
+            mailboxManager.createMailbox(inbox, session);
+            MailboxPath otherMailbox = MailboxPath.forUser(USER_1, "otherMailbox");
+            mailboxManager.createMailbox(otherMailbox, session);
+            MessageManager inboxMessageManager = mailboxManager.getMailbox(inbox, session);
+            // Ranges are moved by windows of 200 messages by default
+            int messageCount = 250;
+            for (int i = 0; i < messageCount; i++) {
+                inboxMessageManager.appendMessage(AppendCommand.from(message), session);
+            }
+
+            mailboxManager.moveMessages(MessageRange.all(), inbox, otherMailbox, session);
+
+            assertThat(inboxMessageManager.getMessageCount(session))
+                .isEqualTo(0);
+            assertThat(mailboxManager.getMailbox(otherMailbox, session).getMessageCount(session))
+                .isEqualTo(messageCount);
+        }
+
         @Test
         void copyMessagesShouldCopyOnlyOneMessageFromOneMailboxToAnOtherOfASameUser() throws Exception {
             assumeTrue(mailboxManager.hasCapability(MailboxCapabilities.ACL));
@@ -2678,6 +2759,35 @@ public abstract class MailboxManagerTest<T extends MailboxManager> {
                 .satisfies(Throwing.consumer(messageResult -> assertThat(messageResult.hasAttachments()).isTrue()));
         }
 
+        @Test
+        void appendMessagesShouldReturnResultsInCommandOrder() throws Exception {
+            List<MessageUid> uids = inboxManager.appendMessages(Flux.range(0, 10)
+                    .map(i -> AppendCommand.builder().build("Subject: " + i + "\r\n\r\nbody " + i)), session)
+                .map(appendResult -> appendResult.getId().getUid())
+                .collectList()
+                .block();
+
+            assertThat(uids)
+                .hasSize(10)
+                .isSorted()
+                .doesNotHaveDuplicates();
+        }
+
+        @Test
+        void appendMessagesShouldStoreAllMessages() throws Exception {
+            inboxManager.appendMessages(Flux.range(0, 10)
+                    .map(Throwing.<Integer, AppendCommand>function(i -> AppendCommand.builder().build(message)).sneakyThrow()), session)
+                .blockLast();
+
+            assertThat(inboxManager.getMessageCount(session)).isEqualTo(10);
+        }
+
+        @Test
+        void appendMessagesShouldBeEmptyWhenNoCommands() {
+            assertThat(inboxManager.appendMessages(Flux.empty(), session).collectList().block())
+                .isEmpty();
+        }
+
         @Test
         void getMessagesShouldNotIncludeAttachmentInformationWhenNone() throws Exception {
             ComposedMessageId composeId = inboxManager.appendMessage(AppendCommand.builder()
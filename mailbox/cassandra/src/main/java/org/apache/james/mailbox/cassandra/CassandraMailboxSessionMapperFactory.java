@@ -19,6 +19,8 @@
 
 package org.apache.james.mailbox.cassandra;
 
+import java.util.Optional;
+
 import javax.inject.Inject;
 
 import org.apache.james.backends.cassandra.init.configuration.CassandraConfiguration;
@@ -34,23 +36,28 @@ import org.apache.james.mailbox.cassandra.mail.CassandraAttachmentMapper;
 import org.apache.james.mailbox.cassandra.mail.CassandraAttachmentMessageIdDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraAttachmentOwnerDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraDeletedMessageDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraExpungeLog;
 import org.apache.james.mailbox.cassandra.mail.CassandraFirstUnseenDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraIndexTableHandler;
 import org.apache.james.mailbox.cassandra.mail.CassandraMailboxCounterDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMailboxDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraMailboxDeletionCheckpointDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMailboxMapper;
 import org.apache.james.mailbox.cassandra.mail.CassandraMailboxPathDAOImpl;
 import org.apache.james.mailbox.cassandra.mail.CassandraMailboxPathV2DAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMailboxRecentsDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraMailboxSummaryDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMessageDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdMapper;
 import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdToImapUidDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMessageMapper;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageStructureProjection;
 import org.apache.james.mailbox.cassandra.mail.CassandraModSeqProvider;
 import org.apache.james.mailbox.cassandra.mail.CassandraUidProvider;
 import org.apache.james.mailbox.cassandra.mail.CassandraUserMailboxRightsDAO;
 import org.apache.james.mailbox.cassandra.user.CassandraSubscriptionMapper;
+import org.apache.james.mailbox.events.EventBus;
 import org.apache.james.mailbox.store.MailboxSessionMapperFactory;
 import org.apache.james.mailbox.store.mail.AnnotationMapper;
 import org.apache.james.mailbox.store.mail.AttachmentMapper;
@@ -59,6 +66,8 @@ import org.apache.james.mailbox.store.mail.MailboxMapper;
 import org.apache.james.mailbox.store.mail.MessageIdMapper;
 import org.apache.james.mailbox.store.mail.ModSeqProvider;
 import org.apache.james.mailbox.store.mail.UidProvider;
+import org.apache.james.mailbox.store.projections.ExpungeLog;
+import org.apache.james.mailbox.store.projections.MessageStructureProjection;
 import org.apache.james.mailbox.store.user.SubscriptionMapper;
 
 import com.datastax.driver.core.Session;
@@ -77,6 +86,7 @@ public class CassandraMailboxSessionMapperFactory extends MailboxSessionMapperFa
     private final CassandraMessageIdToImapUidDAO imapUidDAO;
     private final CassandraMailboxCounterDAO mailboxCounterDAO;
     private final CassandraMailboxRecentsDAO mailboxRecentsDAO;
+    private final CassandraMailboxSummaryDAO mailboxSummaryDAO;
     private final CassandraIndexTableHandler indexTableHandler;
     private final CassandraMailboxDAO mailboxDAO;
     private final CassandraMailboxPathDAOImpl mailboxPathDAO;
@@ -93,12 +103,16 @@ public class CassandraMailboxSessionMapperFactory extends MailboxSessionMapperFa
     private final CassandraSchemaVersionManager versionManager;
     private final CassandraUtils cassandraUtils;
     private final CassandraConfiguration cassandraConfiguration;
+    private final CassandraMailboxDeletionCheckpointDAO mailboxDeletionCheckpointDAO;
+    private final CassandraMessageStructureProjection messageStructureProjection;
+    private final CassandraExpungeLog expungeLog;
 
     @Inject
     public CassandraMailboxSessionMapperFactory(CassandraUidProvider uidProvider, CassandraModSeqProvider modSeqProvider, Session session,
                                                 CassandraMessageDAO messageDAO,
                                                 CassandraMessageIdDAO messageIdDAO, CassandraMessageIdToImapUidDAO imapUidDAO,
-                                                CassandraMailboxCounterDAO mailboxCounterDAO, CassandraMailboxRecentsDAO mailboxRecentsDAO, CassandraMailboxDAO mailboxDAO,
+                                                CassandraMailboxCounterDAO mailboxCounterDAO, CassandraMailboxRecentsDAO mailboxRecentsDAO,
+                                                CassandraMailboxSummaryDAO mailboxSummaryDAO, CassandraMailboxDAO mailboxDAO,
                                                 CassandraMailboxPathDAOImpl mailboxPathDAO, CassandraMailboxPathV2DAO mailboxPathV2DAO, CassandraFirstUnseenDAO firstUnseenDAO, CassandraApplicableFlagDAO applicableFlagDAO,
                                                 CassandraAttachmentDAOV2 attachmentDAOV2, CassandraDeletedMessageDAO deletedMessageDAO,
                                                 BlobStore blobStore, CassandraAttachmentMessageIdDAO attachmentMessageIdDAO,
@@ -114,6 +128,7 @@ public class CassandraMailboxSessionMapperFactory extends MailboxSessionMapperFa
         this.imapUidDAO = imapUidDAO;
         this.mailboxCounterDAO = mailboxCounterDAO;
         this.mailboxRecentsDAO = mailboxRecentsDAO;
+        this.mailboxSummaryDAO = mailboxSummaryDAO;
         this.mailboxDAO = mailboxDAO;
         this.mailboxPathDAO = mailboxPathDAO;
         this.mailboxPathV2DAO = mailboxPathV2DAO;
@@ -129,6 +144,9 @@ public class CassandraMailboxSessionMapperFactory extends MailboxSessionMapperFa
         this.cassandraUtils = cassandraUtils;
         this.ownerDAO = ownerDAO;
         this.cassandraConfiguration = cassandraConfiguration;
+        this.mailboxDeletionCheckpointDAO = new CassandraMailboxDeletionCheckpointDAO(session);
+        this.messageStructureProjection = new CassandraMessageStructureProjection(session);
+        this.expungeLog = new CassandraExpungeLog(session);
         this.indexTableHandler = new CassandraIndexTableHandler(
             mailboxRecentsDAO,
             mailboxCounterDAO,
@@ -148,6 +166,7 @@ public class CassandraMailboxSessionMapperFactory extends MailboxSessionMapperFa
                                           imapUidDAO,
                                           mailboxCounterDAO,
                                           mailboxRecentsDAO,
+                                          mailboxSummaryDAO,
                                           applicableFlagDAO,
                                           indexTableHandler,
                                           firstUnseenDAO,
@@ -188,6 +207,16 @@ public class CassandraMailboxSessionMapperFactory extends MailboxSessionMapperFa
         return uidProvider;
     }
 
+    @Override
+    public Optional<MessageStructureProjection> getMessageStructureProjection() {
+        return Optional.of(messageStructureProjection);
+    }
+
+    @Override
+    public Optional<ExpungeLog> getExpungeLog() {
+        return Optional.of(expungeLog);
+    }
+
     @Override
     public AnnotationMapper createAnnotationMapper(MailboxSession mailboxSession) {
         return new CassandraAnnotationMapper(session, cassandraUtils);
@@ -206,6 +235,20 @@ public class CassandraMailboxSessionMapperFactory extends MailboxSessionMapperFa
     public DeleteMessageListener deleteMessageListener() {
         return new DeleteMessageListener(imapUidDAO, messageIdDAO, messageDAO, attachmentDAOV2, ownerDAO,
             attachmentMessageIdDAO, aclMapper, userMailboxRightsDAO, applicableFlagDAO, firstUnseenDAO, deletedMessageDAO,
-            mailboxCounterDAO, mailboxRecentsDAO);
+            mailboxCounterDAO, mailboxRecentsDAO, messageStructureProjection, expungeLog);
+    }
+
+    public MailboxDeletionListener mailboxDeletionListener(EventBus eventBus) {
+        return new MailboxDeletionListener(deleteMessageListener(), messageIdDAO, mailboxDeletionCheckpointDAO, eventBus,
+            cassandraConfiguration);
+    }
+
+    public MailboxSummaryProjectionListener mailboxSummaryProjectionListener() {
+        return new MailboxSummaryProjectionListener(mailboxSummaryDAO, mailboxCounterDAO, uidProvider, modSeqProvider,
+            firstUnseenDAO, mailboxRecentsDAO);
+    }
+
+    public CassandraMailboxSummaryDAO getMailboxSummaryDAO() {
+        return mailboxSummaryDAO;
     }
 }
@@ -19,12 +19,21 @@
 
 package org.apache.james.mailbox.cassandra;
 
+import java.util.EnumSet;
+import java.util.Optional;
+
 import javax.mail.Flags;
 
 import org.apache.james.mailbox.MailboxPathLocker;
 import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.mail.CassandraMailboxSummaryDAO;
+import org.apache.james.mailbox.cassandra.mail.MailboxSummary;
 import org.apache.james.mailbox.events.EventBus;
+import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.model.Mailbox;
+import org.apache.james.mailbox.model.MailboxACL;
+import org.apache.james.mailbox.model.MailboxCounters;
 import org.apache.james.mailbox.model.MessageId;
 import org.apache.james.mailbox.quota.QuotaManager;
 import org.apache.james.mailbox.quota.QuotaRootResolver;
@@ -41,6 +50,12 @@ import org.apache.james.mailbox.store.search.MessageSearchIndex;
  * Cassandra implementation of {@link StoreMessageManager}
  */
 public class CassandraMessageManager extends StoreMessageManager {
+    private static final EnumSet<MailboxMetaData.FetchGroup> SUMMARY_FETCH_GROUPS = EnumSet.of(
+        MailboxMetaData.FetchGroup.UNSEEN_COUNT,
+        MailboxMetaData.FetchGroup.NO_UNSEEN);
+
+    private final CassandraMailboxSummaryDAO mailboxSummaryDAO;
+    private final StoreRightManager storeRightManager;
 
     CassandraMessageManager(CassandraMailboxSessionMapperFactory mapperFactory, MessageSearchIndex index,
                             EventBus eventBus, MailboxPathLocker locker, Mailbox mailbox, QuotaManager quotaManager,
@@ -51,6 +66,40 @@ public class CassandraMessageManager extends StoreMessageManager {
         super(CassandraMailboxManager.MESSAGE_CAPABILITIES, mapperFactory, index, eventBus, locker, mailbox,
             quotaManager, quotaRootResolver, batchSizes, storeRightManager,
             preDeletionHooks, new MessageStorer.WithAttachment(mapperFactory, messageIdFactory, new MessageFactory.StoreMessageFactory(), mapperFactory, messageParser));
+        this.mailboxSummaryDAO = mapperFactory.getMailboxSummaryDAO();
+        this.storeRightManager = storeRightManager;
+    }
+
+    /**
+     * STATUS-like metadata requests are served from the mailbox summary projection with a single read. The projection
+     * being updated asynchronously, SELECT (which needs the first unseen message) and requests resetting the recent
+     * flags keep reading the underlying tables.
+     */
+    @Override
+    public MailboxMetaData getMetaData(boolean resetRecent, MailboxSession mailboxSession, MailboxMetaData.FetchGroup fetchGroup) throws MailboxException {
+        if (resetRecent
+            || !SUMMARY_FETCH_GROUPS.contains(fetchGroup)
+            || !storeRightManager.hasRight(getMailboxEntity(), MailboxACL.Right.Read, mailboxSession)) {
+            return super.getMetaData(resetRecent, mailboxSession, fetchGroup);
+        }
+
+        Optional<MailboxSummary> summary = mailboxSummaryDAO.retrieve((CassandraId) getMailboxEntity().getMailboxId())
+            .blockOptional();
+        if (summary.isPresent()) {
+            return toMetaData(summary.get(), mailboxSession, fetchGroup);
+        }
+        return super.getMetaData(resetRecent, mailboxSession, fetchGroup);
+    }
+
+    private MailboxMetaData toMetaData(MailboxSummary summary, MailboxSession mailboxSession, MailboxMetaData.FetchGroup fetchGroup) throws MailboxException {
+        MailboxCounters counters = summary.getCounters();
+        long unseenCount = 0;
+        if (fetchGroup == MailboxMetaData.FetchGroup.UNSEEN_COUNT) {
+            unseenCount = counters.getUnseen();
+        }
+        return new MailboxMetaData(summary.getRecents(), getPermanentFlags(mailboxSession), getMailboxEntity().getUidValidity(),
+            summary.getUidNext(), summary.getHighestModSeq(), counters.getCount(), unseenCount, null,
+            isWriteable(mailboxSession), isModSeqPermanent(mailboxSession), getResolvedAcl(mailboxSession));
     }
 
     /**
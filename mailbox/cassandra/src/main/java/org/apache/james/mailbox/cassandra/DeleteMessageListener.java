@@ -34,24 +34,24 @@ import org.apache.james.mailbox.cassandra.mail.CassandraAttachmentDAOV2;
 import org.apache.james.mailbox.cassandra.mail.CassandraAttachmentMessageIdDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraAttachmentOwnerDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraDeletedMessageDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraExpungeLog;
 import org.apache.james.mailbox.cassandra.mail.CassandraFirstUnseenDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMailboxCounterDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMailboxRecentsDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMessageDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdToImapUidDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageStructureProjection;
 import org.apache.james.mailbox.cassandra.mail.CassandraUserMailboxRightsDAO;
 import org.apache.james.mailbox.cassandra.mail.MessageAttachmentRepresentation;
 import org.apache.james.mailbox.cassandra.mail.MessageRepresentation;
 import org.apache.james.mailbox.events.Event;
 import org.apache.james.mailbox.events.Group;
 import org.apache.james.mailbox.events.MailboxListener;
-import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
+import org.apache.james.mailbox.model.ComposedMessageId;
 import org.apache.james.mailbox.model.MailboxACL;
 import org.apache.james.mailbox.model.MessageMetaData;
-import org.apache.james.mailbox.model.MessageRange;
 import org.apache.james.mailbox.store.mail.MessageMapper;
-import org.apache.james.util.streams.Limit;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -66,6 +66,9 @@ import reactor.core.publisher.Mono;
  *
  * Mailbox listener failures lead to eventBus retrying their execution, it ensures the result of the deletion to be
  * idempotent.
+ *
+ * Mailbox deletions are handled by {@link MailboxDeletionListener}, in a distinct group, which relies on the
+ * primitives exposed here.
  */
 public class DeleteMessageListener implements MailboxListener.GroupMailboxListener {
     private static final Optional<CassandraId> ALL_MAILBOXES = Optional.empty();
@@ -87,13 +90,16 @@ public class DeleteMessageListener implements MailboxListener.GroupMailboxListen
     private final CassandraDeletedMessageDAO deletedMessageDAO;
     private final CassandraMailboxCounterDAO counterDAO;
     private final CassandraMailboxRecentsDAO recentsDAO;
+    private final CassandraMessageStructureProjection messageStructureProjection;
+    private final CassandraExpungeLog expungeLog;
 
     @Inject
     public DeleteMessageListener(CassandraMessageIdToImapUidDAO imapUidDAO, CassandraMessageIdDAO messageIdDAO, CassandraMessageDAO messageDAO,
                                  CassandraAttachmentDAOV2 attachmentDAO, CassandraAttachmentOwnerDAO ownerDAO,
                                  CassandraAttachmentMessageIdDAO attachmentMessageIdDAO, CassandraACLMapper aclMapper,
                                  CassandraUserMailboxRightsDAO rightsDAO, CassandraApplicableFlagDAO applicableFlagDAO,
-                                 CassandraFirstUnseenDAO firstUnseenDAO, CassandraDeletedMessageDAO deletedMessageDAO, CassandraMailboxCounterDAO counterDAO, CassandraMailboxRecentsDAO recentsDAO) {
+                                 CassandraFirstUnseenDAO firstUnseenDAO, CassandraDeletedMessageDAO deletedMessageDAO, CassandraMailboxCounterDAO counterDAO, CassandraMailboxRecentsDAO recentsDAO,
+                                 CassandraMessageStructureProjection messageStructureProjection, CassandraExpungeLog expungeLog) {
         this.imapUidDAO = imapUidDAO;
         this.messageIdDAO = messageIdDAO;
         this.messageDAO = messageDAO;
@@ -107,6 +113,8 @@ public class DeleteMessageListener implements MailboxListener.GroupMailboxListen
         this.deletedMessageDAO = deletedMessageDAO;
         this.counterDAO = counterDAO;
         this.recentsDAO = recentsDAO;
+        this.messageStructureProjection = messageStructureProjection;
+        this.expungeLog = expungeLog;
     }
 
     @Override
@@ -116,7 +124,7 @@ public class DeleteMessageListener implements MailboxListener.GroupMailboxListen
 
     @Override
     public boolean isHandling(Event event) {
-        return event instanceof Expunged || event instanceof MailboxDeletion;
+        return event instanceof Expunged;
     }
 
     @Override
@@ -127,28 +135,36 @@ public class DeleteMessageListener implements MailboxListener.GroupMailboxListen
             handleMessageDeletion(expunged)
                 .block();
         }
-        if (event instanceof MailboxDeletion) {
-            MailboxDeletion mailboxDeletion = (MailboxDeletion) event;
+    }
 
-            CassandraId mailboxId = (CassandraId) mailboxDeletion.getMailboxId();
+    /**
+     * Removes a message from a mailbox being deleted, as well as the message itself when no other mailbox references it.
+     *
+     * Used by {@link MailboxDeletionListener}.
+     */
+    Mono<Void> deleteMessageAsPartOfMailboxDeletion(ComposedMessageId composedMessageId) {
+        CassandraMessageId messageId = (CassandraMessageId) composedMessageId.getMessageId();
+        CassandraId mailboxId = (CassandraId) composedMessageId.getMailboxId();
 
-            handleMailboxDeletion(mailboxId)
-                .block();
-        }
+        return handleMessageDeletionAsPartOfMailboxDeletion(messageId, mailboxId)
+            .then(imapUidDAO.delete(messageId, mailboxId))
+            .then(messageIdDAO.delete(mailboxId, composedMessageId.getUid()));
     }
 
-    private Mono<Void> handleMailboxDeletion(CassandraId mailboxId) {
-        return messageIdDAO.retrieveMessages(mailboxId, MessageRange.all(), Limit.unlimited())
-            .map(ComposedMessageIdWithMetaData::getComposedMessageId)
-            .concatMap(metadata -> handleMessageDeletionAsPartOfMailboxDeletion((CassandraMessageId) metadata.getMessageId(), mailboxId)
-                .then(imapUidDAO.delete((CassandraMessageId) metadata.getMessageId(), mailboxId))
-                .then(messageIdDAO.delete(mailboxId, metadata.getUid())))
-            .then(deleteAcl(mailboxId))
+    /**
+     * Removes mailbox level metadata once all of its messages had been deleted.
+     *
+     * Used by {@link MailboxDeletionListener}.
+     */
+    Mono<Void> deleteMailboxMetadata(CassandraId mailboxId) {
+        return deleteAcl(mailboxId)
             .then(applicableFlagDAO.delete(mailboxId))
             .then(firstUnseenDAO.removeAll(mailboxId))
             .then(deletedMessageDAO.removeAll(mailboxId))
             .then(counterDAO.delete(mailboxId))
-            .then(recentsDAO.delete(mailboxId));
+            .then(recentsDAO.delete(mailboxId))
+            .then(expungeLog.delete(mailboxId))
+            .then(messageIdDAO.deleteMailbox(mailboxId));
     }
 
     private Mono<Void> handleMessageDeletion(Expunged expunged) {
@@ -172,7 +188,8 @@ public class DeleteMessageListener implements MailboxListener.GroupMailboxListen
             .flatMap(id -> readMessage(id)
                 .flatMap(message -> deleteUnreferencedAttachments(message).thenReturn(message))
                 .flatMap(this::deleteAttachmentMessageIds)
-                .then(messageDAO.delete(messageId)));
+                .then(messageDAO.delete(messageId))
+                .then(messageStructureProjection.delete(messageId)));
     }
 
     private Mono<Void> handleMessageDeletionAsPartOfMailboxDeletion(CassandraMessageId messageId, CassandraId excludedId) {
@@ -181,7 +198,8 @@ public class DeleteMessageListener implements MailboxListener.GroupMailboxListen
             .flatMap(id -> readMessage(id)
                 .flatMap(message -> deleteUnreferencedAttachments(message).thenReturn(message))
                 .flatMap(this::deleteAttachmentMessageIds)
-                .then(messageDAO.delete(messageId)));
+                .then(messageDAO.delete(messageId))
+                .then(messageStructureProjection.delete(messageId)));
     }
 
     private Mono<MessageRepresentation> readMessage(CassandraMessageId id) {
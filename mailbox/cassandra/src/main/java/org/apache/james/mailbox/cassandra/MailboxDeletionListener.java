@@ -0,0 +1,176 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra;
+
+import java.time.Duration;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.apache.james.backends.cassandra.init.configuration.CassandraConfiguration;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.mail.CassandraMailboxDeletionCheckpointDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdDAO;
+import org.apache.james.mailbox.events.Event;
+import org.apache.james.mailbox.events.EventBus;
+import org.apache.james.mailbox.events.Group;
+import org.apache.james.mailbox.events.MailboxListener;
+import org.apache.james.mailbox.model.ComposedMessageId;
+import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.util.streams.Limit;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cleans up the content of deleted mailboxes.
+ *
+ * Messages are deleted in batches of at most {@link CassandraConfiguration#getMailboxDeletionMessagesPerSecond()}
+ * messages, one batch per second, each batch being processed with
+ * {@link CassandraConfiguration#getMailboxDeletionConcurrency()} concurrent deletions. The UID of the last message of
+ * each completed batch is recorded so that a failed (and retried) deletion resumes where it stopped instead of
+ * scanning again the already deleted part of the mailbox.
+ *
+ * A single delivery deletes at most {@value #BATCHES_PER_DELIVERY} batches, so that it lasts about ten seconds whatever
+ * the size of the mailbox and never exceeds the event bus delivery timeouts. The event is then delivered again to this
+ * listener group, and the next delivery resumes from the checkpoint.
+ *
+ * Running in its own group, this listener does not delay the processing of expunged messages when large mailboxes
+ * are being deleted.
+ */
+public class MailboxDeletionListener implements MailboxListener.ReactiveGroupMailboxListener {
+    public static class MailboxDeletionListenerGroup extends Group {
+
+    }
+
+    private static final Duration THROTTLING_PERIOD = Duration.ofSeconds(1);
+    private static final int BATCHES_PER_DELIVERY = 10;
+
+    private final DeleteMessageListener deleteMessageListener;
+    private final CassandraMessageIdDAO messageIdDAO;
+    private final CassandraMailboxDeletionCheckpointDAO checkpointDAO;
+    private final EventBus eventBus;
+    private final int concurrency;
+    private final int batchSize;
+    private final int batchesPerDelivery;
+    private final Duration throttlingPeriod;
+
+    @Inject
+    public MailboxDeletionListener(DeleteMessageListener deleteMessageListener, CassandraMessageIdDAO messageIdDAO,
+                                   CassandraMailboxDeletionCheckpointDAO checkpointDAO, EventBus eventBus,
+                                   CassandraConfiguration cassandraConfiguration) {
+        this(deleteMessageListener, messageIdDAO, checkpointDAO, eventBus,
+            cassandraConfiguration.getMailboxDeletionConcurrency(),
+            cassandraConfiguration.getMailboxDeletionMessagesPerSecond(),
+            BATCHES_PER_DELIVERY,
+            THROTTLING_PERIOD);
+    }
+
+    @VisibleForTesting
+    MailboxDeletionListener(DeleteMessageListener deleteMessageListener, CassandraMessageIdDAO messageIdDAO,
+                            CassandraMailboxDeletionCheckpointDAO checkpointDAO, EventBus eventBus, int concurrency,
+                            int batchSize, int batchesPerDelivery, Duration throttlingPeriod) {
+        this.deleteMessageListener = deleteMessageListener;
+        this.messageIdDAO = messageIdDAO;
+        this.checkpointDAO = checkpointDAO;
+        this.eventBus = eventBus;
+        this.concurrency = concurrency;
+        this.batchSize = batchSize;
+        this.batchesPerDelivery = batchesPerDelivery;
+        this.throttlingPeriod = throttlingPeriod;
+    }
+
+    @Override
+    public Group getDefaultGroup() {
+        return new MailboxDeletionListenerGroup();
+    }
+
+    @Override
+    public boolean isHandling(Event event) {
+        return event instanceof MailboxDeletion;
+    }
+
+    @Override
+    public Mono<Void> reactiveEvent(Event event) {
+        if (event instanceof MailboxDeletion) {
+            CassandraId mailboxId = (CassandraId) ((MailboxDeletion) event).getMailboxId();
+            return deleteMailboxContent(mailboxId)
+                .flatMap(completed -> {
+                    if (completed) {
+                        return Mono.empty();
+                    }
+                    return Mono.delay(throttlingPeriod)
+                        .then(eventBus.reDeliver(getDefaultGroup(), event));
+                });
+        }
+        return Mono.empty();
+    }
+
+    /**
+     * @return true when the mailbox content is fully deleted, false when messages might remain, a later call then
+     * resuming the deletion
+     */
+    @VisibleForTesting
+    Mono<Boolean> deleteMailboxContent(CassandraId mailboxId) {
+        int deliveryLimit = batchSize * batchesPerDelivery;
+
+        return remainingRange(mailboxId)
+            .flatMapMany(range -> messageIdDAO.retrieveMessages(mailboxId, range, Limit.limit(deliveryLimit)))
+            .map(ComposedMessageIdWithMetaData::getComposedMessageId)
+            .buffer(batchSize)
+            .index()
+            .concatMap(indexedBatch -> Mono.delay(delayBeforeBatch(indexedBatch.getT1()))
+                .then(deleteBatch(mailboxId, indexedBatch.getT2()))
+                .thenReturn(indexedBatch.getT2().size()))
+            .reduce(0, Integer::sum)
+            .flatMap(deletedCount -> {
+                if (deletedCount == deliveryLimit) {
+                    return Mono.just(false);
+                }
+                return deleteMessageListener.deleteMailboxMetadata(mailboxId)
+                    .then(checkpointDAO.delete(mailboxId))
+                    .thenReturn(true);
+            });
+    }
+
+    private Mono<MessageRange> remainingRange(CassandraId mailboxId) {
+        return checkpointDAO.retrieve(mailboxId)
+            .map(lastDeletedUid -> MessageRange.from(lastDeletedUid.next()))
+            .defaultIfEmpty(MessageRange.all());
+    }
+
+    private Duration delayBeforeBatch(long batchIndex) {
+        if (batchIndex == 0) {
+            return Duration.ZERO;
+        }
+        return throttlingPeriod;
+    }
+
+    private Mono<Void> deleteBatch(CassandraId mailboxId, List<ComposedMessageId> batch) {
+        ComposedMessageId lastOfBatch = batch.get(batch.size() - 1);
+
+        return Flux.fromIterable(batch)
+            .flatMap(deleteMessageListener::deleteMessageAsPartOfMailboxDeletion, concurrency)
+            .then(checkpointDAO.save(mailboxId, lastOfBatch.getUid()));
+    }
+}
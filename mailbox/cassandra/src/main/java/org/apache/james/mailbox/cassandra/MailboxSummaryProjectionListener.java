@@ -0,0 +1,143 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.mail.CassandraFirstUnseenDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraMailboxCounterDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraMailboxRecentsDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraMailboxSummaryDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraModSeqProvider;
+import org.apache.james.mailbox.cassandra.mail.CassandraUidProvider;
+import org.apache.james.mailbox.cassandra.mail.MailboxSummary;
+import org.apache.james.mailbox.events.Event;
+import org.apache.james.mailbox.events.Group;
+import org.apache.james.mailbox.events.MailboxListener;
+import org.apache.james.mailbox.model.MailboxCounters;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Maintains the mailbox summary projection: each event modifying the content of a mailbox triggers the recomputation
+ * of its summary from the underlying tables.
+ */
+public class MailboxSummaryProjectionListener implements MailboxListener.ReactiveGroupMailboxListener {
+    public static class MailboxSummaryProjectionListenerGroup extends Group {
+
+    }
+
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+    private static final long NANOS_PER_MICRO = 1_000L;
+
+    private final CassandraMailboxSummaryDAO summaryDAO;
+    private final CassandraMailboxCounterDAO counterDAO;
+    private final CassandraUidProvider uidProvider;
+    private final CassandraModSeqProvider modSeqProvider;
+    private final CassandraFirstUnseenDAO firstUnseenDAO;
+    private final CassandraMailboxRecentsDAO recentsDAO;
+    private final Clock clock;
+
+    @Inject
+    public MailboxSummaryProjectionListener(CassandraMailboxSummaryDAO summaryDAO, CassandraMailboxCounterDAO counterDAO,
+                                            CassandraUidProvider uidProvider, CassandraModSeqProvider modSeqProvider,
+                                            CassandraFirstUnseenDAO firstUnseenDAO, CassandraMailboxRecentsDAO recentsDAO) {
+        this(summaryDAO, counterDAO, uidProvider, modSeqProvider, firstUnseenDAO, recentsDAO, Clock.systemUTC());
+    }
+
+    MailboxSummaryProjectionListener(CassandraMailboxSummaryDAO summaryDAO, CassandraMailboxCounterDAO counterDAO,
+                                     CassandraUidProvider uidProvider, CassandraModSeqProvider modSeqProvider,
+                                     CassandraFirstUnseenDAO firstUnseenDAO, CassandraMailboxRecentsDAO recentsDAO,
+                                     Clock clock) {
+        this.summaryDAO = summaryDAO;
+        this.counterDAO = counterDAO;
+        this.uidProvider = uidProvider;
+        this.modSeqProvider = modSeqProvider;
+        this.firstUnseenDAO = firstUnseenDAO;
+        this.recentsDAO = recentsDAO;
+        this.clock = clock;
+    }
+
+    @Override
+    public Group getDefaultGroup() {
+        return new MailboxSummaryProjectionListenerGroup();
+    }
+
+    @Override
+    public boolean isHandling(Event event) {
+        return event instanceof Added
+            || event instanceof Expunged
+            || event instanceof FlagsUpdated
+            || event instanceof MailboxAdded
+            || event instanceof MailboxDeletion;
+    }
+
+    @Override
+    public Mono<Void> reactiveEvent(Event event) {
+        if (event instanceof MailboxDeletion) {
+            CassandraId mailboxId = (CassandraId) ((MailboxDeletion) event).getMailboxId();
+            return summaryDAO.delete(mailboxId, nowInMicros());
+        }
+        if (event instanceof MailboxEvent) {
+            CassandraId mailboxId = (CassandraId) ((MailboxEvent) event).getMailboxId();
+            return updateSummary(mailboxId);
+        }
+        return Mono.empty();
+    }
+
+    public Mono<Void> updateSummary(CassandraId mailboxId) {
+        long writeTime = nowInMicros();
+
+        return computeSummary(mailboxId)
+            .flatMap(summary -> summaryDAO.save(summary, writeTime));
+    }
+
+    private Mono<MailboxSummary> computeSummary(CassandraId mailboxId) {
+        return Mono.zip(
+                counterDAO.retrieveMailboxCounters(mailboxId)
+                    .defaultIfEmpty(MailboxCounters.builder()
+                        .mailboxId(mailboxId)
+                        .count(0)
+                        .unseen(0)
+                        .build()),
+                uidProvider.findHighestUid(mailboxId)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty()),
+                modSeqProvider.findHighestModSeq(mailboxId)
+                    .map(modSeq -> modSeq.orElse(ModSeq.first())),
+                firstUnseenDAO.retrieveFirstUnread(mailboxId)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty()),
+                recentsDAO.getRecentMessageUidsInMailbox(mailboxId)
+                    .collectList())
+            .map(tuple -> new MailboxSummary(mailboxId, tuple.getT1(), tuple.getT2(), tuple.getT3(), tuple.getT4(), tuple.getT5()));
+    }
+
+    private long nowInMicros() {
+        Instant now = clock.instant();
+        return now.getEpochSecond() * MICROS_PER_SECOND + now.getNano() / NANOS_PER_MICRO;
+    }
+}
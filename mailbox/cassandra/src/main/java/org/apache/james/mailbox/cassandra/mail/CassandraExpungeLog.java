@@ -0,0 +1,187 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.gte;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.lt;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.set;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.update;
+import static org.apache.james.mailbox.cassandra.table.CassandraExpungeLogTable.MAILBOX_ID;
+import static org.apache.james.mailbox.cassandra.table.CassandraExpungeLogTable.MOD_SEQ;
+import static org.apache.james.mailbox.cassandra.table.CassandraExpungeLogTable.TABLE_NAME;
+import static org.apache.james.mailbox.cassandra.table.CassandraExpungeLogTable.UID;
+
+import java.util.Collection;
+
+import javax.inject.Inject;
+
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.table.CassandraExpungeLogTable.Coverage;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.store.projections.ExpungeLog;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.google.common.base.Preconditions;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class CassandraExpungeLog implements ExpungeLog {
+    private static final String BEFORE = "before";
+
+    private final CassandraAsyncExecutor cassandraAsyncExecutor;
+    private final PreparedStatement insertEntry;
+    private final PreparedStatement selectEntries;
+    private final PreparedStatement deleteEntriesBefore;
+    private final PreparedStatement deleteEntries;
+    private final PreparedStatement selectCoverage;
+    private final PreparedStatement insertCoverage;
+    private final PreparedStatement moveCoverage;
+    private final PreparedStatement deleteCoverage;
+
+    @Inject
+    public CassandraExpungeLog(Session session) {
+        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+
+        this.insertEntry = session.prepare(insertInto(TABLE_NAME)
+            .value(MAILBOX_ID, bindMarker(MAILBOX_ID))
+            .value(MOD_SEQ, bindMarker(MOD_SEQ))
+            .value(UID, bindMarker(UID)));
+
+        this.selectEntries = session.prepare(select(UID)
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
+            .and(gte(MOD_SEQ, bindMarker(MOD_SEQ))));
+
+        this.deleteEntriesBefore = session.prepare(QueryBuilder.delete()
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
+            .and(lt(MOD_SEQ, bindMarker(MOD_SEQ))));
+
+        this.deleteEntries = session.prepare(QueryBuilder.delete()
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID))));
+
+        this.selectCoverage = session.prepare(select(Coverage.COVERED_SINCE)
+            .from(Coverage.TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID))));
+
+        this.insertCoverage = session.prepare(insertInto(Coverage.TABLE_NAME)
+            .value(MAILBOX_ID, bindMarker(MAILBOX_ID))
+            .value(Coverage.COVERED_SINCE, bindMarker(Coverage.COVERED_SINCE))
+            .ifNotExists());
+
+        this.moveCoverage = session.prepare(update(Coverage.TABLE_NAME)
+            .with(set(Coverage.COVERED_SINCE, bindMarker(Coverage.COVERED_SINCE)))
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
+            .onlyIf(lt(Coverage.COVERED_SINCE, bindMarker(BEFORE))));
+
+        this.deleteCoverage = session.prepare(QueryBuilder.delete()
+            .from(Coverage.TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID))));
+    }
+
+    @Override
+    public Mono<Void> appendEntries(MailboxId mailboxId, ModSeq modSeq, Collection<MessageUid> uids) {
+        checkMailbox(mailboxId);
+        Preconditions.checkNotNull(modSeq);
+        Preconditions.checkNotNull(uids);
+
+        return Flux.fromIterable(uids)
+            .flatMap(uid -> cassandraAsyncExecutor.executeVoid(insertEntry.bind()
+                .setUUID(MAILBOX_ID, ((CassandraId) mailboxId).asUuid())
+                .setLong(MOD_SEQ, modSeq.asLong())
+                .setLong(UID, uid.asLong())))
+            .then();
+    }
+
+    @Override
+    public Flux<MessageUid> listEntries(MailboxId mailboxId, ModSeq since) {
+        checkMailbox(mailboxId);
+        Preconditions.checkNotNull(since);
+
+        return cassandraAsyncExecutor.executeRows(selectEntries.bind()
+                .setUUID(MAILBOX_ID, ((CassandraId) mailboxId).asUuid())
+                .setLong(MOD_SEQ, since.asLong()))
+            .map(row -> MessageUid.of(row.getLong(UID)));
+    }
+
+    @Override
+    public Mono<ModSeq> coveredSince(MailboxId mailboxId) {
+        checkMailbox(mailboxId);
+
+        return cassandraAsyncExecutor.executeSingleRow(selectCoverage.bind()
+                .setUUID(MAILBOX_ID, ((CassandraId) mailboxId).asUuid()))
+            .map(row -> ModSeq.of(row.getLong(Coverage.COVERED_SINCE)));
+    }
+
+    @Override
+    public Mono<Void> startCoverage(MailboxId mailboxId, ModSeq since) {
+        checkMailbox(mailboxId);
+        Preconditions.checkNotNull(since);
+
+        return cassandraAsyncExecutor.executeReturnApplied(insertCoverage.bind()
+                .setUUID(MAILBOX_ID, ((CassandraId) mailboxId).asUuid())
+                .setLong(Coverage.COVERED_SINCE, since.asLong()))
+            .then();
+    }
+
+    /**
+     * The coverage is moved before entries are dropped so that readers never rely on dropped entries.
+     */
+    @Override
+    public Mono<Void> compact(MailboxId mailboxId, ModSeq before) {
+        checkMailbox(mailboxId);
+        Preconditions.checkNotNull(before);
+
+        return cassandraAsyncExecutor.executeReturnApplied(moveCoverage.bind()
+                .setUUID(MAILBOX_ID, ((CassandraId) mailboxId).asUuid())
+                .setLong(Coverage.COVERED_SINCE, before.asLong())
+                .setLong(BEFORE, before.asLong()))
+            .then(cassandraAsyncExecutor.executeVoid(deleteEntriesBefore.bind()
+                .setUUID(MAILBOX_ID, ((CassandraId) mailboxId).asUuid())
+                .setLong(MOD_SEQ, before.asLong())));
+    }
+
+    @Override
+    public Mono<Void> delete(MailboxId mailboxId) {
+        checkMailbox(mailboxId);
+
+        return cassandraAsyncExecutor.executeVoid(deleteCoverage.bind()
+                .setUUID(MAILBOX_ID, ((CassandraId) mailboxId).asUuid()))
+            .then(cassandraAsyncExecutor.executeVoid(deleteEntries.bind()
+                .setUUID(MAILBOX_ID, ((CassandraId) mailboxId).asUuid())));
+    }
+
+    private void checkMailbox(MailboxId mailboxId) {
+        Preconditions.checkNotNull(mailboxId);
+        Preconditions.checkArgument(mailboxId instanceof CassandraId,
+            "MailboxId type is required to be CassandraId");
+    }
+}
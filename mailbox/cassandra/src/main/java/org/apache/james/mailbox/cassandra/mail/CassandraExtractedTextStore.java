@@ -0,0 +1,82 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static org.apache.james.mailbox.cassandra.table.CassandraExtractedTextTable.BLOB_ID;
+import static org.apache.james.mailbox.cassandra.table.CassandraExtractedTextTable.TABLE_NAME;
+import static org.apache.james.mailbox.cassandra.table.CassandraExtractedTextTable.TEXTUAL_CONTENT;
+
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.mailbox.extractor.ExtractedTextStore;
+import org.apache.james.mailbox.extractor.ParsedContent;
+import org.apache.james.mailbox.model.BlobId;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+
+import reactor.core.publisher.Mono;
+
+public class CassandraExtractedTextStore implements ExtractedTextStore {
+    private final CassandraAsyncExecutor cassandraAsyncExecutor;
+    private final PreparedStatement storeStatement;
+    private final PreparedStatement retrieveStatement;
+
+    @Inject
+    public CassandraExtractedTextStore(Session session) {
+        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+
+        this.storeStatement = session.prepare(insertInto(TABLE_NAME)
+            .value(BLOB_ID, bindMarker(BLOB_ID))
+            .value(TEXTUAL_CONTENT, bindMarker(TEXTUAL_CONTENT)));
+
+        this.retrieveStatement = session.prepare(select(TEXTUAL_CONTENT)
+            .from(TABLE_NAME)
+            .where(eq(BLOB_ID, bindMarker(BLOB_ID))));
+    }
+
+    @Override
+    public Mono<Void> store(BlobId blobId, ParsedContent parsedContent) {
+        Preconditions.checkNotNull(blobId);
+        Preconditions.checkNotNull(parsedContent);
+
+        return cassandraAsyncExecutor.executeVoid(storeStatement.bind()
+            .setString(BLOB_ID, blobId.asString())
+            .setString(TEXTUAL_CONTENT, parsedContent.getTextualContent().orElse(null)));
+    }
+
+    @Override
+    public Mono<ParsedContent> retrieve(BlobId blobId) {
+        Preconditions.checkNotNull(blobId);
+
+        return cassandraAsyncExecutor.executeSingleRow(retrieveStatement.bind()
+                .setString(BLOB_ID, blobId.asString()))
+            .map(row -> new ParsedContent(Optional.ofNullable(row.getString(TEXTUAL_CONTENT)), ImmutableMap.of()));
+    }
+}
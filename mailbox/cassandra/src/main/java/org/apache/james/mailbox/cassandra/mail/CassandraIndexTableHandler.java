@@ -21,6 +21,7 @@ package org.apache.james.mailbox.cassandra.mail;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 import javax.mail.Flags;
@@ -114,6 +115,21 @@ public class CassandraIndexTableHandler {
             .then();
     }
 
+    public Mono<Void> updateIndexOnAdd(Collection<MailboxMessage> messages, CassandraId mailboxId) {
+        return Flux.mergeDelayError(Queues.XS_BUFFER_SIZE,
+                Flux.fromIterable(messages)
+                    .flatMap(message -> checkDeletedOnAdd(mailboxId, message.createFlags(), message.getUid())),
+                Flux.fromIterable(messages)
+                    .flatMap(message -> updateFirstUnseenOnAdd(mailboxId, message.createFlags(), message.getUid())),
+                Flux.fromIterable(messages)
+                    .flatMap(message -> addRecentOnSave(mailboxId, message)),
+                incrementCountersOnSave(mailboxId, messages),
+                applicableFlagDAO.updateApplicableFlags(mailboxId, messages.stream()
+                    .flatMap(message -> Stream.of(message.createFlags().getUserFlags()))
+                    .collect(Guavate.toImmutableSet())))
+            .then();
+    }
+
     public Mono<Void> updateIndexOnFlagsUpdate(CassandraId mailboxId, UpdatedFlags updatedFlags) {
         return updateIndexOnFlagsUpdate(mailboxId, ImmutableList.of(updatedFlags));
     }
@@ -178,6 +194,19 @@ public class CassandraIndexTableHandler {
         return mailboxCounterDAO.incrementUnseenAndCount(mailboxId);
     }
 
+    private Mono<Void> incrementCountersOnSave(CassandraId mailboxId, Collection<MailboxMessage> messages) {
+        long unseenCount = messages.stream()
+            .map(MailboxMessage::createFlags)
+            .filter(flags -> !flags.contains(Flags.Flag.SEEN))
+            .count();
+
+        return mailboxCounterDAO.add(MailboxCounters.builder()
+            .mailboxId(mailboxId)
+            .count(messages.size())
+            .unseen(unseenCount)
+            .build());
+    }
+
     private Mono<Void> addRecentOnSave(CassandraId mailboxId, MailboxMessage message) {
         if (message.createFlags().contains(Flags.Flag.RECENT)) {
             return mailboxRecentDAO.addToRecent(mailboxId, message.getUid());
@@ -0,0 +1,78 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static org.apache.james.mailbox.cassandra.table.CassandraMailboxDeletionCheckpointTable.LAST_DELETED_UID;
+import static org.apache.james.mailbox.cassandra.table.CassandraMailboxDeletionCheckpointTable.MAILBOX_ID;
+import static org.apache.james.mailbox.cassandra.table.CassandraMailboxDeletionCheckpointTable.TABLE_NAME;
+
+import javax.inject.Inject;
+
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+
+import reactor.core.publisher.Mono;
+
+public class CassandraMailboxDeletionCheckpointDAO {
+    private final CassandraAsyncExecutor cassandraAsyncExecutor;
+    private final PreparedStatement insertStatement;
+    private final PreparedStatement selectStatement;
+    private final PreparedStatement deleteStatement;
+
+    @Inject
+    public CassandraMailboxDeletionCheckpointDAO(Session session) {
+        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+        this.insertStatement = session.prepare(insertInto(TABLE_NAME)
+            .value(MAILBOX_ID, bindMarker(MAILBOX_ID))
+            .value(LAST_DELETED_UID, bindMarker(LAST_DELETED_UID)));
+        this.selectStatement = session.prepare(select(LAST_DELETED_UID)
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID))));
+        this.deleteStatement = session.prepare(QueryBuilder.delete()
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID))));
+    }
+
+    public Mono<Void> save(CassandraId mailboxId, MessageUid lastDeletedUid) {
+        return cassandraAsyncExecutor.executeVoid(insertStatement.bind()
+            .setUUID(MAILBOX_ID, mailboxId.asUuid())
+            .setLong(LAST_DELETED_UID, lastDeletedUid.asLong()));
+    }
+
+    public Mono<MessageUid> retrieve(CassandraId mailboxId) {
+        return cassandraAsyncExecutor.executeSingleRow(selectStatement.bind()
+                .setUUID(MAILBOX_ID, mailboxId.asUuid()))
+            .map(row -> MessageUid.of(row.getLong(LAST_DELETED_UID)));
+    }
+
+    public Mono<Void> delete(CassandraId mailboxId) {
+        return cassandraAsyncExecutor.executeVoid(deleteStatement.bind()
+            .setUUID(MAILBOX_ID, mailboxId.asUuid()));
+    }
+}
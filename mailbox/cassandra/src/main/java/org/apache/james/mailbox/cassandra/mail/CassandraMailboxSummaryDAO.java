@@ -0,0 +1,164 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.in;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.timestamp;
+import static org.apache.james.mailbox.cassandra.table.CassandraMailboxSummaryTable.COUNT;
+import static org.apache.james.mailbox.cassandra.table.CassandraMailboxSummaryTable.FIRST_UNSEEN;
+import static org.apache.james.mailbox.cassandra.table.CassandraMailboxSummaryTable.HIGHEST_MOD_SEQ;
+import static org.apache.james.mailbox.cassandra.table.CassandraMailboxSummaryTable.LAST_UID;
+import static org.apache.james.mailbox.cassandra.table.CassandraMailboxSummaryTable.MAILBOX_ID;
+import static org.apache.james.mailbox.cassandra.table.CassandraMailboxSummaryTable.RECENTS;
+import static org.apache.james.mailbox.cassandra.table.CassandraMailboxSummaryTable.TABLE_NAME;
+import static org.apache.james.mailbox.cassandra.table.CassandraMailboxSummaryTable.UNSEEN;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.model.MailboxCounters;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.github.steveash.guavate.Guavate;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Writes are timestamped with the time the summary computation started: a summary computed from an older state of the
+ * mailbox can then not override a summary computed from a newer one, whatever the order in which the writes land.
+ */
+public class CassandraMailboxSummaryDAO {
+    private static final String WRITE_TIME = "writeTime";
+    private static final int MAX_MAILBOXES_PER_READ = 100;
+
+    private final CassandraAsyncExecutor cassandraAsyncExecutor;
+    private final PreparedStatement insertStatement;
+    private final PreparedStatement readStatement;
+    private final PreparedStatement readManyStatement;
+    private final PreparedStatement deleteStatement;
+
+    @Inject
+    public CassandraMailboxSummaryDAO(Session session) {
+        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+        this.insertStatement = session.prepare(insertInto(TABLE_NAME)
+            .value(MAILBOX_ID, bindMarker(MAILBOX_ID))
+            .value(COUNT, bindMarker(COUNT))
+            .value(UNSEEN, bindMarker(UNSEEN))
+            .value(LAST_UID, bindMarker(LAST_UID))
+            .value(HIGHEST_MOD_SEQ, bindMarker(HIGHEST_MOD_SEQ))
+            .value(FIRST_UNSEEN, bindMarker(FIRST_UNSEEN))
+            .value(RECENTS, bindMarker(RECENTS))
+            .using(timestamp(bindMarker(WRITE_TIME))));
+        this.readStatement = session.prepare(select()
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID))));
+        this.readManyStatement = session.prepare(select()
+            .from(TABLE_NAME)
+            .where(in(MAILBOX_ID, bindMarker(MAILBOX_ID))));
+        this.deleteStatement = session.prepare(QueryBuilder.delete()
+            .from(TABLE_NAME)
+            .using(timestamp(bindMarker(WRITE_TIME)))
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID))));
+    }
+
+    public Mono<Void> save(MailboxSummary summary, long writeTimeInMicros) {
+        MailboxCounters counters = summary.getCounters();
+        BoundStatement statement = insertStatement.bind()
+            .setUUID(MAILBOX_ID, summary.getMailboxId().asUuid())
+            .setLong(COUNT, counters.getCount())
+            .setLong(UNSEEN, counters.getUnseen())
+            .setLong(HIGHEST_MOD_SEQ, summary.getHighestModSeq().asLong())
+            .setSet(RECENTS, summary.getRecents().stream()
+                .map(MessageUid::asLong)
+                .collect(Guavate.toImmutableSet()), Long.class)
+            .setLong(WRITE_TIME, writeTimeInMicros);
+
+        return cassandraAsyncExecutor.executeVoid(
+            bindOptionalUid(bindOptionalUid(statement, LAST_UID, summary.getLastUid()), FIRST_UNSEEN, summary.getFirstUnseen()));
+    }
+
+    public Mono<MailboxSummary> retrieve(CassandraId mailboxId) {
+        return cassandraAsyncExecutor.executeSingleRow(readStatement.bind()
+                .setUUID(MAILBOX_ID, mailboxId.asUuid()))
+            .map(this::toSummary);
+    }
+
+    /**
+     * Reads the summaries of several mailboxes using multi-partition reads. Mailboxes without summary are omitted.
+     */
+    public Flux<MailboxSummary> retrieve(Collection<CassandraId> mailboxIds) {
+        return Flux.fromIterable(mailboxIds)
+            .map(CassandraId::asUuid)
+            .buffer(MAX_MAILBOXES_PER_READ)
+            .flatMap(uuids -> cassandraAsyncExecutor.executeRows(readManyStatement.bind()
+                .setList(MAILBOX_ID, uuids)))
+            .map(this::toSummary);
+    }
+
+    public Mono<Void> delete(CassandraId mailboxId, long writeTimeInMicros) {
+        return cassandraAsyncExecutor.executeVoid(deleteStatement.bind()
+            .setUUID(MAILBOX_ID, mailboxId.asUuid())
+            .setLong(WRITE_TIME, writeTimeInMicros));
+    }
+
+    private BoundStatement bindOptionalUid(BoundStatement statement, String column, Optional<MessageUid> uid) {
+        return uid.map(value -> statement.setLong(column, value.asLong()))
+            .orElseGet(() -> statement.setToNull(column));
+    }
+
+    private MailboxSummary toSummary(Row row) {
+        CassandraId mailboxId = CassandraId.of(row.getUUID(MAILBOX_ID));
+        return new MailboxSummary(mailboxId,
+            MailboxCounters.builder()
+                .mailboxId(mailboxId)
+                .count(row.getLong(COUNT))
+                .unseen(row.getLong(UNSEEN))
+                .build(),
+            readOptionalUid(row, LAST_UID),
+            ModSeq.of(row.getLong(HIGHEST_MOD_SEQ)),
+            readOptionalUid(row, FIRST_UNSEEN),
+            row.getSet(RECENTS, Long.class).stream()
+                .sorted()
+                .map(MessageUid::of)
+                .collect(Guavate.toImmutableList()));
+    }
+
+    private Optional<MessageUid> readOptionalUid(Row row, String column) {
+        if (row.isNull(column)) {
+            return Optional.empty();
+        }
+        return Optional.of(MessageUid.of(row.getLong(column)));
+    }
+}
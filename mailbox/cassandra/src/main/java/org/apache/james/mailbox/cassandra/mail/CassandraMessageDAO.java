@@ -66,6 +66,7 @@ import org.apache.james.mailbox.model.AttachmentId;
 import org.apache.james.mailbox.model.Cid;
 import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
 import org.apache.james.mailbox.model.MessageAttachmentMetadata;
+import org.apache.james.mailbox.store.StoredBody;
 import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.mail.model.Property;
@@ -179,7 +180,9 @@ public class CassandraMessageDAO {
             byte[] headerContent = IOUtils.toByteArray(message.getHeaderContent());
             byte[] bodyContent = IOUtils.toByteArray(message.getBodyContent());
 
-            Mono<BlobId> bodyFuture = Mono.from(blobStore.save(blobStore.getDefaultBucketName(), bodyContent, LOW_COST));
+            Mono<BlobId> bodyFuture = storedBody(message, bodyContent)
+                .map(Mono::just)
+                .orElseGet(() -> Mono.from(blobStore.save(blobStore.getDefaultBucketName(), bodyContent, LOW_COST)));
             Mono<BlobId> headerFuture = Mono.from(blobStore.save(blobStore.getDefaultBucketName(), headerContent, SIZE_BASED));
 
             return headerFuture.zipWith(bodyFuture);
@@ -188,6 +191,15 @@ public class CassandraMessageDAO {
         }
     }
 
+    /**
+     * The body blob handed over upon append is referenced only when its content addressed id matches the body.
+     */
+    private Optional<BlobId> storedBody(MailboxMessage message, byte[] bodyContent) {
+        return StoredBody.retrieve(message.getProperties())
+            .map(blobIdFactory::from)
+            .filter(blobId -> blobId.equals(blobIdFactory.forPayload(bodyContent)));
+    }
+
     private BoundStatement boundWriteStatement(MailboxMessage message, Tuple2<BlobId, BlobId> pair) {
         CassandraMessageId messageId = (CassandraMessageId) message.getMessageId();
         return insert.bind()
@@ -223,6 +235,7 @@ public class CassandraMessageDAO {
 
     private List<UDTValue> buildPropertiesUdt(MailboxMessage message) {
         return message.getProperties().stream()
+            .filter(property -> !StoredBody.isStoredBody(property))
             .map(property -> typesProvider.getDefinedUserType(PROPERTIES)
                 .newValue()
                 .setString(Properties.NAMESPACE, property.getNamespace())
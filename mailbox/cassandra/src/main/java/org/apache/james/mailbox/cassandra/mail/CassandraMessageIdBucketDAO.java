@@ -0,0 +1,327 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.gte;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.lte;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIdBucketTable.BUCKET;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIdBucketTable.FIELDS;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIdBucketTable.MOD_SEQ;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIdBucketTable.TABLE_NAME;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIds.IMAP_UID;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIds.MAILBOX_ID;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIds.MESSAGE_ID;
+import static org.apache.james.mailbox.cassandra.table.Flag.ANSWERED;
+import static org.apache.james.mailbox.cassandra.table.Flag.DELETED;
+import static org.apache.james.mailbox.cassandra.table.Flag.DRAFT;
+import static org.apache.james.mailbox.cassandra.table.Flag.FLAGGED;
+import static org.apache.james.mailbox.cassandra.table.Flag.RECENT;
+import static org.apache.james.mailbox.cassandra.table.Flag.SEEN;
+import static org.apache.james.mailbox.cassandra.table.Flag.USER;
+import static org.apache.james.mailbox.cassandra.table.Flag.USER_FLAGS;
+
+import java.util.Objects;
+
+import javax.mail.Flags;
+import javax.mail.Flags.Flag;
+
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.ids.CassandraMessageId;
+import org.apache.james.mailbox.cassandra.table.CassandraMessageIdBucketTable;
+import org.apache.james.mailbox.model.ComposedMessageId;
+import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.util.streams.Limit;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bucketed layout of the mailbox UID index: the UIDs of a mailbox are spread over partitions of bucketSize
+ * consecutive UIDs. Used buckets are listed in a dedicated table, hence range reads never read the whole index of a
+ * mailbox and can be performed concurrently on the buckets.
+ */
+class CassandraMessageIdBucketDAO {
+    private static final String IMAP_UID_GTE = IMAP_UID + "_GTE";
+    private static final String IMAP_UID_LTE = IMAP_UID + "_LTE";
+    private static final String BUCKET_GTE = BUCKET + "_GTE";
+    private static final String BUCKET_LTE = BUCKET + "_LTE";
+    private static final int BUCKET_READ_CONCURRENCY = 4;
+    private static final int KNOWN_BUCKETS_CACHE_SIZE = 10_000;
+    private static final int MIGRATED_MAILBOXES_CACHE_SIZE = 10_000;
+
+    private static class MailboxBucket {
+        private final CassandraId mailboxId;
+        private final long bucket;
+
+        private MailboxBucket(CassandraId mailboxId, long bucket) {
+            this.mailboxId = mailboxId;
+            this.bucket = bucket;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof MailboxBucket) {
+                MailboxBucket that = (MailboxBucket) o;
+
+                return Objects.equals(this.bucket, that.bucket)
+                    && Objects.equals(this.mailboxId, that.mailboxId);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(mailboxId, bucket);
+        }
+    }
+
+    private final CassandraAsyncExecutor cassandraAsyncExecutor;
+    private final long bucketSize;
+    // Buckets are only removed from the bucket list upon mailbox deletion: once known, a bucket needs not be written again
+    private final Cache<MailboxBucket, Boolean> knownBuckets;
+    // A migrated mailbox never goes back to the former layout: only positive lookups are cached
+    private final Cache<CassandraId, Boolean> migratedMailboxes;
+    private final PreparedStatement insert;
+    private final PreparedStatement insertBucket;
+    private final PreparedStatement deleteBuckets;
+    private final PreparedStatement insertMigrated;
+    private final PreparedStatement selectMigrated;
+    private final PreparedStatement deleteMigrated;
+    private final PreparedStatement delete;
+    private final PreparedStatement select;
+    private final PreparedStatement selectBuckets;
+    private final PreparedStatement selectUidRange;
+    private final PreparedStatement selectUidRangeLimited;
+    private final PreparedStatement list;
+
+    CassandraMessageIdBucketDAO(Session session, int bucketSize) {
+        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+        this.bucketSize = bucketSize;
+        this.knownBuckets = CacheBuilder.newBuilder()
+            .maximumSize(KNOWN_BUCKETS_CACHE_SIZE)
+            .build();
+        this.migratedMailboxes = CacheBuilder.newBuilder()
+            .maximumSize(MIGRATED_MAILBOXES_CACHE_SIZE)
+            .build();
+        this.insert = session.prepare(insertInto(TABLE_NAME)
+            .value(MAILBOX_ID, bindMarker(MAILBOX_ID))
+            .value(BUCKET, bindMarker(BUCKET))
+            .value(IMAP_UID, bindMarker(IMAP_UID))
+            .value(MOD_SEQ, bindMarker(MOD_SEQ))
+            .value(MESSAGE_ID, bindMarker(MESSAGE_ID))
+            .value(ANSWERED, bindMarker(ANSWERED))
+            .value(DELETED, bindMarker(DELETED))
+            .value(DRAFT, bindMarker(DRAFT))
+            .value(FLAGGED, bindMarker(FLAGGED))
+            .value(RECENT, bindMarker(RECENT))
+            .value(SEEN, bindMarker(SEEN))
+            .value(USER, bindMarker(USER))
+            .value(USER_FLAGS, bindMarker(USER_FLAGS)));
+        this.insertBucket = session.prepare(insertInto(CassandraMessageIdBucketTable.Buckets.TABLE_NAME)
+            .value(MAILBOX_ID, bindMarker(MAILBOX_ID))
+            .value(BUCKET, bindMarker(BUCKET)));
+        this.deleteBuckets = session.prepare(QueryBuilder.delete()
+            .from(CassandraMessageIdBucketTable.Buckets.TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID))));
+        this.insertMigrated = session.prepare(insertInto(CassandraMessageIdBucketTable.MigratedMailboxes.TABLE_NAME)
+            .value(MAILBOX_ID, bindMarker(MAILBOX_ID)));
+        this.selectMigrated = session.prepare(select(MAILBOX_ID)
+            .from(CassandraMessageIdBucketTable.MigratedMailboxes.TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID))));
+        this.deleteMigrated = session.prepare(QueryBuilder.delete()
+            .from(CassandraMessageIdBucketTable.MigratedMailboxes.TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID))));
+        this.delete = session.prepare(QueryBuilder.delete()
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
+            .and(eq(BUCKET, bindMarker(BUCKET)))
+            .and(eq(IMAP_UID, bindMarker(IMAP_UID))));
+        this.select = session.prepare(select(FIELDS)
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
+            .and(eq(BUCKET, bindMarker(BUCKET)))
+            .and(eq(IMAP_UID, bindMarker(IMAP_UID))));
+        this.selectBuckets = session.prepare(select(BUCKET)
+            .from(CassandraMessageIdBucketTable.Buckets.TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
+            .and(gte(BUCKET, bindMarker(BUCKET_GTE)))
+            .and(lte(BUCKET, bindMarker(BUCKET_LTE))));
+        this.selectUidRange = session.prepare(select(FIELDS)
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
+            .and(eq(BUCKET, bindMarker(BUCKET)))
+            .and(gte(IMAP_UID, bindMarker(IMAP_UID_GTE)))
+            .and(lte(IMAP_UID, bindMarker(IMAP_UID_LTE))));
+        this.selectUidRangeLimited = session.prepare(select(FIELDS)
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
+            .and(eq(BUCKET, bindMarker(BUCKET)))
+            .and(gte(IMAP_UID, bindMarker(IMAP_UID_GTE)))
+            .and(lte(IMAP_UID, bindMarker(IMAP_UID_LTE)))
+            .limit(bindMarker(CassandraMessageIdDAO.LIMIT)));
+        this.list = session.prepare(select(FIELDS)
+            .from(TABLE_NAME));
+    }
+
+    Mono<Void> insert(ComposedMessageIdWithMetaData composedMessageIdWithMetaData) {
+        ComposedMessageId composedMessageId = composedMessageIdWithMetaData.getComposedMessageId();
+        CassandraId mailboxId = (CassandraId) composedMessageId.getMailboxId();
+        long bucket = bucketOf(composedMessageId.getUid());
+        Flags flags = composedMessageIdWithMetaData.getFlags();
+
+        return registerBucket(mailboxId, bucket)
+            .then(cassandraAsyncExecutor.executeVoid(insert.bind()
+                .setUUID(MAILBOX_ID, mailboxId.asUuid())
+                .setLong(BUCKET, bucket)
+                .setLong(IMAP_UID, composedMessageId.getUid().asLong())
+                .setUUID(MESSAGE_ID, ((CassandraMessageId) composedMessageId.getMessageId()).get())
+                .setLong(MOD_SEQ, composedMessageIdWithMetaData.getModSeq().asLong())
+                .setBool(ANSWERED, flags.contains(Flag.ANSWERED))
+                .setBool(DELETED, flags.contains(Flag.DELETED))
+                .setBool(DRAFT, flags.contains(Flag.DRAFT))
+                .setBool(FLAGGED, flags.contains(Flag.FLAGGED))
+                .setBool(RECENT, flags.contains(Flag.RECENT))
+                .setBool(SEEN, flags.contains(Flag.SEEN))
+                .setBool(USER, flags.contains(Flag.USER))
+                .setSet(USER_FLAGS, ImmutableSet.copyOf(flags.getUserFlags()))));
+    }
+
+    private Mono<Void> registerBucket(CassandraId mailboxId, long bucket) {
+        MailboxBucket mailboxBucket = new MailboxBucket(mailboxId, bucket);
+        if (knownBuckets.getIfPresent(mailboxBucket) != null) {
+            return Mono.empty();
+        }
+        return cassandraAsyncExecutor.executeVoid(insertBucket.bind()
+                .setUUID(MAILBOX_ID, mailboxId.asUuid())
+                .setLong(BUCKET, bucket))
+            .doOnSuccess(any -> knownBuckets.put(mailboxBucket, true));
+    }
+
+    /**
+     * Whether the entries of this mailbox in the former layout had all been moved to buckets.
+     */
+    Mono<Boolean> isLegacyMigrated(CassandraId mailboxId) {
+        if (migratedMailboxes.getIfPresent(mailboxId) != null) {
+            return Mono.just(true);
+        }
+        return cassandraAsyncExecutor.executeReturnExists(selectMigrated.bind()
+                .setUUID(MAILBOX_ID, mailboxId.asUuid()))
+            .doOnNext(migrated -> {
+                if (migrated) {
+                    migratedMailboxes.put(mailboxId, true);
+                }
+            });
+    }
+
+    Mono<Void> markLegacyMigrated(CassandraId mailboxId) {
+        return cassandraAsyncExecutor.executeVoid(insertMigrated.bind()
+                .setUUID(MAILBOX_ID, mailboxId.asUuid()))
+            .doOnSuccess(any -> migratedMailboxes.put(mailboxId, true));
+    }
+
+    /**
+     * Removes the bucket list and the migration marker of a deleted mailbox. Its entries are expected to have been
+     * deleted beforehand.
+     */
+    Mono<Void> deleteMailbox(CassandraId mailboxId) {
+        return cassandraAsyncExecutor.executeVoid(deleteBuckets.bind()
+                .setUUID(MAILBOX_ID, mailboxId.asUuid()))
+            .then(cassandraAsyncExecutor.executeVoid(deleteMigrated.bind()
+                .setUUID(MAILBOX_ID, mailboxId.asUuid())))
+            .doOnSuccess(any -> {
+                knownBuckets.asMap().keySet().removeIf(mailboxBucket -> mailboxBucket.mailboxId.equals(mailboxId));
+                migratedMailboxes.invalidate(mailboxId);
+            });
+    }
+
+    Mono<Void> delete(CassandraId mailboxId, MessageUid uid) {
+        return cassandraAsyncExecutor.executeVoid(delete.bind()
+            .setUUID(MAILBOX_ID, mailboxId.asUuid())
+            .setLong(BUCKET, bucketOf(uid))
+            .setLong(IMAP_UID, uid.asLong()));
+    }
+
+    Mono<Row> retrieve(CassandraId mailboxId, MessageUid uid) {
+        return cassandraAsyncExecutor.executeSingleRow(select.bind()
+            .setUUID(MAILBOX_ID, mailboxId.asUuid())
+            .setLong(BUCKET, bucketOf(uid))
+            .setLong(IMAP_UID, uid.asLong()));
+    }
+
+    /**
+     * Rows are returned in UID order. At most limit rows are read from each bucket: callers are responsible for
+     * applying the overall limit.
+     */
+    Flux<Row> retrieveRows(CassandraId mailboxId, MessageRange range, Limit limit) {
+        if (range.getType() == MessageRange.Type.ONE) {
+            return Flux.concat(retrieve(mailboxId, range.getUidFrom()));
+        }
+        long from = range.getUidFrom().asLong();
+        long to = range.getUidTo().asLong();
+
+        return cassandraAsyncExecutor.executeRows(selectBuckets.bind()
+                .setUUID(MAILBOX_ID, mailboxId.asUuid())
+                .setLong(BUCKET_GTE, from / bucketSize)
+                .setLong(BUCKET_LTE, to / bucketSize))
+            .map(row -> row.getLong(BUCKET))
+            .flatMapSequential(bucket -> selectRange(mailboxId, bucket,
+                Math.max(from, bucket * bucketSize),
+                Math.min(to, (bucket + 1) * bucketSize - 1),
+                limit), BUCKET_READ_CONCURRENCY);
+    }
+
+    Flux<Row> retrieveAllRows() {
+        return cassandraAsyncExecutor.executeRows(list.bind());
+    }
+
+    private Flux<Row> selectRange(CassandraId mailboxId, long bucket, long from, long to, Limit limit) {
+        return cassandraAsyncExecutor.executeRows(limit.getLimit()
+            .map(limitAsInt -> selectUidRangeLimited.bind()
+                .setUUID(MAILBOX_ID, mailboxId.asUuid())
+                .setLong(BUCKET, bucket)
+                .setLong(IMAP_UID_GTE, from)
+                .setLong(IMAP_UID_LTE, to)
+                .setInt(CassandraMessageIdDAO.LIMIT, limitAsInt))
+            .orElse(selectUidRange.bind()
+                .setUUID(MAILBOX_ID, mailboxId.asUuid())
+                .setLong(BUCKET, bucket)
+                .setLong(IMAP_UID_GTE, from)
+                .setLong(IMAP_UID_LTE, to)));
+    }
+
+    private long bucketOf(MessageUid uid) {
+        return uid.asLong() / bucketSize;
+    }
+}
@@ -0,0 +1,77 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIdBucketTable.Layout.BUCKET_SIZE;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIdBucketTable.Layout.KEY;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIdBucketTable.Layout.TABLE_NAME;
+
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Records the activation of the bucketed layout of the mailbox UID index, shared by all the nodes of a cluster.
+ *
+ * The first activation wins: a bucket size, once recorded, is never changed.
+ */
+class CassandraMessageIdBucketLayoutDAO {
+    private static final String UID_INDEX = "uidIndex";
+
+    private final CassandraAsyncExecutor cassandraAsyncExecutor;
+    private final PreparedStatement insert;
+    private final PreparedStatement select;
+
+    CassandraMessageIdBucketLayoutDAO(Session session) {
+        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+        this.insert = session.prepare(insertInto(TABLE_NAME)
+            .value(KEY, UID_INDEX)
+            .value(BUCKET_SIZE, bindMarker(BUCKET_SIZE))
+            .ifNotExists());
+        this.select = session.prepare(select(BUCKET_SIZE)
+            .from(TABLE_NAME)
+            .where(eq(KEY, UID_INDEX)));
+    }
+
+    /**
+     * @return the bucket size of the activated bucketed layout, empty if it had not been activated
+     */
+    Mono<Integer> retrieveBucketSize() {
+        return cassandraAsyncExecutor.executeSingleRow(select.bind())
+            .map(row -> row.getInt(BUCKET_SIZE));
+    }
+
+    /**
+     * @return the bucket size of the activated bucketed layout, which differs from the given one if another bucket
+     * size had been activated before
+     */
+    Mono<Integer> activate(int bucketSize) {
+        return cassandraAsyncExecutor.executeVoid(insert.bind()
+                .setInt(BUCKET_SIZE, bucketSize))
+            .then(retrieveBucketSize());
+    }
+}
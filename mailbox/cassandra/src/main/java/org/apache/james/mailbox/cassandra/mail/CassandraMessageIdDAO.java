@@ -42,12 +42,16 @@ import static org.apache.james.mailbox.cassandra.table.Flag.USER;
 import static org.apache.james.mailbox.cassandra.table.Flag.USER_FLAGS;
 import static org.apache.james.mailbox.cassandra.table.MessageIdToImapUid.MOD_SEQ;
 
+import java.util.Comparator;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import javax.inject.Inject;
 import javax.mail.Flags;
 import javax.mail.Flags.Flag;
 
+import org.apache.james.backends.cassandra.init.configuration.CassandraConfiguration;
 import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.ModSeq;
@@ -69,6 +73,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class CassandraMessageIdDAO {
+    private static final Comparator<Row> UID_ORDER = Comparator.comparingLong(row -> row.getLong(IMAP_UID));
 
     private static final String IMAP_UID_GTE = IMAP_UID + "_GTE";
     private static final String IMAP_UID_LTE = IMAP_UID + "_LTE";
@@ -77,6 +82,7 @@ public class CassandraMessageIdDAO {
     private final CassandraAsyncExecutor cassandraAsyncExecutor;
     private final Factory messageIdFactory;
     private final PreparedStatement delete;
+    private final PreparedStatement deletePartition;
     private final PreparedStatement insert;
     private final PreparedStatement select;
     private final PreparedStatement selectAllUids;
@@ -87,12 +93,27 @@ public class CassandraMessageIdDAO {
     private final PreparedStatement selectUidRangeLimited;
     private final PreparedStatement update;
     private final PreparedStatement listStatement;
+    private final Optional<Integer> configuredBucketSize;
+    private final Optional<CassandraMessageIdBucketDAO> bucketDAO;
+    private final CassandraMessageIdBucketLayoutDAO layoutDAO;
+    // Activation of the bucketed layout can not be undone: only a positive lookup is remembered
+    private volatile boolean bucketedLayoutActivated;
 
-    @Inject
     public CassandraMessageIdDAO(Session session, CassandraMessageId.Factory messageIdFactory) {
+        this(session, messageIdFactory, CassandraConfiguration.DEFAULT_CONFIGURATION);
+    }
+
+    @Inject
+    public CassandraMessageIdDAO(Session session, CassandraMessageId.Factory messageIdFactory, CassandraConfiguration cassandraConfiguration) {
         this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
         this.messageIdFactory = messageIdFactory;
+        this.configuredBucketSize = cassandraConfiguration.getUidIndexBucketSize();
+        this.bucketDAO = configuredBucketSize
+            .map(bucketSize -> new CassandraMessageIdBucketDAO(session, bucketSize));
+        this.layoutDAO = new CassandraMessageIdBucketLayoutDAO(session);
+        this.bucketedLayoutActivated = false;
         this.delete = prepareDelete(session);
+        this.deletePartition = prepareDeletePartition(session);
         this.insert = prepareInsert(session);
         this.update = prepareUpdate(session);
         this.select = prepareSelect(session);
@@ -112,6 +133,12 @@ public class CassandraMessageIdDAO {
                 .and(eq(IMAP_UID, bindMarker(IMAP_UID))));
     }
 
+    private PreparedStatement prepareDeletePartition(Session session) {
+        return session.prepare(QueryBuilder.delete()
+                .from(TABLE_NAME)
+                .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID))));
+    }
+
     private PreparedStatement prepareInsert(Session session) {
         return session.prepare(insertInto(TABLE_NAME)
                 .value(MAILBOX_ID, bindMarker(MAILBOX_ID))
@@ -200,13 +227,95 @@ public class CassandraMessageIdDAO {
             .limit(bindMarker(LIMIT)));
     }
 
+    /**
+     * Nodes configured with a bucket size keep using the former layout alone until the bucketed layout is activated
+     * cluster wide, see {@link #activateBucketedLayout()}: nodes being reconfigured one after the other never disagree
+     * on the layout to read and write.
+     */
+    private Mono<Optional<CassandraMessageIdBucketDAO>> activeBucketDAO() {
+        if (!bucketDAO.isPresent() || bucketedLayoutActivated) {
+            return Mono.just(bucketDAO);
+        }
+        return layoutDAO.retrieveBucketSize()
+            .flatMap(this::checkActivatedBucketSize)
+            .map(any -> bucketDAO)
+            .defaultIfEmpty(Optional.empty());
+    }
+
+    private Mono<Integer> checkActivatedBucketSize(int activatedBucketSize) {
+        if (!configuredBucketSize.equals(Optional.of(activatedBucketSize))) {
+            return Mono.error(new IllegalStateException(String.format(
+                "The UID index bucketed layout is activated with a bucket size of %d whereas 'mailbox.uid.index.bucket.size' is %s",
+                activatedBucketSize, configuredBucketSize.map(String::valueOf).orElse("not set"))));
+        }
+        bucketedLayoutActivated = true;
+        return Mono.just(activatedBucketSize);
+    }
+
+    private <T> Mono<T> withLayout(Function<CassandraMessageIdBucketDAO, Mono<T>> bucketed, Supplier<Mono<T>> legacy) {
+        return activeBucketDAO()
+            .flatMap(maybeBucketDAO -> maybeBucketDAO.map(bucketed).orElseGet(legacy));
+    }
+
+    private <T> Flux<T> withLayoutMany(Function<CassandraMessageIdBucketDAO, Flux<T>> bucketed, Supplier<Flux<T>> legacy) {
+        return activeBucketDAO()
+            .flatMapMany(maybeBucketDAO -> maybeBucketDAO.map(bucketed).orElseGet(legacy));
+    }
+
+    /**
+     * Activates the bucketed layout for all nodes, with the configured bucket size. Fails if the bucket size is not
+     * configured, or if the layout had already been activated with another bucket size. Every node needs to be
+     * configured with the same bucket size beforehand: nodes without it do not switch layout.
+     */
+    public Mono<Void> activateBucketedLayout() {
+        return Mono.justOrEmpty(configuredBucketSize)
+            .switchIfEmpty(Mono.error(() -> new IllegalStateException(
+                "'mailbox.uid.index.bucket.size' needs to be set in order to activate the bucketed layout")))
+            .flatMap(layoutDAO::activate)
+            .flatMap(this::checkActivatedBucketSize)
+            .then();
+    }
+
+    /**
+     * @return the bucket size of the activated bucketed layout, empty if the former layout alone is used
+     */
+    public Mono<Integer> retrieveActivatedBucketSize() {
+        return layoutDAO.retrieveBucketSize();
+    }
+
+    public Optional<Integer> getConfiguredBucketSize() {
+        return configuredBucketSize;
+    }
+
     public Mono<Void> delete(CassandraId mailboxId, MessageUid uid) {
+        return withLayout(
+            bucketedIndex -> bucketedIndex.delete(mailboxId, uid)
+                .then(deleteLegacyIfPresent(bucketedIndex, mailboxId, uid)),
+            () -> deleteLegacy(mailboxId, uid));
+    }
+
+    /**
+     * Only existing entries of not yet migrated mailboxes are deleted from the former layout, so that the bucketed
+     * layout does not fill the former one with tombstones.
+     */
+    private Mono<Void> deleteLegacyIfPresent(CassandraMessageIdBucketDAO bucketedIndex, CassandraId mailboxId, MessageUid uid) {
+        return legacyUnlessMigrated(bucketedIndex, mailboxId, () -> selectOneLegacyRow(mailboxId, uid))
+            .flatMap(row -> deleteLegacy(mailboxId, uid));
+    }
+
+    private Mono<Void> deleteLegacy(CassandraId mailboxId, MessageUid uid) {
         return cassandraAsyncExecutor.executeVoid(delete.bind()
                 .setUUID(MAILBOX_ID, mailboxId.asUuid())
                 .setLong(IMAP_UID, uid.asLong()));
     }
 
     public Mono<Void> insert(ComposedMessageIdWithMetaData composedMessageIdWithMetaData) {
+        return withLayout(
+            bucketedIndex -> bucketedIndex.insert(composedMessageIdWithMetaData),
+            () -> insertLegacy(composedMessageIdWithMetaData));
+    }
+
+    private Mono<Void> insertLegacy(ComposedMessageIdWithMetaData composedMessageIdWithMetaData) {
         ComposedMessageId composedMessageId = composedMessageIdWithMetaData.getComposedMessageId();
         Flags flags = composedMessageIdWithMetaData.getFlags();
         return cassandraAsyncExecutor.executeVoid(insert.bind()
@@ -224,7 +333,60 @@ public class CassandraMessageIdDAO {
                 .setSet(USER_FLAGS, ImmutableSet.copyOf(flags.getUserFlags())));
     }
 
+    /**
+     * With the bucketed layout, the entry is (re)written in its bucket and removed from the former layout: updated
+     * entries are migrated on the fly.
+     */
     public Mono<Void> updateMetadata(ComposedMessageIdWithMetaData composedMessageIdWithMetaData) {
+        return withLayout(
+            bucketedIndex -> moveToBucket(bucketedIndex, composedMessageIdWithMetaData),
+            () -> updateLegacyMetadata(composedMessageIdWithMetaData));
+    }
+
+    /**
+     * Copies an entry of the former layout to its bucket. The former entry is left in place, see
+     * {@link #dropLegacyPartition(CassandraId)}. No-op when the bucketed layout is not activated.
+     */
+    public Mono<Void> copyToBucket(ComposedMessageIdWithMetaData composedMessageIdWithMetaData) {
+        return activeBucketDAO()
+            .flatMap(Mono::justOrEmpty)
+            .flatMap(bucketedIndex -> bucketedIndex.insert(composedMessageIdWithMetaData));
+    }
+
+    /**
+     * Drops the whole former layout partition of a mailbox, whose entries had all been copied to buckets, with a
+     * single partition tombstone, then records the mailbox as migrated so that the former layout is not read anymore.
+     * No-op when the bucketed layout is not activated.
+     */
+    public Mono<Void> dropLegacyPartition(CassandraId mailboxId) {
+        return activeBucketDAO()
+            .flatMap(Mono::justOrEmpty)
+            .flatMap(bucketedIndex -> dropLegacyPartition(bucketedIndex, mailboxId));
+    }
+
+    private Mono<Void> dropLegacyPartition(CassandraMessageIdBucketDAO bucketedIndex, CassandraId mailboxId) {
+        return cassandraAsyncExecutor.executeVoid(deletePartition.bind()
+                .setUUID(MAILBOX_ID, mailboxId.asUuid()))
+            .then(bucketedIndex.markLegacyMigrated(mailboxId));
+    }
+
+    /**
+     * Removes the bucket list of a deleted mailbox, once all of its entries had been deleted. No-op when the bucketed
+     * layout is not activated.
+     */
+    public Mono<Void> deleteMailbox(CassandraId mailboxId) {
+        return activeBucketDAO()
+            .flatMap(Mono::justOrEmpty)
+            .flatMap(bucketedIndex -> bucketedIndex.deleteMailbox(mailboxId));
+    }
+
+    private Mono<Void> moveToBucket(CassandraMessageIdBucketDAO bucketedIndex, ComposedMessageIdWithMetaData composedMessageIdWithMetaData) {
+        ComposedMessageId composedMessageId = composedMessageIdWithMetaData.getComposedMessageId();
+        return bucketedIndex.insert(composedMessageIdWithMetaData)
+            .then(deleteLegacyIfPresent(bucketedIndex, (CassandraId) composedMessageId.getMailboxId(), composedMessageId.getUid()));
+    }
+
+    private Mono<Void> updateLegacyMetadata(ComposedMessageIdWithMetaData composedMessageIdWithMetaData) {
         ComposedMessageId composedMessageId = composedMessageIdWithMetaData.getComposedMessageId();
         Flags flags = composedMessageIdWithMetaData.getFlags();
         return cassandraAsyncExecutor.executeVoid(update.bind()
@@ -253,6 +415,13 @@ public class CassandraMessageIdDAO {
     }
 
     private Mono<Row> selectOneRow(CassandraId mailboxId, MessageUid uid) {
+        return withLayout(
+            bucketedIndex -> bucketedIndex.retrieve(mailboxId, uid)
+                .switchIfEmpty(legacyUnlessMigrated(bucketedIndex, mailboxId, () -> selectOneLegacyRow(mailboxId, uid))),
+            () -> selectOneLegacyRow(mailboxId, uid));
+    }
+
+    private Mono<Row> selectOneLegacyRow(CassandraId mailboxId, MessageUid uid) {
         return cassandraAsyncExecutor.executeSingleRow(select.bind()
                 .setUUID(MAILBOX_ID, mailboxId.asUuid())
                 .setLong(IMAP_UID, uid.asLong()));
@@ -264,11 +433,55 @@ public class CassandraMessageIdDAO {
     }
 
     public Flux<ComposedMessageIdWithMetaData> retrieveAllMessages() {
+        Flux<Row> bucketedRows = withLayoutMany(CassandraMessageIdBucketDAO::retrieveAllRows, Flux::empty);
+
+        return Flux.concat(bucketedRows, cassandraAsyncExecutor.executeRows(listStatement.bind()))
+            .map(this::fromRowToComposedMessageIdWithFlags);
+    }
+
+    /**
+     * Lists the entries still stored with the former, non bucketed, layout.
+     */
+    public Flux<ComposedMessageIdWithMetaData> retrieveAllLegacyMessages() {
         return cassandraAsyncExecutor.executeRows(listStatement.bind())
             .map(this::fromRowToComposedMessageIdWithFlags);
     }
 
     private Flux<Row> retrieveRows(CassandraId mailboxId, MessageRange set, Limit limit) {
+        return withLayoutMany(
+            bucketedIndex -> bucketedIndex.isLegacyMigrated(mailboxId)
+                .flatMapMany(migrated -> {
+                    if (migrated) {
+                        return limit.applyOnFlux(bucketedIndex.retrieveRows(mailboxId, set, limit));
+                    }
+                    return limit.applyOnFlux(
+                        Flux.mergeOrdered(UID_ORDER,
+                                bucketedIndex.retrieveRows(mailboxId, set, limit),
+                                retrieveNotMigratedLegacyRows(bucketedIndex, mailboxId, set, limit))
+                            .distinctUntilChanged(row -> row.getLong(IMAP_UID)));
+                }),
+            () -> retrieveLegacyRows(mailboxId, set, limit));
+    }
+
+    /**
+     * New entries are only written to buckets: a mailbox with no entry left in the former layout is marked as migrated
+     * upon a full listing, and its former partition will not be read anymore.
+     */
+    private Flux<Row> retrieveNotMigratedLegacyRows(CassandraMessageIdBucketDAO bucketedIndex, CassandraId mailboxId, MessageRange set, Limit limit) {
+        Flux<Row> legacyRows = retrieveLegacyRows(mailboxId, set, limit);
+        if (set.getType() == MessageRange.Type.ALL && limit.isUnlimited()) {
+            return legacyRows.switchIfEmpty(dropLegacyPartition(bucketedIndex, mailboxId).then(Mono.empty()));
+        }
+        return legacyRows;
+    }
+
+    private <T> Mono<T> legacyUnlessMigrated(CassandraMessageIdBucketDAO bucketedIndex, CassandraId mailboxId, Supplier<Mono<T>> legacyRead) {
+        return bucketedIndex.isLegacyMigrated(mailboxId)
+            .filter(migrated -> !migrated)
+            .flatMap(any -> legacyRead.get());
+    }
+
+    private Flux<Row> retrieveLegacyRows(CassandraId mailboxId, MessageRange set, Limit limit) {
         switch (set.getType()) {
         case ALL:
             return selectAll(mailboxId, limit);
@@ -277,7 +490,7 @@ public class CassandraMessageIdDAO {
         case RANGE:
             return selectRange(mailboxId, set.getUidFrom(), set.getUidTo(), limit);
         case ONE:
-            return Flux.concat(selectOneRow(mailboxId, set.getUidFrom()));
+            return Flux.concat(selectOneLegacyRow(mailboxId, set.getUidFrom()));
         }
         throw new UnsupportedOperationException();
     }
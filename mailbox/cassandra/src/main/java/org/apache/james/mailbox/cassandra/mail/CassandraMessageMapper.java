@@ -20,11 +20,13 @@
 package org.apache.james.mailbox.cassandra.mail;
 
 import java.time.Duration;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.mail.Flags;
 import javax.mail.Flags.Flag;
@@ -71,6 +73,8 @@ public class CassandraMessageMapper implements MessageMapper {
     private static final int MAX_RETRY = 5;
     private static final Duration MIN_RETRY_BACKOFF = Duration.ofMillis(10);
     private static final Duration MAX_RETRY_BACKOFF = Duration.ofMillis(1000);
+    private static final int COPY_CONCURRENCY = 16;
+    private static final int APPEND_CONCURRENCY = 8;
 
     private final CassandraModSeqProvider modSeqProvider;
     private final CassandraUidProvider uidProvider;
@@ -79,6 +83,7 @@ public class CassandraMessageMapper implements MessageMapper {
     private final CassandraMessageIdToImapUidDAO imapUidDAO;
     private final CassandraMailboxCounterDAO mailboxCounterDAO;
     private final CassandraMailboxRecentsDAO mailboxRecentDAO;
+    private final CassandraMailboxSummaryDAO mailboxSummaryDAO;
     private final CassandraApplicableFlagDAO applicableFlagDAO;
     private final CassandraIndexTableHandler indexTableHandler;
     private final CassandraFirstUnseenDAO firstUnseenDAO;
@@ -90,7 +95,8 @@ public class CassandraMessageMapper implements MessageMapper {
                                   CassandraAttachmentMapper attachmentMapper,
                                   CassandraMessageDAO messageDAO, CassandraMessageIdDAO messageIdDAO,
                                   CassandraMessageIdToImapUidDAO imapUidDAO, CassandraMailboxCounterDAO mailboxCounterDAO,
-                                  CassandraMailboxRecentsDAO mailboxRecentDAO, CassandraApplicableFlagDAO applicableFlagDAO,
+                                  CassandraMailboxRecentsDAO mailboxRecentDAO, CassandraMailboxSummaryDAO mailboxSummaryDAO,
+                                  CassandraApplicableFlagDAO applicableFlagDAO,
                                   CassandraIndexTableHandler indexTableHandler, CassandraFirstUnseenDAO firstUnseenDAO,
                                   CassandraDeletedMessageDAO deletedMessageDAO, CassandraConfiguration cassandraConfiguration) {
         this.uidProvider = uidProvider;
@@ -100,6 +106,7 @@ public class CassandraMessageMapper implements MessageMapper {
         this.imapUidDAO = imapUidDAO;
         this.mailboxCounterDAO = mailboxCounterDAO;
         this.mailboxRecentDAO = mailboxRecentDAO;
+        this.mailboxSummaryDAO = mailboxSummaryDAO;
         this.indexTableHandler = indexTableHandler;
         this.firstUnseenDAO = firstUnseenDAO;
         this.attachmentLoader = new AttachmentLoader(attachmentMapper);
@@ -136,6 +143,31 @@ public class CassandraMessageMapper implements MessageMapper {
                 .build());
     }
 
+    /**
+     * Counters are read from the mailbox summary projection, with one multi-partition read for up to a hundred
+     * mailboxes. Mailboxes not yet known by the projection are read from the counters table.
+     */
+    @Override
+    public Flux<MailboxCounters> getMailboxCountersReactive(Collection<Mailbox> mailboxes) {
+        Map<CassandraId, Mailbox> mailboxesById = mailboxes.stream()
+            .collect(Collectors.toMap(mailbox -> (CassandraId) mailbox.getMailboxId(), mailbox -> mailbox, (a, b) -> a));
+
+        return mailboxSummaryDAO.retrieve(mailboxesById.keySet())
+            .map(MailboxSummary::getCounters)
+            .collectList()
+            .flatMapMany(summaryCounters -> {
+                Set<CassandraId> summarized = summaryCounters.stream()
+                    .map(counters -> (CassandraId) counters.getMailboxId())
+                    .collect(Guavate.toImmutableSet());
+
+                return Flux.concat(
+                    Flux.fromIterable(summaryCounters),
+                    Flux.fromIterable(mailboxesById.entrySet())
+                        .filter(entry -> !summarized.contains(entry.getKey()))
+                        .flatMap(entry -> getMailboxCountersReactive(entry.getValue())));
+            });
+    }
+
     @Override
     public void delete(Mailbox mailbox, MailboxMessage message) {
         ComposedMessageIdWithMetaData metaData = message.getComposedMessageIdWithMetaData();
@@ -176,9 +208,9 @@ public class CassandraMessageMapper implements MessageMapper {
         CassandraId mailboxId = (CassandraId) mailbox.getMailboxId();
 
         Limit limit = Limit.from(limitAsInt);
+        // Ids are listed in uid order, which is kept without buffering the whole range
         return limit.applyOnFlux(messageIdDAO.retrieveMessages(mailboxId, messageRange, limit))
-            .flatMap(id -> retrieveMessage(id, ftype), cassandraConfiguration.getMessageReadChunkSize())
-            .sort(Comparator.comparing(MailboxMessage::getUid));
+            .flatMapSequential(id -> retrieveMessage(id, ftype), cassandraConfiguration.getMessageReadChunkSize());
     }
 
     private Mono<MailboxMessage> retrieveMessage(ComposedMessageIdWithMetaData messageId, FetchType fetchType) {
@@ -231,6 +263,30 @@ public class CassandraMessageMapper implements MessageMapper {
                 .map(pair -> pair.toMailboxMessage(metaData, ImmutableList.of())));
     }
 
+    /**
+     * Moves the messages by reference: the message rows and blobs are left untouched, only the UID based projections
+     * are written for the destination and removed for the source mailboxes.
+     */
+    @Override
+    public List<MessageMetaData> move(Mailbox destinationMailbox, List<MailboxMessage> originals) throws MailboxException {
+        List<ComposedMessageIdWithMetaData> originalIds = originals.stream()
+            .map(MailboxMessage::getComposedMessageIdWithMetaData)
+            .collect(Guavate.toImmutableList());
+        Map<CassandraId, List<MessageMetaData>> originalMetaData = originals.stream()
+            .collect(Collectors.groupingBy(message -> (CassandraId) message.getMailboxId(),
+                Collectors.mapping(MailboxMessage::metaData, Guavate.toImmutableList())));
+
+        List<MessageMetaData> movedMessages = copy(destinationMailbox, originals);
+
+        block(Flux.fromIterable(originalIds)
+            .flatMap(this::delete, cassandraConfiguration.getExpungeChunkSize())
+            .thenMany(Flux.fromIterable(originalMetaData.entrySet()))
+            .flatMap(entry -> indexTableHandler.updateIndexOnDelete(entry.getKey(), entry.getValue()))
+            .then());
+
+        return movedMessages;
+    }
+
     @Override
     public MessageMetaData move(Mailbox destinationMailbox, MailboxMessage original) throws MailboxException {
         ComposedMessageIdWithMetaData composedMessageIdWithMetaData = original.getComposedMessageIdWithMetaData();
@@ -261,6 +317,27 @@ public class CassandraMessageMapper implements MessageMapper {
             .map(MailboxMessage::metaData));
     }
 
+    /**
+     * Adds the messages: UIDs and MODSEQs are reserved once for the whole batch, following the order of the list, then
+     * the messages are written with a bounded concurrency. A failure is propagated once the other writes completed.
+     */
+    @Override
+    public Flux<MessageMetaData> addReactive(Mailbox mailbox, List<MailboxMessage> messages) {
+        if (messages.isEmpty()) {
+            return Flux.empty();
+        }
+        CassandraId mailboxId = (CassandraId) mailbox.getMailboxId();
+        int count = messages.size();
+
+        return Mono.zip(
+                uidProvider.nextUids(mailboxId, count).collectList(),
+                modSeqProvider.nextModSeqs(mailboxId, count).collectList())
+            .flatMapIterable(uidsAndModSeqs -> assignUidsAndModSeqs(messages, uidsAndModSeqs.getT1(), uidsAndModSeqs.getT2()))
+            .flatMapSequentialDelayError(Throwing.<MailboxMessage, Mono<MessageMetaData>>function(message -> save(mailbox, message)
+                    .thenReturn(message.metaData())).sneakyThrow(),
+                APPEND_CONCURRENCY, APPEND_CONCURRENCY);
+    }
+
     private Mono<MailboxMessage> addUidAndModseq(MailboxMessage message, CassandraId mailboxId) {
         Mono<MessageUid> messageUidMono = uidProvider
             .nextUid(mailboxId)
@@ -368,6 +445,46 @@ public class CassandraMessageMapper implements MessageMapper {
         return transaction.run();
     }
 
+    /**
+     * Copies the messages by reference: UIDs and MODSEQs are reserved once for the whole batch, the UID based
+     * projections are written for the copies and the mailbox counters are updated in aggregate. The message rows and
+     * blobs are shared with the originals.
+     */
+    @Override
+    public List<MessageMetaData> copy(Mailbox mailbox, List<MailboxMessage> originals) throws MailboxException {
+        CassandraId mailboxId = (CassandraId) mailbox.getMailboxId();
+        int count = originals.size();
+
+        return block(Mono.zip(
+                uidProvider.nextUids(mailboxId, count).collectList(),
+                modSeqProvider.nextModSeqs(mailboxId, count).collectList())
+            .map(uidsAndModSeqs -> assignUidsAndModSeqs(withRecentFlag(originals), uidsAndModSeqs.getT1(), uidsAndModSeqs.getT2()))
+            .flatMap(copies -> Flux.fromIterable(copies)
+                .flatMap(copy -> insertIdRows(copy, mailboxId), COPY_CONCURRENCY)
+                .then(indexTableHandler.updateIndexOnAdd(copies, mailboxId))
+                .thenReturn(copies))
+            .map(copies -> copies.stream()
+                .map(MailboxMessage::metaData)
+                .collect(Guavate.toImmutableList())));
+    }
+
+    private List<MailboxMessage> withRecentFlag(List<MailboxMessage> originals) {
+        originals.forEach(original -> original.setFlags(new FlagsBuilder().add(original.createFlags()).add(Flag.RECENT).build()));
+        return originals;
+    }
+
+    private List<MailboxMessage> assignUidsAndModSeqs(List<MailboxMessage> messages, List<MessageUid> uids, List<ModSeq> modSeqs) {
+        if (uids.size() != messages.size() || modSeqs.size() != messages.size()) {
+            throw new IllegalStateException("Could not reserve UIDs and MODSEQs for " + messages.size() + " messages");
+        }
+        for (int i = 0; i < messages.size(); i++) {
+            MailboxMessage message = messages.get(i);
+            message.setUid(uids.get(i));
+            message.setModSeq(modSeqs.get(i));
+        }
+        return messages;
+    }
+
     @Override
     public MessageMetaData copy(Mailbox mailbox, MailboxMessage original) throws MailboxException {
         original.setFlags(new FlagsBuilder().add(original.createFlags()).add(Flag.RECENT).build());
@@ -403,19 +520,33 @@ public class CassandraMessageMapper implements MessageMapper {
     }
 
     private Mono<Void> insertIds(MailboxMessage message, CassandraId mailboxId) {
-        ComposedMessageIdWithMetaData composedMessageIdWithMetaData = ComposedMessageIdWithMetaData.builder()
-                .composedMessageId(new ComposedMessageId(mailboxId, message.getMessageId(), message.getUid()))
-                .flags(message.createFlags())
-                .modSeq(message.getModSeq())
-                .build();
+        ComposedMessageIdWithMetaData composedMessageIdWithMetaData = toComposedMessageIdWithMetaData(message, mailboxId);
         return imapUidDAO.insert(composedMessageIdWithMetaData)
             .then(Flux.merge(
-                messageIdDAO.insert(composedMessageIdWithMetaData)
-                    .retryWhen(Retry.backoff(MAX_RETRY, MIN_RETRY_BACKOFF).maxBackoff(MAX_RETRY_BACKOFF)),
+                insertMessageIdRow(composedMessageIdWithMetaData),
                 indexTableHandler.updateIndexOnAdd(message, mailboxId))
             .then());
     }
 
+    private Mono<Void> insertIdRows(MailboxMessage message, CassandraId mailboxId) {
+        ComposedMessageIdWithMetaData composedMessageIdWithMetaData = toComposedMessageIdWithMetaData(message, mailboxId);
+        return imapUidDAO.insert(composedMessageIdWithMetaData)
+            .then(insertMessageIdRow(composedMessageIdWithMetaData));
+    }
+
+    private Mono<Void> insertMessageIdRow(ComposedMessageIdWithMetaData composedMessageIdWithMetaData) {
+        return messageIdDAO.insert(composedMessageIdWithMetaData)
+            .retryWhen(Retry.backoff(MAX_RETRY, MIN_RETRY_BACKOFF).maxBackoff(MAX_RETRY_BACKOFF));
+    }
+
+    private ComposedMessageIdWithMetaData toComposedMessageIdWithMetaData(MailboxMessage message, CassandraId mailboxId) {
+        return ComposedMessageIdWithMetaData.builder()
+            .composedMessageId(new ComposedMessageId(mailboxId, message.getMessageId(), message.getUid()))
+            .flags(message.createFlags())
+            .modSeq(message.getModSeq())
+            .build();
+    }
+
 
     private Mono<FlagsUpdateStageResult> tryFlagsUpdate(FlagsUpdateCalculator flagUpdateCalculator, ModSeq newModSeq, ComposedMessageIdWithMetaData oldMetaData) {
         Flags oldFlags = oldMetaData.getFlags();
@@ -34,6 +34,7 @@ import java.time.Duration;
 import java.util.Optional;
 import java.util.concurrent.CompletionException;
 import java.util.function.Supplier;
+import java.util.stream.LongStream;
 
 import javax.inject.Inject;
 
@@ -51,6 +52,7 @@ import com.datastax.driver.core.ConsistencyLevel;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Session;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 import reactor.util.retry.Retry;
@@ -89,6 +91,7 @@ public class CassandraModSeqProvider implements ModSeqProvider {
     private final PreparedStatement update;
     private final PreparedStatement insert;
     private final ConsistencyLevel consistencyLevel;
+    private final RangeAllocator rangeAllocator;
 
     @Inject
     public CassandraModSeqProvider(Session session, CassandraConfiguration cassandraConfiguration,
@@ -99,6 +102,7 @@ public class CassandraModSeqProvider implements ModSeqProvider {
         this.insert = prepareInsert(session);
         this.update = prepareUpdate(session);
         this.select = prepareSelect(session);
+        this.rangeAllocator = new RangeAllocator(this::reserveModSeqs, cassandraConfiguration.getUidModSeqAllocationMaxRange());
     }
 
     private PreparedStatement prepareInsert(Session session) {
@@ -148,7 +152,7 @@ public class CassandraModSeqProvider implements ModSeqProvider {
         return unbox(() -> findHighestModSeq((CassandraId) mailboxId).block().orElse(ModSeq.first()));
     }
 
-    private Mono<Optional<ModSeq>> findHighestModSeq(CassandraId mailboxId) {
+    public Mono<Optional<ModSeq>> findHighestModSeq(CassandraId mailboxId) {
         return cassandraAsyncExecutor.executeSingleRowOptional(
             select.bind()
                 .setUUID(MAILBOX_ID, mailboxId.asUuid())
@@ -156,8 +160,8 @@ public class CassandraModSeqProvider implements ModSeqProvider {
             .map(maybeRow -> maybeRow.map(row -> ModSeq.of(row.getLong(NEXT_MODSEQ))));
     }
 
-    private Mono<ModSeq> tryInsertModSeq(CassandraId mailboxId, ModSeq modSeq) {
-        ModSeq nextModSeq = modSeq.next();
+    private Mono<ModSeq> tryInsertModSeq(CassandraId mailboxId, ModSeq modSeq, int count) {
+        ModSeq nextModSeq = ModSeq.of(modSeq.asLong() + count);
         return cassandraAsyncExecutor.executeReturnApplied(
             insert.bind()
                 .setUUID(MAILBOX_ID, mailboxId.asUuid())
@@ -166,8 +170,8 @@ public class CassandraModSeqProvider implements ModSeqProvider {
             .handle(publishIfPresent());
     }
 
-    private Mono<ModSeq> tryUpdateModSeq(CassandraId mailboxId, ModSeq modSeq) {
-        ModSeq nextModSeq = modSeq.next();
+    private Mono<ModSeq> tryUpdateModSeq(CassandraId mailboxId, ModSeq modSeq, int count) {
+        ModSeq nextModSeq = ModSeq.of(modSeq.asLong() + count);
         return cassandraAsyncExecutor.executeReturnApplied(
             update.bind()
                 .setUUID(MAILBOX_ID, mailboxId.asUuid())
@@ -185,13 +189,31 @@ public class CassandraModSeqProvider implements ModSeqProvider {
     }
 
     public Mono<ModSeq> nextModSeq(CassandraId mailboxId) {
+        return rangeAllocator.next(mailboxId)
+            .map(ModSeq::of);
+    }
+
+    /**
+     * Reserves a contiguous range of count MODSEQs with a single lightweight transaction.
+     */
+    public Flux<ModSeq> nextModSeqs(CassandraId mailboxId, int count) {
+        if (count == 0) {
+            return Flux.empty();
+        }
+        return reserveModSeqs(mailboxId, count)
+            .flatMapMany(firstModSeq -> Flux.fromStream(LongStream.range(firstModSeq, firstModSeq + count)
+                .mapToObj(ModSeq::of)));
+    }
+
+    private Mono<Long> reserveModSeqs(CassandraId mailboxId, int count) {
         Duration firstBackoff = Duration.ofMillis(10);
 
         return findHighestModSeq(mailboxId)
             .flatMap(maybeHighestModSeq -> maybeHighestModSeq
-                        .map(highestModSeq -> tryUpdateModSeq(mailboxId, highestModSeq))
-                        .orElseGet(() -> tryInsertModSeq(mailboxId, ModSeq.first())))
+                        .map(highestModSeq -> tryUpdateModSeq(mailboxId, highestModSeq, count))
+                        .orElseGet(() -> tryInsertModSeq(mailboxId, ModSeq.first(), count)))
             .single()
-            .retryWhen(Retry.backoff(maxModSeqRetries, firstBackoff).scheduler(Schedulers.elastic()));
+            .retryWhen(Retry.backoff(maxModSeqRetries, firstBackoff).scheduler(Schedulers.elastic()))
+            .map(lastModSeq -> lastModSeq.asLong() - count + 1);
     }
 }
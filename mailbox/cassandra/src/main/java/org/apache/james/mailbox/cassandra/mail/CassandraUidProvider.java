@@ -32,6 +32,7 @@ import static org.apache.james.util.ReactorUtils.publishIfPresent;
 
 import java.time.Duration;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import javax.inject.Inject;
 
@@ -49,6 +50,7 @@ import com.datastax.driver.core.ConsistencyLevel;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Session;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 import reactor.util.retry.Retry;
@@ -62,6 +64,7 @@ public class CassandraUidProvider implements UidProvider {
     private final PreparedStatement updateStatement;
     private final PreparedStatement selectStatement;
     private final ConsistencyLevel consistencyLevel;
+    private final RangeAllocator rangeAllocator;
 
     @Inject
     public CassandraUidProvider(Session session, CassandraConfiguration cassandraConfiguration,
@@ -72,6 +75,7 @@ public class CassandraUidProvider implements UidProvider {
         this.selectStatement = prepareSelect(session);
         this.updateStatement = prepareUpdate(session);
         this.insertStatement = prepareInsert(session);
+        this.rangeAllocator = new RangeAllocator(this::reserveUids, cassandraConfiguration.getUidModSeqAllocationMaxRange());
     }
 
     private PreparedStatement prepareSelect(Session session) {
@@ -89,7 +93,7 @@ public class CassandraUidProvider implements UidProvider {
 
     private PreparedStatement prepareInsert(Session session) {
         return session.prepare(insertInto(TABLE_NAME)
-            .value(NEXT_UID, MessageUid.MIN_VALUE.asLong())
+            .value(NEXT_UID, bindMarker(NEXT_UID))
             .value(MAILBOX_ID, bindMarker(MAILBOX_ID))
             .ifNotExists());
     }
@@ -108,15 +112,33 @@ public class CassandraUidProvider implements UidProvider {
     }
 
     public Mono<MessageUid> nextUid(CassandraId cassandraId) {
+        return rangeAllocator.next(cassandraId)
+            .map(MessageUid::of);
+    }
+
+    /**
+     * Reserves a contiguous range of count UIDs with a single lightweight transaction.
+     */
+    public Flux<MessageUid> nextUids(CassandraId cassandraId, int count) {
+        if (count == 0) {
+            return Flux.empty();
+        }
+        return reserveUids(cassandraId, count)
+            .flatMapMany(firstUid -> Flux.fromStream(LongStream.range(firstUid, firstUid + count)
+                .mapToObj(MessageUid::of)));
+    }
+
+    private Mono<Long> reserveUids(CassandraId cassandraId, int count) {
         Mono<MessageUid> updateUid = findHighestUid(cassandraId)
-            .flatMap(messageUid -> tryUpdateUid(cassandraId, messageUid));
+            .flatMap(messageUid -> tryUpdateUid(cassandraId, messageUid, count));
 
         Duration firstBackoff = Duration.ofMillis(10);
         return updateUid
-            .switchIfEmpty(tryInsert(cassandraId))
+            .switchIfEmpty(tryInsert(cassandraId, count))
             .switchIfEmpty(updateUid)
             .single()
-            .retryWhen(Retry.backoff(maxUidRetries, firstBackoff).scheduler(Schedulers.elastic()));
+            .retryWhen(Retry.backoff(maxUidRetries, firstBackoff).scheduler(Schedulers.elastic()))
+            .map(lastUid -> lastUid.asLong() - count + 1);
     }
 
     @Override
@@ -125,7 +147,7 @@ public class CassandraUidProvider implements UidProvider {
                 .blockOptional();
     }
 
-    private Mono<MessageUid> findHighestUid(CassandraId mailboxId) {
+    public Mono<MessageUid> findHighestUid(CassandraId mailboxId) {
         return executor.executeSingleRow(
             selectStatement.bind()
                 .setUUID(MAILBOX_ID, mailboxId.asUuid())
@@ -133,8 +155,8 @@ public class CassandraUidProvider implements UidProvider {
             .map(row -> MessageUid.of(row.getLong(NEXT_UID)));
     }
 
-    private Mono<MessageUid> tryUpdateUid(CassandraId mailboxId, MessageUid uid) {
-        MessageUid nextUid = uid.next();
+    private Mono<MessageUid> tryUpdateUid(CassandraId mailboxId, MessageUid uid, int count) {
+        MessageUid nextUid = MessageUid.of(uid.asLong() + count);
         return executor.executeReturnApplied(
                 updateStatement.bind()
                         .setUUID(MAILBOX_ID, mailboxId.asUuid())
@@ -144,11 +166,13 @@ public class CassandraUidProvider implements UidProvider {
                 .handle(publishIfPresent());
     }
 
-    private Mono<MessageUid> tryInsert(CassandraId mailboxId) {
+    private Mono<MessageUid> tryInsert(CassandraId mailboxId, int count) {
+        MessageUid nextUid = MessageUid.of(MessageUid.MIN_VALUE.asLong() + count - 1);
         return executor.executeReturnApplied(
             insertStatement.bind()
-                .setUUID(MAILBOX_ID, mailboxId.asUuid()))
-            .map(success -> successToUid(MessageUid.MIN_VALUE, success))
+                .setUUID(MAILBOX_ID, mailboxId.asUuid())
+                .setLong(NEXT_UID, nextUid.asLong()))
+            .map(success -> successToUid(nextUid, success))
             .handle(publishIfPresent());
     }
 
@@ -0,0 +1,123 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.model.MailboxCounters;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Denormalized view of the values needed to answer a STATUS command for a mailbox.
+ */
+public class MailboxSummary {
+    private final CassandraId mailboxId;
+    private final long count;
+    private final long unseen;
+    private final Optional<MessageUid> lastUid;
+    private final ModSeq highestModSeq;
+    private final Optional<MessageUid> firstUnseen;
+    private final ImmutableList<MessageUid> recents;
+
+    public MailboxSummary(CassandraId mailboxId, MailboxCounters counters, Optional<MessageUid> lastUid, ModSeq highestModSeq,
+                          Optional<MessageUid> firstUnseen, List<MessageUid> recents) {
+        this.mailboxId = mailboxId;
+        this.count = counters.getCount();
+        this.unseen = counters.getUnseen();
+        this.lastUid = lastUid;
+        this.highestModSeq = highestModSeq;
+        this.firstUnseen = firstUnseen;
+        this.recents = ImmutableList.copyOf(recents);
+    }
+
+    public CassandraId getMailboxId() {
+        return mailboxId;
+    }
+
+    public MailboxCounters getCounters() {
+        return MailboxCounters.builder()
+            .mailboxId(mailboxId)
+            .count(count)
+            .unseen(unseen)
+            .build();
+    }
+
+    public Optional<MessageUid> getLastUid() {
+        return lastUid;
+    }
+
+    public MessageUid getUidNext() {
+        return lastUid.map(MessageUid::next)
+            .orElse(MessageUid.MIN_VALUE);
+    }
+
+    public ModSeq getHighestModSeq() {
+        return highestModSeq;
+    }
+
+    public Optional<MessageUid> getFirstUnseen() {
+        return firstUnseen;
+    }
+
+    public List<MessageUid> getRecents() {
+        return recents;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof MailboxSummary) {
+            MailboxSummary that = (MailboxSummary) o;
+
+            return Objects.equals(this.count, that.count)
+                && Objects.equals(this.unseen, that.unseen)
+                && Objects.equals(this.mailboxId, that.mailboxId)
+                && Objects.equals(this.lastUid, that.lastUid)
+                && Objects.equals(this.highestModSeq, that.highestModSeq)
+                && Objects.equals(this.firstUnseen, that.firstUnseen)
+                && Objects.equals(this.recents, that.recents);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(mailboxId, count, unseen, lastUid, highestModSeq, firstUnseen, recents);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("mailboxId", mailboxId)
+            .add("count", count)
+            .add("unseen", unseen)
+            .add("lastUid", lastUid)
+            .add("highestModSeq", highestModSeq)
+            .add("firstUnseen", firstUnseen)
+            .add("recents", recents)
+            .toString();
+    }
+}
@@ -0,0 +1,145 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * Coalesces concurrent allocations of per-mailbox strictly increasing values, namely UIDs and MODSEQs.
+ *
+ * Allocation requests for a mailbox arriving while a reservation for this mailbox is in flight are queued, then
+ * served together by the next reservation: a single lightweight transaction reserves a contiguous range covering all
+ * of them. The range size hence follows the local allocation rate, from one value when appends are sparse up to
+ * the configured maximum during bursts.
+ *
+ * Reserved values are all handed out straight away, none is kept locally for later use. As a consequence, values
+ * allocated by several James nodes are exactly as ordered as with one lightweight transaction per value, which keeps
+ * IMAP strictly increasing UIDs and MODSEQs semantics in multi-node deployments.
+ */
+class RangeAllocator {
+    @FunctionalInterface
+    interface RangeReservation {
+        /**
+         * @return the first value of a newly reserved range of rangeSize consecutive values
+         */
+        Mono<Long> reserve(CassandraId mailboxId, int rangeSize);
+    }
+
+    private static final long IDLE_MAILBOX_EVICTION_IN_MINUTES = 1;
+
+    private final RangeReservation rangeReservation;
+    private final int maxRangeSize;
+    private final Cache<CassandraId, MailboxAllocator> allocators;
+
+    RangeAllocator(RangeReservation rangeReservation, int maxRangeSize) {
+        Preconditions.checkArgument(maxRangeSize > 0, "'maxRangeSize' needs to be strictly positive");
+
+        this.rangeReservation = rangeReservation;
+        this.maxRangeSize = maxRangeSize;
+        // Evicting an allocator with pending requests is safe: these are still served by the evicted allocator, and
+        // lightweight transactions ensure ranges reserved concurrently by two allocators do not overlap.
+        this.allocators = CacheBuilder.newBuilder()
+            .expireAfterAccess(IDLE_MAILBOX_EVICTION_IN_MINUTES, TimeUnit.MINUTES)
+            .build();
+    }
+
+    Mono<Long> next(CassandraId mailboxId) {
+        return Mono.create(sink -> allocatorFor(mailboxId).enqueue(sink));
+    }
+
+    private MailboxAllocator allocatorFor(CassandraId mailboxId) {
+        try {
+            return allocators.get(mailboxId, () -> new MailboxAllocator(mailboxId));
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private class MailboxAllocator {
+        private final CassandraId mailboxId;
+        private final Queue<MonoSink<Long>> pendingRequests;
+        private final AtomicBoolean reserving;
+
+        MailboxAllocator(CassandraId mailboxId) {
+            this.mailboxId = mailboxId;
+            this.pendingRequests = new ConcurrentLinkedQueue<>();
+            this.reserving = new AtomicBoolean(false);
+        }
+
+        void enqueue(MonoSink<Long> request) {
+            pendingRequests.add(request);
+            reserveForPendingRequests();
+        }
+
+        private void reserveForPendingRequests() {
+            if (pendingRequests.isEmpty() || !reserving.compareAndSet(false, true)) {
+                return;
+            }
+            List<MonoSink<Long>> requests = pollPendingRequests();
+            if (requests.isEmpty()) {
+                reserving.set(false);
+                reserveForPendingRequests();
+                return;
+            }
+            rangeReservation.reserve(mailboxId, requests.size())
+                .single()
+                .doFinally(any -> {
+                    reserving.set(false);
+                    reserveForPendingRequests();
+                })
+                .subscribe(
+                    firstValue -> serve(requests, firstValue),
+                    error -> requests.forEach(request -> request.error(error)));
+        }
+
+        private List<MonoSink<Long>> pollPendingRequests() {
+            ImmutableList.Builder<MonoSink<Long>> requests = ImmutableList.builder();
+            int count = 0;
+            MonoSink<Long> request = pendingRequests.poll();
+            while (request != null) {
+                requests.add(request);
+                count++;
+                request = count < maxRangeSize ? pendingRequests.poll() : null;
+            }
+            return requests.build();
+        }
+
+        private void serve(List<MonoSink<Long>> requests, long firstValue) {
+            for (int i = 0; i < requests.size(); i++) {
+                requests.get(i).success(firstValue + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail.migration;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+import javax.inject.Inject;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.james.backends.cassandra.migration.Migration;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdDAO;
+import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.task.Task;
+import org.apache.james.task.TaskExecutionDetails;
+import org.apache.james.task.TaskType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Moves the entries of the former mailbox UID index layout to the bucketed one.
+ *
+ * The bucketed layout is first activated for the whole cluster: every node needs to be configured with the same
+ * 'mailbox.uid.index.bucket.size' beforehand, nodes only switch to the bucketed layout upon this activation.
+ *
+ * Entries of a mailbox are copied to their bucket, then the former partition of the mailbox is dropped at once, which
+ * avoids leaving one tombstone per entry behind. Mailboxes with errors are left in place: the migration can be
+ * interrupted and run again at any time.
+ */
+public class MessageIdBucketingMigration implements Migration {
+
+    static class MessageIdBucketingMigrationTask implements Task {
+        private final MessageIdBucketingMigration migration;
+
+        MessageIdBucketingMigrationTask(MessageIdBucketingMigration migration) {
+            this.migration = migration;
+        }
+
+        @Override
+        public Result run() throws InterruptedException {
+            return migration.runTask();
+        }
+
+        @Override
+        public TaskType type() {
+            return TYPE;
+        }
+
+        @Override
+        public Optional<TaskExecutionDetails.AdditionalInformation> details() {
+            return Optional.of(migration.getAdditionalInformation());
+        }
+    }
+
+    public static class AdditionalInformation implements TaskExecutionDetails.AdditionalInformation {
+        private final long migratedEntryCount;
+        private final long errorCount;
+        private final Instant timestamp;
+
+        public AdditionalInformation(long migratedEntryCount, long errorCount, Instant timestamp) {
+            this.migratedEntryCount = migratedEntryCount;
+            this.errorCount = errorCount;
+            this.timestamp = timestamp;
+        }
+
+        public long getMigratedEntryCount() {
+            return migratedEntryCount;
+        }
+
+        public long getErrorCount() {
+            return errorCount;
+        }
+
+        @Override
+        public Instant timestamp() {
+            return timestamp;
+        }
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessageIdBucketingMigration.class);
+    private static final int CONCURRENCY = 16;
+    private static final boolean CUT_BEFORE = true;
+    public static final TaskType TYPE = TaskType.of("cassandra-message-id-bucketing-migration");
+
+    private final CassandraMessageIdDAO messageIdDAO;
+    private final AtomicLong migratedEntryCount;
+    private final AtomicLong errorCount;
+
+    @Inject
+    public MessageIdBucketingMigration(CassandraMessageIdDAO messageIdDAO) {
+        this.messageIdDAO = messageIdDAO;
+        this.migratedEntryCount = new AtomicLong();
+        this.errorCount = new AtomicLong();
+    }
+
+    @Override
+    public void apply() {
+        messageIdDAO.activateBucketedLayout().block();
+
+        migratedEntryCount.set(0);
+        errorCount.set(0);
+        messageIdDAO.retrieveAllLegacyMessages()
+            .windowUntil(mailboxChange(), CUT_BEFORE)
+            .concatMap(this::migrateMailbox)
+            .doOnError(t -> LOGGER.error("Error while performing migration", t))
+            .blockLast();
+
+        if (errorCount.get() > 0) {
+            throw new RuntimeException(errorCount.get() + " entries could not be migrated");
+        }
+    }
+
+    /**
+     * A full scan returns the entries of a mailbox contiguously, as they share a partition.
+     */
+    private static Predicate<ComposedMessageIdWithMetaData> mailboxChange() {
+        AtomicReference<MailboxId> currentMailbox = new AtomicReference<>();
+        return entry -> {
+            MailboxId mailboxId = entry.getComposedMessageId().getMailboxId();
+            MailboxId previousMailbox = currentMailbox.getAndSet(mailboxId);
+            return previousMailbox != null && !previousMailbox.equals(mailboxId);
+        };
+    }
+
+    private Mono<Void> migrateMailbox(Flux<ComposedMessageIdWithMetaData> entries) {
+        return entries
+            .flatMap(entry -> migrate(entry).map(success -> Pair.of((CassandraId) entry.getComposedMessageId().getMailboxId(), success)), CONCURRENCY)
+            .reduce((result1, result2) -> Pair.of(result1.getLeft(), result1.getRight() && result2.getRight()))
+            .filter(Pair::getRight)
+            .flatMap(result -> messageIdDAO.dropLegacyPartition(result.getLeft())
+                .onErrorResume(error -> {
+                    LOGGER.error("Error while dropping the former partition of {}", result.getLeft(), error);
+                    errorCount.incrementAndGet();
+                    return Mono.empty();
+                }));
+    }
+
+    private Mono<Boolean> migrate(ComposedMessageIdWithMetaData entry) {
+        return messageIdDAO.copyToBucket(entry)
+            .doOnSuccess(any -> migratedEntryCount.incrementAndGet())
+            .thenReturn(true)
+            .onErrorResume(error -> {
+                LOGGER.error("Error while migrating {}", entry.getComposedMessageId(), error);
+                errorCount.incrementAndGet();
+                return Mono.just(false);
+            });
+    }
+
+    @Override
+    public Task asTask() {
+        return new MessageIdBucketingMigrationTask(this);
+    }
+
+    AdditionalInformation getAdditionalInformation() {
+        return new AdditionalInformation(migratedEntryCount.get(), errorCount.get(), Clock.systemUTC().instant());
+    }
+}
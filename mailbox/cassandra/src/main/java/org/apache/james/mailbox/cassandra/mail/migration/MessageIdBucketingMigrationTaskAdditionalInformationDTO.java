@@ -0,0 +1,90 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail.migration;
+
+import java.time.Instant;
+
+import org.apache.james.json.DTOModule;
+import org.apache.james.server.task.json.dto.AdditionalInformationDTO;
+import org.apache.james.server.task.json.dto.AdditionalInformationDTOModule;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class MessageIdBucketingMigrationTaskAdditionalInformationDTO implements AdditionalInformationDTO {
+
+    private static MessageIdBucketingMigrationTaskAdditionalInformationDTO fromDomainObject(MessageIdBucketingMigration.AdditionalInformation additionalInformation, String type) {
+        return new MessageIdBucketingMigrationTaskAdditionalInformationDTO(
+            type,
+            additionalInformation.getMigratedEntryCount(),
+            additionalInformation.getErrorCount(),
+            additionalInformation.timestamp()
+        );
+    }
+
+    public static final AdditionalInformationDTOModule<MessageIdBucketingMigration.AdditionalInformation, MessageIdBucketingMigrationTaskAdditionalInformationDTO> MODULE =
+        DTOModule
+            .forDomainObject(MessageIdBucketingMigration.AdditionalInformation.class)
+            .convertToDTO(MessageIdBucketingMigrationTaskAdditionalInformationDTO.class)
+            .toDomainObjectConverter(MessageIdBucketingMigrationTaskAdditionalInformationDTO::toDomainObject)
+            .toDTOConverter(MessageIdBucketingMigrationTaskAdditionalInformationDTO::fromDomainObject)
+            .typeName(MessageIdBucketingMigration.TYPE.asString())
+            .withFactory(AdditionalInformationDTOModule::new);
+
+    private final String type;
+    private final long migratedEntryCount;
+    private final long errorCount;
+    private final Instant timestamp;
+
+    public MessageIdBucketingMigrationTaskAdditionalInformationDTO(@JsonProperty("type") String type,
+                                                                   @JsonProperty("migratedEntryCount") long migratedEntryCount,
+                                                                   @JsonProperty("errorCount") long errorCount,
+                                                                   @JsonProperty("timestamp") Instant timestamp) {
+        this.type = type;
+        this.migratedEntryCount = migratedEntryCount;
+        this.errorCount = errorCount;
+        this.timestamp = timestamp;
+    }
+
+    public long getMigratedEntryCount() {
+        return migratedEntryCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    @Override
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    private MessageIdBucketingMigration.AdditionalInformation toDomainObject() {
+        return new MessageIdBucketingMigration.AdditionalInformation(
+            migratedEntryCount,
+            errorCount,
+            timestamp
+        );
+    }
+}
@@ -0,0 +1,59 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail.migration;
+
+import java.util.function.Function;
+
+import org.apache.james.json.DTOModule;
+import org.apache.james.server.task.json.dto.TaskDTO;
+import org.apache.james.server.task.json.dto.TaskDTOModule;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class MessageIdBucketingMigrationTaskDTO implements TaskDTO {
+
+    private static MessageIdBucketingMigrationTaskDTO fromDomainObject(MessageIdBucketingMigration.MessageIdBucketingMigrationTask task, String type) {
+        return new MessageIdBucketingMigrationTaskDTO(type);
+    }
+
+    public static final Function<MessageIdBucketingMigration, TaskDTOModule<MessageIdBucketingMigration.MessageIdBucketingMigrationTask, MessageIdBucketingMigrationTaskDTO>> MODULE = (migration) ->
+        DTOModule
+            .forDomainObject(MessageIdBucketingMigration.MessageIdBucketingMigrationTask.class)
+            .convertToDTO(MessageIdBucketingMigrationTaskDTO.class)
+            .toDomainObjectConverter(dto -> dto.toDomainObject(migration))
+            .toDTOConverter(MessageIdBucketingMigrationTaskDTO::fromDomainObject)
+            .typeName(MessageIdBucketingMigration.TYPE.asString())
+            .withFactory(TaskDTOModule::new);
+
+    private final String type;
+
+    public MessageIdBucketingMigrationTaskDTO(@JsonProperty("type") String type) {
+        this.type = type;
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    private MessageIdBucketingMigration.MessageIdBucketingMigrationTask toDomainObject(MessageIdBucketingMigration migration) {
+        return new MessageIdBucketingMigration.MessageIdBucketingMigrationTask(migration);
+    }
+}
@@ -28,6 +28,7 @@ import org.apache.james.backends.cassandra.utils.CassandraConstants;
 import org.apache.james.mailbox.cassandra.table.CassandraAttachmentMessageIdTable;
 import org.apache.james.mailbox.cassandra.table.CassandraAttachmentOwnerTable;
 import org.apache.james.mailbox.cassandra.table.CassandraAttachmentV2Table;
+import org.apache.james.mailbox.cassandra.table.CassandraExtractedTextTable;
 
 import com.datastax.driver.core.schemabuilder.SchemaBuilder;
 
@@ -68,5 +69,16 @@ public interface CassandraAttachmentModule {
         .statement(statement -> statement
             .addPartitionKey(CassandraAttachmentOwnerTable.ID, uuid())
             .addClusteringColumn(CassandraAttachmentOwnerTable.OWNER, text()))
+
+        .table(CassandraExtractedTextTable.TABLE_NAME)
+        .comment("Holds the text extracted from attachments, keyed by the hash of their content, so that a given" +
+            " content is extracted only once.")
+        .options(options -> options
+            .compactionOptions(SchemaBuilder.sizedTieredStategy())
+            .caching(SchemaBuilder.KeyCaching.ALL,
+                SchemaBuilder.rows(CassandraConstants.DEFAULT_CACHED_ROW_PER_PARTITION)))
+        .statement(statement -> statement
+            .addPartitionKey(CassandraExtractedTextTable.BLOB_ID, text())
+            .addColumn(CassandraExtractedTextTable.TEXTUAL_CONTENT, text()))
         .build();
 }
@@ -19,12 +19,15 @@
 
 package org.apache.james.mailbox.cassandra.modules;
 
+import static com.datastax.driver.core.DataType.bigint;
 import static com.datastax.driver.core.DataType.counter;
+import static com.datastax.driver.core.DataType.set;
 import static com.datastax.driver.core.DataType.timeuuid;
 
 import org.apache.james.backends.cassandra.components.CassandraModule;
 import org.apache.james.backends.cassandra.utils.CassandraConstants;
 import org.apache.james.mailbox.cassandra.table.CassandraMailboxCountersTable;
+import org.apache.james.mailbox.cassandra.table.CassandraMailboxSummaryTable;
 
 import com.datastax.driver.core.schemabuilder.SchemaBuilder;
 
@@ -40,5 +43,20 @@ public interface CassandraMailboxCounterModule {
             .addPartitionKey(CassandraMailboxCountersTable.MAILBOX_ID, timeuuid())
             .addColumn(CassandraMailboxCountersTable.COUNT, counter())
             .addColumn(CassandraMailboxCountersTable.UNSEEN, counter()))
+        .table(CassandraMailboxSummaryTable.TABLE_NAME)
+        .comment("Projection holding, for each mailbox, the counters, last UID, highest MODSEQ, first unseen UID and " +
+            "recent UIDs. Allows STATUS and mailbox listings to be served with a single read per mailbox.")
+        .options(options -> options
+            .compactionOptions(SchemaBuilder.leveledStrategy())
+            .caching(SchemaBuilder.KeyCaching.ALL,
+                SchemaBuilder.rows(CassandraConstants.DEFAULT_CACHED_ROW_PER_PARTITION)))
+        .statement(statement -> statement
+            .addPartitionKey(CassandraMailboxSummaryTable.MAILBOX_ID, timeuuid())
+            .addColumn(CassandraMailboxSummaryTable.COUNT, bigint())
+            .addColumn(CassandraMailboxSummaryTable.UNSEEN, bigint())
+            .addColumn(CassandraMailboxSummaryTable.LAST_UID, bigint())
+            .addColumn(CassandraMailboxSummaryTable.HIGHEST_MOD_SEQ, bigint())
+            .addColumn(CassandraMailboxSummaryTable.FIRST_UNSEEN, bigint())
+            .addColumn(CassandraMailboxSummaryTable.RECENTS, set(bigint())))
         .build();
 }
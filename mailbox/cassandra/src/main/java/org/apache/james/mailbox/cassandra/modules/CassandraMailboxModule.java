@@ -25,6 +25,7 @@ import static com.datastax.driver.core.DataType.timeuuid;
 
 import org.apache.james.backends.cassandra.components.CassandraModule;
 import org.apache.james.backends.cassandra.utils.CassandraConstants;
+import org.apache.james.mailbox.cassandra.table.CassandraMailboxDeletionCheckpointTable;
 import org.apache.james.mailbox.cassandra.table.CassandraMailboxPathTable;
 import org.apache.james.mailbox.cassandra.table.CassandraMailboxPathV2Table;
 import org.apache.james.mailbox.cassandra.table.CassandraMailboxTable;
@@ -68,5 +69,11 @@ public interface CassandraMailboxModule {
             .addPartitionKey(CassandraMailboxPathV2Table.USER, text())
             .addClusteringColumn(CassandraMailboxPathV2Table.MAILBOX_NAME, text())
             .addColumn(CassandraMailboxPathV2Table.MAILBOX_ID, timeuuid()))
+        .table(CassandraMailboxDeletionCheckpointTable.TABLE_NAME)
+        .comment("Holds the last UID cleaned up for mailboxes being deleted. Allows a restarted deletion to resume " +
+            "where it stopped.")
+        .statement(statement -> statement
+            .addPartitionKey(CassandraMailboxDeletionCheckpointTable.MAILBOX_ID, timeuuid())
+            .addColumn(CassandraMailboxDeletionCheckpointTable.LAST_DELETED_UID, bigint()))
         .build();
 }
@@ -28,8 +28,11 @@ import static com.datastax.driver.core.DataType.timestamp;
 import static com.datastax.driver.core.DataType.timeuuid;
 
 import org.apache.james.backends.cassandra.components.CassandraModule;
+import org.apache.james.mailbox.cassandra.table.CassandraExpungeLogTable;
+import org.apache.james.mailbox.cassandra.table.CassandraMessageIdBucketTable;
 import org.apache.james.mailbox.cassandra.table.CassandraMessageIdTable;
 import org.apache.james.mailbox.cassandra.table.CassandraMessageIds;
+import org.apache.james.mailbox.cassandra.table.CassandraMessageStructureTable;
 import org.apache.james.mailbox.cassandra.table.CassandraMessageV2Table;
 import org.apache.james.mailbox.cassandra.table.Flag;
 import org.apache.james.mailbox.cassandra.table.MessageIdToImapUid;
@@ -61,6 +64,49 @@ public interface CassandraMessageModule {
             .addColumn(Flag.SEEN, cboolean())
             .addColumn(Flag.USER, cboolean())
             .addColumn(Flag.USER_FLAGS, set(text())))
+        .table(CassandraMessageIdBucketTable.TABLE_NAME)
+        .comment("Holds mailbox and flags for each message, lookup by mailbox ID + bucket + UID. Bucketed layout of "
+            + CassandraMessageIdTable.TABLE_NAME + " avoiding huge partitions for large mailboxes.")
+        .options(options -> options
+            .compactionOptions(SchemaBuilder.sizedTieredStategy())
+            .caching(SchemaBuilder.KeyCaching.ALL,
+                SchemaBuilder.rows(CACHED_MESSAGE_ID_ROWS)))
+        .statement(statement -> statement
+            .addPartitionKey(CassandraMessageIds.MAILBOX_ID, timeuuid())
+            .addPartitionKey(CassandraMessageIdBucketTable.BUCKET, bigint())
+            .addClusteringColumn(CassandraMessageIds.IMAP_UID, bigint())
+            .addColumn(CassandraMessageIds.MESSAGE_ID, timeuuid())
+            .addColumn(CassandraMessageIdBucketTable.MOD_SEQ, bigint())
+            .addColumn(Flag.ANSWERED, cboolean())
+            .addColumn(Flag.DELETED, cboolean())
+            .addColumn(Flag.DRAFT, cboolean())
+            .addColumn(Flag.FLAGGED, cboolean())
+            .addColumn(Flag.RECENT, cboolean())
+            .addColumn(Flag.SEEN, cboolean())
+            .addColumn(Flag.USER, cboolean())
+            .addColumn(Flag.USER_FLAGS, set(text())))
+        .table(CassandraMessageIdBucketTable.Buckets.TABLE_NAME)
+        .comment("Lists the buckets of " + CassandraMessageIdBucketTable.TABLE_NAME + " used by a mailbox.")
+        .options(options -> options
+            .caching(SchemaBuilder.KeyCaching.ALL,
+                SchemaBuilder.rows(CACHED_MESSAGE_ID_ROWS)))
+        .statement(statement -> statement
+            .addPartitionKey(CassandraMessageIds.MAILBOX_ID, timeuuid())
+            .addClusteringColumn(CassandraMessageIdBucketTable.BUCKET, bigint()))
+        .table(CassandraMessageIdBucketTable.MigratedMailboxes.TABLE_NAME)
+        .comment("Lists the mailboxes whose " + CassandraMessageIdTable.TABLE_NAME + " partition had been moved to "
+            + CassandraMessageIdBucketTable.TABLE_NAME + ", hence needs not be read anymore.")
+        .options(options -> options
+            .caching(SchemaBuilder.KeyCaching.ALL,
+                SchemaBuilder.rows(CACHED_MESSAGE_ID_ROWS)))
+        .statement(statement -> statement
+            .addPartitionKey(CassandraMessageIds.MAILBOX_ID, timeuuid()))
+        .table(CassandraMessageIdBucketTable.Layout.TABLE_NAME)
+        .comment("Holds the bucket size of " + CassandraMessageIdBucketTable.TABLE_NAME + " once the bucketed layout is "
+            + "activated. " + CassandraMessageIdTable.TABLE_NAME + " alone is used until then.")
+        .statement(statement -> statement
+            .addPartitionKey(CassandraMessageIdBucketTable.Layout.KEY, text())
+            .addColumn(CassandraMessageIdBucketTable.Layout.BUCKET_SIZE, cint()))
         .table(MessageIdToImapUid.TABLE_NAME)
         .comment("Holds mailbox and flags for each message, lookup by message ID")
         .options(options -> options
@@ -94,6 +140,29 @@ public interface CassandraMessageModule {
             .addColumn(CassandraMessageV2Table.HEADER_CONTENT, text())
             .addUDTListColumn(CassandraMessageV2Table.ATTACHMENTS, SchemaBuilder.frozen(CassandraMessageV2Table.ATTACHMENTS))
             .addUDTListColumn(CassandraMessageV2Table.PROPERTIES, SchemaBuilder.frozen(CassandraMessageV2Table.PROPERTIES)))
+        .table(CassandraMessageStructureTable.TABLE_NAME)
+        .comment("Holds the precomputed envelope and MIME structure of messages, used to answer IMAP FETCH without " +
+            "reading message content.")
+        .options(options -> options
+            .compactionOptions(SchemaBuilder.sizedTieredStategy()))
+        .statement(statement -> statement
+            .addPartitionKey(CassandraMessageStructureTable.MESSAGE_ID, timeuuid())
+            .addColumn(CassandraMessageStructureTable.STRUCTURE, text()))
+        .table(CassandraExpungeLogTable.TABLE_NAME)
+        .comment("Holds the uids expunged from each mailbox by mod-sequence, used to answer QRESYNC VANISHED " +
+            "responses without listing mailbox uids.")
+        .options(options -> options
+            .compactionOptions(SchemaBuilder.sizedTieredStategy()))
+        .statement(statement -> statement
+            .addPartitionKey(CassandraExpungeLogTable.MAILBOX_ID, timeuuid())
+            .addClusteringColumn(CassandraExpungeLogTable.MOD_SEQ, bigint())
+            .addClusteringColumn(CassandraExpungeLogTable.UID, bigint()))
+        .table(CassandraExpungeLogTable.Coverage.TABLE_NAME)
+        .comment("Holds the mod-sequence since which the expunges of a mailbox are held in " +
+            CassandraExpungeLogTable.TABLE_NAME + ".")
+        .statement(statement -> statement
+            .addPartitionKey(CassandraExpungeLogTable.MAILBOX_ID, timeuuid())
+            .addColumn(CassandraExpungeLogTable.Coverage.COVERED_SINCE, bigint()))
         .type(CassandraMessageV2Table.PROPERTIES)
         .statement(statement -> statement
             .addColumn(CassandraMessageV2Table.Properties.NAMESPACE, text())
@@ -20,12 +20,14 @@
 package org.apache.james.mailbox.cassandra.modules;
 
 import static com.datastax.driver.core.DataType.bigint;
+import static com.datastax.driver.core.DataType.cint;
 import static com.datastax.driver.core.DataType.counter;
 import static com.datastax.driver.core.DataType.text;
 
 import org.apache.james.backends.cassandra.components.CassandraModule;
 import org.apache.james.backends.cassandra.utils.CassandraConstants;
 import org.apache.james.mailbox.cassandra.table.CassandraCurrentQuota;
+import org.apache.james.mailbox.cassandra.table.CassandraCurrentQuotaShards;
 import org.apache.james.mailbox.cassandra.table.CassandraDomainMaxQuota;
 import org.apache.james.mailbox.cassandra.table.CassandraGlobalMaxQuota;
 import org.apache.james.mailbox.cassandra.table.CassandraMaxQuota;
@@ -43,6 +45,17 @@ public interface CassandraQuotaModule {
             .addPartitionKey(CassandraCurrentQuota.QUOTA_ROOT, text())
             .addColumn(CassandraCurrentQuota.MESSAGE_COUNT, counter())
             .addColumn(CassandraCurrentQuota.STORAGE, counter()))
+        .table(CassandraCurrentQuotaShards.TABLE_NAME)
+        .comment("Holds per quota-root current values, spread over several partitions to avoid hot spots on heavily " +
+            "used quota-roots. The current value of a quota-root is the sum of its shards and of its " + CassandraCurrentQuota.TABLE_NAME + " entry.")
+        .options(options -> options
+            .caching(SchemaBuilder.KeyCaching.ALL,
+                SchemaBuilder.rows(CassandraConstants.DEFAULT_CACHED_ROW_PER_PARTITION)))
+        .statement(statement -> statement
+            .addPartitionKey(CassandraCurrentQuotaShards.QUOTA_ROOT, text())
+            .addPartitionKey(CassandraCurrentQuotaShards.SHARD, cint())
+            .addColumn(CassandraCurrentQuotaShards.MESSAGE_COUNT, counter())
+            .addColumn(CassandraCurrentQuotaShards.STORAGE, counter()))
         .table(CassandraMaxQuota.TABLE_NAME)
         .comment("Holds per quota-root limitations. Limitations can concern the number of messages in a quota-root or the total size of a quota-root.")
         .options(options -> options
@@ -22,6 +22,7 @@ package org.apache.james.mailbox.cassandra.quota;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.decr;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.in;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.incr;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.update;
@@ -30,88 +31,115 @@ import static org.apache.james.mailbox.cassandra.table.CassandraCurrentQuota.QUO
 import static org.apache.james.mailbox.cassandra.table.CassandraCurrentQuota.STORAGE;
 import static org.apache.james.mailbox.cassandra.table.CassandraCurrentQuota.TABLE_NAME;
 
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
 import javax.inject.Inject;
 
+import org.apache.james.backends.cassandra.init.configuration.CassandraConfiguration;
 import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
 import org.apache.james.core.quota.QuotaCountUsage;
 import org.apache.james.core.quota.QuotaSizeUsage;
-import org.apache.james.mailbox.cassandra.table.CassandraCurrentQuota;
+import org.apache.james.mailbox.cassandra.table.CassandraCurrentQuotaShards;
 import org.apache.james.mailbox.model.CurrentQuotas;
 import org.apache.james.mailbox.model.QuotaOperation;
 import org.apache.james.mailbox.model.QuotaRoot;
 import org.apache.james.mailbox.quota.CurrentQuotaManager;
 
 import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
+import com.google.common.collect.ImmutableList;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+/**
+ * Current quotas of a quota root are spread over several counter partitions ("shards") so that heavily used quota
+ * roots (shared or domain wide) do not turn into hot partitions. Updates hit a random shard, reads sum all of them.
+ *
+ * The legacy {@link org.apache.james.mailbox.cassandra.table.CassandraCurrentQuota} entry is still taken into account
+ * upon reads, hence no data migration is needed.
+ */
 public class CassandraCurrentQuotaManager implements CurrentQuotaManager {
+    private static final String SHARDS = "shards";
 
     private final CassandraAsyncExecutor cassandraAsyncExecutor;
+    private final List<Integer> shards;
     private final PreparedStatement increaseStatement;
     private final PreparedStatement decreaseStatement;
-    private final PreparedStatement getCurrentMessageCountStatement;
-    private final PreparedStatement getCurrentStorageStatement;
-    private final PreparedStatement getCurrentQuotasStatement;
+    private final PreparedStatement getLegacyCurrentQuotasStatement;
+    private final PreparedStatement getShardedCurrentQuotasStatement;
 
-    @Inject
     public CassandraCurrentQuotaManager(Session session) {
+        this(session, CassandraConfiguration.DEFAULT_CONFIGURATION);
+    }
+
+    @Inject
+    public CassandraCurrentQuotaManager(Session session, CassandraConfiguration cassandraConfiguration) {
         this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
-        this.increaseStatement = session.prepare(update(TABLE_NAME)
-            .with(incr(MESSAGE_COUNT, bindMarker()))
-            .and(incr(STORAGE, bindMarker()))
-            .where(eq(QUOTA_ROOT, bindMarker())));
-        this.decreaseStatement = session.prepare(update(TABLE_NAME)
-            .with(decr(MESSAGE_COUNT, bindMarker()))
-            .and(decr(STORAGE, bindMarker()))
-            .where(eq(QUOTA_ROOT, bindMarker())));
-        this.getCurrentMessageCountStatement = session.prepare(select(MESSAGE_COUNT)
-            .from(TABLE_NAME)
-            .where(eq(QUOTA_ROOT, bindMarker())));
-        this.getCurrentStorageStatement = session.prepare(select(STORAGE)
-            .from(TABLE_NAME)
-            .where(eq(QUOTA_ROOT, bindMarker())));
-        this.getCurrentQuotasStatement = session.prepare(select(MESSAGE_COUNT, STORAGE)
+        this.shards = IntStream.range(0, cassandraConfiguration.getQuotaCounterShardCount())
+            .boxed()
+            .collect(ImmutableList.toImmutableList());
+        this.increaseStatement = session.prepare(update(CassandraCurrentQuotaShards.TABLE_NAME)
+            .with(incr(CassandraCurrentQuotaShards.MESSAGE_COUNT, bindMarker()))
+            .and(incr(CassandraCurrentQuotaShards.STORAGE, bindMarker()))
+            .where(eq(CassandraCurrentQuotaShards.QUOTA_ROOT, bindMarker()))
+            .and(eq(CassandraCurrentQuotaShards.SHARD, bindMarker())));
+        this.decreaseStatement = session.prepare(update(CassandraCurrentQuotaShards.TABLE_NAME)
+            .with(decr(CassandraCurrentQuotaShards.MESSAGE_COUNT, bindMarker()))
+            .and(decr(CassandraCurrentQuotaShards.STORAGE, bindMarker()))
+            .where(eq(CassandraCurrentQuotaShards.QUOTA_ROOT, bindMarker()))
+            .and(eq(CassandraCurrentQuotaShards.SHARD, bindMarker())));
+        this.getLegacyCurrentQuotasStatement = session.prepare(select(MESSAGE_COUNT, STORAGE)
             .from(TABLE_NAME)
             .where(eq(QUOTA_ROOT, bindMarker())));
+        this.getShardedCurrentQuotasStatement = session.prepare(select(CassandraCurrentQuotaShards.MESSAGE_COUNT, CassandraCurrentQuotaShards.STORAGE)
+            .from(CassandraCurrentQuotaShards.TABLE_NAME)
+            .where(eq(CassandraCurrentQuotaShards.QUOTA_ROOT, bindMarker()))
+            .and(in(CassandraCurrentQuotaShards.SHARD, bindMarker(SHARDS))));
     }
 
     @Override
     public Mono<Void> increase(QuotaOperation quotaOperation) {
         return cassandraAsyncExecutor.executeVoid(increaseStatement.bind(quotaOperation.count().asLong(),
             quotaOperation.size().asLong(),
-            quotaOperation.quotaRoot().getValue()));
+            quotaOperation.quotaRoot().getValue(),
+            randomShard()));
     }
 
     @Override
     public Mono<Void> decrease(QuotaOperation quotaOperation) {
         return cassandraAsyncExecutor.executeVoid(decreaseStatement.bind(quotaOperation.count().asLong(),
             quotaOperation.size().asLong(),
-            quotaOperation.quotaRoot().getValue()));
+            quotaOperation.quotaRoot().getValue(),
+            randomShard()));
     }
 
     @Override
     public Mono<QuotaCountUsage> getCurrentMessageCount(QuotaRoot quotaRoot) {
-        return cassandraAsyncExecutor.executeSingleRow(getCurrentMessageCountStatement.bind(quotaRoot.getValue()))
-            .map(row -> QuotaCountUsage.count(row.getLong(CassandraCurrentQuota.MESSAGE_COUNT)))
-            .defaultIfEmpty(QuotaCountUsage.count(0L));
+        return getCurrentQuotas(quotaRoot)
+            .map(CurrentQuotas::count);
     }
 
     @Override
     public Mono<QuotaSizeUsage> getCurrentStorage(QuotaRoot quotaRoot) {
-        return cassandraAsyncExecutor.executeSingleRow(getCurrentStorageStatement.bind(quotaRoot.getValue()))
-            .map(row -> QuotaSizeUsage.size(row.getLong(CassandraCurrentQuota.STORAGE)))
-            .defaultIfEmpty(QuotaSizeUsage.size(0L));
+        return getCurrentQuotas(quotaRoot)
+            .map(CurrentQuotas::size);
     }
 
     @Override
     public Mono<CurrentQuotas> getCurrentQuotas(QuotaRoot quotaRoot) {
-        return cassandraAsyncExecutor.executeSingleRow(getCurrentQuotasStatement.bind(quotaRoot.getValue()))
-            .map(row -> new CurrentQuotas(
-                QuotaCountUsage.count(row.getLong(MESSAGE_COUNT)),
-                QuotaSizeUsage.size(row.getLong(STORAGE))))
-            .defaultIfEmpty(CurrentQuotas.emptyQuotas());
+        Flux<CurrentQuotas> legacyQuotas = cassandraAsyncExecutor.executeRows(getLegacyCurrentQuotasStatement.bind(quotaRoot.getValue()))
+            .map(this::toCurrentQuotas);
+        Flux<CurrentQuotas> shardedQuotas = cassandraAsyncExecutor.executeRows(getShardedCurrentQuotasStatement.bind()
+                .setString(CassandraCurrentQuotaShards.QUOTA_ROOT, quotaRoot.getValue())
+                .setList(SHARDS, shards))
+            .map(this::toCurrentQuotas);
+
+        return Flux.merge(legacyQuotas, shardedQuotas)
+            .reduce(CurrentQuotas.emptyQuotas(), CurrentQuotas::increase);
     }
 
     @Override
@@ -121,4 +149,14 @@ public class CassandraCurrentQuotaManager implements CurrentQuotaManager {
             .flatMap(storedQuotas -> decrease(new QuotaOperation(quotaOperation.quotaRoot(), storedQuotas.count(), storedQuotas.size()))
                 .then(increase(quotaOperation)));
     }
+
+    private CurrentQuotas toCurrentQuotas(Row row) {
+        return new CurrentQuotas(
+            QuotaCountUsage.count(row.getLong(MESSAGE_COUNT)),
+            QuotaSizeUsage.size(row.getLong(STORAGE)));
+    }
+
+    private int randomShard() {
+        return ThreadLocalRandom.current().nextInt(shards.size());
+    }
 }
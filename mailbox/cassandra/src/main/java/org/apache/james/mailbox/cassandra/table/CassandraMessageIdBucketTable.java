@@ -0,0 +1,62 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.table;
+
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIds.IMAP_UID;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIds.MAILBOX_ID;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIds.MESSAGE_ID;
+
+/**
+ * Bucketed layout of {@link CassandraMessageIdTable}: a mailbox UID index is split into partitions
+ * of a fixed count of consecutive UIDs.
+ */
+public interface CassandraMessageIdBucketTable {
+
+    String TABLE_NAME = "messageIdBucketTable";
+
+    String BUCKET = "bucket";
+    String MOD_SEQ = "modSeq";
+
+    String[] FIELDS = { MESSAGE_ID, MAILBOX_ID, IMAP_UID, MOD_SEQ,
+            Flag.ANSWERED, Flag.DELETED, Flag.DRAFT, Flag.FLAGGED, Flag.RECENT, Flag.SEEN, Flag.USER, Flag.USER_FLAGS};
+
+    interface Buckets {
+        String TABLE_NAME = "messageIdBuckets";
+    }
+
+    /**
+     * Mailboxes whose {@link CassandraMessageIdTable} partition had been migrated and dropped: it needs not be read
+     * anymore.
+     */
+    interface MigratedMailboxes {
+        String TABLE_NAME = "messageIdBucketMigratedMailboxes";
+    }
+
+    /**
+     * Single row recording the bucket size of the bucketed layout once activated. Nodes keep using
+     * {@link CassandraMessageIdTable} alone until then.
+     */
+    interface Layout {
+        String TABLE_NAME = "messageIdBucketLayout";
+
+        String KEY = "key";
+        String BUCKET_SIZE = "bucketSize";
+    }
+}
@@ -108,6 +108,8 @@ public class CassandraMailboxManagerProvider {
         eventBus.register(quotaUpdater);
         eventBus.register(new MailboxAnnotationListener(mapperFactory, sessionProvider));
         eventBus.register(mapperFactory.deleteMessageListener());
+        eventBus.register(mapperFactory.mailboxDeletionListener(eventBus));
+        eventBus.register(mapperFactory.mailboxSummaryProjectionListener());
 
         return manager;
     }
@@ -20,6 +20,7 @@
 package org.apache.james.mailbox.cassandra;
 
 import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.mailbox.MailboxManagerBulkAppendStressContract;
 import org.apache.james.mailbox.MailboxManagerStressContract;
 import org.apache.james.mailbox.cassandra.mail.MailboxAggregateModule;
 import org.apache.james.mailbox.events.EventBus;
@@ -27,7 +28,7 @@ import org.apache.james.mailbox.store.PreDeletionHooks;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
-class CassandraMailboxManagerStressTest implements MailboxManagerStressContract<CassandraMailboxManager> {
+class CassandraMailboxManagerStressTest implements MailboxManagerStressContract<CassandraMailboxManager>, MailboxManagerBulkAppendStressContract<CassandraMailboxManager> {
 
     @RegisterExtension
     static CassandraClusterExtension cassandra = new CassandraClusterExtension(MailboxAggregateModule.MODULE_WITH_QUOTA);
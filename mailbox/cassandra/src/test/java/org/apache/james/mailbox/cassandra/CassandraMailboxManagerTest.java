@@ -22,6 +22,7 @@ import static org.apache.james.backends.cassandra.Scenario.Builder.fail;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Optional;
 
@@ -50,6 +51,7 @@ import org.apache.james.mailbox.cassandra.mail.CassandraAttachmentOwnerDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraDeletedMessageDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraFirstUnseenDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMailboxCounterDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraMailboxDeletionCheckpointDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMailboxRecentsDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMessageDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdDAO;
@@ -58,6 +60,7 @@ import org.apache.james.mailbox.cassandra.mail.CassandraUserMailboxRightsDAO;
 import org.apache.james.mailbox.cassandra.mail.MailboxAggregateModule;
 import org.apache.james.mailbox.events.EventBus;
 import org.apache.james.mailbox.model.AttachmentId;
+import org.apache.james.mailbox.model.ComposedMessageId;
 import org.apache.james.mailbox.model.FetchGroup;
 import org.apache.james.mailbox.model.MailboxACL;
 import org.apache.james.mailbox.model.MailboxId;
@@ -105,6 +108,10 @@ public class CassandraMailboxManagerTest extends MailboxManagerTest<CassandraMai
 
     @Nested
     class DeletionTests {
+        private static final int CONCURRENCY = 2;
+        private static final int BATCH_SIZE = 1;
+        private static final int BATCHES_PER_DELIVERY = 2;
+
         private MailboxSession session;
         private MailboxPath inbox;
         private MailboxId inboxId;
@@ -746,6 +753,125 @@ public class CassandraMailboxManagerTest extends MailboxManagerTest<CassandraMai
                 .isEmpty();
         }
 
+        @Test
+        void deleteMailboxShouldCleanUpDeletionCheckpoint(CassandraCluster cassandraCluster) throws Exception {
+            inboxManager.appendMessage(MessageManager.AppendCommand.builder()
+                .build(ClassLoaderUtils.getSystemResourceAsByteArray("eml/emailWithOnlyAttachment.eml")), session);
+
+            mailboxManager.deleteMailbox(inbox, session);
+
+            assertThat(checkpointDAO(cassandraCluster).retrieve((CassandraId) inboxId).blockOptional())
+                .isEmpty();
+        }
+
+        @Test
+        void deleteMailboxShouldEventuallyCleanUpWhenMetadataDeletionFailsAfterCheckpoint(CassandraCluster cassandraCluster) throws Exception {
+            ComposedMessageId message1 = inboxManager.appendMessage(MessageManager.AppendCommand.builder()
+                .build(ClassLoaderUtils.getSystemResourceAsByteArray("eml/emailWithOnlyAttachment.eml")), session).getId();
+            ComposedMessageId message2 = inboxManager.appendMessage(MessageManager.AppendCommand.builder()
+                .build(ClassLoaderUtils.getSystemResourceAsByteArray("eml/emailWithOnlyAttachment.eml")), session).getId();
+
+            cassandraCluster.getConf().registerScenario(fail()
+                .times(1)
+                .whenQueryStartsWith("DELETE FROM mailboxCounters WHERE mailboxId=:mailboxId;"));
+
+            mailboxManager.deleteMailbox(inbox, session);
+
+            CassandraId mailboxId = (CassandraId) inboxId;
+            SoftAssertions.assertSoftly(softly -> {
+                softly.assertThat(messageIdDAO(cassandraCluster).retrieveMessages(mailboxId, MessageRange.all(), Limit.unlimited()).collectList().block())
+                    .isEmpty();
+                softly.assertThat(imapUidDAO(cassandraCluster).retrieve((CassandraMessageId) message1.getMessageId(), Optional.of(mailboxId)).collectList().block())
+                    .isEmpty();
+                softly.assertThat(imapUidDAO(cassandraCluster).retrieve((CassandraMessageId) message2.getMessageId(), Optional.of(mailboxId)).collectList().block())
+                    .isEmpty();
+                softly.assertThat(checkpointDAO(cassandraCluster).retrieve(mailboxId).blockOptional())
+                    .isEmpty();
+            });
+        }
+
+        @Test
+        void deleteMailboxContentShouldResumeAfterCheckpoint(CassandraCluster cassandraCluster) throws Exception {
+            ComposedMessageId message1 = inboxManager.appendMessage(MessageManager.AppendCommand.builder()
+                .build(ClassLoaderUtils.getSystemResourceAsByteArray("eml/emailWithOnlyAttachment.eml")), session).getId();
+            inboxManager.appendMessage(MessageManager.AppendCommand.builder()
+                .build(ClassLoaderUtils.getSystemResourceAsByteArray("eml/emailWithOnlyAttachment.eml")), session);
+            inboxManager.appendMessage(MessageManager.AppendCommand.builder()
+                .build(ClassLoaderUtils.getSystemResourceAsByteArray("eml/emailWithOnlyAttachment.eml")), session);
+
+            CassandraId mailboxId = (CassandraId) inboxId;
+            checkpointDAO(cassandraCluster).save(mailboxId, message1.getUid()).block();
+
+            ((CassandraMailboxSessionMapperFactory) mailboxManager.getMapperFactory())
+                .mailboxDeletionListener(mailboxManager.getEventBus())
+                .deleteMailboxContent(mailboxId)
+                .block();
+
+            assertThat(messageIdDAO(cassandraCluster).retrieveMessages(mailboxId, MessageRange.all(), Limit.unlimited())
+                    .map(metaData -> metaData.getComposedMessageId().getUid())
+                    .collectList()
+                    .block())
+                .containsOnly(message1.getUid());
+        }
+
+        @Test
+        void deleteMailboxContentShouldStopAfterTheBatchesOfADelivery(CassandraCluster cassandraCluster) throws Exception {
+            inboxManager.appendMessage(MessageManager.AppendCommand.builder()
+                .build(ClassLoaderUtils.getSystemResourceAsByteArray("eml/emailWithOnlyAttachment.eml")), session);
+            inboxManager.appendMessage(MessageManager.AppendCommand.builder()
+                .build(ClassLoaderUtils.getSystemResourceAsByteArray("eml/emailWithOnlyAttachment.eml")), session);
+            ComposedMessageId message3 = inboxManager.appendMessage(MessageManager.AppendCommand.builder()
+                .build(ClassLoaderUtils.getSystemResourceAsByteArray("eml/emailWithOnlyAttachment.eml")), session).getId();
+
+            CassandraId mailboxId = (CassandraId) inboxId;
+            MailboxDeletionListener listener = new MailboxDeletionListener(
+                ((CassandraMailboxSessionMapperFactory) mailboxManager.getMapperFactory()).deleteMessageListener(),
+                messageIdDAO(cassandraCluster), checkpointDAO(cassandraCluster), mailboxManager.getEventBus(),
+                CONCURRENCY, BATCH_SIZE, BATCHES_PER_DELIVERY, Duration.ZERO);
+
+            Boolean completed = listener.deleteMailboxContent(mailboxId).block();
+
+            SoftAssertions.assertSoftly(softly -> {
+                softly.assertThat(completed).isFalse();
+                softly.assertThat(messageIdDAO(cassandraCluster).retrieveMessages(mailboxId, MessageRange.all(), Limit.unlimited())
+                        .map(metaData -> metaData.getComposedMessageId().getUid())
+                        .collectList()
+                        .block())
+                    .containsOnly(message3.getUid());
+            });
+        }
+
+        @Test
+        void deleteMailboxContentShouldCompleteOnceAllBatchesAreDeleted(CassandraCluster cassandraCluster) throws Exception {
+            inboxManager.appendMessage(MessageManager.AppendCommand.builder()
+                .build(ClassLoaderUtils.getSystemResourceAsByteArray("eml/emailWithOnlyAttachment.eml")), session);
+            inboxManager.appendMessage(MessageManager.AppendCommand.builder()
+                .build(ClassLoaderUtils.getSystemResourceAsByteArray("eml/emailWithOnlyAttachment.eml")), session);
+            inboxManager.appendMessage(MessageManager.AppendCommand.builder()
+                .build(ClassLoaderUtils.getSystemResourceAsByteArray("eml/emailWithOnlyAttachment.eml")), session);
+
+            CassandraId mailboxId = (CassandraId) inboxId;
+            MailboxDeletionListener listener = new MailboxDeletionListener(
+                ((CassandraMailboxSessionMapperFactory) mailboxManager.getMapperFactory()).deleteMessageListener(),
+                messageIdDAO(cassandraCluster), checkpointDAO(cassandraCluster), mailboxManager.getEventBus(),
+                CONCURRENCY, BATCH_SIZE, BATCHES_PER_DELIVERY, Duration.ZERO);
+
+            listener.deleteMailboxContent(mailboxId).block();
+            Boolean completed = listener.deleteMailboxContent(mailboxId).block();
+
+            SoftAssertions.assertSoftly(softly -> {
+                softly.assertThat(completed).isTrue();
+                softly.assertThat(messageIdDAO(cassandraCluster).retrieveMessages(mailboxId, MessageRange.all(), Limit.unlimited()).collectList().block())
+                    .isEmpty();
+                softly.assertThat(checkpointDAO(cassandraCluster).retrieve(mailboxId).blockOptional())
+                    .isEmpty();
+            });
+        }
+
+        private CassandraMailboxDeletionCheckpointDAO checkpointDAO(CassandraCluster cassandraCluster) {
+            return new CassandraMailboxDeletionCheckpointDAO(cassandraCluster.getConf());
+        }
+
         private CassandraMailboxCounterDAO countersDAO(CassandraCluster cassandraCluster) {
             return new CassandraMailboxCounterDAO(cassandraCluster.getConf());
         }
@@ -38,6 +38,7 @@ import org.apache.james.mailbox.cassandra.mail.CassandraMailboxDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMailboxPathDAOImpl;
 import org.apache.james.mailbox.cassandra.mail.CassandraMailboxPathV2DAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMailboxRecentsDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraMailboxSummaryDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMessageDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdToImapUidDAO;
@@ -71,6 +72,7 @@ class CassandraSubscriptionManagerTest implements SubscriptionManagerContract {
         CassandraMessageIdDAO messageIdDAO = null;
         CassandraMailboxCounterDAO mailboxCounterDAO = null;
         CassandraMailboxRecentsDAO mailboxRecentsDAO = null;
+        CassandraMailboxSummaryDAO mailboxSummaryDAO = null;
         CassandraMailboxDAO mailboxDAO = null;
         CassandraMailboxPathDAOImpl mailboxPathDAO = null;
         CassandraMailboxPathV2DAO mailboxPathV2DAO = null;
@@ -97,6 +99,7 @@ class CassandraSubscriptionManagerTest implements SubscriptionManagerContract {
                 imapUidDAO,
                 mailboxCounterDAO,
                 mailboxRecentsDAO,
+                mailboxSummaryDAO,
                 mailboxDAO,
                 mailboxPathDAO,
                 mailboxPathV2DAO,
@@ -81,6 +81,8 @@ public class CassandraTestSystemFixture {
 
         eventBus.register(new MailboxAnnotationListener(mapperFactory, sessionProvider));
         eventBus.register(mapperFactory.deleteMessageListener());
+        eventBus.register(mapperFactory.mailboxDeletionListener(eventBus));
+        eventBus.register(mapperFactory.mailboxSummaryProjectionListener());
 
         return cassandraMailboxManager;
     }
@@ -0,0 +1,217 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import javax.mail.Flags;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.core.Username;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageManager;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.mail.CassandraMailboxSummaryDAO;
+import org.apache.james.mailbox.cassandra.mail.MailboxAggregateModule;
+import org.apache.james.mailbox.cassandra.mail.MailboxSummary;
+import org.apache.james.mailbox.events.Group;
+import org.apache.james.mailbox.model.MailboxCounters;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.mailbox.model.search.MailboxQuery;
+import org.apache.james.mailbox.model.search.Wildcard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.google.common.collect.ImmutableList;
+
+class MailboxSummaryProjectionListenerTest {
+    private static final Username USER = Username.of("user");
+    private static final MailboxPath INBOX = MailboxPath.inbox(USER);
+    private static final long FAR_FUTURE_WRITE_TIME = Long.MAX_VALUE / 2;
+
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(MailboxAggregateModule.MODULE);
+
+    private CassandraMailboxManager mailboxManager;
+    private CassandraMailboxSummaryDAO summaryDAO;
+    private MailboxSession session;
+    private CassandraId inboxId;
+    private MessageManager inbox;
+
+    @BeforeEach
+    void setUp(CassandraCluster cassandra) throws Exception {
+        CassandraMailboxSessionMapperFactory mapperFactory = CassandraTestSystemFixture.createMapperFactory(cassandra);
+        mailboxManager = CassandraTestSystemFixture.createMailboxManager(mapperFactory);
+        summaryDAO = mapperFactory.getMailboxSummaryDAO();
+        session = mailboxManager.createSystemSession(USER);
+        inboxId = (CassandraId) mailboxManager.createMailbox(INBOX, session).get();
+        inbox = mailboxManager.getMailbox(inboxId, session);
+    }
+
+    @Test
+    void deserializeMailboxSummaryProjectionListenerGroup() throws Exception {
+        assertThat(Group.deserialize("org.apache.james.mailbox.cassandra.MailboxSummaryProjectionListener$MailboxSummaryProjectionListenerGroup"))
+            .isEqualTo(new MailboxSummaryProjectionListener.MailboxSummaryProjectionListenerGroup());
+    }
+
+    @Test
+    void mailboxCreationShouldInitializeSummary() {
+        assertThat(summaryDAO.retrieve(inboxId).block())
+            .isEqualTo(new MailboxSummary(inboxId, counters(0, 0), Optional.empty(), ModSeq.first(), Optional.empty(), ImmutableList.of()));
+    }
+
+    @Test
+    void appendShouldUpdateSummary() throws Exception {
+        appendMessage(new Flags(Flags.Flag.SEEN));
+        appendMessage(new Flags());
+
+        MailboxSummary summary = summaryDAO.retrieve(inboxId).block();
+
+        assertThat(summary.getCounters()).isEqualTo(counters(2, 1));
+        assertThat(summary.getLastUid()).contains(MessageUid.of(2));
+        assertThat(summary.getFirstUnseen()).contains(MessageUid.of(2));
+        assertThat(summary.getRecents()).containsExactly(MessageUid.of(1), MessageUid.of(2));
+        assertThat(summary.getHighestModSeq()).isEqualTo(inbox.getMetaData(false, session, MessageManager.MailboxMetaData.FetchGroup.NO_COUNT).getHighestModSeq());
+    }
+
+    @Test
+    void flagsUpdateShouldUpdateSummary() throws Exception {
+        appendMessage(new Flags());
+
+        inbox.setFlags(new Flags(Flags.Flag.SEEN), MessageManager.FlagsUpdateMode.ADD, MessageRange.all(), session);
+
+        MailboxSummary summary = summaryDAO.retrieve(inboxId).block();
+        assertThat(summary.getCounters()).isEqualTo(counters(1, 0));
+        assertThat(summary.getFirstUnseen()).isEmpty();
+    }
+
+    @Test
+    void expungeShouldUpdateSummary() throws Exception {
+        appendMessage(new Flags(Flags.Flag.DELETED));
+        appendMessage(new Flags());
+
+        inbox.expunge(MessageRange.all(), session);
+
+        MailboxSummary summary = summaryDAO.retrieve(inboxId).block();
+        assertThat(summary.getCounters()).isEqualTo(counters(1, 1));
+        assertThat(summary.getRecents()).containsExactly(MessageUid.of(2));
+        assertThat(summary.getLastUid()).contains(MessageUid.of(2));
+    }
+
+    @Test
+    void mailboxDeletionShouldDeleteSummary() throws Exception {
+        mailboxManager.deleteMailbox(inboxId, session);
+
+        assertThat(summaryDAO.retrieve(inboxId).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void statusMetadataShouldBeReadFromSummary() throws Exception {
+        appendMessage(new Flags());
+        MailboxSummary summary = new MailboxSummary(inboxId, counters(42, 12), Optional.of(MessageUid.of(50)), ModSeq.of(60),
+            Optional.of(MessageUid.of(3)), ImmutableList.of());
+        summaryDAO.save(summary, FAR_FUTURE_WRITE_TIME).block();
+
+        MessageManager.MailboxMetaData metaData = inbox.getMetaData(false, session, MessageManager.MailboxMetaData.FetchGroup.UNSEEN_COUNT);
+
+        assertThat(metaData.getMessageCount()).isEqualTo(42);
+        assertThat(metaData.getUnseenCount()).isEqualTo(12);
+        assertThat(metaData.getUidNext()).isEqualTo(MessageUid.of(51));
+        assertThat(metaData.getHighestModSeq()).isEqualTo(ModSeq.of(60));
+        assertThat(metaData.countRecent()).isEqualTo(0);
+    }
+
+    @Test
+    void selectMetadataShouldNotBeReadFromSummary() throws Exception {
+        appendMessage(new Flags());
+        MailboxSummary summary = new MailboxSummary(inboxId, counters(42, 12), Optional.of(MessageUid.of(50)), ModSeq.of(60),
+            Optional.of(MessageUid.of(3)), ImmutableList.of());
+        summaryDAO.save(summary, FAR_FUTURE_WRITE_TIME).block();
+
+        MessageManager.MailboxMetaData metaData = inbox.getMetaData(false, session, MessageManager.MailboxMetaData.FetchGroup.FIRST_UNSEEN);
+
+        assertThat(metaData.getMessageCount()).isEqualTo(1);
+        assertThat(metaData.getFirstUnseen()).isEqualTo(MessageUid.of(1));
+    }
+
+    @Test
+    void statusMetadataShouldFallbackToUnderlyingTablesWhenNoSummary() throws Exception {
+        appendMessage(new Flags());
+        summaryDAO.delete(inboxId, FAR_FUTURE_WRITE_TIME).block();
+
+        MessageManager.MailboxMetaData metaData = inbox.getMetaData(false, session, MessageManager.MailboxMetaData.FetchGroup.UNSEEN_COUNT);
+
+        assertThat(metaData.getMessageCount()).isEqualTo(1);
+        assertThat(metaData.getUnseenCount()).isEqualTo(1);
+    }
+
+    @Test
+    void searchShouldReadCountersFromSummary() throws Exception {
+        appendMessage(new Flags());
+        MailboxSummary summary = new MailboxSummary(inboxId, counters(42, 12), Optional.of(MessageUid.of(50)), ModSeq.of(60),
+            Optional.empty(), ImmutableList.of());
+        summaryDAO.save(summary, FAR_FUTURE_WRITE_TIME).block();
+
+        assertThat(mailboxManager.search(allMailboxes(), session).collectList().block())
+            .hasSize(1)
+            .allSatisfy(metaData -> assertThat(metaData.getCounters()).isEqualTo(counters(42, 12)));
+    }
+
+    @Test
+    void searchShouldFallbackToCountersWhenNoSummary() throws Exception {
+        appendMessage(new Flags());
+        summaryDAO.delete(inboxId, FAR_FUTURE_WRITE_TIME).block();
+
+        assertThat(mailboxManager.search(allMailboxes(), session).collectList().block())
+            .hasSize(1)
+            .allSatisfy(metaData -> assertThat(metaData.getCounters()).isEqualTo(counters(1, 1)));
+    }
+
+    private MailboxQuery allMailboxes() {
+        return MailboxQuery.builder()
+            .userAndNamespaceFrom(INBOX)
+            .expression(Wildcard.INSTANCE)
+            .build();
+    }
+
+    private MailboxCounters counters(long count, long unseen) {
+        return MailboxCounters.builder()
+            .mailboxId(inboxId)
+            .count(count)
+            .unseen(unseen)
+            .build();
+    }
+
+    private void appendMessage(Flags flags) throws Exception {
+        inbox.appendMessage(MessageManager.AppendCommand.builder()
+                .recent()
+                .withFlags(flags)
+                .build("Subject: test\r\n\r\nbody".getBytes(StandardCharsets.UTF_8)),
+            session);
+    }
+}
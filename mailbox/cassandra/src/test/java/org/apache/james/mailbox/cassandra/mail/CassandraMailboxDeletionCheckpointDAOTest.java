@@ -0,0 +1,89 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.modules.CassandraMailboxModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class CassandraMailboxDeletionCheckpointDAOTest {
+    private static final CassandraId MAILBOX_ID = CassandraId.timeBased();
+    private static final CassandraId OTHER_MAILBOX_ID = CassandraId.timeBased();
+
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(CassandraMailboxModule.MODULE);
+
+    private CassandraMailboxDeletionCheckpointDAO testee;
+
+    @BeforeEach
+    void setUp(CassandraCluster cassandra) {
+        testee = new CassandraMailboxDeletionCheckpointDAO(cassandra.getConf());
+    }
+
+    @Test
+    void retrieveShouldReturnEmptyByDefault() {
+        assertThat(testee.retrieve(MAILBOX_ID).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void retrieveShouldReturnSavedCheckpoint() {
+        testee.save(MAILBOX_ID, MessageUid.of(36)).block();
+
+        assertThat(testee.retrieve(MAILBOX_ID).block()).isEqualTo(MessageUid.of(36));
+    }
+
+    @Test
+    void saveShouldOverridePreviousCheckpoint() {
+        testee.save(MAILBOX_ID, MessageUid.of(36)).block();
+        testee.save(MAILBOX_ID, MessageUid.of(72)).block();
+
+        assertThat(testee.retrieve(MAILBOX_ID).block()).isEqualTo(MessageUid.of(72));
+    }
+
+    @Test
+    void retrieveShouldNotReturnCheckpointOfOtherMailboxes() {
+        testee.save(OTHER_MAILBOX_ID, MessageUid.of(36)).block();
+
+        assertThat(testee.retrieve(MAILBOX_ID).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void deleteShouldRemoveCheckpoint() {
+        testee.save(MAILBOX_ID, MessageUid.of(36)).block();
+
+        testee.delete(MAILBOX_ID).block();
+
+        assertThat(testee.retrieve(MAILBOX_ID).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void deleteShouldBeIdempotent() {
+        testee.delete(MAILBOX_ID).block();
+
+        assertThat(testee.retrieve(MAILBOX_ID).blockOptional()).isEmpty();
+    }
+}
@@ -0,0 +1,163 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.modules.CassandraMailboxCounterModule;
+import org.apache.james.mailbox.model.MailboxCounters;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.google.common.collect.ImmutableList;
+
+class CassandraMailboxSummaryDAOTest {
+    private static final CassandraId MAILBOX_ID = CassandraId.timeBased();
+    private static final CassandraId OTHER_MAILBOX_ID = CassandraId.timeBased();
+    private static final long WRITE_TIME = 1_000_000L;
+    private static final MailboxSummary SUMMARY = summary(MAILBOX_ID, 12, 3, Optional.of(MessageUid.of(15)), Optional.of(MessageUid.of(4)));
+    private static final MailboxSummary UPDATED_SUMMARY = summary(MAILBOX_ID, 13, 4, Optional.of(MessageUid.of(16)), Optional.of(MessageUid.of(4)));
+
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(CassandraMailboxCounterModule.MODULE);
+
+    private CassandraMailboxSummaryDAO testee;
+
+    @BeforeEach
+    void setUp(CassandraCluster cassandra) {
+        testee = new CassandraMailboxSummaryDAO(cassandra.getConf());
+    }
+
+    private static MailboxSummary summary(CassandraId mailboxId, long count, long unseen, Optional<MessageUid> lastUid, Optional<MessageUid> firstUnseen) {
+        return new MailboxSummary(mailboxId,
+            MailboxCounters.builder()
+                .mailboxId(mailboxId)
+                .count(count)
+                .unseen(unseen)
+                .build(),
+            lastUid,
+            ModSeq.of(36),
+            firstUnseen,
+            ImmutableList.of(MessageUid.of(14), MessageUid.of(15)));
+    }
+
+    @Test
+    void retrieveShouldReturnEmptyByDefault() {
+        assertThat(testee.retrieve(MAILBOX_ID).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void retrieveShouldReturnSavedSummary() {
+        testee.save(SUMMARY, WRITE_TIME).block();
+
+        assertThat(testee.retrieve(MAILBOX_ID).block()).isEqualTo(SUMMARY);
+    }
+
+    @Test
+    void retrieveShouldSupportEmptyValues() {
+        MailboxSummary emptySummary = new MailboxSummary(MAILBOX_ID,
+            MailboxCounters.builder()
+                .mailboxId(MAILBOX_ID)
+                .count(0)
+                .unseen(0)
+                .build(),
+            Optional.empty(),
+            ModSeq.first(),
+            Optional.empty(),
+            ImmutableList.of());
+
+        testee.save(emptySummary, WRITE_TIME).block();
+
+        assertThat(testee.retrieve(MAILBOX_ID).block()).isEqualTo(emptySummary);
+    }
+
+    @Test
+    void saveShouldOverridePreviousSummary() {
+        testee.save(SUMMARY, WRITE_TIME).block();
+        testee.save(UPDATED_SUMMARY, WRITE_TIME + 1).block();
+
+        assertThat(testee.retrieve(MAILBOX_ID).block()).isEqualTo(UPDATED_SUMMARY);
+    }
+
+    @Test
+    void saveShouldClearAbsentValues() {
+        testee.save(SUMMARY, WRITE_TIME).block();
+        MailboxSummary noUnseen = summary(MAILBOX_ID, 12, 0, Optional.of(MessageUid.of(15)), Optional.empty());
+        testee.save(noUnseen, WRITE_TIME + 1).block();
+
+        assertThat(testee.retrieve(MAILBOX_ID).block()).isEqualTo(noUnseen);
+    }
+
+    @Test
+    void saveShouldNotOverrideSummaryComputedLater() {
+        testee.save(UPDATED_SUMMARY, WRITE_TIME + 1).block();
+        testee.save(SUMMARY, WRITE_TIME).block();
+
+        assertThat(testee.retrieve(MAILBOX_ID).block()).isEqualTo(UPDATED_SUMMARY);
+    }
+
+    @Test
+    void deleteShouldRemoveSummary() {
+        testee.save(SUMMARY, WRITE_TIME).block();
+        testee.delete(MAILBOX_ID, WRITE_TIME + 1).block();
+
+        assertThat(testee.retrieve(MAILBOX_ID).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void deleteShouldNotRemoveSummaryComputedLater() {
+        testee.save(SUMMARY, WRITE_TIME + 1).block();
+        testee.delete(MAILBOX_ID, WRITE_TIME).block();
+
+        assertThat(testee.retrieve(MAILBOX_ID).block()).isEqualTo(SUMMARY);
+    }
+
+    @Test
+    void retrieveSeveralShouldReturnSummariesOfAllRequestedMailboxes() {
+        MailboxSummary otherSummary = summary(OTHER_MAILBOX_ID, 1, 1, Optional.of(MessageUid.of(1)), Optional.of(MessageUid.of(1)));
+        testee.save(SUMMARY, WRITE_TIME).block();
+        testee.save(otherSummary, WRITE_TIME).block();
+
+        assertThat(testee.retrieve(ImmutableList.of(MAILBOX_ID, OTHER_MAILBOX_ID)).collectList().block())
+            .containsOnly(SUMMARY, otherSummary);
+    }
+
+    @Test
+    void retrieveSeveralShouldOmitMailboxesWithoutSummary() {
+        testee.save(SUMMARY, WRITE_TIME).block();
+
+        assertThat(testee.retrieve(ImmutableList.of(MAILBOX_ID, OTHER_MAILBOX_ID)).collectList().block())
+            .containsOnly(SUMMARY);
+    }
+
+    @Test
+    void retrieveSeveralShouldReturnEmptyWhenNoMailboxes() {
+        assertThat(testee.retrieve(ImmutableList.of()).collectList().block())
+            .isEmpty();
+    }
+}
@@ -19,6 +19,13 @@
 package org.apache.james.mailbox.cassandra.mail;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
@@ -34,6 +41,8 @@ import org.apache.james.backends.cassandra.CassandraCluster;
 import org.apache.james.backends.cassandra.CassandraClusterExtension;
 import org.apache.james.backends.cassandra.components.CassandraModule;
 import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionModule;
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.api.BucketName;
 import org.apache.james.blob.api.HashBlobId;
 import org.apache.james.blob.cassandra.CassandraBlobModule;
 import org.apache.james.blob.cassandra.CassandraBlobStore;
@@ -46,6 +55,7 @@ import org.apache.james.mailbox.model.ComposedMessageId;
 import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
 import org.apache.james.mailbox.model.MessageAttachmentMetadata;
 import org.apache.james.mailbox.model.MessageId;
+import org.apache.james.mailbox.store.StoredBody;
 import org.apache.james.mailbox.store.mail.MessageMapper;
 import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
 import org.apache.james.mailbox.store.mail.model.impl.SimpleMailboxMessage;
@@ -62,6 +72,7 @@ class CassandraMessageDAOTest {
     private static final int BODY_START = 16;
     private static final CassandraId MAILBOX_ID = CassandraId.timeBased();
     private static final String CONTENT = "Subject: Test7 \n\nBody7\n.\n";
+    private static final byte[] BODY = CONTENT.substring(BODY_START).getBytes(StandardCharsets.UTF_8);
     private static final MessageUid messageUid = MessageUid.of(1);
     private static final List<MessageAttachmentMetadata> NO_ATTACHMENT = ImmutableList.of();
 
@@ -75,6 +86,8 @@ class CassandraMessageDAOTest {
             MODULES);
 
     private CassandraMessageDAO testee;
+    private CassandraBlobStore blobStore;
+    private HashBlobId.Factory blobIdFactory;
     private CassandraMessageId.Factory messageIdFactory;
 
     private SimpleMailboxMessage message;
@@ -85,8 +98,8 @@ class CassandraMessageDAOTest {
     void setUp(CassandraCluster cassandra) {
         messageIdFactory = new CassandraMessageId.Factory();
         messageId = messageIdFactory.generate();
-        CassandraBlobStore blobStore = CassandraBlobStore.forTesting(cassandra.getConf());
-        HashBlobId.Factory blobIdFactory = new HashBlobId.Factory();
+        blobStore = spy(CassandraBlobStore.forTesting(cassandra.getConf()));
+        blobIdFactory = new HashBlobId.Factory();
         testee = new CassandraMessageDAO(
             cassandra.getConf(),
             cassandra.getTypesProvider(),
@@ -172,6 +185,47 @@ class CassandraMessageDAOTest {
             .isEqualTo(CONTENT.substring(0, BODY_START));
     }
 
+    @Test
+    void saveShouldReferenceTheStoredBodyWhenItMatches() throws Exception {
+        String bodyBlobId = blobStore.save(blobStore.getDefaultBucketName(), BODY, BlobStore.StoragePolicy.LOW_COST).block().asString();
+        clearInvocations(blobStore);
+        PropertyBuilder propertyBuilder = new PropertyBuilder();
+        StoredBody.record(bodyBlobId, propertyBuilder);
+        message = createMessage(messageId, CONTENT, BODY_START, propertyBuilder, NO_ATTACHMENT);
+
+        testee.save(message).block();
+
+        verify(blobStore, never()).save(any(BucketName.class), eq(BODY), any(BlobStore.StoragePolicy.class));
+        assertThat(IOUtils.toString(toMessage(testee.retrieveMessage(messageIdWithMetadata, MessageMapper.FetchType.Full)).getContent(), StandardCharsets.UTF_8))
+            .isEqualTo(CONTENT);
+    }
+
+    @Test
+    void saveShouldStoreTheBodyWhenTheStoredBodyDoesNotMatch() throws Exception {
+        PropertyBuilder propertyBuilder = new PropertyBuilder();
+        StoredBody.record(blobIdFactory.forPayload("other".getBytes(StandardCharsets.UTF_8)).asString(), propertyBuilder);
+        message = createMessage(messageId, CONTENT, BODY_START, propertyBuilder, NO_ATTACHMENT);
+
+        testee.save(message).block();
+
+        verify(blobStore, times(1)).save(any(BucketName.class), eq(BODY), any(BlobStore.StoragePolicy.class));
+        assertThat(IOUtils.toString(toMessage(testee.retrieveMessage(messageIdWithMetadata, MessageMapper.FetchType.Full)).getContent(), StandardCharsets.UTF_8))
+            .isEqualTo(CONTENT);
+    }
+
+    @Test
+    void saveShouldNotPersistTheStoredBody() throws Exception {
+        PropertyBuilder propertyBuilder = new PropertyBuilder();
+        StoredBody.record(blobIdFactory.forPayload(BODY).asString(), propertyBuilder);
+        message = createMessage(messageId, CONTENT, BODY_START, propertyBuilder, NO_ATTACHMENT);
+
+        testee.save(message).block();
+
+        MessageRepresentation representation = toMessage(testee.retrieveMessage(messageIdWithMetadata, MessageMapper.FetchType.Metadata));
+        assertThat(StoredBody.retrieve(representation.getPropertyBuilder().toProperties()))
+            .isEmpty();
+    }
+
     private SimpleMailboxMessage createMessage(MessageId messageId, String content, int bodyStart, PropertyBuilder propertyBuilder, Collection<MessageAttachmentMetadata> attachments) {
         return SimpleMailboxMessage.builder()
             .messageId(messageId)
@@ -0,0 +1,303 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.truncate;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import javax.mail.Flags;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.init.configuration.CassandraConfiguration;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.table.CassandraMessageIdBucketTable;
+import org.apache.james.mailbox.cassandra.table.CassandraMessageIds;
+import org.apache.james.mailbox.model.ComposedMessageId;
+import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.util.streams.Limit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class CassandraMessageIdDAOBucketedTest extends CassandraMessageIdDAOTest {
+    private static final int BUCKET_SIZE = 3;
+
+    CassandraMessageIdDAO legacyDAO;
+
+    @Override
+    CassandraMessageIdDAO createTestee(CassandraCluster cassandra) {
+        CassandraMessageIdDAO bucketedDAO = bucketedDAO(cassandra, BUCKET_SIZE);
+        bucketedDAO.activateBucketedLayout().block();
+        return bucketedDAO;
+    }
+
+    private CassandraMessageIdDAO bucketedDAO(CassandraCluster cassandra, int bucketSize) {
+        return new CassandraMessageIdDAO(cassandra.getConf(), messageIdFactory,
+            CassandraConfiguration.builder()
+                .uidIndexBucketSize(bucketSize)
+                .build());
+    }
+
+    @BeforeEach
+    void setUpLegacyDAO(CassandraCluster cassandra) {
+        legacyDAO = new CassandraMessageIdDAO(cassandra.getConf(), messageIdFactory);
+    }
+
+    @Test
+    void configuredNodesShouldKeepTheFormerLayoutUntilActivation(CassandraCluster cassandra) {
+        cassandra.getConf().execute(truncate(CassandraMessageIdBucketTable.Layout.TABLE_NAME));
+        CassandraMessageIdDAO notActivatedDAO = bucketedDAO(cassandra, BUCKET_SIZE);
+        CassandraId mailboxId = CassandraId.timeBased();
+
+        notActivatedDAO.insert(entry(mailboxId, 1)).block();
+
+        assertThat(legacyDAO.retrieveMessages(mailboxId, MessageRange.all(), Limit.unlimited()).count().block())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void configuredNodesShouldSwitchLayoutUponActivationByAnotherNode(CassandraCluster cassandra) {
+        cassandra.getConf().execute(truncate(CassandraMessageIdBucketTable.Layout.TABLE_NAME));
+        CassandraMessageIdDAO otherNodeDAO = bucketedDAO(cassandra, BUCKET_SIZE);
+        CassandraId mailboxId = CassandraId.timeBased();
+        otherNodeDAO.insert(entry(mailboxId, 1)).block();
+
+        bucketedDAO(cassandra, BUCKET_SIZE).activateBucketedLayout().block();
+        otherNodeDAO.insert(entry(mailboxId, 2)).block();
+
+        assertThat(legacyDAO.retrieveMessages(mailboxId, MessageRange.all(), Limit.unlimited()).count().block())
+            .isEqualTo(1);
+        assertThat(otherNodeDAO.retrieveMessages(mailboxId, MessageRange.all(), Limit.unlimited()).count().block())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void activationShouldFailWhenAnotherBucketSizeIsActivated(CassandraCluster cassandra) {
+        assertThatThrownBy(() -> bucketedDAO(cassandra, BUCKET_SIZE + 1).activateBucketedLayout().block())
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void activationShouldKeepTheFirstActivatedBucketSize(CassandraCluster cassandra) {
+        bucketedDAO(cassandra, BUCKET_SIZE + 1).activateBucketedLayout()
+            .onErrorResume(IllegalStateException.class, e -> Mono.empty())
+            .block();
+
+        assertThat(testee.retrieveActivatedBucketSize().block()).isEqualTo(BUCKET_SIZE);
+    }
+
+    @Test
+    void nodesConfiguredWithAnotherBucketSizeShouldFailOnceActivated(CassandraCluster cassandra) {
+        CassandraMessageIdDAO otherBucketSizeDAO = bucketedDAO(cassandra, BUCKET_SIZE + 1);
+
+        assertThatThrownBy(() -> otherBucketSizeDAO.insert(entry(CassandraId.timeBased(), 1)).block())
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void retrieveMessagesShouldPreserveUidOrderAcrossBuckets() {
+        CassandraId mailboxId = CassandraId.timeBased();
+        Flux.range(1, 20)
+            .flatMap(uid -> testee.insert(entry(mailboxId, uid)))
+            .blockLast();
+
+        assertThat(testee.retrieveMessages(mailboxId, MessageRange.all(), Limit.unlimited())
+                .map(message -> message.getComposedMessageId().getUid().asLong())
+                .collectList()
+                .block())
+            .containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L, 12L, 13L, 14L, 15L, 16L, 17L, 18L, 19L, 20L);
+    }
+
+    @Test
+    void retrieveMessagesShouldApplyLimitAcrossBuckets() {
+        CassandraId mailboxId = CassandraId.timeBased();
+        Flux.range(1, 20)
+            .flatMap(uid -> testee.insert(entry(mailboxId, uid)))
+            .blockLast();
+
+        assertThat(testee.retrieveMessages(mailboxId, MessageRange.from(MessageUid.of(5)), Limit.limit(5))
+                .map(message -> message.getComposedMessageId().getUid().asLong())
+                .collectList()
+                .block())
+            .containsExactly(5L, 6L, 7L, 8L, 9L);
+    }
+
+    @Test
+    void retrieveMessagesShouldRespectRangeBoundsWithinBuckets() {
+        CassandraId mailboxId = CassandraId.timeBased();
+        Flux.range(1, 20)
+            .flatMap(uid -> testee.insert(entry(mailboxId, uid)))
+            .blockLast();
+
+        assertThat(testee.retrieveMessages(mailboxId, MessageRange.range(MessageUid.of(5), MessageUid.of(10)), Limit.unlimited())
+                .map(message -> message.getComposedMessageId().getUid().asLong())
+                .collectList()
+                .block())
+            .containsExactly(5L, 6L, 7L, 8L, 9L, 10L);
+    }
+
+    @Test
+    void retrieveMessagesShouldMergeLegacyEntries() {
+        CassandraId mailboxId = CassandraId.timeBased();
+        Flux.merge(
+                legacyDAO.insert(entry(mailboxId, 1)),
+                testee.insert(entry(mailboxId, 2)),
+                legacyDAO.insert(entry(mailboxId, 3)),
+                testee.insert(entry(mailboxId, 4)))
+            .blockLast();
+
+        assertThat(testee.retrieveMessages(mailboxId, MessageRange.all(), Limit.unlimited())
+                .map(message -> message.getComposedMessageId().getUid().asLong())
+                .collectList()
+                .block())
+            .containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void retrieveShouldReturnLegacyEntries() {
+        CassandraId mailboxId = CassandraId.timeBased();
+        ComposedMessageIdWithMetaData entry = entry(mailboxId, 1);
+        legacyDAO.insert(entry).block();
+
+        assertThat(testee.retrieve(mailboxId, MessageUid.of(1)).block()).contains(entry);
+    }
+
+    @Test
+    void updateMetadataShouldMoveLegacyEntriesToTheirBucket() {
+        CassandraId mailboxId = CassandraId.timeBased();
+        ComposedMessageIdWithMetaData entry = entry(mailboxId, 1);
+        legacyDAO.insert(entry).block();
+
+        testee.updateMetadata(entry).block();
+
+        assertThat(testee.retrieveAllLegacyMessages().collectList().block()).isEmpty();
+        assertThat(testee.retrieve(mailboxId, MessageUid.of(1)).block()).contains(entry);
+    }
+
+    @Test
+    void deleteShouldDeleteLegacyEntries() {
+        CassandraId mailboxId = CassandraId.timeBased();
+        legacyDAO.insert(entry(mailboxId, 1)).block();
+
+        testee.delete(mailboxId, MessageUid.of(1)).block();
+
+        assertThat(testee.retrieve(mailboxId, MessageUid.of(1)).block()).isEmpty();
+    }
+
+    @Test
+    void retrieveMessagesShouldNotReturnDuplicatesWhenAnEntryIsInBothLayouts() {
+        CassandraId mailboxId = CassandraId.timeBased();
+        ComposedMessageIdWithMetaData entry = entry(mailboxId, 1);
+        legacyDAO.insert(entry).block();
+        testee.insert(entry).block();
+
+        assertThat(testee.retrieveMessages(mailboxId, MessageRange.all(), Limit.unlimited()).collectList().block())
+            .containsExactly(entry);
+    }
+
+    @Test
+    void fullListingShouldMarkMailboxesWithoutLegacyEntriesAsMigrated() {
+        CassandraId mailboxId = CassandraId.timeBased();
+        testee.insert(entry(mailboxId, 1)).block();
+        testee.retrieveMessages(mailboxId, MessageRange.all(), Limit.unlimited()).blockLast();
+
+        legacyDAO.insert(entry(mailboxId, 2)).block();
+
+        assertThat(testee.retrieveMessages(mailboxId, MessageRange.all(), Limit.unlimited())
+                .map(message -> message.getComposedMessageId().getUid().asLong())
+                .collectList()
+                .block())
+            .containsExactly(1L);
+    }
+
+    @Test
+    void partialListingShouldNotMarkMailboxesAsMigrated() {
+        CassandraId mailboxId = CassandraId.timeBased();
+        testee.insert(entry(mailboxId, 1)).block();
+        testee.retrieveMessages(mailboxId, MessageRange.all(), Limit.limit(1)).blockLast();
+
+        legacyDAO.insert(entry(mailboxId, 2)).block();
+
+        assertThat(testee.retrieveMessages(mailboxId, MessageRange.all(), Limit.unlimited())
+                .map(message -> message.getComposedMessageId().getUid().asLong())
+                .collectList()
+                .block())
+            .containsExactly(1L, 2L);
+    }
+
+    @Test
+    void deleteShouldNotWriteToTheLegacyPartitionOfMigratedMailboxes() {
+        CassandraId mailboxId = CassandraId.timeBased();
+        testee.insert(entry(mailboxId, 1)).block();
+        testee.dropLegacyPartition(mailboxId).block();
+        ComposedMessageIdWithMetaData legacyEntry = entry(mailboxId, 1);
+        legacyDAO.insert(legacyEntry).block();
+
+        testee.delete(mailboxId, MessageUid.of(1)).block();
+
+        assertThat(legacyDAO.retrieve(mailboxId, MessageUid.of(1)).block()).contains(legacyEntry);
+    }
+
+    @Test
+    void deleteMailboxShouldRemoveTheBucketList(CassandraCluster cassandra) {
+        CassandraId mailboxId = CassandraId.timeBased();
+        Flux.range(1, 10)
+            .flatMap(uid -> testee.insert(entry(mailboxId, uid)))
+            .blockLast();
+        Flux.range(1, 10)
+            .flatMap(uid -> testee.delete(mailboxId, MessageUid.of(uid)))
+            .blockLast();
+
+        testee.deleteMailbox(mailboxId).block();
+
+        assertThat(cassandra.getConf().execute(select().from(CassandraMessageIdBucketTable.Buckets.TABLE_NAME)
+                .where(eq(CassandraMessageIds.MAILBOX_ID, mailboxId.asUuid())))
+                .all())
+            .isEmpty();
+    }
+
+    @Test
+    void deleteMailboxShouldForgetTheMigrationMarker() {
+        CassandraId mailboxId = CassandraId.timeBased();
+        testee.dropLegacyPartition(mailboxId).block();
+
+        testee.deleteMailbox(mailboxId).block();
+
+        ComposedMessageIdWithMetaData legacyEntry = entry(mailboxId, 1);
+        legacyDAO.insert(legacyEntry).block();
+        assertThat(testee.retrieve(mailboxId, MessageUid.of(1)).block()).contains(legacyEntry);
+    }
+
+    private ComposedMessageIdWithMetaData entry(CassandraId mailboxId, int uid) {
+        return ComposedMessageIdWithMetaData.builder()
+            .composedMessageId(new ComposedMessageId(mailboxId, messageIdFactory.generate(), MessageUid.of(uid)))
+            .flags(new Flags())
+            .modSeq(ModSeq.of(uid))
+            .build();
+    }
+}
@@ -0,0 +1,102 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.Flags;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.backends.cassandra.init.configuration.CassandraConfiguration;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.ids.CassandraMessageId;
+import org.apache.james.mailbox.cassandra.modules.CassandraMessageModule;
+import org.apache.james.mailbox.model.ComposedMessageId;
+import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.util.streams.Limit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Stopwatch;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Reports the latency of listing the last UIDs of growing mailboxes, with and without the bucketed layout.
+ *
+ * Only run with the stress profile.
+ */
+@EnabledIfSystemProperty(named = "james.stress.tests", matches = "true")
+class CassandraMessageIdDAOListingStressTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CassandraMessageIdDAOListingStressTest.class);
+    private static final int[] MAILBOX_SIZES = {1_000, 10_000, 50_000};
+    private static final int LISTED_UID_COUNT = 500;
+    private static final int READ_ITERATIONS = 20;
+    private static final int BUCKET_SIZE = 1_000;
+
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(CassandraMessageModule.MODULE);
+
+    private final CassandraMessageId.Factory messageIdFactory = new CassandraMessageId.Factory();
+
+    @Test
+    void listingLatencyShouldBeReportedForBothLayouts(CassandraCluster cassandra) {
+        CassandraMessageIdDAO legacyDAO = new CassandraMessageIdDAO(cassandra.getConf(), messageIdFactory);
+        CassandraMessageIdDAO bucketedDAO = new CassandraMessageIdDAO(cassandra.getConf(), messageIdFactory,
+            CassandraConfiguration.builder()
+                .uidIndexBucketSize(BUCKET_SIZE)
+                .build());
+        bucketedDAO.activateBucketedLayout().block();
+
+        for (int mailboxSize : MAILBOX_SIZES) {
+            LOGGER.info("Mailbox of {} messages: legacy layout {} us, bucketed layout {} us",
+                mailboxSize, measureListingMicros(legacyDAO, mailboxSize), measureListingMicros(bucketedDAO, mailboxSize));
+        }
+    }
+
+    private long measureListingMicros(CassandraMessageIdDAO dao, int mailboxSize) {
+        CassandraId mailboxId = CassandraId.timeBased();
+        Flux.range(1, mailboxSize)
+            .flatMap(uid -> dao.insert(entry(mailboxId, uid)), 64)
+            .blockLast();
+        MessageRange lastUids = MessageRange.from(MessageUid.of(mailboxSize - LISTED_UID_COUNT + 1));
+
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        for (int i = 0; i < READ_ITERATIONS; i++) {
+            dao.retrieveMessages(mailboxId, lastUids, Limit.unlimited()).blockLast();
+        }
+        return stopwatch.elapsed(TimeUnit.MICROSECONDS) / READ_ITERATIONS;
+    }
+
+    private ComposedMessageIdWithMetaData entry(CassandraId mailboxId, int uid) {
+        return ComposedMessageIdWithMetaData.builder()
+            .composedMessageId(new ComposedMessageId(mailboxId, messageIdFactory.generate(), MessageUid.of(uid)))
+            .flags(new Flags())
+            .modSeq(ModSeq.of(uid))
+            .build();
+    }
+}
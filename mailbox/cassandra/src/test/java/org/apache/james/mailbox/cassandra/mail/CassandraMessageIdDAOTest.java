@@ -52,13 +52,17 @@ class CassandraMessageIdDAOTest {
     @RegisterExtension
     static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(MODULE);
 
-    private CassandraMessageId.Factory messageIdFactory;
-    private CassandraMessageIdDAO testee;
+    CassandraMessageId.Factory messageIdFactory;
+    CassandraMessageIdDAO testee;
 
     @BeforeEach
     void setUp(CassandraCluster cassandra) {
         messageIdFactory = new CassandraMessageId.Factory();
-        testee = new CassandraMessageIdDAO(cassandra.getConf(), messageIdFactory);
+        testee = createTestee(cassandra);
+    }
+
+    CassandraMessageIdDAO createTestee(CassandraCluster cassandra) {
+        return new CassandraMessageIdDAO(cassandra.getConf(), messageIdFactory);
     }
 
     @Test
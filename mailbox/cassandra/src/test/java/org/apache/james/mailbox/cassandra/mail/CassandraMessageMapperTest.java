@@ -20,9 +20,11 @@
 package org.apache.james.mailbox.cassandra.mail;
 
 import static org.apache.james.backends.cassandra.Scenario.Builder.fail;
+import static org.apache.james.mailbox.store.mail.AbstractMessageMapper.UNLIMITED;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 
 import javax.mail.Flags;
@@ -47,6 +49,7 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
+import com.datastax.driver.core.BoundStatement;
 import com.github.fge.lambdas.Throwing;
 import com.google.common.collect.ImmutableList;
 
@@ -214,6 +217,72 @@ class CassandraMessageMapperTest extends MessageMapperTest {
                 .hasSize(1);
         }
 
+        @Test
+        void copyShouldReserveUidsAndModSeqsOnce(CassandraCluster cassandra) throws MailboxException {
+            saveMessages();
+            List<MailboxMessage> originals = ImmutableList.copyOf(messageMapper.findInMailbox(benwaInboxMailbox, MessageRange.all(), FetchType.Metadata, UNLIMITED));
+
+            StatementRecorder statementRecorder = new StatementRecorder();
+            cassandra.getConf().recordStatements(statementRecorder);
+
+            messageMapper.copy(benwaWorkMailbox, originals);
+
+            SoftAssertions.assertSoftly(softly -> {
+                softly.assertThat(statementRecorder.listExecutedStatements(Selector.preparedStatementStartingWith("UPDATE modseq SET ")).size()
+                        + statementRecorder.listExecutedStatements(Selector.preparedStatementStartingWith("INSERT INTO modseq ")).size())
+                    .isEqualTo(1);
+                softly.assertThat(statementRecorder.listExecutedStatements(Selector.preparedStatementStartingWith("UPDATE messageCounter SET ")).size()
+                        + statementRecorder.listExecutedStatements(Selector.preparedStatementStartingWith("INSERT INTO messageCounter ")).size())
+                    .isEqualTo(1);
+            });
+        }
+
+        @Test
+        void copyShouldGroupCounterUpdates(CassandraCluster cassandra) throws MailboxException {
+            saveMessages();
+            List<MailboxMessage> originals = ImmutableList.copyOf(messageMapper.findInMailbox(benwaInboxMailbox, MessageRange.all(), FetchType.Metadata, UNLIMITED));
+
+            StatementRecorder statementRecorder = new StatementRecorder();
+            cassandra.getConf().recordStatements(statementRecorder);
+
+            messageMapper.copy(benwaWorkMailbox, originals);
+
+            assertThat(statementRecorder.listExecutedStatements(
+                Selector.preparedStatementStartingWith("UPDATE mailboxCounters SET ")))
+                .hasSize(1);
+        }
+
+        @Test
+        void copyShouldNotAccessMessageTable(CassandraCluster cassandra) throws MailboxException {
+            saveMessages();
+            List<MailboxMessage> originals = ImmutableList.copyOf(messageMapper.findInMailbox(benwaInboxMailbox, MessageRange.all(), FetchType.Metadata, UNLIMITED));
+
+            StatementRecorder statementRecorder = new StatementRecorder();
+            cassandra.getConf().recordStatements(statementRecorder);
+
+            messageMapper.copy(benwaWorkMailbox, originals);
+
+            assertThat(statementRecorder.listExecutedStatements(Selector.ALL))
+                .filteredOn(statement -> statement instanceof BoundStatement)
+                .extracting(statement -> ((BoundStatement) statement).preparedStatement().getQueryString())
+                .noneMatch(query -> query.contains(" messageV2 "));
+        }
+
+        @Test
+        void moveShouldGroupCounterUpdates(CassandraCluster cassandra) throws MailboxException {
+            saveMessages();
+            List<MailboxMessage> originals = ImmutableList.copyOf(messageMapper.findInMailbox(benwaInboxMailbox, MessageRange.all(), FetchType.Metadata, UNLIMITED));
+
+            StatementRecorder statementRecorder = new StatementRecorder();
+            cassandra.getConf().recordStatements(statementRecorder);
+
+            messageMapper.move(benwaWorkMailbox, originals);
+
+            assertThat(statementRecorder.listExecutedStatements(
+                Selector.preparedStatementStartingWith("UPDATE mailboxCounters SET ")))
+                .hasSize(2);
+        }
+
         private void consume(Iterator<MailboxMessage> inMailbox) {
             ImmutableList.copyOf(inMailbox);
         }
@@ -50,6 +50,7 @@ import org.junit.jupiter.api.extension.RegisterExtension;
 
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.github.fge.lambdas.Throwing;
+import com.github.steveash.guavate.Guavate;
 
 import reactor.core.scheduler.Schedulers;
 
@@ -114,11 +115,16 @@ class CassandraModSeqProviderTest {
                     .thenExecuteNormally()
                     .times(1)
                     .whenQueryStartsWith("SELECT nextModseq FROM modseq WHERE mailboxId=:mailboxId;"));
+        // Concurrent allocations within a provider are coalesced, a second James node is needed to race
+        CassandraModSeqProvider otherNodeModSeqProvider = new CassandraModSeqProvider(
+            cassandra.getConf(),
+            CassandraConfiguration.DEFAULT_CONFIGURATION,
+            cassandraCluster.getCassandraConsistenciesConfiguration());
 
         CompletableFuture<ModSeq> operation1 = modSeqProvider.nextModSeq(CASSANDRA_ID)
             .subscribeOn(Schedulers.elastic())
             .toFuture();
-        CompletableFuture<ModSeq> operation2 = modSeqProvider.nextModSeq(CASSANDRA_ID)
+        CompletableFuture<ModSeq> operation2 = otherNodeModSeqProvider.nextModSeq(CASSANDRA_ID)
             .subscribeOn(Schedulers.elastic())
             .toFuture();
 
@@ -153,4 +159,48 @@ class CassandraModSeqProviderTest {
 
         assertThat(modSeqs).hasSize(100);
     }
+
+    @Test
+    void nextModSeqShouldGenerateContiguousValuesWhenParallelCalls() throws ExecutionException, InterruptedException {
+        int threadCount = 10;
+        int nbEntries = 100;
+
+        ConcurrentSkipListSet<ModSeq> modSeqs = new ConcurrentSkipListSet<>();
+        ConcurrentTestRunner.builder()
+            .operation((threadNumber, step) -> modSeqs.add(modSeqProvider.nextModSeq(mailbox)))
+            .threadCount(threadCount)
+            .operationCount(nbEntries / threadCount)
+            .runSuccessfullyWithin(Duration.ofMinutes(1));
+
+        assertThat(modSeqs)
+            .containsExactlyElementsOf(LongStream.rangeClosed(1, nbEntries)
+                .mapToObj(ModSeq::of)
+                .collect(Guavate.toImmutableList()));
+        assertThat(modSeqProvider.highestModSeq(mailbox)).isEqualTo(ModSeq.of(nbEntries));
+    }
+
+    @Test
+    void nextModSeqShouldGenerateUniqueValuesWhenParallelCallsOnSeveralNodes(CassandraCluster cassandra) throws ExecutionException, InterruptedException {
+        CassandraModSeqProvider otherNodeModSeqProvider = new CassandraModSeqProvider(
+            cassandra.getConf(),
+            CassandraConfiguration.DEFAULT_CONFIGURATION,
+            cassandraCluster.getCassandraConsistenciesConfiguration());
+        int threadCount = 10;
+        int nbEntries = 100;
+
+        ConcurrentSkipListSet<ModSeq> modSeqs = new ConcurrentSkipListSet<>();
+        ConcurrentTestRunner.builder()
+            .operation((threadNumber, step) -> {
+                if (threadNumber % 2 == 0) {
+                    modSeqs.add(modSeqProvider.nextModSeq(mailbox));
+                } else {
+                    modSeqs.add(otherNodeModSeqProvider.nextModSeq(mailbox));
+                }
+            })
+            .threadCount(threadCount)
+            .operationCount(nbEntries / threadCount)
+            .runSuccessfullyWithin(Duration.ofMinutes(1));
+
+        assertThat(modSeqs).hasSize(nbEntries);
+    }
 }
@@ -42,6 +42,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
 import com.github.fge.lambdas.Throwing;
+import com.github.steveash.guavate.Guavate;
 
 class CassandraUidProviderTest {
     private static final CassandraId CASSANDRA_ID = new CassandraId.Factory().fromString("e22b3ac0-a80b-11e7-bb00-777268d65503");
@@ -99,4 +100,48 @@ class CassandraUidProviderTest {
 
         assertThat(messageUids).hasSize(nbEntries);
     }
+
+    @Test
+    void nextUidShouldGenerateContiguousValuesWhenParallelCalls() throws ExecutionException, InterruptedException {
+        int threadCount = 10;
+        int nbEntries = 100;
+
+        ConcurrentSkipListSet<MessageUid> messageUids = new ConcurrentSkipListSet<>();
+        ConcurrentTestRunner.builder()
+            .operation((threadNumber, step) -> messageUids.add(uidProvider.nextUid(mailbox)))
+            .threadCount(threadCount)
+            .operationCount(nbEntries / threadCount)
+            .runSuccessfullyWithin(Duration.ofMinutes(1));
+
+        assertThat(messageUids)
+            .containsExactlyElementsOf(LongStream.rangeClosed(1, nbEntries)
+                .mapToObj(MessageUid::of)
+                .collect(Guavate.toImmutableList()));
+        assertThat(uidProvider.lastUid(mailbox)).contains(MessageUid.of(nbEntries));
+    }
+
+    @Test
+    void nextUidShouldGenerateUniqueValuesWhenParallelCallsOnSeveralNodes(CassandraCluster cassandra) throws ExecutionException, InterruptedException {
+        CassandraUidProvider otherNodeUidProvider = new CassandraUidProvider(
+            cassandra.getConf(),
+            CassandraConfiguration.DEFAULT_CONFIGURATION,
+            cassandraCluster.getCassandraConsistenciesConfiguration());
+        int threadCount = 10;
+        int nbEntries = 100;
+
+        ConcurrentSkipListSet<MessageUid> messageUids = new ConcurrentSkipListSet<>();
+        ConcurrentTestRunner.builder()
+            .operation((threadNumber, step) -> {
+                if (threadNumber % 2 == 0) {
+                    messageUids.add(uidProvider.nextUid(mailbox));
+                } else {
+                    messageUids.add(otherNodeUidProvider.nextUid(mailbox));
+                }
+            })
+            .threadCount(threadCount)
+            .operationCount(nbEntries / threadCount)
+            .runSuccessfullyWithin(Duration.ofMinutes(1));
+
+        assertThat(messageUids).hasSize(nbEntries);
+    }
 }
@@ -0,0 +1,134 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.steveash.guavate.Guavate;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class RangeAllocatorTest {
+    private static final CassandraId MAILBOX_ID = CassandraId.timeBased();
+    private static final Duration RESERVATION_LATENCY = Duration.ofMillis(50);
+
+    private AtomicLong lastReserved;
+    private ConcurrentLinkedQueue<Integer> reservedRangeSizes;
+
+    @BeforeEach
+    void setUp() {
+        lastReserved = new AtomicLong(0);
+        reservedRangeSizes = new ConcurrentLinkedQueue<>();
+    }
+
+    private Mono<Long> reserve(CassandraId mailboxId, int rangeSize) {
+        return Mono.delay(RESERVATION_LATENCY)
+            .map(any -> {
+                reservedRangeSizes.add(rangeSize);
+                return lastReserved.getAndAdd(rangeSize) + 1;
+            });
+    }
+
+    @Test
+    void nextShouldReturnIncreasingValuesWhenSequentialCalls() {
+        RangeAllocator testee = new RangeAllocator(this::reserve, 10);
+
+        List<Long> values = IntStream.range(0, 5)
+            .mapToObj(i -> testee.next(MAILBOX_ID).block())
+            .collect(Guavate.toImmutableList());
+
+        assertThat(values).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(reservedRangeSizes).containsOnly(1);
+    }
+
+    @Test
+    void nextShouldCoalesceConcurrentCalls() {
+        RangeAllocator testee = new RangeAllocator(this::reserve, 100);
+        int requestCount = 50;
+
+        List<Long> values = Flux.range(0, requestCount)
+            .flatMap(i -> testee.next(MAILBOX_ID), requestCount)
+            .collectSortedList()
+            .block();
+
+        assertThat(values).containsExactlyElementsOf(LongStream.rangeClosed(1, requestCount).boxed()
+            .collect(Guavate.toImmutableList()));
+        assertThat(reservedRangeSizes.size()).isLessThan(requestCount);
+    }
+
+    @Test
+    void nextShouldNotReserveMoreThanTheMaximumRange() {
+        int maxRangeSize = 5;
+        RangeAllocator testee = new RangeAllocator(this::reserve, maxRangeSize);
+        int requestCount = 50;
+
+        List<Long> values = Flux.range(0, requestCount)
+            .flatMap(i -> testee.next(MAILBOX_ID), requestCount)
+            .collectList()
+            .block();
+
+        assertThat(values).doesNotHaveDuplicates().hasSize(requestCount);
+        assertThat(reservedRangeSizes).allSatisfy(rangeSize -> assertThat(rangeSize).isLessThanOrEqualTo(maxRangeSize));
+    }
+
+    @Test
+    void nextShouldAllocateIndependentlyForEachMailbox() {
+        RangeAllocator testee = new RangeAllocator((mailboxId, rangeSize) -> Mono.just(1L), 10);
+
+        assertThat(testee.next(CassandraId.timeBased()).block()).isEqualTo(1L);
+        assertThat(testee.next(CassandraId.timeBased()).block()).isEqualTo(1L);
+    }
+
+    @Test
+    void nextShouldPropagateReservationErrors() {
+        RangeAllocator testee = new RangeAllocator((mailboxId, rangeSize) -> Mono.error(new RuntimeException("Cassandra problem")), 10);
+
+        assertThatThrownBy(() -> testee.next(MAILBOX_ID).block())
+            .hasMessage("Cassandra problem");
+    }
+
+    @Test
+    void nextShouldRecoverAfterReservationErrors() {
+        AtomicLong attempts = new AtomicLong(0);
+        RangeAllocator testee = new RangeAllocator((mailboxId, rangeSize) -> {
+            if (attempts.getAndIncrement() == 0) {
+                return Mono.error(new RuntimeException("Cassandra problem"));
+            }
+            return Mono.just(1L);
+        }, 10);
+
+        assertThatThrownBy(() -> testee.next(MAILBOX_ID).block())
+            .isInstanceOf(RuntimeException.class);
+        assertThat(testee.next(MAILBOX_ID).block()).isEqualTo(1L);
+    }
+}
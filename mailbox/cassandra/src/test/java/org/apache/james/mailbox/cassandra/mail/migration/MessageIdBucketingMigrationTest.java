@@ -0,0 +1,171 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail.migration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import javax.mail.Flags;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.backends.cassandra.init.configuration.CassandraConfiguration;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.ids.CassandraMessageId;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdDAO;
+import org.apache.james.mailbox.cassandra.modules.CassandraMessageModule;
+import org.apache.james.mailbox.model.ComposedMessageId;
+import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.task.Task;
+import org.apache.james.util.streams.Limit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import reactor.core.publisher.Flux;
+
+class MessageIdBucketingMigrationTest {
+    private static final CassandraId MAILBOX_ID = CassandraId.timeBased();
+
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(CassandraMessageModule.MODULE);
+
+    private CassandraMessageId.Factory messageIdFactory;
+    private CassandraMessageIdDAO legacyDAO;
+    private CassandraMessageIdDAO bucketedDAO;
+    private MessageIdBucketingMigration testee;
+
+    @BeforeEach
+    void setUp(CassandraCluster cassandra) {
+        messageIdFactory = new CassandraMessageId.Factory();
+        legacyDAO = new CassandraMessageIdDAO(cassandra.getConf(), messageIdFactory);
+        bucketedDAO = new CassandraMessageIdDAO(cassandra.getConf(), messageIdFactory,
+            CassandraConfiguration.builder()
+                .uidIndexBucketSize(10)
+                .build());
+        testee = new MessageIdBucketingMigration(bucketedDAO);
+    }
+
+    @Test
+    void migrationShouldMoveLegacyEntriesToBuckets() throws Exception {
+        Flux.range(1, 25)
+            .flatMap(uid -> legacyDAO.insert(entry(uid)))
+            .blockLast();
+
+        Task.Result result = testee.asTask().run();
+
+        assertThat(result).isEqualTo(Task.Result.COMPLETED);
+        assertThat(bucketedDAO.retrieveAllLegacyMessages().collectList().block()).isEmpty();
+        assertThat(bucketedDAO.retrieveMessages(MAILBOX_ID, MessageRange.all(), Limit.unlimited()).count().block())
+            .isEqualTo(25);
+    }
+
+    @Test
+    void migrationShouldBeIdempotent() throws Exception {
+        Flux.range(1, 5)
+            .flatMap(uid -> legacyDAO.insert(entry(uid)))
+            .blockLast();
+
+        testee.apply();
+        testee.apply();
+
+        assertThat(bucketedDAO.retrieveMessages(MAILBOX_ID, MessageRange.all(), Limit.unlimited()).count().block())
+            .isEqualTo(5);
+    }
+
+    @Test
+    void migrationShouldReportMigratedEntries() throws Exception {
+        Flux.range(1, 5)
+            .flatMap(uid -> legacyDAO.insert(entry(uid)))
+            .blockLast();
+
+        testee.apply();
+
+        assertThat(testee.getAdditionalInformation().getMigratedEntryCount()).isEqualTo(5);
+    }
+
+    @Test
+    void migrationShouldDropTheLegacyPartitionOfMigratedMailboxes() throws Exception {
+        Flux.range(1, 5)
+            .flatMap(uid -> legacyDAO.insert(entry(uid)))
+            .blockLast();
+
+        testee.apply();
+
+        assertThat(legacyDAO.retrieveMessages(MAILBOX_ID, MessageRange.all(), Limit.unlimited()).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void migratedMailboxesShouldNotReadTheLegacyPartitionAnymore() throws Exception {
+        Flux.range(1, 5)
+            .flatMap(uid -> legacyDAO.insert(entry(uid)))
+            .blockLast();
+        testee.apply();
+
+        legacyDAO.insert(entry(6)).block();
+
+        assertThat(bucketedDAO.retrieveMessages(MAILBOX_ID, MessageRange.all(), Limit.unlimited()).count().block())
+            .isEqualTo(5);
+    }
+
+    @Test
+    void migrationShouldMigrateSeveralMailboxes() throws Exception {
+        CassandraId otherMailboxId = CassandraId.timeBased();
+        Flux.range(1, 5)
+            .flatMap(uid -> Flux.merge(legacyDAO.insert(entry(uid)), legacyDAO.insert(entry(otherMailboxId, uid))))
+            .blockLast();
+
+        testee.apply();
+
+        assertThat(bucketedDAO.retrieveAllLegacyMessages().collectList().block()).isEmpty();
+        assertThat(bucketedDAO.retrieveMessages(otherMailboxId, MessageRange.all(), Limit.unlimited()).count().block())
+            .isEqualTo(5);
+    }
+
+    @Test
+    void migrationShouldActivateTheBucketedLayout() throws Exception {
+        testee.apply();
+
+        assertThat(legacyDAO.retrieveActivatedBucketSize().block()).isEqualTo(10);
+    }
+
+    @Test
+    void migrationShouldFailWhenBucketingIsNotEnabled() {
+        MessageIdBucketingMigration migration = new MessageIdBucketingMigration(legacyDAO);
+
+        assertThatThrownBy(migration::apply).isInstanceOf(IllegalStateException.class);
+    }
+
+    private ComposedMessageIdWithMetaData entry(int uid) {
+        return entry(MAILBOX_ID, uid);
+    }
+
+    private ComposedMessageIdWithMetaData entry(CassandraId mailboxId, int uid) {
+        return ComposedMessageIdWithMetaData.builder()
+            .composedMessageId(new ComposedMessageId(mailboxId, messageIdFactory.generate(), MessageUid.of(uid)))
+            .flags(new Flags())
+            .modSeq(ModSeq.of(uid))
+            .build();
+    }
+}
@@ -0,0 +1,173 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.quota;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.core.quota.QuotaCountUsage;
+import org.apache.james.core.quota.QuotaSizeUsage;
+import org.apache.james.mailbox.cassandra.modules.CassandraQuotaModule;
+import org.apache.james.mailbox.model.CurrentQuotas;
+import org.apache.james.mailbox.model.QuotaOperation;
+import org.apache.james.mailbox.model.QuotaRoot;
+import org.apache.james.mailbox.quota.CurrentQuotaManager;
+import org.apache.james.mailbox.store.quota.CoalescingCurrentQuotaManager;
+import org.apache.james.mailbox.store.quota.CurrentQuotaManagerContract;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class CassandraCoalescingCurrentQuotaManagerTest implements CurrentQuotaManagerContract {
+    private static final Duration WRITE_LATENCY = Duration.ofMillis(200);
+
+    private static class SlowCountingCurrentQuotaManager implements CurrentQuotaManager {
+        private final CurrentQuotaManager delegate;
+        private final AtomicInteger writeCount;
+
+        SlowCountingCurrentQuotaManager(CurrentQuotaManager delegate) {
+            this.delegate = delegate;
+            this.writeCount = new AtomicInteger();
+        }
+
+        @Override
+        public Mono<QuotaCountUsage> getCurrentMessageCount(QuotaRoot quotaRoot) {
+            return Mono.from(delegate.getCurrentMessageCount(quotaRoot));
+        }
+
+        @Override
+        public Mono<QuotaSizeUsage> getCurrentStorage(QuotaRoot quotaRoot) {
+            return Mono.from(delegate.getCurrentStorage(quotaRoot));
+        }
+
+        @Override
+        public Mono<CurrentQuotas> getCurrentQuotas(QuotaRoot quotaRoot) {
+            return Mono.from(delegate.getCurrentQuotas(quotaRoot));
+        }
+
+        @Override
+        public Mono<Void> increase(QuotaOperation quotaOperation) {
+            return Mono.delay(WRITE_LATENCY)
+                .doOnNext(any -> writeCount.incrementAndGet())
+                .then(Mono.from(delegate.increase(quotaOperation)));
+        }
+
+        @Override
+        public Mono<Void> decrease(QuotaOperation quotaOperation) {
+            return Mono.delay(WRITE_LATENCY)
+                .doOnNext(any -> writeCount.incrementAndGet())
+                .then(Mono.from(delegate.decrease(quotaOperation)));
+        }
+
+        @Override
+        public Mono<Void> setCurrentQuotas(QuotaOperation quotaOperation) {
+            return Mono.from(delegate.setCurrentQuotas(quotaOperation));
+        }
+    }
+
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(CassandraQuotaModule.MODULE);
+
+    CassandraCurrentQuotaManager cassandraCurrentQuotaManager;
+    CoalescingCurrentQuotaManager testee;
+
+    @BeforeEach
+    void setUp() {
+        cassandraCurrentQuotaManager = new CassandraCurrentQuotaManager(cassandraCluster.getCassandraCluster().getConf());
+        testee = new CoalescingCurrentQuotaManager(cassandraCurrentQuotaManager);
+    }
+
+    @Override
+    public CurrentQuotaManager testee() {
+        return testee;
+    }
+
+    @Test
+    void increaseShouldBeStoredOnceCompleted() {
+        testee.increase(RESET_QUOTA_OPERATION).block();
+
+        assertThat(cassandraCurrentQuotaManager.getCurrentQuotas(QUOTA_ROOT).block()).isEqualTo(CURRENT_QUOTAS);
+    }
+
+    @Test
+    void decreaseShouldBeStoredOnceCompleted() {
+        cassandraCurrentQuotaManager.increase(new QuotaOperation(QUOTA_ROOT, QuotaCountUsage.count(20), QuotaSizeUsage.size(200))).block();
+
+        testee.decrease(new QuotaOperation(QUOTA_ROOT, QuotaCountUsage.count(10), QuotaSizeUsage.size(100))).block();
+
+        assertThat(cassandraCurrentQuotaManager.getCurrentQuotas(QUOTA_ROOT).block()).isEqualTo(CURRENT_QUOTAS);
+    }
+
+    @Test
+    void concurrentUpdatesShouldBeCoalesced() {
+        SlowCountingCurrentQuotaManager slowDelegate = new SlowCountingCurrentQuotaManager(cassandraCurrentQuotaManager);
+        CoalescingCurrentQuotaManager coalescingTestee = new CoalescingCurrentQuotaManager(slowDelegate);
+
+        Flux.range(0, 10)
+            .flatMap(i -> coalescingTestee.increase(new QuotaOperation(QUOTA_ROOT, QuotaCountUsage.count(1), QuotaSizeUsage.size(10))))
+            .blockLast();
+
+        assertThat(cassandraCurrentQuotaManager.getCurrentQuotas(QUOTA_ROOT).block()).isEqualTo(CURRENT_QUOTAS);
+        assertThat(slowDelegate.writeCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentIncreasesAndDecreasesShouldBeStoredAsNetUpdates() {
+        SlowCountingCurrentQuotaManager slowDelegate = new SlowCountingCurrentQuotaManager(cassandraCurrentQuotaManager);
+        CoalescingCurrentQuotaManager coalescingTestee = new CoalescingCurrentQuotaManager(slowDelegate);
+
+        Flux.merge(
+                coalescingTestee.increase(new QuotaOperation(QUOTA_ROOT, QuotaCountUsage.count(5), QuotaSizeUsage.size(50))),
+                coalescingTestee.increase(new QuotaOperation(QUOTA_ROOT, QuotaCountUsage.count(15), QuotaSizeUsage.size(150))),
+                coalescingTestee.decrease(new QuotaOperation(QUOTA_ROOT, QuotaCountUsage.count(10), QuotaSizeUsage.size(100))))
+            .blockLast();
+
+        assertThat(cassandraCurrentQuotaManager.getCurrentQuotas(QUOTA_ROOT).block()).isEqualTo(CURRENT_QUOTAS);
+        assertThat(slowDelegate.writeCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    void setCurrentQuotasShouldOverrideConcurrentUpdates() {
+        SlowCountingCurrentQuotaManager slowDelegate = new SlowCountingCurrentQuotaManager(cassandraCurrentQuotaManager);
+        CoalescingCurrentQuotaManager coalescingTestee = new CoalescingCurrentQuotaManager(slowDelegate);
+        coalescingTestee.increase(new QuotaOperation(QUOTA_ROOT, QuotaCountUsage.count(42), QuotaSizeUsage.size(420))).subscribe();
+
+        coalescingTestee.setCurrentQuotas(RESET_QUOTA_OPERATION).block();
+
+        assertThat(cassandraCurrentQuotaManager.getCurrentQuotas(QUOTA_ROOT).block()).isEqualTo(CURRENT_QUOTAS);
+    }
+
+    @Test
+    void stopShouldAwaitPendingUpdates() {
+        SlowCountingCurrentQuotaManager slowDelegate = new SlowCountingCurrentQuotaManager(cassandraCurrentQuotaManager);
+        CoalescingCurrentQuotaManager coalescingTestee = new CoalescingCurrentQuotaManager(slowDelegate);
+        coalescingTestee.increase(RESET_QUOTA_OPERATION).subscribe();
+
+        coalescingTestee.stop();
+
+        assertThat(cassandraCurrentQuotaManager.getCurrentQuotas(QUOTA_ROOT).block()).isEqualTo(CURRENT_QUOTAS);
+    }
+}
@@ -19,19 +19,63 @@
 
 package org.apache.james.mailbox.cassandra.quota;
 
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.incr;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.update;
+import static org.assertj.core.api.Assertions.assertThat;
+
 import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.backends.cassandra.init.configuration.CassandraConfiguration;
+import org.apache.james.core.quota.QuotaCountUsage;
+import org.apache.james.core.quota.QuotaSizeUsage;
 import org.apache.james.mailbox.cassandra.modules.CassandraQuotaModule;
-import org.apache.james.mailbox.quota.CurrentQuotaManager;
+import org.apache.james.mailbox.cassandra.table.CassandraCurrentQuota;
+import org.apache.james.mailbox.model.CurrentQuotas;
+import org.apache.james.mailbox.model.QuotaOperation;
 import org.apache.james.mailbox.store.quota.CurrentQuotaManagerContract;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
+import reactor.core.publisher.Flux;
+
 class CassandraCurrentQuotaManagerTest implements CurrentQuotaManagerContract {
 
     @RegisterExtension
     static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(CassandraQuotaModule.MODULE);
 
     @Override
-    public CurrentQuotaManager testee() {
+    public CassandraCurrentQuotaManager testee() {
         return new CassandraCurrentQuotaManager(cassandraCluster.getCassandraCluster().getConf());
     }
+
+    @Test
+    void getCurrentQuotasShouldTakeLegacyCountersIntoAccount() {
+        cassandraCluster.getCassandraCluster().getConf().execute(update(CassandraCurrentQuota.TABLE_NAME)
+            .with(incr(CassandraCurrentQuota.MESSAGE_COUNT, 5L))
+            .and(incr(CassandraCurrentQuota.STORAGE, 50L))
+            .where(eq(CassandraCurrentQuota.QUOTA_ROOT, QUOTA_ROOT.getValue())));
+
+        testee().increase(new QuotaOperation(QUOTA_ROOT, QuotaCountUsage.count(5), QuotaSizeUsage.size(50))).block();
+
+        assertThat(testee().getCurrentQuotas(QUOTA_ROOT).block()).isEqualTo(CURRENT_QUOTAS);
+    }
+
+    @Test
+    void getCurrentQuotasShouldSumAllShards() {
+        Flux.range(0, 100)
+            .flatMap(i -> testee().increase(new QuotaOperation(QUOTA_ROOT, QuotaCountUsage.count(1), QuotaSizeUsage.size(10))))
+            .blockLast();
+
+        assertThat(testee().getCurrentQuotas(QUOTA_ROOT).block())
+            .isEqualTo(new CurrentQuotas(QuotaCountUsage.count(100), QuotaSizeUsage.size(1000)));
+    }
+
+    @Test
+    void increasingTheShardCountShouldPreserveCurrentQuotas() {
+        CassandraCurrentQuotaManager singleShard = new CassandraCurrentQuotaManager(cassandraCluster.getCassandraCluster().getConf(),
+            CassandraConfiguration.builder().quotaCounterShardCount(1).build());
+        singleShard.increase(RESET_QUOTA_OPERATION).block();
+
+        assertThat(testee().getCurrentQuotas(QUOTA_ROOT).block()).isEqualTo(CURRENT_QUOTAS);
+    }
 }
@@ -19,13 +19,17 @@
 
 package org.apache.james.mailbox.elasticsearch;
 
+import java.time.temporal.ChronoUnit;
 import java.util.Objects;
 import java.util.Optional;
 
 import org.apache.commons.configuration2.Configuration;
+import org.apache.james.backends.es.BulkIndexer;
 import org.apache.james.backends.es.IndexName;
 import org.apache.james.backends.es.ReadAliasName;
 import org.apache.james.backends.es.WriteAliasName;
+import org.apache.james.mailbox.store.search.CachingMessageSearchIndex;
+import org.apache.james.util.DurationParser;
 
 public class ElasticSearchMailboxConfiguration {
 
@@ -34,12 +38,20 @@ public class ElasticSearchMailboxConfiguration {
         private Optional<ReadAliasName> readAliasMailboxName;
         private Optional<WriteAliasName> writeAliasMailboxName;
         private Optional<IndexAttachments> indexAttachment;
+        private Optional<BulkIndexer.Configuration> bulkConfiguration;
+        private Optional<CachingMessageSearchIndex.Configuration> searchCacheConfiguration;
+        private Optional<FlagsStorage> flagsStorage;
+        private Optional<IndexOwner> indexOwner;
 
         Builder() {
             indexMailboxName = Optional.empty();
             readAliasMailboxName = Optional.empty();
             writeAliasMailboxName = Optional.empty();
             indexAttachment = Optional.empty();
+            bulkConfiguration = Optional.empty();
+            searchCacheConfiguration = Optional.empty();
+            flagsStorage = Optional.empty();
+            indexOwner = Optional.empty();
         }
 
         Builder indexMailboxName(Optional<IndexName> indexMailboxName) {
@@ -63,6 +75,26 @@ public class ElasticSearchMailboxConfiguration {
             return this;
         }
 
+        Builder bulkConfiguration(BulkIndexer.Configuration bulkConfiguration) {
+            this.bulkConfiguration = Optional.of(bulkConfiguration);
+            return this;
+        }
+
+        Builder searchCacheConfiguration(Optional<CachingMessageSearchIndex.Configuration> searchCacheConfiguration) {
+            this.searchCacheConfiguration = searchCacheConfiguration;
+            return this;
+        }
+
+        Builder flagsStorage(FlagsStorage flagsStorage) {
+            this.flagsStorage = Optional.of(flagsStorage);
+            return this;
+        }
+
+        Builder indexOwner(IndexOwner indexOwner) {
+            this.indexOwner = Optional.of(indexOwner);
+            return this;
+        }
+
 
 
         public ElasticSearchMailboxConfiguration build() {
@@ -70,7 +102,11 @@ public class ElasticSearchMailboxConfiguration {
                 indexMailboxName.orElse(MailboxElasticSearchConstants.DEFAULT_MAILBOX_INDEX),
                 readAliasMailboxName.orElse(MailboxElasticSearchConstants.DEFAULT_MAILBOX_READ_ALIAS),
                 writeAliasMailboxName.orElse(MailboxElasticSearchConstants.DEFAULT_MAILBOX_WRITE_ALIAS),
-                indexAttachment.orElse(IndexAttachments.YES));
+                indexAttachment.orElse(IndexAttachments.YES),
+                bulkConfiguration.orElse(BulkIndexer.Configuration.DEFAULT),
+                searchCacheConfiguration,
+                flagsStorage.orElse(FlagsStorage.IN_MESSAGE),
+                indexOwner.orElse(IndexOwner.NO));
         }
     }
 
@@ -86,6 +122,23 @@ public class ElasticSearchMailboxConfiguration {
     private static final String ELASTICSEARCH_ALIAS_WRITE_MAILBOX_NAME = "elasticsearch.alias.write.mailbox.name";
     private static final String ELASTICSEARCH_INDEX_ATTACHMENTS = "elasticsearch.indexAttachments";
     private static final boolean DEFAULT_INDEX_ATTACHMENTS = true;
+    private static final String ELASTICSEARCH_DEFER_ATTACHMENT_TEXT_EXTRACTION = "elasticsearch.indexAttachments.deferTextExtraction";
+    private static final boolean DEFAULT_DEFER_ATTACHMENT_TEXT_EXTRACTION = false;
+    private static final String ELASTICSEARCH_BULK_MAX_SIZE = "elasticsearch.indexer.bulk.maxSize";
+    private static final String ELASTICSEARCH_BULK_MAX_BYTES = "elasticsearch.indexer.bulk.maxBytes";
+    private static final String ELASTICSEARCH_BULK_MAX_PENDING_WRITES = "elasticsearch.indexer.bulk.maxPendingWrites";
+    private static final String ELASTICSEARCH_BULK_FLUSH_DELAY = "elasticsearch.indexer.bulk.flushDelay";
+    private static final String ELASTICSEARCH_BULK_MAX_IN_FLIGHT = "elasticsearch.indexer.bulk.maxInFlight";
+    private static final String ELASTICSEARCH_BULK_MAX_RETRIES = "elasticsearch.indexer.bulk.maxRetries";
+    private static final String ELASTICSEARCH_FLAGS_SIDECAR = "elasticsearch.flags.sidecar";
+    private static final boolean DEFAULT_FLAGS_SIDECAR = false;
+    private static final String ELASTICSEARCH_INDEX_OWNER = "elasticsearch.index.owner";
+    private static final boolean DEFAULT_INDEX_OWNER = false;
+    private static final String ELASTICSEARCH_SEARCH_CACHE_ENABLED = "elasticsearch.search.cache.enabled";
+    private static final boolean DEFAULT_SEARCH_CACHE_ENABLED = false;
+    private static final String ELASTICSEARCH_SEARCH_CACHE_MAX_SIZE = "elasticsearch.search.cache.maxSize";
+    private static final String ELASTICSEARCH_SEARCH_CACHE_MAX_PENDING_CHANGES = "elasticsearch.search.cache.maxPendingChanges";
+    private static final String ELASTICSEARCH_SEARCH_CACHE_TIME_TO_LIVE = "elasticsearch.search.cache.timeToLive";
 
     public static final ElasticSearchMailboxConfiguration DEFAULT_CONFIGURATION = builder().build();
 
@@ -95,6 +148,10 @@ public class ElasticSearchMailboxConfiguration {
             .readAliasMailboxName(computeMailboxReadAlias(configuration))
             .writeAliasMailboxName(computeMailboxWriteAlias(configuration))
             .indexAttachment(provideIndexAttachments(configuration))
+            .bulkConfiguration(computeBulkConfiguration(configuration))
+            .searchCacheConfiguration(computeSearchCacheConfiguration(configuration))
+            .flagsStorage(provideFlagsStorage(configuration))
+            .indexOwner(provideIndexOwner(configuration))
             .build();
     }
 
@@ -120,11 +177,61 @@ public class ElasticSearchMailboxConfiguration {
     }
 
 
+    static BulkIndexer.Configuration computeBulkConfiguration(Configuration configuration) {
+        BulkIndexer.Configuration.Builder builder = BulkIndexer.Configuration.builder();
+        Optional.ofNullable(configuration.getInteger(ELASTICSEARCH_BULK_MAX_SIZE, null))
+            .ifPresent(builder::maxBulkSize);
+        Optional.ofNullable(configuration.getLong(ELASTICSEARCH_BULK_MAX_BYTES, null))
+            .ifPresent(builder::maxBulkBytes);
+        Optional.ofNullable(configuration.getInteger(ELASTICSEARCH_BULK_MAX_PENDING_WRITES, null))
+            .ifPresent(builder::maxPendingWrites);
+        Optional.ofNullable(configuration.getString(ELASTICSEARCH_BULK_FLUSH_DELAY, null))
+            .map(rawDelay -> DurationParser.parse(rawDelay, ChronoUnit.MILLIS))
+            .ifPresent(builder::flushDelay);
+        Optional.ofNullable(configuration.getInteger(ELASTICSEARCH_BULK_MAX_IN_FLIGHT, null))
+            .ifPresent(builder::maxInFlightBulks);
+        Optional.ofNullable(configuration.getInteger(ELASTICSEARCH_BULK_MAX_RETRIES, null))
+            .ifPresent(builder::maxRetries);
+        return builder.build();
+    }
+
+    static Optional<CachingMessageSearchIndex.Configuration> computeSearchCacheConfiguration(Configuration configuration) {
+        if (!configuration.getBoolean(ELASTICSEARCH_SEARCH_CACHE_ENABLED, DEFAULT_SEARCH_CACHE_ENABLED)) {
+            return Optional.empty();
+        }
+        CachingMessageSearchIndex.Configuration.Builder builder = CachingMessageSearchIndex.Configuration.builder();
+        Optional.ofNullable(configuration.getLong(ELASTICSEARCH_SEARCH_CACHE_MAX_SIZE, null))
+            .ifPresent(builder::maxCachedResults);
+        Optional.ofNullable(configuration.getInteger(ELASTICSEARCH_SEARCH_CACHE_MAX_PENDING_CHANGES, null))
+            .ifPresent(builder::maxPendingChanges);
+        Optional.ofNullable(configuration.getString(ELASTICSEARCH_SEARCH_CACHE_TIME_TO_LIVE, null))
+            .map(rawDelay -> DurationParser.parse(rawDelay, ChronoUnit.SECONDS))
+            .ifPresent(builder::timeToLive);
+        return Optional.of(builder.build());
+    }
+
+    private static FlagsStorage provideFlagsStorage(Configuration configuration) {
+        if (configuration.getBoolean(ELASTICSEARCH_FLAGS_SIDECAR, DEFAULT_FLAGS_SIDECAR)) {
+            return FlagsStorage.SIDECAR;
+        }
+        return FlagsStorage.IN_MESSAGE;
+    }
+
+    private static IndexOwner provideIndexOwner(Configuration configuration) {
+        if (configuration.getBoolean(ELASTICSEARCH_INDEX_OWNER, DEFAULT_INDEX_OWNER)) {
+            return IndexOwner.YES;
+        }
+        return IndexOwner.NO;
+    }
+
     private static IndexAttachments provideIndexAttachments(Configuration configuration) {
-        if (configuration.getBoolean(ELASTICSEARCH_INDEX_ATTACHMENTS, DEFAULT_INDEX_ATTACHMENTS)) {
-            return IndexAttachments.YES;
+        if (!configuration.getBoolean(ELASTICSEARCH_INDEX_ATTACHMENTS, DEFAULT_INDEX_ATTACHMENTS)) {
+            return IndexAttachments.NO;
+        }
+        if (configuration.getBoolean(ELASTICSEARCH_DEFER_ATTACHMENT_TEXT_EXTRACTION, DEFAULT_DEFER_ATTACHMENT_TEXT_EXTRACTION)) {
+            return IndexAttachments.DEFERRED;
         }
-        return IndexAttachments.NO;
+        return IndexAttachments.YES;
     }
 
 
@@ -132,13 +239,24 @@ public class ElasticSearchMailboxConfiguration {
     private final ReadAliasName readAliasMailboxName;
     private final WriteAliasName writeAliasMailboxName;
     private final IndexAttachments indexAttachment;
+    private final BulkIndexer.Configuration bulkConfiguration;
+    private final Optional<CachingMessageSearchIndex.Configuration> searchCacheConfiguration;
+    private final FlagsStorage flagsStorage;
+    private final IndexOwner indexOwner;
 
     private ElasticSearchMailboxConfiguration(IndexName indexMailboxName, ReadAliasName readAliasMailboxName,
-                                              WriteAliasName writeAliasMailboxName, IndexAttachments indexAttachment) {
+                                              WriteAliasName writeAliasMailboxName, IndexAttachments indexAttachment,
+                                              BulkIndexer.Configuration bulkConfiguration,
+                                              Optional<CachingMessageSearchIndex.Configuration> searchCacheConfiguration,
+                                              FlagsStorage flagsStorage, IndexOwner indexOwner) {
         this.indexMailboxName = indexMailboxName;
         this.readAliasMailboxName = readAliasMailboxName;
         this.writeAliasMailboxName = writeAliasMailboxName;
         this.indexAttachment = indexAttachment;
+        this.bulkConfiguration = bulkConfiguration;
+        this.searchCacheConfiguration = searchCacheConfiguration;
+        this.flagsStorage = flagsStorage;
+        this.indexOwner = indexOwner;
     }
 
 
@@ -158,6 +276,25 @@ public class ElasticSearchMailboxConfiguration {
         return indexAttachment;
     }
 
+    public BulkIndexer.Configuration getBulkConfiguration() {
+        return bulkConfiguration;
+    }
+
+    /**
+     * Empty when search results should not be cached.
+     */
+    public Optional<CachingMessageSearchIndex.Configuration> getSearchCacheConfiguration() {
+        return searchCacheConfiguration;
+    }
+
+    public FlagsStorage getFlagsStorage() {
+        return flagsStorage;
+    }
+
+    public IndexOwner getIndexOwner() {
+        return indexOwner;
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (o instanceof ElasticSearchMailboxConfiguration) {
@@ -166,13 +303,17 @@ public class ElasticSearchMailboxConfiguration {
             return Objects.equals(this.indexAttachment, that.indexAttachment)
                 && Objects.equals(this.indexMailboxName, that.indexMailboxName)
                 && Objects.equals(this.readAliasMailboxName, that.readAliasMailboxName)
-                && Objects.equals(this.writeAliasMailboxName, that.writeAliasMailboxName);
+                && Objects.equals(this.writeAliasMailboxName, that.writeAliasMailboxName)
+                && Objects.equals(this.bulkConfiguration, that.bulkConfiguration)
+                && Objects.equals(this.searchCacheConfiguration, that.searchCacheConfiguration)
+                && Objects.equals(this.flagsStorage, that.flagsStorage)
+                && Objects.equals(this.indexOwner, that.indexOwner);
         }
         return false;
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(indexMailboxName, readAliasMailboxName, writeAliasMailboxName, indexAttachment, writeAliasMailboxName);
+        return Objects.hash(indexMailboxName, readAliasMailboxName, writeAliasMailboxName, indexAttachment, writeAliasMailboxName, bulkConfiguration, searchCacheConfiguration, flagsStorage, indexOwner);
     }
 }
@@ -20,5 +20,11 @@
 package org.apache.james.mailbox.elasticsearch;
 
 public enum IndexAttachments {
-    NO, YES
+    NO,
+    YES,
+    /**
+     * Attachments are indexed, but their text is extracted after the message had been indexed, then added to the
+     * indexed document.
+     */
+    DEFERRED
 }
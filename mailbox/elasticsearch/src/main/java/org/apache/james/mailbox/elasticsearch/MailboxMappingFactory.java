@@ -57,6 +57,8 @@ import static org.apache.james.mailbox.elasticsearch.json.JsonMessageConstants.M
 import static org.apache.james.mailbox.elasticsearch.json.JsonMessageConstants.MESSAGE_ID;
 import static org.apache.james.mailbox.elasticsearch.json.JsonMessageConstants.MIME_MESSAGE_ID;
 import static org.apache.james.mailbox.elasticsearch.json.JsonMessageConstants.MODSEQ;
+import static org.apache.james.mailbox.elasticsearch.json.JsonMessageConstants.OWNER;
+import static org.apache.james.mailbox.elasticsearch.json.JsonMessageConstants.RELATION;
 import static org.apache.james.mailbox.elasticsearch.json.JsonMessageConstants.SENT_DATE;
 import static org.apache.james.mailbox.elasticsearch.json.JsonMessageConstants.SIZE;
 import static org.apache.james.mailbox.elasticsearch.json.JsonMessageConstants.SUBJECT;
@@ -74,6 +76,7 @@ import org.apache.james.backends.es.NodeMappingFactory;
 import org.apache.james.mailbox.elasticsearch.json.JsonMessageConstants.Attachment;
 import org.apache.james.mailbox.elasticsearch.json.JsonMessageConstants.EMailer;
 import org.apache.james.mailbox.elasticsearch.json.JsonMessageConstants.HEADER;
+import org.apache.james.mailbox.elasticsearch.json.JsonMessageConstants.Relation;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
 public class MailboxMappingFactory {
@@ -81,6 +84,8 @@ public class MailboxMappingFactory {
     private static final int MAXIMUM_TERM_LENGTH = 4096;
     private static final String STANDARD = "standard";
     private static final String STORE = "store";
+    private static final String JOIN = "join";
+    private static final String RELATIONS = "relations";
 
     public static XContentBuilder getMappingContent() {
         try {
@@ -297,6 +302,10 @@ public class MailboxMappingFactory {
                             .field(STORE, true)
                         .endObject()
 
+                        .startObject(OWNER)
+                            .field(TYPE, KEYWORD)
+                        .endObject()
+
                         .startObject(MIME_MESSAGE_ID)
                             .field(TYPE, KEYWORD)
                         .endObject()
@@ -329,6 +338,13 @@ public class MailboxMappingFactory {
                             .field(TYPE, BOOLEAN)
                         .endObject()
 
+                        .startObject(RELATION)
+                            .field(TYPE, JOIN)
+                            .startObject(RELATIONS)
+                                .field(Relation.MESSAGE, Relation.FLAGS)
+                            .endObject()
+                        .endObject()
+
                         .startObject(TEXT)
                             .field(TYPE, TEXT)
                             .field(ANALYZER, SNOWBALL_KEEP_MAIL_AND_URL)
@@ -0,0 +1,34 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.elasticsearch;
+
+import org.apache.james.backends.es.RoutingKey;
+import org.apache.james.core.Username;
+
+/**
+ * Routes messages by the owner of their mailbox when it is indexed (see {@link IndexOwner#YES}), so that searching all
+ * the mailboxes of a user only hits the shard holding them.
+ */
+public class OwnerRoutingKeyFactory implements RoutingKey.Factory<Username> {
+    @Override
+    public RoutingKey from(Username owner) {
+        return RoutingKey.fromString(owner.asString());
+    }
+}
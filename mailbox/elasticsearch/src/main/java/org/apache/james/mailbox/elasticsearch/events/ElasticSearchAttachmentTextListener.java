@@ -0,0 +1,177 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailbox.elasticsearch.events;
+
+import static org.apache.james.mailbox.elasticsearch.events.ElasticSearchListeningMessageSearchIndex.indexIdFor;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.apache.james.backends.es.DocumentId;
+import org.apache.james.backends.es.ElasticSearchIndexer;
+import org.apache.james.backends.es.RoutingKey;
+import org.apache.james.backends.es.UpdatedRepresentation;
+import org.apache.james.core.Username;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.SessionProvider;
+import org.apache.james.mailbox.elasticsearch.IndexAttachments;
+import org.apache.james.mailbox.elasticsearch.IndexOwner;
+import org.apache.james.mailbox.elasticsearch.MailboxElasticSearchConstants;
+import org.apache.james.mailbox.elasticsearch.OwnerRoutingKeyFactory;
+import org.apache.james.mailbox.elasticsearch.json.MessageToElasticSearchJson;
+import org.apache.james.mailbox.events.Event;
+import org.apache.james.mailbox.events.Group;
+import org.apache.james.mailbox.events.MailboxListener;
+import org.apache.james.mailbox.model.Mailbox;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.mailbox.store.MailboxSessionMapperFactory;
+import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.index.IndexNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Second phase of the deferred attachment indexing (see {@link IndexAttachments#DEFERRED}).
+ *
+ * Messages are indexed by {@link ElasticSearchListeningMessageSearchIndex} without calling the costly text extractor
+ * on their attachments. This listener, registered in its own group, then extracts the text of the attachments and
+ * partially updates the already indexed document.
+ *
+ * Extractions are carried out on a dedicated scheduler whose thread count bounds the number of concurrent
+ * extractions, so that a burst of incoming attachments does not starve other processing. Should the document not be
+ * indexed yet, the listener fails and relies on the event bus retries.
+ */
+public class ElasticSearchAttachmentTextListener implements MailboxListener.ReactiveGroupMailboxListener {
+    public static class ElasticSearchAttachmentTextListenerGroup extends Group {
+
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ElasticSearchAttachmentTextListener.class);
+    private static final Group GROUP = new ElasticSearchAttachmentTextListenerGroup();
+    private static final int DEFAULT_CONCURRENCY = 4;
+    private static final int UNLIMITED = -1;
+    private static final RoutingKey.Factory<Username> OWNER_ROUTING_KEY_FACTORY = new OwnerRoutingKeyFactory();
+
+    private final MailboxSessionMapperFactory factory;
+    private final ElasticSearchIndexer elasticSearchIndexer;
+    private final MessageToElasticSearchJson messageToElasticSearchJson;
+    private final SessionProvider sessionProvider;
+    private final RoutingKey.Factory<MailboxId> routingKeyFactory;
+    private final IndexAttachments indexAttachments;
+    private final IndexOwner indexOwner;
+    private final Scheduler extractionScheduler;
+
+    /**
+     * The {@link IndexOwner} needs to match the one of the {@link ElasticSearchListeningMessageSearchIndex}, as
+     * documents are routed by owner when it is indexed.
+     */
+    @Inject
+    public ElasticSearchAttachmentTextListener(MailboxSessionMapperFactory factory,
+                                               @Named(MailboxElasticSearchConstants.InjectionNames.MAILBOX) ElasticSearchIndexer indexer,
+                                               MessageToElasticSearchJson messageToElasticSearchJson,
+                                               SessionProvider sessionProvider, RoutingKey.Factory<MailboxId> routingKeyFactory,
+                                               IndexAttachments indexAttachments, IndexOwner indexOwner) {
+        this(factory, indexer, messageToElasticSearchJson, sessionProvider, routingKeyFactory, indexAttachments, indexOwner, DEFAULT_CONCURRENCY);
+    }
+
+    @VisibleForTesting
+    ElasticSearchAttachmentTextListener(MailboxSessionMapperFactory factory, ElasticSearchIndexer indexer,
+                                        MessageToElasticSearchJson messageToElasticSearchJson,
+                                        SessionProvider sessionProvider, RoutingKey.Factory<MailboxId> routingKeyFactory,
+                                        IndexAttachments indexAttachments, IndexOwner indexOwner, int concurrency) {
+        this.factory = factory;
+        this.elasticSearchIndexer = indexer;
+        this.messageToElasticSearchJson = messageToElasticSearchJson;
+        this.sessionProvider = sessionProvider;
+        this.routingKeyFactory = routingKeyFactory;
+        this.indexAttachments = indexAttachments;
+        this.indexOwner = indexOwner;
+        this.extractionScheduler = Schedulers.newBoundedElastic(concurrency, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "attachment-text-extraction");
+    }
+
+    @Override
+    public Group getDefaultGroup() {
+        return GROUP;
+    }
+
+    @Override
+    public boolean isHandling(Event event) {
+        return indexAttachments == IndexAttachments.DEFERRED
+            && event instanceof Added;
+    }
+
+    @Override
+    public Mono<Void> reactiveEvent(Event event) {
+        if (!isHandling(event)) {
+            return Mono.empty();
+        }
+        Added added = (Added) event;
+        MailboxSession session = sessionProvider.createSystemSession(event.getUsername());
+
+        return factory.getMailboxMapper(session)
+            .findMailboxById(added.getMailboxId())
+            .flatMap(mailbox -> handleAdded(session, mailbox, added));
+    }
+
+    private Mono<Void> handleAdded(MailboxSession session, Mailbox mailbox, Added added) {
+        return Flux.fromIterable(MessageRange.toRanges(added.getUids()))
+            .concatMap(range -> factory.getMessageMapper(session)
+                .findInMailboxReactive(mailbox, range, FetchType.Full, UNLIMITED))
+            .filter(message -> !message.getAttachments().isEmpty())
+            .concatMap(message -> indexAttachmentText(mailbox, message))
+            .then();
+    }
+
+    private Mono<Void> indexAttachmentText(Mailbox mailbox, MailboxMessage message) {
+        RoutingKey routingKey = routingKey(mailbox);
+        DocumentId id = indexIdFor(mailbox.getMailboxId(), message.getUid());
+
+        return Mono.fromCallable(() -> messageToElasticSearchJson.convertAttachmentsToJson(message))
+            .subscribeOn(extractionScheduler)
+            .doOnError(e -> LOGGER.warn("Failed extracting attachment text of message {} in mailbox {}",
+                message.getUid(), mailbox.getMailboxId().serialize(), e))
+            .flatMap(json -> ensureIndexed(id, routingKey)
+                .then(elasticSearchIndexer.update(ImmutableList.of(new UpdatedRepresentation(id, json)), routingKey)));
+    }
+
+    private RoutingKey routingKey(Mailbox mailbox) {
+        if (indexOwner == IndexOwner.YES) {
+            return OWNER_ROUTING_KEY_FACTORY.from(mailbox.getUser());
+        }
+        return routingKeyFactory.from(mailbox.getMailboxId());
+    }
+
+    private Mono<GetResponse> ensureIndexed(DocumentId id, RoutingKey routingKey) {
+        return elasticSearchIndexer.get(id, routingKey)
+            .filter(GetResponse::isExists)
+            .switchIfEmpty(Mono.error(() -> new IndexNotFoundException(
+                String.format("Document %s is not indexed yet", id.asString()))));
+    }
+}
@@ -34,6 +34,8 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import javax.inject.Inject;
@@ -44,16 +46,23 @@ import org.apache.james.backends.es.DocumentId;
 import org.apache.james.backends.es.ElasticSearchIndexer;
 import org.apache.james.backends.es.RoutingKey;
 import org.apache.james.backends.es.UpdatedRepresentation;
+import org.apache.james.core.Username;
 import org.apache.james.mailbox.FlagsBuilder;
 import org.apache.james.mailbox.MailboxManager.MessageCapabilities;
 import org.apache.james.mailbox.MailboxManager.SearchCapabilities;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
 import org.apache.james.mailbox.SessionProvider;
+import org.apache.james.mailbox.elasticsearch.FlagsStorage;
+import org.apache.james.mailbox.elasticsearch.IndexOwner;
 import org.apache.james.mailbox.elasticsearch.MailboxElasticSearchConstants;
+import org.apache.james.mailbox.elasticsearch.OwnerRoutingKeyFactory;
 import org.apache.james.mailbox.elasticsearch.json.MessageToElasticSearchJson;
 import org.apache.james.mailbox.elasticsearch.search.ElasticSearchSearcher;
 import org.apache.james.mailbox.events.Group;
+import org.apache.james.mailbox.events.MailboxListener.MailboxDeletion;
+import org.apache.james.mailbox.exception.MailboxNotFoundException;
 import org.apache.james.mailbox.model.Mailbox;
 import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MessageId;
@@ -70,8 +79,10 @@ import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.github.fge.lambdas.Throwing;
+import com.github.steveash.guavate.Guavate;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -83,23 +94,50 @@ public class ElasticSearchListeningMessageSearchIndex extends ListeningMessageSe
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ElasticSearchListeningMessageSearchIndex.class);
     private static final String ID_SEPARATOR = ":";
+    private static final String FLAGS_ID_SUFFIX = "flags";
     private static final Group GROUP = new ElasticSearchListeningMessageSearchIndexGroup();
+    private static final RoutingKey.Factory<Username> OWNER_ROUTING_KEY_FACTORY = new OwnerRoutingKeyFactory();
 
     private final ElasticSearchIndexer elasticSearchIndexer;
     private final ElasticSearchSearcher searcher;
     private final MessageToElasticSearchJson messageToElasticSearchJson;
     private final RoutingKey.Factory<MailboxId> routingKeyFactory;
+    private final FlagsStorage flagsStorage;
+    private final IndexOwner indexOwner;
+    private final MailboxSessionMapperFactory mapperFactory;
 
+    public ElasticSearchListeningMessageSearchIndex(MailboxSessionMapperFactory factory,
+                                                    ElasticSearchIndexer indexer,
+                                                    ElasticSearchSearcher searcher, MessageToElasticSearchJson messageToElasticSearchJson,
+                                                    SessionProvider sessionProvider, RoutingKey.Factory<MailboxId> routingKeyFactory) {
+        this(factory, indexer, searcher, messageToElasticSearchJson, sessionProvider, routingKeyFactory, FlagsStorage.IN_MESSAGE);
+    }
+
+    public ElasticSearchListeningMessageSearchIndex(MailboxSessionMapperFactory factory,
+                                                    ElasticSearchIndexer indexer,
+                                                    ElasticSearchSearcher searcher, MessageToElasticSearchJson messageToElasticSearchJson,
+                                                    SessionProvider sessionProvider, RoutingKey.Factory<MailboxId> routingKeyFactory,
+                                                    FlagsStorage flagsStorage) {
+        this(factory, indexer, searcher, messageToElasticSearchJson, sessionProvider, routingKeyFactory, flagsStorage, IndexOwner.NO);
+    }
+
+    /**
+     * The {@link FlagsStorage} and the {@link IndexOwner} need to match the ones of the {@link MessageToElasticSearchJson}.
+     */
     @Inject
     public ElasticSearchListeningMessageSearchIndex(MailboxSessionMapperFactory factory,
                                                     @Named(MailboxElasticSearchConstants.InjectionNames.MAILBOX) ElasticSearchIndexer indexer,
                                                     ElasticSearchSearcher searcher, MessageToElasticSearchJson messageToElasticSearchJson,
-                                                    SessionProvider sessionProvider, RoutingKey.Factory<MailboxId> routingKeyFactory) {
+                                                    SessionProvider sessionProvider, RoutingKey.Factory<MailboxId> routingKeyFactory,
+                                                    FlagsStorage flagsStorage, IndexOwner indexOwner) {
         super(factory, sessionProvider);
         this.elasticSearchIndexer = indexer;
         this.messageToElasticSearchJson = messageToElasticSearchJson;
         this.searcher = searcher;
         this.routingKeyFactory = routingKeyFactory;
+        this.flagsStorage = flagsStorage;
+        this.indexOwner = indexOwner;
+        this.mapperFactory = factory;
     }
 
     @Override
@@ -123,6 +161,12 @@ public class ElasticSearchListeningMessageSearchIndex extends ListeningMessageSe
         Preconditions.checkArgument(session != null, "'session' is mandatory");
         Optional<Integer> noLimit = Optional.empty();
 
+        if (indexOwner == IndexOwner.YES) {
+            return searcher
+                .searchPaged(ImmutableList.of(mailbox.getMailboxId()), ImmutableSet.of(routingKey(mailbox)), searchQuery, Integer.MAX_VALUE)
+                .map(SearchResult::getMessageUid)
+                .toStream();
+        }
         return searcher
             .search(ImmutableList.of(mailbox.getMailboxId()), searchQuery, noLimit)
             .map(SearchResult::getMessageUid)
@@ -137,7 +181,74 @@ public class ElasticSearchListeningMessageSearchIndex extends ListeningMessageSe
             return Flux.empty();
         }
 
-        return searcher.search(mailboxIds, searchQuery, Optional.empty())
+        if (indexOwner == IndexOwner.YES) {
+            return ownerRoutingKeys(session, mailboxIds)
+                .flatMapMany(routingKeys -> toMessageIds(searcher.searchPaged(mailboxIds, routingKeys, searchQuery, pageSize(limit)), limit));
+        }
+        return toMessageIds(searcher.searchPaged(mailboxIds, searchQuery, pageSize(limit)), limit);
+    }
+
+    @Override
+    public Flux<MessageId> searchAllMailboxes(MailboxSession session, Flux<MailboxId> personalMailboxIds,
+                                              Collection<MailboxId> delegatedMailboxIds, Collection<MailboxId> excludedMailboxIds,
+                                              SearchQuery searchQuery, long limit) {
+        Preconditions.checkArgument(session != null, "'session' is mandatory");
+
+        if (indexOwner == IndexOwner.NO) {
+            return super.searchAllMailboxes(session, personalMailboxIds, delegatedMailboxIds, excludedMailboxIds, searchQuery, limit);
+        }
+        return ownerRoutingKeys(session, delegatedMailboxIds)
+            .map(delegatedRoutingKeys -> ImmutableSet.<RoutingKey>builder()
+                .add(OWNER_ROUTING_KEY_FACTORY.from(session.getUser()))
+                .addAll(delegatedRoutingKeys)
+                .build())
+            .flatMapMany(routingKeys -> toMessageIds(searcher.searchPaged(session.getUser(), routingKeys, delegatedMailboxIds,
+                excludedMailboxIds, searchQuery, pageSize(limit)), limit));
+    }
+
+    /**
+     * Routing keys of the owners of the given mailboxes. Too many mailboxes are searched on all shards anyway, an empty
+     * set is then returned without resolving their owners.
+     */
+    private Mono<Set<RoutingKey>> ownerRoutingKeys(MailboxSession session, Collection<MailboxId> mailboxIds) {
+        if (mailboxIds.size() >= ElasticSearchSearcher.MAX_ROUTING_KEY) {
+            return Mono.just(ImmutableSet.of());
+        }
+        return Flux.fromIterable(mailboxIds)
+            .flatMap(mailboxId -> routingKey(session, mailboxId))
+            .collect(Guavate.toImmutableSet());
+    }
+
+    /**
+     * Documents are routed by mailbox, or by mailbox owner when it is indexed so that searching all the mailboxes of a
+     * user hits a single shard.
+     */
+    private RoutingKey routingKey(Mailbox mailbox) {
+        if (indexOwner == IndexOwner.YES) {
+            return OWNER_ROUTING_KEY_FACTORY.from(mailbox.getUser());
+        }
+        return routingKeyFactory.from(mailbox.getMailboxId());
+    }
+
+    /**
+     * A mailbox deleted meanwhile has its documents removed upon its deletion, none is then returned.
+     */
+    private Mono<RoutingKey> routingKey(MailboxSession session, MailboxId mailboxId) {
+        if (indexOwner == IndexOwner.YES) {
+            return mapperFactory.getMailboxMapper(session)
+                .findMailboxById(mailboxId)
+                .map(this::routingKey)
+                .onErrorResume(MailboxNotFoundException.class, e -> Mono.empty());
+        }
+        return Mono.just(routingKeyFactory.from(mailboxId));
+    }
+
+    private int pageSize(long limit) {
+        return Math.toIntExact(Math.min(limit, Integer.MAX_VALUE));
+    }
+
+    private Flux<MessageId> toMessageIds(Flux<SearchResult> searchResults, long limit) {
+        return searchResults
             .doOnNext(this::logIfNoMessageId)
             .map(SearchResult::getMessageId)
             .handle(publishIfPresent())
@@ -153,17 +264,26 @@ public class ElasticSearchListeningMessageSearchIndex extends ListeningMessageSe
             session.getUser().asString(),
             message.getUid());
 
-        RoutingKey from = routingKeyFactory.from(mailbox.getMailboxId());
+        RoutingKey from = routingKey(mailbox);
         DocumentId id = indexIdFor(mailbox.getMailboxId(), message.getUid());
 
         return Mono.fromCallable(() -> generateIndexedJson(mailbox, message, session))
             .flatMap(jsonContent -> elasticSearchIndexer.index(id, jsonContent, from))
+            .then(indexFlags(mailbox.getMailboxId(), message.getUid(), message.createFlags(), message.getModSeq(), from));
+    }
+
+    private Mono<Void> indexFlags(MailboxId mailboxId, MessageUid uid, Flags flags, ModSeq modSeq, RoutingKey routingKey) {
+        if (flagsStorage == FlagsStorage.IN_MESSAGE) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> messageToElasticSearchJson.getFlagsDocument(flags, modSeq, mailboxId, indexIdFor(mailboxId, uid).asString()))
+            .flatMap(jsonContent -> elasticSearchIndexer.index(flagsIdFor(mailboxId, uid), jsonContent, routingKey))
             .then();
     }
 
     private String generateIndexedJson(Mailbox mailbox, MailboxMessage message, MailboxSession session) throws JsonProcessingException {
         try {
-            return messageToElasticSearchJson.convertToJson(message, ImmutableList.of(session.getUser()));
+            return messageToElasticSearchJson.convertToJson(message, mailbox.getUser());
         } catch (Exception e) {
             LOGGER.warn("Indexing mailbox {}-{} of user {} on message {} without attachments ",
                 mailbox.getName(),
@@ -171,33 +291,66 @@ public class ElasticSearchListeningMessageSearchIndex extends ListeningMessageSe
                 session.getUser().asString(),
                 message.getUid(),
                 e);
-            return messageToElasticSearchJson.convertToJsonWithoutAttachment(message, ImmutableList.of(session.getUser()));
+            return messageToElasticSearchJson.convertToJsonWithoutAttachment(message, mailbox.getUser());
         }
     }
 
     @Override
     public Mono<Void> delete(MailboxSession session, MailboxId mailboxId, Collection<MessageUid> expungedUids) {
-        return elasticSearchIndexer
-            .delete(expungedUids.stream()
-                .map(uid ->  indexIdFor(mailboxId, uid))
-                .collect(toImmutableList()),
-                routingKeyFactory.from(mailboxId))
+        return routingKey(session, mailboxId)
+            .flatMap(routingKey -> elasticSearchIndexer
+                .delete(expungedUids.stream()
+                    .flatMap(uid -> documentIdsFor(mailboxId, uid))
+                    .collect(toImmutableList()),
+                    routingKey))
             .then();
     }
 
+    /**
+     * Documents of a mailbox that can no longer be read, hence whose owner is unknown, are searched on all shards.
+     */
     @Override
     public Mono<Void> deleteAll(MailboxSession session, MailboxId mailboxId) {
-        TermQueryBuilder queryBuilder = termQuery(
-            MAILBOX_ID,
-            mailboxId.serialize());
+        return routingKey(session, mailboxId)
+            .map(routingKey -> deleteAll(mailboxId, routingKey))
+            .defaultIfEmpty(Mono.defer(() -> elasticSearchIndexer.deleteAllMatchingQuery(mailboxQuery(mailboxId))))
+            .flatMap(Function.identity());
+    }
 
+    /**
+     * The deleted mailbox can no longer be read, its owner is taken from the event.
+     */
+    @Override
+    protected Mono<Void> handleMailboxDeletion(MailboxSession session, MailboxDeletion mailboxDeletion) {
+        if (indexOwner == IndexOwner.YES) {
+            return deleteAll(mailboxDeletion.getMailboxId(), OWNER_ROUTING_KEY_FACTORY.from(mailboxDeletion.getMailboxPath().getUser()));
+        }
+        return deleteAll(session, mailboxDeletion.getMailboxId());
+    }
+
+    private Mono<Void> deleteAll(MailboxId mailboxId, RoutingKey routingKey) {
         return elasticSearchIndexer
-                .deleteAllMatchingQuery(queryBuilder, routingKeyFactory.from(mailboxId));
+                .deleteAllMatchingQuery(mailboxQuery(mailboxId), routingKey);
+    }
+
+    private TermQueryBuilder mailboxQuery(MailboxId mailboxId) {
+        return termQuery(
+            MAILBOX_ID,
+            mailboxId.serialize());
     }
 
     @Override
     public Mono<Void> update(MailboxSession session, MailboxId mailboxId, List<UpdatedFlags> updatedFlagsList) {
-        RoutingKey routingKey = routingKeyFactory.from(mailboxId);
+        return routingKey(session, mailboxId)
+            .flatMap(routingKey -> update(mailboxId, updatedFlagsList, routingKey));
+    }
+
+    private Mono<Void> update(MailboxId mailboxId, List<UpdatedFlags> updatedFlagsList, RoutingKey routingKey) {
+        if (flagsStorage == FlagsStorage.SIDECAR) {
+            return Flux.fromIterable(updatedFlagsList)
+                .flatMap(updatedFlags -> indexFlags(mailboxId, updatedFlags.getUid(), updatedFlags.getNewFlags(), updatedFlags.getModSeq(), routingKey))
+                .then();
+        }
 
         return Flux.fromIterable(updatedFlagsList)
             .map(Throwing.<UpdatedFlags, UpdatedRepresentation>function(
@@ -215,10 +368,28 @@ public class ElasticSearchListeningMessageSearchIndex extends ListeningMessageSe
                 .getUpdatedJsonMessagePart(updatedFlags.getNewFlags(), updatedFlags.getModSeq()));
     }
 
-    private DocumentId indexIdFor(MailboxId mailboxId, MessageUid uid) {
+    static DocumentId indexIdFor(MailboxId mailboxId, MessageUid uid) {
         return DocumentId.fromString(String.join(ID_SEPARATOR, mailboxId.serialize(), String.valueOf(uid.asLong())));
     }
 
+    static DocumentId flagsIdFor(MailboxId mailboxId, MessageUid uid) {
+        return DocumentId.fromString(String.join(ID_SEPARATOR, mailboxId.serialize(), String.valueOf(uid.asLong()), FLAGS_ID_SUFFIX));
+    }
+
+    private Stream<DocumentId> documentIdsFor(MailboxId mailboxId, MessageUid uid) {
+        if (flagsStorage == FlagsStorage.SIDECAR) {
+            return Stream.of(indexIdFor(mailboxId, uid), flagsIdFor(mailboxId, uid));
+        }
+        return Stream.of(indexIdFor(mailboxId, uid));
+    }
+
+    private DocumentId flagsHolderIdFor(MailboxId mailboxId, MessageUid uid) {
+        if (flagsStorage == FlagsStorage.SIDECAR) {
+            return flagsIdFor(mailboxId, uid);
+        }
+        return indexIdFor(mailboxId, uid);
+    }
+
     private void logIfNoMessageId(SearchResult searchResult) {
         if (!searchResult.getMessageId().isPresent()) {
             LOGGER.error("No messageUid for {} in mailbox {}", searchResult.getMessageUid(), searchResult.getMailboxId());
@@ -227,9 +398,9 @@ public class ElasticSearchListeningMessageSearchIndex extends ListeningMessageSe
 
     @Override
     public Mono<Flags> retrieveIndexedFlags(Mailbox mailbox, MessageUid uid) {
-        RoutingKey routingKey = routingKeyFactory.from(mailbox.getMailboxId());
+        RoutingKey routingKey = routingKey(mailbox);
 
-        return elasticSearchIndexer.get(indexIdFor(mailbox.getMailboxId(), uid), routingKey)
+        return elasticSearchIndexer.get(flagsHolderIdFor(mailbox.getMailboxId(), uid), routingKey)
             .filter(GetResponse::isExists)
             .map(GetResponse::getSourceAsMap)
             .map(this::extractFlags)
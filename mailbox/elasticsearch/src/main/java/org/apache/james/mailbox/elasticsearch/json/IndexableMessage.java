@@ -29,6 +29,7 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.apache.james.core.Username;
 import org.apache.james.mailbox.ModSeq;
 import org.apache.james.mailbox.elasticsearch.IndexAttachments;
 import org.apache.james.mailbox.extractor.TextExtractor;
@@ -37,6 +38,7 @@ import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.search.SearchUtil;
 import org.apache.james.mime4j.MimeException;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.github.steveash.guavate.Guavate;
 import com.google.common.base.Preconditions;
@@ -59,11 +61,13 @@ public class IndexableMessage {
 
         private IndexAttachments indexAttachments;
         private MailboxMessage message;
+        private Optional<Username> owner;
         private TextExtractor textExtractor;
 
         private ZoneId zoneId;
 
         private Builder() {
+            owner = Optional.empty();
         }
 
         public IndexableMessage build() {
@@ -94,6 +98,11 @@ public class IndexableMessage {
             return this;
         }
 
+        public Builder owner(Optional<Username> owner) {
+            this.owner = owner;
+            return this;
+        }
+
         public Builder zoneId(ZoneId zoneId) {
             this.zoneId = zoneId;
             return this;
@@ -133,6 +142,7 @@ public class IndexableMessage {
 
             long uid = message.getUid().asLong();
             String mailboxId = message.getMailboxId().serialize();
+            Optional<String> owner = this.owner.map(Username::asString);
             ModSeq modSeq = message.getModSeq();
             long size = message.getFullContentOctets();
             String date = DATE_TIME_FORMATTER.format(getSanitizedInternalDate(message, zoneId));
@@ -163,6 +173,7 @@ public class IndexableMessage {
                     isRecent,
                     isUnRead,
                     mailboxId,
+                    owner,
                     mediaType,
                     messageId,
                     modSeq,
@@ -178,7 +189,7 @@ public class IndexableMessage {
         }
 
         private List<MimePart> setFlattenedAttachments(MimePart parsingResult, IndexAttachments indexAttachments) {
-            if (IndexAttachments.YES.equals(indexAttachments)) {
+            if (!IndexAttachments.NO.equals(indexAttachments)) {
                 return parsingResult.getAttachmentsStream()
                     .collect(Guavate.toImmutableList());
             } else {
@@ -207,6 +218,7 @@ public class IndexableMessage {
     private final boolean isRecent;
     private final boolean isUnRead;
     private final String mailboxId;
+    private final Optional<String> owner;
     private final String mediaType;
     private final String messageId;
     private final long modSeq;
@@ -236,6 +248,7 @@ public class IndexableMessage {
                              boolean isRecent,
                              boolean isUnRead,
                              String mailboxId,
+                             Optional<String> owner,
                              String mediaType, String messageId,
                              ModSeq modSeq,
                              String sentDate,
@@ -262,6 +275,7 @@ public class IndexableMessage {
         this.isRecent = isRecent;
         this.isUnRead = isUnRead;
         this.mailboxId = mailboxId;
+        this.owner = owner;
         this.mediaType = mediaType;
         this.messageId = messageId;
         this.modSeq = modSeq.asLong();
@@ -326,6 +340,12 @@ public class IndexableMessage {
         return mailboxId;
     }
 
+    @JsonProperty(JsonMessageConstants.OWNER)
+    @JsonInclude(JsonInclude.Include.NON_ABSENT)
+    public Optional<String> getOwner() {
+        return owner;
+    }
+
     @JsonProperty(JsonMessageConstants.MEDIA_TYPE)
     public String getMediaType() {
         return mediaType;
@@ -27,6 +27,7 @@ public interface JsonMessageConstants {
     String MESSAGE_ID = "messageId";
     String UID = "uid";
     String MAILBOX_ID = "mailboxId";
+    String OWNER = "owner";
     String IS_UNREAD = "isUnread";
     String IS_FLAGGED = "isFlagged";
     String IS_ANSWERED = "isAnswered";
@@ -53,6 +54,7 @@ public interface JsonMessageConstants {
     String MEDIA_TYPE = "mediaType";
     String SUBTYPE = "subtype";
     String HAS_ATTACHMENT = "hasAttachment";
+    String RELATION = "relation";
 
     interface EMailer {
         String NAME = "name";
@@ -64,6 +66,13 @@ public interface JsonMessageConstants {
         String VALUE = "value";
     }
 
+    interface Relation {
+        String NAME = "name";
+        String PARENT = "parent";
+        String MESSAGE = "message";
+        String FLAGS = "flags";
+    }
+
     interface Attachment {
         String TEXT_CONTENT = "textContent";
         String MEDIA_TYPE = "mediaType";
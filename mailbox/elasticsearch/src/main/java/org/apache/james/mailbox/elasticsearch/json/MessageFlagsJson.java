@@ -0,0 +1,55 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailbox.elasticsearch.json;
+
+import javax.mail.Flags;
+
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.model.MailboxId;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Small document holding the mutable state of a message, as a child of its message document. Its mailboxId allows
+ * deleting it along with the other documents of its mailbox.
+ */
+public class MessageFlagsJson extends MessageUpdateJson {
+
+    private final String mailboxId;
+    private final String messageDocumentId;
+
+    public MessageFlagsJson(Flags flags, ModSeq modSeq, MailboxId mailboxId, String messageDocumentId) {
+        super(flags, modSeq);
+        this.mailboxId = mailboxId.serialize();
+        this.messageDocumentId = messageDocumentId;
+    }
+
+    @JsonProperty(JsonMessageConstants.MAILBOX_ID)
+    public String getMailboxId() {
+        return mailboxId;
+    }
+
+    @JsonProperty(JsonMessageConstants.RELATION)
+    public ImmutableMap<String, String> getRelation() {
+        return ImmutableMap.of(
+            JsonMessageConstants.Relation.NAME, JsonMessageConstants.Relation.FLAGS,
+            JsonMessageConstants.Relation.PARENT, messageDocumentId);
+    }
+}
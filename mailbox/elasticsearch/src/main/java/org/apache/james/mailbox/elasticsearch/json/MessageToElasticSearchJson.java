@@ -20,15 +20,19 @@
 package org.apache.james.mailbox.elasticsearch.json;
 
 import java.time.ZoneId;
-import java.util.List;
+import java.util.Optional;
 
 import javax.inject.Inject;
 import javax.mail.Flags;
 
 import org.apache.james.core.Username;
 import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.elasticsearch.FlagsStorage;
 import org.apache.james.mailbox.elasticsearch.IndexAttachments;
+import org.apache.james.mailbox.elasticsearch.IndexOwner;
 import org.apache.james.mailbox.extractor.TextExtractor;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.store.extractor.JsoupTextExtractor;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -41,45 +45,115 @@ public class MessageToElasticSearchJson {
 
     private final ObjectMapper mapper;
     private final TextExtractor textExtractor;
+    private final TextExtractor htmlTextExtractor;
     private final ZoneId zoneId;
     private final IndexAttachments indexAttachments;
+    private final FlagsStorage flagsStorage;
+    private final IndexOwner indexOwner;
 
     public MessageToElasticSearchJson(TextExtractor textExtractor, ZoneId zoneId, IndexAttachments indexAttachments) {
+        this(textExtractor, zoneId, indexAttachments, FlagsStorage.IN_MESSAGE);
+    }
+
+    public MessageToElasticSearchJson(TextExtractor textExtractor, ZoneId zoneId, IndexAttachments indexAttachments, FlagsStorage flagsStorage) {
+        this(textExtractor, zoneId, indexAttachments, flagsStorage, IndexOwner.NO);
+    }
+
+    public MessageToElasticSearchJson(TextExtractor textExtractor, ZoneId zoneId, IndexAttachments indexAttachments, FlagsStorage flagsStorage, IndexOwner indexOwner) {
         this.textExtractor = textExtractor;
+        this.htmlTextExtractor = new JsoupTextExtractor();
         this.zoneId = zoneId;
         this.indexAttachments = indexAttachments;
+        this.flagsStorage = flagsStorage;
+        this.indexOwner = indexOwner;
         this.mapper = new ObjectMapper();
         this.mapper.registerModule(new GuavaModule());
         this.mapper.registerModule(new Jdk8Module());
     }
 
+    public MessageToElasticSearchJson(TextExtractor textExtractor, IndexAttachments indexAttachments, FlagsStorage flagsStorage) {
+        this(textExtractor, indexAttachments, flagsStorage, IndexOwner.NO);
+    }
+
     @Inject
-    public MessageToElasticSearchJson(TextExtractor textExtractor, IndexAttachments indexAttachments) {
-        this(textExtractor, ZoneId.systemDefault(), indexAttachments);
+    public MessageToElasticSearchJson(TextExtractor textExtractor, IndexAttachments indexAttachments, FlagsStorage flagsStorage, IndexOwner indexOwner) {
+        this(textExtractor, ZoneId.systemDefault(), indexAttachments, flagsStorage, indexOwner);
     }
 
-    public String convertToJson(MailboxMessage message, List<Username> usernames) throws JsonProcessingException {
+    /**
+     * @param owner The user owning the mailbox of the message. It is only part of the document when {@link IndexOwner}
+     *              is enabled.
+     */
+    public String convertToJson(MailboxMessage message, Username owner) throws JsonProcessingException {
         Preconditions.checkNotNull(message);
 
-        return mapper.writeValueAsString(IndexableMessage.builder()
+        return asDocument(IndexableMessage.builder()
                 .message(message)
-                .extractor(textExtractor)
+                .owner(ownerFor(owner))
+                .extractor(extractorFor(indexAttachments))
                 .zoneId(zoneId)
                 .indexAttachments(indexAttachments)
                 .build());
     }
 
-    public String convertToJsonWithoutAttachment(MailboxMessage message, List<Username> usernames) throws JsonProcessingException {
-        return mapper.writeValueAsString(IndexableMessage.builder()
+    /**
+     * When the text extraction of attachments is deferred, the initially indexed document relies on a lightweight
+     * extractor only handling HTML and plain text. This generates the attachments part of the document, using the
+     * complete extractor, in order to update the document.
+     */
+    public String convertAttachmentsToJson(MailboxMessage message) throws JsonProcessingException {
+        Preconditions.checkNotNull(message);
+
+        return mapper.writeValueAsString(new MessageAttachmentsJson(IndexableMessage.builder()
                 .message(message)
                 .extractor(textExtractor)
                 .zoneId(zoneId)
+                .indexAttachments(IndexAttachments.YES)
+                .build()
+                .getAttachments()));
+    }
+
+    public String convertToJsonWithoutAttachment(MailboxMessage message, Username owner) throws JsonProcessingException {
+        return asDocument(IndexableMessage.builder()
+                .message(message)
+                .owner(ownerFor(owner))
+                .extractor(textExtractor)
+                .zoneId(zoneId)
                 .indexAttachments(IndexAttachments.NO)
                 .build());
     }
 
+    private String asDocument(IndexableMessage indexableMessage) throws JsonProcessingException {
+        if (flagsStorage == FlagsStorage.SIDECAR) {
+            return mapper.writeValueAsString(new MessageWithFlagsRelationJson(indexableMessage));
+        }
+        return mapper.writeValueAsString(indexableMessage);
+    }
+
+    private Optional<Username> ownerFor(Username owner) {
+        if (indexOwner == IndexOwner.YES) {
+            return Optional.of(owner);
+        }
+        return Optional.empty();
+    }
+
+    private TextExtractor extractorFor(IndexAttachments indexAttachments) {
+        if (indexAttachments == IndexAttachments.DEFERRED) {
+            return htmlTextExtractor;
+        }
+        return textExtractor;
+    }
+
     public String getUpdatedJsonMessagePart(Flags flags, ModSeq modSeq) throws JsonProcessingException {
         Preconditions.checkNotNull(flags);
         return mapper.writeValueAsString(new MessageUpdateJson(flags, modSeq));
     }
+
+    /**
+     * Generates the child document holding the flags of a message, when they are stored aside of it.
+     */
+    public String getFlagsDocument(Flags flags, ModSeq modSeq, MailboxId mailboxId, String messageDocumentId) throws JsonProcessingException {
+        Preconditions.checkNotNull(flags);
+        return mapper.writeValueAsString(new MessageFlagsJson(flags, modSeq, mailboxId, messageDocumentId));
+    }
 }
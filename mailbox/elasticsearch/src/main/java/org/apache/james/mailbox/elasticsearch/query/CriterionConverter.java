@@ -27,19 +27,23 @@ import static org.elasticsearch.index.query.QueryBuilders.matchQuery;
 import static org.elasticsearch.index.query.QueryBuilders.nestedQuery;
 import static org.elasticsearch.index.query.QueryBuilders.rangeQuery;
 import static org.elasticsearch.index.query.QueryBuilders.termQuery;
+import static org.elasticsearch.join.query.JoinQueryBuilders.hasChildQuery;
 
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collector;
 import java.util.stream.Stream;
 
+import javax.inject.Inject;
 import javax.mail.Flags;
 
+import org.apache.james.mailbox.elasticsearch.FlagsStorage;
 import org.apache.james.mailbox.elasticsearch.json.HeaderCollection;
 import org.apache.james.mailbox.elasticsearch.json.JsonMessageConstants;
 import org.apache.james.mailbox.model.SearchQuery;
@@ -54,8 +58,15 @@ public class CriterionConverter {
 
     private final Map<Class<?>, Function<Criterion, QueryBuilder>> criterionConverterMap;
     private final Map<Class<?>, BiFunction<String, HeaderOperator, QueryBuilder>> headerOperatorConverterMap;
+    private final FlagsStorage flagsStorage;
 
     public CriterionConverter() {
+        this(FlagsStorage.IN_MESSAGE);
+    }
+
+    @Inject
+    public CriterionConverter(FlagsStorage flagsStorage) {
+        this.flagsStorage = flagsStorage;
         criterionConverterMap = new HashMap<>();
         headerOperatorConverterMap = new HashMap<>();
         
@@ -64,18 +75,20 @@ public class CriterionConverter {
     }
 
     private void registerCriterionConverters() {
-        registerCriterionConverter(SearchQuery.FlagCriterion.class, this::convertFlag);
+        registerCriterionConverter(SearchQuery.FlagCriterion.class,
+            criterion -> onFlagsDocument(convertFlag(criterion)));
         registerCriterionConverter(SearchQuery.UidCriterion.class, this::convertUid);
         registerCriterionConverter(SearchQuery.ConjunctionCriterion.class, this::convertConjunction);
         registerCriterionConverter(SearchQuery.HeaderCriterion.class, this::convertHeader);
         registerCriterionConverter(SearchQuery.TextCriterion.class, this::convertTextCriterion);
-        registerCriterionConverter(SearchQuery.CustomFlagCriterion.class, this::convertCustomFlagCriterion);
+        registerCriterionConverter(SearchQuery.CustomFlagCriterion.class,
+            criterion -> onFlagsDocument(convertCustomFlagCriterion(criterion)));
         
         registerCriterionConverter(SearchQuery.AllCriterion.class,
             criterion -> matchAllQuery());
         
         registerCriterionConverter(SearchQuery.ModSeqCriterion.class,
-            criterion -> createNumericFilter(JsonMessageConstants.MODSEQ, criterion.getOperator()));
+            criterion -> onFlagsDocument(createNumericFilter(JsonMessageConstants.MODSEQ, criterion.getOperator())));
         
         registerCriterionConverter(SearchQuery.SizeCriterion.class,
             criterion -> createNumericFilter(JsonMessageConstants.SIZE, criterion.getOperator()));
@@ -128,6 +141,26 @@ public class CriterionConverter {
         return criterionConverterMap.get(criterion.getClass()).apply(criterion);
     }
 
+    /**
+     * Restricts results to message documents, excluding the documents holding their flags when stored aside.
+     */
+    public Optional<QueryBuilder> messageDocumentsQuery() {
+        if (flagsStorage == FlagsStorage.SIDECAR) {
+            return Optional.of(termQuery(JsonMessageConstants.RELATION, JsonMessageConstants.Relation.MESSAGE));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Flags and modseq are mutable: when stored aside, they are queried on the child document of the message.
+     */
+    private QueryBuilder onFlagsDocument(QueryBuilder query) {
+        if (flagsStorage == FlagsStorage.SIDECAR) {
+            return hasChildQuery(JsonMessageConstants.Relation.FLAGS, query, ScoreMode.None);
+        }
+        return query;
+    }
+
     private QueryBuilder convertAttachmentCriterion(SearchQuery.AttachmentCriterion criterion) {
         return termQuery(JsonMessageConstants.HAS_ATTACHMENT, criterion.getOperator().isSet());
     }
@@ -20,6 +20,7 @@
 package org.apache.james.mailbox.elasticsearch.query;
 
 import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
+import static org.elasticsearch.index.query.QueryBuilders.termQuery;
 import static org.elasticsearch.index.query.QueryBuilders.termsQuery;
 
 import java.util.Collection;
@@ -28,6 +29,7 @@ import java.util.Optional;
 
 import javax.inject.Inject;
 
+import org.apache.james.core.Username;
 import org.apache.james.mailbox.elasticsearch.json.JsonMessageConstants;
 import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.SearchQuery;
@@ -52,6 +54,26 @@ public class QueryConverter {
             .must(generateQueryBuilder(query));
 
         mailboxesQuery(mailboxIds).map(boolQueryBuilder::filter);
+        criterionConverter.messageDocumentsQuery().map(boolQueryBuilder::filter);
+        return boolQueryBuilder;
+    }
+
+    /**
+     * Targets the messages of all the mailboxes of the owner, as well as the ones of the delegated mailboxes, without
+     * listing the owned mailboxes. This relies on the owner being indexed.
+     */
+    public QueryBuilder from(Username owner, Collection<MailboxId> delegatedMailboxIds, Collection<MailboxId> excludedMailboxIds, SearchQuery query) {
+        BoolQueryBuilder accessibleMailboxes = boolQuery()
+            .should(termQuery(JsonMessageConstants.OWNER, owner.asString()))
+            .minimumShouldMatch(1);
+        mailboxesQuery(delegatedMailboxIds).map(accessibleMailboxes::should);
+
+        BoolQueryBuilder boolQueryBuilder = boolQuery()
+            .must(generateQueryBuilder(query))
+            .filter(accessibleMailboxes);
+
+        mailboxesQuery(excludedMailboxIds).map(boolQueryBuilder::mustNot);
+        criterionConverter.messageDocumentsQuery().map(boolQueryBuilder::filter);
         return boolQueryBuilder;
     }
 
@@ -21,13 +21,15 @@ package org.apache.james.mailbox.elasticsearch.search;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 import org.apache.james.backends.es.AliasName;
 import org.apache.james.backends.es.NodeMappingFactory;
 import org.apache.james.backends.es.ReactorElasticSearchClient;
 import org.apache.james.backends.es.ReadAliasName;
 import org.apache.james.backends.es.RoutingKey;
-import org.apache.james.backends.es.search.ScrolledSearch;
+import org.apache.james.backends.es.search.SearchAfterSearch;
+import org.apache.james.core.Username;
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.elasticsearch.json.JsonMessageConstants;
 import org.apache.james.mailbox.elasticsearch.query.QueryConverter;
@@ -38,12 +40,15 @@ import org.apache.james.mailbox.model.SearchQuery;
 import org.apache.james.mailbox.store.search.MessageSearchIndex;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.common.document.DocumentField;
-import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.steveash.guavate.Guavate;
 import com.google.common.collect.ImmutableList;
 
 import reactor.core.publisher.Flux;
@@ -51,10 +56,9 @@ import reactor.core.publisher.Flux;
 public class ElasticSearchSearcher {
     public static final int DEFAULT_SEARCH_SIZE = 100;
     private static final Logger LOGGER = LoggerFactory.getLogger(ElasticSearchSearcher.class);
-    private static final TimeValue TIMEOUT = TimeValue.timeValueMinutes(1);
     private static final ImmutableList<String> STORED_FIELDS = ImmutableList.of(JsonMessageConstants.MAILBOX_ID,
         JsonMessageConstants.UID, JsonMessageConstants.MESSAGE_ID);
-    private static final int MAX_ROUTING_KEY = 5;
+    public static final int MAX_ROUTING_KEY = 5;
 
     private final ReactorElasticSearchClient client;
     private final QueryConverter queryConverter;
@@ -78,40 +82,89 @@ public class ElasticSearchSearcher {
 
     public Flux<MessageSearchIndex.SearchResult> search(Collection<MailboxId> mailboxIds, SearchQuery query,
                                                         Optional<Integer> limit) {
-        SearchRequest searchRequest = prepareSearch(mailboxIds, query, limit);
-        Flux<MessageSearchIndex.SearchResult> pairStream = new ScrolledSearch(client, searchRequest)
-            .searchHits()
-            .flatMap(this::extractContentFromHit);
+        Flux<MessageSearchIndex.SearchResult> pairStream = searchPaged(mailboxIds, query, computeRequiredSize(limit));
 
         return limit.map(pairStream::take)
             .orElse(pairStream);
     }
 
-    private SearchRequest prepareSearch(Collection<MailboxId> mailboxIds, SearchQuery query, Optional<Integer> limit) {
+    /**
+     * Results are not truncated: following pages are read as long as results are requested, which suits callers
+     * filtering them, like de-duplication, before applying their own limit.
+     *
+     * No position can be pushed down: documents are indexed per mailbox and a message belonging to several mailboxes
+     * is only counted once after de-duplication, thus the position of a result is only known to the caller.
+     */
+    public Flux<MessageSearchIndex.SearchResult> searchPaged(Collection<MailboxId> mailboxIds, SearchQuery query, int pageSize) {
+        return searchPaged(mailboxIds, mailboxIds.stream()
+                .map(routingKeyFactory::from)
+                .collect(Guavate.toImmutableSet()),
+            query, pageSize);
+    }
+
+    /**
+     * Routes the search with the given keys, for documents not routed by their mailbox (see
+     * {@link org.apache.james.mailbox.elasticsearch.IndexOwner#YES}).
+     */
+    public Flux<MessageSearchIndex.SearchResult> searchPaged(Collection<MailboxId> mailboxIds, Set<RoutingKey> routingKeys,
+                                                             SearchQuery query, int pageSize) {
+        int boundedPageSize = Math.min(pageSize, size);
+        QueryBuilder queryBuilder = queryConverter.from(mailboxIds, query);
+
+        return new SearchAfterSearch(client, () -> prepareSearch(queryBuilder, query, boundedPageSize, toRoutingKey(routingKeys)))
+            .searchHits()
+            .flatMap(this::extractContentFromHit);
+    }
+
+    /**
+     * Searches all the mailboxes of the owner, relying on the indexed owner rather than on the list of its mailboxes.
+     *
+     * Messages are then routed by owner: the routing keys are the ones of the owner and of the owners of the delegated
+     * mailboxes. Without routing keys, all shards are searched.
+     */
+    public Flux<MessageSearchIndex.SearchResult> searchPaged(Username owner, Set<RoutingKey> routingKeys, Collection<MailboxId> delegatedMailboxIds,
+                                                             Collection<MailboxId> excludedMailboxIds, SearchQuery query, int pageSize) {
+        int boundedPageSize = Math.min(pageSize, size);
+        QueryBuilder queryBuilder = queryConverter.from(owner, delegatedMailboxIds, excludedMailboxIds, query);
+
+        return new SearchAfterSearch(client, () -> prepareSearch(queryBuilder, query, boundedPageSize, toRoutingKey(routingKeys)))
+            .searchHits()
+            .flatMap(this::extractContentFromHit);
+    }
+
+    private SearchRequest prepareSearch(QueryBuilder queryBuilder, SearchQuery query, int pageSize, Optional<String[]> routingKeys) {
         SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder()
-            .query(queryConverter.from(mailboxIds, query))
-            .size(computeRequiredSize(limit))
+            .query(queryBuilder)
+            .size(pageSize)
             .storedFields(STORED_FIELDS);
 
         query.getSorts()
             .stream()
             .map(SortConverter::convertSort)
             .forEach(searchSourceBuilder::sort);
+        addTieBreakers(searchSourceBuilder);
 
         SearchRequest request = new SearchRequest(aliasName.getValue())
             .types(NodeMappingFactory.DEFAULT_MAPPING_NAME)
-            .scroll(TIMEOUT)
             .source(searchSourceBuilder);
 
-        return toRoutingKey(mailboxIds)
+        return routingKeys
             .map(request::routing)
             .orElse(request);
     }
 
-    private Optional<String[]> toRoutingKey(Collection<MailboxId> mailboxIds) {
-        if (mailboxIds.size() < MAX_ROUTING_KEY) {
-            return Optional.of(mailboxIds.stream()
-                .map(routingKeyFactory::from)
+    /**
+     * Pages are retrieved with search_after, which needs a total order: a mailboxId and uid pair identifies a document.
+     */
+    private void addTieBreakers(SearchSourceBuilder searchSourceBuilder) {
+        searchSourceBuilder
+            .sort(SortBuilders.fieldSort(JsonMessageConstants.MAILBOX_ID).order(SortOrder.ASC))
+            .sort(SortBuilders.fieldSort(JsonMessageConstants.UID).order(SortOrder.ASC));
+    }
+
+    private Optional<String[]> toRoutingKey(Set<RoutingKey> routingKeys) {
+        if (!routingKeys.isEmpty() && routingKeys.size() < MAX_ROUTING_KEY) {
+            return Optional.of(routingKeys.stream()
                 .map(RoutingKey::asString)
                 .toArray(String[]::new));
         }
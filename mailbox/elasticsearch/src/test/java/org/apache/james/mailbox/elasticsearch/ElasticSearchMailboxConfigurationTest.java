@@ -21,10 +21,14 @@ package org.apache.james.mailbox.elasticsearch;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Duration;
+
 import org.apache.commons.configuration2.PropertiesConfiguration;
+import org.apache.james.backends.es.BulkIndexer;
 import org.apache.james.backends.es.IndexName;
 import org.apache.james.backends.es.ReadAliasName;
 import org.apache.james.backends.es.WriteAliasName;
+import org.apache.james.mailbox.store.search.CachingMessageSearchIndex;
 import org.junit.jupiter.api.Test;
 
 import nl.jqno.equalsverifier.EqualsVerifier;
@@ -213,6 +217,32 @@ class ElasticSearchMailboxConfigurationTest {
             .isEqualTo(IndexAttachments.NO);
     }
 
+    @Test
+    void getIndexAttachmentShouldReturnDeferredWhenTextExtractionIsDeferred() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.indexAttachments", true);
+        configuration.addProperty("elasticsearch.indexAttachments.deferTextExtraction", true);
+        configuration.addProperty("elasticsearch.hosts", "127.0.0.1");
+
+        ElasticSearchMailboxConfiguration elasticSearchConfiguration = ElasticSearchMailboxConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getIndexAttachment())
+            .isEqualTo(IndexAttachments.DEFERRED);
+    }
+
+    @Test
+    void getIndexAttachmentShouldIgnoreDeferredTextExtractionWhenAttachmentsAreNotIndexed() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.indexAttachments", false);
+        configuration.addProperty("elasticsearch.indexAttachments.deferTextExtraction", true);
+        configuration.addProperty("elasticsearch.hosts", "127.0.0.1");
+
+        ElasticSearchMailboxConfiguration elasticSearchConfiguration = ElasticSearchMailboxConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getIndexAttachment())
+            .isEqualTo(IndexAttachments.NO);
+    }
+
     @Test
     void getIndexAttachmentShouldReturnDefaultValueWhenMissing() {
         PropertiesConfiguration configuration = new PropertiesConfiguration();
@@ -224,4 +254,151 @@ class ElasticSearchMailboxConfigurationTest {
             .isEqualTo(IndexAttachments.YES);
     }
 
-}
\ No newline at end of file
+    @Test
+    void getBulkConfigurationShouldReturnConfiguredValues() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.hosts", "127.0.0.1");
+        configuration.addProperty("elasticsearch.indexer.bulk.maxSize", 500);
+        configuration.addProperty("elasticsearch.indexer.bulk.maxBytes", 1048576);
+        configuration.addProperty("elasticsearch.indexer.bulk.maxPendingWrites", 1000);
+        configuration.addProperty("elasticsearch.indexer.bulk.flushDelay", "1s");
+        configuration.addProperty("elasticsearch.indexer.bulk.maxInFlight", 2);
+        configuration.addProperty("elasticsearch.indexer.bulk.maxRetries", 5);
+
+        ElasticSearchMailboxConfiguration elasticSearchConfiguration = ElasticSearchMailboxConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getBulkConfiguration())
+            .isEqualTo(BulkIndexer.Configuration.builder()
+                .maxBulkSize(500)
+                .maxBulkBytes(1048576)
+                .maxPendingWrites(1000)
+                .flushDelay(Duration.ofSeconds(1))
+                .maxInFlightBulks(2)
+                .maxRetries(5)
+                .build());
+    }
+
+    @Test
+    void getBulkConfigurationShouldDefaultFlushDelayToMilliseconds() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.hosts", "127.0.0.1");
+        configuration.addProperty("elasticsearch.indexer.bulk.flushDelay", "20");
+
+        ElasticSearchMailboxConfiguration elasticSearchConfiguration = ElasticSearchMailboxConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getBulkConfiguration().getFlushDelay())
+            .isEqualTo(Duration.ofMillis(20));
+    }
+
+    @Test
+    void getBulkConfigurationShouldReturnDefaultValueWhenMissing() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.hosts", "127.0.0.1");
+
+        ElasticSearchMailboxConfiguration elasticSearchConfiguration = ElasticSearchMailboxConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getBulkConfiguration())
+            .isEqualTo(BulkIndexer.Configuration.DEFAULT);
+    }
+
+    @Test
+    void getSearchCacheConfigurationShouldBeEmptyByDefault() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.hosts", "127.0.0.1");
+
+        ElasticSearchMailboxConfiguration elasticSearchConfiguration = ElasticSearchMailboxConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getSearchCacheConfiguration())
+            .isEmpty();
+    }
+
+    @Test
+    void getSearchCacheConfigurationShouldReturnDefaultValuesWhenOnlyEnabled() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.hosts", "127.0.0.1");
+        configuration.addProperty("elasticsearch.search.cache.enabled", true);
+
+        ElasticSearchMailboxConfiguration elasticSearchConfiguration = ElasticSearchMailboxConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getSearchCacheConfiguration())
+            .contains(CachingMessageSearchIndex.Configuration.DEFAULT);
+    }
+
+    @Test
+    void getSearchCacheConfigurationShouldReturnConfiguredValues() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.hosts", "127.0.0.1");
+        configuration.addProperty("elasticsearch.search.cache.enabled", true);
+        configuration.addProperty("elasticsearch.search.cache.maxSize", 5000);
+        configuration.addProperty("elasticsearch.search.cache.maxPendingChanges", 500);
+        configuration.addProperty("elasticsearch.search.cache.timeToLive", "1m");
+
+        ElasticSearchMailboxConfiguration elasticSearchConfiguration = ElasticSearchMailboxConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getSearchCacheConfiguration())
+            .contains(CachingMessageSearchIndex.Configuration.builder()
+                .maxCachedResults(5000)
+                .maxPendingChanges(500)
+                .timeToLive(Duration.ofMinutes(1))
+                .build());
+    }
+
+    @Test
+    void getSearchCacheConfigurationShouldIgnoreValuesWhenDisabled() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.hosts", "127.0.0.1");
+        configuration.addProperty("elasticsearch.search.cache.enabled", false);
+        configuration.addProperty("elasticsearch.search.cache.maxSize", 5000);
+
+        ElasticSearchMailboxConfiguration elasticSearchConfiguration = ElasticSearchMailboxConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getSearchCacheConfiguration())
+            .isEmpty();
+    }
+
+    @Test
+    void getFlagsStorageShouldReturnInMessageByDefault() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.hosts", "127.0.0.1");
+
+        ElasticSearchMailboxConfiguration elasticSearchConfiguration = ElasticSearchMailboxConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getFlagsStorage())
+            .isEqualTo(FlagsStorage.IN_MESSAGE);
+    }
+
+    @Test
+    void getFlagsStorageShouldReturnSidecarWhenConfigured() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.hosts", "127.0.0.1");
+        configuration.addProperty("elasticsearch.flags.sidecar", true);
+
+        ElasticSearchMailboxConfiguration elasticSearchConfiguration = ElasticSearchMailboxConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getFlagsStorage())
+            .isEqualTo(FlagsStorage.SIDECAR);
+    }
+
+    @Test
+    void getIndexOwnerShouldReturnNoByDefault() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.hosts", "127.0.0.1");
+
+        ElasticSearchMailboxConfiguration elasticSearchConfiguration = ElasticSearchMailboxConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getIndexOwner())
+            .isEqualTo(IndexOwner.NO);
+    }
+
+    @Test
+    void getIndexOwnerShouldReturnYesWhenConfigured() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.hosts", "127.0.0.1");
+        configuration.addProperty("elasticsearch.index.owner", true);
+
+        ElasticSearchMailboxConfiguration elasticSearchConfiguration = ElasticSearchMailboxConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getIndexOwner())
+            .isEqualTo(IndexOwner.YES);
+    }
+}
@@ -23,6 +23,8 @@ import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
 import static net.javacrumbs.jsonunit.core.Option.IGNORING_ARRAY_ORDER;
 import static net.javacrumbs.jsonunit.core.Option.IGNORING_VALUES;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -35,7 +37,9 @@ import org.apache.james.core.Username;
 import org.apache.james.mailbox.FlagsBuilder;
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.elasticsearch.FlagsStorage;
 import org.apache.james.mailbox.elasticsearch.IndexAttachments;
+import org.apache.james.mailbox.elasticsearch.IndexOwner;
 import org.apache.james.mailbox.extractor.TextExtractor;
 import org.apache.james.mailbox.model.MessageId;
 import org.apache.james.mailbox.model.TestId;
@@ -55,7 +59,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
-import com.google.common.collect.ImmutableList;
 
 class MessageToElasticSearchJsonTest {
     static final int SIZE = 25;
@@ -104,7 +107,7 @@ class MessageToElasticSearchJsonTest {
                 MAILBOX_ID);
         spamMail.setUid(UID);
         spamMail.setModSeq(MOD_SEQ);
-        assertThatJson(messageToElasticSearchJson.convertToJson(spamMail, ImmutableList.of(USERNAME)))
+        assertThatJson(messageToElasticSearchJson.convertToJson(spamMail, USERNAME))
             .when(IGNORING_ARRAY_ORDER)
             .isEqualTo(ClassLoaderUtils.getSystemResourceAsString("eml/spamMail.json"));
     }
@@ -125,7 +128,7 @@ class MessageToElasticSearchJsonTest {
         spamMail.setUid(UID);
         spamMail.setModSeq(MOD_SEQ);
 
-        String actual = messageToElasticSearchJson.convertToJson(spamMail, ImmutableList.of(USERNAME));
+        String actual = messageToElasticSearchJson.convertToJson(spamMail, USERNAME);
         assertThatJson(actual)
             .when(IGNORING_ARRAY_ORDER)
             .isEqualTo(ClassLoaderUtils.getSystemResourceAsString("eml/invalidCharset.json"));
@@ -146,7 +149,7 @@ class MessageToElasticSearchJsonTest {
                 MAILBOX_ID);
         htmlMail.setModSeq(MOD_SEQ);
         htmlMail.setUid(UID);
-        assertThatJson(messageToElasticSearchJson.convertToJson(htmlMail, ImmutableList.of(USERNAME)))
+        assertThatJson(messageToElasticSearchJson.convertToJson(htmlMail, USERNAME))
             .when(IGNORING_ARRAY_ORDER)
             .isEqualTo(ClassLoaderUtils.getSystemResourceAsString("eml/htmlMail.json"));
     }
@@ -166,7 +169,7 @@ class MessageToElasticSearchJsonTest {
                 MAILBOX_ID);
         pgpSignedMail.setModSeq(MOD_SEQ);
         pgpSignedMail.setUid(UID);
-        assertThatJson(messageToElasticSearchJson.convertToJson(pgpSignedMail, ImmutableList.of(USERNAME)))
+        assertThatJson(messageToElasticSearchJson.convertToJson(pgpSignedMail, USERNAME))
             .when(IGNORING_ARRAY_ORDER)
             .isEqualTo(ClassLoaderUtils.getSystemResourceAsString("eml/pgpSignedMail.json"));
     }
@@ -186,8 +189,7 @@ class MessageToElasticSearchJsonTest {
                 MAILBOX_ID);
         mail.setModSeq(MOD_SEQ);
         mail.setUid(UID);
-        assertThatJson(messageToElasticSearchJson.convertToJson(mail,
-                ImmutableList.of(Username.of("user1"), Username.of("user2"))))
+        assertThatJson(messageToElasticSearchJson.convertToJson(mail, USERNAME))
             .when(IGNORING_ARRAY_ORDER).when(IGNORING_VALUES)
             .isEqualTo(ClassLoaderUtils.getSystemResourceAsString("eml/mail.json"));
     }
@@ -207,7 +209,7 @@ class MessageToElasticSearchJsonTest {
                 MAILBOX_ID);
         recursiveMail.setModSeq(MOD_SEQ);
         recursiveMail.setUid(UID);
-        assertThatJson(messageToElasticSearchJson.convertToJson(recursiveMail, ImmutableList.of(USERNAME)))
+        assertThatJson(messageToElasticSearchJson.convertToJson(recursiveMail, USERNAME))
             .when(IGNORING_ARRAY_ORDER).when(IGNORING_VALUES)
             .isEqualTo(ClassLoaderUtils.getSystemResourceAsString("eml/recursiveMail.json"));
     }
@@ -227,7 +229,7 @@ class MessageToElasticSearchJsonTest {
                 MAILBOX_ID);
         mailWithNoInternalDate.setModSeq(MOD_SEQ);
         mailWithNoInternalDate.setUid(UID);
-        assertThatJson(messageToElasticSearchJson.convertToJson(mailWithNoInternalDate, ImmutableList.of(USERNAME)))
+        assertThatJson(messageToElasticSearchJson.convertToJson(mailWithNoInternalDate, USERNAME))
             .when(IGNORING_ARRAY_ORDER)
             .when(IGNORING_VALUES)
             .isEqualTo(ClassLoaderUtils.getSystemResourceAsString("eml/recursiveMail.json"));
@@ -252,7 +254,7 @@ class MessageToElasticSearchJsonTest {
             new DefaultTextExtractor(),
             ZoneId.of("Europe/Paris"),
             IndexAttachments.YES);
-        String convertToJson = messageToElasticSearchJson.convertToJson(mailWithNoInternalDate, ImmutableList.of(USERNAME));
+        String convertToJson = messageToElasticSearchJson.convertToJson(mailWithNoInternalDate, USERNAME);
 
         // Then
         assertThatJson(convertToJson)
@@ -280,7 +282,7 @@ class MessageToElasticSearchJsonTest {
             new DefaultTextExtractor(),
             ZoneId.of("Europe/Paris"),
             IndexAttachments.NO);
-        String convertToJson = messageToElasticSearchJson.convertToJson(mailWithNoInternalDate, ImmutableList.of(USERNAME));
+        String convertToJson = messageToElasticSearchJson.convertToJson(mailWithNoInternalDate, USERNAME);
 
         // Then
         assertThatJson(convertToJson)
@@ -289,6 +291,61 @@ class MessageToElasticSearchJsonTest {
             .isEqualTo(ClassLoaderUtils.getSystemResourceAsString("eml/recursiveMailWithoutAttachments.json"));
     }
 
+    @Test
+    void convertToJsonShouldNotCallTextExtractorWhenAttachmentIndexingIsDeferred() throws IOException {
+        MailboxMessage message = new SimpleMailboxMessage(MESSAGE_ID,
+                date,
+                SIZE,
+                BODY_START_OCTET,
+                ClassLoaderUtils.getSystemResourceAsSharedStream("eml/recursiveMail.eml"),
+                new Flags(),
+                propertyBuilder,
+                MAILBOX_ID);
+        message.setModSeq(MOD_SEQ);
+        message.setUid(UID);
+        TextExtractor textExtractor = mock(TextExtractor.class);
+
+        MessageToElasticSearchJson messageToElasticSearchJson = new MessageToElasticSearchJson(
+            textExtractor,
+            ZoneId.of("Europe/Paris"),
+            IndexAttachments.DEFERRED);
+        String convertToJson = messageToElasticSearchJson.convertToJson(message, USERNAME);
+
+        verifyZeroInteractions(textExtractor);
+        assertThatJson(convertToJson)
+            .inPath("attachments")
+            .isArray()
+            .isNotEmpty();
+    }
+
+    @Test
+    void convertAttachmentsToJsonShouldOnlyContainAttachments() throws IOException {
+        MailboxMessage message = new SimpleMailboxMessage(MESSAGE_ID,
+                date,
+                SIZE,
+                BODY_START_OCTET,
+                ClassLoaderUtils.getSystemResourceAsSharedStream("eml/recursiveMail.eml"),
+                new Flags(),
+                propertyBuilder,
+                MAILBOX_ID);
+        message.setModSeq(MOD_SEQ);
+        message.setUid(UID);
+
+        MessageToElasticSearchJson messageToElasticSearchJson = new MessageToElasticSearchJson(
+            new DefaultTextExtractor(),
+            ZoneId.of("Europe/Paris"),
+            IndexAttachments.DEFERRED);
+        String convertAttachmentsToJson = messageToElasticSearchJson.convertAttachmentsToJson(message);
+
+        assertThatJson(convertAttachmentsToJson)
+            .inPath("subject")
+            .isAbsent();
+        assertThatJson(convertAttachmentsToJson)
+            .inPath("attachments")
+            .isArray()
+            .isNotEmpty();
+    }
+
     @Test
     void emailWithNoMailboxIdShouldThrow() {
         MessageToElasticSearchJson messageToElasticSearchJson = new MessageToElasticSearchJson(
@@ -305,7 +362,7 @@ class MessageToElasticSearchJsonTest {
         mailWithNoMailboxId.setUid(UID);
 
         assertThatThrownBy(() ->
-            messageToElasticSearchJson.convertToJson(mailWithNoMailboxId, ImmutableList.of(USERNAME)))
+            messageToElasticSearchJson.convertToJson(mailWithNoMailboxId, USERNAME))
             .isInstanceOf(NullPointerException.class);
     }
 
@@ -329,6 +386,121 @@ class MessageToElasticSearchJsonTest {
             .isEqualTo("{\"modSeq\":42,\"isAnswered\":false,\"isDeleted\":true,\"isDraft\":false,\"isFlagged\":true,\"isRecent\":false,\"userFlags\":[\"user\"],\"isUnread\":true}");
     }
 
+    @Test
+    void convertToJsonShouldDeclareTheMessageRelationWhenFlagsAreStoredAside() throws IOException {
+        MailboxMessage message = new SimpleMailboxMessage(MESSAGE_ID,
+                date,
+                SIZE,
+                BODY_START_OCTET,
+                ClassLoaderUtils.getSystemResourceAsSharedStream("eml/spamMail.eml"),
+                new Flags(),
+                propertyBuilder,
+                MAILBOX_ID);
+        message.setModSeq(MOD_SEQ);
+        message.setUid(UID);
+
+        MessageToElasticSearchJson messageToElasticSearchJson = new MessageToElasticSearchJson(
+            new DefaultTextExtractor(),
+            ZoneId.of("Europe/Paris"),
+            IndexAttachments.YES,
+            FlagsStorage.SIDECAR);
+        String convertToJson = messageToElasticSearchJson.convertToJson(message, USERNAME);
+
+        assertThatJson(convertToJson)
+            .inPath("relation")
+            .isEqualTo("\"message\"");
+        assertThatJson(convertToJson)
+            .inPath("uid")
+            .isEqualTo(25);
+    }
+
+    @Test
+    void convertToJsonShouldNotDeclareRelationByDefault() throws IOException {
+        MailboxMessage message = new SimpleMailboxMessage(MESSAGE_ID,
+                date,
+                SIZE,
+                BODY_START_OCTET,
+                ClassLoaderUtils.getSystemResourceAsSharedStream("eml/spamMail.eml"),
+                new Flags(),
+                propertyBuilder,
+                MAILBOX_ID);
+        message.setModSeq(MOD_SEQ);
+        message.setUid(UID);
+
+        MessageToElasticSearchJson messageToElasticSearchJson = new MessageToElasticSearchJson(
+            new DefaultTextExtractor(),
+            ZoneId.of("Europe/Paris"),
+            IndexAttachments.YES);
+        String convertToJson = messageToElasticSearchJson.convertToJson(message, USERNAME);
+
+        assertThatJson(convertToJson)
+            .inPath("relation")
+            .isAbsent();
+    }
+
+    @Test
+    void convertToJsonShouldIncludeOwnerWhenIndexed() throws IOException {
+        MailboxMessage message = new SimpleMailboxMessage(MESSAGE_ID,
+                date,
+                SIZE,
+                BODY_START_OCTET,
+                ClassLoaderUtils.getSystemResourceAsSharedStream("eml/spamMail.eml"),
+                new Flags(),
+                propertyBuilder,
+                MAILBOX_ID);
+        message.setModSeq(MOD_SEQ);
+        message.setUid(UID);
+
+        MessageToElasticSearchJson messageToElasticSearchJson = new MessageToElasticSearchJson(
+            new DefaultTextExtractor(),
+            ZoneId.of("Europe/Paris"),
+            IndexAttachments.YES,
+            FlagsStorage.IN_MESSAGE,
+            IndexOwner.YES);
+        String convertToJson = messageToElasticSearchJson.convertToJson(message, USERNAME);
+
+        assertThatJson(convertToJson)
+            .inPath("owner")
+            .isEqualTo("\"username\"");
+    }
+
+    @Test
+    void convertToJsonShouldNotIncludeOwnerByDefault() throws IOException {
+        MailboxMessage message = new SimpleMailboxMessage(MESSAGE_ID,
+                date,
+                SIZE,
+                BODY_START_OCTET,
+                ClassLoaderUtils.getSystemResourceAsSharedStream("eml/spamMail.eml"),
+                new Flags(),
+                propertyBuilder,
+                MAILBOX_ID);
+        message.setModSeq(MOD_SEQ);
+        message.setUid(UID);
+
+        MessageToElasticSearchJson messageToElasticSearchJson = new MessageToElasticSearchJson(
+            new DefaultTextExtractor(),
+            ZoneId.of("Europe/Paris"),
+            IndexAttachments.YES);
+        String convertToJson = messageToElasticSearchJson.convertToJson(message, USERNAME);
+
+        assertThatJson(convertToJson)
+            .inPath("owner")
+            .isAbsent();
+    }
+
+    @Test
+    void getFlagsDocumentShouldReferenceTheMessageDocument() throws Exception {
+        MessageToElasticSearchJson messageToElasticSearchJson = new MessageToElasticSearchJson(
+            new DefaultTextExtractor(),
+            ZoneId.of("Europe/Paris"),
+            IndexAttachments.YES,
+            FlagsStorage.SIDECAR);
+
+        assertThatJson(messageToElasticSearchJson.getFlagsDocument(new FlagsBuilder().add(Flags.Flag.SEEN).add("user").build(), MOD_SEQ, MAILBOX_ID, "18:25"))
+            .isEqualTo("{\"modSeq\":42,\"isAnswered\":false,\"isDeleted\":false,\"isDraft\":false,\"isFlagged\":false,\"isRecent\":false,\"userFlags\":[\"user\"],\"isUnread\":false," +
+                "\"mailboxId\":\"18\",\"relation\":{\"name\":\"flags\",\"parent\":\"18:25\"}}");
+    }
+
     @Test
     void getUpdatedJsonMessagePartShouldThrowIfFlagsIsNull() {
         MessageToElasticSearchJson messageToElasticSearchJson = new MessageToElasticSearchJson(
@@ -356,7 +528,7 @@ class MessageToElasticSearchJsonTest {
         spamMail.setUid(UID);
         spamMail.setModSeq(MOD_SEQ);
 
-        assertThatJson(messageToElasticSearchJson.convertToJson(spamMail, ImmutableList.of(USERNAME)))
+        assertThatJson(messageToElasticSearchJson.convertToJson(spamMail, USERNAME))
             .when(IGNORING_ARRAY_ORDER)
             .isEqualTo(
                 ClassLoaderUtils.getSystemResourceAsString("eml/nonTextual.json", StandardCharsets.UTF_8));
@@ -381,7 +553,7 @@ class MessageToElasticSearchJsonTest {
                 new DefaultTextExtractor(),
                 ZoneId.of("Europe/Paris"),
                 IndexAttachments.NO);
-        String convertToJsonWithoutAttachment = messageToElasticSearchJson.convertToJsonWithoutAttachment(message, ImmutableList.of(USERNAME));
+        String convertToJsonWithoutAttachment = messageToElasticSearchJson.convertToJsonWithoutAttachment(message, USERNAME);
 
         // Then
         assertThatJson(convertToJsonWithoutAttachment)
@@ -409,7 +581,7 @@ class MessageToElasticSearchJsonTest {
                 new JsoupTextExtractor(),
                 ZoneId.of("Europe/Paris"),
                 IndexAttachments.NO);
-        String convertToJsonWithoutAttachment = messageToElasticSearchJson.convertToJsonWithoutAttachment(message, ImmutableList.of(USERNAME));
+        String convertToJsonWithoutAttachment = messageToElasticSearchJson.convertToJsonWithoutAttachment(message, USERNAME);
 
         System.out.println(convertToJsonWithoutAttachment);
 
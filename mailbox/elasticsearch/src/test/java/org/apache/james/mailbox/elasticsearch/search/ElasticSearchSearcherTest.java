@@ -35,7 +35,9 @@ import org.apache.james.core.Username;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MailboxSessionUtil;
 import org.apache.james.mailbox.MessageManager;
+import org.apache.james.mailbox.elasticsearch.FlagsStorage;
 import org.apache.james.mailbox.elasticsearch.IndexAttachments;
+import org.apache.james.mailbox.elasticsearch.IndexOwner;
 import org.apache.james.mailbox.elasticsearch.MailboxElasticSearchConstants;
 import org.apache.james.mailbox.elasticsearch.MailboxIdRoutingKeyFactory;
 import org.apache.james.mailbox.elasticsearch.MailboxIndexCreationUtil;
@@ -48,6 +50,7 @@ import org.apache.james.mailbox.inmemory.InMemoryMailboxManager;
 import org.apache.james.mailbox.inmemory.InMemoryMessageId;
 import org.apache.james.mailbox.inmemory.manager.InMemoryIntegrationResources;
 import org.apache.james.mailbox.model.ComposedMessageId;
+import org.apache.james.mailbox.model.MailboxACL;
 import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MailboxPath;
 import org.apache.james.mailbox.model.MessageId;
@@ -66,12 +69,14 @@ import org.junit.jupiter.api.extension.RegisterExtension;
 
 import com.github.fge.lambdas.Throwing;
 import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
 
 class ElasticSearchSearcherTest {
 
     static final int BATCH_SIZE = 1;
     static final int SEARCH_SIZE = 1;
     private static final Username USERNAME = Username.of("user");
+    private static final Username OTHER_USERNAME = Username.of("other");
 
     @RegisterExtension
     static TikaExtension tika = new TikaExtension();
@@ -82,6 +87,7 @@ class ElasticSearchSearcherTest {
     TikaTextExtractor textExtractor;
     ReactorElasticSearchClient client;
     private InMemoryMailboxManager storeMailboxManager;
+    private ElasticSearchListeningMessageSearchIndex searchIndex;
 
     @BeforeEach
     void setUp() throws Exception {
@@ -96,6 +102,10 @@ class ElasticSearchSearcherTest {
             elasticSearch.getDockerElasticSearch().clientProvider().get(),
             elasticSearch.getDockerElasticSearch().configuration());
 
+        storeMailboxManager = createMailboxManager(IndexOwner.NO);
+    }
+
+    private InMemoryMailboxManager createMailboxManager(IndexOwner indexOwner) {
         InMemoryMessageId.Factory messageIdFactory = new InMemoryMessageId.Factory();
         MailboxIdRoutingKeyFactory routingKeyFactory = new MailboxIdRoutingKeyFactory();
 
@@ -105,7 +115,7 @@ class ElasticSearchSearcherTest {
             .inVmEventBus()
             .defaultAnnotationLimits()
             .defaultMessageParser()
-            .listeningSearchIndex(preInstanciationStage -> new ElasticSearchListeningMessageSearchIndex(
+            .listeningSearchIndex(preInstanciationStage -> searchIndex = new ElasticSearchListeningMessageSearchIndex(
                 preInstanciationStage.getMapperFactory(),
                 new ElasticSearchIndexer(client,
                     MailboxElasticSearchConstants.DEFAULT_MAILBOX_WRITE_ALIAS,
@@ -113,13 +123,13 @@ class ElasticSearchSearcherTest {
                 new ElasticSearchSearcher(client, new QueryConverter(new CriterionConverter()), SEARCH_SIZE,
                     new InMemoryId.Factory(), messageIdFactory,
                     MailboxElasticSearchConstants.DEFAULT_MAILBOX_READ_ALIAS, routingKeyFactory),
-                new MessageToElasticSearchJson(textExtractor, ZoneId.of("Europe/Paris"), IndexAttachments.YES),
-                preInstanciationStage.getSessionProvider(), routingKeyFactory))
+                new MessageToElasticSearchJson(textExtractor, ZoneId.of("Europe/Paris"), IndexAttachments.YES, FlagsStorage.IN_MESSAGE, indexOwner),
+                preInstanciationStage.getSessionProvider(), routingKeyFactory, FlagsStorage.IN_MESSAGE, indexOwner))
             .noPreDeletionHooks()
             .storeQuotaManager()
             .build();
 
-        storeMailboxManager = resources.getMailboxManager();
+        return resources.getMailboxManager();
     }
 
     @AfterEach
@@ -159,6 +169,143 @@ class ElasticSearchSearcherTest {
             .containsExactlyInAnyOrderElementsOf(expectedMessageIds);
     }
 
+    @Test
+    void searchingAllMailboxesShouldReturnOnlyMessagesOfTheOwnerWhenOwnerIsIndexed() throws Exception {
+        storeMailboxManager = createMailboxManager(IndexOwner.YES);
+        MailboxSession session = MailboxSessionUtil.create(USERNAME);
+        MailboxSession otherSession = MailboxSessionUtil.create(OTHER_USERNAME);
+        MailboxPath inbox = MailboxPath.inbox(USERNAME);
+        MailboxPath archive = MailboxPath.forUser(USERNAME, "archive");
+        MailboxPath otherInbox = MailboxPath.inbox(OTHER_USERNAME);
+        storeMailboxManager.createMailbox(inbox, session);
+        storeMailboxManager.createMailbox(archive, session);
+        storeMailboxManager.createMailbox(otherInbox, otherSession);
+
+        ComposedMessageId inboxMessage = addMessage(session, inbox);
+        ComposedMessageId archiveMessage = addMessage(session, archive);
+        addMessage(otherSession, otherInbox);
+
+        elasticSearch.awaitForElasticSearch();
+
+        MultimailboxesSearchQuery allMailboxesQuery = MultimailboxesSearchQuery
+            .from(SearchQuery.of(SearchQuery.all()))
+            .build();
+        assertThat(storeMailboxManager.search(allMailboxesQuery, session, 10)
+            .collectList().block())
+            .containsExactlyInAnyOrder(inboxMessage.getMessageId(), archiveMessage.getMessageId());
+    }
+
+    @Test
+    void searchingAllMailboxesShouldHonorExcludedMailboxesWhenOwnerIsIndexed() throws Exception {
+        storeMailboxManager = createMailboxManager(IndexOwner.YES);
+        MailboxSession session = MailboxSessionUtil.create(USERNAME);
+        MailboxPath inbox = MailboxPath.inbox(USERNAME);
+        MailboxPath trash = MailboxPath.forUser(USERNAME, "trash");
+        storeMailboxManager.createMailbox(inbox, session);
+        MailboxId trashId = storeMailboxManager.createMailbox(trash, session).get();
+
+        ComposedMessageId inboxMessage = addMessage(session, inbox);
+        addMessage(session, trash);
+
+        elasticSearch.awaitForElasticSearch();
+
+        MultimailboxesSearchQuery allMailboxesQuery = MultimailboxesSearchQuery
+            .from(SearchQuery.of(SearchQuery.all()))
+            .notInMailboxes(trashId)
+            .build();
+        assertThat(storeMailboxManager.search(allMailboxesQuery, session, 10)
+            .collectList().block())
+            .containsExactly(inboxMessage.getMessageId());
+    }
+
+    @Test
+    void searchingAllMailboxesShouldReturnDelegatedMessagesWhenOwnerIsIndexed() throws Exception {
+        storeMailboxManager = createMailboxManager(IndexOwner.YES);
+        MailboxSession session = MailboxSessionUtil.create(USERNAME);
+        MailboxSession otherSession = MailboxSessionUtil.create(OTHER_USERNAME);
+        MailboxPath inbox = MailboxPath.inbox(USERNAME);
+        MailboxPath otherInbox = MailboxPath.inbox(OTHER_USERNAME);
+        storeMailboxManager.createMailbox(inbox, session);
+        storeMailboxManager.createMailbox(otherInbox, otherSession);
+        storeMailboxManager.applyRightsCommand(otherInbox,
+            MailboxACL.command().forUser(USERNAME).rights(MailboxACL.Right.Read, MailboxACL.Right.Lookup).asAddition(),
+            otherSession);
+
+        ComposedMessageId inboxMessage = addMessage(session, inbox);
+        ComposedMessageId delegatedMessage = addMessage(otherSession, otherInbox);
+
+        elasticSearch.awaitForElasticSearch();
+
+        MultimailboxesSearchQuery allMailboxesQuery = MultimailboxesSearchQuery
+            .from(SearchQuery.of(SearchQuery.all()))
+            .build();
+        assertThat(storeMailboxManager.search(allMailboxesQuery, session, 10)
+            .collectList().block())
+            .containsExactlyInAnyOrder(inboxMessage.getMessageId(), delegatedMessage.getMessageId());
+    }
+
+    @Test
+    void searchingAMailboxShouldReturnItsMessagesWhenOwnerIsIndexed() throws Exception {
+        storeMailboxManager = createMailboxManager(IndexOwner.YES);
+        MailboxSession session = MailboxSessionUtil.create(USERNAME);
+        MailboxPath inbox = MailboxPath.inbox(USERNAME);
+        MailboxPath archive = MailboxPath.forUser(USERNAME, "archive");
+        storeMailboxManager.createMailbox(inbox, session);
+        storeMailboxManager.createMailbox(archive, session);
+
+        ComposedMessageId inboxMessage = addMessage(session, inbox);
+        addMessage(session, archive);
+
+        elasticSearch.awaitForElasticSearch();
+
+        assertThat(storeMailboxManager.getMailbox(inbox, session).search(SearchQuery.of(SearchQuery.all()), session))
+            .containsExactly(inboxMessage.getUid());
+    }
+
+    @Test
+    void deletedMessagesShouldNotBeFoundWhenOwnerIsIndexed() throws Exception {
+        storeMailboxManager = createMailboxManager(IndexOwner.YES);
+        MailboxSession session = MailboxSessionUtil.create(USERNAME);
+        MailboxPath inbox = MailboxPath.inbox(USERNAME);
+        storeMailboxManager.createMailbox(inbox, session);
+        ComposedMessageId deletedMessage = addMessage(session, inbox);
+        ComposedMessageId keptMessage = addMessage(session, inbox);
+        elasticSearch.awaitForElasticSearch();
+
+        storeMailboxManager.getMailbox(inbox, session).delete(ImmutableList.of(deletedMessage.getUid()), session);
+        elasticSearch.awaitForElasticSearch();
+
+        MultimailboxesSearchQuery allMailboxesQuery = MultimailboxesSearchQuery
+            .from(SearchQuery.of(SearchQuery.all()))
+            .build();
+        assertThat(storeMailboxManager.search(allMailboxesQuery, session, 10)
+            .collectList().block())
+            .containsExactly(keptMessage.getMessageId());
+    }
+
+    @Test
+    void deleteAllShouldRemoveOnlyMessagesOfTheMailboxWhenOwnerIsIndexed() throws Exception {
+        storeMailboxManager = createMailboxManager(IndexOwner.YES);
+        MailboxSession session = MailboxSessionUtil.create(USERNAME);
+        MailboxPath inbox = MailboxPath.inbox(USERNAME);
+        MailboxPath archive = MailboxPath.forUser(USERNAME, "archive");
+        MailboxId inboxId = storeMailboxManager.createMailbox(inbox, session).get();
+        storeMailboxManager.createMailbox(archive, session);
+        addMessage(session, inbox);
+        ComposedMessageId archiveMessage = addMessage(session, archive);
+        elasticSearch.awaitForElasticSearch();
+
+        searchIndex.deleteAll(session, inboxId).block();
+        elasticSearch.awaitForElasticSearch();
+
+        MultimailboxesSearchQuery allMailboxesQuery = MultimailboxesSearchQuery
+            .from(SearchQuery.of(SearchQuery.all()))
+            .build();
+        assertThat(storeMailboxManager.search(allMailboxesQuery, session, 10)
+            .collectList().block())
+            .containsExactly(archiveMessage.getMessageId());
+    }
+
     private ComposedMessageId addMessage(MailboxSession session, MailboxPath mailboxPath) throws Exception {
         MessageManager messageManager = storeMailboxManager.getMailbox(mailboxPath, session);
 
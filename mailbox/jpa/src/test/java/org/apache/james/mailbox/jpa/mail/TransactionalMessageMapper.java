@@ -121,6 +121,11 @@ public class TransactionalMessageMapper implements MessageMapper {
             () -> messageMapper.add(mailbox, message));
     }
 
+    @Override
+    public Flux<MessageMetaData> addReactive(Mailbox mailbox, List<MailboxMessage> messages) {
+        return messageMapper.addReactive(mailbox, messages);
+    }
+
     @Override
     public Iterator<UpdatedFlags> updateFlags(final Mailbox mailbox, final FlagsUpdateCalculator flagsUpdateCalculator,
             final MessageRange set) throws MailboxException {
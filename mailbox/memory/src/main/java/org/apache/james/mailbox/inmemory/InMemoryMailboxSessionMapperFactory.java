@@ -18,6 +18,8 @@
  ****************************************************************/
 package org.apache.james.mailbox.inmemory;
 
+import java.util.Optional;
+
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.inmemory.mail.InMemoryAnnotationMapper;
@@ -36,6 +38,10 @@ import org.apache.james.mailbox.store.mail.MailboxMapper;
 import org.apache.james.mailbox.store.mail.MessageIdMapper;
 import org.apache.james.mailbox.store.mail.ModSeqProvider;
 import org.apache.james.mailbox.store.mail.UidProvider;
+import org.apache.james.mailbox.store.projections.ExpungeLog;
+import org.apache.james.mailbox.store.projections.MemoryExpungeLog;
+import org.apache.james.mailbox.store.projections.MemoryMessageStructureProjection;
+import org.apache.james.mailbox.store.projections.MessageStructureProjection;
 import org.apache.james.mailbox.store.user.SubscriptionMapper;
 
 public class InMemoryMailboxSessionMapperFactory extends MailboxSessionMapperFactory implements AttachmentMapperFactory {
@@ -48,6 +54,8 @@ public class InMemoryMailboxSessionMapperFactory extends MailboxSessionMapperFac
     private final AnnotationMapper annotationMapper;
     private final InMemoryUidProvider uidProvider;
     private final InMemoryModSeqProvider modSeqProvider;
+    private final MessageStructureProjection messageStructureProjection;
+    private final ExpungeLog expungeLog;
 
     public InMemoryMailboxSessionMapperFactory() {
         mailboxMapper = new InMemoryMailboxMapper();
@@ -59,6 +67,8 @@ public class InMemoryMailboxSessionMapperFactory extends MailboxSessionMapperFac
         subscriptionMapper = new InMemorySubscriptionMapper();
         attachmentMapper = new InMemoryAttachmentMapper();
         annotationMapper = new InMemoryAnnotationMapper();
+        messageStructureProjection = new MemoryMessageStructureProjection();
+        expungeLog = new MemoryExpungeLog();
     }
     
     @Override
@@ -107,6 +117,16 @@ public class InMemoryMailboxSessionMapperFactory extends MailboxSessionMapperFac
         return modSeqProvider;
     }
 
+    @Override
+    public Optional<MessageStructureProjection> getMessageStructureProjection() {
+        return Optional.of(messageStructureProjection);
+    }
+
+    @Override
+    public Optional<ExpungeLog> getExpungeLog() {
+        return Optional.of(expungeLog);
+    }
+
     @Override
     public AttachmentMapper getAttachmentMapper(MailboxSession session) {
         return attachmentMapper;
@@ -0,0 +1,116 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.inmemory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.james.core.Username;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MailboxSessionUtil;
+import org.apache.james.mailbox.MessageManager;
+import org.apache.james.mailbox.inmemory.manager.InMemoryIntegrationResources;
+import org.apache.james.mailbox.model.ComposedMessageId;
+import org.apache.james.mailbox.model.FetchGroup;
+import org.apache.james.mailbox.model.Header;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.mailbox.model.MessageResult;
+import org.apache.james.mailbox.model.MessageResultIterator;
+import org.apache.james.mailbox.store.event.ComputeMessageStructureProjectionListener;
+import org.apache.james.mailbox.store.projections.MessageStructureProjection;
+import org.apache.james.util.ClassLoaderUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.publisher.Mono;
+
+class InMemoryMessageStructureProjectionTest {
+    private static final Username BOB = Username.of("bob");
+    private static final FetchGroup ENVELOPE_AND_STRUCTURE = FetchGroup.MINIMAL
+        .with(FetchGroup.Profile.ENVELOPE, FetchGroup.Profile.MIME_DESCRIPTOR);
+
+    private MessageStructureProjection projection;
+    private MessageManager messageManager;
+    private MailboxSession session;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        InMemoryIntegrationResources resources = InMemoryIntegrationResources.defaultResources();
+        InMemoryMailboxManager mailboxManager = resources.getMailboxManager();
+        projection = mailboxManager.getMapperFactory().getMessageStructureProjection().get();
+        resources.getEventBus().register(new ComputeMessageStructureProjectionListener(
+            mailboxManager.getSessionProvider(), mailboxManager.getMapperFactory()));
+
+        session = MailboxSessionUtil.create(BOB);
+        MailboxPath inbox = MailboxPath.inbox(BOB);
+        mailboxManager.createMailbox(inbox, session);
+        messageManager = mailboxManager.getMailbox(inbox, session);
+    }
+
+    @Test
+    void appendShouldComputeMessageStructure() throws Exception {
+        ComposedMessageId composedId = append();
+
+        assertThat(Mono.from(projection.retrieve(composedId.getMessageId())).blockOptional())
+            .isPresent();
+    }
+
+    @Test
+    void getMessagesShouldServeEnvelopeAndStructureFromProjection() throws Exception {
+        append();
+
+        MessageResult result = fetchFirst();
+
+        assertThat(ImmutableList.copyOf(result.getHeaders().headers()))
+            .extracting(Header::getName)
+            .containsOnly("From", "To", "Subject", "Date", "Message-Id");
+        assertThat(result.getMimeDescriptor().getMimeType())
+            .isEqualToIgnoringCase("multipart");
+    }
+
+    @Test
+    void getMessagesShouldFallBackToMessageContentWhenNotProjected() throws Exception {
+        ComposedMessageId composedId = append();
+        Mono.from(projection.delete(composedId.getMessageId())).block();
+
+        MessageResult result = fetchFirst();
+
+        assertThat(ImmutableList.copyOf(result.getHeaders().headers()))
+            .extracting(Header::getName)
+            .contains("Subject", "Mime-Version");
+        assertThat(result.getMimeDescriptor().getMimeType())
+            .isEqualToIgnoringCase("multipart");
+    }
+
+    private ComposedMessageId append() throws Exception {
+        return messageManager.appendMessage(MessageManager.AppendCommand.builder()
+                .build(ClassLoaderUtils.getSystemResourceAsByteArray("eml/twoAttachments.eml")),
+            session)
+            .getId();
+    }
+
+    private MessageResult fetchFirst() throws Exception {
+        MessageResultIterator results = messageManager.getMessages(MessageRange.all(), ENVELOPE_AND_STRUCTURE, session);
+        assertThat(results.hasNext()).isTrue();
+        return results.next();
+    }
+}
@@ -19,12 +19,13 @@
 
 package org.apache.james.mailbox.inmemory;
 
+import org.apache.james.mailbox.MailboxManagerBulkAppendStressContract;
 import org.apache.james.mailbox.MailboxManagerStressContract;
 import org.apache.james.mailbox.events.EventBus;
 import org.apache.james.mailbox.extension.PreDeletionHook;
 import org.junit.jupiter.api.BeforeEach;
 
-class MemoryMailboxManagerStressTest implements MailboxManagerStressContract<InMemoryMailboxManager> {
+class MemoryMailboxManagerStressTest implements MailboxManagerStressContract<InMemoryMailboxManager>, MailboxManagerBulkAppendStressContract<InMemoryMailboxManager> {
 
     InMemoryMailboxManager mailboxManager;
 
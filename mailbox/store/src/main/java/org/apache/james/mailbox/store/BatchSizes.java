@@ -40,6 +40,7 @@ public class BatchSizes {
                 .fetchFull(batchSize)
                 .copyBatchSize(batchSize)
                 .moveBatchSize(batchSize)
+                .appendBatchSize(batchSize)
                 .build();
     }
 
@@ -55,6 +56,7 @@ public class BatchSizes {
         private Optional<Integer> fetchFull;
         private Optional<Integer> copyBatchSize;
         private Optional<Integer> moveBatchSize;
+        private Optional<Integer> appendBatchSize;
 
         private Builder() {
             fetchMetadata = Optional.empty();
@@ -63,6 +65,7 @@ public class BatchSizes {
             fetchFull = Optional.empty();
             copyBatchSize = Optional.empty();
             moveBatchSize = Optional.empty();
+            appendBatchSize = Optional.empty();
         }
 
         public Builder fetchMetadata(int batchSize) {
@@ -101,6 +104,12 @@ public class BatchSizes {
             return this;
         }
 
+        public Builder appendBatchSize(int batchSize) {
+            Preconditions.checkArgument(batchSize > 0, "'appendBatchSize' must be greater than zero");
+            this.appendBatchSize = Optional.of(batchSize);
+            return this;
+        }
+
         public BatchSizes build() {
             return new BatchSizes(
                     fetchMetadata.orElse(DEFAULT_BATCH_SIZE),
@@ -108,7 +117,8 @@ public class BatchSizes {
                     fetchBody.orElse(DEFAULT_BATCH_SIZE),
                     fetchFull.orElse(DEFAULT_BATCH_SIZE),
                     copyBatchSize,
-                    moveBatchSize);
+                    moveBatchSize,
+                    appendBatchSize.orElse(DEFAULT_BATCH_SIZE));
         }
     }
 
@@ -118,14 +128,16 @@ public class BatchSizes {
     private final int fetchFull;
     private final Optional<Integer> copyBatchSize;
     private final Optional<Integer> moveBatchSize;
+    private final int appendBatchSize;
 
-    private BatchSizes(int fetchMetadata, int fetchHeaders, int fetchBody, int fetchFull, Optional<Integer> copyBatchSize, Optional<Integer> moveBatchSize) {
+    private BatchSizes(int fetchMetadata, int fetchHeaders, int fetchBody, int fetchFull, Optional<Integer> copyBatchSize, Optional<Integer> moveBatchSize, int appendBatchSize) {
         this.fetchMetadata = fetchMetadata;
         this.fetchHeaders = fetchHeaders;
         this.fetchBody = fetchBody;
         this.fetchFull = fetchFull;
         this.copyBatchSize = copyBatchSize;
         this.moveBatchSize = moveBatchSize;
+        this.appendBatchSize = appendBatchSize;
     }
 
     public int getFetchMetadata() {
@@ -152,6 +164,10 @@ public class BatchSizes {
         return moveBatchSize;
     }
 
+    public int getAppendBatchSize() {
+        return appendBatchSize;
+    }
+
     @Override
     public final boolean equals(Object obj) {
         if (obj instanceof BatchSizes) {
@@ -161,14 +177,15 @@ public class BatchSizes {
                 && Objects.equal(this.fetchBody, other.fetchBody)
                 && Objects.equal(this.fetchFull, other.fetchFull)
                 && Objects.equal(this.copyBatchSize, other.copyBatchSize)
-                && Objects.equal(this.moveBatchSize, other.moveBatchSize);
+                && Objects.equal(this.moveBatchSize, other.moveBatchSize)
+                && Objects.equal(this.appendBatchSize, other.appendBatchSize);
         }
         return false;
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hashCode(this.fetchMetadata, this.fetchHeaders, this.fetchBody, this.fetchFull, this.copyBatchSize, this.moveBatchSize);
+        return Objects.hashCode(this.fetchMetadata, this.fetchHeaders, this.fetchBody, this.fetchFull, this.copyBatchSize, this.moveBatchSize, this.appendBatchSize);
     }
 
     @Override
@@ -180,6 +197,7 @@ public class BatchSizes {
                 .add("fetchFull", fetchFull)
                 .add("copyBatchSize", copyBatchSize)
                 .add("moveBatchSize", moveBatchSize)
+                .add("appendBatchSize", appendBatchSize)
                 .toString();
     }
 }
@@ -0,0 +1,69 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store;
+
+import java.util.Collection;
+
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.store.projections.ExpungeLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Records expunged messages into the {@link ExpungeLog} of the mailbox implementation, if any.
+ *
+ * Expunges do not increment the mod-sequence of the mailbox, entries are thus recorded with the current highest
+ * mod-sequence. It is to be called before dispatching the related events so that clients notified of an expunge find
+ * it in the log.
+ *
+ * Recording never fails, so that the events are dispatched anyway: when the log can not be written, the log of the
+ * mailbox is dropped instead, which ends its coverage and makes QRESYNC clients fall back to a full resynchronisation.
+ */
+class ExpungeLogRecorder {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExpungeLogRecorder.class);
+
+    private final MailboxSessionMapperFactory mapperFactory;
+
+    ExpungeLogRecorder(MailboxSessionMapperFactory mapperFactory) {
+        this.mapperFactory = mapperFactory;
+    }
+
+    Mono<Void> record(MailboxId mailboxId, Collection<MessageUid> uids) {
+        if (uids.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.justOrEmpty(mapperFactory.getExpungeLog())
+            .flatMap(expungeLog -> Mono.fromCallable(() -> mapperFactory.getModSeqProvider().highestModSeq(mailboxId))
+                .flatMap(modSeq -> Mono.from(expungeLog.append(mailboxId, modSeq, uids)))
+                .onErrorResume(e -> dropLog(expungeLog, mailboxId, e)));
+    }
+
+    private Mono<Void> dropLog(ExpungeLog expungeLog, MailboxId mailboxId, Throwable cause) {
+        LOGGER.error("Failed recording expunged uids of mailbox {}, dropping its expunge log", mailboxId.serialize(), cause);
+        return Mono.from(expungeLog.delete(mailboxId))
+            .onErrorResume(e -> {
+                LOGGER.error("Failed dropping the expunge log of mailbox {}, VANISHED responses may miss uids", mailboxId.serialize(), e);
+                return Mono.empty();
+            });
+    }
+}
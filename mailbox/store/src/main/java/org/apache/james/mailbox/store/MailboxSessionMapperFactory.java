@@ -18,6 +18,8 @@
  ****************************************************************/
 package org.apache.james.mailbox.store;
 
+import java.util.Optional;
+
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.RequestAware;
 import org.apache.james.mailbox.store.mail.AnnotationMapper;
@@ -28,6 +30,8 @@ import org.apache.james.mailbox.store.mail.MessageMapper;
 import org.apache.james.mailbox.store.mail.MessageMapperFactory;
 import org.apache.james.mailbox.store.mail.ModSeqProvider;
 import org.apache.james.mailbox.store.mail.UidProvider;
+import org.apache.james.mailbox.store.projections.ExpungeLog;
+import org.apache.james.mailbox.store.projections.MessageStructureProjection;
 import org.apache.james.mailbox.store.transaction.Mapper;
 import org.apache.james.mailbox.store.user.SubscriptionMapper;
 import org.apache.james.mailbox.store.user.SubscriptionMapperFactory;
@@ -128,6 +132,20 @@ public abstract class MailboxSessionMapperFactory implements RequestAware, Mailb
 
     public abstract ModSeqProvider getModSeqProvider();
 
+    /**
+     * Return the {@link MessageStructureProjection} maintained for this implementation, if any
+     */
+    public Optional<MessageStructureProjection> getMessageStructureProjection() {
+        return Optional.empty();
+    }
+
+    /**
+     * Return the {@link ExpungeLog} maintained for this implementation, if any
+     */
+    public Optional<ExpungeLog> getExpungeLog() {
+        return Optional.empty();
+    }
+
     /**
      * Call endRequest on {@link Mapper} instances
      */
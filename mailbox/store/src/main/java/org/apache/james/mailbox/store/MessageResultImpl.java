@@ -26,6 +26,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import javax.mail.Flags;
 
@@ -43,6 +44,8 @@ import org.apache.james.mailbox.model.MessageResult;
 import org.apache.james.mailbox.model.MimeDescriptor;
 import org.apache.james.mailbox.model.MimePath;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
+import org.apache.james.mailbox.store.projections.MessageStructure;
 import org.apache.james.mailbox.store.streaming.InputStreamContent;
 import org.apache.james.mailbox.store.streaming.InputStreamContent.Type;
 import org.apache.james.mime4j.MimeException;
@@ -57,7 +60,7 @@ public class MessageResultImpl implements MessageResult {
 
     private final Map<MimePath, PartContent> partsByPath = new HashMap<>();
     private final MailboxMessage message;
-    private final HeadersImpl headers;
+    private final Headers headers;
 
     private MimeDescriptor mimeDescriptor;
     private Content fullContent;
@@ -68,6 +71,16 @@ public class MessageResultImpl implements MessageResult {
         this.headers = new HeadersImpl(message);
     }
 
+    /**
+     * Serves the MIME descriptor and the envelope headers from a precomputed {@link MessageStructure}: only envelope
+     * headers are then available.
+     */
+    MessageResultImpl(MailboxMessage message, MessageStructure messageStructure) {
+        this.message = message;
+        this.mimeDescriptor = messageStructure.getMimeDescriptor();
+        this.headers = mimeDescriptor;
+    }
+
     @Override
     public MessageMetaData messageMetaData() {
         return message.metaData();
@@ -276,8 +289,13 @@ public class MessageResultImpl implements MessageResult {
         // it can be relative expensive on big messages and slow mailbox implementations
         if (mimeDescriptor == null) {
             try {
-                if (isComposite(message.getMediaType())) {
-                    mimeDescriptor = MimeDescriptorImpl.build(getFullContent().getInputStream());
+                if (MimeStructureProjection.isComposite(message.getMediaType())) {
+                    Optional<MimeDescriptor> projectedDescriptor = MimeStructureProjection.retrieve(new PropertyBuilder(message.getProperties()));
+                    if (projectedDescriptor.isPresent()) {
+                        mimeDescriptor = projectedDescriptor.get();
+                    } else {
+                        mimeDescriptor = MimeDescriptorImpl.build(getFullContent().getInputStream());
+                    }
                 } else {
                     mimeDescriptor = new LazyMimeDescriptor(this, message);
                 }
@@ -288,18 +306,6 @@ public class MessageResultImpl implements MessageResult {
         return mimeDescriptor;
     }
 
-    /**
-     * Is this a composite media type (as per RFC2045)?
-     *
-     * TODO: Move to Mime4j
-     * @param mediaType possibly null
-     * @return true when the type is composite,
-     * false otherwise
-     */
-    private boolean isComposite(String mediaType) {
-        return "message".equalsIgnoreCase(mediaType) || "multipart".equalsIgnoreCase(mediaType);
-    }
-    
     @Override
     public Headers getHeaders() {
         return headers;
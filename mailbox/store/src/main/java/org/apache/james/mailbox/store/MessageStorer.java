@@ -21,6 +21,7 @@ package org.apache.james.mailbox.store;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.mail.Flags;
@@ -42,8 +43,12 @@ import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.steveash.guavate.Guavate;
 import com.google.common.collect.ImmutableList;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
 public interface MessageStorer {
     /**
      * If supported by the underlying implementation, this method will parse the messageContent to retrieve associated
@@ -53,6 +58,60 @@ public interface MessageStorer {
      */
     Pair<MessageMetaData, Optional<List<MessageAttachmentMetadata>>> appendMessageToStore(Mailbox mailbox, Date internalDate, int size, int bodyStartOctet, SharedInputStream content, Flags flags, PropertyBuilder propertyBuilder, MailboxSession session) throws MailboxException;
 
+    /**
+     * Stores several messages, UIDs following the order of the list.
+     *
+     * Results are emitted in the order of the list. Upon failure, the results of the messages stored beforehand are
+     * emitted before the error.
+     */
+    default Flux<Pair<MessageMetaData, Optional<List<MessageAttachmentMetadata>>>> appendMessagesToStore(Mailbox mailbox, List<MessageToStore> messages, MailboxSession session) {
+        return Flux.fromIterable(messages)
+            .concatMap(message -> Mono.fromCallable(() -> appendMessageToStore(mailbox, message.getInternalDate(), message.getSize(),
+                message.getBodyStartOctet(), message.getContent(), message.getFlags(), message.getPropertyBuilder(), session)));
+    }
+
+    class MessageToStore {
+        private final Date internalDate;
+        private final int size;
+        private final int bodyStartOctet;
+        private final SharedInputStream content;
+        private final Flags flags;
+        private final PropertyBuilder propertyBuilder;
+
+        public MessageToStore(Date internalDate, int size, int bodyStartOctet, SharedInputStream content, Flags flags, PropertyBuilder propertyBuilder) {
+            this.internalDate = internalDate;
+            this.size = size;
+            this.bodyStartOctet = bodyStartOctet;
+            this.content = content;
+            this.flags = flags;
+            this.propertyBuilder = propertyBuilder;
+        }
+
+        public Date getInternalDate() {
+            return internalDate;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getBodyStartOctet() {
+            return bodyStartOctet;
+        }
+
+        public SharedInputStream getContent() {
+            return content;
+        }
+
+        public Flags getFlags() {
+            return flags;
+        }
+
+        public PropertyBuilder getPropertyBuilder() {
+            return propertyBuilder;
+        }
+    }
+
     /**
      * MessageStorer parsing, storing and returning AttachmentMetadata
      *
@@ -92,6 +151,28 @@ public interface MessageStorer {
             });
         }
 
+        @Override
+        public Flux<Pair<MessageMetaData, Optional<List<MessageAttachmentMetadata>>>> appendMessagesToStore(Mailbox mailbox, List<MessageToStore> messages, MailboxSession session) {
+            MessageMapper messageMapper = mapperFactory.getMessageMapper(session);
+
+            return Flux.fromIterable(messages)
+                .concatMap(message -> Mono.fromCallable(() -> createMessage(mailbox, message, session)))
+                .collectList()
+                .flatMapMany(mailboxMessages -> {
+                    Map<MessageId, List<MessageAttachmentMetadata>> attachments = mailboxMessages.stream()
+                        .collect(Guavate.toImmutableMap(MailboxMessage::getMessageId, MailboxMessage::getAttachments));
+                    return messageMapper.addReactive(mailbox, mailboxMessages)
+                        .map(metadata -> Pair.of(metadata, Optional.of(attachments.get(metadata.getMessageId()))));
+                });
+        }
+
+        private MailboxMessage createMessage(Mailbox mailbox, MessageToStore message, MailboxSession session) throws MailboxException {
+            MessageId messageId = messageIdFactory.generate();
+            List<MessageAttachmentMetadata> attachments = storeAttachments(messageId, message.getContent(), session);
+            return messageFactory.createMessage(messageId, mailbox, message.getInternalDate(), message.getSize(), message.getBodyStartOctet(),
+                message.getContent(), message.getFlags(), message.getPropertyBuilder(), attachments);
+        }
+
         private List<MessageAttachmentMetadata> storeAttachments(MessageId messageId, SharedInputStream messageContent, MailboxSession session) throws MailboxException {
             List<ParsedAttachment> attachments = extractAttachments(messageContent);
             return attachmentMapperFactory.getAttachmentMapper(session)
@@ -135,5 +216,18 @@ public interface MessageStorer {
                 return Pair.of(metadata, Optional.empty());
             });
         }
+
+        @Override
+        public Flux<Pair<MessageMetaData, Optional<List<MessageAttachmentMetadata>>>> appendMessagesToStore(Mailbox mailbox, List<MessageToStore> messages, MailboxSession session) {
+            MessageMapper messageMapper = mapperFactory.getMessageMapper(session);
+
+            return Flux.fromIterable(messages)
+                .concatMap(message -> Mono.fromCallable(() -> messageFactory.createMessage(messageIdFactory.generate(), mailbox,
+                    message.getInternalDate(), message.getSize(), message.getBodyStartOctet(), message.getContent(), message.getFlags(),
+                    message.getPropertyBuilder(), ImmutableList.of())))
+                .collectList()
+                .flatMapMany(mailboxMessages -> messageMapper.addReactive(mailbox, mailboxMessages))
+                .map(metadata -> Pair.of(metadata, Optional.empty()));
+        }
     }
 }
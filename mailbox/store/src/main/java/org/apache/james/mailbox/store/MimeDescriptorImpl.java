@@ -71,6 +71,19 @@ public class MimeDescriptorImpl implements MimeDescriptor {
             next = parser.next();
         }
 
+        return createDescriptor(next, parser, headers);
+    }
+
+    /**
+     * Builds the descriptor of an entity whose headers were already read from the given parser, allowing callers
+     * to describe a message within the parse they perform for their own needs.
+     */
+    static MimeDescriptorImpl build(MimeTokenStream parser, Collection<Header> headers) throws IOException, MimeException {
+        return createDescriptor(parser.getState(), parser, headers);
+    }
+
+    private static MimeDescriptorImpl createDescriptor(EntityState next, MimeTokenStream parser, Collection<Header> headers)
+            throws IOException, MimeException {
         final MimeDescriptorImpl mimeDescriptorImpl;
         switch (next) {
             case T_BODY:
@@ -189,14 +202,14 @@ public class MimeDescriptorImpl implements MimeDescriptor {
     private final String location;
     private final String md5;
 
-    private MimeDescriptorImpl(long bodyOctets,
-                               String contentDescription, String contentId,
-                               long lines, String subType, String type,
-                               String transferEncoding, Collection<Header> headers,
-                               Map<String, String> contentTypeParameters, List<String> languages,
-                               String disposition, Map<String, String> dispositionParams,
-                               MimeDescriptor embeddedMessage, Collection<MimeDescriptor> parts,
-                               String location, String md5) {
+    MimeDescriptorImpl(long bodyOctets,
+                       String contentDescription, String contentId,
+                       long lines, String subType, String type,
+                       String transferEncoding, Collection<Header> headers,
+                       Map<String, String> contentTypeParameters, List<String> languages,
+                       String disposition, Map<String, String> dispositionParams,
+                       MimeDescriptor embeddedMessage, Collection<MimeDescriptor> parts,
+                       String location, String md5) {
         super();
         this.type = type;
         this.bodyOctets = bodyOctets;
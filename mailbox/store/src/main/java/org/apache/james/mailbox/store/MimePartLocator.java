@@ -0,0 +1,142 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.james.mailbox.model.MimeDescriptor;
+import org.apache.james.mailbox.model.MimePath;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Locates the raw body of the leaf parts of a multipart message within its content.
+ *
+ * A location is only retained when the located body length matches the one computed by the MIME parser, so that
+ * serving a part from its location returns the same bytes as parsing the message.
+ */
+class MimePartLocator {
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    static Map<MimePath, Long> locateBodies(byte[] content, MimeDescriptor descriptor) {
+        ImmutableMap.Builder<MimePath, Long> bodyStartOctets = ImmutableMap.builder();
+        locateParts(content, bodyStart(content, 0, content.length), content.length, descriptor, new int[0], bodyStartOctets);
+        return bodyStartOctets.build();
+    }
+
+    static int[] childPath(int[] path, int position) {
+        int[] childPath = Arrays.copyOf(path, path.length + 1);
+        childPath[path.length] = position;
+        return childPath;
+    }
+
+    private static void locateParts(byte[] content, int bodyStart, int bodyEnd, MimeDescriptor descriptor, int[] path,
+                                    ImmutableMap.Builder<MimePath, Long> bodyStartOctets) {
+        String boundary = descriptor.contentTypeParameters().get("boundary");
+        if (!"multipart".equalsIgnoreCase(descriptor.getMimeType()) || boundary == null) {
+            return;
+        }
+        List<Integer> delimiters = delimiterLines(content, bodyStart, bodyEnd, ("--" + boundary).getBytes(US_ASCII));
+        Iterator<MimeDescriptor> parts = descriptor.parts();
+        for (int i = 0; i + 1 < delimiters.size() && parts.hasNext(); i++) {
+            MimeDescriptor part = parts.next();
+            int[] partPath = childPath(path, i + 1);
+            int partStart = nextLine(content, delimiters.get(i), bodyEnd);
+            int partEnd = lineBreakStart(content, delimiters.get(i + 1), partStart);
+            int partBodyStart = bodyStart(content, partStart, partEnd);
+
+            if ("multipart".equalsIgnoreCase(part.getMimeType())) {
+                locateParts(content, partBodyStart, partEnd, part, partPath, bodyStartOctets);
+            } else if (part.embeddedMessage() == null && partEnd - partBodyStart == part.getBodyOctets()) {
+                bodyStartOctets.put(new MimePath(partPath), (long) partBodyStart);
+            }
+        }
+    }
+
+    private static List<Integer> delimiterLines(byte[] content, int start, int end, byte[] delimiter) {
+        List<Integer> delimiters = new ArrayList<>();
+        for (int position = start; position < end; position = nextLine(content, position, end)) {
+            if (isDelimiter(content, position, end, delimiter)) {
+                delimiters.add(position);
+            }
+        }
+        return delimiters;
+    }
+
+    private static boolean isDelimiter(byte[] content, int position, int end, byte[] delimiter) {
+        if (position + delimiter.length > end) {
+            return false;
+        }
+        for (int i = 0; i < delimiter.length; i++) {
+            if (content[position + i] != delimiter[i]) {
+                return false;
+            }
+        }
+        int next = position + delimiter.length;
+        return next == end
+            || content[next] == CR
+            || content[next] == LF
+            || content[next] == '-'
+            || content[next] == ' '
+            || content[next] == '\t';
+    }
+
+    private static int bodyStart(byte[] content, int start, int end) {
+        for (int position = start; position < end; position = nextLine(content, position, end)) {
+            if (content[position] == LF) {
+                return position + 1;
+            }
+            if (content[position] == CR && position + 1 < end && content[position + 1] == LF) {
+                return position + 2;
+            }
+        }
+        return end;
+    }
+
+    private static int nextLine(byte[] content, int position, int end) {
+        for (int i = position; i < end; i++) {
+            if (content[i] == LF) {
+                return i + 1;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * The line break preceding a delimiter belongs to the delimiter.
+     */
+    private static int lineBreakStart(byte[] content, int delimiter, int start) {
+        int end = delimiter;
+        if (end > start && content[end - 1] == LF) {
+            end--;
+            if (end > start && content[end - 1] == CR) {
+                end--;
+            }
+        }
+        return end;
+    }
+}
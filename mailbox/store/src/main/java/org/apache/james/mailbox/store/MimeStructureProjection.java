@@ -0,0 +1,390 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store;
+
+import static org.apache.james.mailbox.store.mail.model.StandardNames.MIME_STRUCTURE_NAME;
+import static org.apache.james.mailbox.store.mail.model.StandardNames.MIME_STRUCTURE_SPACE;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.model.Header;
+import org.apache.james.mailbox.model.MimeDescriptor;
+import org.apache.james.mailbox.model.MimePath;
+import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.steveash.guavate.Guavate;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Persists the MIME structure of a message within its properties so that it can be served without reading nor
+ * parsing the message content.
+ *
+ * The structure is serialized as JSON then split into chunks short enough to fit any property storage. It records the
+ * location of the body of leaf parts within the message content, allowing to read them without parsing the message.
+ */
+public class MimeStructureProjection {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MimeStructureProjection.class);
+    @VisibleForTesting
+    static final int CHUNK_LENGTH = 1000;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+        .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    /**
+     * Is this a composite media type (as per RFC2045)? Only such messages get their structure recorded.
+     *
+     * @param mediaType possibly null
+     */
+    public static boolean isComposite(String mediaType) {
+        return "message".equalsIgnoreCase(mediaType) || "multipart".equalsIgnoreCase(mediaType);
+    }
+
+    /**
+     * Can the structure of this message be described without parsing its content?
+     */
+    public static boolean isRecorded(String mediaType, PropertyBuilder propertyBuilder) {
+        return !isComposite(mediaType) || !propertyBuilder.getValues(MIME_STRUCTURE_SPACE, MIME_STRUCTURE_NAME).isEmpty();
+    }
+
+    public static void store(MimeDescriptor descriptor, PropertyBuilder propertyBuilder) throws IOException, MailboxException {
+        store(descriptor, ImmutableMap.of(), propertyBuilder);
+    }
+
+    /**
+     * @param bodyStartOctets offsets of the body of leaf parts within the message content, see {@link MimePartLocator}
+     */
+    public static void store(MimeDescriptor descriptor, Map<MimePath, Long> bodyStartOctets, PropertyBuilder propertyBuilder) throws IOException, MailboxException {
+        String json = OBJECT_MAPPER.writeValueAsString(PartDTO.from(descriptor, header -> true, bodyStartOctets, new int[0]));
+
+        propertyBuilder.setProperty(MIME_STRUCTURE_SPACE, MIME_STRUCTURE_NAME,
+            ImmutableList.copyOf(Splitter.fixedLength(CHUNK_LENGTH).split(json)));
+    }
+
+    /**
+     * Serializes a MIME structure as JSON, only retaining the headers of each part matching the given filter.
+     */
+    public static String serialize(MimeDescriptor descriptor, Predicate<Header> headerFilter) throws IOException, MailboxException {
+        return OBJECT_MAPPER.writeValueAsString(PartDTO.from(descriptor, headerFilter));
+    }
+
+    public static MimeDescriptor deserialize(String json) throws IOException {
+        return OBJECT_MAPPER.readValue(json, PartDTO.class)
+            .toMimeDescriptor();
+    }
+
+    public static Optional<MimeDescriptor> retrieve(PropertyBuilder propertyBuilder) {
+        return retrievePart(propertyBuilder)
+            .map(PartDTO::toMimeDescriptor);
+    }
+
+    /**
+     * Location of the raw body of the given part within the message content, if recorded upon append.
+     */
+    public static Optional<BodyLocation> locateBody(PropertyBuilder propertyBuilder, MimePath path) {
+        Optional<PartDTO> part = retrievePart(propertyBuilder);
+        for (int position : path.getPositions()) {
+            part = part.map(PartDTO::getParts)
+                .filter(parts -> position >= 1 && position <= parts.size())
+                .map(parts -> parts.get(position - 1));
+        }
+        return part.filter(partDTO -> partDTO.getBodyStartOctet() != null)
+            .map(partDTO -> new BodyLocation(partDTO.getBodyStartOctet(), partDTO.getBodyOctets()));
+    }
+
+    private static Optional<PartDTO> retrievePart(PropertyBuilder propertyBuilder) {
+        List<String> chunks = propertyBuilder.getValues(MIME_STRUCTURE_SPACE, MIME_STRUCTURE_NAME);
+        if (chunks.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(OBJECT_MAPPER.readValue(String.join("", chunks), PartDTO.class));
+        } catch (IOException e) {
+            LOGGER.warn("Invalid MIME structure projection, falling back to message parsing", e);
+            return Optional.empty();
+        }
+    }
+
+    public static class BodyLocation {
+        private final long startOctet;
+        private final long octets;
+
+        BodyLocation(long startOctet, long octets) {
+            this.startOctet = startOctet;
+            this.octets = octets;
+        }
+
+        public long getStartOctet() {
+            return startOctet;
+        }
+
+        public long getOctets() {
+            return octets;
+        }
+    }
+
+    static class HeaderDTO {
+        static HeaderDTO from(Header header) {
+            return new HeaderDTO(header.getName(), header.getValue());
+        }
+
+        private final String name;
+        private final String value;
+
+        @JsonCreator
+        HeaderDTO(@JsonProperty("name") String name,
+                  @JsonProperty("value") String value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        @JsonProperty("name")
+        public String getName() {
+            return name;
+        }
+
+        @JsonProperty("value")
+        public String getValue() {
+            return value;
+        }
+
+        Header toHeader() {
+            return new Header(name, value);
+        }
+    }
+
+    static class PartDTO {
+        static PartDTO from(MimeDescriptor descriptor) throws MailboxException {
+            return from(descriptor, header -> true);
+        }
+
+        static PartDTO from(MimeDescriptor descriptor, Predicate<Header> headerFilter) throws MailboxException {
+            return from(descriptor, headerFilter, ImmutableMap.of(), new int[0]);
+        }
+
+        static PartDTO from(MimeDescriptor descriptor, Predicate<Header> headerFilter, Map<MimePath, Long> bodyStartOctets,
+                            int[] path) throws MailboxException {
+            ImmutableList.Builder<HeaderDTO> headers = ImmutableList.builder();
+            for (Iterator<Header> it = descriptor.headers(); it.hasNext();) {
+                Header header = it.next();
+                if (headerFilter.test(header)) {
+                    headers.add(HeaderDTO.from(header));
+                }
+            }
+            ImmutableList.Builder<PartDTO> parts = ImmutableList.builder();
+            int position = 1;
+            for (Iterator<MimeDescriptor> it = descriptor.parts(); it.hasNext(); position++) {
+                parts.add(from(it.next(), headerFilter, bodyStartOctets, MimePartLocator.childPath(path, position)));
+            }
+            PartDTO embeddedMessage = null;
+            if (descriptor.embeddedMessage() != null) {
+                embeddedMessage = from(descriptor.embeddedMessage(), headerFilter);
+            }
+
+            return new PartDTO(
+                descriptor.getMimeType(),
+                descriptor.getMimeSubType(),
+                descriptor.getContentID(),
+                descriptor.getContentDescription(),
+                descriptor.getContentLocation(),
+                descriptor.getContentMD5(),
+                descriptor.getTransferContentEncoding(),
+                descriptor.getLanguages(),
+                descriptor.getDisposition(),
+                descriptor.getDispositionParams(),
+                descriptor.contentTypeParameters(),
+                descriptor.getLines(),
+                descriptor.getBodyOctets(),
+                bodyStartOctets.get(new MimePath(path)),
+                headers.build(),
+                parts.build(),
+                embeddedMessage);
+        }
+
+        private final String type;
+        private final String subType;
+        private final String contentId;
+        private final String contentDescription;
+        private final String contentLocation;
+        private final String contentMD5;
+        private final String transferEncoding;
+        private final List<String> languages;
+        private final String disposition;
+        private final Map<String, String> dispositionParams;
+        private final Map<String, String> contentTypeParameters;
+        private final long lines;
+        private final long bodyOctets;
+        private final Long bodyStartOctet;
+        private final List<HeaderDTO> headers;
+        private final List<PartDTO> parts;
+        private final PartDTO embeddedMessage;
+
+        @JsonCreator
+        PartDTO(@JsonProperty("type") String type,
+                @JsonProperty("subType") String subType,
+                @JsonProperty("contentId") String contentId,
+                @JsonProperty("contentDescription") String contentDescription,
+                @JsonProperty("contentLocation") String contentLocation,
+                @JsonProperty("contentMD5") String contentMD5,
+                @JsonProperty("transferEncoding") String transferEncoding,
+                @JsonProperty("languages") List<String> languages,
+                @JsonProperty("disposition") String disposition,
+                @JsonProperty("dispositionParams") Map<String, String> dispositionParams,
+                @JsonProperty("contentTypeParameters") Map<String, String> contentTypeParameters,
+                @JsonProperty("lines") long lines,
+                @JsonProperty("bodyOctets") long bodyOctets,
+                @JsonProperty("bodyStartOctet") Long bodyStartOctet,
+                @JsonProperty("headers") List<HeaderDTO> headers,
+                @JsonProperty("parts") List<PartDTO> parts,
+                @JsonProperty("embeddedMessage") PartDTO embeddedMessage) {
+            this.type = type;
+            this.subType = subType;
+            this.contentId = contentId;
+            this.contentDescription = contentDescription;
+            this.contentLocation = contentLocation;
+            this.contentMD5 = contentMD5;
+            this.transferEncoding = transferEncoding;
+            this.languages = languages;
+            this.disposition = disposition;
+            this.dispositionParams = dispositionParams;
+            this.contentTypeParameters = contentTypeParameters;
+            this.lines = lines;
+            this.bodyOctets = bodyOctets;
+            this.bodyStartOctet = bodyStartOctet;
+            this.headers = headers;
+            this.parts = parts;
+            this.embeddedMessage = embeddedMessage;
+        }
+
+        @JsonProperty("type")
+        public String getType() {
+            return type;
+        }
+
+        @JsonProperty("subType")
+        public String getSubType() {
+            return subType;
+        }
+
+        @JsonProperty("contentId")
+        public String getContentId() {
+            return contentId;
+        }
+
+        @JsonProperty("contentDescription")
+        public String getContentDescription() {
+            return contentDescription;
+        }
+
+        @JsonProperty("contentLocation")
+        public String getContentLocation() {
+            return contentLocation;
+        }
+
+        @JsonProperty("contentMD5")
+        public String getContentMD5() {
+            return contentMD5;
+        }
+
+        @JsonProperty("transferEncoding")
+        public String getTransferEncoding() {
+            return transferEncoding;
+        }
+
+        @JsonProperty("languages")
+        public List<String> getLanguages() {
+            return languages;
+        }
+
+        @JsonProperty("disposition")
+        public String getDisposition() {
+            return disposition;
+        }
+
+        @JsonProperty("dispositionParams")
+        public Map<String, String> getDispositionParams() {
+            return dispositionParams;
+        }
+
+        @JsonProperty("contentTypeParameters")
+        public Map<String, String> getContentTypeParameters() {
+            return contentTypeParameters;
+        }
+
+        @JsonProperty("lines")
+        public long getLines() {
+            return lines;
+        }
+
+        @JsonProperty("bodyOctets")
+        public long getBodyOctets() {
+            return bodyOctets;
+        }
+
+        @JsonProperty("bodyStartOctet")
+        public Long getBodyStartOctet() {
+            return bodyStartOctet;
+        }
+
+        @JsonProperty("headers")
+        public List<HeaderDTO> getHeaders() {
+            return headers;
+        }
+
+        @JsonProperty("parts")
+        public List<PartDTO> getParts() {
+            return parts;
+        }
+
+        @JsonProperty("embeddedMessage")
+        public PartDTO getEmbeddedMessage() {
+            return embeddedMessage;
+        }
+
+        MimeDescriptorImpl toMimeDescriptor() {
+            return new MimeDescriptorImpl(bodyOctets, contentDescription, contentId, lines, subType, type,
+                transferEncoding,
+                headers.stream()
+                    .map(HeaderDTO::toHeader)
+                    .collect(Guavate.toImmutableList()),
+                contentTypeParameters, languages, disposition, dispositionParams,
+                Optional.ofNullable(embeddedMessage)
+                    .map(PartDTO::toMimeDescriptor)
+                    .orElse(null),
+                parts.stream()
+                    .<MimeDescriptor>map(PartDTO::toMimeDescriptor)
+                    .collect(Guavate.toImmutableList()),
+                contentLocation, contentMD5);
+        }
+    }
+}
@@ -25,7 +25,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.model.Content;
 import org.apache.james.mailbox.model.FetchGroup;
@@ -34,6 +36,8 @@ import org.apache.james.mailbox.model.MessageResult;
 import org.apache.james.mailbox.model.MimePath;
 import org.apache.james.mailbox.model.PartContentDescriptor;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
+import org.apache.james.mailbox.store.streaming.ByteContent;
 import org.apache.james.mailbox.store.streaming.PartContentBuilder;
 import org.apache.james.mime4j.MimeException;
 import org.apache.james.mime4j.parser.AbstractContentHandler;
@@ -117,7 +121,8 @@ public class ResultUtils {
             FetchGroup.Profile.HEADERS,
             FetchGroup.Profile.BODY_CONTENT,
             FetchGroup.Profile.FULL_CONTENT,
-            FetchGroup.Profile.MIME_DESCRIPTOR);
+            FetchGroup.Profile.MIME_DESCRIPTOR,
+            FetchGroup.Profile.ENVELOPE);
 
         Collection<FetchGroup.Profile> unsupportedProfiles = fetchGroup.profiles()
             .stream()
@@ -217,12 +222,28 @@ public class ResultUtils {
             throws IOException, MimeException {
         int[] path = path(mimePath);
         if (path != null) {
-            PartContentBuilder builder = build(path, message);
-            Content content = builder.getMimeBodyContent();
+            Optional<MimeStructureProjection.BodyLocation> bodyLocation = MimeStructureProjection.locateBody(
+                new PropertyBuilder(message.getProperties()), mimePath);
+            Content content;
+            if (bodyLocation.isPresent()) {
+                content = locatedContent(message, bodyLocation.get());
+            } else {
+                content = build(path, message).getMimeBodyContent();
+            }
             messageResult.setMimeBodyContent(mimePath, content);
         }
     }
 
+    /**
+     * Reads a part located upon append, without parsing the message.
+     */
+    private static Content locatedContent(MailboxMessage message, MimeStructureProjection.BodyLocation bodyLocation) throws IOException {
+        try (InputStream stream = message.getFullContent()) {
+            IOUtils.skipFully(stream, bodyLocation.getStartOctet());
+            return new ByteContent(IOUtils.toByteArray(stream, bodyLocation.getOctets()));
+        }
+    }
+
     private static void addFullContent(MailboxMessage message, MessageResultImpl messageResult, MimePath mimePath)
             throws MailboxException, IOException, MimeException {
         int[] path = path(mimePath);
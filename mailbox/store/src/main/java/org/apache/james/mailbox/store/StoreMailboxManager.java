@@ -26,8 +26,11 @@ import static org.apache.james.mailbox.store.mail.AbstractMessageMapper.UNLIMITE
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.inject.Inject;
@@ -622,24 +625,30 @@ public class StoreMailboxManager implements MailboxManager {
         MessageMapper messageMapper = mailboxSessionMapperFactory.getMessageMapper(session);
 
         return mailboxesMono
-            .flatMapMany(mailboxes -> Flux.fromIterable(mailboxes)
-                .filter(expression::matches)
-                .flatMap(mailbox -> retrieveCounters(messageMapper, mailbox, session)
-                    .map(Throwing.<MailboxCounters, MailboxMetaData>function(
-                        counters -> toMailboxMetadata(session, mailboxes, mailbox, counters))
-                        .sneakyThrow())))
+            .flatMapMany(mailboxes -> {
+                Map<MailboxId, Mailbox> matchingMailboxes = mailboxes.stream()
+                    .filter(expression::matches)
+                    .collect(Collectors.toMap(Mailbox::getMailboxId, Function.identity(), (a, b) -> a));
+
+                return messageMapper.getMailboxCountersReactive(matchingMailboxes.values())
+                    .map(Throwing.<MailboxCounters, MailboxMetaData>function(counters -> {
+                        Mailbox mailbox = matchingMailboxes.get(counters.getMailboxId());
+                        return toMailboxMetadata(session, mailboxes, mailbox, sanitizeCounters(mailbox, counters, session));
+                    }).sneakyThrow());
+            })
             .sort(MailboxMetaData.COMPARATOR);
     }
 
-    private Mono<MailboxCounters> retrieveCounters(MessageMapper messageMapper, Mailbox mailbox, MailboxSession session) {
-        return messageMapper.getMailboxCountersReactive(mailbox)
-            .filter(Throwing.<MailboxCounters>predicate(counter -> storeRightManager.hasRight(mailbox, Right.Read, session)).sneakyThrow())
-            .switchIfEmpty(Mono.just(MailboxCounters
-                .builder()
-                .mailboxId(mailbox.getMailboxId())
-                .count(0)
-                .unseen(0)
-                .build()));
+    private MailboxCounters sanitizeCounters(Mailbox mailbox, MailboxCounters counters, MailboxSession session) {
+        if (storeRightManager.hasRight(mailbox, Right.Read, session)) {
+            return counters;
+        }
+        return MailboxCounters
+            .builder()
+            .mailboxId(mailbox.getMailboxId())
+            .count(0)
+            .unseen(0)
+            .build();
     }
 
     private Flux<Mailbox> searchMailboxes(MailboxQuery mailboxQuery, MailboxSession session, Right right) {
@@ -696,24 +705,28 @@ public class StoreMailboxManager implements MailboxManager {
 
     @Override
     public Flux<MessageId> search(MultimailboxesSearchQuery expression, MailboxSession session, long limit) throws MailboxException {
-        return getInMailboxes(expression.getInMailboxes(), session)
+        if (expression.getInMailboxes().isEmpty()) {
+            return searchAllReadableMailboxes(expression, session, limit);
+        }
+        return filterReadable(expression.getInMailboxes(), session)
             .filter(id -> !expression.getNotInMailboxes().contains(id))
             .collect(Guavate.toImmutableSet())
             .flatMapMany(Throwing.function(ids -> index.search(session, ids, expression.getSearchQuery(), limit)));
     }
 
-
-    private Flux<MailboxId> getInMailboxes(ImmutableSet<MailboxId> inMailboxes, MailboxSession session) throws MailboxException {
-        if (inMailboxes.isEmpty()) {
-            return getAllReadableMailbox(session);
-        } else {
-            return filterReadable(inMailboxes, session);
-        }
-    }
-
-    private Flux<MailboxId> getAllReadableMailbox(MailboxSession session) throws MailboxException {
-        return searchMailboxes(MailboxQuery.builder().matchesAllMailboxNames().build(), session, Right.Read)
+    private Flux<MessageId> searchAllReadableMailboxes(MultimailboxesSearchQuery expression, MailboxSession session, long limit) {
+        MailboxMapper mailboxMapper = mailboxSessionMapperFactory.getMailboxMapper(session);
+        MailboxQuery allMailboxes = MailboxQuery.builder().matchesAllMailboxNames().build();
+        Flux<MailboxId> personalMailboxIds = mailboxMapper.findMailboxWithPathLike(toSingleUserQuery(allMailboxes, session))
+            .filter(Throwing.<Mailbox>predicate(mailbox -> storeRightManager.hasRight(mailbox, Right.Read, session)).sneakyThrow())
             .map(Mailbox::getMailboxId);
+
+        return getDelegatedMailboxes(mailboxMapper, allMailboxes, Right.Read, session)
+            .filter(Throwing.<Mailbox>predicate(mailbox -> storeRightManager.hasRight(mailbox, Right.Read, session)).sneakyThrow())
+            .map(Mailbox::getMailboxId)
+            .collect(Guavate.toImmutableSet())
+            .flatMapMany(delegatedMailboxIds -> index.searchAllMailboxes(session, personalMailboxIds, delegatedMailboxIds,
+                expression.getNotInMailboxes(), expression.getSearchQuery(), limit));
     }
 
     private Flux<MailboxId> filterReadable(ImmutableSet<MailboxId> inMailboxes, MailboxSession session) throws MailboxException {
@@ -100,6 +100,7 @@ public class StoreMessageIdManager implements MessageIdManager {
     private final QuotaManager quotaManager;
     private final QuotaRootResolver quotaRootResolver;
     private final PreDeletionHooks preDeletionHooks;
+    private final ExpungeLogRecorder expungeLogRecorder;
 
     @Inject
     public StoreMessageIdManager(RightManager rightManager, MailboxSessionMapperFactory mailboxSessionMapperFactory,
@@ -111,6 +112,7 @@ public class StoreMessageIdManager implements MessageIdManager {
         this.quotaManager = quotaManager;
         this.quotaRootResolver = quotaRootResolver;
         this.preDeletionHooks = preDeletionHooks;
+        this.expungeLogRecorder = new ExpungeLogRecorder(mailboxSessionMapperFactory);
     }
 
     @Override
@@ -227,7 +229,9 @@ public class StoreMessageIdManager implements MessageIdManager {
 
         MailboxMapper mailboxMapper = mailboxSessionMapperFactory.getMailboxMapper(mailboxSession);
         Flux.fromIterable(metadataWithMailbox)
-            .flatMap(metadataWithMailboxId -> mailboxMapper.findMailboxById(metadataWithMailboxId.getMailboxId())
+            .flatMap(metadataWithMailboxId -> expungeLogRecorder.record(metadataWithMailboxId.getMailboxId(),
+                    ImmutableList.of(metadataWithMailboxId.getMessageMetaData().getUid()))
+                .then(mailboxMapper.findMailboxById(metadataWithMailboxId.getMailboxId()))
                 .flatMap(mailbox -> eventBus.dispatch(EventFactory.expunged()
                         .randomEventId()
                         .mailboxSession(mailboxSession)
@@ -306,7 +310,7 @@ public class StoreMessageIdManager implements MessageIdManager {
         return Mono.fromRunnable(Throwing.runnable(() -> validateQuota(messageMoves, mailboxMessage.get())).sneakyThrow())
             .then(Mono.fromRunnable(Throwing.runnable(() ->
                 addMessageToMailboxes(mailboxMessage.get(), messageMoves.addedMailboxes(), mailboxSession)).sneakyThrow()))
-            .then(removeMessageFromMailboxes(mailboxMessage.get(), messageMoves.removedMailboxes(), mailboxSession))
+            .then(removeMessageFromMailboxes(mailboxMessage.get(), currentMailboxMessages, messageMoves.removedMailboxes(), mailboxSession))
             .then(eventBus.dispatch(EventFactory.moved()
                     .session(mailboxSession)
                     .messageMoves(messageMoves.asMessageMoves())
@@ -318,7 +322,7 @@ public class StoreMessageIdManager implements MessageIdManager {
                     .collect(Guavate.toImmutableSet())));
     }
 
-    private Mono<Void> removeMessageFromMailboxes(MailboxMessage message, Set<Mailbox> mailboxesToRemove, MailboxSession mailboxSession) {
+    private Mono<Void> removeMessageFromMailboxes(MailboxMessage message, List<MailboxMessage> currentMailboxMessages, Set<Mailbox> mailboxesToRemove, MailboxSession mailboxSession) {
         MessageIdMapper messageIdMapper = mailboxSessionMapperFactory.getMessageIdMapper(mailboxSession);
         MessageMetaData eventPayload = message.metaData();
 
@@ -328,15 +332,23 @@ public class StoreMessageIdManager implements MessageIdManager {
 
         return Mono.from(messageIdMapper.deleteReactive(message.getMessageId(), mailboxIds))
             .then(Flux.fromIterable(mailboxesToRemove)
-                .flatMap(mailbox -> eventBus.dispatch(EventFactory.expunged()
-                        .randomEventId()
-                        .mailboxSession(mailboxSession)
-                        .mailbox(mailbox)
-                        .addMetaData(eventPayload)
-                        .build(),
-                    new MailboxIdRegistrationKey(mailbox.getMailboxId())))
+                .flatMap(mailbox -> expungeLogRecorder.record(mailbox.getMailboxId(), uidsIn(mailbox, currentMailboxMessages))
+                    .then(eventBus.dispatch(EventFactory.expunged()
+                            .randomEventId()
+                            .mailboxSession(mailboxSession)
+                            .mailbox(mailbox)
+                            .addMetaData(eventPayload)
+                            .build(),
+                        new MailboxIdRegistrationKey(mailbox.getMailboxId()))))
                 .then());
     }
+
+    private ImmutableList<MessageUid> uidsIn(Mailbox mailbox, List<MailboxMessage> mailboxMessages) {
+        return mailboxMessages.stream()
+            .filter(mailboxMessage -> mailboxMessage.getMailboxId().equals(mailbox.getMailboxId()))
+            .map(MailboxMessage::getUid)
+            .collect(Guavate.toImmutableList());
+    }
     
     private void dispatchFlagsChange(MailboxSession mailboxSession, MailboxId mailboxId, ImmutableList<UpdatedFlags> updatedFlags) throws MailboxException {
         if (updatedFlags.stream().anyMatch(UpdatedFlags::flagsChanged)) {
@@ -24,19 +24,24 @@ import static org.apache.james.mailbox.store.mail.AbstractMessageMapper.UNLIMITE
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import javax.mail.Flags;
@@ -44,6 +49,7 @@ import javax.mail.Flags.Flag;
 import javax.mail.util.SharedFileInputStream;
 
 import org.apache.commons.io.input.TeeInputStream;
+import org.apache.commons.io.output.TeeOutputStream;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.james.mailbox.MailboxManager;
 import org.apache.james.mailbox.MailboxManager.MessageCapabilities;
@@ -61,6 +67,8 @@ import org.apache.james.mailbox.exception.ReadOnlyException;
 import org.apache.james.mailbox.exception.UnsupportedRightException;
 import org.apache.james.mailbox.model.ComposedMessageId;
 import org.apache.james.mailbox.model.FetchGroup;
+import org.apache.james.mailbox.model.Header;
+import org.apache.james.mailbox.model.Headers;
 import org.apache.james.mailbox.model.Mailbox;
 import org.apache.james.mailbox.model.MailboxACL;
 import org.apache.james.mailbox.model.MailboxCounters;
@@ -71,7 +79,9 @@ import org.apache.james.mailbox.model.MessageId;
 import org.apache.james.mailbox.model.MessageMetaData;
 import org.apache.james.mailbox.model.MessageMoves;
 import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.mailbox.model.MessageResult;
 import org.apache.james.mailbox.model.MessageResultIterator;
+import org.apache.james.mailbox.model.MimeDescriptor;
 import org.apache.james.mailbox.model.SearchQuery;
 import org.apache.james.mailbox.model.UidValidity;
 import org.apache.james.mailbox.model.UpdatedFlags;
@@ -84,6 +94,7 @@ import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
 import org.apache.james.mailbox.store.quota.QuotaChecker;
 import org.apache.james.mailbox.store.search.MessageSearchIndex;
+import org.apache.james.mailbox.store.search.SearchUtil;
 import org.apache.james.mailbox.store.streaming.CountingInputStream;
 import org.apache.james.mime4j.MimeException;
 import org.apache.james.mime4j.message.DefaultBodyDescriptorBuilder;
@@ -93,10 +104,11 @@ import org.apache.james.mime4j.stream.EntityState;
 import org.apache.james.mime4j.stream.MimeConfig;
 import org.apache.james.mime4j.stream.MimeTokenStream;
 import org.apache.james.mime4j.stream.RecursionMode;
-import org.apache.james.util.IteratorWrapper;
 import org.apache.james.util.io.BodyOffsetInputStream;
 import org.apache.james.util.io.InputStreamConsummer;
 import org.apache.james.util.streams.Iterators;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.github.steveash.guavate.Guavate;
 import com.google.common.collect.ImmutableList;
@@ -124,6 +136,10 @@ public class StoreMessageManager implements MessageManager {
      */
     protected static final Flags MINIMAL_PERMANET_FLAGS;
     private static final SearchQuery LIST_ALL_QUERY = SearchQuery.of(SearchQuery.all());
+    private static final FetchGroup ENVELOPE = FetchGroup.MINIMAL.with(FetchGroup.Profile.ENVELOPE);
+    private static final String SUBJECT = "Subject";
+    private static final String NO_SUBJECT = "";
+    private static final Logger LOGGER = LoggerFactory.getLogger(StoreMessageManager.class);
 
     private static class MediaType {
         final String mediaType;
@@ -135,6 +151,34 @@ public class StoreMessageManager implements MessageManager {
         }
     }
 
+    private static class ParsedMessage {
+        final File file;
+        final Date internalDate;
+        final PropertyBuilder propertyBuilder;
+        final Flags flags;
+        final int bodyStartOctet;
+
+        private ParsedMessage(File file, Date internalDate, PropertyBuilder propertyBuilder, Flags flags, int bodyStartOctet) {
+            this.file = file;
+            this.internalDate = internalDate;
+            this.propertyBuilder = propertyBuilder;
+            this.flags = flags;
+            this.bodyStartOctet = bodyStartOctet;
+        }
+
+        int getSize() {
+            return (int) file.length();
+        }
+
+        void deleteTemporaryFile() {
+            if (!file.delete()) {
+                // Don't throw an IOException. The message could be appended
+                // and the temporary file
+                // will be deleted hopefully some day
+            }
+        }
+    }
+
     static {
         MINIMAL_PERMANET_FLAGS = new Flags();
         MINIMAL_PERMANET_FLAGS.add(Flags.Flag.ANSWERED);
@@ -156,6 +200,7 @@ public class StoreMessageManager implements MessageManager {
     private final BatchSizes batchSizes;
     private final PreDeletionHooks preDeletionHooks;
     private final MessageStorer messageStorer;
+    private final ExpungeLogRecorder expungeLogRecorder;
 
     public StoreMessageManager(EnumSet<MessageCapabilities> messageCapabilities, MailboxSessionMapperFactory mapperFactory,
                                MessageSearchIndex index, EventBus eventBus,
@@ -174,6 +219,7 @@ public class StoreMessageManager implements MessageManager {
         this.storeRightManager = storeRightManager;
         this.preDeletionHooks = preDeletionHooks;
         this.messageStorer = messageStorer;
+        this.expungeLogRecorder = new ExpungeLogRecorder(mapperFactory);
     }
 
     /**
@@ -283,53 +329,158 @@ public class StoreMessageManager implements MessageManager {
     }
 
     private void dispatchExpungeEvent(MailboxSession mailboxSession, Map<MessageUid, MessageMetaData> deletedMessages) throws MailboxException {
-        eventBus.dispatch(EventFactory.expunged()
-                .randomEventId()
-                .mailboxSession(mailboxSession)
-                .mailbox(getMailboxEntity())
-                .metaData(ImmutableSortedMap.copyOf(deletedMessages))
-                .build(),
-            new MailboxIdRegistrationKey(mailbox.getMailboxId()))
+        expungeLogRecorder.record(mailbox.getMailboxId(), deletedMessages.keySet())
+            .then(eventBus.dispatch(EventFactory.expunged()
+                    .randomEventId()
+                    .mailboxSession(mailboxSession)
+                    .mailbox(getMailboxEntity())
+                    .metaData(ImmutableSortedMap.copyOf(deletedMessages))
+                    .build(),
+                new MailboxIdRegistrationKey(mailbox.getMailboxId())))
             .subscribeOn(Schedulers.elastic())
             .block();
     }
 
     @Override
     public AppendResult appendMessage(AppendCommand appendCommand, MailboxSession session) throws MailboxException {
-        return appendMessage(
-            appendCommand.getMsgIn(),
-            appendCommand.getInternalDate(),
-            session,
-            appendCommand.isRecent(),
-            appendCommand.getFlags());
+        if (!isWriteable(session)) {
+            throw new ReadOnlyException(getMailboxPath());
+        }
+
+        return append(parseMessage(appendCommand, session), session);
     }
 
     @Override
     public AppendResult appendMessage(InputStream msgIn, Date internalDate, final MailboxSession mailboxSession, boolean isRecent, Flags flagsToBeSet) throws MailboxException {
-        File file = null;
+        if (!isWriteable(mailboxSession)) {
+            throw new ReadOnlyException(getMailboxPath());
+        }
+
+        return append(parseMessage(msgIn, internalDate, mailboxSession, isRecent, flagsToBeSet), mailboxSession);
+    }
+
+    private AppendResult append(ParsedMessage parsedMessage, MailboxSession mailboxSession) throws MailboxException {
+        try {
+            return createAndDispatchMessage(mailboxSession, parsedMessage);
+        } finally {
+            parsedMessage.deleteTemporaryFile();
+        }
+    }
+
+    /**
+     * Appends the messages by batches of {@link BatchSizes#getAppendBatchSize()}: each batch is checked against the
+     * quota once, is stored under a single lock acquisition and is notified through a single {@link MailboxListener.Added}
+     * event.
+     *
+     * When storing a batch fails, the results of its stored messages are emitted, and these messages notified, before
+     * the error. The following batches are not appended.
+     */
+    @Override
+    public Flux<AppendResult> appendMessages(Flux<AppendCommand> appendCommands, MailboxSession session) {
+        return appendCommands
+            .buffer(batchSizes.getAppendBatchSize())
+            .concatMap(batch -> Mono.fromCallable(() -> appendBatch(batch, session))
+                .subscribeOn(Schedulers.elastic())
+                .flatMapMany(Function.identity()));
+    }
 
+    private Flux<AppendResult> appendBatch(List<AppendCommand> appendCommands, MailboxSession mailboxSession) throws MailboxException {
         if (!isWriteable(mailboxSession)) {
             throw new ReadOnlyException(getMailboxPath());
         }
 
+        List<ParsedMessage> parsedMessages = new ArrayList<>(appendCommands.size());
+        try {
+            for (AppendCommand appendCommand : appendCommands) {
+                parsedMessages.add(parseMessage(appendCommand, mailboxSession));
+            }
+            long totalSize = parsedMessages.stream()
+                .mapToLong(ParsedMessage::getSize)
+                .sum();
+            new QuotaChecker(quotaManager, quotaRootResolver, mailbox).tryAddition(parsedMessages.size(), totalSize);
+
+            return locker.executeWithLock(getMailboxPath(), () -> storeBatch(parsedMessages, mailboxSession), MailboxPathLocker.LockType.Write);
+        } finally {
+            parsedMessages.forEach(ParsedMessage::deleteTemporaryFile);
+        }
+    }
+
+    private Flux<AppendResult> storeBatch(List<ParsedMessage> parsedMessages, MailboxSession mailboxSession) throws MailboxException {
+        List<SharedFileInputStream> contents = new ArrayList<>(parsedMessages.size());
+        try {
+            List<MessageStorer.MessageToStore> messagesToStore = new ArrayList<>(parsedMessages.size());
+            for (ParsedMessage parsedMessage : parsedMessages) {
+                SharedFileInputStream content = new SharedFileInputStream(parsedMessage.file);
+                contents.add(content);
+                messagesToStore.add(new MessageStorer.MessageToStore(parsedMessage.internalDate, parsedMessage.getSize(),
+                    parsedMessage.bodyStartOctet, content, parsedMessage.flags, parsedMessage.propertyBuilder));
+            }
+
+            List<Pair<MessageMetaData, Optional<List<MessageAttachmentMetadata>>>> stored = new ArrayList<>(parsedMessages.size());
+            Optional<Throwable> failure = messageStorer.appendMessagesToStore(mailbox, messagesToStore, mailboxSession)
+                .doOnNext(stored::add)
+                .then(Mono.<Throwable>empty())
+                .onErrorResume(Mono::just)
+                .blockOptional();
+
+            if (!stored.isEmpty()) {
+                dispatchAddedEvent(mailboxSession, stored.stream()
+                    .map(Pair::getLeft)
+                    .collect(Guavate.toImmutableList()));
+            }
+            Flux<AppendResult> results = Flux.fromIterable(stored.stream()
+                .map(this::toAppendResult)
+                .collect(Guavate.toImmutableList()));
+            return failure
+                .map(e -> results.concatWith(Flux.error(e)))
+                .orElse(results);
+        } catch (IOException e) {
+            throw new MailboxException("Unable to read the message", e);
+        } finally {
+            contents.forEach(this::closeQuietly);
+        }
+    }
+
+    private void closeQuietly(SharedFileInputStream content) {
+        try {
+            content.close();
+        } catch (IOException e) {
+            LOGGER.warn("Unable to close the content of an appended message", e);
+        }
+    }
+
+    private ParsedMessage parseMessage(AppendCommand appendCommand, MailboxSession mailboxSession) throws MailboxException {
+        ParsedMessage parsedMessage = parseMessage(appendCommand.getMsgIn(), appendCommand.getInternalDate(), mailboxSession,
+            appendCommand.isRecent(), appendCommand.getFlags());
+        appendCommand.getStoredBodyBlobId()
+            .ifPresent(blobId -> StoredBody.record(blobId, parsedMessage.propertyBuilder));
+        return parsedMessage;
+    }
+
+    private ParsedMessage parseMessage(InputStream msgIn, Date internalDate, MailboxSession mailboxSession, boolean isRecent, Flags flagsToBeSet) throws MailboxException {
+        File file = null;
+        boolean parsed = false;
+
         try {
             // Create a temporary file and copy the message to it. We will work
             // with the file as
             // source for the InputStream
             file = File.createTempFile("imap", ".msg");
+            ContentCapture contentCapture = new ContentCapture();
             try (FileOutputStream out = new FileOutputStream(file);
                  BufferedOutputStream bufferedOut = new BufferedOutputStream(out);
-                 BufferedInputStream tmpMsgIn = new BufferedInputStream(new TeeInputStream(msgIn, bufferedOut));
+                 BufferedInputStream tmpMsgIn = new BufferedInputStream(new TeeInputStream(msgIn, new TeeOutputStream(bufferedOut, contentCapture)));
                  BodyOffsetInputStream bIn = new BodyOffsetInputStream(tmpMsgIn)) {
                 // Disable line length... This should be handled by the smtp server
                 // component and not the parser itself
                 // https://issues.apache.org/jira/browse/IMAP-122
                 final MimeTokenStream parser = getParser(bIn);
-                readHeader(parser);
+                final HeaderImpl header = readHeader(parser);
                 final MaximalBodyDescriptor descriptor = (MaximalBodyDescriptor) parser.getBodyDescriptor();
                 final MediaType mediaType = getMediaType(descriptor);
                 final PropertyBuilder propertyBuilder = getPropertyBuilder(descriptor, mediaType.mediaType, mediaType.subType);
                 setTextualLinesCount(parser, mediaType.mediaType, propertyBuilder);
+                final Optional<MimeDescriptor> mimeStructure = describeMimeStructure(parser, header, mediaType.mediaType, contentCapture);
                 final Flags flags = getFlags(mailboxSession, isRecent, flagsToBeSet);
 
                 if (internalDate == null) {
@@ -337,17 +488,18 @@ public class StoreMessageManager implements MessageManager {
                 }
                 InputStreamConsummer.consume(tmpMsgIn);
                 bufferedOut.flush();
+                mimeStructure.ifPresent(mimeDescriptor -> storeMimeStructure(mimeDescriptor, contentCapture.captured(), propertyBuilder));
                 int bodyStartOctet = getBodyStartOctet(bIn);
-                return createAndDispatchMessage(internalDate, mailboxSession, file, propertyBuilder, flags, bodyStartOctet);
+                parsed = true;
+                return new ParsedMessage(file, internalDate, propertyBuilder, flags, bodyStartOctet);
             }
         } catch (IOException | MimeException e) {
             throw new MailboxException("Unable to parse message", e);
         } finally {
-            // delete the temporary file if one was specified
-            if (file != null) {
+            // delete the temporary file if the message could not be parsed
+            if (file != null && !parsed) {
                 if (!file.delete()) {
-                    // Don't throw an IOException. The message could be appended
-                    // and the temporary file
+                    // Don't throw an IOException. The temporary file
                     // will be deleted hopefully some day
                 }
             }
@@ -420,6 +572,66 @@ public class StoreMessageManager implements MessageManager {
         }
     }
 
+    /**
+     * Composite messages need to be parsed to compute their BODYSTRUCTURE and to locate their parts. We do it once upon
+     * append, continuing the parse used for the message properties, and keep the result within the message properties.
+     */
+    private Optional<MimeDescriptor> describeMimeStructure(MimeTokenStream parser, HeaderImpl header, String mediaType, ContentCapture contentCapture) {
+        if (!MimeStructureProjection.isComposite(mediaType)) {
+            contentCapture.discard();
+            return Optional.empty();
+        }
+        try {
+            List<Header> headers = header.getFields()
+                .stream()
+                .map(field -> new Header(field.getName(), field.getBody().trim()))
+                .collect(Guavate.toImmutableList());
+            return Optional.of(MimeDescriptorImpl.build(parser, headers));
+        } catch (IOException | MimeException e) {
+            LOGGER.warn("Unable to compute the MIME structure of the message, it will be computed upon reads", e);
+            contentCapture.discard();
+            return Optional.empty();
+        }
+    }
+
+    private void storeMimeStructure(MimeDescriptor descriptor, byte[] content, PropertyBuilder propertyBuilder) {
+        try {
+            MimeStructureProjection.store(descriptor, MimePartLocator.locateBodies(content, descriptor), propertyBuilder);
+        } catch (IOException | MailboxException e) {
+            LOGGER.warn("Unable to compute the MIME structure of the message, it will be computed upon reads", e);
+        }
+    }
+
+    /**
+     * Keeps the bytes of the message being parsed so that the parts of a composite message can be located without
+     * reading it again. Capture stops as soon as the message is known not to need it.
+     */
+    private static class ContentCapture extends OutputStream {
+        private ByteArrayOutputStream captured = new ByteArrayOutputStream();
+
+        @Override
+        public void write(int b) {
+            if (captured != null) {
+                captured.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (captured != null) {
+                captured.write(b, off, len);
+            }
+        }
+
+        void discard() {
+            captured = null;
+        }
+
+        byte[] captured() {
+            return captured.toByteArray();
+        }
+    }
+
     private int getBodyStartOctet(BodyOffsetInputStream bIn) {
         int bodyStartOctet = (int) bIn.getBodyStartOffset();
         if (bodyStartOctet == -1) {
@@ -428,32 +640,46 @@ public class StoreMessageManager implements MessageManager {
         return bodyStartOctet;
     }
 
-    private AppendResult createAndDispatchMessage(Date internalDate, MailboxSession mailboxSession, File file, PropertyBuilder propertyBuilder, Flags flags, int bodyStartOctet) throws IOException, MailboxException {
-        try (SharedFileInputStream contentIn = new SharedFileInputStream(file)) {
-            final int size = (int) file.length();
-            new QuotaChecker(quotaManager, quotaRootResolver, mailbox).tryAddition(1, size);
+    private AppendResult createAndDispatchMessage(MailboxSession mailboxSession, ParsedMessage parsedMessage) throws MailboxException {
+        new QuotaChecker(quotaManager, quotaRootResolver, mailbox).tryAddition(1, parsedMessage.getSize());
 
-            return locker.executeWithLock(getMailboxPath(), () -> {
-                Pair<MessageMetaData, Optional<List<MessageAttachmentMetadata>>> data = messageStorer.appendMessageToStore(mailbox, internalDate, size, bodyStartOctet, contentIn, flags, propertyBuilder, mailboxSession);
+        return locker.executeWithLock(getMailboxPath(), () -> {
+            Pair<MessageMetaData, Optional<List<MessageAttachmentMetadata>>> data = storeMessage(parsedMessage, mailboxSession);
 
-                Mailbox mailbox = getMailboxEntity();
+            dispatchAddedEvent(mailboxSession, ImmutableList.of(data.getLeft()));
+            return toAppendResult(data);
+        }, MailboxPathLocker.LockType.Write);
+    }
 
-                eventBus.dispatch(EventFactory.added()
-                        .randomEventId()
-                        .mailboxSession(mailboxSession)
-                        .mailbox(mailbox)
-                        .addMetaData(data.getLeft())
-                        .build(),
-                        new MailboxIdRegistrationKey(mailbox.getMailboxId()))
-                    .subscribeOn(Schedulers.elastic())
-                    .block();
-                MessageMetaData messageMetaData = data.getLeft();
-                ComposedMessageId ids = new ComposedMessageId(mailbox.getMailboxId(), messageMetaData.getMessageId(), messageMetaData.getUid());
-                return new AppendResult(ids, data.getRight());
-            }, MailboxPathLocker.LockType.Write);
+    private Pair<MessageMetaData, Optional<List<MessageAttachmentMetadata>>> storeMessage(ParsedMessage parsedMessage, MailboxSession mailboxSession) throws MailboxException {
+        try (SharedFileInputStream contentIn = new SharedFileInputStream(parsedMessage.file)) {
+            return messageStorer.appendMessageToStore(mailbox, parsedMessage.internalDate, parsedMessage.getSize(),
+                parsedMessage.bodyStartOctet, contentIn, parsedMessage.flags, parsedMessage.propertyBuilder, mailboxSession);
+        } catch (IOException e) {
+            throw new MailboxException("Unable to read the message", e);
         }
     }
 
+    private void dispatchAddedEvent(MailboxSession mailboxSession, List<MessageMetaData> messageMetaData) throws MailboxException {
+        Mailbox mailbox = getMailboxEntity();
+
+        eventBus.dispatch(EventFactory.added()
+                .randomEventId()
+                .mailboxSession(mailboxSession)
+                .mailbox(mailbox)
+                .addMetaData(messageMetaData)
+                .build(),
+                new MailboxIdRegistrationKey(mailbox.getMailboxId()))
+            .subscribeOn(Schedulers.elastic())
+            .block();
+    }
+
+    private AppendResult toAppendResult(Pair<MessageMetaData, Optional<List<MessageAttachmentMetadata>>> data) {
+        MessageMetaData messageMetaData = data.getLeft();
+        ComposedMessageId ids = new ComposedMessageId(mailbox.getMailboxId(), messageMetaData.getMessageId(), messageMetaData.getUid());
+        return new AppendResult(ids, data.getRight());
+    }
+
     private PropertyBuilder getPropertyBuilder(MaximalBodyDescriptor descriptor, String mediaType, String subType) {
         final PropertyBuilder propertyBuilder = new PropertyBuilder();
         propertyBuilder.setMediaType(mediaType);
@@ -616,10 +842,9 @@ public class StoreMessageManager implements MessageManager {
             throw new ReadOnlyException(toMailbox.getMailboxPath());
         }
 
-        return locker.executeWithLock(toMailbox.getMailboxPath(), () -> {
-            SortedMap<MessageUid, MessageMetaData> copiedUids = copy(set, toMailbox, session);
-            return MessageRange.toRanges(new ArrayList<>(copiedUids.keySet()));
-        }, MailboxPathLocker.LockType.Write);
+        return locker.executeWithLock(toMailbox.getMailboxPath(),
+            () -> copy(set, toMailbox, session),
+            MailboxPathLocker.LockType.Write);
     }
 
     /**
@@ -634,10 +859,9 @@ public class StoreMessageManager implements MessageManager {
         }
 
         //TODO lock the from mailbox too, in a non-deadlocking manner - how?
-        return locker.executeWithLock(toMailbox.getMailboxPath(), () -> {
-            SortedMap<MessageUid, MessageMetaData> movedUids = move(set, toMailbox, session);
-            return MessageRange.toRanges(new ArrayList<>(movedUids.keySet()));
-        }, MailboxPathLocker.LockType.Write);
+        return locker.executeWithLock(toMailbox.getMailboxPath(),
+            () -> move(set, toMailbox, session),
+            MailboxPathLocker.LockType.Write);
     }
 
     @Override
@@ -648,7 +872,8 @@ public class StoreMessageManager implements MessageManager {
     @Override
     public MessageResultIterator getMessages(MessageRange set, FetchGroup fetchGroup, MailboxSession mailboxSession) throws MailboxException {
         final MessageMapper messageMapper = mapperFactory.getMessageMapper(mailboxSession);
-        return new StoreMessageResultIterator(messageMapper, mailbox, set, batchSizes, fetchGroup);
+        return new StoreMessageResultIterator(messageMapper, mailbox, set, batchSizes, fetchGroup,
+            mapperFactory.getMessageStructureProjection());
     }
 
     /**
@@ -710,46 +935,118 @@ public class StoreMessageManager implements MessageManager {
         return index.search(mailboxSession, getMailboxEntity(), query);
     }
 
-    private Iterator<MessageMetaData> copy(Iterator<MailboxMessage> originalRows, MailboxSession session) throws MailboxException {
-        final List<MessageMetaData> copiedRows = new ArrayList<>();
-        final MessageMapper messageMapper = mapperFactory.getMessageMapper(session);
+    /**
+     * Sent date ordering is delegated to the search index, then messages are grouped by base subject. Subjects are
+     * read through the {@link FetchGroup.Profile#ENVELOPE} fetch group thus served by the message structure
+     * projection when available.
+     */
+    @Override
+    public List<List<MessageUid>> searchThreads(SearchQuery query, MailboxSession mailboxSession) throws MailboxException {
+        SearchQuery sentDateOrdered = SearchQuery.builder()
+            .andCriteria(query.getCriteria())
+            .addRecentMessageUids(query.getRecentMessageUids())
+            .sorts(new SearchQuery.Sort(SearchQuery.Sort.SortClause.SentDate), new SearchQuery.Sort(SearchQuery.Sort.SortClause.Uid))
+            .build();
 
-        while (originalRows.hasNext()) {
-            final MailboxMessage originalMessage = originalRows.next();
-            new QuotaChecker(quotaManager, quotaRootResolver, mailbox)
-                .tryAddition(1, originalMessage.getFullContentOctets());
-            MessageMetaData data = messageMapper.execute(
-                () -> messageMapper.copy(getMailboxEntity(), originalMessage));
-            copiedRows.add(data);
+        List<MessageUid> uids;
+        try (Stream<MessageUid> stream = search(sentDateOrdered, mailboxSession)) {
+            uids = stream.collect(Guavate.toImmutableList());
         }
-        return copiedRows.iterator();
+        Map<MessageUid, String> baseSubjects = retrieveBaseSubjects(uids, mailboxSession);
+
+        Map<String, ImmutableList.Builder<MessageUid>> threads = new LinkedHashMap<>();
+        uids.forEach(uid -> threads.computeIfAbsent(baseSubjects.getOrDefault(uid, NO_SUBJECT), any -> ImmutableList.builder())
+            .add(uid));
+        return threads.values()
+            .stream()
+            .map(ImmutableList.Builder::build)
+            .collect(Guavate.toImmutableList());
     }
 
-    private MoveResult move(Iterator<MailboxMessage> originalRows, MailboxSession session) throws MailboxException {
-        final List<MessageMetaData> movedRows = new ArrayList<>();
-        final List<MessageMetaData> originalRowsCopy = new ArrayList<>();
-        final MessageMapper messageMapper = mapperFactory.getMessageMapper(session);
+    private Map<MessageUid, String> retrieveBaseSubjects(List<MessageUid> uids, MailboxSession mailboxSession) throws MailboxException {
+        ImmutableMap.Builder<MessageUid, String> baseSubjects = ImmutableMap.builder();
+        for (MessageRange range : MessageRange.toRanges(uids)) {
+            MessageResultIterator messages = getMessages(range, ENVELOPE, mailboxSession);
+            while (messages.hasNext()) {
+                MessageResult message = messages.next();
+                baseSubjects.put(message.getUid(), baseSubject(message.getHeaders()));
+            }
+            if (messages.getException() != null) {
+                throw messages.getException();
+            }
+        }
+        return baseSubjects.build();
+    }
 
+    private String baseSubject(Headers headers) throws MailboxException {
+        return Iterators.toStream(headers.headers())
+            .filter(header -> header.getName().equalsIgnoreCase(SUBJECT))
+            .findFirst()
+            .map(header -> SearchUtil.getBaseSubject(header.getValue()).toUpperCase(Locale.US))
+            .orElse(NO_SUBJECT);
+    }
+
+    @Override
+    public Optional<List<MessageUid>> listExpungedUidsSince(ModSeq modSeq, MailboxSession mailboxSession) {
+        return mapperFactory.getExpungeLog()
+            .flatMap(expungeLog -> Mono.from(expungeLog.expungedSince(mailbox.getMailboxId(), modSeq))
+                .blockOptional());
+    }
+
+    private void checkQuotaForCopy(Iterator<MailboxMessage> originalRows) throws MailboxException {
+        long count = 0;
+        long totalSize = 0;
         while (originalRows.hasNext()) {
-            final MailboxMessage originalMessage = originalRows.next();
-            originalRowsCopy.add(originalMessage.metaData());
-            MessageMetaData data = messageMapper.execute(
-                () -> messageMapper.move(getMailboxEntity(), originalMessage));
-            movedRows.add(data);
+            count++;
+            totalSize += originalRows.next().getFullContentOctets();
         }
-        return new MoveResult(movedRows.iterator(), originalRowsCopy.iterator());
+        new QuotaChecker(quotaManager, quotaRootResolver, mailbox)
+            .tryAddition(count, totalSize);
     }
 
+    private Iterator<MessageMetaData> copy(List<MailboxMessage> originalMessages, MailboxSession session) throws MailboxException {
+        final MessageMapper messageMapper = mapperFactory.getMessageMapper(session);
+
+        return messageMapper.execute(
+            () -> messageMapper.copy(getMailboxEntity(), originalMessages))
+            .iterator();
+    }
 
-    private SortedMap<MessageUid, MessageMetaData> copy(MessageRange set, StoreMessageManager to, MailboxSession session) throws MailboxException {
-        IteratorWrapper<MailboxMessage> originalRows = new IteratorWrapper<>(retrieveOriginalRows(set, session));
+    private MoveResult move(List<MailboxMessage> originalMessages, MailboxSession session) throws MailboxException {
+        final MessageMapper messageMapper = mapperFactory.getMessageMapper(session);
+        final List<MessageMetaData> originalRowsCopy = originalMessages.stream()
+            .map(MailboxMessage::metaData)
+            .collect(Guavate.toImmutableList());
 
-        SortedMap<MessageUid, MessageMetaData> copiedUids = collectMetadata(to.copy(originalRows, session));
+        List<MessageMetaData> movedRows = messageMapper.execute(
+            () -> messageMapper.move(getMailboxEntity(), originalMessages));
+        return new MoveResult(movedRows.iterator(), originalRowsCopy.iterator());
+    }
 
-        ImmutableList.Builder<MessageId> messageIds = ImmutableList.builder();
-        for (MailboxMessage message : originalRows.getEntriesSeen()) {
-            messageIds.add(message.getMessageId());
+    /**
+     * The range is copied by windows of messages, each of them being stored then notified before the next one is read,
+     * so that copying a large range does not hold all its messages in memory. The quota is checked beforehand, over a
+     * first listing of the range.
+     */
+    private List<MessageRange> copy(MessageRange requestedSet, StoreMessageManager to, MailboxSession session) throws MailboxException {
+        MessageRange set = boundToLastUid(requestedSet, session);
+        to.checkQuotaForCopy(retrieveOriginalRows(set, session));
+
+        ImmutableList.Builder<MessageRange> copiedRanges = ImmutableList.builder();
+        Iterator<List<MailboxMessage>> windows = retrieveOriginalRowWindows(set, session);
+        while (windows.hasNext()) {
+            SortedMap<MessageUid, MessageMetaData> copiedUids = copyWindow(windows.next(), to, session);
+            copiedRanges.addAll(MessageRange.toRanges(copiedUids.keySet()));
         }
+        return copiedRanges.build();
+    }
+
+    private SortedMap<MessageUid, MessageMetaData> copyWindow(List<MailboxMessage> originalMessages, StoreMessageManager to, MailboxSession session) throws MailboxException {
+        SortedMap<MessageUid, MessageMetaData> copiedUids = collectMetadata(to.copy(originalMessages, session));
+
+        ImmutableList<MessageId> messageIds = originalMessages.stream()
+            .map(MailboxMessage::getMessageId)
+            .collect(Guavate.toImmutableList());
 
         MessageMoves messageMoves = MessageMoves.builder()
             .previousMailboxIds(getMailboxEntity().getMailboxId())
@@ -766,7 +1063,7 @@ public class StoreMessageManager implements MessageManager {
             eventBus.dispatch(EventFactory.moved()
                     .session(session)
                     .messageMoves(messageMoves)
-                    .messageId(messageIds.build())
+                    .messageId(messageIds)
                     .build(),
                 messageMoves.impactedMailboxIds().map(MailboxIdRegistrationKey::new).collect(Guavate.toImmutableSet())))
             .subscribeOn(Schedulers.elastic())
@@ -775,22 +1072,36 @@ public class StoreMessageManager implements MessageManager {
         return copiedUids;
     }
 
-    private SortedMap<MessageUid, MessageMetaData> move(MessageRange set, StoreMessageManager to, MailboxSession session) throws MailboxException {
-        IteratorWrapper<MailboxMessage> originalRows = new IteratorWrapper<>(retrieveOriginalRows(set, session));
+    /**
+     * Like {@link #copy(MessageRange, StoreMessageManager, MailboxSession)}, the range is moved by windows of messages.
+     */
+    private List<MessageRange> move(MessageRange set, StoreMessageManager to, MailboxSession session) throws MailboxException {
+        ImmutableList.Builder<MessageRange> movedRanges = ImmutableList.builder();
+        Iterator<List<MailboxMessage>> windows = retrieveOriginalRowWindows(boundToLastUid(set, session), session);
+        while (windows.hasNext()) {
+            SortedMap<MessageUid, MessageMetaData> movedUids = moveWindow(windows.next(), to, session);
+            movedRanges.addAll(MessageRange.toRanges(movedUids.keySet()));
+        }
+        return movedRanges.build();
+    }
 
+    private SortedMap<MessageUid, MessageMetaData> moveWindow(List<MailboxMessage> originalRows, StoreMessageManager to, MailboxSession session) throws MailboxException {
         MoveResult moveResult = to.move(originalRows, session);
         SortedMap<MessageUid, MessageMetaData> moveUids = collectMetadata(moveResult.getMovedMessages());
+        ImmutableList<MessageMetaData> originalMessages = ImmutableList.copyOf(moveResult.getOriginalMessages());
 
-        ImmutableList.Builder<MessageId> messageIds = ImmutableList.builder();
-        for (MailboxMessage message : originalRows.getEntriesSeen()) {
-            messageIds.add(message.getMessageId());
-        }
+        ImmutableList<MessageId> messageIds = originalRows.stream()
+            .map(MailboxMessage::getMessageId)
+            .collect(Guavate.toImmutableList());
 
         MessageMoves messageMoves = MessageMoves.builder()
             .previousMailboxIds(getMailboxEntity().getMailboxId())
             .targetMailboxIds(to.getMailboxEntity().getMailboxId())
             .build();
         Flux.concat(
+            expungeLogRecorder.record(getMailboxEntity().getMailboxId(), originalMessages.stream()
+                .map(MessageMetaData::getUid)
+                .collect(Guavate.toImmutableList())),
             eventBus.dispatch(EventFactory.added()
                     .randomEventId()
                     .mailboxSession(session)
@@ -802,12 +1113,12 @@ public class StoreMessageManager implements MessageManager {
                     .randomEventId()
                     .mailboxSession(session)
                     .mailbox(getMailboxEntity())
-                    .addMetaData(moveResult.getOriginalMessages())
+                    .addMetaData(originalMessages)
                     .build(),
                 new MailboxIdRegistrationKey(mailbox.getMailboxId())),
             eventBus.dispatch(EventFactory.moved()
                     .messageMoves(messageMoves)
-                    .messageId(messageIds.build())
+                    .messageId(messageIds)
                     .session(session)
                     .build(),
                 messageMoves.impactedMailboxIds().map(MailboxIdRegistrationKey::new).collect(Guavate.toImmutableSet())))
@@ -822,6 +1133,24 @@ public class StoreMessageManager implements MessageManager {
         return messageMapper.findInMailbox(mailbox, set, FetchType.Metadata, UNLIMITED);
     }
 
+    /**
+     * Windows are listed while messages are being copied or moved, possibly into this very mailbox: open ended ranges
+     * are bounded to the last uid beforehand so that copies are not listed again.
+     */
+    private MessageRange boundToLastUid(MessageRange set, MailboxSession session) throws MailboxException {
+        if (set.getType() != MessageRange.Type.ALL && set.getType() != MessageRange.Type.FROM) {
+            return set;
+        }
+        return mapperFactory.getMessageMapper(session)
+            .getLastUid(getMailboxEntity())
+            .map(lastUid -> MessageRange.range(set.getUidFrom(), lastUid))
+            .orElse(set);
+    }
+
+    private Iterator<List<MailboxMessage>> retrieveOriginalRowWindows(MessageRange set, MailboxSession session) throws MailboxException {
+        return com.google.common.collect.Iterators.partition(retrieveOriginalRows(set, session), batchSizes.getFetchMetadata());
+    }
+
     private SortedMap<MessageUid, MessageMetaData> collectMetadata(Iterator<MessageMetaData> ids) {
         final SortedMap<MessageUid, MessageMetaData> copiedMessages = new TreeMap<>();
         while (ids.hasNext()) {
@@ -21,10 +21,14 @@ package org.apache.james.mailbox.store;
 import static org.apache.james.mailbox.store.mail.FetchGroupConverter.getFetchType;
 
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Optional;
 
 import javax.mail.Flags;
 
@@ -49,11 +53,22 @@ import org.apache.james.mailbox.model.MimePath;
 import org.apache.james.mailbox.store.mail.MessageMapper;
 import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.mailbox.store.projections.MessageStructure;
+import org.apache.james.mailbox.store.projections.MessageStructureProjection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import reactor.core.publisher.Mono;
+
 public class StoreMessageResultIterator implements MessageResultIterator {
     private static final Logger LOGGER = LoggerFactory.getLogger(StoreMessageResultIterator.class);
+    private static final EnumSet<FetchGroup.Profile> PROJECTED_PROFILES = EnumSet.of(
+        FetchGroup.Profile.ENVELOPE,
+        FetchGroup.Profile.MIME_DESCRIPTOR);
 
     private Iterator<MailboxMessage> next = null;
     private MailboxException exception;
@@ -66,8 +81,21 @@ public class StoreMessageResultIterator implements MessageResultIterator {
     private final Type type;
     private final MessageMapper mapper;
     private final FetchType ftype;
+    private final Optional<MessageStructureProjection> messageStructureProjection;
+    private Map<MessageId, MessageStructure> projectedStructures = ImmutableMap.of();
+    private Map<MessageUid, MailboxMessage> unprojectedMessages = ImmutableMap.of();
 
     public StoreMessageResultIterator(MessageMapper mapper, Mailbox mailbox, MessageRange range, BatchSizes batchSizes, FetchGroup group) {
+        this(mapper, mailbox, range, batchSizes, group, Optional.empty());
+    }
+
+    /**
+     * When a {@link MessageStructureProjection} is supplied, fetch groups only requiring the envelope and the MIME
+     * descriptor are served from it: only message metadata is then read. Messages missing from the projection are
+     * read as usual.
+     */
+    public StoreMessageResultIterator(MessageMapper mapper, Mailbox mailbox, MessageRange range, BatchSizes batchSizes, FetchGroup group,
+                                      Optional<MessageStructureProjection> messageStructureProjection) {
         this.mailbox = mailbox;
         this.group = group;
         this.mapper = mapper;
@@ -76,7 +104,10 @@ public class StoreMessageResultIterator implements MessageResultIterator {
         this.to = range.getUidTo();
         this.batchSizes = batchSizes;
         this.type = range.getType();
-        this.ftype = getFetchType(group);
+        this.messageStructureProjection = messageStructureProjection.filter(any -> isProjectable(group));
+        this.ftype = this.messageStructureProjection
+            .map(any -> FetchType.Metadata)
+            .orElse(getFetchType(group));
         LOGGER.debug("batchSizes used: {}", batchSizes);
     }
 
@@ -117,6 +148,67 @@ public class StoreMessageResultIterator implements MessageResultIterator {
             break;
         }
         next = mapper.findInMailbox(mailbox, range, ftype, batchSizeFromFetchType(ftype));
+        if (messageStructureProjection.isPresent()) {
+            List<MailboxMessage> messages = ImmutableList.copyOf(next);
+            projectedStructures = retrieveStructures(messageStructureProjection.get(), messages);
+            unprojectedMessages = retrieveUnprojectedMessages(messages);
+            next = messages.iterator();
+        }
+    }
+
+    private static boolean isProjectable(FetchGroup group) {
+        return group.getPartContentDescriptors().isEmpty()
+            && !group.profiles().isEmpty()
+            && PROJECTED_PROFILES.containsAll(group.profiles());
+    }
+
+    private Map<MessageId, MessageStructure> retrieveStructures(MessageStructureProjection projection, List<MailboxMessage> messages) {
+        List<MessageId> messageIds = messages.stream()
+            .map(MailboxMessage::getMessageId)
+            .collect(Guavate.toImmutableList());
+
+        return Mono.from(projection.retrieve(messageIds))
+            .blockOptional()
+            .orElse(ImmutableMap.of());
+    }
+
+    /**
+     * Messages missing from the projection are read in a single pass per contiguous UID range rather than one by one.
+     */
+    private Map<MessageUid, MailboxMessage> retrieveUnprojectedMessages(List<MailboxMessage> messages) throws MailboxException {
+        List<MessageUid> missingUids = messages.stream()
+            .filter(message -> !projectedStructures.containsKey(message.getMessageId()))
+            .map(MailboxMessage::getUid)
+            .collect(Guavate.toImmutableList());
+        if (missingUids.isEmpty()) {
+            return ImmutableMap.of();
+        }
+
+        Map<MessageUid, MailboxMessage> result = new HashMap<>();
+        for (MessageRange range : MessageRange.toRanges(missingUids)) {
+            Iterator<MailboxMessage> fullMessages = mapper.findInMailbox(mailbox, range, getFetchType(group), missingUids.size());
+            fullMessages.forEachRemaining(message -> result.put(message.getUid(), message));
+        }
+        return result;
+    }
+
+    private MessageResult loadMessageResult(MailboxMessage message) throws MailboxException {
+        if (!messageStructureProjection.isPresent()) {
+            return ResultUtils.loadMessageResult(message, group);
+        }
+        MessageStructure messageStructure = projectedStructures.get(message.getMessageId());
+        if (messageStructure != null) {
+            return new MessageResultImpl(message, messageStructure);
+        }
+        return loadMessageResultWithoutProjection(message);
+    }
+
+    private MessageResult loadMessageResultWithoutProjection(MailboxMessage message) throws MailboxException {
+        MailboxMessage fullMessage = unprojectedMessages.get(message.getUid());
+        if (fullMessage != null) {
+            return ResultUtils.loadMessageResult(fullMessage, group);
+        }
+        throw new MailboxException("Message " + message.getUid() + " was deleted while being read");
     }
 
     private int batchSizeFromFetchType(FetchType fetchType) {
@@ -142,7 +234,7 @@ public class StoreMessageResultIterator implements MessageResultIterator {
         final MailboxMessage message = next.next();
         MessageResult result;
         try {
-            result = ResultUtils.loadMessageResult(message, group);
+            result = loadMessageResult(message);
             cursor = result.getUid();
         } catch (MailboxException e) {
             result = new UnloadedMessageResult(message, e);
@@ -0,0 +1,54 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store;
+
+import static org.apache.james.mailbox.store.mail.model.StandardNames.STORED_BODY_BLOB_ID_NAME;
+import static org.apache.james.mailbox.store.mail.model.StandardNames.STORED_BODY_SPACE;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.james.mailbox.store.mail.model.Property;
+import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
+
+/**
+ * Hands the id of the blob already holding the body of an appended message over to the mapper storing it, through
+ * the message properties.
+ *
+ * Mappers storing bodies in that blob store can reference it instead of storing the body again. This property is
+ * transient: mappers should not persist it.
+ */
+public class StoredBody {
+    public static void record(String blobId, PropertyBuilder propertyBuilder) {
+        propertyBuilder.setProperty(STORED_BODY_SPACE, STORED_BODY_BLOB_ID_NAME, blobId);
+    }
+
+    public static Optional<String> retrieve(List<Property> properties) {
+        return properties.stream()
+            .filter(StoredBody::isStoredBody)
+            .map(Property::getValue)
+            .findFirst();
+    }
+
+    public static boolean isStoredBody(Property property) {
+        return STORED_BODY_SPACE.equals(property.getNamespace())
+            && STORED_BODY_BLOB_ID_NAME.equals(property.getLocalName());
+    }
+}
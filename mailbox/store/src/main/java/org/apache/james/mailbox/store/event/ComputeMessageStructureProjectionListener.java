@@ -0,0 +1,107 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.event;
+
+import javax.inject.Inject;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.SessionProvider;
+import org.apache.james.mailbox.events.Event;
+import org.apache.james.mailbox.events.Group;
+import org.apache.james.mailbox.events.MailboxListener;
+import org.apache.james.mailbox.model.FetchGroup;
+import org.apache.james.mailbox.store.MailboxSessionMapperFactory;
+import org.apache.james.mailbox.store.MimeStructureProjection;
+import org.apache.james.mailbox.store.ResultUtils;
+import org.apache.james.mailbox.store.mail.MessageIdMapper;
+import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
+import org.apache.james.mailbox.store.projections.MessageStructure;
+import org.apache.james.mailbox.store.projections.MessageStructureProjection;
+
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Computes the {@link MessageStructure} of appended messages and stores it in the {@link MessageStructureProjection}
+ * of the underlying implementation, if any.
+ *
+ * The structure is derived from the MIME structure recorded within the message properties upon append, hence only
+ * headers are read. Content is only fetched and parsed for composite messages lacking that record.
+ */
+public class ComputeMessageStructureProjectionListener implements MailboxListener.ReactiveGroupMailboxListener {
+    public static class ComputeMessageStructureProjectionListenerGroup extends Group {
+
+    }
+
+    public static final Group GROUP = new ComputeMessageStructureProjectionListenerGroup();
+    private static final FetchGroup STRUCTURE = FetchGroup.MINIMAL.with(FetchGroup.Profile.MIME_DESCRIPTOR);
+
+    private final SessionProvider sessionProvider;
+    private final MailboxSessionMapperFactory mailboxSessionMapperFactory;
+
+    @Inject
+    public ComputeMessageStructureProjectionListener(SessionProvider sessionProvider, MailboxSessionMapperFactory mailboxSessionMapperFactory) {
+        this.sessionProvider = sessionProvider;
+        this.mailboxSessionMapperFactory = mailboxSessionMapperFactory;
+    }
+
+    @Override
+    public Group getDefaultGroup() {
+        return GROUP;
+    }
+
+    @Override
+    public Mono<Void> reactiveEvent(Event event) {
+        if (event instanceof Added) {
+            return Mono.justOrEmpty(mailboxSessionMapperFactory.getMessageStructureProjection())
+                .flatMap(projection -> handleAddedEvent((Added) event, projection,
+                    sessionProvider.createSystemSession(event.getUsername())));
+        }
+        return Mono.empty();
+    }
+
+    private Mono<Void> handleAddedEvent(Added addedEvent, MessageStructureProjection projection, MailboxSession session) {
+        MessageIdMapper messageIdMapper = mailboxSessionMapperFactory.getMessageIdMapper(session);
+
+        return messageIdMapper.findReactive(addedEvent.getMessageIds(), FetchType.Headers)
+            .filter(message -> message.getMailboxId().equals(addedEvent.getMailboxId()))
+            .flatMap(message -> withMimeStructure(message, messageIdMapper))
+            .flatMap(message -> Mono.fromCallable(
+                () -> Pair.of(message.getMessageId(), MessageStructure.from(ResultUtils.loadMessageResult(message, STRUCTURE))))
+                    .subscribeOn(Schedulers.parallel()))
+            .publishOn(Schedulers.elastic())
+            .flatMap(structure -> projection.store(structure.getKey(), structure.getValue()))
+            .then();
+    }
+
+    private Mono<MailboxMessage> withMimeStructure(MailboxMessage message, MessageIdMapper messageIdMapper) {
+        if (MimeStructureProjection.isRecorded(message.getMediaType(), new PropertyBuilder(message.getProperties()))) {
+            return Mono.just(message);
+        }
+        return messageIdMapper.findReactive(ImmutableList.of(message.getMessageId()), FetchType.Full)
+            .filter(fullMessage -> fullMessage.getMailboxId().equals(message.getMailboxId()))
+            .next();
+    }
+}
@@ -0,0 +1,56 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.extractor;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.james.mailbox.extractor.ExtractedTextStore;
+import org.apache.james.mailbox.extractor.ParsedContent;
+import org.apache.james.mailbox.model.BlobId;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+
+import reactor.core.publisher.Mono;
+
+public class MemoryExtractedTextStore implements ExtractedTextStore {
+    private final ConcurrentHashMap<BlobId, Optional<String>> textualContents;
+
+    public MemoryExtractedTextStore() {
+        this.textualContents = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Mono<Void> store(BlobId blobId, ParsedContent parsedContent) {
+        Preconditions.checkNotNull(blobId);
+        Preconditions.checkNotNull(parsedContent);
+
+        return Mono.fromRunnable(() -> textualContents.put(blobId, parsedContent.getTextualContent()));
+    }
+
+    @Override
+    public Mono<ParsedContent> retrieve(BlobId blobId) {
+        Preconditions.checkNotNull(blobId);
+
+        return Mono.justOrEmpty(textualContents.get(blobId))
+            .map(textualContent -> new ParsedContent(textualContent, ImmutableMap.of()));
+    }
+}
@@ -68,6 +68,7 @@ public class FetchGroupConverter {
     private static MessageMapper.FetchType toFetchType(Profile profile) {
         switch (profile) {
             case HEADERS:
+            case ENVELOPE:
                 return MessageMapper.FetchType.Headers;
             case BODY_CONTENT:
                 return MessageMapper.FetchType.Body;
@@ -20,6 +20,7 @@ package org.apache.james.mailbox.store.mail;
 
 import static javax.mail.Flags.Flag.RECENT;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -90,6 +91,14 @@ public interface MessageMapper extends Mapper {
         return Mono.fromCallable(() -> getMailboxCounters(mailbox));
     }
 
+    /**
+     * Return the counters of several mailboxes. Implementations can override this to batch reads.
+     */
+    default Flux<MailboxCounters> getMailboxCountersReactive(Collection<Mailbox> mailboxes) {
+        return Flux.fromIterable(mailboxes)
+            .flatMap(this::getMailboxCountersReactive);
+    }
+
     /**
      * Delete the given {@link MailboxMessage}
      */
@@ -118,6 +127,18 @@ public interface MessageMapper extends Mapper {
      * So you should only depend on the returned uid.
      */
     MessageMetaData add(Mailbox mailbox, MailboxMessage message) throws MailboxException;
+
+    /**
+     * Add the given {@link MailboxMessage}s to the underlying storage, UIDs following the order of the list.
+     *
+     * The metadata of the stored messages is emitted in the order of the list. Upon failure, the metadata of the
+     * messages stored beforehand is emitted before the error. The default implementation adds the messages one after
+     * the other, each within its own transaction.
+     */
+    default Flux<MessageMetaData> addReactive(Mailbox mailbox, List<MailboxMessage> messages) {
+        return Flux.fromIterable(messages)
+            .concatMap(message -> Mono.fromCallable(() -> execute(() -> add(mailbox, message))));
+    }
     
     /**
      * Update flags for the given {@link MessageRange}. Only the flags may be modified after a message was saved to a mailbox.
@@ -154,6 +175,23 @@ public interface MessageMapper extends Mapper {
      * @param original the original to copy
      */
     MessageMetaData copy(Mailbox mailbox,MailboxMessage original) throws MailboxException;
+
+    /**
+     * Copy the given {@link MailboxMessage}s to a new mailbox and return the metadata of the copies, in the order of
+     * the originals.
+     *
+     * Implementations can override it in order to allocate UIDs and update their projections once for the whole batch.
+     *
+     * @param mailbox the Mailbox to copy to
+     * @param originals the originals to copy
+     */
+    default List<MessageMetaData> copy(Mailbox mailbox, List<MailboxMessage> originals) throws MailboxException {
+        ImmutableList.Builder<MessageMetaData> copies = ImmutableList.builder();
+        for (MailboxMessage original : originals) {
+            copies.add(copy(mailbox, original));
+        }
+        return copies.build();
+    }
     
     /**
      * Move the given {@link MailboxMessage} to a new mailbox and return the uid of the moved. Be aware that the given uid is just a suggestion for the uid of the moved
@@ -163,6 +201,23 @@ public interface MessageMapper extends Mapper {
      * @param original the original to move
      */
     MessageMetaData move(Mailbox mailbox,MailboxMessage original) throws MailboxException;
+
+    /**
+     * Move the given {@link MailboxMessage}s to a new mailbox and return the metadata of the moved messages, in the
+     * order of the originals.
+     *
+     * Implementations can override it in order to allocate UIDs and update their projections once for the whole batch.
+     *
+     * @param mailbox the Mailbox to move to
+     * @param originals the originals to move
+     */
+    default List<MessageMetaData> move(Mailbox mailbox, List<MailboxMessage> originals) throws MailboxException {
+        ImmutableList.Builder<MessageMetaData> movedMessages = ImmutableList.builder();
+        for (MailboxMessage original : originals) {
+            movedMessages.add(move(mailbox, original));
+        }
+        return movedMessages.build();
+    }
     
     
     /**
@@ -220,4 +220,37 @@ public class StandardNames {
     * @see #NAMESPACE_RFC_2183
     */
    public static final String MIME_CONTENT_DISPOSITION_PARAMETER_SPACE = MIME_CONTENT_DISPOSITION_SPACE + "/params";
+
+   /**
+    * Namespace for the MIME structure of composite messages, computed upon append.
+    */
+   public static final String NAMESPACE_MIME_STRUCTURE = "http://james.apache.org/mailbox/mime-structure";
+
+   /**
+    * Namespace for the MIME structure property.
+    * @see #NAMESPACE_MIME_STRUCTURE
+    */
+   public static final String MIME_STRUCTURE_SPACE = NAMESPACE_MIME_STRUCTURE;
+
+   /**
+    * Local name for the MIME structure property. Its values are consecutive chunks of a JSON document.
+    */
+   public static final String MIME_STRUCTURE_NAME = "structure";
+
+   /**
+    * Namespace for the blob already holding the body of an appended message. Only meant for the mapper storing the
+    * message, not to be persisted.
+    */
+   public static final String NAMESPACE_STORED_BODY = "http://james.apache.org/mailbox/stored-body";
+
+   /**
+    * Namespace for the stored body property.
+    * @see #NAMESPACE_STORED_BODY
+    */
+   public static final String STORED_BODY_SPACE = NAMESPACE_STORED_BODY;
+
+   /**
+    * Local name for the stored body property. Its value is the id of the blob holding the body.
+    */
+   public static final String STORED_BODY_BLOB_ID_NAME = "blobId";
 }
@@ -0,0 +1,113 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.projections;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.model.MailboxId;
+import org.reactivestreams.Publisher;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.base.Preconditions;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Log of the uids expunged from each mailbox, each entry being recorded with the highest mod-sequence of its mailbox
+ * at expunge time. It allows QRESYNC VANISHED (EARLIER) responses to be computed without listing mailbox uids.
+ *
+ * The log covers, for each mailbox, the expunges done since a given mod-sequence. This coverage starts after the first
+ * entry appended, as earlier expunges are unknown, and is moved forward as older entries are compacted away. Callers
+ * are expected to fall back to a full computation when the log does not cover the history they need.
+ */
+public interface ExpungeLog {
+    /**
+     * Once the log of a mailbox spans more than this count of mod-sequences, its older half is compacted.
+     */
+    long RETENTION = 100_000;
+
+    Publisher<Void> appendEntries(MailboxId mailboxId, ModSeq modSeq, Collection<MessageUid> uids);
+
+    Publisher<MessageUid> listEntries(MailboxId mailboxId, ModSeq since);
+
+    /**
+     * Emits nothing when no entry had been appended for this mailbox.
+     */
+    Publisher<ModSeq> coveredSince(MailboxId mailboxId);
+
+    /**
+     * Starts the coverage of a mailbox, unless it had already been started.
+     */
+    Publisher<Void> startCoverage(MailboxId mailboxId, ModSeq since);
+
+    /**
+     * Drops the entries recorded before the given mod-sequence, moving the coverage forward.
+     */
+    Publisher<Void> compact(MailboxId mailboxId, ModSeq before);
+
+    Publisher<Void> delete(MailboxId mailboxId);
+
+    default Publisher<Void> append(MailboxId mailboxId, ModSeq modSeq, Collection<MessageUid> uids) {
+        Preconditions.checkNotNull(mailboxId);
+        Preconditions.checkNotNull(modSeq);
+        Preconditions.checkNotNull(uids);
+
+        if (uids.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.from(appendEntries(mailboxId, modSeq, uids))
+            .then(Mono.from(coveredSince(mailboxId))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty()))
+            .flatMap(coveredSince -> coveredSince
+                .map(since -> compactIfNeeded(mailboxId, since, modSeq))
+                // Expunges done before the first entry may share its mod-sequence, thus it is not covered
+                .orElseGet(() -> Mono.from(startCoverage(mailboxId, modSeq.next()))));
+    }
+
+    /**
+     * Return the uids expunged while the highest mod-sequence of the mailbox was greater or equal to the given one. Uids
+     * of messages expunged before the given mod-sequence may be returned too.
+     *
+     * Emits nothing when the log does not cover the expunges done since the given mod-sequence.
+     */
+    default Publisher<List<MessageUid>> expungedSince(MailboxId mailboxId, ModSeq since) {
+        Preconditions.checkNotNull(mailboxId);
+        Preconditions.checkNotNull(since);
+
+        return Mono.from(coveredSince(mailboxId))
+            .filter(coveredSince -> coveredSince.compareTo(since) <= 0)
+            .flatMap(any -> Flux.from(listEntries(mailboxId, since))
+                .distinct()
+                .collect(Guavate.toImmutableList()));
+    }
+
+    private Mono<Void> compactIfNeeded(MailboxId mailboxId, ModSeq coveredSince, ModSeq modSeq) {
+        if (modSeq.asLong() - coveredSince.asLong() > RETENTION) {
+            return Mono.from(compact(mailboxId, ModSeq.of(modSeq.asLong() - RETENTION / 2)));
+        }
+        return Mono.empty();
+    }
+}
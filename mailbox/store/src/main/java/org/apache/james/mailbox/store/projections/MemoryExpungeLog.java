@@ -0,0 +1,107 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.projections;
+
+import java.util.Collection;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.model.MailboxId;
+
+import com.google.common.base.Preconditions;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class MemoryExpungeLog implements ExpungeLog {
+
+    private final ConcurrentHashMap<MailboxId, NavigableMap<ModSeq, Set<MessageUid>>> entries;
+    private final ConcurrentHashMap<MailboxId, ModSeq> coverage;
+
+    public MemoryExpungeLog() {
+        this.entries = new ConcurrentHashMap<>();
+        this.coverage = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Mono<Void> appendEntries(MailboxId mailboxId, ModSeq modSeq, Collection<MessageUid> uids) {
+        Preconditions.checkNotNull(mailboxId);
+        Preconditions.checkNotNull(modSeq);
+        Preconditions.checkNotNull(uids);
+
+        return Mono.fromRunnable(() -> entries.computeIfAbsent(mailboxId, any -> new ConcurrentSkipListMap<>())
+            .computeIfAbsent(modSeq, any -> new ConcurrentSkipListSet<>())
+            .addAll(uids));
+    }
+
+    @Override
+    public Flux<MessageUid> listEntries(MailboxId mailboxId, ModSeq since) {
+        Preconditions.checkNotNull(mailboxId);
+        Preconditions.checkNotNull(since);
+
+        return Mono.justOrEmpty(entries.get(mailboxId))
+            .flatMapIterable(mailboxEntries -> mailboxEntries.tailMap(since, true).values())
+            .flatMapIterable(uids -> uids);
+    }
+
+    @Override
+    public Mono<ModSeq> coveredSince(MailboxId mailboxId) {
+        Preconditions.checkNotNull(mailboxId);
+
+        return Mono.fromSupplier(() -> coverage.get(mailboxId));
+    }
+
+    @Override
+    public Mono<Void> startCoverage(MailboxId mailboxId, ModSeq since) {
+        Preconditions.checkNotNull(mailboxId);
+        Preconditions.checkNotNull(since);
+
+        return Mono.fromRunnable(() -> coverage.putIfAbsent(mailboxId, since));
+    }
+
+    @Override
+    public Mono<Void> compact(MailboxId mailboxId, ModSeq before) {
+        Preconditions.checkNotNull(mailboxId);
+        Preconditions.checkNotNull(before);
+
+        return Mono.fromRunnable(() -> {
+            coverage.merge(mailboxId, before, (current, proposed) -> current.compareTo(proposed) < 0 ? proposed : current);
+            NavigableMap<ModSeq, Set<MessageUid>> mailboxEntries = entries.get(mailboxId);
+            if (mailboxEntries != null) {
+                mailboxEntries.headMap(before, false).clear();
+            }
+        });
+    }
+
+    @Override
+    public Mono<Void> delete(MailboxId mailboxId) {
+        Preconditions.checkNotNull(mailboxId);
+
+        return Mono.fromRunnable(() -> {
+            coverage.remove(mailboxId);
+            entries.remove(mailboxId);
+        });
+    }
+}
@@ -0,0 +1,104 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.projections;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Objects;
+
+import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.model.Header;
+import org.apache.james.mailbox.model.MessageResult;
+import org.apache.james.mailbox.model.MimeDescriptor;
+import org.apache.james.mailbox.store.MimeStructureProjection;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Compact representation of what an IMAP FETCH needs to answer ENVELOPE, BODY and BODYSTRUCTURE.
+ *
+ * It is the MIME structure of the message where only the headers used for building envelopes are retained, for the
+ * message itself as well as for its embedded messages.
+ */
+public class MessageStructure {
+    private static final ImmutableSet<String> ENVELOPE_HEADERS = ImmutableSet.of(
+        "date", "subject", "from", "sender", "reply-to", "to", "cc", "bcc", "in-reply-to", "message-id");
+
+    public static MessageStructure from(MessageResult messageResult) throws MailboxException, IOException {
+        return from(messageResult.getMimeDescriptor());
+    }
+
+    public static MessageStructure from(MimeDescriptor mimeDescriptor) throws MailboxException, IOException {
+        return fromJson(MimeStructureProjection.serialize(mimeDescriptor, MessageStructure::isEnvelopeHeader));
+    }
+
+    public static MessageStructure fromJson(String json) throws IOException {
+        Preconditions.checkNotNull(json);
+
+        return new MessageStructure(json, MimeStructureProjection.deserialize(json));
+    }
+
+    private static boolean isEnvelopeHeader(Header header) {
+        return header.getName() != null && ENVELOPE_HEADERS.contains(header.getName().toLowerCase(Locale.US));
+    }
+
+    private final String json;
+    private final MimeDescriptor mimeDescriptor;
+
+    private MessageStructure(String json, MimeDescriptor mimeDescriptor) {
+        this.json = json;
+        this.mimeDescriptor = mimeDescriptor;
+    }
+
+    public String asJson() {
+        return json;
+    }
+
+    /**
+     * The top level headers of this descriptor are the envelope headers of the message.
+     */
+    public MimeDescriptor getMimeDescriptor() {
+        return mimeDescriptor;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof MessageStructure) {
+            MessageStructure that = (MessageStructure) o;
+
+            return Objects.equals(this.json, that.json);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(json);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("json", json)
+            .toString();
+    }
+}
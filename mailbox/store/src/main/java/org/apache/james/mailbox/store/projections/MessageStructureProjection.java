@@ -0,0 +1,57 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.projections;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.james.mailbox.model.MessageId;
+import org.reactivestreams.Publisher;
+
+import com.google.common.base.Preconditions;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Precomputed {@link MessageStructure} of messages, allowing IMAP FETCH of ENVELOPE, BODY and BODYSTRUCTURE to be
+ * answered without reading message content.
+ *
+ * Entries are computed asynchronously upon append thus callers are expected to fall back to the message content
+ * when an entry is missing.
+ */
+public interface MessageStructureProjection {
+
+    Publisher<Void> store(MessageId messageId, MessageStructure messageStructure);
+
+    Publisher<MessageStructure> retrieve(MessageId messageId);
+
+    Publisher<Void> delete(MessageId messageId);
+
+    default Publisher<Map<MessageId, MessageStructure>> retrieve(Collection<MessageId> messageIds) {
+        Preconditions.checkNotNull(messageIds);
+
+        return Flux.fromIterable(messageIds)
+            .flatMap(messageId -> Mono.from(this.retrieve(messageId))
+                .map(structure -> Pair.of(messageId, structure)))
+            .collectMap(Pair::getLeft, Pair::getRight);
+    }
+}
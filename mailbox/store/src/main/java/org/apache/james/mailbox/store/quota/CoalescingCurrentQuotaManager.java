@@ -0,0 +1,218 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.quota;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.apache.james.core.quota.QuotaCountUsage;
+import org.apache.james.core.quota.QuotaSizeUsage;
+import org.apache.james.mailbox.model.CurrentQuotas;
+import org.apache.james.mailbox.model.QuotaOperation;
+import org.apache.james.mailbox.model.QuotaRoot;
+import org.apache.james.mailbox.quota.CurrentQuotaManager;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+/**
+ * Coalesces concurrent current quota updates of a quota root into single writes to the underlying
+ * {@link CurrentQuotaManager}.
+ *
+ * At most one write per quota root is in flight: updates submitted meanwhile are aggregated in memory and written
+ * together once it completes. Updates only complete once written, hence callers (quota listeners) never acknowledge
+ * an update that could be lost, while hot quota roots (shared or domain wide ones) get far fewer counter writes.
+ */
+public class CoalescingCurrentQuotaManager implements CurrentQuotaManager {
+    public static final String DELEGATE = "CoalescingCurrentQuotaManagerDelegate";
+
+    private static class Delta {
+        private static Delta increase(QuotaOperation quotaOperation) {
+            return new Delta(quotaOperation.count().asLong(), quotaOperation.size().asLong());
+        }
+
+        private static Delta decrease(QuotaOperation quotaOperation) {
+            return new Delta(-quotaOperation.count().asLong(), -quotaOperation.size().asLong());
+        }
+
+        private final long count;
+        private final long size;
+
+        private Delta(long count, long size) {
+            this.count = count;
+            this.size = size;
+        }
+
+        private Delta plus(Delta other) {
+            return new Delta(count + other.count, size + other.size);
+        }
+
+        private CurrentQuotas applyTo(CurrentQuotas currentQuotas) {
+            return new CurrentQuotas(
+                QuotaCountUsage.count(currentQuotas.count().asLong() + count),
+                QuotaSizeUsage.size(currentQuotas.size().asLong() + size));
+        }
+
+        private Optional<QuotaOperation> increments(QuotaRoot quotaRoot) {
+            return asOperation(quotaRoot, Math.max(count, 0), Math.max(size, 0));
+        }
+
+        private Optional<QuotaOperation> decrements(QuotaRoot quotaRoot) {
+            return asOperation(quotaRoot, Math.max(-count, 0), Math.max(-size, 0));
+        }
+
+        private Optional<QuotaOperation> asOperation(QuotaRoot quotaRoot, long count, long size) {
+            if (count == 0 && size == 0) {
+                return Optional.empty();
+            }
+            return Optional.of(new QuotaOperation(quotaRoot, QuotaCountUsage.count(count), QuotaSizeUsage.size(size)));
+        }
+    }
+
+    private static class Update {
+        private final Delta delta;
+        private final MonoProcessor<Void> written;
+
+        private Update(Delta delta) {
+            this(delta, MonoProcessor.create());
+        }
+
+        private Update(Delta delta, MonoProcessor<Void> written) {
+            this.delta = delta;
+            this.written = written;
+        }
+
+        private Update plus(Update other) {
+            return new Update(delta.plus(other.delta), written);
+        }
+
+        private Mono<Void> awaitWritten() {
+            return written.onErrorResume(e -> Mono.empty());
+        }
+    }
+
+    private final CurrentQuotaManager delegate;
+    private final ConcurrentHashMap<QuotaRoot, Update> pendingUpdates;
+    private final ConcurrentHashMap<QuotaRoot, Update> inFlightUpdates;
+
+    @Inject
+    public CoalescingCurrentQuotaManager(@Named(DELEGATE) CurrentQuotaManager delegate) {
+        this.delegate = delegate;
+        this.pendingUpdates = new ConcurrentHashMap<>();
+        this.inFlightUpdates = new ConcurrentHashMap<>();
+    }
+
+    @PreDestroy
+    public void stop() {
+        Flux.concat(Flux.fromIterable(inFlightUpdates.values()), Flux.fromIterable(pendingUpdates.values()))
+            .flatMap(Update::awaitWritten)
+            .then()
+            .block();
+    }
+
+    @Override
+    public Mono<Void> increase(QuotaOperation quotaOperation) {
+        return submit(quotaOperation.quotaRoot(), Delta.increase(quotaOperation));
+    }
+
+    @Override
+    public Mono<Void> decrease(QuotaOperation quotaOperation) {
+        return submit(quotaOperation.quotaRoot(), Delta.decrease(quotaOperation));
+    }
+
+    @Override
+    public Mono<QuotaCountUsage> getCurrentMessageCount(QuotaRoot quotaRoot) {
+        return getCurrentQuotas(quotaRoot)
+            .map(CurrentQuotas::count);
+    }
+
+    @Override
+    public Mono<QuotaSizeUsage> getCurrentStorage(QuotaRoot quotaRoot) {
+        return getCurrentQuotas(quotaRoot)
+            .map(CurrentQuotas::size);
+    }
+
+    @Override
+    public Mono<CurrentQuotas> getCurrentQuotas(QuotaRoot quotaRoot) {
+        return Mono.from(delegate.getCurrentQuotas(quotaRoot))
+            .map(currentQuotas -> Optional.ofNullable(pendingUpdates.get(quotaRoot))
+                .map(update -> update.delta.applyTo(currentQuotas))
+                .orElse(currentQuotas));
+    }
+
+    @Override
+    public Mono<Void> setCurrentQuotas(QuotaOperation quotaOperation) {
+        return awaitWrites(quotaOperation.quotaRoot())
+            .then(Mono.from(delegate.setCurrentQuotas(quotaOperation)));
+    }
+
+    private Mono<Void> submit(QuotaRoot quotaRoot, Delta delta) {
+        return Mono.defer(() -> {
+            Update update = pendingUpdates.merge(quotaRoot, new Update(delta), Update::plus);
+            writeIfIdle(quotaRoot);
+            return update.written;
+        });
+    }
+
+    private void writeIfIdle(QuotaRoot quotaRoot) {
+        AtomicReference<Update> claimedUpdate = new AtomicReference<>();
+        inFlightUpdates.computeIfAbsent(quotaRoot, key -> {
+            Update update = pendingUpdates.remove(key);
+            claimedUpdate.set(update);
+            return update;
+        });
+
+        Optional.ofNullable(claimedUpdate.get())
+            .ifPresent(update -> write(quotaRoot, update)
+                .doFinally(signal -> {
+                    inFlightUpdates.remove(quotaRoot);
+                    if (pendingUpdates.containsKey(quotaRoot)) {
+                        writeIfIdle(quotaRoot);
+                    }
+                })
+                .subscribe());
+    }
+
+    private Mono<Void> write(QuotaRoot quotaRoot, Update update) {
+        return Flux.concat(
+                Mono.justOrEmpty(update.delta.increments(quotaRoot)).flatMap(operation -> Mono.from(delegate.increase(operation))),
+                Mono.justOrEmpty(update.delta.decrements(quotaRoot)).flatMap(operation -> Mono.from(delegate.decrease(operation))))
+            .then()
+            .doOnSuccess(any -> update.written.onComplete())
+            .onErrorResume(e -> {
+                update.written.onError(e);
+                return Mono.empty();
+            });
+    }
+
+    private Mono<Void> awaitWrites(QuotaRoot quotaRoot) {
+        return Flux.concat(
+                Mono.defer(() -> Mono.justOrEmpty(inFlightUpdates.get(quotaRoot))),
+                Mono.defer(() -> Mono.justOrEmpty(pendingUpdates.get(quotaRoot))))
+            .concatMap(Update::awaitWritten)
+            .then();
+    }
+}
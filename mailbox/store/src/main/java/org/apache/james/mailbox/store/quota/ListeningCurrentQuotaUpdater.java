@@ -18,9 +18,16 @@
  ****************************************************************/
 package org.apache.james.mailbox.store.quota;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.inject.Named;
 
 import org.apache.james.core.Username;
 import org.apache.james.core.quota.QuotaCountLimit;
@@ -40,9 +47,12 @@ import org.apache.james.mailbox.quota.QuotaManager;
 import org.apache.james.mailbox.quota.QuotaRootResolver;
 import org.apache.james.mailbox.store.event.EventFactory;
 import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableSet;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 import reactor.util.function.Tuple2;
@@ -53,19 +63,48 @@ public class ListeningCurrentQuotaUpdater implements MailboxListener.ReactiveGro
     }
 
     public static final Group GROUP = new ListeningCurrentQuotaUpdaterGroup();
+    public static final Duration NO_THROTTLING = Duration.ZERO;
+    public static final String USAGE_EVENT_THROTTLING = "quotaUsageEventThrottling";
+    private static final Logger LOGGER = LoggerFactory.getLogger(ListeningCurrentQuotaUpdater.class);
     private static final ImmutableSet<RegistrationKey> NO_REGISTRATION_KEYS = ImmutableSet.of();
 
     private final CurrentQuotaManager currentQuotaManager;
     private final QuotaRootResolver quotaRootResolver;
     private final EventBus eventBus;
     private final QuotaManager quotaManager;
+    private final Duration usageEventThrottling;
+    // Quota roots within a throttling window, associated with the user to notify at the end of the window, if any
+    private final ConcurrentHashMap<QuotaRoot, Optional<Username>> throttledQuotaRoots;
 
     @Inject
     public ListeningCurrentQuotaUpdater(CurrentQuotaManager currentQuotaManager, QuotaRootResolver quotaRootResolver, EventBus eventBus, QuotaManager quotaManager) {
+        this(currentQuotaManager, quotaRootResolver, eventBus, quotaManager, NO_THROTTLING);
+    }
+
+    /**
+     * @param usageEventThrottling minimum delay between two {@link org.apache.james.mailbox.events.MailboxListener.QuotaUsageUpdatedEvent}
+     *                             for a given quota root. Updates happening in between are coalesced into a single event
+     *                             published at the end of the window, or upon {@link #stop()}.
+     */
+    public ListeningCurrentQuotaUpdater(CurrentQuotaManager currentQuotaManager, QuotaRootResolver quotaRootResolver, EventBus eventBus,
+                                        QuotaManager quotaManager, @Named(USAGE_EVENT_THROTTLING) Duration usageEventThrottling) {
         this.currentQuotaManager = currentQuotaManager;
         this.quotaRootResolver = quotaRootResolver;
         this.eventBus = eventBus;
         this.quotaManager = quotaManager;
+        this.usageEventThrottling = usageEventThrottling;
+        this.throttledQuotaRoots = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Publishes the coalesced events of the pending throttling windows right away.
+     */
+    @PreDestroy
+    public void stop() {
+        Flux.fromIterable(throttledQuotaRoots.keySet())
+            .flatMap(this::dispatchThrottledQuota)
+            .then()
+            .block();
     }
 
     @Override
@@ -110,6 +149,34 @@ public class ListeningCurrentQuotaUpdater implements MailboxListener.ReactiveGro
     }
 
     private Mono<Void> dispatchNewQuota(QuotaRoot quotaRoot, Username username) {
+        if (usageEventThrottling.isZero()) {
+            return doDispatchNewQuota(quotaRoot, username);
+        }
+        AtomicBoolean windowOpened = new AtomicBoolean(false);
+        throttledQuotaRoots.compute(quotaRoot, (key, pendingUser) -> {
+            if (pendingUser == null) {
+                windowOpened.set(true);
+                return Optional.empty();
+            }
+            return Optional.of(username);
+        });
+        if (windowOpened.get()) {
+            Mono.delay(usageEventThrottling)
+                .flatMap(any -> dispatchThrottledQuota(quotaRoot))
+                .subscribe(any -> { },
+                    e -> LOGGER.error("Failed publishing throttled quota usage for {}", quotaRoot.getValue(), e));
+            return doDispatchNewQuota(quotaRoot, username);
+        }
+        return Mono.empty();
+    }
+
+    private Mono<Void> dispatchThrottledQuota(QuotaRoot quotaRoot) {
+        return Mono.justOrEmpty(Optional.ofNullable(throttledQuotaRoots.remove(quotaRoot))
+                .flatMap(Function.identity()))
+            .flatMap(pendingUser -> doDispatchNewQuota(quotaRoot, pendingUser));
+    }
+
+    private Mono<Void> doDispatchNewQuota(QuotaRoot quotaRoot, Username username) {
         Mono<Quota<QuotaCountLimit, QuotaCountUsage>> messageQuota = Mono.fromCallable(() -> quotaManager.getMessageQuota(quotaRoot));
         Mono<Quota<QuotaSizeLimit, QuotaSizeUsage>> storageQuota = Mono.fromCallable(() -> quotaManager.getStorageQuota(quotaRoot));
 
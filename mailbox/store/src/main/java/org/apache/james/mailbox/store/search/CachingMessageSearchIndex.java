@@ -0,0 +1,552 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailbox.store.search;
+
+import static com.github.steveash.guavate.Guavate.toImmutableList;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.apache.james.mailbox.MailboxManager;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.events.Event;
+import org.apache.james.mailbox.events.EventBus;
+import org.apache.james.mailbox.events.MailboxIdRegistrationKey;
+import org.apache.james.mailbox.events.MailboxListener;
+import org.apache.james.mailbox.events.Registration;
+import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.model.Mailbox;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.model.MessageId;
+import org.apache.james.mailbox.model.SearchQuery;
+import org.apache.james.mailbox.model.SearchQuery.UidRange;
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.fge.lambdas.Throwing;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link MessageSearchIndex} caching the results of the wrapped index, keyed by the searched mailboxes and the search
+ * query, as clients tend to poll the same searches over and over.
+ *
+ * Mailboxes involved in cached results are watched through a {@link MailboxIdRegistrationKey} registration, so that
+ * every James server is notified of their changes. A change invalidates the results of its mailbox, and is kept as
+ * pending until the wrapped index is seen reflecting it: added and updated messages need to be indexed with at least
+ * their new modseq, expunged messages need to be gone. Results are not cached while changes are pending, as the wrapped
+ * index is updated asynchronously. Watches are released once the mailbox was not searched for a while.
+ *
+ * A watch tracks at most {@link Configuration#getMaxPendingChanges()} pending changes. Past that, it is released along
+ * with the results relying on it, and the next search of its mailbox starts a new watch: changes that happened before
+ * a watch starts are expected to be indexed.
+ */
+public class CachingMessageSearchIndex implements MessageSearchIndex {
+    public static class Configuration {
+        public static class Builder {
+            private Optional<Long> maxCachedResults = Optional.empty();
+            private Optional<Integer> maxPendingChanges = Optional.empty();
+            private Optional<Duration> timeToLive = Optional.empty();
+
+            public Builder maxCachedResults(long maxCachedResults) {
+                Preconditions.checkArgument(maxCachedResults > 0, "'maxCachedResults' needs to be strictly positive");
+                this.maxCachedResults = Optional.of(maxCachedResults);
+                return this;
+            }
+
+            public Builder maxPendingChanges(int maxPendingChanges) {
+                Preconditions.checkArgument(maxPendingChanges > 0, "'maxPendingChanges' needs to be strictly positive");
+                this.maxPendingChanges = Optional.of(maxPendingChanges);
+                return this;
+            }
+
+            public Builder timeToLive(Duration timeToLive) {
+                Preconditions.checkArgument(!timeToLive.isNegative() && !timeToLive.isZero(), "'timeToLive' needs to be strictly positive");
+                this.timeToLive = Optional.of(timeToLive);
+                return this;
+            }
+
+            public Configuration build() {
+                return new Configuration(
+                    maxCachedResults.orElse(DEFAULT_MAX_CACHED_RESULTS),
+                    maxPendingChanges.orElse(DEFAULT_MAX_PENDING_CHANGES),
+                    timeToLive.orElse(DEFAULT_TIME_TO_LIVE));
+            }
+        }
+
+        public static final long DEFAULT_MAX_CACHED_RESULTS = 100_000;
+        public static final int DEFAULT_MAX_PENDING_CHANGES = 10_000;
+        public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(5);
+        public static final Configuration DEFAULT = builder().build();
+
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        private final long maxCachedResults;
+        private final int maxPendingChanges;
+        private final Duration timeToLive;
+
+        private Configuration(long maxCachedResults, int maxPendingChanges, Duration timeToLive) {
+            this.maxCachedResults = maxCachedResults;
+            this.maxPendingChanges = maxPendingChanges;
+            this.timeToLive = timeToLive;
+        }
+
+        /**
+         * Bounds the memory used by the cache, as the overall count of message uids and ids held by cached results.
+         */
+        public long getMaxCachedResults() {
+            return maxCachedResults;
+        }
+
+        /**
+         * Bounds the count of changes of a mailbox awaiting to be seen in the index.
+         */
+        public int getMaxPendingChanges() {
+            return maxPendingChanges;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof Configuration) {
+                Configuration that = (Configuration) o;
+
+                return Objects.equals(this.maxCachedResults, that.maxCachedResults)
+                    && Objects.equals(this.maxPendingChanges, that.maxPendingChanges)
+                    && Objects.equals(this.timeToLive, that.timeToLive);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(maxCachedResults, maxPendingChanges, timeToLive);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                .add("maxCachedResults", maxCachedResults)
+                .add("maxPendingChanges", maxPendingChanges)
+                .add("timeToLive", timeToLive)
+                .toString();
+        }
+    }
+
+    /**
+     * Top level criteria are combined with AND, thus their order does not alter the result.
+     */
+    private static class CacheKey {
+        static CacheKey of(ImmutableSet<MailboxId> mailboxIds, SearchQuery searchQuery, Optional<Long> limit) {
+            return new CacheKey(mailboxIds,
+                ImmutableSet.copyOf(searchQuery.getCriteria()),
+                ImmutableList.copyOf(searchQuery.getSorts()),
+                ImmutableSet.copyOf(searchQuery.getRecentMessageUids()),
+                limit);
+        }
+
+        private final ImmutableSet<MailboxId> mailboxIds;
+        private final ImmutableSet<SearchQuery.Criterion> criteria;
+        private final ImmutableList<SearchQuery.Sort> sorts;
+        private final ImmutableSet<MessageUid> recentMessageUids;
+        private final Optional<Long> limit;
+
+        private CacheKey(ImmutableSet<MailboxId> mailboxIds, ImmutableSet<SearchQuery.Criterion> criteria,
+                         ImmutableList<SearchQuery.Sort> sorts, ImmutableSet<MessageUid> recentMessageUids, Optional<Long> limit) {
+            this.mailboxIds = mailboxIds;
+            this.criteria = criteria;
+            this.sorts = sorts;
+            this.recentMessageUids = recentMessageUids;
+            this.limit = limit;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof CacheKey) {
+                CacheKey that = (CacheKey) o;
+
+                return Objects.equals(this.mailboxIds, that.mailboxIds)
+                    && Objects.equals(this.criteria, that.criteria)
+                    && Objects.equals(this.sorts, that.sorts)
+                    && Objects.equals(this.recentMessageUids, that.recentMessageUids)
+                    && Objects.equals(this.limit, that.limit);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(mailboxIds, criteria, sorts, recentMessageUids, limit);
+        }
+    }
+
+    private static class CachedResult<T> {
+        private final ImmutableList<T> values;
+        private final ImmutableList<WatchSnapshot> snapshots;
+
+        CachedResult(ImmutableList<T> values, ImmutableList<WatchSnapshot> snapshots) {
+            this.values = values;
+            this.snapshots = snapshots;
+        }
+
+        int weight() {
+            return values.size() + 1;
+        }
+
+        boolean isUpToDate() {
+            return snapshots.stream().allMatch(WatchSnapshot::isUpToDate);
+        }
+    }
+
+    /**
+     * State of a watch before a search: results computed afterwards can be cached if no change happened meanwhile,
+     * and if the pending changes were seen in the index.
+     */
+    private static class WatchSnapshot {
+        private final MailboxWatch watch;
+        private final long version;
+        private final ImmutableMap<MessageUid, Optional<ModSeq>> pendingChanges;
+
+        WatchSnapshot(MailboxWatch watch, long version, ImmutableMap<MessageUid, Optional<ModSeq>> pendingChanges) {
+            this.watch = watch;
+            this.version = version;
+            this.pendingChanges = pendingChanges;
+        }
+
+        boolean isUpToDate() {
+            return watch.isTracking() && watch.version.get() == version;
+        }
+    }
+
+    private class MailboxWatch implements MailboxListener.ReactiveMailboxListener {
+        private final MailboxId mailboxId;
+        private final AtomicLong version;
+        private final Map<MessageUid, Optional<ModSeq>> pendingChanges;
+        private final AtomicBoolean released;
+        private volatile Optional<Registration> registration;
+
+        MailboxWatch(MailboxId mailboxId) {
+            this.mailboxId = mailboxId;
+            this.version = new AtomicLong();
+            this.pendingChanges = new ConcurrentHashMap<>();
+            this.released = new AtomicBoolean(false);
+            this.registration = Optional.empty();
+        }
+
+        /**
+         * Changes can only be tracked once the registration is effective.
+         */
+        void started(Registration registration) {
+            this.registration = Optional.of(registration);
+            if (released.get()) {
+                registration.unregister();
+            }
+        }
+
+        boolean isTracking() {
+            return registration.isPresent() && !released.get();
+        }
+
+        @Override
+        public boolean isHandling(Event event) {
+            return event instanceof Added
+                || event instanceof Expunged
+                || event instanceof FlagsUpdated
+                || event instanceof MailboxDeletion;
+        }
+
+        @Override
+        public Publisher<Void> reactiveEvent(Event event) {
+            if (isHandling(event)) {
+                return Mono.fromRunnable(() -> recordChange(event));
+            }
+            return Mono.empty();
+        }
+
+        private void recordChange(Event event) {
+            if (event instanceof Added) {
+                ((Added) event).getAdded().values()
+                    .forEach(metaData -> recordPendingChange(metaData.getUid(), Optional.of(metaData.getModSeq())));
+            } else if (event instanceof FlagsUpdated) {
+                ((FlagsUpdated) event).getUpdatedFlags()
+                    .forEach(updatedFlags -> recordPendingChange(updatedFlags.getUid(), Optional.of(updatedFlags.getModSeq())));
+            } else if (event instanceof Expunged) {
+                ((Expunged) event).getExpunged().keySet()
+                    .forEach(uid -> recordPendingChange(uid, Optional.empty()));
+            }
+            version.incrementAndGet();
+            if (event instanceof MailboxDeletion || pendingChanges.size() > configuration.getMaxPendingChanges()) {
+                watches.asMap().remove(mailboxId, this);
+            }
+        }
+
+        private void recordPendingChange(MessageUid uid, Optional<ModSeq> modSeq) {
+            pendingChanges.merge(uid, modSeq, (previous, current) -> {
+                if (previous.isPresent() && current.isPresent() && previous.get().compareTo(current.get()) > 0) {
+                    return previous;
+                }
+                return current;
+            });
+        }
+
+        WatchSnapshot snapshot() {
+            long currentVersion = version.get();
+            return new WatchSnapshot(this, currentVersion, ImmutableMap.copyOf(pendingChanges));
+        }
+
+        /**
+         * @return true if every pending change of the snapshot is reflected by the wrapped index
+         */
+        Mono<Boolean> verify(MailboxSession session, WatchSnapshot snapshot) {
+            if (!isTracking()) {
+                return Mono.just(false);
+            }
+            return Flux.fromIterable(Iterables.partition(snapshot.pendingChanges.entrySet(), VERIFICATION_BATCH_SIZE))
+                .concatMap(batch -> verify(session, batch))
+                .all(verified -> verified)
+                .doOnNext(verified -> {
+                    if (verified) {
+                        snapshot.pendingChanges.forEach(pendingChanges::remove);
+                    }
+                })
+                .onErrorResume(e -> {
+                    LOGGER.warn("Could not check that the index reflects the changes of mailbox {}", mailboxId.serialize(), e);
+                    return Mono.just(false);
+                });
+        }
+
+        private Mono<Boolean> verify(MailboxSession session, List<Map.Entry<MessageUid, Optional<ModSeq>>> changes) {
+            ImmutableList<SearchQuery.Criterion> updated = changes.stream()
+                .filter(change -> change.getValue().isPresent())
+                .map(change -> SearchQuery.and(
+                    SearchQuery.uid(new UidRange[] {new UidRange(change.getKey())}),
+                    SearchQuery.modSeqGreaterThan(change.getValue().get().asLong() - 1)))
+                .collect(toImmutableList());
+            UidRange[] expunged = changes.stream()
+                .filter(change -> !change.getValue().isPresent())
+                .map(change -> new UidRange(change.getKey()))
+                .toArray(UidRange[]::new);
+
+            Mono<Boolean> updatesIndexed = countMatching(session, updated.isEmpty(), SearchQuery.or(updated))
+                .map(count -> count == updated.size());
+            Mono<Boolean> expungesIndexed = countMatching(session, expunged.length == 0, SearchQuery.uid(expunged))
+                .map(count -> count == 0);
+            return Flux.concat(updatesIndexed, expungesIndexed)
+                .all(verified -> verified);
+        }
+
+        private Mono<Long> countMatching(MailboxSession session, boolean noCriterion, SearchQuery.Criterion criterion) {
+            if (noCriterion) {
+                return Mono.just(0L);
+            }
+            return Mono.fromCallable(() -> underlying.search(session, ImmutableList.of(mailboxId), SearchQuery.of(criterion), VERIFICATION_BATCH_SIZE))
+                .flatMap(Flux::count);
+        }
+
+        void unregister() {
+            released.set(true);
+            pendingChanges.clear();
+            registration.ifPresent(Registration::unregister);
+        }
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingMessageSearchIndex.class);
+    private static final int VERIFICATION_BATCH_SIZE = 500;
+
+    private final MessageSearchIndex underlying;
+    private final EventBus eventBus;
+    private final Configuration configuration;
+    private final Metric hitMetric;
+    private final Metric missMetric;
+    private final Cache<MailboxId, MailboxWatch> watches;
+    private final Cache<CacheKey, CachedResult<MessageUid>> uidResults;
+    private final Cache<CacheKey, CachedResult<MessageId>> messageIdResults;
+
+    public CachingMessageSearchIndex(MessageSearchIndex underlying, EventBus eventBus, MetricFactory metricFactory,
+                                     Configuration configuration) {
+        this.underlying = underlying;
+        this.eventBus = eventBus;
+        this.configuration = configuration;
+        this.hitMetric = metricFactory.generate("searchCache.hit");
+        this.missMetric = metricFactory.generate("searchCache.miss");
+        RemovalListener<MailboxId, MailboxWatch> unregister = notification -> notification.getValue().unregister();
+        this.watches = CacheBuilder.newBuilder()
+            .expireAfterAccess(configuration.getTimeToLive().toMillis(), TimeUnit.MILLISECONDS)
+            .removalListener(unregister)
+            .build();
+        this.uidResults = buildResultCache();
+        this.messageIdResults = buildResultCache();
+    }
+
+    private <T> Cache<CacheKey, CachedResult<T>> buildResultCache() {
+        return CacheBuilder.newBuilder()
+            .expireAfterWrite(configuration.getTimeToLive().toMillis(), TimeUnit.MILLISECONDS)
+            .maximumWeight(configuration.getMaxCachedResults())
+            .weigher((CacheKey key, CachedResult<T> result) -> result.weight())
+            .build();
+    }
+
+    @Override
+    public Stream<MessageUid> search(MailboxSession session, Mailbox mailbox, SearchQuery searchQuery) throws MailboxException {
+        ImmutableList<MailboxWatch> mailboxWatches = ImmutableList.of(watch(mailbox.getMailboxId()));
+        CacheKey key = CacheKey.of(ImmutableSet.of(mailbox.getMailboxId()), searchQuery, Optional.empty());
+
+        Optional<ImmutableList<MessageUid>> cached = lookup(uidResults, key);
+        if (cached.isPresent()) {
+            return cached.get().stream();
+        }
+        ImmutableList<WatchSnapshot> snapshots = snapshot(mailboxWatches);
+        boolean verified = verify(session, snapshots).block();
+        ImmutableList<MessageUid> uids = underlying.search(session, mailbox, searchQuery)
+            .collect(toImmutableList());
+        store(uidResults, key, uids, verified, snapshots);
+        return uids.stream();
+    }
+
+    @Override
+    public Flux<MessageId> search(MailboxSession session, Collection<MailboxId> mailboxIds, SearchQuery searchQuery, long limit) throws MailboxException {
+        if (mailboxIds.isEmpty()) {
+            return underlying.search(session, mailboxIds, searchQuery, limit);
+        }
+        ImmutableSet<MailboxId> searchedMailboxIds = ImmutableSet.copyOf(mailboxIds);
+        ImmutableList<MailboxWatch> mailboxWatches = searchedMailboxIds.stream()
+            .map(this::watch)
+            .collect(toImmutableList());
+        CacheKey key = CacheKey.of(searchedMailboxIds, searchQuery, Optional.of(limit));
+
+        Optional<ImmutableList<MessageId>> cached = lookup(messageIdResults, key);
+        if (cached.isPresent()) {
+            return Flux.fromIterable(cached.get());
+        }
+        ImmutableList<WatchSnapshot> snapshots = snapshot(mailboxWatches);
+        return verify(session, snapshots)
+            .flatMap(Throwing.function(verified -> underlying.search(session, mailboxIds, searchQuery, limit)
+                .collect(toImmutableList())
+                .doOnNext(messageIds -> store(messageIdResults, key, messageIds, verified, snapshots))))
+            .flatMapIterable(Function.identity());
+    }
+
+    /**
+     * Not cached: the mailboxes such a search covers are not known upfront, thus its results can not be invalidated.
+     */
+    @Override
+    public Flux<MessageId> searchAllMailboxes(MailboxSession session, Flux<MailboxId> personalMailboxIds,
+                                              Collection<MailboxId> delegatedMailboxIds, Collection<MailboxId> excludedMailboxIds,
+                                              SearchQuery searchQuery, long limit) {
+        return underlying.searchAllMailboxes(session, personalMailboxIds, delegatedMailboxIds, excludedMailboxIds, searchQuery, limit);
+    }
+
+    @Override
+    public EnumSet<MailboxManager.SearchCapabilities> getSupportedCapabilities(EnumSet<MailboxManager.MessageCapabilities> messageCapabilities) {
+        return underlying.getSupportedCapabilities(messageCapabilities);
+    }
+
+    private <T> Optional<ImmutableList<T>> lookup(Cache<CacheKey, CachedResult<T>> cache, CacheKey key) {
+        Optional<CachedResult<T>> result = Optional.ofNullable(cache.getIfPresent(key))
+            .filter(CachedResult::isUpToDate);
+
+        if (result.isPresent()) {
+            hitMetric.increment();
+        } else {
+            missMetric.increment();
+        }
+        return result.map(cachedResult -> cachedResult.values);
+    }
+
+    private ImmutableList<WatchSnapshot> snapshot(ImmutableList<MailboxWatch> mailboxWatches) {
+        return mailboxWatches.stream()
+            .map(MailboxWatch::snapshot)
+            .collect(toImmutableList());
+    }
+
+    private Mono<Boolean> verify(MailboxSession session, ImmutableList<WatchSnapshot> snapshots) {
+        return Flux.fromIterable(snapshots)
+            .concatMap(snapshot -> snapshot.watch.verify(session, snapshot))
+            .all(verified -> verified);
+    }
+
+    private <T> void store(Cache<CacheKey, CachedResult<T>> cache, CacheKey key, ImmutableList<T> values,
+                           boolean verified, ImmutableList<WatchSnapshot> snapshots) {
+        CachedResult<T> result = new CachedResult<>(values, snapshots);
+        if (verified && result.isUpToDate()) {
+            cache.put(key, result);
+        } else {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Registration happens asynchronously: until it is effective, results of the mailbox are not cached.
+     */
+    private MailboxWatch watch(MailboxId mailboxId) {
+        try {
+            return watches.get(mailboxId, () -> startWatching(mailboxId));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new RuntimeException("Could not watch mailbox " + mailboxId.serialize(), e.getCause());
+        }
+    }
+
+    private MailboxWatch startWatching(MailboxId mailboxId) {
+        MailboxWatch watch = new MailboxWatch(mailboxId);
+        Mono.from(eventBus.register(watch, new MailboxIdRegistrationKey(mailboxId)))
+            .subscribe(watch::started,
+                e -> LOGGER.warn("Could not watch mailbox {}, its search results will not be cached", mailboxId.serialize(), e));
+        return watch;
+    }
+
+    @VisibleForTesting
+    long watchedMailboxCount() {
+        watches.cleanUp();
+        return watches.size();
+    }
+}
@@ -88,7 +88,7 @@ public abstract class ListeningMessageSearchIndex implements MessageSearchIndex,
 
             return update(session, mailboxId, flagsUpdated.getUpdatedFlags());
         } else if (event instanceof MailboxDeletion) {
-            return deleteAll(session, mailboxId);
+            return handleMailboxDeletion(session, (MailboxDeletion) event);
         } else {
             return Mono.empty();
         }
@@ -132,6 +132,17 @@ public abstract class ListeningMessageSearchIndex implements MessageSearchIndex,
      */
     public abstract Mono<Void> deleteAll(MailboxSession session, MailboxId mailboxId);
 
+    /**
+     * Delete the messages of a deleted {@link Mailbox} from the index. Indexes needing more than the id of the deleted
+     * mailbox, like its owner, can override it.
+     *
+     * @param session The mailbox session performing the deletion
+     * @param mailboxDeletion event describing the deleted mailbox
+     */
+    protected Mono<Void> handleMailboxDeletion(MailboxSession session, MailboxDeletion mailboxDeletion) {
+        return deleteAll(session, mailboxDeletion.getMailboxId());
+    }
+
     /**
      * Update the messages concerned by the updated flags list for the given {@link Mailbox}
      *
@@ -33,6 +33,9 @@ import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MessageId;
 import org.apache.james.mailbox.model.SearchQuery;
 
+import com.github.fge.lambdas.Throwing;
+import com.github.steveash.guavate.Guavate;
+
 import reactor.core.publisher.Flux;
 
 /**
@@ -53,6 +56,22 @@ public interface MessageSearchIndex {
      */
     Flux<MessageId> search(MailboxSession session, Collection<MailboxId> mailboxIds, SearchQuery searchQuery, long limit) throws MailboxException;
 
+    /**
+     * Return the messages matching the {@link SearchQuery} among all the personal mailboxes of the user of the session
+     * and the given delegated mailboxes, but none of the excluded mailboxes.
+     *
+     * Personal mailboxes are lazily provided: an index able to restrict a search to the mailboxes of an owner does not
+     * need to resolve them.
+     */
+    default Flux<MessageId> searchAllMailboxes(MailboxSession session, Flux<MailboxId> personalMailboxIds,
+                                               Collection<MailboxId> delegatedMailboxIds, Collection<MailboxId> excludedMailboxIds,
+                                               SearchQuery searchQuery, long limit) {
+        return Flux.concat(personalMailboxIds, Flux.fromIterable(delegatedMailboxIds))
+            .filter(mailboxId -> !excludedMailboxIds.contains(mailboxId))
+            .collect(Guavate.toImmutableSet())
+            .flatMapMany(Throwing.function(mailboxIds -> search(session, mailboxIds, searchQuery, limit)));
+    }
+
     EnumSet<MailboxManager.SearchCapabilities> getSupportedCapabilities(EnumSet<MailboxManager.MessageCapabilities> messageCapabilities);
 
     class SearchResult {
@@ -41,6 +41,7 @@ class BatchSizesTest {
         assertThat(batchSizes.getFetchFull()).isEqualTo(BatchSizes.DEFAULT_BATCH_SIZE);
         assertThat(batchSizes.getCopyBatchSize()).isEmpty();
         assertThat(batchSizes.getMoveBatchSize()).isEmpty();
+        assertThat(batchSizes.getAppendBatchSize()).isEqualTo(BatchSizes.DEFAULT_BATCH_SIZE);
     }
 
     @Test
@@ -53,6 +54,7 @@ class BatchSizesTest {
         assertThat(batchSizes.getFetchFull()).isEqualTo(batchSize);
         assertThat(batchSizes.getCopyBatchSize()).contains(batchSize);
         assertThat(batchSizes.getMoveBatchSize()).contains(batchSize);
+        assertThat(batchSizes.getAppendBatchSize()).isEqualTo(batchSize);
     }
 
     @Test
@@ -139,6 +141,20 @@ class BatchSizesTest {
             .isInstanceOf(IllegalArgumentException.class);
     }
 
+    @Test
+    void appendBatchSizeShouldThrowWhenNegative() {
+        assertThatThrownBy(() -> BatchSizes.builder()
+                .appendBatchSize(-1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void appendBatchSizeShouldThrowWhenZero() {
+        assertThatThrownBy(() -> BatchSizes.builder()
+                .appendBatchSize(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     void buildShouldSetDefaultValueToFetchMetadataWhenNotGiven() {
         BatchSizes batchSizes = BatchSizes.builder()
@@ -234,4 +250,13 @@ class BatchSizesTest {
                 .build();
         assertThat(batchSizes.getMoveBatchSize()).contains(expected);
     }
+
+    @Test
+    void buildShouldSetValueToAppendBatchSizeWhenGiven() {
+        int expected = 123;
+        BatchSizes batchSizes = BatchSizes.builder()
+                .appendBatchSize(expected)
+                .build();
+        assertThat(batchSizes.getAppendBatchSize()).isEqualTo(expected);
+    }
 }
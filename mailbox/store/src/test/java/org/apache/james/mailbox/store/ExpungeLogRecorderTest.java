@@ -0,0 +1,91 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.model.TestId;
+import org.apache.james.mailbox.store.mail.ModSeqProvider;
+import org.apache.james.mailbox.store.projections.ExpungeLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.publisher.Mono;
+
+class ExpungeLogRecorderTest {
+    private static final TestId MAILBOX_ID = TestId.of(42);
+    private static final ImmutableList<MessageUid> UIDS = ImmutableList.of(MessageUid.of(1));
+
+    private ExpungeLog expungeLog;
+    private ModSeqProvider modSeqProvider;
+    private ExpungeLogRecorder testee;
+
+    @BeforeEach
+    void setUp() {
+        expungeLog = mock(ExpungeLog.class);
+        modSeqProvider = mock(ModSeqProvider.class);
+        MailboxSessionMapperFactory mapperFactory = mock(MailboxSessionMapperFactory.class);
+        when(mapperFactory.getExpungeLog()).thenReturn(Optional.of(expungeLog));
+        when(mapperFactory.getModSeqProvider()).thenReturn(modSeqProvider);
+        when(expungeLog.delete(any())).thenReturn(Mono.empty());
+
+        testee = new ExpungeLogRecorder(mapperFactory);
+    }
+
+    @Test
+    void recordShouldDropTheLogWhenAppendFails() throws Exception {
+        when(modSeqProvider.highestModSeq(MAILBOX_ID)).thenReturn(ModSeq.of(36));
+        when(expungeLog.append(any(), any(), any())).thenReturn(Mono.error(new RuntimeException()));
+
+        assertThatCode(() -> testee.record(MAILBOX_ID, UIDS).block())
+            .doesNotThrowAnyException();
+        verify(expungeLog).delete(MAILBOX_ID);
+    }
+
+    @Test
+    void recordShouldDropTheLogWhenHighestModSeqCanNotBeRead() throws Exception {
+        when(modSeqProvider.highestModSeq(MAILBOX_ID)).thenThrow(new MailboxException());
+
+        assertThatCode(() -> testee.record(MAILBOX_ID, UIDS).block())
+            .doesNotThrowAnyException();
+        verify(expungeLog).delete(MAILBOX_ID);
+    }
+
+    @Test
+    void recordShouldNotFailWhenDroppingTheLogFails() throws Exception {
+        when(modSeqProvider.highestModSeq(MAILBOX_ID)).thenReturn(ModSeq.of(36));
+        when(expungeLog.append(any(), any(), any())).thenReturn(Mono.error(new RuntimeException()));
+        when(expungeLog.delete(any())).thenReturn(Mono.error(new RuntimeException()));
+
+        assertThatCode(() -> testee.record(MAILBOX_ID, UIDS).block())
+            .doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,170 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store;
+
+import static org.apache.james.mailbox.store.mail.model.StandardNames.MIME_STRUCTURE_NAME;
+import static org.apache.james.mailbox.store.mail.model.StandardNames.MIME_STRUCTURE_SPACE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.james.mailbox.model.MimeDescriptor;
+import org.apache.james.mailbox.model.MimePath;
+import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
+import org.apache.james.mailbox.store.streaming.PartContentBuilder;
+import org.apache.james.util.ClassLoaderUtils;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class MimeStructureProjectionTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    void retrieveShouldReturnEmptyWhenNoProjection() {
+        assertThat(MimeStructureProjection.retrieve(new PropertyBuilder())).isEmpty();
+    }
+
+    @Test
+    void retrieveShouldReturnEmptyWhenInvalidProjection() {
+        PropertyBuilder propertyBuilder = new PropertyBuilder();
+        propertyBuilder.setProperty(MIME_STRUCTURE_SPACE, MIME_STRUCTURE_NAME, "{\"invalid\"");
+
+        assertThat(MimeStructureProjection.retrieve(propertyBuilder)).isEmpty();
+    }
+
+    @Test
+    void retrieveShouldReturnStoredMultipartStructure() throws Exception {
+        MimeDescriptor descriptor = MimeDescriptorImpl.build(ClassLoaderUtils.getSystemResourceAsSharedStream("eml/twoAttachments.eml"));
+        PropertyBuilder propertyBuilder = new PropertyBuilder();
+
+        MimeStructureProjection.store(descriptor, propertyBuilder);
+
+        assertThat(asJson(MimeStructureProjection.retrieve(propertyBuilder).get()))
+            .isEqualTo(asJson(descriptor));
+    }
+
+    @Test
+    void retrieveShouldReturnStoredEmbeddedMessageStructure() throws Exception {
+        MimeDescriptor descriptor = MimeDescriptorImpl.build(ClassLoaderUtils.getSystemResourceAsSharedStream("eml/embeddedAttachmentWithAttachment.eml"));
+        PropertyBuilder propertyBuilder = new PropertyBuilder();
+
+        MimeStructureProjection.store(descriptor, propertyBuilder);
+
+        assertThat(asJson(MimeStructureProjection.retrieve(propertyBuilder).get()))
+            .isEqualTo(asJson(descriptor));
+    }
+
+    @Test
+    void storeShouldSplitStructureInBoundedChunks() throws Exception {
+        MimeDescriptor descriptor = MimeDescriptorImpl.build(ClassLoaderUtils.getSystemResourceAsSharedStream("eml/twoAttachments.eml"));
+        PropertyBuilder propertyBuilder = new PropertyBuilder();
+
+        MimeStructureProjection.store(descriptor, propertyBuilder);
+
+        assertThat(propertyBuilder.getValues(MIME_STRUCTURE_SPACE, MIME_STRUCTURE_NAME))
+            .hasSizeGreaterThan(1)
+            .allSatisfy(chunk -> assertThat(chunk.length()).isLessThanOrEqualTo(MimeStructureProjection.CHUNK_LENGTH));
+    }
+
+    @Test
+    void storeShouldReplacePreviousStructure() throws Exception {
+        PropertyBuilder propertyBuilder = new PropertyBuilder();
+        MimeStructureProjection.store(MimeDescriptorImpl.build(ClassLoaderUtils.getSystemResourceAsSharedStream("eml/embeddedAttachmentWithAttachment.eml")), propertyBuilder);
+        MimeDescriptor descriptor = MimeDescriptorImpl.build(ClassLoaderUtils.getSystemResourceAsSharedStream("eml/twoAttachments.eml"));
+
+        MimeStructureProjection.store(descriptor, propertyBuilder);
+
+        assertThat(asJson(MimeStructureProjection.retrieve(propertyBuilder).get()))
+            .isEqualTo(asJson(descriptor));
+    }
+
+    @Test
+    void locateBodyShouldReturnEmptyWhenNoLocationStored() throws Exception {
+        MimeDescriptor descriptor = MimeDescriptorImpl.build(ClassLoaderUtils.getSystemResourceAsSharedStream("eml/twoAttachments.eml"));
+        PropertyBuilder propertyBuilder = new PropertyBuilder();
+
+        MimeStructureProjection.store(descriptor, propertyBuilder);
+
+        assertThat(MimeStructureProjection.locateBody(propertyBuilder, new MimePath(new int[] {1}))).isEmpty();
+    }
+
+    @Test
+    void locateBodyShouldReturnEmptyWhenUnknownPart() throws Exception {
+        PropertyBuilder propertyBuilder = storeWithLocations(ClassLoaderUtils.getSystemResourceAsByteArray("eml/twoAttachments.eml"));
+
+        assertThat(MimeStructureProjection.locateBody(propertyBuilder, new MimePath(new int[] {42}))).isEmpty();
+    }
+
+    @Test
+    void locateBodyShouldMatchParsedPartContent() throws Exception {
+        byte[] content = ClassLoaderUtils.getSystemResourceAsByteArray("eml/twoAttachments.eml");
+        PropertyBuilder propertyBuilder = storeWithLocations(content);
+
+        assertThat(locatedBody(content, propertyBuilder, 1)).isEqualTo(parsedBody(content, 1));
+        assertThat(locatedBody(content, propertyBuilder, 2)).isEqualTo(parsedBody(content, 2));
+        assertThat(locatedBody(content, propertyBuilder, 3)).isEqualTo(parsedBody(content, 3));
+    }
+
+    @Test
+    void locateBodyShouldMatchParsedNestedPartContent() throws Exception {
+        byte[] content = ClassLoaderUtils.getSystemResourceAsByteArray("eml/oneAttachmentAndSomeTextInlined.eml");
+        PropertyBuilder propertyBuilder = storeWithLocations(content);
+
+        assertThat(locatedBody(content, propertyBuilder, 1, 1)).isEqualTo(parsedBody(content, 1, 1));
+        assertThat(locatedBody(content, propertyBuilder, 1, 2)).isEqualTo(parsedBody(content, 1, 2));
+        assertThat(locatedBody(content, propertyBuilder, 2)).isEqualTo(parsedBody(content, 2));
+    }
+
+    @Test
+    void locateBodyShouldNotLocateEmbeddedMessages() throws Exception {
+        PropertyBuilder propertyBuilder = storeWithLocations(ClassLoaderUtils.getSystemResourceAsByteArray("eml/embeddedAttachmentWithAttachment.eml"));
+
+        assertThat(MimeStructureProjection.locateBody(propertyBuilder, new MimePath(new int[] {2}))).isEmpty();
+    }
+
+    private PropertyBuilder storeWithLocations(byte[] content) throws Exception {
+        MimeDescriptor descriptor = MimeDescriptorImpl.build(new ByteArrayInputStream(content));
+        PropertyBuilder propertyBuilder = new PropertyBuilder();
+        MimeStructureProjection.store(descriptor, MimePartLocator.locateBodies(content, descriptor), propertyBuilder);
+        return propertyBuilder;
+    }
+
+    private byte[] locatedBody(byte[] content, PropertyBuilder propertyBuilder, int... path) {
+        MimeStructureProjection.BodyLocation location = MimeStructureProjection.locateBody(propertyBuilder, new MimePath(path)).get();
+        int start = Math.toIntExact(location.getStartOctet());
+        return Arrays.copyOfRange(content, start, start + Math.toIntExact(location.getOctets()));
+    }
+
+    private byte[] parsedBody(byte[] content, int... path) throws Exception {
+        PartContentBuilder builder = new PartContentBuilder();
+        builder.parse(new ByteArrayInputStream(content));
+        for (int position : path) {
+            builder.to(position);
+        }
+        return IOUtils.toByteArray(builder.getMimeBodyContent().getInputStream());
+    }
+
+    private String asJson(MimeDescriptor descriptor) throws Exception {
+        return OBJECT_MAPPER.writeValueAsString(MimeStructureProjection.PartDTO.from(descriptor));
+    }
+}
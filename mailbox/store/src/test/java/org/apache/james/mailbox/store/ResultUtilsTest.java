@@ -40,6 +40,7 @@ class ResultUtilsTest {
             Arguments.of(FetchGroup.MINIMAL.with(Profile.MIME_DESCRIPTOR)),
             Arguments.of(FetchGroup.FULL_CONTENT),
             Arguments.of(FetchGroup.HEADERS),
+            Arguments.of(FetchGroup.MINIMAL.with(Profile.ENVELOPE, Profile.MIME_DESCRIPTOR)),
             Arguments.of(FetchGroup.BODY_CONTENT),
             Arguments.of(FetchGroup.BODY_CONTENT.with(Profile.HEADERS)),
             Arguments.of(new FetchGroup(EnumSet.of(Profile.BODY_CONTENT), ImmutableSet.of(new PartContentDescriptor(null)))));
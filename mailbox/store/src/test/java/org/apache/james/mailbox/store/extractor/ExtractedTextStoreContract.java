@@ -0,0 +1,106 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.extractor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import org.apache.james.mailbox.extractor.ExtractedTextStore;
+import org.apache.james.mailbox.extractor.ParsedContent;
+import org.apache.james.mailbox.model.BlobId;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import reactor.core.publisher.Mono;
+
+public interface ExtractedTextStoreContract {
+    BlobId BLOB_ID = BlobId.fromBytes("content".getBytes(StandardCharsets.UTF_8));
+    BlobId OTHER_BLOB_ID = BlobId.fromBytes("other content".getBytes(StandardCharsets.UTF_8));
+    ParsedContent PARSED_CONTENT = new ParsedContent(Optional.of("extracted text"), ImmutableMap.of());
+
+    ExtractedTextStore testee();
+
+    @Test
+    default void retrieveShouldThrowWhenNullBlobId() {
+        assertThatThrownBy(() -> Mono.from(testee().retrieve(null)).block())
+            .isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    default void storeShouldThrowWhenNullParsedContent() {
+        assertThatThrownBy(() -> Mono.from(testee().store(BLOB_ID, null)).block())
+            .isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    default void retrieveShouldReturnEmptyWhenNotStored() {
+        assertThat(Mono.from(testee().retrieve(BLOB_ID)).blockOptional())
+            .isEmpty();
+    }
+
+    @Test
+    default void retrieveShouldReturnStoredContent() {
+        Mono.from(testee().store(BLOB_ID, PARSED_CONTENT)).block();
+
+        assertThat(Mono.from(testee().retrieve(BLOB_ID)).block())
+            .isEqualTo(PARSED_CONTENT);
+    }
+
+    @Test
+    default void retrieveShouldReturnStoredContentWithoutText() {
+        Mono.from(testee().store(BLOB_ID, ParsedContent.empty())).block();
+
+        assertThat(Mono.from(testee().retrieve(BLOB_ID)).block())
+            .isEqualTo(ParsedContent.empty());
+    }
+
+    @Test
+    default void retrieveShouldNotReturnMetadata() {
+        Mono.from(testee().store(BLOB_ID, new ParsedContent(Optional.of("extracted text"),
+            ImmutableMap.of("author", ImmutableList.of("bob"))))).block();
+
+        assertThat(Mono.from(testee().retrieve(BLOB_ID)).block())
+            .isEqualTo(PARSED_CONTENT);
+    }
+
+    @Test
+    default void storeShouldOverridePreviousContent() {
+        ParsedContent newContent = new ParsedContent(Optional.of("new text"), ImmutableMap.of());
+
+        Mono.from(testee().store(BLOB_ID, PARSED_CONTENT)).block();
+        Mono.from(testee().store(BLOB_ID, newContent)).block();
+
+        assertThat(Mono.from(testee().retrieve(BLOB_ID)).block())
+            .isEqualTo(newContent);
+    }
+
+    @Test
+    default void retrieveShouldNotReturnContentOfOtherBlobs() {
+        Mono.from(testee().store(BLOB_ID, PARSED_CONTENT)).block();
+
+        assertThat(Mono.from(testee().retrieve(OTHER_BLOB_ID)).blockOptional())
+            .isEmpty();
+    }
+}
@@ -39,6 +39,7 @@ class FetchGroupConverterTest {
         return Stream.of(
             Arguments.arguments(FetchGroup.MINIMAL, FetchType.Metadata),
             Arguments.arguments(FetchGroup.HEADERS, FetchType.Headers),
+            Arguments.arguments(FetchGroup.MINIMAL.with(Profile.ENVELOPE), FetchType.Headers),
             Arguments.arguments(FetchGroup.BODY_CONTENT, FetchType.Body),
             Arguments.arguments(FetchGroup.FULL_CONTENT, FetchType.Full),
             Arguments.arguments(FetchGroup.BODY_CONTENT.with(Profile.HEADERS), FetchType.Full),
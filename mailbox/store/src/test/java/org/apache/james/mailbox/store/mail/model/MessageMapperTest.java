@@ -62,6 +62,7 @@ import org.junit.Assume;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.github.steveash.guavate.Guavate;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 
@@ -418,6 +419,28 @@ public abstract class MessageMapperTest {
         assertThat(messageMapper.findRecentMessageUidsInMailbox(benwaInboxMailbox)).isEmpty();
     }
 
+    @Test
+    void addReactiveShouldAssignUidsInListOrder() throws MailboxException {
+        List<MessageMetaData> metaData = messageMapper.addReactive(benwaInboxMailbox, ImmutableList.of(message1, message2, message3))
+            .collectList()
+            .block();
+
+        assertThat(metaData)
+            .extracting(MessageMetaData::getMessageId)
+            .containsExactly(message1.getMessageId(), message2.getMessageId(), message3.getMessageId());
+        assertThat(metaData)
+            .extracting(MessageMetaData::getUid)
+            .isSorted()
+            .doesNotHaveDuplicates();
+    }
+
+    @Test
+    void addReactiveShouldStoreAllMessages() throws MailboxException {
+        messageMapper.addReactive(benwaInboxMailbox, ImmutableList.of(message1, message2, message3)).blockLast();
+
+        assertThat(messageMapper.countMessagesInMailbox(benwaInboxMailbox)).isEqualTo(3);
+    }
+
     @Test
     void findFirstUnseenMessageUidShouldReturnNullWhenNoUnseenMessagesCanBeFound() throws MailboxException {
         assertThat(messageMapper.findFirstUnseenMessageUid(benwaInboxMailbox)).isNull();
@@ -650,6 +673,57 @@ public abstract class MessageMapperTest {
         assertThat(messageMapper.getMailboxCounters(benwaInboxMailbox).getUnseen()).isEqualTo(expectedUnseenMessages);
     }
 
+    @Test
+    void copyOfSeveralMessagesShouldAllocateDistinctIncreasingUids() throws MailboxException {
+        saveMessages();
+        MessageUid lastUid = messageMapper.getLastUid(benwaInboxMailbox).get();
+
+        List<MessageMetaData> copies = messageMapper.copy(benwaInboxMailbox, ImmutableList.of(
+            SimpleMailboxMessage.copy(benwaInboxMailbox.getMailboxId(), message5),
+            SimpleMailboxMessage.copy(benwaInboxMailbox.getMailboxId(), message6)));
+
+        assertThat(copies)
+            .extracting(MessageMetaData::getUid)
+            .hasSize(2)
+            .isSorted()
+            .allSatisfy(uid -> assertThat(uid).isGreaterThan(lastUid));
+    }
+
+    @Test
+    void copyOfSeveralMessagesShouldUpdateCounters() throws MailboxException {
+        message6.setFlags(new Flags(Flags.Flag.SEEN));
+        saveMessages();
+        MailboxCounters counters = messageMapper.getMailboxCounters(benwaInboxMailbox);
+
+        messageMapper.copy(benwaInboxMailbox, ImmutableList.of(
+            SimpleMailboxMessage.copy(benwaInboxMailbox.getMailboxId(), message5),
+            SimpleMailboxMessage.copy(benwaInboxMailbox.getMailboxId(), message6)));
+
+        assertThat(messageMapper.getMailboxCounters(benwaInboxMailbox).getCount()).isEqualTo(counters.getCount() + 2);
+        assertThat(messageMapper.getMailboxCounters(benwaInboxMailbox).getUnseen()).isEqualTo(counters.getUnseen() + 1);
+    }
+
+    @Test
+    void copyOfSeveralMessagesShouldCreateMessagesInDestination() throws MailboxException {
+        saveMessages();
+
+        List<MessageMetaData> copies = messageMapper.copy(benwaWorkMailbox, ImmutableList.of(
+            SimpleMailboxMessage.copy(benwaInboxMailbox.getMailboxId(), message5),
+            SimpleMailboxMessage.copy(benwaInboxMailbox.getMailboxId(), message6)));
+
+        assertThat(messageMapper.findInMailbox(benwaWorkMailbox, MessageRange.all(), MessageMapper.FetchType.Metadata, LIMIT))
+            .toIterable()
+            .extracting(MailboxMessage::getUid)
+            .containsExactlyElementsOf(copies.stream()
+                .map(MessageMetaData::getUid)
+                .collect(Guavate.toImmutableList()));
+    }
+
+    @Test
+    void copyOfNoMessagesShouldReturnEmpty() throws MailboxException {
+        assertThat(messageMapper.copy(benwaInboxMailbox, ImmutableList.of())).isEmpty();
+    }
+
     @Test
     void copiedMessageShouldBeMarkedAsRecent() throws MailboxException {
         saveMessages();
@@ -22,6 +22,7 @@ package org.apache.james.mailbox.store.mail.model;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.Date;
+import java.util.List;
 
 import javax.mail.Flags;
 import javax.mail.util.SharedByteArrayInputStream;
@@ -43,6 +44,8 @@ import org.junit.Assume;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.collect.ImmutableList;
+
 public abstract class MessageMoveTest {
 
     private static final char DELIMITER = '.';
@@ -134,6 +137,38 @@ public abstract class MessageMoveTest {
         assertThat(messageMapper.getMailboxCounters(benwaWorkMailbox).getUnseen()).isEqualTo(0);
     }
 
+    @Test
+    void movingSeveralMessagesShouldUpdateCountersOfBothMailboxes() throws Exception {
+        MailboxMessage message2 = createMessage(benwaInboxMailbox, mapperProvider.generateMessageId(), "Subject: Test2 \n\nBody2\n.\n", BODY_START, new PropertyBuilder());
+        message2.setFlags(new Flags(Flags.Flag.SEEN));
+        messageMapper.add(benwaInboxMailbox, message1);
+        messageMapper.add(benwaInboxMailbox, message2);
+
+        messageMapper.move(benwaWorkMailbox, ImmutableList.of(message1, message2));
+
+        assertThat(messageMapper.getMailboxCounters(benwaInboxMailbox).getCount()).isEqualTo(0);
+        assertThat(messageMapper.getMailboxCounters(benwaInboxMailbox).getUnseen()).isEqualTo(0);
+        assertThat(messageMapper.getMailboxCounters(benwaWorkMailbox).getCount()).isEqualTo(2);
+        assertThat(messageMapper.getMailboxCounters(benwaWorkMailbox).getUnseen()).isEqualTo(1);
+    }
+
+    @Test
+    void movingSeveralMessagesShouldReturnMetadataOfMovedMessages() throws Exception {
+        MailboxMessage message2 = createMessage(benwaInboxMailbox, mapperProvider.generateMessageId(), "Subject: Test2 \n\nBody2\n.\n", BODY_START, new PropertyBuilder());
+        messageMapper.add(benwaInboxMailbox, message1);
+        messageMapper.add(benwaInboxMailbox, message2);
+
+        List<MessageMetaData> movedMessages = messageMapper.move(benwaWorkMailbox, ImmutableList.of(message1, message2));
+
+        assertThat(movedMessages)
+            .extracting(MessageMetaData::getUid)
+            .containsExactly(retrieveMessageFromStorage(benwaWorkMailbox, message1).getUid(),
+                retrieveMessageFromStorage(benwaWorkMailbox, message2).getUid());
+        assertThat(messageMapper.findInMailbox(benwaInboxMailbox, MessageRange.all(), FetchType.Metadata, LIMIT))
+            .toIterable()
+            .isEmpty();
+    }
+
     private Mailbox createMailbox(MailboxPath mailboxPath) {
         return mailboxMapper.create(mailboxPath, UID_VALIDITY).block();
     }
@@ -22,8 +22,11 @@ package org.apache.james.mailbox.store.mail.model.impl;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 
 import org.apache.james.mailbox.model.Cid;
 import org.apache.james.mailbox.model.ContentType;
@@ -336,4 +339,35 @@ class MessageParserTest {
         assertThat(result).hasSize(1)
             .allMatch(attachment -> attachment.getContentType().equals(ContentType.of("message/disposition-notification; charset=UTF-8")));
     }
+
+    @Test
+    void getAttachmentsShouldDecodeContentRegardlessOfTransferEncodingLineLength() throws Exception {
+        byte[] content = new byte[3000];
+        new Random(42).nextBytes(content);
+
+        List<ParsedAttachment> shortLines = testee.retrieveAttachments(new ByteArrayInputStream(messageWithBase64Attachment(content, 64)));
+        List<ParsedAttachment> longLines = testee.retrieveAttachments(new ByteArrayInputStream(messageWithBase64Attachment(content, 76)));
+
+        assertThat(shortLines.get(0).getContent())
+            .isEqualTo(longLines.get(0).getContent())
+            .isEqualTo(content);
+    }
+
+    private byte[] messageWithBase64Attachment(byte[] content, int lineLength) {
+        String encoded = Base64.getMimeEncoder(lineLength, "\r\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(content);
+        return ("Content-Type: multipart/mixed; boundary=\"boundary\"\r\n" +
+            "\r\n" +
+            "--boundary\r\n" +
+            "Content-Type: text/plain\r\n" +
+            "\r\n" +
+            "Some text\r\n" +
+            "--boundary\r\n" +
+            "Content-Type: application/octet-stream\r\n" +
+            "Content-Disposition: attachment; filename=\"data.bin\"\r\n" +
+            "Content-Transfer-Encoding: base64\r\n" +
+            "\r\n" +
+            encoded + "\r\n" +
+            "--boundary--\r\n")
+            .getBytes(StandardCharsets.US_ASCII);
+    }
 }
@@ -0,0 +1,176 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.projections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.model.MailboxId;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.publisher.Mono;
+
+public interface ExpungeLogContract {
+    MessageUid UID_1 = MessageUid.of(1);
+    MessageUid UID_2 = MessageUid.of(2);
+    MessageUid UID_3 = MessageUid.of(3);
+
+    ExpungeLog testee();
+
+    MailboxId newMailboxId();
+
+    @Test
+    default void expungedSinceShouldThrowWhenNullMailboxId() {
+        assertThatThrownBy(() -> Mono.from(testee().expungedSince(null, ModSeq.first())).block())
+            .isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    default void expungedSinceShouldReturnEmptyWhenNothingLogged() {
+        assertThat(Mono.from(testee().expungedSince(newMailboxId(), ModSeq.first())).blockOptional())
+            .isEmpty();
+    }
+
+    @Test
+    default void expungedSinceShouldNotCoverTheModSeqOfTheFirstEntry() {
+        MailboxId mailboxId = newMailboxId();
+
+        Mono.from(testee().append(mailboxId, ModSeq.of(10), ImmutableList.of(UID_1))).block();
+
+        assertThat(Mono.from(testee().expungedSince(mailboxId, ModSeq.of(10))).blockOptional())
+            .isEmpty();
+    }
+
+    @Test
+    default void expungedSinceShouldReturnEntriesAppendedSinceTheGivenModSeq() {
+        MailboxId mailboxId = newMailboxId();
+
+        Mono.from(testee().append(mailboxId, ModSeq.of(10), ImmutableList.of(UID_1))).block();
+        Mono.from(testee().append(mailboxId, ModSeq.of(12), ImmutableList.of(UID_2))).block();
+        Mono.from(testee().append(mailboxId, ModSeq.of(15), ImmutableList.of(UID_3))).block();
+
+        assertThat(Mono.from(testee().expungedSince(mailboxId, ModSeq.of(12))).block())
+            .containsExactlyInAnyOrder(UID_2, UID_3);
+    }
+
+    @Test
+    default void expungedSinceShouldReturnEmptyListWhenNoEntrySinceTheGivenModSeq() {
+        MailboxId mailboxId = newMailboxId();
+
+        Mono.from(testee().append(mailboxId, ModSeq.of(10), ImmutableList.of(UID_1))).block();
+
+        assertThat(Mono.from(testee().expungedSince(mailboxId, ModSeq.of(20))).block())
+            .isEmpty();
+    }
+
+    @Test
+    default void appendShouldBeIdempotent() {
+        MailboxId mailboxId = newMailboxId();
+
+        Mono.from(testee().append(mailboxId, ModSeq.of(10), ImmutableList.of(UID_1))).block();
+        Mono.from(testee().append(mailboxId, ModSeq.of(12), ImmutableList.of(UID_2))).block();
+        Mono.from(testee().append(mailboxId, ModSeq.of(12), ImmutableList.of(UID_2))).block();
+
+        assertThat(Mono.from(testee().expungedSince(mailboxId, ModSeq.of(11))).block())
+            .containsExactly(UID_2);
+    }
+
+    @Test
+    default void appendShouldNotAffectOtherMailboxes() {
+        MailboxId mailboxId = newMailboxId();
+        MailboxId otherMailboxId = newMailboxId();
+
+        Mono.from(testee().append(mailboxId, ModSeq.of(10), ImmutableList.of(UID_1))).block();
+        Mono.from(testee().append(otherMailboxId, ModSeq.of(10), ImmutableList.of(UID_1))).block();
+        Mono.from(testee().append(otherMailboxId, ModSeq.of(12), ImmutableList.of(UID_2))).block();
+
+        assertThat(Mono.from(testee().expungedSince(mailboxId, ModSeq.of(11))).block())
+            .isEmpty();
+    }
+
+    @Test
+    default void compactShouldDropEntriesBeforeTheGivenModSeq() {
+        MailboxId mailboxId = newMailboxId();
+
+        Mono.from(testee().append(mailboxId, ModSeq.of(10), ImmutableList.of(UID_1))).block();
+        Mono.from(testee().append(mailboxId, ModSeq.of(12), ImmutableList.of(UID_2))).block();
+        Mono.from(testee().append(mailboxId, ModSeq.of(15), ImmutableList.of(UID_3))).block();
+
+        Mono.from(testee().compact(mailboxId, ModSeq.of(15))).block();
+
+        assertThat(Mono.from(testee().expungedSince(mailboxId, ModSeq.of(15))).block())
+            .containsExactly(UID_3);
+    }
+
+    @Test
+    default void compactShouldMoveTheCoverageForward() {
+        MailboxId mailboxId = newMailboxId();
+
+        Mono.from(testee().append(mailboxId, ModSeq.of(10), ImmutableList.of(UID_1))).block();
+        Mono.from(testee().append(mailboxId, ModSeq.of(12), ImmutableList.of(UID_2))).block();
+
+        Mono.from(testee().compact(mailboxId, ModSeq.of(12))).block();
+
+        assertThat(Mono.from(testee().expungedSince(mailboxId, ModSeq.of(11))).blockOptional())
+            .isEmpty();
+    }
+
+    @Test
+    default void compactShouldNotMoveTheCoverageBackward() {
+        MailboxId mailboxId = newMailboxId();
+
+        Mono.from(testee().append(mailboxId, ModSeq.of(10), ImmutableList.of(UID_1))).block();
+        Mono.from(testee().compact(mailboxId, ModSeq.of(20))).block();
+        Mono.from(testee().compact(mailboxId, ModSeq.of(15))).block();
+
+        assertThat(Mono.from(testee().coveredSince(mailboxId)).block())
+            .isEqualTo(ModSeq.of(20));
+    }
+
+    @Test
+    default void appendShouldCompactOnceRetentionIsExceeded() {
+        MailboxId mailboxId = newMailboxId();
+        long firstModSeq = 10;
+        long lastModSeq = firstModSeq + ExpungeLog.RETENTION + 2;
+
+        Mono.from(testee().append(mailboxId, ModSeq.of(firstModSeq), ImmutableList.of(UID_1))).block();
+        Mono.from(testee().append(mailboxId, ModSeq.of(lastModSeq), ImmutableList.of(UID_2))).block();
+
+        assertThat(Mono.from(testee().coveredSince(mailboxId)).block())
+            .isEqualTo(ModSeq.of(lastModSeq - ExpungeLog.RETENTION / 2));
+    }
+
+    @Test
+    default void deleteShouldRemoveEntriesAndCoverage() {
+        MailboxId mailboxId = newMailboxId();
+
+        Mono.from(testee().append(mailboxId, ModSeq.of(10), ImmutableList.of(UID_1))).block();
+        Mono.from(testee().append(mailboxId, ModSeq.of(12), ImmutableList.of(UID_2))).block();
+
+        Mono.from(testee().delete(mailboxId)).block();
+
+        assertThat(Mono.from(testee().expungedSince(mailboxId, ModSeq.of(11))).blockOptional())
+            .isEmpty();
+    }
+}
@@ -0,0 +1,116 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.projections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.apache.james.mailbox.model.MessageId;
+import org.apache.james.mailbox.store.MimeDescriptorImpl;
+import org.apache.james.util.ClassLoaderUtils;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import reactor.core.publisher.Mono;
+
+public interface MessageStructureProjectionContract {
+
+    static MessageStructure structure(String resource) throws Exception {
+        return MessageStructure.from(MimeDescriptorImpl.build(ClassLoaderUtils.getSystemResourceAsSharedStream(resource)));
+    }
+
+    MessageStructureProjection testee();
+
+    MessageId newMessageId();
+
+    @Test
+    default void retrieveShouldThrowWhenNullMessageId() {
+        assertThatThrownBy(() -> Mono.from(testee().retrieve((MessageId) null)).block())
+            .isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    default void retrieveShouldReturnEmptyWhenNotStored() {
+        assertThat(Mono.from(testee().retrieve(newMessageId())).blockOptional())
+            .isEmpty();
+    }
+
+    @Test
+    default void retrieveShouldReturnStoredStructure() throws Exception {
+        MessageId messageId = newMessageId();
+        MessageStructure structure = structure("eml/twoAttachments.eml");
+
+        Mono.from(testee().store(messageId, structure)).block();
+
+        assertThat(Mono.from(testee().retrieve(messageId)).block())
+            .isEqualTo(structure);
+    }
+
+    @Test
+    default void storeShouldOverridePreviousStructure() throws Exception {
+        MessageId messageId = newMessageId();
+        MessageStructure structure = structure("eml/embeddedAttachmentWithAttachment.eml");
+
+        Mono.from(testee().store(messageId, structure("eml/twoAttachments.eml"))).block();
+        Mono.from(testee().store(messageId, structure)).block();
+
+        assertThat(Mono.from(testee().retrieve(messageId)).block())
+            .isEqualTo(structure);
+    }
+
+    @Test
+    default void deleteShouldRemoveStoredStructure() throws Exception {
+        MessageId messageId = newMessageId();
+
+        Mono.from(testee().store(messageId, structure("eml/twoAttachments.eml"))).block();
+        Mono.from(testee().delete(messageId)).block();
+
+        assertThat(Mono.from(testee().retrieve(messageId)).blockOptional())
+            .isEmpty();
+    }
+
+    @Test
+    default void deleteShouldNotAffectOtherStructures() throws Exception {
+        MessageId messageId = newMessageId();
+        MessageId otherMessageId = newMessageId();
+        MessageStructure structure = structure("eml/twoAttachments.eml");
+
+        Mono.from(testee().store(messageId, structure)).block();
+        Mono.from(testee().store(otherMessageId, structure)).block();
+        Mono.from(testee().delete(messageId)).block();
+
+        assertThat(Mono.from(testee().retrieve(otherMessageId)).block())
+            .isEqualTo(structure);
+    }
+
+    @Test
+    default void retrieveBatchShouldOnlyReturnStoredStructures() throws Exception {
+        MessageId messageId = newMessageId();
+        MessageId otherMessageId = newMessageId();
+        MessageStructure structure = structure("eml/twoAttachments.eml");
+
+        Mono.from(testee().store(messageId, structure)).block();
+
+        assertThat(Mono.from(testee().retrieve(ImmutableList.of(messageId, otherMessageId))).block())
+            .isEqualTo(ImmutableMap.of(messageId, structure));
+    }
+}
@@ -0,0 +1,68 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.projections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+
+import org.apache.james.mailbox.model.Header;
+import org.apache.james.mailbox.store.MimeDescriptorImpl;
+import org.apache.james.util.ClassLoaderUtils;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+class MessageStructureTest {
+    @Test
+    void fromShouldOnlyRetainEnvelopeHeaders() throws Exception {
+        MessageStructure structure = MessageStructure.from(MimeDescriptorImpl.build(
+            ClassLoaderUtils.getSystemResourceAsSharedStream("eml/twoAttachments.eml")));
+
+        assertThat(ImmutableList.copyOf(structure.getMimeDescriptor().headers()))
+            .extracting(Header::getName)
+            .containsOnly("From", "To", "Subject", "Date", "Message-Id");
+    }
+
+    @Test
+    void fromShouldDropOtherHeadersOfNestedParts() throws Exception {
+        MessageStructure structure = MessageStructure.from(MimeDescriptorImpl.build(
+            ClassLoaderUtils.getSystemResourceAsSharedStream("eml/embeddedAttachmentWithAttachment.eml")));
+
+        assertThat(structure.asJson())
+            .doesNotContain("\"Content-Type\"");
+    }
+
+    @Test
+    void fromJsonShouldBeTheInverseOfAsJson() throws Exception {
+        MessageStructure structure = MessageStructure.from(MimeDescriptorImpl.build(
+            ClassLoaderUtils.getSystemResourceAsSharedStream("eml/embeddedAttachmentWithAttachment.eml")));
+
+        assertThat(MessageStructure.fromJson(structure.asJson()))
+            .isEqualTo(structure);
+    }
+
+    @Test
+    void fromJsonShouldThrowOnInvalidJson() {
+        assertThatThrownBy(() -> MessageStructure.fromJson("{\"invalid\""))
+            .isInstanceOf(IOException.class);
+    }
+}
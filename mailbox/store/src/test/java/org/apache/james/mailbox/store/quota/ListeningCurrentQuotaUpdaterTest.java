@@ -25,17 +25,22 @@ import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.util.Date;
 import java.util.Optional;
 
 import javax.mail.Flags;
 
 import org.apache.james.core.Username;
+import org.apache.james.core.quota.QuotaCountLimit;
 import org.apache.james.core.quota.QuotaCountUsage;
+import org.apache.james.core.quota.QuotaSizeLimit;
 import org.apache.james.core.quota.QuotaSizeUsage;
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.ModSeq;
@@ -45,6 +50,7 @@ import org.apache.james.mailbox.events.Group;
 import org.apache.james.mailbox.events.MailboxListener;
 import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MessageMetaData;
+import org.apache.james.mailbox.model.Quota;
 import org.apache.james.mailbox.model.QuotaOperation;
 import org.apache.james.mailbox.model.QuotaRoot;
 import org.apache.james.mailbox.model.TestId;
@@ -70,16 +76,19 @@ class ListeningCurrentQuotaUpdaterTest {
 
     CurrentQuotaManager mockedCurrentQuotaManager;
     QuotaRootResolver mockedQuotaRootResolver;
+    QuotaManager mockedQuotaManager;
+    EventBus eventBus;
     ListeningCurrentQuotaUpdater testee;
 
     @BeforeEach
     void setUp() {
         mockedQuotaRootResolver = mock(QuotaRootResolver.class);
         mockedCurrentQuotaManager = mock(CurrentQuotaManager.class);
-        EventBus eventBus = mock(EventBus.class);
+        mockedQuotaManager = mock(QuotaManager.class);
+        eventBus = mock(EventBus.class);
         when(eventBus.dispatch(any(Event.class), anySet())).thenReturn(Mono.empty());
         testee = new ListeningCurrentQuotaUpdater(mockedCurrentQuotaManager, mockedQuotaRootResolver,
-            eventBus, mock(QuotaManager.class));
+            eventBus, mockedQuotaManager);
     }
 
     @Test
@@ -178,4 +187,99 @@ class ListeningCurrentQuotaUpdaterTest {
 
         verifyZeroInteractions(mockedCurrentQuotaManager);
     }
+
+    @Test
+    void addedEventShouldPublishQuotaUsage() throws Exception {
+        stubQuotas();
+
+        testee.event(addedEvent());
+
+        verify(eventBus).dispatch(any(MailboxListener.QuotaUsageUpdatedEvent.class), anySet());
+    }
+
+    @Test
+    void throttledUpdaterShouldPublishOnlyOneQuotaUsageWithinAWindow() throws Exception {
+        stubQuotas();
+        ListeningCurrentQuotaUpdater throttledTestee = new ListeningCurrentQuotaUpdater(mockedCurrentQuotaManager, mockedQuotaRootResolver,
+            eventBus, mockedQuotaManager, Duration.ofHours(1));
+
+        throttledTestee.event(addedEvent());
+        throttledTestee.event(addedEvent());
+        throttledTestee.event(addedEvent());
+
+        verify(eventBus, times(1)).dispatch(any(MailboxListener.QuotaUsageUpdatedEvent.class), anySet());
+    }
+
+    @Test
+    void throttledUpdaterShouldPublishCoalescedQuotaUsageAtTheEndOfTheWindow() throws Exception {
+        stubQuotas();
+        ListeningCurrentQuotaUpdater throttledTestee = new ListeningCurrentQuotaUpdater(mockedCurrentQuotaManager, mockedQuotaRootResolver,
+            eventBus, mockedQuotaManager, Duration.ofMillis(100));
+
+        throttledTestee.event(addedEvent());
+        throttledTestee.event(addedEvent());
+        throttledTestee.event(addedEvent());
+
+        verify(eventBus, timeout(5000).times(2)).dispatch(any(MailboxListener.QuotaUsageUpdatedEvent.class), anySet());
+    }
+
+    @Test
+    void throttledUpdaterShouldStillUpdateCurrentQuotasForEachEvent() throws Exception {
+        stubQuotas();
+        ListeningCurrentQuotaUpdater throttledTestee = new ListeningCurrentQuotaUpdater(mockedCurrentQuotaManager, mockedQuotaRootResolver,
+            eventBus, mockedQuotaManager, Duration.ofHours(1));
+
+        throttledTestee.event(addedEvent());
+        throttledTestee.event(addedEvent());
+
+        verify(mockedCurrentQuotaManager, times(2)).increase(QUOTA);
+    }
+
+    @Test
+    void stopShouldPublishCoalescedQuotaUsageOfPendingWindows() throws Exception {
+        stubQuotas();
+        ListeningCurrentQuotaUpdater throttledTestee = new ListeningCurrentQuotaUpdater(mockedCurrentQuotaManager, mockedQuotaRootResolver,
+            eventBus, mockedQuotaManager, Duration.ofHours(1));
+        throttledTestee.event(addedEvent());
+        throttledTestee.event(addedEvent());
+
+        throttledTestee.stop();
+
+        verify(eventBus, times(2)).dispatch(any(MailboxListener.QuotaUsageUpdatedEvent.class), anySet());
+    }
+
+    @Test
+    void stopShouldNotPublishWhenNoUpdateHappenedWithinTheWindow() throws Exception {
+        stubQuotas();
+        ListeningCurrentQuotaUpdater throttledTestee = new ListeningCurrentQuotaUpdater(mockedCurrentQuotaManager, mockedQuotaRootResolver,
+            eventBus, mockedQuotaManager, Duration.ofHours(1));
+        throttledTestee.event(addedEvent());
+
+        throttledTestee.stop();
+
+        verify(eventBus, times(1)).dispatch(any(MailboxListener.QuotaUsageUpdatedEvent.class), anySet());
+    }
+
+    private MailboxListener.Added addedEvent() {
+        MailboxListener.Added added = mock(MailboxListener.Added.class);
+        when(added.getMailboxId()).thenReturn(MAILBOX_ID);
+        when(added.getMetaData(MessageUid.of(36))).thenReturn(new MessageMetaData(MessageUid.of(36), ModSeq.first(), new Flags(), SIZE, new Date(), new DefaultMessageId()));
+        when(added.getMetaData(MessageUid.of(38))).thenReturn(new MessageMetaData(MessageUid.of(38), ModSeq.first(), new Flags(), SIZE, new Date(), new DefaultMessageId()));
+        when(added.getUids()).thenReturn(Lists.newArrayList(MessageUid.of(36), MessageUid.of(38)));
+        when(added.getUsername()).thenReturn(USERNAME_BENWA);
+        return added;
+    }
+
+    private void stubQuotas() throws Exception {
+        when(mockedQuotaRootResolver.getQuotaRootReactive(eq(MAILBOX_ID))).thenReturn(Mono.just(QUOTA_ROOT));
+        when(mockedCurrentQuotaManager.increase(QUOTA)).thenAnswer(any -> Mono.empty());
+        when(mockedQuotaManager.getMessageQuota(QUOTA_ROOT)).thenReturn(Quota.<QuotaCountLimit, QuotaCountUsage>builder()
+            .used(QuotaCountUsage.count(2))
+            .computedLimit(QuotaCountLimit.unlimited())
+            .build());
+        when(mockedQuotaManager.getStorageQuota(QUOTA_ROOT)).thenReturn(Quota.<QuotaSizeLimit, QuotaSizeUsage>builder()
+            .used(QuotaSizeUsage.size(2 * SIZE))
+            .computedLimit(QuotaSizeLimit.unlimited())
+            .build());
+    }
 }
@@ -1481,6 +1481,42 @@ public abstract class AbstractMessageSearchIndexTest {
                 message3.getUid());
     }
 
+    @Test
+    void searchThreadsShouldGroupMessagesByBaseSubjectOrderedBySentDate() throws Exception {
+        MailboxPath mailboxPath = MailboxPath.forUser(USERNAME, "threads");
+        storeMailboxManager.createMailbox(mailboxPath, session);
+
+        MessageManager messageManager = storeMailboxManager.getMailbox(mailboxPath, session);
+        SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd");
+        ComposedMessageId message1 = messageManager.appendMessage(MessageManager.AppendCommand.builder()
+            .withInternalDate(simpleDateFormat.parse("2017-08-24"))
+            .build(Message.Builder.of()
+                .setSubject("test")
+                .setBody("testmail", StandardCharsets.UTF_8)), session).getId();
+        ComposedMessageId message2 = messageManager.appendMessage(MessageManager.AppendCommand.builder()
+            .withInternalDate(simpleDateFormat.parse("2017-08-23"))
+            .build(Message.Builder.of()
+                .setSubject("Re: Test")
+                .setBody("testmail", StandardCharsets.UTF_8)), session).getId();
+        ComposedMessageId message3 = messageManager.appendMessage(MessageManager.AppendCommand.builder()
+            .withInternalDate(simpleDateFormat.parse("2017-08-25"))
+            .build(Message.Builder.of()
+                .setSubject("other")
+                .setBody("testmail", StandardCharsets.UTF_8)), session).getId();
+        ComposedMessageId message4 = messageManager.appendMessage(MessageManager.AppendCommand.builder()
+            .withInternalDate(simpleDateFormat.parse("2017-08-26"))
+            .build(Message.Builder.of()
+                .setSubject("Fwd: test")
+                .setBody("testmail", StandardCharsets.UTF_8)), session).getId();
+
+        await();
+
+        assertThat(messageManager.searchThreads(SearchQuery.of(SearchQuery.all()), session))
+            .containsExactly(
+                ImmutableList.of(message2.getUid(), message1.getUid(), message4.getUid()),
+                ImmutableList.of(message3.getUid()));
+    }
+
     @Test
     void searchShouldOrderBySentDateThenInternalDateWhenSortOnSentDateAndNonHomogeneousCorrespondingHeader() throws Exception {
         MailboxPath mailboxPath = MailboxPath.forUser(USERNAME, "sentDate");
@@ -0,0 +1,336 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailbox.store.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Optional;
+
+import javax.mail.Flags;
+
+import org.apache.james.core.Username;
+import org.apache.james.core.quota.QuotaCountUsage;
+import org.apache.james.core.quota.QuotaSizeUsage;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MailboxSessionUtil;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.events.Event;
+import org.apache.james.mailbox.events.EventBusTestFixture;
+import org.apache.james.mailbox.events.InVMEventBus;
+import org.apache.james.mailbox.events.MailboxIdRegistrationKey;
+import org.apache.james.mailbox.events.MailboxListener;
+import org.apache.james.mailbox.events.MemoryEventDeadLetters;
+import org.apache.james.mailbox.events.delivery.InVmEventDelivery;
+import org.apache.james.mailbox.model.Mailbox;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageId;
+import org.apache.james.mailbox.model.MessageMetaData;
+import org.apache.james.mailbox.model.QuotaRoot;
+import org.apache.james.mailbox.model.SearchQuery;
+import org.apache.james.mailbox.model.TestId;
+import org.apache.james.mailbox.model.TestMessageId;
+import org.apache.james.mailbox.model.UidValidity;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+import reactor.core.publisher.Flux;
+
+class CachingMessageSearchIndexTest {
+    static final Username USERNAME = Username.of("bob");
+    static final TestId MAILBOX_ID = TestId.of(36);
+    static final TestId OTHER_MAILBOX_ID = TestId.of(37);
+    static final Mailbox MAILBOX = new Mailbox(MailboxPath.forUser(USERNAME, "INBOX"), UidValidity.of(42), MAILBOX_ID);
+    static final Mailbox OTHER_MAILBOX = new Mailbox(MailboxPath.forUser(USERNAME, "other"), UidValidity.of(42), OTHER_MAILBOX_ID);
+    static final SearchQuery UNSEEN = SearchQuery.of(SearchQuery.flagIsUnSet(Flags.Flag.SEEN));
+    static final SearchQuery FLAGGED = SearchQuery.of(SearchQuery.flagIsSet(Flags.Flag.FLAGGED));
+    static final MessageUid UID_1 = MessageUid.of(1);
+    static final MessageUid UID_2 = MessageUid.of(2);
+    static final MessageId MESSAGE_ID_1 = TestMessageId.of(1);
+    static final MessageId MESSAGE_ID_2 = TestMessageId.of(2);
+    static final int MAX_PENDING_CHANGES = 2;
+
+    MessageSearchIndex underlying;
+    InVMEventBus eventBus;
+    RecordingMetricFactory metricFactory;
+    MailboxSession session;
+    CachingMessageSearchIndex testee;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        underlying = mock(MessageSearchIndex.class);
+        when(underlying.search(any(), any(Mailbox.class), any()))
+            .thenAnswer(invocation -> ImmutableList.of(UID_1).stream());
+        when(underlying.search(any(), any(Collection.class), any(), anyLong()))
+            .thenAnswer(invocation -> Flux.just(MESSAGE_ID_1));
+        eventBus = new InVMEventBus(new InVmEventDelivery(new RecordingMetricFactory()), EventBusTestFixture.RETRY_BACKOFF_CONFIGURATION, new MemoryEventDeadLetters());
+        metricFactory = new RecordingMetricFactory();
+        session = MailboxSessionUtil.create(USERNAME);
+        testee = new CachingMessageSearchIndex(underlying, eventBus, metricFactory,
+            CachingMessageSearchIndex.Configuration.builder()
+                .maxPendingChanges(MAX_PENDING_CHANGES)
+                .build());
+    }
+
+    @Test
+    void configurationShouldRespectBeanContract() {
+        EqualsVerifier.forClass(CachingMessageSearchIndex.Configuration.class)
+            .verify();
+    }
+
+    @Test
+    void searchShouldReturnUnderlyingResults() throws Exception {
+        assertThat(testee.search(session, MAILBOX, UNSEEN))
+            .containsExactly(UID_1);
+    }
+
+    @Test
+    void searchShouldServeCachedResults() throws Exception {
+        testee.search(session, MAILBOX, UNSEEN).count();
+
+        assertThat(testee.search(session, MAILBOX, UNSEEN))
+            .containsExactly(UID_1);
+        verify(underlying, times(1)).search(any(), any(Mailbox.class), any());
+    }
+
+    @Test
+    void searchShouldRecordHitsAndMisses() throws Exception {
+        testee.search(session, MAILBOX, UNSEEN).count();
+        testee.search(session, MAILBOX, UNSEEN).count();
+        testee.search(session, MAILBOX, UNSEEN).count();
+
+        assertThat(metricFactory.countFor("searchCache.miss")).isEqualTo(1);
+        assertThat(metricFactory.countFor("searchCache.hit")).isEqualTo(2);
+    }
+
+    @Test
+    void searchShouldNotShareResultsAcrossQueries() throws Exception {
+        testee.search(session, MAILBOX, UNSEEN).count();
+        testee.search(session, MAILBOX, FLAGGED).count();
+
+        verify(underlying, times(2)).search(any(), any(Mailbox.class), any());
+    }
+
+    @Test
+    void searchShouldNotShareResultsAcrossMailboxes() throws Exception {
+        testee.search(session, MAILBOX, UNSEEN).count();
+        testee.search(session, OTHER_MAILBOX, UNSEEN).count();
+
+        verify(underlying, times(2)).search(any(), any(Mailbox.class), any());
+    }
+
+    @Test
+    void searchShouldIgnoreTopLevelCriteriaOrdering() throws Exception {
+        testee.search(session, MAILBOX, SearchQuery.of(SearchQuery.flagIsSet(Flags.Flag.FLAGGED), SearchQuery.flagIsUnSet(Flags.Flag.SEEN))).count();
+        testee.search(session, MAILBOX, SearchQuery.of(SearchQuery.flagIsUnSet(Flags.Flag.SEEN), SearchQuery.flagIsSet(Flags.Flag.FLAGGED))).count();
+
+        verify(underlying, times(1)).search(any(), any(Mailbox.class), any());
+    }
+
+    @Test
+    void searchShouldNotServeResultsComputedBeforeAChange() throws Exception {
+        testee.search(session, MAILBOX, UNSEEN).count();
+
+        dispatchAdded(MAILBOX);
+        testee.search(session, MAILBOX, UNSEEN).count();
+
+        verify(underlying, times(2)).search(any(), any(Mailbox.class), any());
+    }
+
+    @Test
+    void searchShouldNotCacheResultsWhileAChangeIsNotIndexed() throws Exception {
+        when(underlying.search(any(), any(Collection.class), any(), anyLong()))
+            .thenAnswer(invocation -> Flux.empty());
+        testee.search(session, MAILBOX, UNSEEN).count();
+        dispatchAdded(MAILBOX, UID_2);
+
+        testee.search(session, MAILBOX, UNSEEN).count();
+        testee.search(session, MAILBOX, UNSEEN).count();
+
+        verify(underlying, times(3)).search(any(), any(Mailbox.class), any());
+    }
+
+    @Test
+    void searchShouldCacheAgainOnceChangesAreIndexed() throws Exception {
+        testee.search(session, MAILBOX, UNSEEN).count();
+        dispatchAdded(MAILBOX, UID_2);
+
+        testee.search(session, MAILBOX, UNSEEN).count();
+        testee.search(session, MAILBOX, UNSEEN).count();
+
+        verify(underlying, times(2)).search(any(), any(Mailbox.class), any());
+    }
+
+    @Test
+    void searchShouldRequireEveryUpdatedMessageToBeIndexed() throws Exception {
+        testee.search(session, MAILBOX, UNSEEN).count();
+        dispatchAdded(MAILBOX, UID_1, UID_2);
+
+        testee.search(session, MAILBOX, UNSEEN).count();
+        testee.search(session, MAILBOX, UNSEEN).count();
+
+        verify(underlying, times(3)).search(any(), any(Mailbox.class), any());
+    }
+
+    @Test
+    void searchShouldNotCacheResultsWhileAnExpungedMessageIsStillIndexed() throws Exception {
+        testee.search(session, MAILBOX, UNSEEN).count();
+        dispatchExpunged(MAILBOX, UID_1);
+
+        testee.search(session, MAILBOX, UNSEEN).count();
+        testee.search(session, MAILBOX, UNSEEN).count();
+
+        verify(underlying, times(3)).search(any(), any(Mailbox.class), any());
+    }
+
+    @Test
+    void searchShouldCacheAgainOnceExpungedMessagesAreRemovedFromTheIndex() throws Exception {
+        testee.search(session, MAILBOX, UNSEEN).count();
+        dispatchExpunged(MAILBOX, UID_1);
+        when(underlying.search(any(), any(Collection.class), any(), anyLong()))
+            .thenAnswer(invocation -> Flux.empty());
+
+        testee.search(session, MAILBOX, UNSEEN).count();
+        testee.search(session, MAILBOX, UNSEEN).count();
+
+        verify(underlying, times(2)).search(any(), any(Mailbox.class), any());
+    }
+
+    @Test
+    void searchShouldNotServeResultsComputedWhileAChangeHappened() throws Exception {
+        when(underlying.search(any(), any(Mailbox.class), any()))
+            .thenAnswer(invocation -> {
+                dispatchAdded(MAILBOX);
+                return ImmutableList.of(UID_1).stream();
+            });
+
+        testee.search(session, MAILBOX, UNSEEN).count();
+        testee.search(session, MAILBOX, UNSEEN).count();
+
+        verify(underlying, times(2)).search(any(), any(Mailbox.class), any());
+    }
+
+    @Test
+    void watchShouldBeReleasedWhenTooManyChangesArePending() throws Exception {
+        testee.search(session, MAILBOX, UNSEEN).count();
+
+        dispatchAdded(MAILBOX, UID_1, UID_2, MessageUid.of(3));
+
+        assertThat(testee.watchedMailboxCount()).isZero();
+    }
+
+    @Test
+    void watchShouldBeReleasedWhenTheMailboxIsDeleted() throws Exception {
+        testee.search(session, MAILBOX, UNSEEN).count();
+
+        eventBus.dispatch(new MailboxListener.MailboxDeletion(MailboxSession.SessionId.of(18), USERNAME, MAILBOX.generateAssociatedPath(),
+                QuotaRoot.quotaRoot("root", Optional.empty()), QuotaCountUsage.count(0), QuotaSizeUsage.size(0),
+                MAILBOX_ID, Event.EventId.random()),
+                new MailboxIdRegistrationKey(MAILBOX_ID))
+            .block();
+
+        assertThat(testee.watchedMailboxCount()).isZero();
+    }
+
+    @Test
+    void changesOfOtherMailboxesShouldNotInvalidateResults() throws Exception {
+        testee.search(session, MAILBOX, UNSEEN).count();
+        testee.search(session, OTHER_MAILBOX, UNSEEN).count();
+
+        dispatchAdded(OTHER_MAILBOX);
+        testee.search(session, MAILBOX, UNSEEN).count();
+
+        verify(underlying, times(2)).search(any(), any(Mailbox.class), any());
+    }
+
+    @Test
+    void multiMailboxSearchShouldServeCachedResults() throws Exception {
+        testee.search(session, ImmutableList.of(MAILBOX_ID, OTHER_MAILBOX_ID), UNSEEN, 10).collectList().block();
+
+        assertThat(testee.search(session, ImmutableList.of(OTHER_MAILBOX_ID, MAILBOX_ID), UNSEEN, 10).collectList().block())
+            .containsExactly(MESSAGE_ID_1);
+        verify(underlying, times(1)).search(any(), any(Collection.class), any(), anyLong());
+    }
+
+    @Test
+    void multiMailboxSearchShouldNotShareResultsAcrossLimits() throws Exception {
+        testee.search(session, ImmutableList.of(MAILBOX_ID), UNSEEN, 10).collectList().block();
+        testee.search(session, ImmutableList.of(MAILBOX_ID), UNSEEN, 20).collectList().block();
+
+        verify(underlying, times(2)).search(any(), any(Collection.class), any(), anyLong());
+    }
+
+    @Test
+    void multiMailboxSearchShouldBeInvalidatedByChangesOfAnyOfItsMailboxes() throws Exception {
+        testee.search(session, ImmutableList.of(MAILBOX_ID, OTHER_MAILBOX_ID), UNSEEN, 10).collectList().block();
+
+        dispatchAdded(OTHER_MAILBOX);
+        testee.search(session, ImmutableList.of(MAILBOX_ID, OTHER_MAILBOX_ID), UNSEEN, 10).collectList().block();
+
+        verify(underlying, times(2)).search(any(), any(Collection.class), any(), anyLong());
+    }
+
+    @Test
+    void allMailboxesSearchShouldNotBeCached() throws Exception {
+        when(underlying.searchAllMailboxes(any(), any(), any(), any(), any(), anyLong()))
+            .thenAnswer(invocation -> Flux.just(MESSAGE_ID_1));
+
+        testee.searchAllMailboxes(session, Flux.just(MAILBOX_ID), ImmutableList.of(), ImmutableList.of(), UNSEEN, 10).collectList().block();
+
+        assertThat(testee.searchAllMailboxes(session, Flux.just(MAILBOX_ID), ImmutableList.of(), ImmutableList.of(), UNSEEN, 10).collectList().block())
+            .containsExactly(MESSAGE_ID_1);
+        verify(underlying, times(2)).searchAllMailboxes(any(), any(), any(), any(), any(), anyLong());
+    }
+
+    private void dispatchAdded(Mailbox mailbox, MessageUid... uids) {
+        ImmutableSortedMap.Builder<MessageUid, MessageMetaData> added = ImmutableSortedMap.naturalOrder();
+        for (MessageUid uid : uids) {
+            added.put(uid, metaData(uid));
+        }
+        eventBus.dispatch(new MailboxListener.Added(MailboxSession.SessionId.of(18), USERNAME, mailbox.generateAssociatedPath(),
+                mailbox.getMailboxId(), added.build(), Event.EventId.random()),
+                new MailboxIdRegistrationKey(mailbox.getMailboxId()))
+            .block();
+    }
+
+    private void dispatchExpunged(Mailbox mailbox, MessageUid uid) {
+        eventBus.dispatch(new MailboxListener.Expunged(MailboxSession.SessionId.of(18), USERNAME, mailbox.generateAssociatedPath(),
+                mailbox.getMailboxId(), ImmutableMap.of(uid, metaData(uid)), Event.EventId.random()),
+                new MailboxIdRegistrationKey(mailbox.getMailboxId()))
+            .block();
+    }
+
+    private MessageMetaData metaData(MessageUid uid) {
+        return new MessageMetaData(uid, ModSeq.of(42), new Flags(), 36, new Date(), MESSAGE_ID_2);
+    }
+}
@@ -0,0 +1,93 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.tika;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Optional;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.james.mailbox.extractor.ExtractedTextStore;
+import org.apache.james.mailbox.extractor.ParsedContent;
+import org.apache.james.mailbox.extractor.TextExtractor;
+import org.apache.james.mailbox.model.BlobId;
+import org.apache.james.mailbox.model.ContentType;
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Looks extracted text up in an {@link ExtractedTextStore} before calling the underlying {@link TextExtractor}, and
+ * stores the result of extractions. Contents are identified by the hash of their bytes, hence a content shared by
+ * several messages is extracted once.
+ */
+public class StoringTextExtractor implements TextExtractor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StoringTextExtractor.class);
+
+    private final TextExtractor underlying;
+    private final ExtractedTextStore extractedTextStore;
+    private final Metric hitMetric;
+    private final Metric missMetric;
+
+    public StoringTextExtractor(TextExtractor underlying, ExtractedTextStore extractedTextStore, MetricFactory metricFactory) {
+        this.underlying = underlying;
+        this.extractedTextStore = extractedTextStore;
+        this.hitMetric = metricFactory.generate("textExtractor.store.hit");
+        this.missMetric = metricFactory.generate("textExtractor.store.miss");
+    }
+
+    @Override
+    public ParsedContent extractContent(InputStream inputStream, ContentType contentType) throws Exception {
+        byte[] bytes = IOUtils.toByteArray(inputStream);
+        BlobId blobId = BlobId.fromBytes(bytes);
+
+        Optional<ParsedContent> storedContent = retrieve(blobId);
+        if (storedContent.isPresent()) {
+            hitMetric.increment();
+            return storedContent.get();
+        }
+
+        missMetric.increment();
+        ParsedContent parsedContent = underlying.extractContent(new ByteArrayInputStream(bytes), contentType);
+        store(blobId, parsedContent);
+        return parsedContent;
+    }
+
+    private Optional<ParsedContent> retrieve(BlobId blobId) {
+        return Mono.from(extractedTextStore.retrieve(blobId))
+            .onErrorResume(e -> {
+                LOGGER.warn("Failed retrieving extracted text of {}, extracting it again", blobId.asString(), e);
+                return Mono.empty();
+            })
+            .blockOptional();
+    }
+
+    private void store(BlobId blobId, ParsedContent parsedContent) {
+        Mono.from(extractedTextStore.store(blobId, parsedContent))
+            .onErrorResume(e -> {
+                LOGGER.warn("Failed storing extracted text of {}", blobId.asString(), e);
+                return Mono.empty();
+            })
+            .block();
+    }
+}
@@ -0,0 +1,129 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.tika;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import org.apache.james.mailbox.extractor.ExtractedTextStore;
+import org.apache.james.mailbox.extractor.ParsedContent;
+import org.apache.james.mailbox.extractor.TextExtractor;
+import org.apache.james.mailbox.model.BlobId;
+import org.apache.james.mailbox.model.ContentType;
+import org.apache.james.mailbox.store.extractor.MemoryExtractedTextStore;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import reactor.core.publisher.Mono;
+
+class StoringTextExtractorTest {
+    private static final ParsedContent RESULT = new ParsedContent(Optional.of("content"), ImmutableMap.of());
+    private static final byte[] CONTENT = "content1".getBytes(StandardCharsets.UTF_8);
+    private static final ContentType CONTENT_TYPE = ContentType.of("application/bytes");
+
+    private TextExtractor wrappedTextExtractor;
+    private MemoryExtractedTextStore extractedTextStore;
+    private RecordingMetricFactory metricFactory;
+    private StoringTextExtractor testee;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        wrappedTextExtractor = mock(TextExtractor.class);
+        extractedTextStore = new MemoryExtractedTextStore();
+        metricFactory = new RecordingMetricFactory();
+        testee = new StoringTextExtractor(wrappedTextExtractor, extractedTextStore, metricFactory);
+
+        when(wrappedTextExtractor.extractContent(any(), any()))
+            .thenReturn(RESULT);
+    }
+
+    @Test
+    void extractContentShouldCallUnderlyingTextExtractor() throws Exception {
+        assertThat(testee.extractContent(inputStream(), CONTENT_TYPE))
+            .isEqualTo(RESULT);
+    }
+
+    @Test
+    void extractContentShouldStoreExtractedText() throws Exception {
+        testee.extractContent(inputStream(), CONTENT_TYPE);
+
+        assertThat(extractedTextStore.retrieve(BlobId.fromBytes(CONTENT)).block())
+            .isEqualTo(RESULT);
+    }
+
+    @Test
+    void extractContentShouldNotCallUnderlyingTextExtractorWhenStored() throws Exception {
+        extractedTextStore.store(BlobId.fromBytes(CONTENT), RESULT).block();
+
+        assertThat(testee.extractContent(inputStream(), CONTENT_TYPE))
+            .isEqualTo(RESULT);
+        verifyNoMoreInteractions(wrappedTextExtractor);
+    }
+
+    @Test
+    void extractContentShouldAvoidExtractingTwiceTheSameContent() throws Exception {
+        testee.extractContent(inputStream(), CONTENT_TYPE);
+        testee.extractContent(inputStream(), CONTENT_TYPE);
+
+        verify(wrappedTextExtractor, times(1)).extractContent(any(), any());
+        assertThat(metricFactory.countFor("textExtractor.store.hit")).isEqualTo(1);
+        assertThat(metricFactory.countFor("textExtractor.store.miss")).isEqualTo(1);
+    }
+
+    @Test
+    void extractContentShouldExtractWhenStoreRetrievalFails() throws Exception {
+        ExtractedTextStore failingStore = mock(ExtractedTextStore.class);
+        when(failingStore.retrieve(any())).thenReturn(Mono.error(new RuntimeException()));
+        when(failingStore.store(any(), any())).thenReturn(Mono.error(new RuntimeException()));
+        testee = new StoringTextExtractor(wrappedTextExtractor, failingStore, metricFactory);
+
+        assertThat(testee.extractContent(inputStream(), CONTENT_TYPE))
+            .isEqualTo(RESULT);
+    }
+
+    @Test
+    void extractContentShouldPropagateExtractionFailures() throws Exception {
+        IOException ioException = new IOException("Any");
+        when(wrappedTextExtractor.extractContent(any(), any()))
+            .thenThrow(ioException);
+
+        assertThatThrownBy(() -> testee.extractContent(inputStream(), CONTENT_TYPE))
+            .isEqualTo(ioException);
+    }
+
+    private InputStream inputStream() {
+        return new ByteArrayInputStream(CONTENT);
+    }
+}
@@ -40,6 +40,9 @@ import org.apache.james.mailbox.store.streaming.InputStreamContent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
 /**
  * Implementation of the {@link MailboxCopier} interface.
  * 
@@ -98,21 +101,15 @@ public class MailboxCopierImpl implements MailboxCopier {
                 dstMailboxManager.startProcessingRequest(dstMailboxSession);
                 MessageManager dstMessageManager = dstMailboxManager.getMailbox(mailboxPath, dstMailboxSession);
 
-                int j = 0;
+                MailboxPath copiedMailboxPath = mailboxPath;
                 Iterator<MessageResult> messageResultIterator = srcMessageManager.getMessages(MessageRange.all(), FetchGroup.FULL_CONTENT, srcMailboxSession);
-                
-                while (messageResultIterator.hasNext()) {
-
-                    MessageResult messageResult = messageResultIterator.next();
-                    InputStreamContent content = (InputStreamContent) messageResult.getFullContent();
-
-                    dstMailboxManager.startProcessingRequest(dstMailboxSession);
-                    dstMessageManager.appendMessage(content.getInputStream(), messageResult.getInternalDate(), dstMailboxSession, messageResult.getFlags().contains(Flag.RECENT), messageResult.getFlags());
-                    dstMailboxManager.endProcessingRequest(dstMailboxSession);
-                    LOGGER.info("MailboxMessage #{} appended in destination mailbox with path={}", j, mailboxPath);
-                    j++;
 
-                }
+                dstMessageManager.appendMessages(Flux.fromIterable(() -> messageResultIterator)
+                        .concatMap(messageResult -> Mono.fromCallable(() -> toAppendCommand(messageResult))), dstMailboxSession)
+                    .index()
+                    .doOnNext(appended -> LOGGER.info("MailboxMessage #{} appended in destination mailbox with path={}", appended.getT1(), copiedMailboxPath))
+                    .then()
+                    .block();
                 dstMailboxManager.endProcessingRequest(dstMailboxSession);
 
             } else {
@@ -124,4 +121,14 @@ public class MailboxCopierImpl implements MailboxCopier {
         LOGGER.info("Mailboxes copied in {} ms.", Calendar.getInstance().getTimeInMillis() - start.getTimeInMillis());
 
     }
+
+    private MessageManager.AppendCommand toAppendCommand(MessageResult messageResult) throws IOException {
+        InputStreamContent content = (InputStreamContent) messageResult.getFullContent();
+
+        return MessageManager.AppendCommand.builder()
+            .withInternalDate(messageResult.getInternalDate())
+            .isRecent(messageResult.getFlags().contains(Flag.RECENT))
+            .withFlags(messageResult.getFlags())
+            .build(content.getInputStream());
+    }
 }
@@ -42,7 +42,7 @@ public class FullReindexingTask implements Task {
     @Inject
     public FullReindexingTask(ReIndexerPerformer reIndexerPerformer, RunningOptions runningOptions) {
         this.reIndexerPerformer = reIndexerPerformer;
-        this.reprocessingContext = new ReprocessingContext();
+        this.reprocessingContext = new ReprocessingContext(runningOptions.getResumeAfter());
         this.runningOptions = runningOptions;
     }
 
@@ -69,6 +69,7 @@ public class FullReindexingTask implements Task {
             reprocessingContext.failedReprocessingMailCount(),
             reprocessingContext.failures(),
             Clock.systemUTC().instant(),
-            runningOptions));
+            runningOptions,
+            reprocessingContext.checkpoint()));
     }
 }
@@ -20,6 +20,8 @@
 package org.apache.mailbox.tools.indexer;
 
 import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 import javax.mail.Flags;
@@ -54,7 +56,6 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class ReIndexerPerformer {
-    public static final int MAILBOX_CONCURRENCY = 1;
     public static final int ONE = 1;
 
     private static class ReIndexingEntry {
@@ -81,6 +82,50 @@ public class ReIndexerPerformer {
         }
     }
 
+    private static class TrackedEntry {
+        static TrackedEntry untracked(Either<Failure, ReIndexingEntry> entry) {
+            return new TrackedEntry(entry, () -> { });
+        }
+
+        private final Either<Failure, ReIndexingEntry> entry;
+        private final Runnable onProcessed;
+
+        TrackedEntry(Either<Failure, ReIndexingEntry> entry, Runnable onProcessed) {
+            this.entry = entry;
+            this.onProcessed = onProcessed;
+        }
+    }
+
+    /**
+     * Records a mailbox as completed into the {@link ReprocessingContext} once it had been fully listed and all of
+     * its entries had been processed, successfully or not.
+     */
+    private static class MailboxProgress {
+        private final long position;
+        private final MailboxId mailboxId;
+        private final ReprocessingContext reprocessingContext;
+        // Accounts for the listing of the mailbox in addition to the entries being processed
+        private final AtomicLong pendingOperations;
+
+        MailboxProgress(long position, MailboxId mailboxId, ReprocessingContext reprocessingContext) {
+            this.position = position;
+            this.mailboxId = mailboxId;
+            this.reprocessingContext = reprocessingContext;
+            this.pendingOperations = new AtomicLong(1);
+        }
+
+        TrackedEntry track(Either<Failure, ReIndexingEntry> entry) {
+            pendingOperations.incrementAndGet();
+            return new TrackedEntry(entry, this::operationCompleted);
+        }
+
+        void operationCompleted() {
+            if (pendingOperations.decrementAndGet() == 0) {
+                reprocessingContext.recordMailboxCompleted(position, mailboxId);
+            }
+        }
+    }
+
     private interface Failure {
         void recordFailure(ReprocessingContext context);
     }
@@ -128,6 +173,7 @@ public class ReIndexerPerformer {
     private static final Logger LOGGER = LoggerFactory.getLogger(ReIndexerPerformer.class);
 
     private static final int SINGLE_MESSAGE = 1;
+    private static final Duration CHECKPOINT_POLLING_DELAY = Duration.ofMillis(100);
     private static final String RE_INDEXING = "re-indexing";
     private static final Username RE_INDEXER_PERFORMER_USER = Username.of(RE_INDEXING);
 
@@ -146,13 +192,23 @@ public class ReIndexerPerformer {
 
     Mono<Result> reIndexAllMessages(ReprocessingContext reprocessingContext, RunningOptions runningOptions) {
         MailboxSession mailboxSession = mailboxManager.createSystemSession(RE_INDEXER_PERFORMER_USER);
-        LOGGER.info("Starting a full reindex");
-
-        Flux<Either<Failure, ReIndexingEntry>> entriesToIndex = mailboxSessionMapperFactory.getMailboxMapper(mailboxSession).list()
-            .flatMap(mailbox -> reIndexingEntriesForMailbox(mailbox, mailboxSession, runningOptions), MAILBOX_CONCURRENCY);
-
-        return reIndexMessages(entriesToIndex, runningOptions, reprocessingContext)
-            .doFinally(any -> LOGGER.info("Full reindex finished"));
+        LOGGER.info("Starting a full reindex, resuming after mailbox {}", runningOptions.getResumeAfter().orElse("none"));
+
+        // The listing order of the mappers is not stable: mailboxes are sorted by serialized id so that the checkpoint
+        // is a mailbox id, whatever the mailboxes created or deleted in the meantime
+        Flux<TrackedEntry> entriesToIndex = mailboxSessionMapperFactory.getMailboxMapper(mailboxSession).list()
+            .filter(mailbox -> runningOptions.getResumeAfter()
+                .map(resumeAfter -> mailbox.getMailboxId().serialize().compareTo(resumeAfter) > 0)
+                .orElse(true))
+            .sort(Comparator.comparing((Mailbox mailbox) -> mailbox.getMailboxId().serialize()))
+            .index()
+            .concatMap(positionedMailbox -> awaitCheckpoint(positionedMailbox.getT1(), reprocessingContext)
+                .thenReturn(positionedMailbox))
+            .flatMap(positionedMailbox -> trackedEntriesForMailbox(positionedMailbox.getT2(), positionedMailbox.getT1(),
+                mailboxSession, runningOptions, reprocessingContext), runningOptions.getMailboxConcurrency());
+
+        return reIndexTrackedMessages(entriesToIndex, runningOptions, reprocessingContext)
+            .doFinally(any -> LOGGER.info("Full reindex finished, checkpoint is {}", reprocessingContext.checkpoint().orElse("none")));
     }
 
     Mono<Result> reIndexSingleMailbox(MailboxId mailboxId, ReprocessingContext reprocessingContext, RunningOptions runningOptions) {
@@ -174,7 +230,7 @@ public class ReIndexerPerformer {
 
         try {
             Flux<Either<Failure, ReIndexingEntry>> entriesToIndex = mailboxMapper.findMailboxWithPathLike(mailboxQuery.asUserBound())
-                .flatMap(mailbox -> reIndexingEntriesForMailbox(mailbox, mailboxSession, runningOptions), MAILBOX_CONCURRENCY);
+                .flatMap(mailbox -> reIndexingEntriesForMailbox(mailbox, mailboxSession, runningOptions), runningOptions.getMailboxConcurrency());
 
             return reIndexMessages(entriesToIndex, runningOptions, reprocessingContext)
                 .doFinally(any -> LOGGER.info("User {} reindex finished", username.asString()));
@@ -222,7 +278,7 @@ public class ReIndexerPerformer {
                     .onErrorResume(e -> {
                         LOGGER.warn("Failed to re-index {}", mailboxId, e);
                         return Mono.just(Either.left(new MailboxFailure(mailboxId)));
-                    }), MAILBOX_CONCURRENCY));
+                    }), runningOptions.getMailboxConcurrency()));
 
         return reIndexMessages(entriesToIndex, runningOptions, reprocessingContext);
     }
@@ -268,6 +324,22 @@ public class ReIndexerPerformer {
             });
     }
 
+    private Flux<TrackedEntry> trackedEntriesForMailbox(Mailbox mailbox, long position, MailboxSession mailboxSession,
+                                                        RunningOptions runningOptions, ReprocessingContext reprocessingContext) {
+        MailboxProgress progress = new MailboxProgress(position, mailbox.getMailboxId(), reprocessingContext);
+
+        return reIndexingEntriesForMailbox(mailbox, mailboxSession, runningOptions)
+            .map(progress::track)
+            .doOnComplete(progress::operationCompleted);
+    }
+
+    private Mono<Void> awaitCheckpoint(long mailboxPosition, ReprocessingContext reprocessingContext) {
+        return Mono.fromCallable(() -> reprocessingContext.canStartMailbox(mailboxPosition))
+            .filter(Boolean::booleanValue)
+            .repeatWhenEmpty(attempts -> attempts.delayElements(CHECKPOINT_POLLING_DELAY))
+            .then();
+    }
+
     private Mono<Void> updateSearchIndex(Mailbox mailbox, MailboxSession mailboxSession, RunningOptions runningOptions) {
         if (runningOptions.getMode() == RunningOptions.Mode.REBUILD_ALL) {
             return messageSearchIndex.deleteAll(mailboxSession, mailbox.getMailboxId());
@@ -276,11 +348,16 @@ public class ReIndexerPerformer {
     }
 
     private Mono<Task.Result> reIndexMessages(Flux<Either<Failure, ReIndexingEntry>> entriesToIndex, RunningOptions runningOptions, ReprocessingContext reprocessingContext) {
+        return reIndexTrackedMessages(entriesToIndex.map(TrackedEntry::untracked), runningOptions, reprocessingContext);
+    }
+
+    private Mono<Task.Result> reIndexTrackedMessages(Flux<TrackedEntry> entriesToIndex, RunningOptions runningOptions, ReprocessingContext reprocessingContext) {
         return entriesToIndex.transform(
-            ReactorUtils.<Either<Failure, ReIndexingEntry>, Task.Result>throttle()
+            ReactorUtils.<TrackedEntry, Task.Result>throttle(runningOptions.getMessageConcurrency())
                 .elements(runningOptions.getMessagesPerSecond())
                 .per(Duration.ofSeconds(1))
-                .forOperation(entry -> reIndex(entry, reprocessingContext, runningOptions)))
+                .forOperation(trackedEntry -> reIndex(trackedEntry.entry, reprocessingContext, runningOptions)
+                    .doOnSuccess(any -> trackedEntry.onProcessed.run())))
             .reduce(Task::combine)
             .switchIfEmpty(Mono.just(Result.COMPLETED));
     }
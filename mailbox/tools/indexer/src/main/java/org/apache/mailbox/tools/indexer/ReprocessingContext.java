@@ -19,6 +19,9 @@
 
 package org.apache.mailbox.tools.indexer;
 
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -29,16 +32,32 @@ import org.apache.james.mailbox.model.MailboxId;
 import com.google.common.collect.ImmutableList;
 
 class ReprocessingContext {
+    /**
+     * Bounds the count of mailboxes completed out of order: listing a mailbox further from the checkpoint waits for
+     * the checkpoint to move forward.
+     */
+    static final int MAX_MAILBOXES_PAST_CHECKPOINT = 1000;
+
     private final AtomicInteger successfullyReprocessedMails;
     private final AtomicInteger failedReprocessingMails;
     private final ConcurrentLinkedDeque<ReIndexingExecutionFailures.ReIndexingFailure> failures;
     private final ConcurrentLinkedDeque<MailboxId> mailboxFailures;
+    private final SortedMap<Long, MailboxId> completedMailboxesPastCheckpoint;
+    private volatile long checkpointPosition;
+    private volatile Optional<String> checkpoint;
 
     ReprocessingContext() {
+        this(Optional.empty());
+    }
+
+    ReprocessingContext(Optional<String> checkpoint) {
         failedReprocessingMails = new AtomicInteger(0);
         successfullyReprocessedMails = new AtomicInteger(0);
         failures = new ConcurrentLinkedDeque<>();
         mailboxFailures = new ConcurrentLinkedDeque<>();
+        completedMailboxesPastCheckpoint = new TreeMap<>();
+        this.checkpointPosition = 0L;
+        this.checkpoint = checkpoint;
     }
 
     void recordFailureDetailsForMessage(MailboxId mailboxId, MessageUid uid) {
@@ -54,6 +73,28 @@ class ReprocessingContext {
         mailboxFailures.add(mailboxId);
     }
 
+    /**
+     * Mailboxes are processed concurrently and complete out of order: the checkpoint only moves forward once all
+     * the mailboxes preceding it, in listing order, had been processed.
+     *
+     * @param mailboxPosition position of the mailbox in the listing of this run, starting at 0
+     */
+    synchronized void recordMailboxCompleted(long mailboxPosition, MailboxId mailboxId) {
+        completedMailboxesPastCheckpoint.put(mailboxPosition, mailboxId);
+        while (completedMailboxesPastCheckpoint.containsKey(checkpointPosition)) {
+            checkpoint = Optional.of(completedMailboxesPastCheckpoint.remove(checkpointPosition).serialize());
+            checkpointPosition++;
+        }
+    }
+
+    boolean canStartMailbox(long mailboxPosition) {
+        return mailboxPosition - checkpointPosition < MAX_MAILBOXES_PAST_CHECKPOINT;
+    }
+
+    Optional<String> checkpoint() {
+        return checkpoint;
+    }
+
     int successfullyReprocessedMailCount() {
         return successfullyReprocessedMails.get();
     }
@@ -115,6 +115,7 @@ public class ReprocessingContextInformationDTO implements AdditionalInformationD
     public static class ReprocessingContextInformationForFullReindexingTask extends ReprocessingContextInformation {
 
         public static class DTO extends ReprocessingContextInformationDTO {
+            private final Optional<String> checkpoint;
 
             DTO(@JsonProperty("type") String type,
                 @JsonProperty("successfullyReprocessedMailCount") int successfullyReprocessedMailCount,
@@ -123,8 +124,14 @@ public class ReprocessingContextInformationDTO implements AdditionalInformationD
                 @JsonProperty("messageFailures") Optional<List<ReindexingFailureDTO>> messageFailures,
                 @JsonProperty("mailboxFailures") Optional<List<String>> mailboxFailures,
                 @JsonProperty("timestamp") Instant timestamp,
-                @JsonProperty("runningOptions") Optional<RunningOptionsDTO> runningOptions) {
+                @JsonProperty("runningOptions") Optional<RunningOptionsDTO> runningOptions,
+                @JsonProperty("checkpoint") Optional<String> checkpoint) {
                 super(type, successfullyReprocessedMailCount, failedReprocessedMailCount, failures, messageFailures, mailboxFailures, timestamp, runningOptions);
+                this.checkpoint = checkpoint;
+            }
+
+            public Optional<String> getCheckpoint() {
+                return checkpoint;
             }
         }
 
@@ -138,7 +145,8 @@ public class ReprocessingContextInformationDTO implements AdditionalInformationD
                     dto.getTimestamp(),
                     dto.getRunningOptions()
                         .map(RunningOptionsDTO::toDomainObject)
-                        .orElse(RunningOptions.DEFAULT)))
+                        .orElse(RunningOptions.DEFAULT),
+                    dto.getCheckpoint()))
                 .toDTOConverter((details, type) -> new DTO(
                     type,
                     details.getSuccessfullyReprocessedMailCount(),
@@ -147,18 +155,40 @@ public class ReprocessingContextInformationDTO implements AdditionalInformationD
                     Optional.of(serializeFailures(details.failures())),
                     Optional.of(details.failures().mailboxFailures().stream().map(MailboxId::serialize).collect(Guavate.toImmutableList())),
                     details.timestamp(),
-                    Optional.of(RunningOptionsDTO.toDTO(details.getRunningOptions()))))
+                    Optional.of(RunningOptionsDTO.toDTO(details.getRunningOptions())),
+                    details.getCheckpoint()))
                 .typeName(FullReindexingTask.FULL_RE_INDEXING.asString())
                 .withFactory(AdditionalInformationDTOModule::new);
         }
 
+        private final Optional<String> checkpoint;
+
         @VisibleForTesting
         public ReprocessingContextInformationForFullReindexingTask(int successfullyReprocessedMailCount,
                                                             int failedReprocessedMailCount,
                                                             ReIndexingExecutionFailures failures,
                                                             Instant timestamp,
                                                             RunningOptions runningOptions) {
+            this(successfullyReprocessedMailCount, failedReprocessedMailCount, failures, timestamp, runningOptions, Optional.empty());
+        }
+
+        @VisibleForTesting
+        public ReprocessingContextInformationForFullReindexingTask(int successfullyReprocessedMailCount,
+                                                            int failedReprocessedMailCount,
+                                                            ReIndexingExecutionFailures failures,
+                                                            Instant timestamp,
+                                                            RunningOptions runningOptions,
+                                                            Optional<String> checkpoint) {
             super(successfullyReprocessedMailCount, failedReprocessedMailCount, failures, timestamp, runningOptions);
+            this.checkpoint = checkpoint;
+        }
+
+        /**
+         * Serialized id of the last mailbox such that it and all the mailboxes preceding it, in serialized id order, had
+         * been fully reindexed. A full reindexing can be resumed from there using {@link RunningOptions#getResumeAfter()}.
+         */
+        public Optional<String> getCheckpoint() {
+            return checkpoint;
         }
     }
 
@@ -30,17 +30,29 @@ public class RunningOptionsDTO {
     public static RunningOptionsDTO toDTO(RunningOptions runningOptions) {
         return new RunningOptionsDTO(
             Optional.of(runningOptions.getMessagesPerSecond()),
-            Optional.of(runningOptions.getMode()));
+            Optional.of(runningOptions.getMode()),
+            Optional.of(runningOptions.getMailboxConcurrency()),
+            Optional.of(runningOptions.getMessageConcurrency()),
+            runningOptions.getResumeAfter());
     }
 
     private final Optional<Integer> messagesPerSecond;
     private final Optional<RunningOptions.Mode> mode;
+    private final Optional<Integer> mailboxConcurrency;
+    private final Optional<Integer> messageConcurrency;
+    private final Optional<String> resumeAfter;
 
     @JsonCreator
     public RunningOptionsDTO(@JsonProperty("messagesPerSecond") Optional<Integer> messagesPerSecond,
-                             @JsonProperty("mode") Optional<RunningOptions.Mode> mode) {
+                             @JsonProperty("mode") Optional<RunningOptions.Mode> mode,
+                             @JsonProperty("mailboxConcurrency") Optional<Integer> mailboxConcurrency,
+                             @JsonProperty("messageConcurrency") Optional<Integer> messageConcurrency,
+                             @JsonProperty("resumeAfter") Optional<String> resumeAfter) {
         this.messagesPerSecond = messagesPerSecond;
         this.mode = mode;
+        this.mailboxConcurrency = mailboxConcurrency;
+        this.messageConcurrency = messageConcurrency;
+        this.resumeAfter = resumeAfter;
     }
 
     public Optional<Integer> getMessagesPerSecond() {
@@ -51,10 +63,25 @@ public class RunningOptionsDTO {
         return mode;
     }
 
+    public Optional<Integer> getMailboxConcurrency() {
+        return mailboxConcurrency;
+    }
+
+    public Optional<Integer> getMessageConcurrency() {
+        return messageConcurrency;
+    }
+
+    public Optional<String> getResumeAfter() {
+        return resumeAfter;
+    }
+
     public RunningOptions toDomainObject() {
         return RunningOptions.builder()
             .messagesPerSeconds(messagesPerSecond)
             .mode(mode)
+            .mailboxConcurrency(mailboxConcurrency)
+            .messageConcurrency(messageConcurrency)
+            .resumeAfter(resumeAfter)
             .build();
     }
 }
@@ -22,11 +22,17 @@ package org.apache.mailbox.tools.indexer;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Optional;
+
 import org.apache.james.core.Username;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MessageManager;
@@ -44,10 +50,14 @@ import org.apache.james.mailbox.model.MailboxPath;
 import org.apache.james.mailbox.store.MailboxSessionMapperFactory;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
+import org.apache.james.task.Task;
+import org.apache.mailbox.tools.indexer.ReprocessingContextInformationDTO.ReprocessingContextInformationForFullReindexingTask;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
+import com.google.common.collect.ImmutableList;
+
 import reactor.core.publisher.Mono;
 
 public class ReIndexerImplTest {
@@ -123,6 +133,64 @@ public class ReIndexerImplTest {
         });
     }
 
+    @Test
+    void reIndexAllShouldReportCheckpoint() throws Exception {
+        MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
+        String inboxId = mailboxManager.createMailbox(INBOX, systemSession).get().serialize();
+        String otherId = mailboxManager.createMailbox(MailboxPath.forUser(USERNAME, "other"), systemSession).get().serialize();
+
+        Task task = reIndexer.reIndex(RunningOptions.DEFAULT);
+        task.run();
+
+        assertThat(task.details())
+            .hasValueSatisfying(details -> assertThat(((ReprocessingContextInformationForFullReindexingTask) details).getCheckpoint())
+                .contains(Collections.max(ImmutableList.of(inboxId, otherId))));
+    }
+
+    @Test
+    void reIndexAllShouldSkipMailboxesBeforeCheckpoint() throws Exception {
+        MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
+        MailboxId inboxId = mailboxManager.createMailbox(INBOX, systemSession).get();
+        MailboxId otherId = mailboxManager.createMailbox(MailboxPath.forUser(USERNAME, "other"), systemSession).get();
+        MailboxId first = Collections.min(ImmutableList.of(inboxId, otherId), Comparator.comparing(MailboxId::serialize));
+        MailboxId last = Collections.max(ImmutableList.of(inboxId, otherId), Comparator.comparing(MailboxId::serialize));
+
+        Task task = reIndexer.reIndex(RunningOptions.builder()
+            .resumeAfter(first.serialize())
+            .build());
+        task.run();
+
+        verify(messageSearchIndex).deleteAll(any(MailboxSession.class), eq(last));
+        verifyNoMoreInteractions(messageSearchIndex);
+        assertThat(task.details())
+            .hasValueSatisfying(details -> assertThat(((ReprocessingContextInformationForFullReindexingTask) details).getCheckpoint())
+                .contains(last.serialize()));
+    }
+
+    @Test
+    void reIndexAllShouldIndexAllMailboxesWhenConcurrent() throws Exception {
+        MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
+        MailboxPath otherPath = MailboxPath.forUser(USERNAME, "other");
+        mailboxManager.createMailbox(INBOX, systemSession);
+        mailboxManager.createMailbox(otherPath, systemSession);
+        mailboxManager.getMailbox(INBOX, systemSession)
+            .appendMessage(MessageManager.AppendCommand.builder().build("header: value\r\n\r\nbody"), systemSession);
+        mailboxManager.getMailbox(INBOX, systemSession)
+            .appendMessage(MessageManager.AppendCommand.builder().build("header: value\r\n\r\nbody"), systemSession);
+        mailboxManager.getMailbox(otherPath, systemSession)
+            .appendMessage(MessageManager.AppendCommand.builder().build("header: value\r\n\r\nbody"), systemSession);
+
+        reIndexer.reIndex(RunningOptions.builder()
+            .mailboxConcurrency(Optional.of(2))
+            .messageConcurrency(Optional.of(2))
+            .build())
+            .run();
+
+        verify(messageSearchIndex, times(2)).deleteAll(any(MailboxSession.class), any(MailboxId.class));
+        verify(messageSearchIndex, times(3)).add(any(MailboxSession.class), any(Mailbox.class), any(MailboxMessage.class));
+        verifyNoMoreInteractions(messageSearchIndex);
+    }
+
     @Test
     void userReIndexShouldCallMessageSearchIndex() throws Exception {
         MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
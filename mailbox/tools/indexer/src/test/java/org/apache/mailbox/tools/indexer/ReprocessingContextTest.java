@@ -0,0 +1,73 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.mailbox.tools.indexer;
+
+import static org.apache.mailbox.tools.indexer.ReprocessingContext.MAX_MAILBOXES_PAST_CHECKPOINT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+
+import org.apache.james.mailbox.model.TestId;
+import org.junit.jupiter.api.Test;
+
+class ReprocessingContextTest {
+    @Test
+    void checkpointShouldBeTheResumedOneWhenNoMailboxCompleted() {
+        ReprocessingContext testee = new ReprocessingContext(Optional.of("12"));
+
+        assertThat(testee.checkpoint()).contains("12");
+    }
+
+    @Test
+    void checkpointShouldNotMoveWhenAPreviousMailboxIsNotCompleted() {
+        ReprocessingContext testee = new ReprocessingContext();
+
+        testee.recordMailboxCompleted(1, TestId.of(2));
+
+        assertThat(testee.checkpoint()).isEmpty();
+    }
+
+    @Test
+    void checkpointShouldBeTheLastContiguouslyCompletedMailbox() {
+        ReprocessingContext testee = new ReprocessingContext();
+
+        testee.recordMailboxCompleted(1, TestId.of(2));
+        testee.recordMailboxCompleted(3, TestId.of(4));
+        testee.recordMailboxCompleted(0, TestId.of(1));
+
+        assertThat(testee.checkpoint()).contains(TestId.of(2).serialize());
+    }
+
+    @Test
+    void mailboxesTooFarFromTheCheckpointShouldNotBeStarted() {
+        ReprocessingContext testee = new ReprocessingContext();
+
+        assertThat(testee.canStartMailbox(MAX_MAILBOXES_PAST_CHECKPOINT)).isFalse();
+    }
+
+    @Test
+    void mailboxesShouldBeStartedOnceTheCheckpointMovedForward() {
+        ReprocessingContext testee = new ReprocessingContext();
+
+        testee.recordMailboxCompleted(0, TestId.of(1));
+
+        assertThat(testee.canStartMailbox(MAX_MAILBOXES_PAST_CHECKPOINT)).isTrue();
+    }
+}
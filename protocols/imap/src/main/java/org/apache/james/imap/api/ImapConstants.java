@@ -196,7 +196,9 @@ public interface ImapConstants {
     ImapCommand FETCH_COMMAND = ImapCommand.selectedStateCommand("FETCH");
     ImapCommand MOVE_COMMAND = ImapCommand.selectedStateCommand("MOVE");
     ImapCommand SEARCH_COMMAND = ImapCommand.selectedStateCommand("SEARCH");
+    ImapCommand SORT_COMMAND = ImapCommand.selectedStateCommand("SORT");
     ImapCommand STORE_COMMAND = ImapCommand.selectedStateCommand("STORE");
+    ImapCommand THREAD_COMMAND = ImapCommand.selectedStateCommand("THREAD");
     ImapCommand UID_COMMAND = ImapCommand.selectedStateCommand("UID");
 
     String ACL_RESPONSE_NAME = "ACL";
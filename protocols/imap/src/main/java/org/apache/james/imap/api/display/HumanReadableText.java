@@ -156,6 +156,8 @@ public class HumanReadableText {
     public static final HumanReadableText IDLING = new HumanReadableText("org.apache.james.imap.IDLING", "Idling");
     public static final HumanReadableText HEARTBEAT = new HumanReadableText("org.apache.james.imap.HEARTBEAT", "Still here");
 
+    public static final HumanReadableText STILL_PROCESSING = new HumanReadableText("org.apache.james.imap.STILL_PROCESSING", "Still processing");
+
     public static final HumanReadableText DEFLATE_ACTIVE = new HumanReadableText("org.apache.james.imap.DEFLATE", "DEFLATE active");
 
     public static final HumanReadableText COMPRESS_ALREADY_ACTIVE = new HumanReadableText("org.apache.james.imap.DEFLATE", "already active");
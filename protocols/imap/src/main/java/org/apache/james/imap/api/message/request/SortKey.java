@@ -0,0 +1,89 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.api.message.request;
+
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * A sort criterion of a <code>SORT</code> command, as defined by RFC-5256 and extended by RFC-5957.
+ */
+public final class SortKey {
+    public enum Type {
+        ARRIVAL,
+        CC,
+        DATE,
+        FROM,
+        SIZE,
+        SUBJECT,
+        TO,
+        DISPLAYFROM,
+        DISPLAYTO
+    }
+
+    public static SortKey natural(Type type) {
+        return new SortKey(type, false);
+    }
+
+    public static SortKey reverse(Type type) {
+        return new SortKey(type, true);
+    }
+
+    private final Type type;
+    private final boolean reverse;
+
+    private SortKey(Type type, boolean reverse) {
+        this.type = type;
+        this.reverse = reverse;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public boolean isReverse() {
+        return reverse;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof SortKey) {
+            SortKey sortKey = (SortKey) o;
+
+            return Objects.equals(this.type, sortKey.type)
+                && Objects.equals(this.reverse, sortKey.reverse);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(type, reverse);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("type", type)
+            .add("reverse", reverse)
+            .toString();
+    }
+}
@@ -109,7 +109,12 @@ public class ImapParserFactory implements ImapCommandParserFactory {
             //RFC5464
             //SETMETADATA, GETMETADATA
             new SetAnnotationCommandParser(statusResponseFactory),
-            new GetAnnotationCommandParser(statusResponseFactory));
+            new GetAnnotationCommandParser(statusResponseFactory),
+
+            // RFC5256
+            // SORT, THREAD
+            new SortCommandParser(statusResponseFactory),
+            new ThreadCommandParser(statusResponseFactory));
 
         imapCommands = parsers.collect(Guavate.toImmutableMap(
                 parser -> parser.getCommand().getName(),
@@ -0,0 +1,97 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.decode.parser;
+
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.james.imap.api.ImapConstants;
+import org.apache.james.imap.api.ImapMessage;
+import org.apache.james.imap.api.Tag;
+import org.apache.james.imap.api.display.HumanReadableText;
+import org.apache.james.imap.api.message.request.SortKey;
+import org.apache.james.imap.api.message.response.StatusResponseFactory;
+import org.apache.james.imap.api.process.ImapSession;
+import org.apache.james.imap.decode.DecodingException;
+import org.apache.james.imap.decode.ImapRequestLineReader;
+import org.apache.james.imap.message.request.SortRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Parse SORT commands, as defined by RFC-5256 and RFC-5957
+ */
+public class SortCommandParser extends SearchCommandParser {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SortCommandParser.class);
+    private static final String REVERSE = "REVERSE";
+
+    public SortCommandParser(StatusResponseFactory statusResponseFactory) {
+        super(ImapConstants.SORT_COMMAND, statusResponseFactory);
+    }
+
+    @Override
+    protected ImapMessage decode(ImapRequestLineReader request, Tag tag, boolean useUids, ImapSession session) throws DecodingException {
+        List<SortKey> sortKeys = sortKeys(request);
+        try {
+            return new SortRequest(sortKeys, decode(session, request, readCharset(request)), useUids, tag);
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            LOGGER.debug("Unable to decode request", e);
+            return unsupportedCharset(tag);
+        }
+    }
+
+    private List<SortKey> sortKeys(ImapRequestLineReader request) throws DecodingException {
+        ImmutableList.Builder<SortKey> sortKeys = ImmutableList.builder();
+        boolean reverse = false;
+        boolean empty = true;
+
+        request.nextWordChar();
+        request.consumeChar('(');
+        while (request.nextWordChar() != ')') {
+            String atom = request.atom().toUpperCase(Locale.US);
+            if (atom.equals(REVERSE) && !reverse) {
+                reverse = true;
+            } else {
+                SortKey.Type type = sortKeyType(atom);
+                sortKeys.add(reverse ? SortKey.reverse(type) : SortKey.natural(type));
+                reverse = false;
+                empty = false;
+            }
+        }
+        request.consumeChar(')');
+
+        if (empty || reverse) {
+            throw new DecodingException(HumanReadableText.ILLEGAL_ARGUMENTS, "Invalid sort criteria");
+        }
+        return sortKeys.build();
+    }
+
+    private SortKey.Type sortKeyType(String atom) throws DecodingException {
+        try {
+            return SortKey.Type.valueOf(atom);
+        } catch (IllegalArgumentException e) {
+            throw new DecodingException(HumanReadableText.ILLEGAL_ARGUMENTS, "Unknown sort key " + atom);
+        }
+    }
+}
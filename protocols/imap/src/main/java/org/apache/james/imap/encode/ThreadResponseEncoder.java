@@ -0,0 +1,67 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.encode;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.james.imap.api.ImapConstants;
+import org.apache.james.imap.message.response.ThreadResponse;
+
+/**
+ * Encodes RFC-5256 <code>THREAD</code> responses.
+ *
+ * Threads are flat: the first message of a thread is the parent of all the other ones. A single child directly
+ * follows its parent while several children are listed as siblings, each one in its own parenthesis.
+ */
+public class ThreadResponseEncoder implements ImapResponseEncoder<ThreadResponse> {
+    @Override
+    public Class<ThreadResponse> acceptableMessages() {
+        return ThreadResponse.class;
+    }
+
+    @Override
+    public void encode(ThreadResponse response, ImapResponseComposer composer) throws IOException {
+        composer.untagged();
+        composer.commandName(ImapConstants.THREAD_COMMAND);
+        for (List<Long> thread : response.getThreads()) {
+            encodeThread(thread, composer);
+            composer.skipNextSpace();
+        }
+        composer.end();
+    }
+
+    private void encodeThread(List<Long> thread, ImapResponseComposer composer) throws IOException {
+        composer.openParen();
+        composer.message(thread.get(0));
+        List<Long> children = thread.subList(1, thread.size());
+        if (children.size() == 1) {
+            composer.message(children.get(0));
+        } else {
+            for (Long child : children) {
+                composer.openParen();
+                composer.message(child);
+                composer.closeParen();
+                composer.skipNextSpace();
+            }
+        }
+        composer.closeParen();
+    }
+}
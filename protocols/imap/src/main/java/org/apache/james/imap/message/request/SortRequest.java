@@ -0,0 +1,82 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.message.request;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.james.imap.api.ImapConstants;
+import org.apache.james.imap.api.Tag;
+import org.apache.james.imap.api.message.request.SearchKey;
+import org.apache.james.imap.api.message.request.SortKey;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+public class SortRequest extends AbstractImapRequest {
+    private final List<SortKey> sortKeys;
+    private final SearchKey searchKey;
+    private final boolean useUids;
+
+    public SortRequest(List<SortKey> sortKeys, SearchKey searchKey, boolean useUids, Tag tag) {
+        super(tag, ImapConstants.SORT_COMMAND);
+        this.sortKeys = ImmutableList.copyOf(sortKeys);
+        this.searchKey = searchKey;
+        this.useUids = useUids;
+    }
+
+    public final List<SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    public final SearchKey getSearchKey() {
+        return searchKey;
+    }
+
+    public final boolean isUseUids() {
+        return useUids;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof SortRequest) {
+            SortRequest that = (SortRequest) o;
+
+            return Objects.equals(this.sortKeys, that.sortKeys)
+                && Objects.equals(this.searchKey, that.searchKey)
+                && Objects.equals(this.useUids, that.useUids);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(sortKeys, searchKey, useUids);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("sortKeys", sortKeys)
+            .add("searchKey", searchKey)
+            .add("useUids", useUids)
+            .toString();
+    }
+}
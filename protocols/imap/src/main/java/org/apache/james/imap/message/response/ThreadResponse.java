@@ -0,0 +1,67 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.message.response;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.james.imap.api.message.response.ImapResponseMessage;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A <code>THREAD</code> response.
+ */
+public class ThreadResponse implements ImapResponseMessage {
+    private final List<List<Long>> threads;
+
+    /**
+     * Constructs a <code>THREAD</code> response.
+     *
+     * @param threads ordered threads, each of them listing its first message followed by its children, not null
+     */
+    public ThreadResponse(List<List<Long>> threads) {
+        this.threads = ImmutableList.copyOf(threads);
+    }
+
+    public final List<List<Long>> getThreads() {
+        return threads;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof ThreadResponse) {
+            ThreadResponse that = (ThreadResponse) o;
+
+            return Objects.equals(this.threads, that.threads);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(threads);
+    }
+
+    @Override
+    public String toString() {
+        return "ThreadResponse ( threads = " + threads + " )";
+    }
+}
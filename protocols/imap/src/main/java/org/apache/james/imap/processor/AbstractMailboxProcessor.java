@@ -73,6 +73,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.fge.lambdas.Throwing;
+import com.github.steveash.guavate.Guavate;
 
 public abstract class AbstractMailboxProcessor<R extends ImapRequest> extends AbstractChainedProcessor<R> {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractMailboxProcessor.class);
@@ -535,6 +536,12 @@ public abstract class AbstractMailboxProcessor<R extends ImapRequest> extends Ab
      * Send VANISHED responses if needed. 
      */
     protected void respondVanished(MailboxSession session, MessageManager mailbox, List<MessageRange> ranges, long changedSince, MailboxMetaData metaData, Responder responder) throws MailboxException {
+        Optional<List<MessageUid>> expungedUids = mailbox.listExpungedUidsSince(ModSeq.of(changedSince), session);
+        if (expungedUids.isPresent()) {
+            respondVanished(ranges, expungedUids.get(), responder);
+            return;
+        }
+
         // RFC5162 4.2. Server Implementations Storing Minimal State
         //  
         //      A server that stores the HIGHESTMODSEQ value at the time of the last
@@ -577,6 +584,19 @@ public abstract class AbstractMailboxProcessor<R extends ImapRequest> extends Ab
         
         
     }
+
+    /**
+     * Answers from the expunges tracked by the mailbox, which avoids listing the uids of the requested ranges.
+     */
+    private void respondVanished(List<MessageRange> ranges, List<MessageUid> expungedUids, Responder responder) {
+        List<MessageUid> vanishedUids = expungedUids.stream()
+            .filter(uid -> ranges.stream().anyMatch(range -> range.includes(uid)))
+            .collect(Guavate.toImmutableList());
+
+        if (!vanishedUids.isEmpty()) {
+            responder.respond(new VanishedResponse(uidRanges(MessageRange.toRanges(vanishedUids)), true));
+        }
+    }
     
     
     // TODO: Do we need to handle wildcards here ?
@@ -19,6 +19,7 @@
 
 package org.apache.james.imap.processor;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
@@ -48,10 +49,13 @@ import org.slf4j.LoggerFactory;
 import com.github.fge.lambdas.Throwing;
 import com.github.steveash.guavate.Guavate;
 
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public abstract class AbstractMessageRangeProcessor<R extends AbstractMessageRangeRequest> extends AbstractMailboxProcessor<R> {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractMessageRangeProcessor.class);
+    private static final Duration KEEP_ALIVE_INTERVAL = Duration.ofSeconds(10);
 
     public AbstractMessageRangeProcessor(Class<R> acceptableClass, ImapProcessor next, MailboxManager mailboxManager, StatusResponseFactory factory,
                                          MetricFactory metricFactory) {
@@ -75,7 +79,7 @@ public abstract class AbstractMessageRangeProcessor<R extends AbstractMessageRan
             if (!Mono.from(getMailboxManager().mailboxExists(targetMailbox, mailboxSession)).block()) {
                 no(request, responder, HumanReadableText.FAILURE_NO_SUCH_MAILBOX, StatusResponse.ResponseCode.tryCreate());
             } else {
-                StatusResponse.ResponseCode code = handleRanges(request, session, targetMailbox, mailboxSession);
+                StatusResponse.ResponseCode code = handleRangesWithKeepAlive(request, session, targetMailbox, mailboxSession, responder);
                 unsolicitedResponses(session, responder, request.isUseUids());
                 okComplete(request, code, responder);
             }
@@ -90,6 +94,50 @@ public abstract class AbstractMessageRangeProcessor<R extends AbstractMessageRan
         }
     }
 
+    /**
+     * Copying or moving large mailboxes can take longer than client timeouts: untagged OK responses are periodically
+     * sent to the client until the operation completes.
+     */
+    private StatusResponse.ResponseCode handleRangesWithKeepAlive(R request, ImapSession session, MailboxPath targetMailbox,
+                                                                  MailboxSession mailboxSession, Responder responder) throws MailboxException {
+        KeepAliveResponder keepAliveResponder = new KeepAliveResponder(responder);
+        Disposable keepAlive = Flux.interval(KEEP_ALIVE_INTERVAL)
+            .subscribe(any -> keepAliveResponder.stillProcessing());
+        try {
+            return handleRanges(request, session, targetMailbox, mailboxSession);
+        } finally {
+            keepAlive.dispose();
+            keepAliveResponder.stop();
+        }
+    }
+
+    /**
+     * Keep alive responses are written from a timer thread while the {@link Responder} is not thread safe.
+     *
+     * Writes are serialized with the end of the processing: once {@link #stop()} returns, no keep alive response is
+     * in flight and none will be written, hence the completion responses written afterward by the processing thread
+     * can not interleave with them.
+     */
+    private class KeepAliveResponder {
+        private final Responder responder;
+        private boolean stopped;
+
+        KeepAliveResponder(Responder responder) {
+            this.responder = responder;
+            this.stopped = false;
+        }
+
+        synchronized void stillProcessing() {
+            if (!stopped) {
+                responder.respond(getStatusResponseFactory().untaggedOk(HumanReadableText.STILL_PROCESSING));
+            }
+        }
+
+        synchronized void stop() {
+            stopped = true;
+        }
+    }
+
     private StatusResponse.ResponseCode handleRanges(R request, ImapSession session, MailboxPath targetMailbox, MailboxSession mailboxSession) throws MailboxException {
         MessageManager mailbox = getMailboxManager().getMailbox(targetMailbox, mailboxSession);
 
@@ -91,8 +91,13 @@ public class DefaultProcessorChain {
         SearchProcessor searchProcessor = new SearchProcessor(listProcessor, mailboxManager, statusResponseFactory, metricFactory);
         // WITHIN extension
         capabilityProcessor.addProcessor(searchProcessor);
+        // RFC5256 SORT and THREAD extensions
+        SortProcessor sortProcessor = new SortProcessor(searchProcessor, mailboxManager, statusResponseFactory, metricFactory);
+        capabilityProcessor.addProcessor(sortProcessor);
+        ThreadProcessor threadProcessor = new ThreadProcessor(sortProcessor, mailboxManager, statusResponseFactory, metricFactory);
+        capabilityProcessor.addProcessor(threadProcessor);
 
-        SelectProcessor selectProcessor = new SelectProcessor(searchProcessor, mailboxManager, eventBus, statusResponseFactory, metricFactory);
+        SelectProcessor selectProcessor = new SelectProcessor(threadProcessor, mailboxManager, eventBus, statusResponseFactory, metricFactory);
         NamespaceProcessor namespaceProcessor = new NamespaceProcessor(selectProcessor, mailboxManager, statusResponseFactory, metricFactory);
 
         capabilityProcessor.addProcessor(xlistProcessor);
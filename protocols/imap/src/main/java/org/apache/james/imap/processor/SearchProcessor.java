@@ -206,7 +206,7 @@ public class SearchProcessor extends AbstractMailboxProcessor<SearchRequest> imp
         }
     }
 
-    private Collection<Long> asResults(ImapSession session, boolean useUids, Collection<MessageUid> uids) {
+    static Collection<Long> asResults(ImapSession session, boolean useUids, Collection<MessageUid> uids) {
         if (useUids) {
             return uids.stream()
                 .map(MessageUid::asLong)
@@ -263,7 +263,7 @@ public class SearchProcessor extends AbstractMailboxProcessor<SearchRequest> imp
         return highestModSeq;
     }
 
-    private SearchQuery toQuery(SearchKey key, ImapSession session) throws MessageRangeException {
+    static SearchQuery toQuery(SearchKey key, ImapSession session) throws MessageRangeException {
         SearchQuery.Criterion criterion = toCriterion(key, session);
         SearchQuery.Builder builder = SearchQuery.builder();
         SelectedMailbox selected = session.getSelected();
@@ -274,7 +274,7 @@ public class SearchProcessor extends AbstractMailboxProcessor<SearchRequest> imp
             .build();
     }
 
-    private SearchQuery.Criterion toCriterion(SearchKey key, ImapSession session) throws MessageRangeException {
+    private static SearchQuery.Criterion toCriterion(SearchKey key, ImapSession session) throws MessageRangeException {
         final SearchKey.Type type = key.getType();
         final DayMonthYear date = key.getDate();
         switch (type) {
@@ -378,7 +378,7 @@ public class SearchProcessor extends AbstractMailboxProcessor<SearchRequest> imp
         }
     }
     
-    private Date createWithinDate(SearchKey key) {
+    private static Date createWithinDate(SearchKey key) {
         long seconds = key.getSeconds();
         long res = System.currentTimeMillis() - seconds * 1000;
         return new Date(res);
@@ -389,7 +389,7 @@ public class SearchProcessor extends AbstractMailboxProcessor<SearchRequest> imp
      * This include special handling which is needed for SEARCH to not return a BAD response on a invalid message-set. 
      * See IMAP-292 for more details.
      */
-    private Criterion sequence(IdRange[] sequenceNumbers, ImapSession session) throws MessageRangeException {
+    private static Criterion sequence(IdRange[] sequenceNumbers, ImapSession session) throws MessageRangeException {
         
         final SelectedMailbox selected = session.getSelected();
 
@@ -446,7 +446,7 @@ public class SearchProcessor extends AbstractMailboxProcessor<SearchRequest> imp
      * This include special handling which is needed for SEARCH to not return a BAD response on a invalid message-set. 
      * See IMAP-292 for more details.
      */
-    private Criterion uids(UidRange[] uids, ImapSession session) throws MessageRangeException {
+    private static Criterion uids(UidRange[] uids, ImapSession session) throws MessageRangeException {
         
         final SelectedMailbox selected = session.getSelected();
 
@@ -477,7 +477,7 @@ public class SearchProcessor extends AbstractMailboxProcessor<SearchRequest> imp
         return SearchQuery.uid(ranges.toArray(SearchQuery.UidRange[]::new));
     }
 
-    private Criterion or(List<SearchKey> keys, ImapSession session) throws MessageRangeException {
+    private static Criterion or(List<SearchKey> keys, ImapSession session) throws MessageRangeException {
         final SearchKey keyOne = keys.get(0);
         final SearchKey keyTwo = keys.get(1);
         final Criterion criterionOne = toCriterion(keyOne, session);
@@ -485,13 +485,13 @@ public class SearchProcessor extends AbstractMailboxProcessor<SearchRequest> imp
         return SearchQuery.or(criterionOne, criterionTwo);
     }
 
-    private Criterion not(List<SearchKey> keys, ImapSession session) throws MessageRangeException {
+    private static Criterion not(List<SearchKey> keys, ImapSession session) throws MessageRangeException {
         final SearchKey key = keys.get(0);
         final Criterion criterion = toCriterion(key, session);
         return SearchQuery.not(criterion);
     }
 
-    private Criterion and(List<SearchKey> keys, ImapSession session) throws MessageRangeException {
+    private static Criterion and(List<SearchKey> keys, ImapSession session) throws MessageRangeException {
         final int size = keys.size();
         final List<Criterion> criteria = new ArrayList<>(size);
         for (SearchKey key : keys) {
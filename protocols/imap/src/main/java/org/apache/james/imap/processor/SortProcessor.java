@@ -0,0 +1,159 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.processor;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.james.imap.api.display.HumanReadableText;
+import org.apache.james.imap.api.message.Capability;
+import org.apache.james.imap.api.message.request.SortKey;
+import org.apache.james.imap.api.message.response.StatusResponseFactory;
+import org.apache.james.imap.api.process.ImapProcessor;
+import org.apache.james.imap.api.process.ImapSession;
+import org.apache.james.imap.message.request.SortRequest;
+import org.apache.james.imap.message.response.SortResponse;
+import org.apache.james.mailbox.MailboxManager;
+import org.apache.james.mailbox.MessageManager;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.exception.MessageRangeException;
+import org.apache.james.mailbox.model.SearchQuery;
+import org.apache.james.mailbox.model.SearchQuery.Sort;
+import org.apache.james.mailbox.model.SearchQuery.Sort.Order;
+import org.apache.james.mailbox.model.SearchQuery.Sort.SortClause;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.util.MDCBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Implements RFC-5256 SORT, together with the DISPLAYFROM and DISPLAYTO sort keys of RFC-5957.
+ *
+ * Sort keys are handed over to the mailbox search, thus sorting is carried out by the search index.
+ */
+public class SortProcessor extends AbstractMailboxProcessor<SortRequest> implements CapabilityImplementingProcessor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SortProcessor.class);
+    private static final List<Capability> CAPS = ImmutableList.of(Capability.of("SORT"), Capability.of("SORT=DISPLAY"));
+    // Messages sorting equally are ordered by sequence number, hence by uid
+    private static final Sort TIE_BREAKER = new Sort(SortClause.Uid, Order.NATURAL);
+
+    public SortProcessor(ImapProcessor next, MailboxManager mailboxManager, StatusResponseFactory factory,
+            MetricFactory metricFactory) {
+        super(SortRequest.class, next, mailboxManager, factory, metricFactory);
+    }
+
+    @Override
+    protected void processRequest(SortRequest request, ImapSession session, Responder responder) {
+        final boolean useUids = request.isUseUids();
+        try {
+            MessageManager mailbox = getSelectedMailbox(session)
+                .orElseThrow(() -> new MailboxException("Session not in SELECTED state"));
+
+            final SearchQuery query = toSortedQuery(request, session);
+            final Collection<MessageUid> uids;
+            try (Stream<MessageUid> stream = mailbox.search(query, session.getMailboxSession())) {
+                uids = stream.collect(Guavate.toImmutableList());
+            }
+            final long[] ids = SearchProcessor.asResults(session, useUids, uids)
+                .stream()
+                .mapToLong(x -> x)
+                .toArray();
+
+            responder.respond(new SortResponse(ids));
+
+            boolean omitExpunged = (!useUids);
+            unsolicitedResponses(session, responder, omitExpunged, useUids);
+            okComplete(request, responder);
+        } catch (MessageRangeException e) {
+            LOGGER.debug("Sort failed in mailbox {} because of an invalid sequence-set ", session.getSelected().getMailboxId(), e);
+            taggedBad(request, responder, HumanReadableText.INVALID_MESSAGESET);
+        } catch (MailboxException e) {
+            LOGGER.error("Sort failed in mailbox {}", session.getSelected().getMailboxId(), e);
+            no(request, responder, HumanReadableText.SEARCH_FAILED);
+        } finally {
+            session.setAttribute(SearchProcessor.SEARCH_MODSEQ, null);
+        }
+    }
+
+    private SearchQuery toSortedQuery(SortRequest request, ImapSession session) throws MessageRangeException {
+        SearchQuery query = SearchProcessor.toQuery(request.getSearchKey(), session);
+        return SearchQuery.builder()
+            .andCriteria(query.getCriteria())
+            .addRecentMessageUids(query.getRecentMessageUids())
+            .sorts(Stream.concat(
+                    request.getSortKeys().stream().map(this::toSort),
+                    Stream.of(TIE_BREAKER))
+                .collect(Guavate.toImmutableList()))
+            .build();
+    }
+
+    private Sort toSort(SortKey sortKey) {
+        if (sortKey.isReverse()) {
+            return new Sort(toSortClause(sortKey.getType()), Order.REVERSE);
+        }
+        return new Sort(toSortClause(sortKey.getType()), Order.NATURAL);
+    }
+
+    private SortClause toSortClause(SortKey.Type type) {
+        switch (type) {
+        case ARRIVAL:
+            return SortClause.Arrival;
+        case CC:
+            return SortClause.MailboxCc;
+        case DATE:
+            return SortClause.SentDate;
+        case FROM:
+            return SortClause.MailboxFrom;
+        case SIZE:
+            return SortClause.Size;
+        case SUBJECT:
+            return SortClause.BaseSubject;
+        case TO:
+            return SortClause.MailboxTo;
+        case DISPLAYFROM:
+            return SortClause.DisplayFrom;
+        case DISPLAYTO:
+            return SortClause.DisplayTo;
+        default:
+            throw new IllegalArgumentException("Unknown sort key " + type);
+        }
+    }
+
+    @Override
+    public List<Capability> getImplementedCapabilities(ImapSession session) {
+        return CAPS;
+    }
+
+    @Override
+    protected Closeable addContextToMDC(SortRequest request) {
+        return MDCBuilder.create()
+            .addContext(MDCBuilder.ACTION, "SORT")
+            .addContext("useUid", request.isUseUids())
+            .addContext("sortKeys", request.getSortKeys())
+            .addContext("searchKey", request.getSearchKey())
+            .build();
+    }
+}
@@ -0,0 +1,100 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.processor;
+
+import java.io.Closeable;
+import java.util.List;
+
+import org.apache.james.imap.api.display.HumanReadableText;
+import org.apache.james.imap.api.message.Capability;
+import org.apache.james.imap.api.message.response.StatusResponseFactory;
+import org.apache.james.imap.api.process.ImapProcessor;
+import org.apache.james.imap.api.process.ImapSession;
+import org.apache.james.imap.message.request.ThreadRequest;
+import org.apache.james.imap.message.response.ThreadResponse;
+import org.apache.james.mailbox.MailboxManager;
+import org.apache.james.mailbox.MessageManager;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.exception.MessageRangeException;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.util.MDCBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Implements RFC-5256 THREAD with the ORDEREDSUBJECT algorithm, relying on {@link MessageManager#searchThreads}.
+ */
+public class ThreadProcessor extends AbstractMailboxProcessor<ThreadRequest> implements CapabilityImplementingProcessor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ThreadProcessor.class);
+    private static final List<Capability> CAPS = ImmutableList.of(Capability.of("THREAD=ORDEREDSUBJECT"));
+
+    public ThreadProcessor(ImapProcessor next, MailboxManager mailboxManager, StatusResponseFactory factory,
+            MetricFactory metricFactory) {
+        super(ThreadRequest.class, next, mailboxManager, factory, metricFactory);
+    }
+
+    @Override
+    protected void processRequest(ThreadRequest request, ImapSession session, Responder responder) {
+        final boolean useUids = request.isUseUids();
+        try {
+            MessageManager mailbox = getSelectedMailbox(session)
+                .orElseThrow(() -> new MailboxException("Session not in SELECTED state"));
+
+            final List<List<MessageUid>> threads = mailbox.searchThreads(SearchProcessor.toQuery(request.getSearchKey(), session),
+                session.getMailboxSession());
+            final List<List<Long>> ids = threads.stream()
+                .map(thread -> ImmutableList.copyOf(SearchProcessor.asResults(session, useUids, thread)))
+                .filter(thread -> !thread.isEmpty())
+                .collect(Guavate.toImmutableList());
+
+            responder.respond(new ThreadResponse(ids));
+
+            boolean omitExpunged = (!useUids);
+            unsolicitedResponses(session, responder, omitExpunged, useUids);
+            okComplete(request, responder);
+        } catch (MessageRangeException e) {
+            LOGGER.debug("Thread failed in mailbox {} because of an invalid sequence-set ", session.getSelected().getMailboxId(), e);
+            taggedBad(request, responder, HumanReadableText.INVALID_MESSAGESET);
+        } catch (MailboxException e) {
+            LOGGER.error("Thread failed in mailbox {}", session.getSelected().getMailboxId(), e);
+            no(request, responder, HumanReadableText.SEARCH_FAILED);
+        } finally {
+            session.setAttribute(SearchProcessor.SEARCH_MODSEQ, null);
+        }
+    }
+
+    @Override
+    public List<Capability> getImplementedCapabilities(ImapSession session) {
+        return CAPS;
+    }
+
+    @Override
+    protected Closeable addContextToMDC(ThreadRequest request) {
+        return MDCBuilder.create()
+            .addContext(MDCBuilder.ACTION, "THREAD")
+            .addContext("useUid", request.isUseUids())
+            .addContext("searchKey", request.getSearchKey())
+            .build();
+    }
+}
@@ -34,7 +34,7 @@ class FetchDataConverter {
         FetchGroup result = FetchGroup.MINIMAL;
 
         if (fetch.contains(Item.ENVELOPE)) {
-            result = result.with(FetchGroup.Profile.HEADERS);
+            result = result.with(FetchGroup.Profile.ENVELOPE);
         }
         if (fetch.contains(Item.BODY) || fetch.contains(Item.BODY_STRUCTURE)) {
             result = result.with(FetchGroup.Profile.MIME_DESCRIPTOR);
@@ -0,0 +1,112 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.decode.parser;
+
+import static org.apache.james.imap.ImapFixture.TAG;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.james.imap.api.ImapConstants;
+import org.apache.james.imap.api.display.HumanReadableText;
+import org.apache.james.imap.api.message.request.SearchKey;
+import org.apache.james.imap.api.message.request.SortKey;
+import org.apache.james.imap.api.message.response.StatusResponse;
+import org.apache.james.imap.api.message.response.StatusResponseFactory;
+import org.apache.james.imap.decode.DecodingException;
+import org.apache.james.imap.decode.ImapRequestStreamLineReader;
+import org.apache.james.imap.encode.FakeImapSession;
+import org.apache.james.imap.message.request.SortRequest;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class SortCommandParserTest {
+    private StatusResponseFactory statusResponseFactory;
+    private SortCommandParser parser;
+
+    @Before
+    public void setUp() {
+        statusResponseFactory = mock(StatusResponseFactory.class);
+        parser = new SortCommandParser(statusResponseFactory);
+    }
+
+    @Test
+    public void decodeShouldParseSortCriteriaAndSearchKeys() throws Exception {
+        SortRequest request = (SortRequest) parser.decode(reader("(REVERSE DATE subject) UTF-8 ALL\r\n"), TAG, false, new FakeImapSession());
+
+        assertThat(request).isEqualTo(new SortRequest(
+            ImmutableList.of(SortKey.reverse(SortKey.Type.DATE), SortKey.natural(SortKey.Type.SUBJECT)),
+            SearchKey.buildAll(),
+            false,
+            TAG));
+    }
+
+    @Test
+    public void decodeShouldParseDisplaySortCriteria() throws Exception {
+        SortRequest request = (SortRequest) parser.decode(reader("(DISPLAYFROM REVERSE DISPLAYTO) US-ASCII SEEN FLAGGED\r\n"), TAG, true, new FakeImapSession());
+
+        assertThat(request).isEqualTo(new SortRequest(
+            ImmutableList.of(SortKey.natural(SortKey.Type.DISPLAYFROM), SortKey.reverse(SortKey.Type.DISPLAYTO)),
+            SearchKey.buildAnd(ImmutableList.of(SearchKey.buildSeen(), SearchKey.buildFlagged())),
+            true,
+            TAG));
+    }
+
+    @Test
+    public void decodeShouldThrowOnUnknownSortKey() {
+        assertThatThrownBy(() -> parser.decode(reader("(BOGUS) UTF-8 ALL\r\n"), TAG, false, new FakeImapSession()))
+            .isInstanceOf(DecodingException.class);
+    }
+
+    @Test
+    public void decodeShouldThrowOnEmptySortCriteria() {
+        assertThatThrownBy(() -> parser.decode(reader("() UTF-8 ALL\r\n"), TAG, false, new FakeImapSession()))
+            .isInstanceOf(DecodingException.class);
+    }
+
+    @Test
+    public void decodeShouldThrowWhenReverseIsNotFollowedBySortKey() {
+        assertThatThrownBy(() -> parser.decode(reader("(DATE REVERSE) UTF-8 ALL\r\n"), TAG, false, new FakeImapSession()))
+            .isInstanceOf(DecodingException.class);
+    }
+
+    @Test
+    public void decodeShouldRespondBadCharsetOnUnknownCharset() throws Exception {
+        parser.decode(reader("(DATE) BOGUS ALL\r\n"), TAG, false, new FakeImapSession());
+
+        verify(statusResponseFactory).taggedNo(
+            eq(TAG),
+            same(ImapConstants.SORT_COMMAND),
+            eq(HumanReadableText.BAD_CHARSET),
+            eq(StatusResponse.ResponseCode.badCharset()));
+    }
+
+    private ImapRequestStreamLineReader reader(String command) {
+        return new ImapRequestStreamLineReader(new ByteArrayInputStream(command.getBytes(StandardCharsets.US_ASCII)), null);
+    }
+}
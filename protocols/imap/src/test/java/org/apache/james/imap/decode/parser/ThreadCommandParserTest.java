@@ -0,0 +1,75 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.decode.parser;
+
+import static org.apache.james.imap.ImapFixture.TAG;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.james.imap.api.message.request.SearchKey;
+import org.apache.james.imap.api.message.response.StatusResponseFactory;
+import org.apache.james.imap.decode.DecodingException;
+import org.apache.james.imap.decode.ImapRequestStreamLineReader;
+import org.apache.james.imap.encode.FakeImapSession;
+import org.apache.james.imap.message.request.ThreadRequest;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class ThreadCommandParserTest {
+    private ThreadCommandParser parser;
+
+    @Before
+    public void setUp() {
+        parser = new ThreadCommandParser(mock(StatusResponseFactory.class));
+    }
+
+    @Test
+    public void decodeShouldParseOrderedSubjectThreading() throws Exception {
+        ThreadRequest request = (ThreadRequest) parser.decode(reader("ORDEREDSUBJECT UTF-8 ALL\r\n"), TAG, false, new FakeImapSession());
+
+        assertThat(request).isEqualTo(new ThreadRequest(SearchKey.buildAll(), false, TAG));
+    }
+
+    @Test
+    public void decodeShouldAcceptLowerCaseAlgorithm() throws Exception {
+        ThreadRequest request = (ThreadRequest) parser.decode(reader("orderedsubject US-ASCII SEEN FLAGGED\r\n"), TAG, true, new FakeImapSession());
+
+        assertThat(request).isEqualTo(new ThreadRequest(
+            SearchKey.buildAnd(ImmutableList.of(SearchKey.buildSeen(), SearchKey.buildFlagged())),
+            true,
+            TAG));
+    }
+
+    @Test
+    public void decodeShouldThrowOnUnsupportedAlgorithm() {
+        assertThatThrownBy(() -> parser.decode(reader("REFERENCES UTF-8 ALL\r\n"), TAG, false, new FakeImapSession()))
+            .isInstanceOf(DecodingException.class);
+    }
+
+    private ImapRequestStreamLineReader reader(String command) {
+        return new ImapRequestStreamLineReader(new ByteArrayInputStream(command.getBytes(StandardCharsets.US_ASCII)), null);
+    }
+}
@@ -0,0 +1,58 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.encode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.james.imap.encode.base.ByteImapResponseWriter;
+import org.apache.james.imap.encode.base.ImapResponseComposerImpl;
+import org.apache.james.imap.message.response.ThreadResponse;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class ThreadResponseEncoderTest {
+    private ThreadResponseEncoder encoder = new ThreadResponseEncoder();
+    private ByteImapResponseWriter writer = new ByteImapResponseWriter();
+    private ImapResponseComposer composer = new ImapResponseComposerImpl(writer);
+
+    @Test
+    public void acceptableMessagesShouldReturnThreadResponseClass() {
+        assertThat(encoder.acceptableMessages()).isEqualTo(ThreadResponse.class);
+    }
+
+    @Test
+    public void encodeShouldListChildrenAsSiblingsOfTheFirstMessage() throws Exception {
+        encoder.encode(new ThreadResponse(ImmutableList.of(
+                ImmutableList.of(3L),
+                ImmutableList.of(6L, 4L),
+                ImmutableList.of(44L, 7L, 96L))),
+            composer);
+
+        assertThat(writer.getString()).isEqualTo("* THREAD (3)(6 4)(44 (7)(96))\r\n");
+    }
+
+    @Test
+    public void encodeShouldSupportEmptyResults() throws Exception {
+        encoder.encode(new ThreadResponse(ImmutableList.of()), composer);
+
+        assertThat(writer.getString()).isEqualTo("* THREAD\r\n");
+    }
+}
@@ -23,7 +23,10 @@ import java.nio.charset.StandardCharsets;
 
 import org.reactivestreams.Publisher;
 
+import reactor.core.publisher.Flux;
+
 public interface BlobStore {
+    int DEFAULT_BULK_CONCURRENCY = 16;
 
     enum StoragePolicy {
         SIZE_BASED,
@@ -48,4 +51,36 @@ public interface BlobStore {
     Publisher<Void> deleteBucket(BucketName bucketName);
 
     Publisher<Void> delete(BucketName bucketName, BlobId blobId);
+
+    /**
+     * Saves several blobs with a bounded concurrency.
+     *
+     * @return the BlobIds of the saved blobs, in the order of the supplied data
+     */
+    default Publisher<BlobId> saveAll(BucketName bucketName, Publisher<byte[]> data, StoragePolicy storagePolicy) {
+        return Flux.from(data)
+            .flatMapSequential(bytes -> save(bucketName, bytes, storagePolicy), DEFAULT_BULK_CONCURRENCY);
+    }
+
+    /**
+     * Reads several blobs with a bounded concurrency.
+     *
+     * @return the content of the blobs, in the order of the supplied BlobIds, or an ObjectNotFoundException
+     *  in its error channel when one of them is not found
+     */
+    default Publisher<byte[]> readAll(BucketName bucketName, Publisher<BlobId> blobIds) {
+        return Flux.from(blobIds)
+            .flatMapSequential(blobId -> readBytes(bucketName, blobId), DEFAULT_BULK_CONCURRENCY);
+    }
+
+    /**
+     * Deletes several blobs. Implementations are encouraged to rely on the bulk operations of their backend.
+     *
+     * Like {@link #delete(BucketName, BlobId)}, deleting a missing blob is not an error.
+     */
+    default Publisher<Void> deleteAll(BucketName bucketName, Publisher<BlobId> blobIds) {
+        return Flux.from(blobIds)
+            .flatMap(blobId -> delete(bucketName, blobId), DEFAULT_BULK_CONCURRENCY)
+            .then();
+    }
 }
@@ -37,6 +37,9 @@ public class MetricableBlobStore implements BlobStore {
     static final String READ_TIMER_NAME = BLOB_STORE_METRIC_PREFIX + "read";
     static final String DELETE_TIMER_NAME = BLOB_STORE_METRIC_PREFIX + "delete";
     static final String DELETE_BUCKET_TIMER_NAME = BLOB_STORE_METRIC_PREFIX + "deleteBucket";
+    static final String SAVE_ALL_TIMER_NAME = BLOB_STORE_METRIC_PREFIX + "saveAll";
+    static final String READ_ALL_TIMER_NAME = BLOB_STORE_METRIC_PREFIX + "readAll";
+    static final String DELETE_ALL_TIMER_NAME = BLOB_STORE_METRIC_PREFIX + "deleteAll";
 
     private final MetricFactory metricFactory;
     private final BlobStore blobStoreImpl;
@@ -84,4 +87,19 @@ public class MetricableBlobStore implements BlobStore {
         return metricFactory.decoratePublisherWithTimerMetric(DELETE_TIMER_NAME, blobStoreImpl.delete(bucketName, blobId));
     }
 
+    @Override
+    public Publisher<BlobId> saveAll(BucketName bucketName, Publisher<byte[]> data, StoragePolicy storagePolicy) {
+        return metricFactory.decoratePublisherWithTimerMetric(SAVE_ALL_TIMER_NAME, blobStoreImpl.saveAll(bucketName, data, storagePolicy));
+    }
+
+    @Override
+    public Publisher<byte[]> readAll(BucketName bucketName, Publisher<BlobId> blobIds) {
+        return metricFactory.decoratePublisherWithTimerMetric(READ_ALL_TIMER_NAME, blobStoreImpl.readAll(bucketName, blobIds));
+    }
+
+    @Override
+    public Publisher<Void> deleteAll(BucketName bucketName, Publisher<BlobId> blobIds) {
+        return metricFactory.decoratePublisherWithTimerMetric(DELETE_ALL_TIMER_NAME, blobStoreImpl.deleteAll(bucketName, blobIds));
+    }
+
 }
@@ -0,0 +1,160 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.api;
+
+import static org.apache.james.blob.api.BlobStore.StoragePolicy.LOW_COST;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.base.Strings;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface BulkBlobStoreContract {
+
+    byte[] FIRST_BYTEARRAY = "first".getBytes(StandardCharsets.UTF_8);
+    byte[] SECOND_BYTEARRAY = Strings.repeat("0123456789\n", 1000).getBytes(StandardCharsets.UTF_8);
+    byte[] THIRD_BYTEARRAY = "third".getBytes(StandardCharsets.UTF_8);
+
+    BlobStore testee();
+
+    BlobId.Factory blobIdFactory();
+
+    @Test
+    default void saveAllShouldReturnBlobIdsInOrder() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        List<BlobId> blobIds = Flux.from(store.saveAll(defaultBucketName, Flux.just(FIRST_BYTEARRAY, SECOND_BYTEARRAY, THIRD_BYTEARRAY), LOW_COST))
+            .collectList()
+            .block();
+
+        assertThat(blobIds).containsExactly(
+            Mono.from(store.save(defaultBucketName, FIRST_BYTEARRAY, LOW_COST)).block(),
+            Mono.from(store.save(defaultBucketName, SECOND_BYTEARRAY, LOW_COST)).block(),
+            Mono.from(store.save(defaultBucketName, THIRD_BYTEARRAY, LOW_COST)).block());
+    }
+
+    @Test
+    default void saveAllShouldStoreContent() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        List<BlobId> blobIds = Flux.from(store.saveAll(defaultBucketName, Flux.just(FIRST_BYTEARRAY, SECOND_BYTEARRAY), LOW_COST))
+            .collectList()
+            .block();
+
+        assertThat(store.read(defaultBucketName, blobIds.get(1)))
+            .hasSameContentAs(new ByteArrayInputStream(SECOND_BYTEARRAY));
+    }
+
+    @Test
+    default void saveAllShouldAcceptEmptyPublisher() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        assertThat(Flux.from(store.saveAll(defaultBucketName, Flux.empty(), LOW_COST)).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    default void readAllShouldPreserveOrder() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+        BlobId first = Mono.from(store.save(defaultBucketName, FIRST_BYTEARRAY, LOW_COST)).block();
+        BlobId second = Mono.from(store.save(defaultBucketName, SECOND_BYTEARRAY, LOW_COST)).block();
+        BlobId third = Mono.from(store.save(defaultBucketName, THIRD_BYTEARRAY, LOW_COST)).block();
+
+        List<byte[]> contents = Flux.from(store.readAll(defaultBucketName, Flux.just(third, first, second)))
+            .collectList()
+            .block();
+
+        assertThat(contents).containsExactly(THIRD_BYTEARRAY, FIRST_BYTEARRAY, SECOND_BYTEARRAY);
+    }
+
+    @Test
+    default void readAllShouldFailWhenABlobIsMissing() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+        BlobId first = Mono.from(store.save(defaultBucketName, FIRST_BYTEARRAY, LOW_COST)).block();
+
+        assertThatThrownBy(() -> Flux.from(store.readAll(defaultBucketName, Flux.just(first, blobIdFactory().randomId())))
+                .collectList()
+                .block())
+            .isInstanceOf(ObjectStoreException.class);
+    }
+
+    @Test
+    default void deleteAllShouldDeleteAllBlobs() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+        BlobId first = Mono.from(store.save(defaultBucketName, FIRST_BYTEARRAY, LOW_COST)).block();
+        BlobId second = Mono.from(store.save(defaultBucketName, SECOND_BYTEARRAY, LOW_COST)).block();
+
+        Mono.from(store.deleteAll(defaultBucketName, Flux.just(first, second))).block();
+
+        assertThatThrownBy(() -> store.read(defaultBucketName, first).read())
+            .isInstanceOf(ObjectStoreException.class);
+        assertThatThrownBy(() -> store.read(defaultBucketName, second).read())
+            .isInstanceOf(ObjectStoreException.class);
+    }
+
+    @Test
+    default void deleteAllShouldNotDeleteOtherBlobs() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+        BlobId first = Mono.from(store.save(defaultBucketName, FIRST_BYTEARRAY, LOW_COST)).block();
+        BlobId third = Mono.from(store.save(defaultBucketName, THIRD_BYTEARRAY, LOW_COST)).block();
+
+        Mono.from(store.deleteAll(defaultBucketName, Flux.just(first))).block();
+
+        assertThat(store.read(defaultBucketName, third))
+            .hasSameContentAs(new ByteArrayInputStream(THIRD_BYTEARRAY));
+    }
+
+    @Test
+    default void deleteAllShouldNotFailWhenBlobsAreMissing() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        assertThatCode(() -> Mono.from(store.deleteAll(defaultBucketName, Flux.just(blobIdFactory().randomId(), blobIdFactory().randomId()))).block())
+            .doesNotThrowAnyException();
+    }
+
+    @Test
+    default void deleteAllShouldAcceptDuplicates() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+        BlobId first = Mono.from(store.save(defaultBucketName, FIRST_BYTEARRAY, LOW_COST)).block();
+
+        Mono.from(store.deleteAll(defaultBucketName, Flux.just(first, first))).block();
+
+        assertThatThrownBy(() -> store.read(defaultBucketName, first).read())
+            .isInstanceOf(ObjectStoreException.class);
+    }
+}
@@ -49,6 +49,13 @@ public interface BlobTables {
         String DATA = "data";
     }
 
+    interface ChunkReferencesTable {
+        String TABLE_NAME = "chunkReferences";
+        String BUCKET = "bucket";
+        String ID = "id";
+        String REFERENCES = "references";
+    }
+
     interface BlobStoreCache {
         String TABLE_NAME = "blob_cache";
         String ID = "id";
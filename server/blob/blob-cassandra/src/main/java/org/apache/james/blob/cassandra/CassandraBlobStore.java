@@ -30,6 +30,7 @@ import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.api.BlobStore;
 import org.apache.james.blob.api.BucketName;
 import org.apache.james.blob.api.HashBlobId;
+import org.reactivestreams.Publisher;
 
 import com.datastax.driver.core.Session;
 import com.github.fge.lambdas.Throwing;
@@ -39,6 +40,7 @@ import com.google.common.hash.Hashing;
 import com.google.common.hash.HashingInputStream;
 import com.google.common.io.FileBackedOutputStream;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.function.Tuples;
 
@@ -134,4 +136,12 @@ public class CassandraBlobStore implements BlobStore {
         return dumbBlobStore.delete(bucketName, blobId);
     }
 
+    @Override
+    public Mono<Void> deleteAll(BucketName bucketName, Publisher<BlobId> blobIds) {
+        Preconditions.checkNotNull(bucketName);
+        Preconditions.checkNotNull(blobIds);
+
+        return dumbBlobStore.deleteAll(bucketName, Flux.from(blobIds));
+    }
+
 }
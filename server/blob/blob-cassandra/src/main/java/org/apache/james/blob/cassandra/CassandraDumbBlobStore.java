@@ -49,6 +49,7 @@ public class CassandraDumbBlobStore implements DumbBlobStore {
 
     public static final String DEFAULT_BUCKET = "cassandraDefault";
     public static final boolean LAZY = false;
+    public static final int DELETE_CONCURRENCY = 8;
 
     private final CassandraDefaultBucketDAO defaultBucketDAO;
     private final CassandraBucketDAO bucketDAO;
@@ -154,16 +155,28 @@ public class CassandraDumbBlobStore implements DumbBlobStore {
         }
     }
 
+    /**
+     * Each blob spans two partitions (its part count and its parts), deleted in that order so that a failure never
+     * leaves a readable but incomplete blob. Duplicated BlobIds are deleted once, and the count of blobs being
+     * deleted at the same time is bounded to protect Cassandra.
+     */
+    public Mono<Void> deleteAll(BucketName bucketName, Flux<BlobId> blobIds) {
+        Preconditions.checkNotNull(bucketName);
+
+        return blobIds
+            .distinct()
+            .flatMap(blobId -> delete(bucketName, blobId), DELETE_CONCURRENCY)
+            .then();
+    }
+
     @Override
     public Mono<Void> deleteBucket(BucketName bucketName) {
         Preconditions.checkNotNull(bucketName);
         Preconditions.checkArgument(!isDefaultBucket(bucketName), "Deleting the default bucket is forbidden");
 
-        return bucketDAO.listAll()
+        return deleteAll(bucketName, bucketDAO.listAll()
             .filter(bucketNameBlobIdPair -> bucketNameBlobIdPair.getKey().equals(bucketName))
-            .map(Pair::getValue)
-            .flatMap(blobId -> delete(bucketName, blobId))
-            .then();
+            .map(Pair::getValue));
     }
 
     private Mono<ByteBuffer> readPart(BucketName bucketName, BlobId blobId, Integer partIndex) {
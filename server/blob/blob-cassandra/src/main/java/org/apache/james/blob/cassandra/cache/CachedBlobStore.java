@@ -42,6 +42,7 @@ import org.reactivestreams.Publisher;
 
 import com.google.common.base.Preconditions;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class CachedBlobStore implements BlobStore {
@@ -109,6 +110,11 @@ public class CachedBlobStore implements BlobStore {
     public static final String BLOBSTORE_CACHED_MISS_COUNT_METRIC_NAME = "blobStoreCacheMisses";
     public static final String BLOBSTORE_CACHED_HIT_COUNT_METRIC_NAME = "blobStoreCacheHits";
 
+    /**
+     * Count of BlobIds held in memory at once by {@link #deleteAll(BucketName, Publisher)}.
+     */
+    private static final int DELETE_WINDOW_SIZE = 1000;
+
     private final MetricFactory metricFactory;
     private final Metric metricRetrieveHitCount;
     private final Metric metricRetrieveMissCount;
@@ -208,6 +214,19 @@ public class CachedBlobStore implements BlobStore {
                 .then());
     }
 
+    @Override
+    public Mono<Void> deleteAll(BucketName bucketName, Publisher<BlobId> blobIds) {
+        return Flux.from(blobIds)
+            .buffer(DELETE_WINDOW_SIZE)
+            .concatMap(ids -> Mono.from(backend.deleteAll(bucketName, Flux.fromIterable(ids)))
+                .then(Mono.just(bucketName)
+                    .filter(backend.getDefaultBucketName()::equals)
+                    .flatMapMany(ignored -> Flux.fromIterable(ids))
+                    .flatMap(blobId -> Mono.from(cache.remove(blobId)), DEFAULT_BULK_CONCURRENCY)
+                    .then()))
+            .then();
+    }
+
     @Override
     public Publisher<Void> deleteBucket(BucketName bucketName) {
         return Mono.from(backend.deleteBucket(bucketName));
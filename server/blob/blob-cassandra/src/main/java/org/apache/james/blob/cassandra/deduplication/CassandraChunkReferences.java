@@ -0,0 +1,190 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cassandra.deduplication;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.delete;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.set;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.update;
+import static org.apache.james.blob.cassandra.BlobTables.ChunkReferencesTable.BUCKET;
+import static org.apache.james.blob.cassandra.BlobTables.ChunkReferencesTable.ID;
+import static org.apache.james.blob.cassandra.BlobTables.ChunkReferencesTable.REFERENCES;
+import static org.apache.james.blob.cassandra.BlobTables.ChunkReferencesTable.TABLE_NAME;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+import org.apache.james.backends.cassandra.init.configuration.CassandraConsistenciesConfiguration;
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.server.blob.deduplication.ChunkReferences;
+
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+/**
+ * {@link ChunkReferences} persisted in Cassandra.
+ *
+ * Counters can not be updated conditionally, hence counts are maintained with lightweight transactions. A count of
+ * zero marks a blob being deleted. Acquiring such a blob waits for the deletion to end, and takes the blob over if
+ * the deletion did not end once retries are exhausted, as its deleter is then assumed to have crashed.
+ */
+public class CassandraChunkReferences implements ChunkReferences {
+    private static final long DELETING = 0L;
+    private static final int MAX_RETRIES = 20;
+    private static final Duration FIRST_BACKOFF = Duration.ofMillis(10);
+    private static final Duration MAX_BACKOFF = Duration.ofMillis(500);
+    private static final String EXPECTED_REFERENCES = "expectedReferences";
+
+    private final CassandraAsyncExecutor cassandraAsyncExecutor;
+    private final ConsistencyLevel consistencyLevel;
+    private final PreparedStatement select;
+    private final PreparedStatement insert;
+    private final PreparedStatement update;
+    private final PreparedStatement forget;
+    private final PreparedStatement delete;
+    private final PreparedStatement listAll;
+
+    @Inject
+    public CassandraChunkReferences(Session session, CassandraConsistenciesConfiguration consistenciesConfiguration) {
+        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+        this.consistencyLevel = consistenciesConfiguration.getLightweightTransaction();
+        this.select = session.prepare(select(REFERENCES)
+            .from(TABLE_NAME)
+            .where(eq(BUCKET, bindMarker(BUCKET)))
+            .and(eq(ID, bindMarker(ID))));
+        this.insert = session.prepare(insertInto(TABLE_NAME)
+            .value(BUCKET, bindMarker(BUCKET))
+            .value(ID, bindMarker(ID))
+            .value(REFERENCES, 1L)
+            .ifNotExists());
+        this.update = session.prepare(update(TABLE_NAME)
+            .onlyIf(eq(REFERENCES, bindMarker(EXPECTED_REFERENCES)))
+            .with(set(REFERENCES, bindMarker(REFERENCES)))
+            .where(eq(BUCKET, bindMarker(BUCKET)))
+            .and(eq(ID, bindMarker(ID))));
+        this.forget = session.prepare(delete()
+            .from(TABLE_NAME)
+            .where(eq(BUCKET, bindMarker(BUCKET)))
+            .and(eq(ID, bindMarker(ID)))
+            .onlyIf(eq(REFERENCES, DELETING)));
+        this.delete = session.prepare(delete()
+            .from(TABLE_NAME)
+            .where(eq(BUCKET, bindMarker(BUCKET)))
+            .and(eq(ID, bindMarker(ID))));
+        this.listAll = session.prepare(select(BUCKET, ID)
+            .from(TABLE_NAME));
+    }
+
+    @Override
+    public Mono<Boolean> acquire(BucketName bucketName, BlobId blobId) {
+        return findReferences(bucketName, blobId)
+            .flatMap(maybeReferences -> maybeReferences
+                .map(references -> tryIncrement(bucketName, blobId, references))
+                .orElseGet(() -> tryInsert(bucketName, blobId)))
+            .single()
+            .retryWhen(Retry.backoff(MAX_RETRIES, FIRST_BACKOFF).maxBackoff(MAX_BACKOFF).scheduler(Schedulers.elastic()))
+            .onErrorResume(Exceptions::isRetryExhausted, e -> takeOver(bucketName, blobId)
+                .switchIfEmpty(Mono.error(e)));
+    }
+
+    private Mono<Boolean> tryIncrement(BucketName bucketName, BlobId blobId, long references) {
+        if (references == DELETING) {
+            return Mono.empty();
+        }
+        return tryUpdate(bucketName, blobId, references, references + 1)
+            .map(any -> false);
+    }
+
+    private Mono<Boolean> tryInsert(BucketName bucketName, BlobId blobId) {
+        return cassandraAsyncExecutor.executeReturnApplied(insert.bind()
+                .setString(BUCKET, bucketName.asString())
+                .setString(ID, blobId.asString()))
+            .filter(applied -> applied);
+    }
+
+    private Mono<Boolean> takeOver(BucketName bucketName, BlobId blobId) {
+        return tryUpdate(bucketName, blobId, DELETING, 1L);
+    }
+
+    @Override
+    public Mono<Boolean> release(BucketName bucketName, BlobId blobId) {
+        return findReferences(bucketName, blobId)
+            .flatMap(maybeReferences -> maybeReferences
+                .map(references -> tryDecrement(bucketName, blobId, references))
+                .orElseGet(() -> Mono.just(false)))
+            .single()
+            .retryWhen(Retry.backoff(MAX_RETRIES, FIRST_BACKOFF).maxBackoff(MAX_BACKOFF).scheduler(Schedulers.elastic()));
+    }
+
+    private Mono<Boolean> tryDecrement(BucketName bucketName, BlobId blobId, long references) {
+        if (references == DELETING) {
+            return Mono.just(false);
+        }
+        return tryUpdate(bucketName, blobId, references, references - 1)
+            .map(any -> references - 1 == DELETING);
+    }
+
+    private Mono<Boolean> tryUpdate(BucketName bucketName, BlobId blobId, long expectedReferences, long references) {
+        return cassandraAsyncExecutor.executeReturnApplied(update.bind()
+                .setString(BUCKET, bucketName.asString())
+                .setString(ID, blobId.asString())
+                .setLong(EXPECTED_REFERENCES, expectedReferences)
+                .setLong(REFERENCES, references))
+            .filter(applied -> applied);
+    }
+
+    private Mono<Optional<Long>> findReferences(BucketName bucketName, BlobId blobId) {
+        return cassandraAsyncExecutor.executeSingleRowOptional(select.bind()
+                .setString(BUCKET, bucketName.asString())
+                .setString(ID, blobId.asString())
+                .setConsistencyLevel(consistencyLevel))
+            .map(maybeRow -> maybeRow.map(row -> row.getLong(REFERENCES)));
+    }
+
+    @Override
+    public Mono<Void> forget(BucketName bucketName, BlobId blobId) {
+        return cassandraAsyncExecutor.executeVoid(forget.bind()
+            .setString(BUCKET, bucketName.asString())
+            .setString(ID, blobId.asString()));
+    }
+
+    @Override
+    public Mono<Void> deleteBucket(BucketName bucketName) {
+        return cassandraAsyncExecutor.executeRows(listAll.bind())
+            .filter(row -> row.getString(BUCKET).equals(bucketName.asString()))
+            .flatMap(row -> cassandraAsyncExecutor.executeVoid(delete.bind()
+                .setString(BUCKET, row.getString(BUCKET))
+                .setString(ID, row.getString(ID))))
+            .then();
+    }
+}
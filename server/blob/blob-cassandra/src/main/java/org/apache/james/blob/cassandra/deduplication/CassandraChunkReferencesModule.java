@@ -0,0 +1,42 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cassandra.deduplication;
+
+import static org.apache.james.blob.cassandra.BlobTables.ChunkReferencesTable.BUCKET;
+import static org.apache.james.blob.cassandra.BlobTables.ChunkReferencesTable.ID;
+import static org.apache.james.blob.cassandra.BlobTables.ChunkReferencesTable.REFERENCES;
+import static org.apache.james.blob.cassandra.BlobTables.ChunkReferencesTable.TABLE_NAME;
+
+import org.apache.james.backends.cassandra.components.CassandraModule;
+
+import com.datastax.driver.core.DataType;
+
+public interface CassandraChunkReferencesModule {
+    CassandraModule MODULE = CassandraModule
+        .builder()
+        .table(TABLE_NAME)
+        .comment("Counts the references held on the chunks and manifests of a chunking blob store. " +
+            "A count of zero marks a blob being deleted.")
+        .statement(statement -> statement
+            .addPartitionKey(BUCKET, DataType.text())
+            .addPartitionKey(ID, DataType.text())
+            .addColumn(REFERENCES, DataType.bigint()))
+        .build();
+}
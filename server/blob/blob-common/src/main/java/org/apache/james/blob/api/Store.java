@@ -20,10 +20,14 @@
 package org.apache.james.blob.api;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang3.tuple.Pair;
 
+import com.google.common.collect.ImmutableList;
+
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
@@ -91,12 +95,12 @@ public interface Store<T, I> {
 
         @Override
         public Mono<T> read(I blobIds) {
-            return Flux.fromIterable(blobIds.asMap().entrySet())
+            List<Map.Entry<BlobType, BlobId>> entries = ImmutableList.copyOf(blobIds.asMap().entrySet());
+
+            return Flux.from(blobStore.readAll(blobStore.getDefaultBucketName(), Flux.fromIterable(entries)
+                    .map(Map.Entry::getValue)))
                 .publishOn(Schedulers.elastic())
-                .flatMapSequential(
-                    entry -> Mono.from(blobStore.readBytes(blobStore.getDefaultBucketName(), entry.getValue()))
-                        .zipWith(Mono.just(entry.getKey())))
-                .map(entry -> Pair.of(entry.getT2(), entry.getT1()))
+                .zipWithIterable(entries, (bytes, entry) -> Pair.of(entry.getKey(), bytes))
                 .collectList()
                 .map(Collection::stream)
                 .map(decoder::decode);
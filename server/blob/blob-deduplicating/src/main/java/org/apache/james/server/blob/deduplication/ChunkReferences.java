@@ -0,0 +1,56 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.blob.deduplication;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BucketName;
+import org.reactivestreams.Publisher;
+
+/**
+ * Counts the references held on the chunks and manifests written by a {@link ChunkingBlobStore}.
+ *
+ * Releasing the last reference on a blob marks it as being deleted until {@link #forget} is called. Meanwhile
+ * {@link #acquire} waits, so that a blob is never deleted after an other owner stored it again.
+ *
+ * A blob acquired while its first owner is still storing it can be exposed before being fully stored.
+ */
+public interface ChunkReferences {
+    /**
+     * Records one more reference on the given blob, waiting while it is being deleted.
+     *
+     * @return true if this is the first reference, in which case the caller needs to store the blob
+     */
+    Publisher<Boolean> acquire(BucketName bucketName, BlobId blobId);
+
+    /**
+     * Drops one reference on the given blob. Releasing an unknown blob, or a blob being deleted, is a no-op.
+     *
+     * @return true if this was the last reference, in which case the caller needs to delete the blob then to
+     * {@link #forget} it
+     */
+    Publisher<Boolean> release(BucketName bucketName, BlobId blobId);
+
+    /**
+     * Ends the deletion of a blob whose last reference was released.
+     */
+    Publisher<Void> forget(BucketName bucketName, BlobId blobId);
+
+    Publisher<Void> deleteBucket(BucketName bucketName);
+}
@@ -0,0 +1,260 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.blob.deduplication;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.DumbBlobStore;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.blob.api.ObjectNotFoundException;
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.util.ReactorUtils;
+import org.reactivestreams.Publisher;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link BlobStore} deduplicating content at the chunk level on top of a {@link DumbBlobStore}.
+ *
+ * Blobs are split with {@link FastCDCChunker}. Each chunk is stored under the hash of its content prefixed by
+ * {@link #CHUNK_PREFIX}, hence chunks common to several blobs (for instance the same attachment body in several
+ * messages) are stored once.
+ *
+ * Every blob, whatever its size, is stored as a manifest listing its chunks, under the hash of its whole content.
+ * Chunks are thus never exposed as blobs, and a blob content is never interpreted as a manifest.
+ *
+ * Manifests and chunks are reference counted through {@link ChunkReferences}: deleting a blob releases its manifest,
+ * and releasing the last reference on a manifest releases its chunks. Chunks no longer referenced by any manifest
+ * are deleted.
+ */
+public class ChunkingBlobStore implements BlobStore {
+    public static final String CHUNK_PREFIX = "chunk-";
+
+    private static final String METRIC_PREFIX = "blobStore:chunking:";
+    public static final String LOGICAL_BYTES_METRIC_NAME = METRIC_PREFIX + "logicalBytes";
+    public static final String DEDUPLICATED_BYTES_METRIC_NAME = METRIC_PREFIX + "deduplicatedBytes";
+    public static final String CHUNK_COUNT_METRIC_NAME = METRIC_PREFIX + "chunks";
+
+    private static final int CHUNK_CONCURRENCY = 4;
+    private static final String MANIFEST_SEPARATOR = "\n";
+
+    private final DumbBlobStore dumbBlobStore;
+    private final ChunkReferences chunkReferences;
+    private final HashBlobId.Factory blobIdFactory;
+    private final BucketName defaultBucketName;
+    private final FastCDCChunker chunker;
+    private final Metric logicalBytes;
+    private final Metric deduplicatedBytes;
+    private final Metric chunkCount;
+
+    public ChunkingBlobStore(DumbBlobStore dumbBlobStore, ChunkReferences chunkReferences, HashBlobId.Factory blobIdFactory,
+                             BucketName defaultBucketName, ChunkingConfiguration configuration, MetricFactory metricFactory) {
+        this.dumbBlobStore = dumbBlobStore;
+        this.chunkReferences = chunkReferences;
+        this.blobIdFactory = blobIdFactory;
+        this.defaultBucketName = defaultBucketName;
+        this.chunker = new FastCDCChunker(configuration);
+        this.logicalBytes = metricFactory.generate(LOGICAL_BYTES_METRIC_NAME);
+        this.deduplicatedBytes = metricFactory.generate(DEDUPLICATED_BYTES_METRIC_NAME);
+        this.chunkCount = metricFactory.generate(CHUNK_COUNT_METRIC_NAME);
+    }
+
+    @Override
+    public Mono<BlobId> save(BucketName bucketName, byte[] data, StoragePolicy storagePolicy) {
+        Preconditions.checkNotNull(bucketName);
+        Preconditions.checkNotNull(data);
+
+        return save(bucketName, new ByteArrayInputStream(data), storagePolicy);
+    }
+
+    @Override
+    public Mono<BlobId> save(BucketName bucketName, InputStream data, StoragePolicy storagePolicy) {
+        Preconditions.checkNotNull(bucketName);
+        Preconditions.checkNotNull(data);
+
+        return Mono.fromCallable(() -> new HashingInputStream(Hashing.sha256(), data))
+            .flatMap(hashingInputStream -> chunker.chunk(hashingInputStream)
+                .flatMapSequential(chunk -> saveChunk(bucketName, chunk), CHUNK_CONCURRENCY)
+                .collect(Guavate.toImmutableList())
+                .flatMap(chunkIds -> saveManifest(bucketName, chunkIds,
+                    blobIdFactory.from(hashingInputStream.hash().toString()))));
+    }
+
+    private Mono<BlobId> saveChunk(BucketName bucketName, byte[] chunk) {
+        BlobId chunkId = blobIdFactory.from(CHUNK_PREFIX + blobIdFactory.forPayload(chunk).asString());
+
+        return acquire(bucketName, chunkId, dumbBlobStore.save(bucketName, chunkId, chunk))
+            .doOnNext(stored -> recordChunk(chunk.length, stored))
+            .thenReturn(chunkId);
+    }
+
+    /**
+     * Acquires a reference on the given blob, storing it if it was unreferenced.
+     *
+     * @return true if the blob was stored
+     */
+    private Mono<Boolean> acquire(BucketName bucketName, BlobId blobId, Publisher<Void> store) {
+        return Mono.from(chunkReferences.acquire(bucketName, blobId))
+            .flatMap(first -> {
+                if (!first) {
+                    return Mono.just(false);
+                }
+                return Mono.from(store)
+                    .thenReturn(true)
+                    .onErrorResume(e -> release(bucketName, blobId).then(Mono.error(e)));
+            });
+    }
+
+    /**
+     * Releases a reference on the given blob, deleting it if it is no longer referenced.
+     *
+     * @return true if the blob was deleted
+     */
+    private Mono<Boolean> release(BucketName bucketName, BlobId blobId) {
+        return Mono.from(chunkReferences.release(bucketName, blobId))
+            .flatMap(last -> {
+                if (!last) {
+                    return Mono.just(false);
+                }
+                // Always forget the blob, so that saving it again does not wait for a deletion that failed
+                return Mono.from(dumbBlobStore.delete(bucketName, blobId))
+                    .onErrorResume(e -> Mono.from(chunkReferences.forget(bucketName, blobId)).then(Mono.error(e)))
+                    .then(Mono.from(chunkReferences.forget(bucketName, blobId)))
+                    .thenReturn(true);
+            });
+    }
+
+    private void recordChunk(int length, boolean stored) {
+        logicalBytes.add(length);
+        chunkCount.increment();
+        if (!stored) {
+            deduplicatedBytes.add(length);
+        }
+    }
+
+    private Mono<BlobId> saveManifest(BucketName bucketName, List<BlobId> chunkIds, BlobId blobId) {
+        byte[] manifest = Joiner.on(MANIFEST_SEPARATOR)
+            .join(chunkIds.stream().map(BlobId::asString).iterator())
+            .getBytes(StandardCharsets.UTF_8);
+
+        return acquire(bucketName, blobId, dumbBlobStore.save(bucketName, blobId, manifest))
+            .flatMap(stored -> {
+                if (stored) {
+                    return Mono.empty();
+                }
+                // The existing manifest already holds references on these chunks
+                return releaseChunks(bucketName, chunkIds);
+            })
+            .thenReturn(blobId);
+    }
+
+    @Override
+    public Mono<byte[]> readBytes(BucketName bucketName, BlobId blobId) {
+        Preconditions.checkNotNull(bucketName);
+
+        return readChunks(bucketName, blobId)
+            .collectList()
+            .map(this::concat);
+    }
+
+    @Override
+    public InputStream read(BucketName bucketName, BlobId blobId) {
+        Preconditions.checkNotNull(bucketName);
+
+        return ReactorUtils.toInputStream(readChunks(bucketName, blobId)
+            .map(ByteBuffer::wrap));
+    }
+
+    private Flux<byte[]> readChunks(BucketName bucketName, BlobId blobId) {
+        return readManifest(bucketName, blobId)
+            .flatMapIterable(chunkIds -> chunkIds)
+            .flatMapSequential(chunkId -> dumbBlobStore.readBytes(bucketName, chunkId), CHUNK_CONCURRENCY);
+    }
+
+    private Mono<List<BlobId>> readManifest(BucketName bucketName, BlobId blobId) {
+        return Mono.from(dumbBlobStore.readBytes(bucketName, blobId))
+            .map(this::parseManifest);
+    }
+
+    private List<BlobId> parseManifest(byte[] manifest) {
+        return Splitter.on(MANIFEST_SEPARATOR)
+            .omitEmptyStrings()
+            .splitToList(new String(manifest, StandardCharsets.UTF_8))
+            .stream()
+            .map(blobIdFactory::from)
+            .collect(Guavate.toImmutableList());
+    }
+
+    private byte[] concat(List<byte[]> chunks) {
+        int size = chunks.stream()
+            .mapToInt(chunk -> chunk.length)
+            .sum();
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        chunks.forEach(buffer::put);
+        return buffer.array();
+    }
+
+    @Override
+    public BucketName getDefaultBucketName() {
+        return defaultBucketName;
+    }
+
+    @Override
+    public Mono<Void> deleteBucket(BucketName bucketName) {
+        Preconditions.checkNotNull(bucketName);
+
+        return Mono.from(dumbBlobStore.deleteBucket(bucketName))
+            .then(Mono.from(chunkReferences.deleteBucket(bucketName)));
+    }
+
+    @Override
+    public Mono<Void> delete(BucketName bucketName, BlobId blobId) {
+        Preconditions.checkNotNull(bucketName);
+        Preconditions.checkNotNull(blobId);
+
+        return readManifest(bucketName, blobId)
+            .onErrorResume(ObjectNotFoundException.class, e -> Mono.empty())
+            .flatMap(chunkIds -> release(bucketName, blobId)
+                .filter(deleted -> deleted)
+                .flatMap(any -> releaseChunks(bucketName, chunkIds)));
+    }
+
+    private Mono<Void> releaseChunks(BucketName bucketName, List<BlobId> chunkIds) {
+        return Flux.fromIterable(chunkIds)
+            .flatMap(chunkId -> release(bucketName, chunkId), CHUNK_CONCURRENCY)
+            .then();
+    }
+}
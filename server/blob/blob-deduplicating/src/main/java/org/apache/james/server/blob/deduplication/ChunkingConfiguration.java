@@ -0,0 +1,86 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.blob.deduplication;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import com.google.common.base.Preconditions;
+
+public class ChunkingConfiguration {
+    public static final int DEFAULT_MIN_CHUNK_SIZE = 2 * 1024;
+    public static final int DEFAULT_AVERAGE_CHUNK_SIZE = 8 * 1024;
+    public static final int DEFAULT_MAX_CHUNK_SIZE = 64 * 1024;
+    public static final ChunkingConfiguration DEFAULT = new ChunkingConfiguration(DEFAULT_MIN_CHUNK_SIZE, DEFAULT_AVERAGE_CHUNK_SIZE, DEFAULT_MAX_CHUNK_SIZE);
+
+    public static ChunkingConfiguration from(org.apache.commons.configuration2.Configuration propertiesConfiguration) {
+        return new ChunkingConfiguration(
+            Optional.ofNullable(propertiesConfiguration.getInteger("deduplication.chunking.min.size", null))
+                .orElse(DEFAULT_MIN_CHUNK_SIZE),
+            Optional.ofNullable(propertiesConfiguration.getInteger("deduplication.chunking.average.size", null))
+                .orElse(DEFAULT_AVERAGE_CHUNK_SIZE),
+            Optional.ofNullable(propertiesConfiguration.getInteger("deduplication.chunking.max.size", null))
+                .orElse(DEFAULT_MAX_CHUNK_SIZE));
+    }
+
+    private final int minChunkSize;
+    private final int averageChunkSize;
+    private final int maxChunkSize;
+
+    public ChunkingConfiguration(int minChunkSize, int averageChunkSize, int maxChunkSize) {
+        Preconditions.checkArgument(minChunkSize > 0, "'minChunkSize' needs to be strictly positive");
+        Preconditions.checkArgument(Integer.bitCount(averageChunkSize) == 1, "'averageChunkSize' needs to be a power of two");
+        Preconditions.checkArgument(minChunkSize < averageChunkSize, "'minChunkSize' needs to be smaller than 'averageChunkSize'");
+        Preconditions.checkArgument(averageChunkSize < maxChunkSize, "'averageChunkSize' needs to be smaller than 'maxChunkSize'");
+
+        this.minChunkSize = minChunkSize;
+        this.averageChunkSize = averageChunkSize;
+        this.maxChunkSize = maxChunkSize;
+    }
+
+    public int getMinChunkSize() {
+        return minChunkSize;
+    }
+
+    public int getAverageChunkSize() {
+        return averageChunkSize;
+    }
+
+    public int getMaxChunkSize() {
+        return maxChunkSize;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof ChunkingConfiguration) {
+            ChunkingConfiguration that = (ChunkingConfiguration) o;
+
+            return Objects.equals(this.minChunkSize, that.minChunkSize)
+                && Objects.equals(this.averageChunkSize, that.averageChunkSize)
+                && Objects.equals(this.maxChunkSize, that.maxChunkSize);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(minChunkSize, averageChunkSize, maxChunkSize);
+    }
+}
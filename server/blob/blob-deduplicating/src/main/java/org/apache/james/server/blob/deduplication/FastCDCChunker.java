@@ -0,0 +1,148 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.blob.deduplication;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.commons.io.IOUtils;
+
+import com.google.common.base.Preconditions;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Content defined chunking relying on the FastCDC algorithm (Xia et al., USENIX ATC 2016).
+ *
+ * A rolling Gear hash is computed over the content and a chunk boundary is declared when the masked hash is zero.
+ * Boundaries thus only depend on the surrounding bytes: inserting or removing a few bytes only changes the
+ * neighbouring chunks, allowing deduplication of content that is not strictly identical.
+ *
+ * Normalized chunking is used: a stricter mask is applied before the average size is reached, and a looser one after,
+ * which narrows the chunk size distribution.
+ */
+public class FastCDCChunker {
+    private static final long GEAR_SEED = 0x4a616d6573L;
+    private static final long[] GEAR = gearTable();
+
+    private static long[] gearTable() {
+        // java.util.Random algorithm is specified, which guaranties the table, hence chunk boundaries, to be stable
+        Random random = new Random(GEAR_SEED);
+        long[] table = new long[256];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = random.nextLong();
+        }
+        return table;
+    }
+
+    private static long mask(int bitCount) {
+        return ((1L << bitCount) - 1) << (Long.SIZE - bitCount);
+    }
+
+    private final ChunkingConfiguration configuration;
+    private final long smallChunkMask;
+    private final long largeChunkMask;
+
+    public FastCDCChunker(ChunkingConfiguration configuration) {
+        this.configuration = configuration;
+        int averageBits = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(configuration.getAverageChunkSize());
+        this.smallChunkMask = mask(averageBits + 1);
+        this.largeChunkMask = mask(averageBits - 1);
+    }
+
+    public Flux<byte[]> chunk(InputStream inputStream) {
+        Preconditions.checkNotNull(inputStream);
+
+        return Flux.generate(
+            () -> new Buffer(configuration.getMaxChunkSize()),
+            (buffer, sink) -> {
+                try {
+                    buffer.fill(inputStream);
+                    if (buffer.isEmpty()) {
+                        sink.complete();
+                    } else {
+                        sink.next(buffer.take(cut(buffer.data, buffer.length)));
+                    }
+                } catch (IOException e) {
+                    sink.error(e);
+                }
+                return buffer;
+            });
+    }
+
+    /**
+     * @return the length of the chunk starting at the beginning of data
+     */
+    int cut(byte[] data, int length) {
+        if (length <= configuration.getMinChunkSize()) {
+            return length;
+        }
+        int normalSize = Math.min(configuration.getAverageChunkSize(), length);
+        int maxSize = Math.min(configuration.getMaxChunkSize(), length);
+        long hash = 0;
+        int position = configuration.getMinChunkSize();
+        for (; position < normalSize; position++) {
+            hash = (hash << 1) + GEAR[data[position] & 0xff];
+            if ((hash & smallChunkMask) == 0) {
+                return position + 1;
+            }
+        }
+        for (; position < maxSize; position++) {
+            hash = (hash << 1) + GEAR[data[position] & 0xff];
+            if ((hash & largeChunkMask) == 0) {
+                return position + 1;
+            }
+        }
+        return maxSize;
+    }
+
+    private static class Buffer {
+        private final byte[] data;
+        private int length;
+        private boolean exhausted;
+
+        Buffer(int capacity) {
+            this.data = new byte[capacity];
+            this.length = 0;
+            this.exhausted = false;
+        }
+
+        void fill(InputStream inputStream) throws IOException {
+            if (!exhausted && length < data.length) {
+                int read = IOUtils.read(inputStream, data, length, data.length - length);
+                length += read;
+                exhausted = length < data.length;
+            }
+        }
+
+        boolean isEmpty() {
+            return length == 0;
+        }
+
+        byte[] take(int chunkLength) {
+            byte[] chunk = Arrays.copyOf(data, chunkLength);
+            System.arraycopy(data, chunkLength, data, 0, length - chunkLength);
+            length -= chunkLength;
+            return chunk;
+        }
+    }
+}
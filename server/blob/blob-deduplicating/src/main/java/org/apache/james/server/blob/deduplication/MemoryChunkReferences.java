@@ -0,0 +1,109 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.blob.deduplication;
+
+import static org.apache.james.util.ReactorUtils.publishIfPresent;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BucketName;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+/**
+ * In memory {@link ChunkReferences}. A blob being deleted is tracked with a count of zero.
+ */
+public class MemoryChunkReferences implements ChunkReferences {
+    private static final long DELETING = 0L;
+    private static final int MAX_RETRIES = 10;
+    private static final Duration FIRST_BACKOFF = Duration.ofMillis(10);
+
+    private final ConcurrentHashMap<BucketName, ConcurrentHashMap<BlobId, Long>> references;
+
+    public MemoryChunkReferences() {
+        this.references = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Mono<Boolean> acquire(BucketName bucketName, BlobId blobId) {
+        return Mono.fromCallable(() -> tryAcquire(bucketName, blobId))
+            .handle(publishIfPresent())
+            .single()
+            .retryWhen(Retry.backoff(MAX_RETRIES, FIRST_BACKOFF).scheduler(Schedulers.elastic()));
+    }
+
+    private Optional<Boolean> tryAcquire(BucketName bucketName, BlobId blobId) {
+        long count = references.computeIfAbsent(bucketName, any -> new ConcurrentHashMap<>())
+            .compute(blobId, (key, previousCount) -> {
+                if (previousCount == null) {
+                    return 1L;
+                }
+                if (previousCount == DELETING) {
+                    return DELETING;
+                }
+                return previousCount + 1;
+            });
+        if (count == DELETING) {
+            return Optional.empty();
+        }
+        return Optional.of(count == 1L);
+    }
+
+    @Override
+    public Mono<Boolean> release(BucketName bucketName, BlobId blobId) {
+        return Mono.fromCallable(() -> {
+            ConcurrentHashMap<BlobId, Long> bucketReferences = references.get(bucketName);
+            if (bucketReferences == null) {
+                return false;
+            }
+            AtomicBoolean last = new AtomicBoolean(false);
+            bucketReferences.computeIfPresent(blobId, (key, count) -> {
+                if (count == 1L) {
+                    last.set(true);
+                    return DELETING;
+                }
+                return Math.max(count - 1, DELETING);
+            });
+            return last.get();
+        });
+    }
+
+    @Override
+    public Mono<Void> forget(BucketName bucketName, BlobId blobId) {
+        return Mono.fromRunnable(() -> Optional.ofNullable(references.get(bucketName))
+            .ifPresent(bucketReferences -> bucketReferences.remove(blobId, DELETING)));
+    }
+
+    @Override
+    public Mono<Void> deleteBucket(BucketName bucketName) {
+        return Mono.fromRunnable(() -> references.remove(bucketName));
+    }
+
+    long referenceCount(BucketName bucketName, BlobId blobId) {
+        return references.getOrDefault(bucketName, new ConcurrentHashMap<>())
+            .getOrDefault(blobId, 0L);
+    }
+}
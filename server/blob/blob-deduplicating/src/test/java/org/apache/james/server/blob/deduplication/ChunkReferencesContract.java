@@ -0,0 +1,168 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.blob.deduplication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.HashBlobId;
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ChunkReferencesContract {
+    BucketName BUCKET = BucketName.DEFAULT;
+    BucketName CUSTOM = BucketName.of("custom");
+    BlobId BLOB_ID = new HashBlobId.Factory().from("chunk-id");
+
+    ChunkReferences testee();
+
+    @Test
+    default void acquireShouldReportTheFirstReference() {
+        assertThat(Mono.from(testee().acquire(BUCKET, BLOB_ID)).block()).isTrue();
+    }
+
+    @Test
+    default void acquireShouldNotReportFollowingReferencesAsFirst() {
+        Mono.from(testee().acquire(BUCKET, BLOB_ID)).block();
+
+        assertThat(Mono.from(testee().acquire(BUCKET, BLOB_ID)).block()).isFalse();
+    }
+
+    @Test
+    default void acquireShouldBeScopedByBucket() {
+        Mono.from(testee().acquire(BUCKET, BLOB_ID)).block();
+
+        assertThat(Mono.from(testee().acquire(CUSTOM, BLOB_ID)).block()).isTrue();
+    }
+
+    @Test
+    default void releaseShouldBeANoopForUnknownBlobs() {
+        assertThat(Mono.from(testee().release(BUCKET, BLOB_ID)).block()).isFalse();
+    }
+
+    @Test
+    default void releaseShouldNotReportTheLastReferenceWhenOthersRemain() {
+        Mono.from(testee().acquire(BUCKET, BLOB_ID)).block();
+        Mono.from(testee().acquire(BUCKET, BLOB_ID)).block();
+
+        assertThat(Mono.from(testee().release(BUCKET, BLOB_ID)).block()).isFalse();
+    }
+
+    @Test
+    default void releaseShouldReportTheLastReference() {
+        Mono.from(testee().acquire(BUCKET, BLOB_ID)).block();
+        Mono.from(testee().acquire(BUCKET, BLOB_ID)).block();
+        Mono.from(testee().release(BUCKET, BLOB_ID)).block();
+
+        assertThat(Mono.from(testee().release(BUCKET, BLOB_ID)).block()).isTrue();
+    }
+
+    @Test
+    default void releaseShouldBeANoopWhileDeleting() {
+        Mono.from(testee().acquire(BUCKET, BLOB_ID)).block();
+        Mono.from(testee().release(BUCKET, BLOB_ID)).block();
+
+        assertThat(Mono.from(testee().release(BUCKET, BLOB_ID)).block()).isFalse();
+    }
+
+    @Test
+    default void acquireShouldReportTheFirstReferenceAfterForget() {
+        Mono.from(testee().acquire(BUCKET, BLOB_ID)).block();
+        Mono.from(testee().release(BUCKET, BLOB_ID)).block();
+        Mono.from(testee().forget(BUCKET, BLOB_ID)).block();
+
+        assertThat(Mono.from(testee().acquire(BUCKET, BLOB_ID)).block()).isTrue();
+    }
+
+    @Test
+    default void acquireShouldWaitForTheDeletionToEnd() throws Exception {
+        Mono.from(testee().acquire(BUCKET, BLOB_ID)).block();
+        Mono.from(testee().release(BUCKET, BLOB_ID)).block();
+
+        CompletableFuture<Boolean> acquisition = Mono.from(testee().acquire(BUCKET, BLOB_ID)).toFuture();
+        Thread.sleep(50);
+        assertThat(acquisition).isNotDone();
+
+        Mono.from(testee().forget(BUCKET, BLOB_ID)).block();
+
+        assertThat(acquisition.get()).isTrue();
+    }
+
+    @Test
+    default void forgetShouldNotDropReferencedBlobs() {
+        Mono.from(testee().acquire(BUCKET, BLOB_ID)).block();
+        Mono.from(testee().forget(BUCKET, BLOB_ID)).block();
+
+        assertThat(Mono.from(testee().acquire(BUCKET, BLOB_ID)).block()).isFalse();
+    }
+
+    @Test
+    default void deleteBucketShouldDropItsReferences() {
+        Mono.from(testee().acquire(CUSTOM, BLOB_ID)).block();
+
+        Mono.from(testee().deleteBucket(CUSTOM)).block();
+
+        assertThat(Mono.from(testee().acquire(CUSTOM, BLOB_ID)).block()).isTrue();
+    }
+
+    @Test
+    default void deleteBucketShouldNotDropOtherBucketsReferences() {
+        Mono.from(testee().acquire(BUCKET, BLOB_ID)).block();
+
+        Mono.from(testee().deleteBucket(CUSTOM)).block();
+
+        assertThat(Mono.from(testee().acquire(BUCKET, BLOB_ID)).block()).isFalse();
+    }
+
+    @Test
+    default void concurrentAcquisitionsShouldReportASingleFirstReference() {
+        int acquisitionCount = 20;
+
+        Long firstReferences = Flux.range(0, acquisitionCount)
+            .flatMap(i -> testee().acquire(BUCKET, BLOB_ID))
+            .filter(first -> first)
+            .count()
+            .block(Duration.ofMinutes(1));
+
+        assertThat(firstReferences).isEqualTo(1);
+    }
+
+    @Test
+    default void concurrentReleasesShouldReportASingleLastReference() {
+        int referenceCount = 20;
+        Flux.range(0, referenceCount)
+            .concatMap(i -> testee().acquire(BUCKET, BLOB_ID))
+            .blockLast();
+
+        Long lastReferences = Flux.range(0, referenceCount)
+            .flatMap(i -> testee().release(BUCKET, BLOB_ID))
+            .filter(last -> last)
+            .count()
+            .block(Duration.ofMinutes(1));
+
+        assertThat(lastReferences).isEqualTo(1);
+    }
+}
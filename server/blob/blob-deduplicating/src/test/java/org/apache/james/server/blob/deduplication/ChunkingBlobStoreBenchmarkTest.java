@@ -0,0 +1,117 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.blob.deduplication;
+
+import static org.apache.james.blob.api.BlobStore.StoragePolicy.LOW_COST;
+import static org.apache.james.server.blob.deduplication.FastCDCChunkerTest.randomBytes;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.blob.memory.MemoryDumbBlobStore;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.base.Stopwatch;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Measures the deduplication ratio and the throughput of the {@link ChunkingBlobStore} over a synthetic mailing list
+ * corpus. Only run with the 'stress' maven profile.
+ *
+ * Each post of the corpus is delivered to every subscriber with its own headers. Replies quote the post they answer,
+ * and some posts carry an attachment that was already posted.
+ */
+class ChunkingBlobStoreBenchmarkTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChunkingBlobStoreBenchmarkTest.class);
+    private static final BucketName BUCKET = BucketName.DEFAULT;
+
+    private static final int THREAD_COUNT = 50;
+    private static final int POSTS_PER_THREAD = 10;
+    private static final int SUBSCRIBER_COUNT = 20;
+    private static final int ATTACHMENT_COUNT = 5;
+    private static final int SAVE_CONCURRENCY = 8;
+
+    @Test
+    @EnabledIfSystemProperty(named = "james.stress.tests", matches = "true")
+    void mailingListCorpusDeduplicationBenchmark() {
+        RecordingMetricFactory metricFactory = new RecordingMetricFactory();
+        ChunkingBlobStore testee = new ChunkingBlobStore(new MemoryDumbBlobStore(), new MemoryChunkReferences(),
+            new HashBlobId.Factory(), BUCKET, ChunkingConfiguration.DEFAULT, metricFactory);
+        List<String> attachments = IntStream.range(0, ATTACHMENT_COUNT)
+            .mapToObj(i -> Base64.getMimeEncoder().encodeToString(randomBytes(1024 * 1024, i)))
+            .collect(Guavate.toImmutableList());
+
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        Long savedMessages = Flux.range(0, THREAD_COUNT)
+            .concatMap(thread -> Flux.range(0, POSTS_PER_THREAD)
+                .map(post -> post(thread, post, attachments)))
+            .flatMapIterable(post -> IntStream.range(0, SUBSCRIBER_COUNT)
+                .mapToObj(subscriber -> delivery(post, subscriber))
+                .collect(Guavate.toImmutableList()))
+            .flatMap(message -> testee.save(BUCKET, message, LOW_COST), SAVE_CONCURRENCY)
+            .count()
+            .block();
+        long elapsedMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+
+        long logicalBytes = metricFactory.countFor(ChunkingBlobStore.LOGICAL_BYTES_METRIC_NAME);
+        long deduplicatedBytes = metricFactory.countFor(ChunkingBlobStore.DEDUPLICATED_BYTES_METRIC_NAME);
+        double deduplicationRatio = (double) deduplicatedBytes / logicalBytes;
+        LOGGER.info("Saved {} messages ({} bytes) in {} ms ({} MB/s), {} bytes deduplicated (ratio {})",
+            savedMessages, logicalBytes, elapsedMillis, logicalBytes / 1000 / Math.max(elapsedMillis, 1),
+            deduplicatedBytes, deduplicationRatio);
+        assertThat(deduplicationRatio).isGreaterThan(0.9);
+    }
+
+    private String post(int thread, int post, List<String> attachments) {
+        StringBuilder body = new StringBuilder()
+            .append("Subject: Thread ").append(thread).append("\r\n")
+            .append("Content-Type: multipart/mixed; boundary=\"boundary\"\r\n\r\n")
+            .append("--boundary\r\nContent-Type: text/plain\r\n\r\n");
+        for (int quoted = post; quoted >= 0; quoted--) {
+            body.append("> ".repeat(post - quoted))
+                .append("Post ").append(quoted).append(" of thread ").append(thread).append(" ")
+                .append(Base64.getEncoder().encodeToString(randomBytes(2000, thread * POSTS_PER_THREAD + quoted)))
+                .append("\r\n");
+        }
+        if ((thread + post) % 3 == 0) {
+            body.append("--boundary\r\nContent-Type: application/pdf\r\nContent-Transfer-Encoding: base64\r\n\r\n")
+                .append(attachments.get((thread + post) % attachments.size()))
+                .append("\r\n");
+        }
+        return body.append("--boundary--\r\n").toString();
+    }
+
+    private byte[] delivery(String post, int subscriber) {
+        return ("Delivered-To: subscriber" + subscriber + "@domain.tld\r\n" + post)
+            .getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,277 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.blob.deduplication;
+
+import static org.apache.james.blob.api.BlobStore.StoragePolicy.LOW_COST;
+import static org.apache.james.server.blob.deduplication.FastCDCChunkerTest.randomBytes;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.api.BlobStoreContract;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.blob.api.ObjectNotFoundException;
+import org.apache.james.blob.memory.MemoryDumbBlobStore;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.base.Splitter;
+import com.google.common.primitives.Bytes;
+
+import reactor.core.publisher.Mono;
+
+class ChunkingBlobStoreTest implements BlobStoreContract {
+    private static final BucketName BUCKET = BucketName.DEFAULT;
+    private static final ChunkingConfiguration CONFIGURATION = new ChunkingConfiguration(256, 1024, 4096);
+
+    private MemoryDumbBlobStore dumbBlobStore;
+    private MemoryChunkReferences chunkReferences;
+    private RecordingMetricFactory metricFactory;
+    private ChunkingBlobStore testee;
+
+    @BeforeEach
+    void setUp() {
+        dumbBlobStore = new MemoryDumbBlobStore();
+        chunkReferences = new MemoryChunkReferences();
+        metricFactory = new RecordingMetricFactory();
+        testee = new ChunkingBlobStore(dumbBlobStore, chunkReferences, new HashBlobId.Factory(), BUCKET, CONFIGURATION, metricFactory);
+    }
+
+    @Override
+    public BlobStore testee() {
+        return testee;
+    }
+
+    @Override
+    public BlobId.Factory blobIdFactory() {
+        return new HashBlobId.Factory();
+    }
+
+    private List<BlobId> chunksOf(BlobId blobId) {
+        byte[] manifest = Mono.from(dumbBlobStore.readBytes(BUCKET, blobId)).block();
+        return Splitter.on('\n')
+            .omitEmptyStrings()
+            .splitToList(new String(manifest, StandardCharsets.UTF_8))
+            .stream()
+            .map(blobIdFactory()::from)
+            .collect(Guavate.toImmutableList());
+    }
+
+    private boolean isStored(BlobId blobId) {
+        return Mono.from(dumbBlobStore.readBytes(BUCKET, blobId))
+            .map(any -> true)
+            .onErrorResume(ObjectNotFoundException.class, e -> Mono.just(false))
+            .block();
+    }
+
+    @Test
+    void readBytesShouldReturnSavedEmptyContent() {
+        BlobId blobId = testee.save(BUCKET, new byte[0], LOW_COST).block();
+
+        assertThat(testee.readBytes(BUCKET, blobId).block()).isEmpty();
+    }
+
+    @Test
+    void readBytesShouldReturnSavedSingleChunkContent() {
+        byte[] content = "small content".getBytes(StandardCharsets.UTF_8);
+
+        BlobId blobId = testee.save(BUCKET, content, LOW_COST).block();
+
+        assertThat(testee.readBytes(BUCKET, blobId).block()).isEqualTo(content);
+    }
+
+    @Test
+    void singleChunkContentShouldBeStoredBehindAManifest() {
+        byte[] content = "small content".getBytes(StandardCharsets.UTF_8);
+
+        BlobId blobId = testee.save(BUCKET, content, LOW_COST).block();
+
+        assertThat(chunksOf(blobId)).hasSize(1);
+    }
+
+    @Test
+    void deleteShouldDeleteSingleChunkContent() {
+        byte[] content = "small content".getBytes(StandardCharsets.UTF_8);
+        BlobId blobId = testee.save(BUCKET, content, LOW_COST).block();
+        List<BlobId> chunks = chunksOf(blobId);
+
+        testee.delete(BUCKET, blobId).block();
+
+        assertThatThrownBy(() -> testee.readBytes(BUCKET, blobId).block())
+            .isInstanceOf(ObjectNotFoundException.class);
+        assertThat(chunks).noneMatch(this::isStored);
+    }
+
+    @Test
+    void readBytesShouldReturnSavedMultiChunkContent() {
+        byte[] content = randomBytes(100_000, 1);
+
+        BlobId blobId = testee.save(BUCKET, content, LOW_COST).block();
+
+        assertThat(testee.readBytes(BUCKET, blobId).block()).isEqualTo(content);
+    }
+
+    @Test
+    void readShouldReturnSavedMultiChunkContent() {
+        byte[] content = randomBytes(100_000, 1);
+
+        BlobId blobId = testee.save(BUCKET, new ByteArrayInputStream(content), LOW_COST).block();
+
+        assertThat(testee.read(BUCKET, blobId)).hasSameContentAs(new ByteArrayInputStream(content));
+    }
+
+    @Test
+    void saveShouldReturnTheSameIdForTheSameContent() {
+        byte[] content = randomBytes(100_000, 1);
+
+        BlobId blobId1 = testee.save(BUCKET, content, LOW_COST).block();
+        BlobId blobId2 = testee.save(BUCKET, new ByteArrayInputStream(content), LOW_COST).block();
+
+        assertThat(blobId1).isEqualTo(blobId2);
+    }
+
+    @Test
+    void manifestContentShouldNotBeInterpretedWhenStoredAsARegularBlob() {
+        byte[] content = randomBytes(100_000, 1);
+        BlobId manifestId = testee.save(BUCKET, content, LOW_COST).block();
+        byte[] manifest = Mono.from(dumbBlobStore.readBytes(BUCKET, manifestId)).block();
+
+        BlobId blobId = testee.save(BUCKET, manifest, LOW_COST).block();
+
+        assertThat(testee.readBytes(BUCKET, blobId).block()).isEqualTo(manifest);
+    }
+
+    @Test
+    void deleteShouldDeleteTheManifest() {
+        byte[] content = randomBytes(100_000, 1);
+        BlobId blobId = testee.save(BUCKET, content, LOW_COST).block();
+
+        testee.delete(BUCKET, blobId).block();
+
+        assertThatThrownBy(() -> testee.readBytes(BUCKET, blobId).block())
+            .isInstanceOf(ObjectNotFoundException.class);
+    }
+
+    @Test
+    void deleteShouldReclaimUnreferencedChunks() {
+        byte[] content = randomBytes(100_000, 1);
+        BlobId blobId = testee.save(BUCKET, content, LOW_COST).block();
+        List<BlobId> chunks = chunksOf(blobId);
+
+        testee.delete(BUCKET, blobId).block();
+
+        assertThat(chunks).noneMatch(this::isStored);
+    }
+
+    @Test
+    void deleteShouldKeepChunksReferencedByOtherBlobs() {
+        byte[] shared = randomBytes(100_000, 1);
+        BlobId blobId1 = testee.save(BUCKET, Bytes.concat("first".getBytes(StandardCharsets.UTF_8), shared), LOW_COST).block();
+        BlobId blobId2 = testee.save(BUCKET, Bytes.concat("second".getBytes(StandardCharsets.UTF_8), shared), LOW_COST).block();
+        List<BlobId> chunks2 = chunksOf(blobId2);
+
+        testee.delete(BUCKET, blobId1).block();
+
+        assertThat(chunks2).allMatch(this::isStored);
+    }
+
+    @Test
+    void deleteShouldKeepContentSavedSeveralTimesUntilItsLastDeletion() {
+        byte[] content = randomBytes(100_000, 1);
+        BlobId blobId = testee.save(BUCKET, content, LOW_COST).block();
+        testee.save(BUCKET, content, LOW_COST).block();
+
+        testee.delete(BUCKET, blobId).block();
+
+        assertThat(testee.readBytes(BUCKET, blobId).block()).isEqualTo(content);
+    }
+
+    @Test
+    void savingTheSameContentTwiceShouldReferenceItsChunksOnce() {
+        byte[] content = randomBytes(100_000, 1);
+        BlobId blobId = testee.save(BUCKET, content, LOW_COST).block();
+        testee.save(BUCKET, content, LOW_COST).block();
+
+        assertThat(chunksOf(blobId))
+            .allMatch(chunkId -> chunkReferences.referenceCount(BUCKET, chunkId) == 1);
+    }
+
+    @Test
+    void deleteShouldNotAffectBlobsSharingChunks() {
+        byte[] shared = randomBytes(100_000, 1);
+        byte[] content1 = Bytes.concat("first".getBytes(StandardCharsets.UTF_8), shared);
+        byte[] content2 = Bytes.concat("second".getBytes(StandardCharsets.UTF_8), shared);
+        BlobId blobId1 = testee.save(BUCKET, content1, LOW_COST).block();
+        BlobId blobId2 = testee.save(BUCKET, content2, LOW_COST).block();
+
+        testee.delete(BUCKET, blobId1).block();
+
+        assertThat(testee.readBytes(BUCKET, blobId2).block()).isEqualTo(content2);
+    }
+
+    @Test
+    void savingContentSharingChunksShouldRecordDeduplicatedBytes() {
+        byte[] shared = randomBytes(100_000, 1);
+        byte[] content1 = Bytes.concat("first".getBytes(StandardCharsets.UTF_8), shared);
+        byte[] content2 = Bytes.concat("second".getBytes(StandardCharsets.UTF_8), shared);
+
+        testee.save(BUCKET, content1, LOW_COST).block();
+        testee.save(BUCKET, content2, LOW_COST).block();
+
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(metricFactory.countFor(ChunkingBlobStore.LOGICAL_BYTES_METRIC_NAME))
+                .isEqualTo(content1.length + content2.length);
+            softly.assertThat(metricFactory.countFor(ChunkingBlobStore.DEDUPLICATED_BYTES_METRIC_NAME))
+                .isGreaterThan(shared.length * 9 / 10);
+        });
+    }
+
+    @Test
+    void mailingListCorpusShouldBeDeduplicated() {
+        // The same attachment relayed to a mailing list, each copy having its own headers
+        byte[] attachment = randomBytes(500_000, 1);
+        int recipientCount = 50;
+
+        int logicalBytes = 0;
+        for (int i = 0; i < recipientCount; i++) {
+            byte[] headers = ("Delivered-To: user" + i + "@domain.tld\r\nMessage-Id: <" + i + "@list.tld>\r\n\r\n")
+                .getBytes(StandardCharsets.UTF_8);
+            byte[] message = Bytes.concat(headers, attachment);
+            logicalBytes += message.length;
+
+            BlobId blobId = testee.save(BUCKET, message, LOW_COST).block();
+            assertThat(testee.readBytes(BUCKET, blobId).block()).isEqualTo(message);
+        }
+
+        double deduplicationRatio = (double) metricFactory.countFor(ChunkingBlobStore.DEDUPLICATED_BYTES_METRIC_NAME)
+            / metricFactory.countFor(ChunkingBlobStore.LOGICAL_BYTES_METRIC_NAME);
+        assertThat(metricFactory.countFor(ChunkingBlobStore.LOGICAL_BYTES_METRIC_NAME)).isEqualTo(logicalBytes);
+        assertThat(deduplicationRatio).isGreaterThan(0.95);
+    }
+}
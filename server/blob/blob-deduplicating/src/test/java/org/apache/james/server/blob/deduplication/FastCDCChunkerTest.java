@@ -0,0 +1,117 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.blob.deduplication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.primitives.Bytes;
+
+class FastCDCChunkerTest {
+    private static final ChunkingConfiguration CONFIGURATION = new ChunkingConfiguration(256, 1024, 4096);
+
+    private FastCDCChunker testee;
+
+    @BeforeEach
+    void setUp() {
+        testee = new FastCDCChunker(CONFIGURATION);
+    }
+
+    @Test
+    void chunkShouldReturnNoChunkWhenEmptyContent() {
+        assertThat(testee.chunk(new ByteArrayInputStream(new byte[0])).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void chunkShouldReturnASingleChunkWhenContentSmallerThanMinSize() {
+        byte[] content = randomBytes(100, 1);
+
+        assertThat(testee.chunk(new ByteArrayInputStream(content)).collectList().block())
+            .containsExactly(content);
+    }
+
+    @Test
+    void chunksShouldConcatenateToTheOriginalContent() {
+        byte[] content = randomBytes(100_000, 1);
+
+        List<byte[]> chunks = testee.chunk(new ByteArrayInputStream(content)).collectList().block();
+
+        assertThat(Bytes.concat(chunks.toArray(new byte[0][])))
+            .isEqualTo(content);
+    }
+
+    @Test
+    void chunksShouldRespectSizeBounds() {
+        byte[] content = randomBytes(100_000, 1);
+
+        List<byte[]> chunks = testee.chunk(new ByteArrayInputStream(content)).collectList().block();
+
+        assertThat(chunks.subList(0, chunks.size() - 1))
+            .allSatisfy(chunk -> assertThat(chunk.length)
+                .isGreaterThan(CONFIGURATION.getMinChunkSize())
+                .isLessThanOrEqualTo(CONFIGURATION.getMaxChunkSize()));
+    }
+
+    @Test
+    void chunkShouldBeDeterministic() {
+        byte[] content = randomBytes(100_000, 1);
+
+        assertThat(testee.chunk(new ByteArrayInputStream(content)).collectList().block())
+            .containsExactlyElementsOf(testee.chunk(new ByteArrayInputStream(content)).collectList().block());
+    }
+
+    @Test
+    void chunkBoundariesShouldResynchronizeAfterAPrefixInsertion() {
+        byte[] content = randomBytes(100_000, 1);
+        byte[] prefixedContent = Bytes.concat(randomBytes(17, 2), content);
+
+        List<byte[]> chunks = testee.chunk(new ByteArrayInputStream(content)).collectList().block();
+        List<byte[]> prefixedChunks = testee.chunk(new ByteArrayInputStream(prefixedContent)).collectList().block();
+
+        assertThat(prefixedChunks.subList(2, prefixedChunks.size()))
+            .isSubsetOf(chunks);
+    }
+
+    @Test
+    void constructorShouldThrowWhenAverageSizeIsNotAPowerOfTwo() {
+        assertThatThrownBy(() -> new ChunkingConfiguration(256, 1000, 4096))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void constructorShouldThrowWhenMinSizeIsBiggerThanAverageSize() {
+        assertThatThrownBy(() -> new ChunkingConfiguration(2048, 1024, 4096))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    static byte[] randomBytes(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -41,6 +41,7 @@ import org.apache.james.blob.objectstorage.swift.SwiftTempAuthObjectStorage;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.domain.StorageType;
+import org.reactivestreams.Publisher;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
@@ -53,6 +54,10 @@ import reactor.core.scheduler.Schedulers;
 
 public class ObjectStorageBlobStore implements BlobStore {
     private static final int BUFFERED_SIZE = 256 * 1024;
+    /**
+     * Maximum count of keys a S3 multi-object delete request accepts.
+     */
+    private static final int DELETE_BATCH_SIZE = 1000;
 
     private final BlobId.Factory blobIdFactory;
 
@@ -214,4 +219,18 @@ public class ObjectStorageBlobStore implements BlobStore {
         return Mono.<Void>fromRunnable(() -> blobStore.removeBlob(resolvedBucketName.asString(), blobId.asString()))
             .subscribeOn(Schedulers.elastic());
     }
+
+    /**
+     * Relies on jclouds bulk removal, which, for S3, uses multi-object delete requests.
+     */
+    @Override
+    public Mono<Void> deleteAll(BucketName bucketName, Publisher<BlobId> blobIds) {
+        ObjectStorageBucketName resolvedBucketName = bucketNameResolver.resolve(bucketName);
+        return Flux.from(blobIds)
+            .map(BlobId::asString)
+            .buffer(DELETE_BATCH_SIZE)
+            .concatMap(names -> Mono.<Void>fromRunnable(() -> blobStore.removeBlobs(resolvedBucketName.asString(), names))
+                .subscribeOn(Schedulers.elastic()))
+            .then();
+    }
 }
@@ -0,0 +1,267 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.union;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BucketName;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Node local index telling in which tier of an {@link HybridBlobStore} a blob lives.
+ *
+ * The tier, a saturating access counter and the last access time (second precision) of a blob are packed into a
+ * single long. Each entry still costs a map node, a key and a boxed long, thus the index is bounded: once it holds
+ * 'maximumEntries' blobs, the least recently used entries are evicted. An evicted blob of the high performance tier
+ * is no longer a demotion candidate until it is written or read again, and stays where it is.
+ *
+ * The index is a hint: a blob missing from it, or that was moved by another node, is found by probing both stores.
+ *
+ * Access statistics are node local too: a node only knows about the reads it served. A blob frequently read through
+ * other nodes can hence be demoted by a node that did not read it recently. It is then promoted back, when promotion
+ * is enabled, or served from the low cost tier.
+ */
+public class BlobLocationIndex {
+    public static class Location {
+        private final BucketName bucketName;
+        private final BlobId blobId;
+        private final BlobTier tier;
+        private final int accessCount;
+        private final Instant lastAccess;
+
+        Location(BucketName bucketName, BlobId blobId, BlobTier tier, int accessCount, Instant lastAccess) {
+            this.bucketName = bucketName;
+            this.blobId = blobId;
+            this.tier = tier;
+            this.accessCount = accessCount;
+            this.lastAccess = lastAccess;
+        }
+
+        public BucketName getBucketName() {
+            return bucketName;
+        }
+
+        public BlobId getBlobId() {
+            return blobId;
+        }
+
+        public BlobTier getTier() {
+            return tier;
+        }
+
+        public int getAccessCount() {
+            return accessCount;
+        }
+
+        public Instant getLastAccess() {
+            return lastAccess;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof Location) {
+                Location that = (Location) o;
+
+                return Objects.equals(this.accessCount, that.accessCount)
+                    && Objects.equals(this.bucketName, that.bucketName)
+                    && Objects.equals(this.blobId, that.blobId)
+                    && Objects.equals(this.tier, that.tier)
+                    && Objects.equals(this.lastAccess, that.lastAccess);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(bucketName, blobId, tier, accessCount, lastAccess);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                .add("bucketName", bucketName)
+                .add("blobId", blobId)
+                .add("tier", tier)
+                .add("accessCount", accessCount)
+                .add("lastAccess", lastAccess)
+                .toString();
+        }
+    }
+
+    private static class Key {
+        private final BucketName bucketName;
+        private final BlobId blobId;
+
+        Key(BucketName bucketName, BlobId blobId) {
+            Preconditions.checkNotNull(bucketName);
+            Preconditions.checkNotNull(blobId);
+
+            this.bucketName = bucketName;
+            this.blobId = blobId;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof Key) {
+                Key that = (Key) o;
+
+                return Objects.equals(this.bucketName, that.bucketName)
+                    && Objects.equals(this.blobId, that.blobId);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(bucketName, blobId);
+        }
+    }
+
+    private static final long LOW_COST_FLAG = 1L << 63;
+    private static final int ACCESS_COUNT_SHIFT = 40;
+    private static final long ACCESS_COUNT_MAX = (1L << 23) - 1;
+    private static final long LAST_ACCESS_MASK = (1L << ACCESS_COUNT_SHIFT) - 1;
+
+    private final Map<Key, Long> entries;
+    private final Clock clock;
+
+    public BlobLocationIndex(Clock clock, long maximumEntries) {
+        Preconditions.checkArgument(maximumEntries > 0, "'maximumEntries' needs to be strictly positive");
+
+        this.entries = CacheBuilder.newBuilder()
+            .maximumSize(maximumEntries)
+            .<Key, Long>build()
+            .asMap();
+        this.clock = clock;
+    }
+
+    public Optional<BlobTier> locate(BucketName bucketName, BlobId blobId) {
+        return Optional.ofNullable(entries.get(new Key(bucketName, blobId)))
+            .map(BlobLocationIndex::tier);
+    }
+
+    public void recordWrite(BucketName bucketName, BlobId blobId, BlobTier tier) {
+        entries.put(new Key(bucketName, blobId), pack(tier, 0, now()));
+    }
+
+    public void recordAccess(BucketName bucketName, BlobId blobId, BlobTier tier) {
+        long now = now();
+        entries.merge(new Key(bucketName, blobId), pack(tier, 1, now),
+            (packed, ignored) -> pack(tier, accessCount(packed) + 1, now));
+    }
+
+    public void remove(BucketName bucketName, BlobId blobId) {
+        entries.remove(new Key(bucketName, blobId));
+    }
+
+    public void removeBucket(BucketName bucketName) {
+        entries.keySet().removeIf(key -> key.bucketName.equals(bucketName));
+    }
+
+    /**
+     * Atomically moves a blob from one tier to another, resetting its access counter.
+     *
+     * @return false if the blob is not indexed anymore or not located in the 'from' tier.
+     */
+    public boolean relocate(BucketName bucketName, BlobId blobId, BlobTier from, BlobTier to) {
+        AtomicBoolean relocated = new AtomicBoolean(false);
+        entries.computeIfPresent(new Key(bucketName, blobId), (key, packed) -> {
+            if (tier(packed) != from) {
+                return packed;
+            }
+            relocated.set(true);
+            return pack(to, 0, lastAccessSeconds(packed));
+        });
+        return relocated.get();
+    }
+
+    public Stream<Location> coldCandidates(Instant accessedBefore, int limit) {
+        long thresholdSeconds = accessedBefore.getEpochSecond();
+        return entries.entrySet()
+            .stream()
+            .filter(entry -> tier(entry.getValue()) == BlobTier.HIGH_PERFORMANCE)
+            .filter(entry -> lastAccessSeconds(entry.getValue()) < thresholdSeconds)
+            .limit(limit)
+            .map(BlobLocationIndex::asLocation);
+    }
+
+    public Stream<Location> hotCandidates(int minimumAccessCount, int limit) {
+        return entries.entrySet()
+            .stream()
+            .filter(entry -> tier(entry.getValue()) == BlobTier.LOW_COST)
+            .filter(entry -> accessCount(entry.getValue()) >= minimumAccessCount)
+            .limit(limit)
+            .map(BlobLocationIndex::asLocation);
+    }
+
+    /**
+     * Access counters are meant to reflect the popularity of a blob over the last tiering period.
+     */
+    public void resetAccessCounts() {
+        entries.replaceAll((key, packed) -> pack(tier(packed), 0, lastAccessSeconds(packed)));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private long now() {
+        return clock.instant().getEpochSecond();
+    }
+
+    private static Location asLocation(Map.Entry<Key, Long> entry) {
+        long packed = entry.getValue();
+        return new Location(entry.getKey().bucketName, entry.getKey().blobId,
+            tier(packed),
+            Math.toIntExact(accessCount(packed)),
+            Instant.ofEpochSecond(lastAccessSeconds(packed)));
+    }
+
+    private static long pack(BlobTier tier, long accessCount, long lastAccessSeconds) {
+        long tierBit = tier == BlobTier.LOW_COST ? LOW_COST_FLAG : 0L;
+        long boundedCount = Math.min(accessCount, ACCESS_COUNT_MAX);
+        return tierBit | (boundedCount << ACCESS_COUNT_SHIFT) | (lastAccessSeconds & LAST_ACCESS_MASK);
+    }
+
+    private static BlobTier tier(long packed) {
+        if ((packed & LOW_COST_FLAG) != 0) {
+            return BlobTier.LOW_COST;
+        }
+        return BlobTier.HIGH_PERFORMANCE;
+    }
+
+    private static long accessCount(long packed) {
+        return (packed >>> ACCESS_COUNT_SHIFT) & ACCESS_COUNT_MAX;
+    }
+
+    private static long lastAccessSeconds(long packed) {
+        return packed & LAST_ACCESS_MASK;
+    }
+}
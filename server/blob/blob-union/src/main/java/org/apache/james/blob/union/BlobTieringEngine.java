@@ -0,0 +1,277 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.union;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.union.BlobLocationIndex.Location;
+import org.apache.james.lifecycle.api.Startable;
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Moves blobs between the tiers of an {@link HybridBlobStore} based on their access statistics:
+ *
+ *  - blobs of the high performance tier not read since {@link TieringConfiguration#getColdAfter()} are demoted to
+ *  the low cost tier.
+ *  - when enabled, blobs of the low cost tier read more than {@link TieringConfiguration#getPromotionAccessThreshold()}
+ *  times within a migration interval are promoted to the high performance tier.
+ *
+ * Migrations are performed in background batches of at most {@link TieringConfiguration#getBatchSize()} blobs.
+ */
+public class BlobTieringEngine implements Startable {
+    public static class MigrationReport {
+        private final long demotedCount;
+        private final long promotedCount;
+
+        public MigrationReport(long demotedCount, long promotedCount) {
+            this.demotedCount = demotedCount;
+            this.promotedCount = promotedCount;
+        }
+
+        public long getDemotedCount() {
+            return demotedCount;
+        }
+
+        public long getPromotedCount() {
+            return promotedCount;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof MigrationReport) {
+                MigrationReport that = (MigrationReport) o;
+
+                return Objects.equals(this.demotedCount, that.demotedCount)
+                    && Objects.equals(this.promotedCount, that.promotedCount);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(demotedCount, promotedCount);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                .add("demotedCount", demotedCount)
+                .add("promotedCount", promotedCount)
+                .toString();
+        }
+    }
+
+    public static final String HIGH_PERFORMANCE_HIT_METRIC_NAME = "blobStoreTierHighPerformanceHits";
+    public static final String LOW_COST_HIT_METRIC_NAME = "blobStoreTierLowCostHits";
+    public static final String LOCATION_MISS_METRIC_NAME = "blobStoreTierLocationMisses";
+    public static final String DEMOTION_METRIC_NAME = "blobStoreTierDemotions";
+    public static final String PROMOTION_METRIC_NAME = "blobStoreTierPromotions";
+    public static final String MIGRATED_BYTES_METRIC_NAME = "blobStoreTierMigratedBytes";
+    public static final String MIGRATION_FAILURE_METRIC_NAME = "blobStoreTierMigrationFailures";
+    public static final String MIGRATION_LATENCY_METRIC_NAME = "blobStoreTierMigrationLatency";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BlobTieringEngine.class);
+
+    private final BlobStore lowCostBlobStore;
+    private final BlobStore highPerformanceBlobStore;
+    private final BlobLocationIndex index;
+    private final TieringConfiguration configuration;
+    private final MetricFactory metricFactory;
+    private final Clock clock;
+    private final Scheduler scheduler;
+    private final Metric highPerformanceHits;
+    private final Metric lowCostHits;
+    private final Metric locationMisses;
+    private final Metric demotions;
+    private final Metric promotions;
+    private final Metric migratedBytes;
+    private final Metric migrationFailures;
+    private Optional<Disposable> migrationTask;
+
+    public BlobTieringEngine(BlobStore lowCostBlobStore, BlobStore highPerformanceBlobStore, BlobLocationIndex index,
+                             TieringConfiguration configuration, MetricFactory metricFactory, Clock clock) {
+        this(lowCostBlobStore, highPerformanceBlobStore, index, configuration, metricFactory, clock, Schedulers.elastic());
+    }
+
+    BlobTieringEngine(BlobStore lowCostBlobStore, BlobStore highPerformanceBlobStore, BlobLocationIndex index,
+                      TieringConfiguration configuration, MetricFactory metricFactory, Clock clock, Scheduler scheduler) {
+        this.lowCostBlobStore = lowCostBlobStore;
+        this.highPerformanceBlobStore = highPerformanceBlobStore;
+        this.index = index;
+        this.configuration = configuration;
+        this.metricFactory = metricFactory;
+        this.clock = clock;
+        this.scheduler = scheduler;
+        this.highPerformanceHits = metricFactory.generate(HIGH_PERFORMANCE_HIT_METRIC_NAME);
+        this.lowCostHits = metricFactory.generate(LOW_COST_HIT_METRIC_NAME);
+        this.locationMisses = metricFactory.generate(LOCATION_MISS_METRIC_NAME);
+        this.demotions = metricFactory.generate(DEMOTION_METRIC_NAME);
+        this.promotions = metricFactory.generate(PROMOTION_METRIC_NAME);
+        this.migratedBytes = metricFactory.generate(MIGRATED_BYTES_METRIC_NAME);
+        this.migrationFailures = metricFactory.generate(MIGRATION_FAILURE_METRIC_NAME);
+        this.migrationTask = Optional.empty();
+    }
+
+    public void start() {
+        migrationTask = Optional.of(Flux.interval(configuration.getMigrationInterval(), scheduler)
+            .onBackpressureDrop()
+            .concatMap(any -> runMigration()
+                .onErrorResume(e -> {
+                    LOGGER.error("Error while migrating blobs between tiers", e);
+                    return Mono.empty();
+                }))
+            .subscribe(report -> LOGGER.info("Blob tiering migration done: {}", report)));
+    }
+
+    public void stop() {
+        migrationTask.ifPresent(Disposable::dispose);
+        migrationTask = Optional.empty();
+    }
+
+    Optional<BlobTier> locate(BucketName bucketName, BlobId blobId) {
+        Optional<BlobTier> tier = index.locate(bucketName, blobId);
+        if (tier.isEmpty()) {
+            locationMisses.increment();
+        }
+        return tier;
+    }
+
+    void recordWrite(BucketName bucketName, BlobId blobId, BlobTier tier) {
+        index.recordWrite(bucketName, blobId, tier);
+    }
+
+    void recordRead(BucketName bucketName, BlobId blobId, BlobTier tier) {
+        index.recordAccess(bucketName, blobId, tier);
+        hitMetric(tier).increment();
+    }
+
+    void recordDelete(BucketName bucketName, BlobId blobId) {
+        index.remove(bucketName, blobId);
+    }
+
+    void recordBucketDeletion(BucketName bucketName) {
+        index.removeBucket(bucketName);
+    }
+
+    public Mono<MigrationReport> runMigration() {
+        return Mono.from(metricFactory.decoratePublisherWithTimerMetric(MIGRATION_LATENCY_METRIC_NAME,
+            Mono.defer(() -> {
+                Instant coldThreshold = clock.instant().minus(configuration.getColdAfter());
+                List<Location> coldBlobs = index.coldCandidates(coldThreshold, configuration.getBatchSize())
+                    .collect(ImmutableList.toImmutableList());
+                List<Location> hotBlobs = configuration.getPromotionAccessThreshold()
+                    .map(threshold -> index.hotCandidates(threshold, configuration.getBatchSize())
+                        .collect(ImmutableList.toImmutableList()))
+                    .orElse(ImmutableList.of());
+                index.resetAccessCounts();
+
+                return migrate(coldBlobs, BlobTier.LOW_COST, demotions)
+                    .zipWith(migrate(hotBlobs, BlobTier.HIGH_PERFORMANCE, promotions), MigrationReport::new);
+            })));
+    }
+
+    private Mono<Long> migrate(List<Location> locations, BlobTier targetTier, Metric migrationMetric) {
+        return Flux.fromIterable(locations)
+            .flatMap(location -> migrate(location, targetTier), configuration.getConcurrency())
+            .filter(migrated -> migrated)
+            .doOnNext(any -> migrationMetric.increment())
+            .count();
+    }
+
+    private Mono<Boolean> migrate(Location location, BlobTier targetTier) {
+        BucketName bucketName = location.getBucketName();
+        BlobId blobId = location.getBlobId();
+
+        return Mono.from(storeFor(location.getTier()).readBytes(bucketName, blobId))
+            .flatMap(bytes -> Mono.from(storeFor(targetTier).save(bucketName, bytes, storagePolicyFor(targetTier)))
+                .flatMap(savedBlobId -> commitMigration(location, targetTier, savedBlobId))
+                .doOnNext(migrated -> {
+                    if (migrated) {
+                        migratedBytes.add(bytes.length);
+                    }
+                }))
+            .onErrorResume(e -> {
+                LOGGER.warn("Failed migrating {} {} to {} tier", bucketName, blobId, targetTier, e);
+                migrationFailures.increment();
+                return Mono.just(false);
+            });
+    }
+
+    private Mono<Boolean> commitMigration(Location location, BlobTier targetTier, BlobId savedBlobId) {
+        BucketName bucketName = location.getBucketName();
+        BlobId blobId = location.getBlobId();
+
+        if (!savedBlobId.equals(blobId)) {
+            return Mono.error(new IllegalStateException(String.format(
+                "Tiers generate different blobIds for the same content (%s and %s), blob can not be moved",
+                blobId.asString(), savedBlobId.asString())));
+        }
+        if (index.relocate(bucketName, blobId, location.getTier(), targetTier)) {
+            return Mono.from(storeFor(location.getTier()).delete(bucketName, blobId))
+                .thenReturn(true);
+        }
+        if (index.locate(bucketName, blobId).isEmpty()) {
+            // Deleted while being migrated
+            return Mono.from(storeFor(targetTier).delete(bucketName, blobId))
+                .thenReturn(false);
+        }
+        return Mono.just(false);
+    }
+
+    private BlobStore storeFor(BlobTier tier) {
+        if (tier == BlobTier.LOW_COST) {
+            return lowCostBlobStore;
+        }
+        return highPerformanceBlobStore;
+    }
+
+    private BlobStore.StoragePolicy storagePolicyFor(BlobTier tier) {
+        if (tier == BlobTier.LOW_COST) {
+            return BlobStore.StoragePolicy.LOW_COST;
+        }
+        return BlobStore.StoragePolicy.HIGH_PERFORMANCE;
+    }
+
+    private Metric hitMetric(BlobTier tier) {
+        if (tier == BlobTier.LOW_COST) {
+            return lowCostHits;
+        }
+        return highPerformanceHits;
+    }
+}
@@ -22,6 +22,7 @@ package org.apache.james.blob.union;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -29,12 +30,14 @@ import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.api.BlobStore;
 import org.apache.james.blob.api.BucketName;
 import org.apache.james.blob.api.ObjectNotFoundException;
+import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -43,6 +46,9 @@ import reactor.core.publisher.Mono;
  *
  * Introduced to fasten small blob access, its usage could be compared to a cache, but with a sub-optimal
  * implementation (no eviction, default replication factor, no  circuit breaking).
+ *
+ * When a {@link BlobTieringEngine} is supplied, reads are routed to the tier recorded in its location index, and
+ * blobs are moved between tiers in the background according to their access statistics.
  */
 @Deprecated
 public class HybridBlobStore implements BlobStore {
@@ -65,18 +71,26 @@ public class HybridBlobStore implements BlobStore {
         private final BlobStore lowCostBlobStore;
         private final BlobStore highPerformanceBlobStore;
         private final Configuration configuration;
+        private Optional<BlobTieringEngine> tieringEngine;
 
         Builder(BlobStore lowCostBlobStore, BlobStore highPerformanceBlobStore, Configuration configuration) {
             this.lowCostBlobStore = lowCostBlobStore;
             this.highPerformanceBlobStore = highPerformanceBlobStore;
             this.configuration = configuration;
+            this.tieringEngine = Optional.empty();
+        }
+
+        public Builder tiering(BlobTieringEngine tieringEngine) {
+            this.tieringEngine = Optional.of(tieringEngine);
+            return this;
         }
 
         public HybridBlobStore build() {
             return new HybridBlobStore(
                 lowCostBlobStore,
                 highPerformanceBlobStore,
-                configuration);
+                configuration,
+                tieringEngine);
         }
     }
 
@@ -119,6 +133,11 @@ public class HybridBlobStore implements BlobStore {
     }
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HybridBlobStore.class);
+    /**
+     * Count of BlobIds held in memory at once by {@link #deleteAll(BucketName, Publisher)}: each window is deleted from
+     * both stores before the next one is requested.
+     */
+    private static final int DELETE_WINDOW_SIZE = 1000;
 
     public static RequireLowCost builder() {
         return lowCost -> highPerformance -> configuration -> new Builder(lowCost, highPerformance, configuration);
@@ -127,17 +146,21 @@ public class HybridBlobStore implements BlobStore {
     private final BlobStore lowCostBlobStore;
     private final BlobStore highPerformanceBlobStore;
     private final Configuration configuration;
+    private final Optional<BlobTieringEngine> tieringEngine;
 
-    private HybridBlobStore(BlobStore lowCostBlobStore, BlobStore highPerformanceBlobStore, Configuration configuration) {
+    private HybridBlobStore(BlobStore lowCostBlobStore, BlobStore highPerformanceBlobStore, Configuration configuration,
+                            Optional<BlobTieringEngine> tieringEngine) {
         this.lowCostBlobStore = lowCostBlobStore;
         this.highPerformanceBlobStore = highPerformanceBlobStore;
         this.configuration = configuration;
+        this.tieringEngine = tieringEngine;
     }
 
     @Override
     public Mono<BlobId> save(BucketName bucketName, byte[] data, StoragePolicy storagePolicy) {
-        return selectBlobStore(storagePolicy, Mono.just(data.length > configuration.getSizeThreshold()))
-            .flatMap(blobStore -> Mono.from(blobStore.save(bucketName, data, storagePolicy)));
+        return selectTier(storagePolicy, Mono.just(data.length > configuration.getSizeThreshold()))
+            .flatMap(tier -> Mono.from(storeFor(tier).save(bucketName, data, storagePolicy))
+                .doOnNext(blobId -> recordWrite(bucketName, blobId, tier)));
     }
 
     @Override
@@ -145,28 +168,36 @@ public class HybridBlobStore implements BlobStore {
         Preconditions.checkNotNull(data);
 
         BufferedInputStream bufferedInputStream = new BufferedInputStream(data, configuration.getSizeThreshold() + 1);
-        return selectBlobStore(storagePolicy, Mono.fromCallable(() -> isItABigStream(bufferedInputStream)))
-            .flatMap(blobStore -> Mono.from(blobStore.save(bucketName, bufferedInputStream, storagePolicy)));
+        return selectTier(storagePolicy, Mono.fromCallable(() -> isItABigStream(bufferedInputStream)))
+            .flatMap(tier -> Mono.from(storeFor(tier).save(bucketName, bufferedInputStream, storagePolicy))
+                .doOnNext(blobId -> recordWrite(bucketName, blobId, tier)));
     }
 
-    private Mono<BlobStore> selectBlobStore(StoragePolicy storagePolicy, Mono<Boolean> largeData) {
+    private Mono<BlobTier> selectTier(StoragePolicy storagePolicy, Mono<Boolean> largeData) {
         switch (storagePolicy) {
             case LOW_COST:
-                return Mono.just(lowCostBlobStore);
+                return Mono.just(BlobTier.LOW_COST);
             case SIZE_BASED:
                 return largeData.map(isLarge -> {
                     if (isLarge) {
-                        return lowCostBlobStore;
+                        return BlobTier.LOW_COST;
                     }
-                    return highPerformanceBlobStore;
+                    return BlobTier.HIGH_PERFORMANCE;
                 });
             case HIGH_PERFORMANCE:
-                return Mono.just(highPerformanceBlobStore);
+                return Mono.just(BlobTier.HIGH_PERFORMANCE);
             default:
                 throw new RuntimeException("Unknown storage policy: " + storagePolicy);
         }
     }
 
+    private BlobStore storeFor(BlobTier tier) {
+        if (tier == BlobTier.LOW_COST) {
+            return lowCostBlobStore;
+        }
+        return highPerformanceBlobStore;
+    }
+
     private boolean isItABigStream(InputStream bufferedData) throws IOException {
         bufferedData.mark(0);
         bufferedData.skip(configuration.getSizeThreshold());
@@ -188,27 +219,76 @@ public class HybridBlobStore implements BlobStore {
 
     @Override
     public Mono<byte[]> readBytes(BucketName bucketName, BlobId blobId) {
-        return Mono.defer(() -> Mono.from(highPerformanceBlobStore.readBytes(bucketName, blobId)))
+        return locate(bucketName, blobId)
+            .map(tier -> readBytesFromLocatedTier(bucketName, blobId, tier))
+            .orElseGet(() -> probeBytes(bucketName, blobId));
+    }
+
+    private Mono<byte[]> readBytesFromLocatedTier(BucketName bucketName, BlobId blobId, BlobTier tier) {
+        return Mono.defer(() -> readBytes(bucketName, blobId, tier))
+            .onErrorResume(ObjectNotFoundException.class, e -> readBytes(bucketName, blobId, tier.other()));
+    }
+
+    private Mono<byte[]> probeBytes(BucketName bucketName, BlobId blobId) {
+        return Mono.defer(() -> readBytes(bucketName, blobId, BlobTier.HIGH_PERFORMANCE))
             .onErrorResume(this::logAndReturnEmpty)
-            .switchIfEmpty(Mono.defer(() -> Mono.from(lowCostBlobStore.readBytes(bucketName, blobId))));
+            .switchIfEmpty(Mono.defer(() -> readBytes(bucketName, blobId, BlobTier.LOW_COST)));
+    }
+
+    private Mono<byte[]> readBytes(BucketName bucketName, BlobId blobId, BlobTier tier) {
+        return Mono.from(storeFor(tier).readBytes(bucketName, blobId))
+            .doOnNext(any -> recordRead(bucketName, blobId, tier));
     }
 
     @Override
     public InputStream read(BucketName bucketName, BlobId blobId) {
+        return locate(bucketName, blobId)
+            .map(tier -> readFromLocatedTier(bucketName, blobId, tier))
+            .orElseGet(() -> probe(bucketName, blobId));
+    }
+
+    private InputStream readFromLocatedTier(BucketName bucketName, BlobId blobId, BlobTier tier) {
         try {
-            return highPerformanceBlobStore.read(bucketName, blobId);
+            return read(bucketName, blobId, tier);
         } catch (ObjectNotFoundException e) {
-            return lowCostBlobStore.read(bucketName, blobId);
+            return read(bucketName, blobId, tier.other());
+        }
+    }
+
+    private InputStream probe(BucketName bucketName, BlobId blobId) {
+        try {
+            return read(bucketName, blobId, BlobTier.HIGH_PERFORMANCE);
+        } catch (ObjectNotFoundException e) {
+            return read(bucketName, blobId, BlobTier.LOW_COST);
         } catch (Exception e) {
             LOGGER.error("Error reading {} {} in {}, falling back to {}", bucketName, blobId, highPerformanceBlobStore, lowCostBlobStore);
-            return lowCostBlobStore.read(bucketName, blobId);
+            return read(bucketName, blobId, BlobTier.LOW_COST);
         }
     }
 
+    private InputStream read(BucketName bucketName, BlobId blobId, BlobTier tier) {
+        InputStream inputStream = storeFor(tier).read(bucketName, blobId);
+        recordRead(bucketName, blobId, tier);
+        return inputStream;
+    }
+
+    private Optional<BlobTier> locate(BucketName bucketName, BlobId blobId) {
+        return tieringEngine.flatMap(engine -> engine.locate(bucketName, blobId));
+    }
+
+    private void recordRead(BucketName bucketName, BlobId blobId, BlobTier tier) {
+        tieringEngine.ifPresent(engine -> engine.recordRead(bucketName, blobId, tier));
+    }
+
+    private void recordWrite(BucketName bucketName, BlobId blobId, BlobTier tier) {
+        tieringEngine.ifPresent(engine -> engine.recordWrite(bucketName, blobId, tier));
+    }
+
     @Override
     public Mono<Void> deleteBucket(BucketName bucketName) {
         return Mono.defer(() -> Mono.from(lowCostBlobStore.deleteBucket(bucketName)))
             .and(highPerformanceBlobStore.deleteBucket(bucketName))
+            .doOnSuccess(any -> tieringEngine.ifPresent(engine -> engine.recordBucketDeletion(bucketName)))
             .onErrorResume(this::logDeleteFailureAndReturnEmpty);
     }
 
@@ -216,6 +296,22 @@ public class HybridBlobStore implements BlobStore {
     public Mono<Void> delete(BucketName bucketName, BlobId blobId) {
         return Mono.defer(() -> Mono.from(lowCostBlobStore.delete(bucketName, blobId)))
             .and(highPerformanceBlobStore.delete(bucketName, blobId))
+            .doOnSuccess(any -> tieringEngine.ifPresent(engine -> engine.recordDelete(bucketName, blobId)))
+            .onErrorResume(this::logDeleteFailureAndReturnEmpty);
+    }
+
+    @Override
+    public Mono<Void> deleteAll(BucketName bucketName, Publisher<BlobId> blobIds) {
+        return Flux.from(blobIds)
+            .buffer(DELETE_WINDOW_SIZE)
+            .concatMap(ids -> deleteWindow(bucketName, ids))
+            .then();
+    }
+
+    private Mono<Void> deleteWindow(BucketName bucketName, List<BlobId> ids) {
+        return Mono.from(lowCostBlobStore.deleteAll(bucketName, Flux.fromIterable(ids)))
+            .and(highPerformanceBlobStore.deleteAll(bucketName, Flux.fromIterable(ids)))
+            .doOnSuccess(any -> tieringEngine.ifPresent(engine -> ids.forEach(blobId -> engine.recordDelete(bucketName, blobId))))
             .onErrorResume(this::logDeleteFailureAndReturnEmpty);
     }
 
@@ -0,0 +1,238 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.union;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.james.util.DurationParser;
+
+import com.google.common.base.Preconditions;
+
+public class TieringConfiguration {
+
+    public static class Builder {
+        private static final Duration DEFAULT_COLD_AFTER = Duration.ofDays(30);
+        private static final Duration DEFAULT_MIGRATION_INTERVAL = Duration.ofHours(1);
+        private static final int DEFAULT_BATCH_SIZE = 1000;
+        private static final int DEFAULT_CONCURRENCY = 4;
+        private static final long DEFAULT_INDEX_MAXIMUM_ENTRIES = 1_000_000;
+
+        private Optional<Boolean> enabled = Optional.empty();
+        private Optional<Duration> coldAfter = Optional.empty();
+        private Optional<Duration> migrationInterval = Optional.empty();
+        private Optional<Integer> batchSize = Optional.empty();
+        private Optional<Integer> concurrency = Optional.empty();
+        private Optional<Integer> promotionAccessThreshold = Optional.empty();
+        private Optional<Long> indexMaximumEntries = Optional.empty();
+
+        public Builder enabled(boolean enabled) {
+            this.enabled = Optional.of(enabled);
+            return this;
+        }
+
+        public Builder coldAfter(Duration coldAfter) {
+            Preconditions.checkNotNull(coldAfter, "'coldAfter' must not be null");
+            Preconditions.checkArgument(!coldAfter.isNegative() && !coldAfter.isZero(), "'coldAfter' needs to be strictly positive");
+
+            this.coldAfter = Optional.of(coldAfter);
+            return this;
+        }
+
+        public Builder migrationInterval(Duration migrationInterval) {
+            Preconditions.checkNotNull(migrationInterval, "'migrationInterval' must not be null");
+            Preconditions.checkArgument(!migrationInterval.isNegative() && !migrationInterval.isZero(), "'migrationInterval' needs to be strictly positive");
+
+            this.migrationInterval = Optional.of(migrationInterval);
+            return this;
+        }
+
+        public Builder batchSize(int batchSize) {
+            Preconditions.checkArgument(batchSize > 0, "'batchSize' needs to be strictly positive");
+
+            this.batchSize = Optional.of(batchSize);
+            return this;
+        }
+
+        public Builder concurrency(int concurrency) {
+            Preconditions.checkArgument(concurrency > 0, "'concurrency' needs to be strictly positive");
+
+            this.concurrency = Optional.of(concurrency);
+            return this;
+        }
+
+        public Builder promotionAccessThreshold(int promotionAccessThreshold) {
+            Preconditions.checkArgument(promotionAccessThreshold > 0, "'promotionAccessThreshold' needs to be strictly positive");
+
+            this.promotionAccessThreshold = Optional.of(promotionAccessThreshold);
+            return this;
+        }
+
+        public Builder indexMaximumEntries(long indexMaximumEntries) {
+            Preconditions.checkArgument(indexMaximumEntries > 0, "'indexMaximumEntries' needs to be strictly positive");
+
+            this.indexMaximumEntries = Optional.of(indexMaximumEntries);
+            return this;
+        }
+
+        public Builder enabled(Optional<Boolean> enabled) {
+            enabled.ifPresent(this::enabled);
+            return this;
+        }
+
+        public Builder coldAfter(Optional<Duration> coldAfter) {
+            coldAfter.ifPresent(this::coldAfter);
+            return this;
+        }
+
+        public Builder migrationInterval(Optional<Duration> migrationInterval) {
+            migrationInterval.ifPresent(this::migrationInterval);
+            return this;
+        }
+
+        public Builder batchSize(Optional<Integer> batchSize) {
+            batchSize.ifPresent(this::batchSize);
+            return this;
+        }
+
+        public Builder concurrency(Optional<Integer> concurrency) {
+            concurrency.ifPresent(this::concurrency);
+            return this;
+        }
+
+        public Builder promotionAccessThreshold(Optional<Integer> promotionAccessThreshold) {
+            promotionAccessThreshold.ifPresent(this::promotionAccessThreshold);
+            return this;
+        }
+
+        public Builder indexMaximumEntries(Optional<Long> indexMaximumEntries) {
+            indexMaximumEntries.ifPresent(this::indexMaximumEntries);
+            return this;
+        }
+
+        public TieringConfiguration build() {
+            return new TieringConfiguration(
+                enabled.orElse(false),
+                coldAfter.orElse(DEFAULT_COLD_AFTER),
+                migrationInterval.orElse(DEFAULT_MIGRATION_INTERVAL),
+                batchSize.orElse(DEFAULT_BATCH_SIZE),
+                concurrency.orElse(DEFAULT_CONCURRENCY),
+                promotionAccessThreshold,
+                indexMaximumEntries.orElse(DEFAULT_INDEX_MAXIMUM_ENTRIES));
+        }
+    }
+
+    public static final TieringConfiguration DEFAULT = builder().build();
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static TieringConfiguration from(org.apache.commons.configuration2.Configuration configuration) {
+        return builder()
+            .enabled(Optional.ofNullable(configuration.getBoolean("hybrid.tiering.enabled", null)))
+            .coldAfter(Optional.ofNullable(configuration.getString("hybrid.tiering.cold.after", null))
+                .map(value -> DurationParser.parse(value, ChronoUnit.DAYS)))
+            .migrationInterval(Optional.ofNullable(configuration.getString("hybrid.tiering.interval", null))
+                .map(value -> DurationParser.parse(value, ChronoUnit.MINUTES)))
+            .batchSize(Optional.ofNullable(configuration.getInteger("hybrid.tiering.batch.size", null)))
+            .concurrency(Optional.ofNullable(configuration.getInteger("hybrid.tiering.concurrency", null)))
+            .promotionAccessThreshold(Optional.ofNullable(configuration.getInteger("hybrid.tiering.promotion.access.threshold", null)))
+            .indexMaximumEntries(Optional.ofNullable(configuration.getLong("hybrid.tiering.index.max.entries", null)))
+            .build();
+    }
+
+    private final boolean enabled;
+    private final Duration coldAfter;
+    private final Duration migrationInterval;
+    private final int batchSize;
+    private final int concurrency;
+    private final Optional<Integer> promotionAccessThreshold;
+    private final long indexMaximumEntries;
+
+    private TieringConfiguration(boolean enabled, Duration coldAfter, Duration migrationInterval, int batchSize,
+                                 int concurrency, Optional<Integer> promotionAccessThreshold, long indexMaximumEntries) {
+        this.enabled = enabled;
+        this.coldAfter = coldAfter;
+        this.migrationInterval = migrationInterval;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.promotionAccessThreshold = promotionAccessThreshold;
+        this.indexMaximumEntries = indexMaximumEntries;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Duration getColdAfter() {
+        return coldAfter;
+    }
+
+    public Duration getMigrationInterval() {
+        return migrationInterval;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Number of reads within a migration interval after which a blob stored in the low cost tier gets promoted.
+     * Promotion is disabled when empty.
+     */
+    public Optional<Integer> getPromotionAccessThreshold() {
+        return promotionAccessThreshold;
+    }
+
+    /**
+     * Maximum count of blobs tracked by the node local {@link BlobLocationIndex}.
+     */
+    public long getIndexMaximumEntries() {
+        return indexMaximumEntries;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof TieringConfiguration) {
+            TieringConfiguration that = (TieringConfiguration) o;
+
+            return Objects.equals(this.enabled, that.enabled)
+                && Objects.equals(this.batchSize, that.batchSize)
+                && Objects.equals(this.concurrency, that.concurrency)
+                && Objects.equals(this.coldAfter, that.coldAfter)
+                && Objects.equals(this.migrationInterval, that.migrationInterval)
+                && Objects.equals(this.promotionAccessThreshold, that.promotionAccessThreshold)
+                && Objects.equals(this.indexMaximumEntries, that.indexMaximumEntries);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(enabled, coldAfter, migrationInterval, batchSize, concurrency, promotionAccessThreshold, indexMaximumEntries);
+    }
+}
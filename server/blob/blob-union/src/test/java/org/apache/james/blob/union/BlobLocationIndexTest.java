@@ -0,0 +1,178 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.union;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.IntStream;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.utils.UpdatableTickingClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BlobLocationIndexTest {
+    private static final HashBlobId.Factory BLOB_ID_FACTORY = new HashBlobId.Factory();
+    private static final BlobId BLOB_ID = BLOB_ID_FACTORY.from("id1");
+    private static final BlobId OTHER_BLOB_ID = BLOB_ID_FACTORY.from("id2");
+    private static final Instant NOW = Instant.parse("2020-04-01T10:00:00.00Z");
+    private static final long MAXIMUM_ENTRIES = 100;
+
+    private UpdatableTickingClock clock;
+    private BlobLocationIndex testee;
+
+    @BeforeEach
+    void setUp() {
+        clock = new UpdatableTickingClock(NOW);
+        testee = new BlobLocationIndex(clock, MAXIMUM_ENTRIES);
+    }
+
+    @Test
+    void locateShouldReturnEmptyWhenUnknown() {
+        assertThat(testee.locate(BucketName.DEFAULT, BLOB_ID)).isEmpty();
+    }
+
+    @Test
+    void locateShouldReturnWrittenTier() {
+        testee.recordWrite(BucketName.DEFAULT, BLOB_ID, BlobTier.LOW_COST);
+
+        assertThat(testee.locate(BucketName.DEFAULT, BLOB_ID)).contains(BlobTier.LOW_COST);
+    }
+
+    @Test
+    void indexShouldBeBounded() {
+        IntStream.range(0, 1000)
+            .forEach(i -> testee.recordWrite(BucketName.DEFAULT, BLOB_ID_FACTORY.from("id" + i), BlobTier.HIGH_PERFORMANCE));
+
+        assertThat(testee.size()).isLessThanOrEqualTo(MAXIMUM_ENTRIES);
+    }
+
+    @Test
+    void locateShouldBeScopedByBucket() {
+        testee.recordWrite(BucketName.DEFAULT, BLOB_ID, BlobTier.LOW_COST);
+
+        assertThat(testee.locate(BucketName.of("other"), BLOB_ID)).isEmpty();
+    }
+
+    @Test
+    void locateShouldReturnEmptyAfterRemove() {
+        testee.recordWrite(BucketName.DEFAULT, BLOB_ID, BlobTier.LOW_COST);
+
+        testee.remove(BucketName.DEFAULT, BLOB_ID);
+
+        assertThat(testee.locate(BucketName.DEFAULT, BLOB_ID)).isEmpty();
+    }
+
+    @Test
+    void removeBucketShouldRemoveAllEntriesOfThatBucket() {
+        testee.recordWrite(BucketName.DEFAULT, BLOB_ID, BlobTier.LOW_COST);
+        testee.recordWrite(BucketName.DEFAULT, OTHER_BLOB_ID, BlobTier.HIGH_PERFORMANCE);
+        testee.recordWrite(BucketName.of("other"), BLOB_ID, BlobTier.LOW_COST);
+
+        testee.removeBucket(BucketName.DEFAULT);
+
+        assertThat(testee.size()).isEqualTo(1);
+    }
+
+    @Test
+    void recordAccessShouldIncrementAccessCount() {
+        testee.recordWrite(BucketName.DEFAULT, BLOB_ID, BlobTier.LOW_COST);
+
+        testee.recordAccess(BucketName.DEFAULT, BLOB_ID, BlobTier.LOW_COST);
+        testee.recordAccess(BucketName.DEFAULT, BLOB_ID, BlobTier.LOW_COST);
+
+        assertThat(testee.hotCandidates(1, 10))
+            .containsOnly(new BlobLocationIndex.Location(BucketName.DEFAULT, BLOB_ID, BlobTier.LOW_COST, 2, NOW));
+    }
+
+    @Test
+    void coldCandidatesShouldReturnHighPerformanceBlobsNotAccessedRecently() {
+        testee.recordWrite(BucketName.DEFAULT, BLOB_ID, BlobTier.HIGH_PERFORMANCE);
+        clock.setInstant(NOW.plus(Duration.ofDays(2)));
+        testee.recordWrite(BucketName.DEFAULT, OTHER_BLOB_ID, BlobTier.HIGH_PERFORMANCE);
+
+        assertThat(testee.coldCandidates(NOW.plus(Duration.ofDays(1)), 10))
+            .extracting(BlobLocationIndex.Location::getBlobId)
+            .containsOnly(BLOB_ID);
+    }
+
+    @Test
+    void coldCandidatesShouldIgnoreLowCostBlobs() {
+        testee.recordWrite(BucketName.DEFAULT, BLOB_ID, BlobTier.LOW_COST);
+
+        assertThat(testee.coldCandidates(NOW.plus(Duration.ofDays(1)), 10)).isEmpty();
+    }
+
+    @Test
+    void coldCandidatesShouldBeLimited() {
+        testee.recordWrite(BucketName.DEFAULT, BLOB_ID, BlobTier.HIGH_PERFORMANCE);
+        testee.recordWrite(BucketName.DEFAULT, OTHER_BLOB_ID, BlobTier.HIGH_PERFORMANCE);
+
+        assertThat(testee.coldCandidates(NOW.plus(Duration.ofDays(1)), 1)).hasSize(1);
+    }
+
+    @Test
+    void hotCandidatesShouldIgnoreHighPerformanceBlobs() {
+        testee.recordAccess(BucketName.DEFAULT, BLOB_ID, BlobTier.HIGH_PERFORMANCE);
+
+        assertThat(testee.hotCandidates(1, 10)).isEmpty();
+    }
+
+    @Test
+    void resetAccessCountsShouldResetCounters() {
+        testee.recordAccess(BucketName.DEFAULT, BLOB_ID, BlobTier.LOW_COST);
+
+        testee.resetAccessCounts();
+
+        assertThat(testee.hotCandidates(1, 10)).isEmpty();
+    }
+
+    @Test
+    void relocateShouldMoveBlobToTargetTier() {
+        testee.recordWrite(BucketName.DEFAULT, BLOB_ID, BlobTier.HIGH_PERFORMANCE);
+
+        boolean relocated = testee.relocate(BucketName.DEFAULT, BLOB_ID, BlobTier.HIGH_PERFORMANCE, BlobTier.LOW_COST);
+
+        assertThat(relocated).isTrue();
+        assertThat(testee.locate(BucketName.DEFAULT, BLOB_ID)).contains(BlobTier.LOW_COST);
+    }
+
+    @Test
+    void relocateShouldBeNoopWhenNotInSourceTier() {
+        testee.recordWrite(BucketName.DEFAULT, BLOB_ID, BlobTier.LOW_COST);
+
+        boolean relocated = testee.relocate(BucketName.DEFAULT, BLOB_ID, BlobTier.HIGH_PERFORMANCE, BlobTier.LOW_COST);
+
+        assertThat(relocated).isFalse();
+        assertThat(testee.locate(BucketName.DEFAULT, BLOB_ID)).contains(BlobTier.LOW_COST);
+    }
+
+    @Test
+    void relocateShouldNotIndexUnknownBlobs() {
+        boolean relocated = testee.relocate(BucketName.DEFAULT, BLOB_ID, BlobTier.HIGH_PERFORMANCE, BlobTier.LOW_COST);
+
+        assertThat(relocated).isFalse();
+        assertThat(testee.locate(BucketName.DEFAULT, BLOB_ID)).isEmpty();
+    }
+}
@@ -0,0 +1,213 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.union;
+
+import static org.apache.james.blob.api.BlobStore.StoragePolicy.HIGH_PERFORMANCE;
+import static org.apache.james.blob.api.BlobStore.StoragePolicy.LOW_COST;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.blob.api.ObjectNotFoundException;
+import org.apache.james.blob.memory.MemoryBlobStore;
+import org.apache.james.blob.memory.MemoryDumbBlobStore;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.apache.james.utils.UpdatableTickingClock;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BlobTieringEngineTest {
+    private static final HashBlobId.Factory BLOB_ID_FACTORY = new HashBlobId.Factory();
+    private static final byte[] BLOB_CONTENT = "blob content".getBytes();
+    private static final Instant NOW = Instant.parse("2020-04-01T10:00:00.00Z");
+    private static final Duration COLD_AFTER = Duration.ofDays(30);
+
+    private MemoryBlobStore lowCostBlobStore;
+    private MemoryBlobStore highPerformanceBlobStore;
+    private UpdatableTickingClock clock;
+    private RecordingMetricFactory metricFactory;
+
+    @BeforeEach
+    void setUp() {
+        lowCostBlobStore = new MemoryBlobStore(BLOB_ID_FACTORY, new MemoryDumbBlobStore());
+        highPerformanceBlobStore = new MemoryBlobStore(BLOB_ID_FACTORY, new MemoryDumbBlobStore());
+        clock = new UpdatableTickingClock(NOW);
+        metricFactory = new RecordingMetricFactory();
+    }
+
+    private BlobTieringEngine engine(TieringConfiguration configuration) {
+        return new BlobTieringEngine(lowCostBlobStore, highPerformanceBlobStore, new BlobLocationIndex(clock, configuration.getIndexMaximumEntries()),
+            configuration, metricFactory, clock);
+    }
+
+    private HybridBlobStore hybridBlobStore(BlobTieringEngine engine) {
+        return HybridBlobStore.builder()
+            .lowCost(lowCostBlobStore)
+            .highPerformance(highPerformanceBlobStore)
+            .configuration(HybridBlobStore.Configuration.DEFAULT)
+            .tiering(engine)
+            .build();
+    }
+
+    private TieringConfiguration.Builder configuration() {
+        return TieringConfiguration.builder()
+            .enabled(true)
+            .coldAfter(COLD_AFTER);
+    }
+
+    @Test
+    void runMigrationShouldDemoteColdBlobs() {
+        BlobTieringEngine engine = engine(configuration().build());
+        HybridBlobStore testee = hybridBlobStore(engine);
+        BlobId blobId = testee.save(BucketName.DEFAULT, BLOB_CONTENT, HIGH_PERFORMANCE).block();
+
+        clock.setInstant(NOW.plus(COLD_AFTER).plusSeconds(1));
+        BlobTieringEngine.MigrationReport report = engine.runMigration().block();
+
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(report).isEqualTo(new BlobTieringEngine.MigrationReport(1, 0));
+            softly.assertThat(lowCostBlobStore.read(BucketName.DEFAULT, blobId))
+                .hasSameContentAs(new ByteArrayInputStream(BLOB_CONTENT));
+            softly.assertThatThrownBy(() -> highPerformanceBlobStore.read(BucketName.DEFAULT, blobId))
+                .isInstanceOf(ObjectNotFoundException.class);
+            softly.assertThat(metricFactory.countFor(BlobTieringEngine.DEMOTION_METRIC_NAME)).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void runMigrationShouldNotDemoteRecentlyReadBlobs() {
+        BlobTieringEngine engine = engine(configuration().build());
+        HybridBlobStore testee = hybridBlobStore(engine);
+        BlobId blobId = testee.save(BucketName.DEFAULT, BLOB_CONTENT, HIGH_PERFORMANCE).block();
+
+        clock.setInstant(NOW.plus(COLD_AFTER));
+        testee.readBytes(BucketName.DEFAULT, blobId).block();
+        clock.setInstant(NOW.plus(COLD_AFTER).plusSeconds(1));
+        engine.runMigration().block();
+
+        assertThat(highPerformanceBlobStore.read(BucketName.DEFAULT, blobId))
+            .hasSameContentAs(new ByteArrayInputStream(BLOB_CONTENT));
+    }
+
+    @Test
+    void runMigrationShouldPromoteHotBlobsWhenEnabled() {
+        BlobTieringEngine engine = engine(configuration().promotionAccessThreshold(2).build());
+        HybridBlobStore testee = hybridBlobStore(engine);
+        BlobId blobId = testee.save(BucketName.DEFAULT, BLOB_CONTENT, LOW_COST).block();
+        testee.readBytes(BucketName.DEFAULT, blobId).block();
+        testee.readBytes(BucketName.DEFAULT, blobId).block();
+
+        BlobTieringEngine.MigrationReport report = engine.runMigration().block();
+
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(report).isEqualTo(new BlobTieringEngine.MigrationReport(0, 1));
+            softly.assertThat(highPerformanceBlobStore.read(BucketName.DEFAULT, blobId))
+                .hasSameContentAs(new ByteArrayInputStream(BLOB_CONTENT));
+            softly.assertThatThrownBy(() -> lowCostBlobStore.read(BucketName.DEFAULT, blobId))
+                .isInstanceOf(ObjectNotFoundException.class);
+        });
+    }
+
+    @Test
+    void runMigrationShouldNotPromoteWhenDisabled() {
+        BlobTieringEngine engine = engine(configuration().build());
+        HybridBlobStore testee = hybridBlobStore(engine);
+        BlobId blobId = testee.save(BucketName.DEFAULT, BLOB_CONTENT, LOW_COST).block();
+        testee.readBytes(BucketName.DEFAULT, blobId).block();
+        testee.readBytes(BucketName.DEFAULT, blobId).block();
+
+        engine.runMigration().block();
+
+        assertThat(lowCostBlobStore.read(BucketName.DEFAULT, blobId))
+            .hasSameContentAs(new ByteArrayInputStream(BLOB_CONTENT));
+    }
+
+    @Test
+    void accessCountsShouldBeResetBetweenMigrations() {
+        BlobTieringEngine engine = engine(configuration().promotionAccessThreshold(2).build());
+        HybridBlobStore testee = hybridBlobStore(engine);
+        BlobId blobId = testee.save(BucketName.DEFAULT, BLOB_CONTENT, LOW_COST).block();
+        testee.readBytes(BucketName.DEFAULT, blobId).block();
+        engine.runMigration().block();
+        testee.readBytes(BucketName.DEFAULT, blobId).block();
+
+        BlobTieringEngine.MigrationReport report = engine.runMigration().block();
+
+        assertThat(report).isEqualTo(new BlobTieringEngine.MigrationReport(0, 0));
+    }
+
+    @Test
+    void readShouldBeServedByTheLocatedTier() {
+        BlobTieringEngine engine = engine(configuration().build());
+        HybridBlobStore testee = hybridBlobStore(engine);
+        BlobId blobId = testee.save(BucketName.DEFAULT, BLOB_CONTENT, LOW_COST).block();
+
+        testee.readBytes(BucketName.DEFAULT, blobId).block();
+
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(metricFactory.countFor(BlobTieringEngine.LOW_COST_HIT_METRIC_NAME)).isEqualTo(1);
+            softly.assertThat(metricFactory.countFor(BlobTieringEngine.HIGH_PERFORMANCE_HIT_METRIC_NAME)).isEqualTo(0);
+            softly.assertThat(metricFactory.countFor(BlobTieringEngine.LOCATION_MISS_METRIC_NAME)).isEqualTo(0);
+        });
+    }
+
+    @Test
+    void readShouldFallbackToOtherTierWhenLocationIsOutdated() {
+        BlobTieringEngine engine = engine(configuration().build());
+        HybridBlobStore testee = hybridBlobStore(engine);
+        BlobId blobId = testee.save(BucketName.DEFAULT, BLOB_CONTENT, HIGH_PERFORMANCE).block();
+        lowCostBlobStore.save(BucketName.DEFAULT, BLOB_CONTENT, LOW_COST).block();
+        highPerformanceBlobStore.delete(BucketName.DEFAULT, blobId).block();
+
+        assertThat(testee.read(BucketName.DEFAULT, blobId))
+            .hasSameContentAs(new ByteArrayInputStream(BLOB_CONTENT));
+    }
+
+    @Test
+    void readShouldProbeWhenBlobIsNotIndexed() {
+        BlobTieringEngine engine = engine(configuration().build());
+        HybridBlobStore testee = hybridBlobStore(engine);
+        BlobId blobId = lowCostBlobStore.save(BucketName.DEFAULT, BLOB_CONTENT, LOW_COST).block();
+
+        assertThat(testee.readBytes(BucketName.DEFAULT, blobId).block()).isEqualTo(BLOB_CONTENT);
+        assertThat(metricFactory.countFor(BlobTieringEngine.LOCATION_MISS_METRIC_NAME)).isEqualTo(1);
+    }
+
+    @Test
+    void deletedBlobsShouldNotBeMigrated() {
+        BlobTieringEngine engine = engine(configuration().build());
+        HybridBlobStore testee = hybridBlobStore(engine);
+        BlobId blobId = testee.save(BucketName.DEFAULT, BLOB_CONTENT, HIGH_PERFORMANCE).block();
+        testee.delete(BucketName.DEFAULT, blobId).block();
+
+        clock.setInstant(NOW.plus(COLD_AFTER).plusSeconds(1));
+        engine.runMigration().block();
+
+        assertThatThrownBy(() -> lowCostBlobStore.read(BucketName.DEFAULT, blobId))
+            .isInstanceOf(ObjectNotFoundException.class);
+    }
+}
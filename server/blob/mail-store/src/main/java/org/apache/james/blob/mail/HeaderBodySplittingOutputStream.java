@@ -0,0 +1,98 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.mail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * {@link OutputStream} splitting a message being written into its headers and its body.
+ *
+ * Headers, including the blank line separating them from the body, are kept in memory while the body is forwarded
+ * to the supplied {@link OutputStream}. Headers and body are thus separated in a single pass, without buffering the
+ * whole message.
+ *
+ * As for {@link org.apache.james.util.io.BodyOffsetInputStream}, when no header/body separator is found, the whole
+ * content is considered as the body.
+ *
+ *  IMPORTANT: This class is not thread-safe!
+ */
+class HeaderBodySplittingOutputStream extends OutputStream {
+    private static final int SEPARATOR = 0x0D0A0D0A;
+
+    private final ByteArrayOutputStream headers;
+    private final OutputStream body;
+    private int lastBytes;
+    private boolean inBody;
+
+    HeaderBodySplittingOutputStream(OutputStream body) {
+        this.headers = new ByteArrayOutputStream();
+        this.body = body;
+        this.lastBytes = 0;
+        this.inBody = false;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (inBody) {
+            body.write(b);
+            return;
+        }
+        headers.write(b);
+        lastBytes = (lastBytes << 8) | (b & 0xFF);
+        inBody = lastBytes == SEPARATOR;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        int position = off;
+        int end = off + len;
+        while (!inBody && position < end) {
+            write(b[position]);
+            position++;
+        }
+        if (position < end) {
+            body.write(b, position, end - position);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        body.flush();
+    }
+
+    /**
+     * Completes the split: when no header/body separator had been written, everything is moved to the body.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!inBody) {
+            headers.writeTo(body);
+            headers.reset();
+            inBody = true;
+        }
+        body.close();
+    }
+
+    byte[] getHeaderBytes() {
+        return headers.toByteArray();
+    }
+}
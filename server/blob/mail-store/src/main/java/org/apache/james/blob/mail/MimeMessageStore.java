@@ -19,18 +19,15 @@
 
 package org.apache.james.blob.mail;
 
-import static org.apache.commons.io.output.NullOutputStream.NULL_OUTPUT_STREAM;
 import static org.apache.james.blob.api.BlobStore.StoragePolicy.LOW_COST;
 import static org.apache.james.blob.api.BlobStore.StoragePolicy.SIZE_BASED;
 import static org.apache.james.blob.mail.MimeMessagePartsId.BODY_BLOB_TYPE;
 import static org.apache.james.blob.mail.MimeMessagePartsId.HEADER_BLOB_TYPE;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.SequenceInputStream;
-import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.Properties;
 import java.util.stream.Stream;
@@ -40,17 +37,27 @@ import javax.mail.MessagingException;
 import javax.mail.Session;
 import javax.mail.internet.MimeMessage;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.api.BlobStore;
 import org.apache.james.blob.api.BlobType;
+import org.apache.james.blob.api.BucketName;
 import org.apache.james.blob.api.Store;
-import org.apache.james.util.io.BodyOffsetInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import com.github.fge.lambdas.Throwing;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.io.FileBackedOutputStream;
+
+import reactor.core.publisher.Mono;
 
 public class MimeMessageStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MimeMessageStore.class);
+    private static final int FILE_THRESHOLD = 100 * 1024;
+    private static final boolean RESET_ON_FINALIZE = true;
+    private static final boolean LAZY_RESOURCE_CLEANUP = false;
 
     public static class Factory {
         private final BlobStore blobStore;
@@ -72,59 +79,49 @@ public class MimeMessageStore {
     static class MimeMessageEncoder implements Store.Impl.Encoder<MimeMessage> {
         @Override
         public Stream<Pair<BlobType, Store.Impl.ValueToSave>> encode(MimeMessage message) {
+            FileBackedOutputStream bodyOutputStream = new FileBackedOutputStream(FILE_THRESHOLD, RESET_ON_FINALIZE);
+            HeaderBodySplittingOutputStream splittingOutputStream = new HeaderBodySplittingOutputStream(bodyOutputStream);
             try {
-                byte[] messageAsArray = messageToArray(message);
-                int bodyStartOctet = computeBodyStartOctet(messageAsArray);
-                byte[] headerBytes = getHeaderBytes(messageAsArray, bodyStartOctet);
-                byte[] bodyBytes = getBodyBytes(messageAsArray, bodyStartOctet);
+                message.writeTo(splittingOutputStream);
+                splittingOutputStream.close();
                 return Stream.of(
-                    Pair.of(HEADER_BLOB_TYPE, new Store.Impl.BytesToSave(headerBytes, SIZE_BASED)),
-                    Pair.of(BODY_BLOB_TYPE, new Store.Impl.BytesToSave(bodyBytes, LOW_COST)));
+                    Pair.of(HEADER_BLOB_TYPE, new Store.Impl.BytesToSave(splittingOutputStream.getHeaderBytes(), SIZE_BASED)),
+                    Pair.of(BODY_BLOB_TYPE, new FileBackedBodyToSave(bodyOutputStream)));
             } catch (MessagingException | IOException e) {
+                resetQuietly(bodyOutputStream);
                 throw new RuntimeException(e);
             }
         }
-        
-        private static byte[] messageToArray(MimeMessage message) throws IOException, MessagingException {
-            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            message.writeTo(byteArrayOutputStream);
-            return byteArrayOutputStream.toByteArray();
-        }
-
-        private static byte[] getHeaderBytes(byte[] messageContentAsArray, int bodyStartOctet) {
-            ByteBuffer headerContent = ByteBuffer.wrap(messageContentAsArray, 0, bodyStartOctet);
-            byte[] headerBytes = new byte[bodyStartOctet];
-            headerContent.get(headerBytes);
-            return headerBytes;
-        }
 
-        private static byte[] getBodyBytes(byte[] messageContentAsArray, int bodyStartOctet) {
-            if (bodyStartOctet < messageContentAsArray.length) {
-                ByteBuffer bodyContent = ByteBuffer.wrap(messageContentAsArray,
-                    bodyStartOctet,
-                    messageContentAsArray.length - bodyStartOctet);
-                byte[] bodyBytes = new byte[messageContentAsArray.length - bodyStartOctet];
-                bodyContent.get(bodyBytes);
-                return bodyBytes;
-            } else {
-                return new byte[] {};
+        private static void resetQuietly(FileBackedOutputStream fileBackedOutputStream) {
+            try {
+                fileBackedOutputStream.reset();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to clean up message body temporary storage", e);
             }
         }
+    }
 
-        private static int computeBodyStartOctet(byte[] messageAsArray) throws IOException {
-            try (BodyOffsetInputStream bodyOffsetInputStream =
-                     new BodyOffsetInputStream(new ByteArrayInputStream(messageAsArray))) {
-                consume(bodyOffsetInputStream);
+    /**
+     * Streams the body to the {@link BlobStore}, then releases its temporary storage.
+     */
+    private static class FileBackedBodyToSave implements Store.Impl.ValueToSave {
+        private final FileBackedOutputStream body;
 
-                if (bodyOffsetInputStream.getBodyStartOffset() == -1) {
-                    return 0;
-                }
-                return (int) bodyOffsetInputStream.getBodyStartOffset();
-            }
+        FileBackedBodyToSave(FileBackedOutputStream body) {
+            this.body = body;
         }
 
-        private static void consume(InputStream in) throws IOException {
-            IOUtils.copy(in, NULL_OUTPUT_STREAM);
+        @Override
+        public Mono<BlobId> saveIn(BucketName bucketName, BlobStore blobStore) {
+            return Mono.using(
+                () -> body.asByteSource().openStream(),
+                inputStream -> Mono.from(blobStore.save(bucketName, inputStream, LOW_COST)),
+                Throwing.<InputStream>consumer(inputStream -> {
+                    inputStream.close();
+                    body.reset();
+                }).sneakyThrow(),
+                LAZY_RESOURCE_CLEANUP);
         }
     }
 
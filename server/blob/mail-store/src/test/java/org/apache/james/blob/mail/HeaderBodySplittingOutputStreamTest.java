@@ -0,0 +1,90 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.Test;
+
+class HeaderBodySplittingOutputStreamTest {
+    @Test
+    void writeShouldSplitHeadersAndBody() throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        HeaderBodySplittingOutputStream testee = new HeaderBodySplittingOutputStream(body);
+
+        testee.write("Subject: test\r\nFrom: a@b.c\r\n\r\nbody\r\n\r\nmore".getBytes(StandardCharsets.US_ASCII));
+        testee.close();
+
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(new String(testee.getHeaderBytes(), StandardCharsets.US_ASCII))
+                .isEqualTo("Subject: test\r\nFrom: a@b.c\r\n\r\n");
+            softly.assertThat(new String(body.toByteArray(), StandardCharsets.US_ASCII))
+                .isEqualTo("body\r\n\r\nmore");
+        });
+    }
+
+    @Test
+    void writeShouldDetectSeparatorSpanningSeveralWrites() throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        HeaderBodySplittingOutputStream testee = new HeaderBodySplittingOutputStream(body);
+
+        testee.write("Subject: test\r\n\r".getBytes(StandardCharsets.US_ASCII));
+        testee.write('\n');
+        testee.write("body".getBytes(StandardCharsets.US_ASCII));
+        testee.close();
+
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(new String(testee.getHeaderBytes(), StandardCharsets.US_ASCII))
+                .isEqualTo("Subject: test\r\n\r\n");
+            softly.assertThat(new String(body.toByteArray(), StandardCharsets.US_ASCII))
+                .isEqualTo("body");
+        });
+    }
+
+    @Test
+    void closeShouldMoveEverythingToBodyWhenNoSeparator() throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        HeaderBodySplittingOutputStream testee = new HeaderBodySplittingOutputStream(body);
+
+        testee.write("no separator\r\nhere".getBytes(StandardCharsets.US_ASCII));
+        testee.close();
+
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(testee.getHeaderBytes()).isEmpty();
+            softly.assertThat(new String(body.toByteArray(), StandardCharsets.US_ASCII))
+                .isEqualTo("no separator\r\nhere");
+        });
+    }
+
+    @Test
+    void writeShouldHandleEmptyBody() throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        HeaderBodySplittingOutputStream testee = new HeaderBodySplittingOutputStream(body);
+
+        testee.write("Subject: test\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+        testee.close();
+
+        assertThat(body.toByteArray()).isEmpty();
+    }
+}
@@ -38,6 +38,8 @@ import org.assertj.core.api.SoftAssertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.base.Strings;
+
 import reactor.core.publisher.Mono;
 
 class MimeMessageStoreTest {
@@ -128,4 +130,21 @@ class MimeMessageStoreTest {
                     .isEqualTo("Important mail content");
             });
     }
+
+    @Test
+    void mailStoreShouldPreserveBigMail() throws Exception {
+        MimeMessage message = MimeMessageBuilder.mimeMessageBuilder()
+            .addFrom("any@any.com")
+            .addToRecipient("toddy@any.com")
+            .setSubject("Important Mail")
+            .setText(Strings.repeat("0123456789\r\n", 1024 * 1024))
+            .build();
+
+        MimeMessagePartsId parts = testee.save(message).block();
+
+        MimeMessage retrievedMessage = testee.read(parts).block();
+
+        assertThat(MimeMessageUtil.asString(retrievedMessage))
+            .isEqualTo(MimeMessageUtil.asString(message));
+    }
 }
@@ -21,6 +21,7 @@ package org.apache.james.server.core;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Optional;
 
 /**
  * This defines a reusable datasource that can supply an input stream with
@@ -72,4 +73,14 @@ public abstract class MimeMessageSource {
         return size;
     }
 
+    /**
+     * Returns the id of the blob holding the body of this message, when this source reads it from a blob store. The
+     * body does not need to be stored again in that blob store.
+     *
+     * @return the blob id, empty by default
+     */
+    public Optional<String> getStoredBodyId() {
+        return Optional.empty();
+    }
+
 }
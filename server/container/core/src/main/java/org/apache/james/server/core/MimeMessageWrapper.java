@@ -29,6 +29,7 @@ import java.io.OutputStream;
 import java.io.SequenceInputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.Enumeration;
+import java.util.Optional;
 import java.util.UUID;
 
 import javax.activation.DataHandler;
@@ -182,6 +183,16 @@ public class MimeMessageWrapper extends MimeMessage implements Disposable {
         return source != null ? source.getSourceId() : null;
     }
 
+    /**
+     * Returns the id of the blob holding the body of the MimeMessageSource that is supplying this with data, if any.
+     * 
+     * @see MimeMessageSource#getStoredBodyId()
+     */
+    public synchronized Optional<String> getStoredBodyId() {
+        return Optional.ofNullable(source)
+            .flatMap(MimeMessageSource::getStoredBodyId);
+    }
+
     /**
      * Load the message headers from the internal source.
      * 
@@ -0,0 +1,86 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.modules;
+
+import java.io.FileNotFoundException;
+
+import javax.inject.Singleton;
+
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.DumbBlobStore;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.blob.memory.MemoryDumbBlobStore;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.server.blob.deduplication.ChunkReferences;
+import org.apache.james.server.blob.deduplication.ChunkingBlobStore;
+import org.apache.james.server.blob.deduplication.ChunkingConfiguration;
+import org.apache.james.server.blob.deduplication.MemoryChunkReferences;
+import org.apache.james.utils.PropertiesProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Scopes;
+
+/**
+ * Alternative to {@link BlobMemoryModule} deduplicating blobs at the chunk level with a {@link ChunkingBlobStore}.
+ *
+ * Chunk sizes are read from the <code>deduplication.chunking.min.size</code>,
+ * <code>deduplication.chunking.average.size</code> and <code>deduplication.chunking.max.size</code> entries of
+ * <code>blobstore.properties</code>.
+ */
+public class ChunkingBlobMemoryModule extends AbstractModule {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChunkingBlobMemoryModule.class);
+    private static final String BLOBSTORE_CONFIGURATION_NAME = "blobstore";
+
+    @Override
+    protected void configure() {
+        bind(HashBlobId.Factory.class).in(Scopes.SINGLETON);
+        bind(BlobId.Factory.class).to(HashBlobId.Factory.class);
+
+        bind(MemoryDumbBlobStore.class).in(Scopes.SINGLETON);
+        bind(DumbBlobStore.class).to(MemoryDumbBlobStore.class);
+
+        bind(MemoryChunkReferences.class).in(Scopes.SINGLETON);
+        bind(ChunkReferences.class).to(MemoryChunkReferences.class);
+    }
+
+    @Provides
+    @Singleton
+    BlobStore provideChunkingBlobStore(DumbBlobStore dumbBlobStore, ChunkReferences chunkReferences, HashBlobId.Factory blobIdFactory,
+                                       ChunkingConfiguration configuration, MetricFactory metricFactory) {
+        return new ChunkingBlobStore(dumbBlobStore, chunkReferences, blobIdFactory, BucketName.DEFAULT, configuration, metricFactory);
+    }
+
+    @Provides
+    @Singleton
+    ChunkingConfiguration provideChunkingConfiguration(PropertiesProvider propertiesProvider) throws ConfigurationException {
+        try {
+            return ChunkingConfiguration.from(propertiesProvider.getConfiguration(BLOBSTORE_CONFIGURATION_NAME));
+        } catch (FileNotFoundException e) {
+            LOGGER.warn("Could not find " + BLOBSTORE_CONFIGURATION_NAME + " configuration file. Using default chunk sizes");
+            return ChunkingConfiguration.DEFAULT;
+        }
+    }
+}
@@ -21,6 +21,9 @@ package org.apache.james.modules;
 import org.apache.james.backends.cassandra.migration.MigrationTask;
 import org.apache.james.backends.cassandra.migration.MigrationTaskAdditionalInformationDTO;
 import org.apache.james.backends.cassandra.migration.MigrationTaskDTO;
+import org.apache.james.mailbox.cassandra.mail.migration.MessageIdBucketingMigration;
+import org.apache.james.mailbox.cassandra.mail.migration.MessageIdBucketingMigrationTaskAdditionalInformationDTO;
+import org.apache.james.mailbox.cassandra.mail.migration.MessageIdBucketingMigrationTaskDTO;
 import org.apache.james.mailbox.cassandra.mail.task.MailboxMergingTaskAdditionalInformationDTO;
 import org.apache.james.mailbox.cassandra.mail.task.MailboxMergingTaskDTO;
 import org.apache.james.mailbox.cassandra.mail.task.MailboxMergingTaskRunner;
@@ -81,6 +84,11 @@ public class CassandraConsistencyTaskSerializationModule extends AbstractModule
         return SolveMessageInconsistenciesTaskDTO.module(solveMessageInconsistenciesService);
     }
 
+    @ProvidesIntoSet
+    public TaskDTOModule<? extends Task, ? extends TaskDTO> messageIdBucketingMigrationTask(MessageIdBucketingMigration migration) {
+        return MessageIdBucketingMigrationTaskDTO.MODULE.apply(migration);
+    }
+
     @ProvidesIntoSet
     public AdditionalInformationDTOModule<? extends TaskExecutionDetails.AdditionalInformation, ? extends  AdditionalInformationDTO> cassandraMappingsSolveInconsistenciesAdditionalInformation() {
         return MappingsSourcesMigrationTaskAdditionalInformationDTO.module(CassandraMappingsSolveInconsistenciesTask.TYPE);
@@ -146,4 +154,15 @@ public class CassandraConsistencyTaskSerializationModule extends AbstractModule
     public AdditionalInformationDTOModule<? extends TaskExecutionDetails.AdditionalInformation, ? extends  AdditionalInformationDTO> webAdminSolveMessageInconsistenciesAdditionalInformation() {
         return SolveMessageInconsistenciesTaskAdditionalInformationDTO.module();
     }
+
+    @ProvidesIntoSet
+    public AdditionalInformationDTOModule<? extends TaskExecutionDetails.AdditionalInformation, ? extends  AdditionalInformationDTO> messageIdBucketingMigrationAdditionalInformation() {
+        return MessageIdBucketingMigrationTaskAdditionalInformationDTO.MODULE;
+    }
+
+    @Named(DTOModuleInjections.WEBADMIN_DTO)
+    @ProvidesIntoSet
+    public AdditionalInformationDTOModule<? extends TaskExecutionDetails.AdditionalInformation, ? extends  AdditionalInformationDTO> webAdminMessageIdBucketingMigrationAdditionalInformation() {
+        return MessageIdBucketingMigrationTaskAdditionalInformationDTO.MODULE;
+    }
 }
@@ -0,0 +1,75 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.modules.mailbox;
+
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+import org.apache.james.lifecycle.api.StartUpCheck;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Prevents a node from starting with a UID index bucket size that differs from the activated one: such a node would
+ * read and write another layout than the rest of the cluster.
+ */
+public class CassandraMessageIdBucketLayoutStartUpCheck implements StartUpCheck {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CassandraMessageIdBucketLayoutStartUpCheck.class);
+    static final String CHECK_NAME = "CassandraMessageIdBucketLayoutStartUpCheck";
+
+    private final CassandraMessageIdDAO messageIdDAO;
+
+    @Inject
+    public CassandraMessageIdBucketLayoutStartUpCheck(CassandraMessageIdDAO messageIdDAO) {
+        this.messageIdDAO = messageIdDAO;
+    }
+
+    @Override
+    public CheckResult check() {
+        Optional<Integer> configuredBucketSize = messageIdDAO.getConfiguredBucketSize();
+        Optional<Integer> activatedBucketSize = messageIdDAO.retrieveActivatedBucketSize().blockOptional();
+
+        if (activatedBucketSize.isPresent() && !activatedBucketSize.equals(configuredBucketSize)) {
+            String message = String.format("The UID index bucketed layout is activated with a bucket size of %d whereas "
+                    + "'mailbox.uid.index.bucket.size' is %s. Set it to %d in cassandra.properties.",
+                activatedBucketSize.get(),
+                configuredBucketSize.map(String::valueOf).orElse("not set"),
+                activatedBucketSize.get());
+            LOGGER.error(message);
+            return CheckResult.builder()
+                .checkName(checkName())
+                .resultType(ResultType.BAD)
+                .description(message)
+                .build();
+        }
+        return CheckResult.builder()
+            .checkName(checkName())
+            .resultType(ResultType.GOOD)
+            .build();
+    }
+
+    @Override
+    public String checkName() {
+        return CHECK_NAME;
+    }
+}
@@ -19,12 +19,16 @@
 
 package org.apache.james.modules.mailbox;
 
+import java.lang.reflect.Constructor;
+import java.time.Duration;
+
 import org.apache.james.backends.cassandra.components.CassandraModule;
 import org.apache.james.mailbox.cassandra.quota.CassandraCurrentQuotaManager;
 import org.apache.james.mailbox.cassandra.quota.CassandraGlobalMaxQuotaDao;
 import org.apache.james.mailbox.cassandra.quota.CassandraPerDomainMaxQuotaDao;
 import org.apache.james.mailbox.cassandra.quota.CassandraPerUserMaxQuotaDao;
 import org.apache.james.mailbox.cassandra.quota.CassandraPerUserMaxQuotaManager;
+import org.apache.james.mailbox.events.EventBus;
 import org.apache.james.mailbox.events.MailboxListener;
 import org.apache.james.mailbox.quota.CurrentQuotaManager;
 import org.apache.james.mailbox.quota.MaxQuotaManager;
@@ -32,6 +36,7 @@ import org.apache.james.mailbox.quota.QuotaManager;
 import org.apache.james.mailbox.quota.QuotaRootDeserializer;
 import org.apache.james.mailbox.quota.QuotaRootResolver;
 import org.apache.james.mailbox.quota.UserQuotaRootResolver;
+import org.apache.james.mailbox.store.quota.CoalescingCurrentQuotaManager;
 import org.apache.james.mailbox.store.quota.DefaultUserQuotaRootResolver;
 import org.apache.james.mailbox.store.quota.ListeningCurrentQuotaUpdater;
 import org.apache.james.mailbox.store.quota.QuotaUpdater;
@@ -40,8 +45,10 @@ import org.apache.james.mailbox.store.quota.StoreQuotaManager;
 import com.google.inject.AbstractModule;
 import com.google.inject.Scopes;
 import com.google.inject.multibindings.Multibinder;
+import com.google.inject.name.Names;
 
 public class CassandraQuotaModule extends AbstractModule {
+    private static final Duration QUOTA_USAGE_EVENT_THROTTLING = Duration.ofSeconds(1);
 
     @Override
     protected void configure() {
@@ -53,7 +60,9 @@ public class CassandraQuotaModule extends AbstractModule {
         bind(DefaultUserQuotaRootResolver.class).in(Scopes.SINGLETON);
         bind(StoreQuotaManager.class).in(Scopes.SINGLETON);
 
-        bind(CurrentQuotaManager.class).to(CassandraCurrentQuotaManager.class);
+        bind(CoalescingCurrentQuotaManager.class).in(Scopes.SINGLETON);
+        bind(CurrentQuotaManager.class).annotatedWith(Names.named(CoalescingCurrentQuotaManager.DELEGATE)).to(CassandraCurrentQuotaManager.class);
+        bind(CurrentQuotaManager.class).to(CoalescingCurrentQuotaManager.class);
         bind(MaxQuotaManager.class).to(CassandraPerUserMaxQuotaManager.class);
         bind(QuotaManager.class).to(StoreQuotaManager.class);
         bind(QuotaRootResolver.class).to(DefaultUserQuotaRootResolver.class);
@@ -63,10 +72,24 @@ public class CassandraQuotaModule extends AbstractModule {
         Multibinder<CassandraModule> cassandraDataDefinitions = Multibinder.newSetBinder(binder(), CassandraModule.class);
         cassandraDataDefinitions.addBinding().toInstance(org.apache.james.mailbox.cassandra.modules.CassandraQuotaModule.MODULE);
 
-        bind(ListeningCurrentQuotaUpdater.class).in(Scopes.SINGLETON);
+        bind(Duration.class).annotatedWith(Names.named(ListeningCurrentQuotaUpdater.USAGE_EVENT_THROTTLING)).toInstance(QUOTA_USAGE_EVENT_THROTTLING);
+        bind(ListeningCurrentQuotaUpdater.class).toConstructor(throttledListeningCurrentQuotaUpdaterConstructor()).in(Scopes.SINGLETON);
         bind(QuotaUpdater.class).to(ListeningCurrentQuotaUpdater.class);
         Multibinder.newSetBinder(binder(), MailboxListener.ReactiveGroupMailboxListener.class)
             .addBinding()
             .to(ListeningCurrentQuotaUpdater.class);
     }
+
+    /**
+     * Constructor binding rather than a provider method, so that pending throttled events get published upon
+     * shutdown.
+     */
+    private static Constructor<ListeningCurrentQuotaUpdater> throttledListeningCurrentQuotaUpdaterConstructor() {
+        try {
+            return ListeningCurrentQuotaUpdater.class.getConstructor(CurrentQuotaManager.class, QuotaRootResolver.class,
+                EventBus.class, QuotaManager.class, Duration.class);
+        } catch (NoSuchMethodException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
@@ -33,7 +33,9 @@ import org.apache.james.backends.cassandra.init.configuration.CassandraConsisten
 import org.apache.james.backends.cassandra.init.configuration.ClusterConfiguration;
 import org.apache.james.backends.cassandra.init.configuration.KeyspaceConfiguration;
 import org.apache.james.backends.cassandra.utils.CassandraHealthCheck;
+import org.apache.james.backends.cassandra.utils.CassandraStatementProfiler;
 import org.apache.james.backends.cassandra.utils.CassandraUtils;
+import org.apache.james.backends.cassandra.utils.ProfiledSession;
 import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionDAO;
 import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionManager;
 import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionModule;
@@ -73,7 +75,7 @@ public class CassandraSessionModule extends AbstractModule {
 
         bind(InitializedCluster.class).in(Scopes.SINGLETON);
 
-        bind(Session.class).toProvider(SessionWithInitializedTablesFactory.class);
+        bind(CassandraStatementProfiler.class).in(Scopes.SINGLETON);
 
         Multibinder<CassandraModule> cassandraDataDefinitions = Multibinder.newSetBinder(binder(), CassandraModule.class);
         cassandraDataDefinitions.addBinding().toInstance(CassandraZonedDateTimeModule.MODULE);
@@ -98,6 +100,12 @@ public class CassandraSessionModule extends AbstractModule {
         return new SessionWithInitializedTablesFactory(keyspaceConfiguration, cluster.cluster, module);
     }
 
+    @Provides
+    @Singleton
+    Session provideSession(SessionWithInitializedTablesFactory sessionFactory, CassandraStatementProfiler profiler) {
+        return new ProfiledSession(sessionFactory.get(), profiler);
+    }
+
     @Provides
     @Singleton
     CassandraModule composeDataDefinitions(Set<CassandraModule> modules) {
@@ -116,6 +124,7 @@ public class CassandraSessionModule extends AbstractModule {
                     .fetchFull(configuration.getInt("fetch.full", BatchSizes.DEFAULT_BATCH_SIZE))
                     .copyBatchSize(configuration.getInt("copy", BatchSizes.DEFAULT_BATCH_SIZE))
                     .moveBatchSize(configuration.getInt("move", BatchSizes.DEFAULT_BATCH_SIZE))
+                    .appendBatchSize(configuration.getInt("append", BatchSizes.DEFAULT_BATCH_SIZE))
                     .build();
             LOGGER.debug("BatchSize configuration: {}", batchSizes);
             return batchSizes;
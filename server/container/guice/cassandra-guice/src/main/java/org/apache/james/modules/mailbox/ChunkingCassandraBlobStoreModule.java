@@ -0,0 +1,85 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.modules.mailbox;
+
+import java.io.FileNotFoundException;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.james.backends.cassandra.components.CassandraModule;
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.blob.api.MetricableBlobStore;
+import org.apache.james.blob.cassandra.CassandraDumbBlobStore;
+import org.apache.james.blob.cassandra.deduplication.CassandraChunkReferences;
+import org.apache.james.blob.cassandra.deduplication.CassandraChunkReferencesModule;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.server.blob.deduplication.ChunkingBlobStore;
+import org.apache.james.server.blob.deduplication.ChunkingConfiguration;
+import org.apache.james.utils.PropertiesProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Scopes;
+import com.google.inject.multibindings.Multibinder;
+
+/**
+ * Alternative to {@link CassandraBlobStoreModule} deduplicating blobs at the chunk level with a
+ * {@link ChunkingBlobStore}, chunk references being counted in Cassandra.
+ *
+ * Chunk sizes are read from <code>blobstore.properties</code>, see {@link ChunkingConfiguration}.
+ */
+public class ChunkingCassandraBlobStoreModule extends AbstractModule {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChunkingCassandraBlobStoreModule.class);
+    private static final String BLOBSTORE_CONFIGURATION_NAME = "blobstore";
+
+    @Override
+    protected void configure() {
+        bind(CassandraChunkReferences.class).in(Scopes.SINGLETON);
+
+        Multibinder<CassandraModule> cassandraDataDefinitions = Multibinder.newSetBinder(binder(), CassandraModule.class);
+        cassandraDataDefinitions.addBinding().toInstance(CassandraChunkReferencesModule.MODULE);
+    }
+
+    @Provides
+    @Singleton
+    @Named(MetricableBlobStore.BLOB_STORE_IMPLEMENTATION)
+    BlobStore provideChunkingBlobStore(CassandraDumbBlobStore dumbBlobStore, CassandraChunkReferences chunkReferences,
+                                       HashBlobId.Factory blobIdFactory, ChunkingConfiguration configuration,
+                                       MetricFactory metricFactory) {
+        return new ChunkingBlobStore(dumbBlobStore, chunkReferences, blobIdFactory, BucketName.DEFAULT, configuration, metricFactory);
+    }
+
+    @Provides
+    @Singleton
+    ChunkingConfiguration provideChunkingConfiguration(PropertiesProvider propertiesProvider) throws ConfigurationException {
+        try {
+            return ChunkingConfiguration.from(propertiesProvider.getConfiguration(BLOBSTORE_CONFIGURATION_NAME));
+        } catch (FileNotFoundException e) {
+            LOGGER.warn("Could not find " + BLOBSTORE_CONFIGURATION_NAME + " configuration file. Using default chunk sizes");
+            return ChunkingConfiguration.DEFAULT;
+        }
+    }
+}
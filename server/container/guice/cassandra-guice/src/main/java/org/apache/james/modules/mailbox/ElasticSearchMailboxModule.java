@@ -24,12 +24,15 @@ import static org.apache.james.mailbox.elasticsearch.search.ElasticSearchSearche
 import java.io.FileNotFoundException;
 import java.io.IOException;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 
 import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.james.backends.es.BulkIndexer;
 import org.apache.james.backends.es.ElasticSearchConfiguration;
 import org.apache.james.backends.es.ElasticSearchIndexer;
 import org.apache.james.backends.es.ReactorElasticSearchClient;
@@ -37,18 +40,24 @@ import org.apache.james.backends.es.RoutingKey;
 import org.apache.james.lifecycle.api.StartUpCheck;
 import org.apache.james.lifecycle.api.Startable;
 import org.apache.james.mailbox.elasticsearch.ElasticSearchMailboxConfiguration;
+import org.apache.james.mailbox.elasticsearch.FlagsStorage;
 import org.apache.james.mailbox.elasticsearch.IndexAttachments;
+import org.apache.james.mailbox.elasticsearch.IndexOwner;
 import org.apache.james.mailbox.elasticsearch.MailboxElasticSearchConstants;
 import org.apache.james.mailbox.elasticsearch.MailboxIdRoutingKeyFactory;
 import org.apache.james.mailbox.elasticsearch.MailboxIndexCreationUtil;
+import org.apache.james.mailbox.elasticsearch.events.ElasticSearchAttachmentTextListener;
 import org.apache.james.mailbox.elasticsearch.events.ElasticSearchListeningMessageSearchIndex;
 import org.apache.james.mailbox.elasticsearch.query.QueryConverter;
 import org.apache.james.mailbox.elasticsearch.search.ElasticSearchSearcher;
+import org.apache.james.mailbox.events.EventBus;
 import org.apache.james.mailbox.events.MailboxListener;
 import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MessageId;
+import org.apache.james.mailbox.store.search.CachingMessageSearchIndex;
 import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
 import org.apache.james.mailbox.store.search.MessageSearchIndex;
+import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.utils.InitializationOperation;
 import org.apache.james.utils.InitilizationOperationBuilder;
 import org.apache.james.utils.PropertiesProvider;
@@ -88,6 +97,27 @@ public class ElasticSearchMailboxModule extends AbstractModule {
         }
     }
 
+    static class BulkIndexerProvider implements Provider<BulkIndexer> {
+        private final BulkIndexer bulkIndexer;
+
+        @Inject
+        BulkIndexerProvider(ReactorElasticSearchClient client,
+                            ElasticSearchMailboxConfiguration configuration,
+                            MetricFactory metricFactory) {
+            this.bulkIndexer = new BulkIndexer(client, configuration.getBulkConfiguration(), metricFactory);
+        }
+
+        @Override
+        public BulkIndexer get() {
+            return bulkIndexer;
+        }
+
+        @PreDestroy
+        public void close() {
+            bulkIndexer.close();
+        }
+    }
+
     private static final Logger LOGGER = LoggerFactory.getLogger(ElasticSearchMailboxModule.class);
 
     public static final String ELASTICSEARCH_CONFIGURATION_NAME = "elasticsearch";
@@ -96,29 +126,46 @@ public class ElasticSearchMailboxModule extends AbstractModule {
     protected void configure() {
         install(new ElasticSearchQuotaSearcherModule());
 
+        bind(BulkIndexerProvider.class).in(Scopes.SINGLETON);
+        bind(BulkIndexer.class).toProvider(BulkIndexerProvider.class);
+
         bind(ElasticSearchListeningMessageSearchIndex.class).in(Scopes.SINGLETON);
-        bind(MessageSearchIndex.class).to(ElasticSearchListeningMessageSearchIndex.class);
         bind(ListeningMessageSearchIndex.class).to(ElasticSearchListeningMessageSearchIndex.class);
 
         bind(new TypeLiteral<RoutingKey.Factory<MailboxId>>() {}).to(MailboxIdRoutingKeyFactory.class);
 
-        Multibinder.newSetBinder(binder(), MailboxListener.GroupMailboxListener.class)
-            .addBinding()
-            .to(ElasticSearchListeningMessageSearchIndex.class);
+        bind(ElasticSearchAttachmentTextListener.class).in(Scopes.SINGLETON);
+
+        Multibinder<MailboxListener.GroupMailboxListener> mailboxListeners = Multibinder.newSetBinder(binder(), MailboxListener.GroupMailboxListener.class);
+        mailboxListeners.addBinding().to(ElasticSearchListeningMessageSearchIndex.class);
+        mailboxListeners.addBinding().to(ElasticSearchAttachmentTextListener.class);
 
         Multibinder.newSetBinder(binder(), StartUpCheck.class)
             .addBinding()
             .to(ElasticSearchStartUpCheck.class);
     }
 
+    @Provides
+    @Singleton
+    private MessageSearchIndex provideMessageSearchIndex(ElasticSearchListeningMessageSearchIndex searchIndex,
+                                                         ElasticSearchMailboxConfiguration configuration,
+                                                         EventBus eventBus,
+                                                         MetricFactory metricFactory) {
+        return configuration.getSearchCacheConfiguration()
+            .<MessageSearchIndex>map(cacheConfiguration -> new CachingMessageSearchIndex(searchIndex, eventBus, metricFactory, cacheConfiguration))
+            .orElse(searchIndex);
+    }
+
     @Provides
     @Singleton
     @Named(MailboxElasticSearchConstants.InjectionNames.MAILBOX)
     private ElasticSearchIndexer createMailboxElasticSearchIndexer(ReactorElasticSearchClient client,
-                                                                   ElasticSearchMailboxConfiguration configuration) {
+                                                                   ElasticSearchMailboxConfiguration configuration,
+                                                                   BulkIndexer bulkIndexer) {
         return new ElasticSearchIndexer(
             client,
-            configuration.getWriteAliasMailboxName());
+            configuration.getWriteAliasMailboxName(),
+            bulkIndexer);
     }
 
     @Provides
@@ -169,6 +216,18 @@ public class ElasticSearchMailboxModule extends AbstractModule {
         return configuration.getIndexAttachment();
     }
 
+    @Provides
+    @Singleton
+    public FlagsStorage provideFlagsStorage(ElasticSearchMailboxConfiguration configuration) {
+        return configuration.getFlagsStorage();
+    }
+
+    @Provides
+    @Singleton
+    public IndexOwner provideIndexOwner(ElasticSearchMailboxConfiguration configuration) {
+        return configuration.getIndexOwner();
+    }
+
     @ProvidesIntoSet
     InitializationOperation createIndex(MailboxIndexCreator instance) {
         return InitilizationOperationBuilder
@@ -26,10 +26,12 @@ import javax.inject.Singleton;
 
 import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.james.mailbox.extractor.ExtractedTextStore;
 import org.apache.james.mailbox.extractor.TextExtractor;
 import org.apache.james.mailbox.store.extractor.JsoupTextExtractor;
 import org.apache.james.mailbox.tika.CachingTextExtractor;
 import org.apache.james.mailbox.tika.ContentTypeFilteringTextExtractor;
+import org.apache.james.mailbox.tika.StoringTextExtractor;
 import org.apache.james.mailbox.tika.TikaConfiguration;
 import org.apache.james.mailbox.tika.TikaHttpClient;
 import org.apache.james.mailbox.tika.TikaHttpClientImpl;
@@ -78,8 +80,10 @@ public class TikaMailboxModule extends AbstractModule {
 
     @Provides
     @Singleton
-    private TextExtractor provideTextExtractor(TikaTextExtractor textExtractor, TikaConfiguration configuration,
+    private TextExtractor provideTextExtractor(TikaTextExtractor tikaTextExtractor, TikaConfiguration configuration,
+                                               ExtractedTextStore extractedTextStore,
                                                MetricFactory metricFactory, GaugeRegistry gaugeRegistry) {
+        TextExtractor textExtractor = new StoringTextExtractor(tikaTextExtractor, extractedTextStore, metricFactory);
         if (configuration.isEnabled() && configuration.isCacheEnabled()) {
             LOGGER.info("Tika cache has been enabled.");
             return new ContentTypeFilteringTextExtractor(
@@ -30,6 +30,7 @@ import org.apache.james.rrt.cassandra.migration.MappingsSourcesMigration;
 import org.apache.james.webadmin.Routes;
 import org.apache.james.webadmin.routes.CassandraMailboxMergingRoutes;
 import org.apache.james.webadmin.routes.CassandraMigrationRoutes;
+import org.apache.james.webadmin.routes.CassandraStatementsRoutes;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Scopes;
@@ -53,6 +54,7 @@ public class CassandraRoutesModule extends AbstractModule {
         Multibinder<Routes> routesMultibinder = Multibinder.newSetBinder(binder(), Routes.class);
         routesMultibinder.addBinding().to(CassandraMigrationRoutes.class);
         routesMultibinder.addBinding().to(CassandraMailboxMergingRoutes.class);
+        routesMultibinder.addBinding().to(CassandraStatementsRoutes.class);
 
         MapBinder<SchemaTransition, Migration> allMigrationClazzBinder = MapBinder.newMapBinder(binder(), SchemaTransition.class, Migration.class);
         allMigrationClazzBinder.addBinding(FROM_V5_TO_V6).to(MailboxPathV2Migration.class);
@@ -19,12 +19,14 @@
 
 package org.apache.james.modules.webadmin;
 
+import org.apache.james.mailbox.cassandra.mail.migration.MessageIdBucketingMigration;
 import org.apache.james.mailbox.cassandra.mail.task.RecomputeMailboxCountersService;
 import org.apache.james.mailbox.cassandra.mail.task.SolveMailboxInconsistenciesService;
 import org.apache.james.mailbox.cassandra.mail.task.SolveMessageInconsistenciesService;
 import org.apache.james.webadmin.Routes;
 import org.apache.james.webadmin.routes.CassandraMappingsRoutes;
 import org.apache.james.webadmin.routes.MailboxesRoutes;
+import org.apache.james.webadmin.routes.MessageIdBucketingMigrationRequestToTask;
 import org.apache.james.webadmin.routes.MessagesRoutes;
 import org.apache.james.webadmin.routes.RecomputeMailboxCountersRequestToTask;
 import org.apache.james.webadmin.routes.SolveMailboxInconsistenciesRequestToTask;
@@ -54,12 +56,14 @@ public class InconsistencySolvingRoutesModule extends AbstractModule {
         protected void configure() {
             bind(RecomputeMailboxCountersService.class).in(Scopes.SINGLETON);
             bind(SolveMailboxInconsistenciesService.class).in(Scopes.SINGLETON);
+            bind(MessageIdBucketingMigration.class).in(Scopes.SINGLETON);
 
             Multibinder<TaskFromRequestRegistry.TaskRegistration> multiBinder = Multibinder.newSetBinder(binder(),
                 TaskFromRequestRegistry.TaskRegistration.class, Names.named(MailboxesRoutes.ALL_MAILBOXES_TASKS));
 
             multiBinder.addBinding().to(SolveMailboxInconsistenciesRequestToTask.class);
             multiBinder.addBinding().to(RecomputeMailboxCountersRequestToTask.class);
+            multiBinder.addBinding().to(MessageIdBucketingMigrationRequestToTask.class);
         }
     }
 
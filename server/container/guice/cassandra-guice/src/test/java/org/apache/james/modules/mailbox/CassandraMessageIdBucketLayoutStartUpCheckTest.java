@@ -0,0 +1,76 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.modules.mailbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.apache.james.lifecycle.api.StartUpCheck.ResultType;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Mono;
+
+class CassandraMessageIdBucketLayoutStartUpCheckTest {
+    private CassandraMessageIdDAO messageIdDAO;
+    private CassandraMessageIdBucketLayoutStartUpCheck testee;
+
+    @BeforeEach
+    void setUp() {
+        messageIdDAO = mock(CassandraMessageIdDAO.class);
+        testee = new CassandraMessageIdBucketLayoutStartUpCheck(messageIdDAO);
+    }
+
+    @Test
+    void checkShouldBeGoodWhenTheBucketedLayoutIsNotActivated() {
+        when(messageIdDAO.getConfiguredBucketSize()).thenReturn(Optional.of(100));
+        when(messageIdDAO.retrieveActivatedBucketSize()).thenReturn(Mono.empty());
+
+        assertThat(testee.check().getResultType()).isEqualTo(ResultType.GOOD);
+    }
+
+    @Test
+    void checkShouldBeGoodWhenTheActivatedBucketSizeIsConfigured() {
+        when(messageIdDAO.getConfiguredBucketSize()).thenReturn(Optional.of(100));
+        when(messageIdDAO.retrieveActivatedBucketSize()).thenReturn(Mono.just(100));
+
+        assertThat(testee.check().getResultType()).isEqualTo(ResultType.GOOD);
+    }
+
+    @Test
+    void checkShouldBeBadWhenTheBucketSizeIsNotConfiguredWhileActivated() {
+        when(messageIdDAO.getConfiguredBucketSize()).thenReturn(Optional.empty());
+        when(messageIdDAO.retrieveActivatedBucketSize()).thenReturn(Mono.just(100));
+
+        assertThat(testee.check().getResultType()).isEqualTo(ResultType.BAD);
+    }
+
+    @Test
+    void checkShouldBeBadWhenAnotherBucketSizeIsActivated() {
+        when(messageIdDAO.getConfiguredBucketSize()).thenReturn(Optional.of(50));
+        when(messageIdDAO.retrieveActivatedBucketSize()).thenReturn(Mono.just(100));
+
+        assertThat(testee.check().getResultType()).isEqualTo(ResultType.BAD);
+    }
+}
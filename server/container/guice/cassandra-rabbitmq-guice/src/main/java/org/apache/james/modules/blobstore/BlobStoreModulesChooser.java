@@ -20,6 +20,7 @@
 package org.apache.james.modules.blobstore;
 
 import java.io.FileNotFoundException;
+import java.time.Clock;
 import java.util.List;
 
 import javax.inject.Named;
@@ -31,10 +32,16 @@ import org.apache.james.blob.api.BlobStore;
 import org.apache.james.blob.cassandra.CassandraBlobStore;
 import org.apache.james.blob.cassandra.cache.CachedBlobStore;
 import org.apache.james.blob.objectstorage.ObjectStorageBlobStore;
+import org.apache.james.blob.union.BlobLocationIndex;
+import org.apache.james.blob.union.BlobTieringEngine;
 import org.apache.james.blob.union.HybridBlobStore;
+import org.apache.james.blob.union.TieringConfiguration;
+import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.modules.mailbox.CassandraBlobStoreDependenciesModule;
 import org.apache.james.modules.mailbox.ConfigurationComponent;
 import org.apache.james.modules.objectstorage.ObjectStorageDependenciesModule;
+import org.apache.james.utils.InitializationOperation;
+import org.apache.james.utils.InitilizationOperationBuilder;
 import org.apache.james.utils.PropertiesProvider;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -42,6 +49,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.inject.AbstractModule;
 import com.google.inject.Module;
 import com.google.inject.Provides;
+import com.google.inject.multibindings.ProvidesIntoSet;
 import com.google.inject.name.Names;
 
 public class BlobStoreModulesChooser {
@@ -84,17 +92,56 @@ public class BlobStoreModulesChooser {
             }
         }
 
+        @Provides
+        @Singleton
+        @VisibleForTesting
+        TieringConfiguration providesTieringConfiguration(PropertiesProvider propertiesProvider) {
+            try {
+                Configuration configuration = propertiesProvider.getConfigurations(ConfigurationComponent.NAMES);
+                return TieringConfiguration.from(configuration);
+            } catch (FileNotFoundException | ConfigurationException e) {
+                return TieringConfiguration.DEFAULT;
+            }
+        }
+
+        @Provides
+        @Singleton
+        BlobTieringEngine providesBlobTieringEngine(TieringConfiguration tieringConfiguration,
+                                                    CassandraBlobStore cassandraBlobStore,
+                                                    ObjectStorageBlobStore objectStorageBlobStore,
+                                                    MetricFactory metricFactory,
+                                                    Clock clock) {
+            return new BlobTieringEngine(objectStorageBlobStore, cassandraBlobStore, new BlobLocationIndex(clock, tieringConfiguration.getIndexMaximumEntries()),
+                tieringConfiguration, metricFactory, clock);
+        }
+
         @Provides
         @Named(CachedBlobStore.BACKEND)
         @Singleton
         BlobStore providesHybridBlobStore(HybridBlobStore.Configuration hybridBlobStoreConfiguration,
+                                          TieringConfiguration tieringConfiguration,
+                                          BlobTieringEngine blobTieringEngine,
                                           CassandraBlobStore cassandraBlobStore,
                                           ObjectStorageBlobStore objectStorageBlobStore) {
-            return HybridBlobStore.builder()
+            HybridBlobStore.Builder builder = HybridBlobStore.builder()
                 .lowCost(objectStorageBlobStore)
                 .highPerformance(cassandraBlobStore)
-                .configuration(hybridBlobStoreConfiguration)
-                .build();
+                .configuration(hybridBlobStoreConfiguration);
+            if (tieringConfiguration.isEnabled()) {
+                builder.tiering(blobTieringEngine);
+            }
+            return builder.build();
+        }
+
+        @ProvidesIntoSet
+        InitializationOperation startBlobTiering(TieringConfiguration tieringConfiguration, BlobTieringEngine blobTieringEngine) {
+            return InitilizationOperationBuilder
+                .forClass(BlobTieringEngine.class)
+                .init(() -> {
+                    if (tieringConfiguration.isEnabled()) {
+                        blobTieringEngine.start();
+                    }
+                });
         }
     }
 
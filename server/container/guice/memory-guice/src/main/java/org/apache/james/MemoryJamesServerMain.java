@@ -30,6 +30,8 @@ import org.apache.james.modules.data.MemoryDataJmapModule;
 import org.apache.james.modules.data.MemoryDataModule;
 import org.apache.james.modules.eventstore.MemoryEventStoreModule;
 import org.apache.james.modules.mailbox.MemoryMailboxModule;
+import org.apache.james.modules.mailbox.SearchConfiguration;
+import org.apache.james.modules.mailbox.SearchModuleChooser;
 import org.apache.james.modules.protocols.IMAPServerModule;
 import org.apache.james.modules.protocols.JMAPServerModule;
 import org.apache.james.modules.protocols.LMTPServerModule;
@@ -139,8 +141,10 @@ public class MemoryJamesServerMain implements JamesServerMain {
             .build();
 
         LOGGER.info("Loading configuration {}", configuration.toString());
+        SearchConfiguration searchConfiguration = SearchConfiguration.parse(configuration);
         GuiceJamesServer server = createServer(configuration)
-            .combineWith(new FakeSearchMailboxModule(), new JMXServerModule());
+            .combineWith(new JMXServerModule())
+            .overrideWith(SearchModuleChooser.chooseModules(searchConfiguration));
 
         JamesServerMain.main(server);
     }
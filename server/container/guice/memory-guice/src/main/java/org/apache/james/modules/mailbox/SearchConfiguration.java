@@ -0,0 +1,157 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.modules.mailbox;
+
+import java.io.FileNotFoundException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.james.server.core.filesystem.FileSystemImpl;
+import org.apache.james.utils.PropertiesProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.MoreObjects;
+
+public class SearchConfiguration {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SearchConfiguration.class);
+
+    public enum Implementation {
+        SCANNING("scanning"),
+        LUCENE("lucene");
+
+        static String supportedImplementations() {
+            return Stream.of(Implementation.values())
+                .map(Implementation::getName)
+                .collect(Collectors.joining(", "));
+        }
+
+        static Implementation from(String name) {
+            return Stream.of(values())
+                .filter(implementation -> implementation.getName().equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(String.format("%s is not a valid search implementation, " +
+                    "please use one of supported values in: %s", name, supportedImplementations())));
+        }
+
+        private final String name;
+
+        Implementation(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    static final String SEARCH_CONFIGURATION_NAME = "search";
+    static final String IMPLEMENTATION_PROPERTY = "implementation";
+    static final String LUCENE_DIRECTORY_PROPERTY = "lucene.directory";
+
+    public static SearchConfiguration parse(org.apache.james.server.core.configuration.Configuration configuration) throws ConfigurationException {
+        PropertiesProvider propertiesProvider = new PropertiesProvider(new FileSystemImpl(configuration.directories()),
+            configuration.configurationPath());
+
+        return parse(propertiesProvider);
+    }
+
+    public static SearchConfiguration parse(PropertiesProvider propertiesProvider) throws ConfigurationException {
+        try {
+            Configuration configuration = propertiesProvider.getConfiguration(SEARCH_CONFIGURATION_NAME);
+            return SearchConfiguration.from(configuration);
+        } catch (FileNotFoundException e) {
+            LOGGER.info("Could not find " + SEARCH_CONFIGURATION_NAME + " configuration file, using scanning search as the default");
+            return SearchConfiguration.scanning();
+        }
+    }
+
+    static SearchConfiguration from(Configuration configuration) {
+        Optional<String> luceneDirectory = Optional.ofNullable(configuration.getString(LUCENE_DIRECTORY_PROPERTY))
+            .filter(StringUtils::isNotBlank)
+            .map(StringUtils::trim);
+
+        return Optional.ofNullable(configuration.getString(IMPLEMENTATION_PROPERTY))
+            .filter(StringUtils::isNotBlank)
+            .map(StringUtils::trim)
+            .map(Implementation::from)
+            .map(implementation -> new SearchConfiguration(implementation, luceneDirectory))
+            .orElseGet(SearchConfiguration::scanning);
+    }
+
+    public static SearchConfiguration scanning() {
+        return new SearchConfiguration(Implementation.SCANNING, Optional.empty());
+    }
+
+    public static SearchConfiguration lucene() {
+        return new SearchConfiguration(Implementation.LUCENE, Optional.empty());
+    }
+
+    public static SearchConfiguration lucene(String directory) {
+        return new SearchConfiguration(Implementation.LUCENE, Optional.of(directory));
+    }
+
+    private final Implementation implementation;
+    private final Optional<String> luceneDirectory;
+
+    SearchConfiguration(Implementation implementation, Optional<String> luceneDirectory) {
+        this.implementation = implementation;
+        this.luceneDirectory = luceneDirectory;
+    }
+
+    public Implementation getImplementation() {
+        return implementation;
+    }
+
+    /**
+     * Location of the memory mapped Lucene index. The index is kept on the heap when absent.
+     */
+    public Optional<String> getLuceneDirectory() {
+        return luceneDirectory;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof SearchConfiguration) {
+            SearchConfiguration that = (SearchConfiguration) o;
+
+            return Objects.equals(this.implementation, that.implementation)
+                && Objects.equals(this.luceneDirectory, that.luceneDirectory);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(implementation, luceneDirectory);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("implementation", implementation)
+            .add("luceneDirectory", luceneDirectory)
+            .toString();
+    }
+}
@@ -0,0 +1,91 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.modules.mailbox;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.james.FakeSearchMailboxModule;
+import org.apache.james.filesystem.api.FileSystem;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.RAMDirectory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.inject.AbstractModule;
+import com.google.inject.Module;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import com.google.inject.util.Modules;
+
+/**
+ * Selects the search index of the memory server. These modules are meant to override the default scanning
+ * {@link org.apache.james.mailbox.store.search.MessageSearchIndex} bound by {@link MemoryMailboxModule}.
+ */
+public class SearchModuleChooser {
+    /**
+     * Messages of the memory server do not survive restarts, neither should their index. The index shares the heap
+     * with the messages it describes, which is the default as the memory server does not require any storage location.
+     */
+    static class InMemoryDirectoryModule extends AbstractModule {
+        @Provides
+        @Singleton
+        Directory provideDirectory() {
+            return new RAMDirectory();
+        }
+    }
+
+    /**
+     * Keeps the index off the heap, in memory mapped files. As messages of the memory server do not survive restarts,
+     * the index left over by a previous run is dropped.
+     */
+    static class MemoryMappedDirectoryModule extends AbstractModule {
+        private final String directory;
+
+        MemoryMappedDirectoryModule(String directory) {
+            this.directory = directory;
+        }
+
+        @Provides
+        @Singleton
+        Directory provideDirectory(FileSystem fileSystem) throws IOException {
+            Directory mappedDirectory = new MMapDirectory(fileSystem.getFile(directory));
+            for (String file : mappedDirectory.listAll()) {
+                mappedDirectory.deleteFile(file);
+            }
+            return mappedDirectory;
+        }
+    }
+
+    @VisibleForTesting
+    public static List<Module> chooseModules(SearchConfiguration searchConfiguration) {
+        switch (searchConfiguration.getImplementation()) {
+            case SCANNING:
+                return ImmutableList.of(new FakeSearchMailboxModule());
+            case LUCENE:
+                return ImmutableList.of(Modules.override(new LuceneSearchMailboxModule())
+                    .with(searchConfiguration.getLuceneDirectory()
+                        .<Module>map(MemoryMappedDirectoryModule::new)
+                        .orElseGet(InMemoryDirectoryModule::new)));
+            default:
+                throw new RuntimeException("Unsupported search implementation " + searchConfiguration.getImplementation());
+        }
+    }
+}
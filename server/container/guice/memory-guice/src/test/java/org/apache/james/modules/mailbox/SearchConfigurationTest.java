@@ -0,0 +1,121 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.modules.mailbox;
+
+import static org.apache.james.modules.mailbox.SearchConfiguration.parse;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.apache.commons.configuration2.PropertiesConfiguration;
+import org.apache.james.FakePropertiesProvider;
+import org.junit.jupiter.api.Test;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+
+class SearchConfigurationTest {
+    @Test
+    void shouldMatchBeanContract() {
+        EqualsVerifier.forClass(SearchConfiguration.class)
+            .verify();
+    }
+
+    @Test
+    void parseShouldReturnScanningWhenNoFile() throws Exception {
+        FakePropertiesProvider propertyProvider = FakePropertiesProvider.builder()
+            .register("other_configuration_file", new PropertiesConfiguration())
+            .build();
+
+        assertThat(parse(propertyProvider))
+            .isEqualTo(SearchConfiguration.scanning());
+    }
+
+    @Test
+    void parseShouldReturnScanningWhenEmptyImplementation() throws Exception {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("implementation", "");
+        FakePropertiesProvider propertyProvider = FakePropertiesProvider.builder()
+            .register("search", configuration)
+            .build();
+
+        assertThat(parse(propertyProvider))
+            .isEqualTo(SearchConfiguration.scanning());
+    }
+
+    @Test
+    void parseShouldThrowWhenImplementationIsNotInSupportedList() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("implementation", "gabouzomeuh");
+        FakePropertiesProvider propertyProvider = FakePropertiesProvider.builder()
+            .register("search", configuration)
+            .build();
+
+        assertThatThrownBy(() -> parse(propertyProvider))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void parseShouldReturnLuceneWhenConfigured() throws Exception {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("implementation", "lucene");
+        FakePropertiesProvider propertyProvider = FakePropertiesProvider.builder()
+            .register("search", configuration)
+            .build();
+
+        assertThat(parse(propertyProvider))
+            .isEqualTo(SearchConfiguration.lucene());
+    }
+
+    @Test
+    void parseShouldBeCaseInsensitive() throws Exception {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("implementation", " Lucene ");
+        FakePropertiesProvider propertyProvider = FakePropertiesProvider.builder()
+            .register("search", configuration)
+            .build();
+
+        assertThat(parse(propertyProvider))
+            .isEqualTo(SearchConfiguration.lucene());
+    }
+
+    @Test
+    void parseShouldReturnLuceneDirectoryWhenConfigured() throws Exception {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("implementation", "lucene");
+        configuration.addProperty("lucene.directory", "file://var/search");
+        FakePropertiesProvider propertyProvider = FakePropertiesProvider.builder()
+            .register("search", configuration)
+            .build();
+
+        assertThat(parse(propertyProvider))
+            .isEqualTo(SearchConfiguration.lucene("file://var/search"));
+    }
+
+    @Test
+    void parseShouldIgnoreBlankLuceneDirectory() throws Exception {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("implementation", "lucene");
+        configuration.addProperty("lucene.directory", " ");
+        FakePropertiesProvider propertyProvider = FakePropertiesProvider.builder()
+            .register("search", configuration)
+            .build();
+
+        assertThat(parse(propertyProvider))
+            .isEqualTo(SearchConfiguration.lucene());
+    }
+}
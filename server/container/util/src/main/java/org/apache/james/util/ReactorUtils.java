@@ -39,6 +39,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Signal;
 import reactor.core.publisher.SynchronousSink;
+import reactor.util.concurrent.Queues;
 import reactor.util.context.Context;
 
 public class ReactorUtils {
@@ -46,6 +47,15 @@ public class ReactorUtils {
     public static final String MDC_KEY_PREFIX = "MDC-";
 
     public static <T, U> RequiresQuantity<T, U> throttle() {
+        return throttle(Queues.SMALL_BUFFER_SIZE);
+    }
+
+    /**
+     * Same as {@link #throttle()} but bounds the number of elements of a window being processed at the same time.
+     */
+    public static <T, U> RequiresQuantity<T, U> throttle(int maxConcurrency) {
+        Preconditions.checkArgument(maxConcurrency > 0, "'maxConcurrency' must be strictly positive");
+
         return elements -> duration -> operation -> {
             Preconditions.checkArgument(elements > 0, "'windowMaxSize' must be strictly positive");
             Preconditions.checkArgument(!duration.isNegative(), "'windowDuration' must be strictly positive");
@@ -55,7 +65,7 @@ public class ReactorUtils {
                 .onErrorContinue((e, o) -> LOGGER.error("Error encountered while generating throttled entries", e))
                 .window(elements)
                 .delayElements(duration)
-                .concatMap(window -> window.flatMap(operation)
+                .concatMap(window -> window.flatMap(operation, maxConcurrency)
                     .onErrorResume(e -> {
                         LOGGER.error("Error encountered while throttling", e);
                         return Mono.empty();
@@ -157,6 +157,39 @@ class ReactorUtilsTest {
                 .allSatisfy(processingCount -> assertThat(processingCount).isLessThanOrEqualTo(windowMaxSize));
         }
 
+        @Test
+        void throttleShouldThrowWhenMaxConcurrencyIsZero() {
+            assertThatThrownBy(() -> ReactorUtils.throttle(0))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        void throttleDownStreamConcurrencyShouldNotExceedMaxConcurrency() {
+            int windowMaxSize = 6;
+            int maxConcurrency = 2;
+            Duration windowDuration = Duration.ofMillis(100);
+
+            AtomicInteger ongoingProcessing = new AtomicInteger();
+
+            Flux<Integer> originalFlux = Flux.range(0, 12);
+            Function<Integer, Publisher<Integer>> longRunningOperation =
+                any -> Mono.fromCallable(ongoingProcessing::incrementAndGet)
+                    .flatMap(i -> Mono.delay(Duration.ofMillis(20)).thenReturn(i))
+                    .flatMap(i -> Mono.fromRunnable(ongoingProcessing::decrementAndGet).thenReturn(i));
+
+            ImmutableList<Integer> ongoingProcessingUponComputationStart = originalFlux
+                .transform(ReactorUtils.<Integer, Integer>throttle(maxConcurrency)
+                    .elements(windowMaxSize)
+                    .per(windowDuration)
+                    .forOperation(longRunningOperation))
+                .collect(Guavate.toImmutableList())
+                .block();
+
+            assertThat(ongoingProcessingUponComputationStart)
+                .hasSize(12)
+                .allSatisfy(processingCount -> assertThat(processingCount).isLessThanOrEqualTo(maxConcurrency));
+        }
+
         @Test
         void throttleShouldNotAbortProcessingUponError() {
             int windowMaxSize = 3;
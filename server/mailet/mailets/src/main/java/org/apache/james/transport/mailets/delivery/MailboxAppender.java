@@ -19,6 +19,8 @@
 
 package org.apache.james.transport.mailets.delivery;
 
+import java.util.Optional;
+
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
 
@@ -31,7 +33,9 @@ import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.exception.MailboxExistsException;
 import org.apache.james.mailbox.model.ComposedMessageId;
 import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.server.core.MimeMessageCopyOnWriteProxy;
 import org.apache.james.server.core.MimeMessageInputStream;
+import org.apache.james.server.core.MimeMessageWrapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -83,10 +87,24 @@ public class MailboxAppender {
         if (mailbox == null) {
             throw new MessagingException("Mailbox " + path + " for user " + session.getUser().asString() + " was not found on this server.");
         }
-        return mailbox.appendMessage(MessageManager.AppendCommand.builder()
-            .recent()
-            .build(new MimeMessageInputStream(mail)),
-            session);
+        MessageManager.AppendCommand.Builder appendCommand = MessageManager.AppendCommand.builder()
+            .recent();
+        storedBodyId(mail).ifPresent(appendCommand::withStoredBody);
+        return mailbox.appendMessage(appendCommand.build(new MimeMessageInputStream(mail)), session);
+    }
+
+    /**
+     * Mails loaded from a blob store, like the ones dequeued from the RabbitMQ mail queue, expose the blob holding
+     * their body, so that the mailbox can reference it.
+     */
+    private Optional<String> storedBodyId(MimeMessage mail) {
+        if (mail instanceof MimeMessageCopyOnWriteProxy) {
+            return storedBodyId(((MimeMessageCopyOnWriteProxy) mail).getWrappedMessage());
+        }
+        if (mail instanceof MimeMessageWrapper) {
+            return ((MimeMessageWrapper) mail).getStoredBodyId();
+        }
+        return Optional.empty();
     }
 
     private void createMailboxIfNotExist(MailboxSession session, MailboxPath path) throws MailboxException {
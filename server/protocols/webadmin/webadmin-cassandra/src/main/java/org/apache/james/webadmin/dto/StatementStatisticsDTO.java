@@ -0,0 +1,103 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.webadmin.dto;
+
+import org.apache.james.backends.cassandra.utils.StatementStatistics;
+
+public class StatementStatisticsDTO {
+    public static StatementStatisticsDTO from(StatementStatistics statistics) {
+        return new StatementStatisticsDTO(statistics.getLabel(),
+            statistics.getExecutions(),
+            statistics.getFailures(),
+            statistics.getTotalDuration().toMillis(),
+            statistics.getMeanDuration().toMillis(),
+            statistics.getMaxDuration().toMillis(),
+            statistics.getRows(),
+            statistics.getPagedResults(),
+            statistics.getRetries(),
+            statistics.getLwtNotApplied());
+    }
+
+    private final String label;
+    private final long executions;
+    private final long failures;
+    private final long totalDurationInMs;
+    private final long meanDurationInMs;
+    private final long maxDurationInMs;
+    private final long rows;
+    private final long pagedResults;
+    private final long retries;
+    private final long lwtNotApplied;
+
+    private StatementStatisticsDTO(String label, long executions, long failures, long totalDurationInMs,
+                                   long meanDurationInMs, long maxDurationInMs, long rows, long pagedResults,
+                                   long retries, long lwtNotApplied) {
+        this.label = label;
+        this.executions = executions;
+        this.failures = failures;
+        this.totalDurationInMs = totalDurationInMs;
+        this.meanDurationInMs = meanDurationInMs;
+        this.maxDurationInMs = maxDurationInMs;
+        this.rows = rows;
+        this.pagedResults = pagedResults;
+        this.retries = retries;
+        this.lwtNotApplied = lwtNotApplied;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getTotalDurationInMs() {
+        return totalDurationInMs;
+    }
+
+    public long getMeanDurationInMs() {
+        return meanDurationInMs;
+    }
+
+    public long getMaxDurationInMs() {
+        return maxDurationInMs;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getPagedResults() {
+        return pagedResults;
+    }
+
+    public long getRetries() {
+        return retries;
+    }
+
+    public long getLwtNotApplied() {
+        return lwtNotApplied;
+    }
+}
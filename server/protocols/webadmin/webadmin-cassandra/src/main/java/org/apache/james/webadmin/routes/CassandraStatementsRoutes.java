@@ -0,0 +1,135 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.webadmin.routes;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import javax.inject.Inject;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+import org.apache.james.backends.cassandra.utils.CassandraStatementProfiler;
+import org.apache.james.backends.cassandra.utils.StatementStatistics;
+import org.apache.james.webadmin.Routes;
+import org.apache.james.webadmin.dto.StatementStatisticsDTO;
+import org.apache.james.webadmin.utils.ErrorResponder;
+import org.apache.james.webadmin.utils.JsonTransformer;
+import org.apache.james.webadmin.utils.ParametersExtractor;
+import org.apache.james.webadmin.utils.Responses;
+import org.eclipse.jetty.http.HttpStatus;
+
+import com.github.steveash.guavate.Guavate;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import spark.Request;
+import spark.Response;
+import spark.Service;
+
+@Api(tags = "Cassandra statements")
+@Path(CassandraStatementsRoutes.BASE_PATH)
+@Produces("application/json")
+public class CassandraStatementsRoutes implements Routes {
+    public static final String BASE_PATH = "/cassandra/statements";
+    private static final String SORT_BY_PARAMETER = "sortBy";
+    private static final int DEFAULT_LIMIT = 10;
+    private static final StatementStatistics.SortBy DEFAULT_SORT_BY = StatementStatistics.SortBy.TOTAL_DURATION;
+
+    private final CassandraStatementProfiler profiler;
+    private final JsonTransformer jsonTransformer;
+
+    @Inject
+    CassandraStatementsRoutes(CassandraStatementProfiler profiler, JsonTransformer jsonTransformer) {
+        this.profiler = profiler;
+        this.jsonTransformer = jsonTransformer;
+    }
+
+    @Override
+    public String getBasePath() {
+        return BASE_PATH;
+    }
+
+    @Override
+    public void define(Service service) {
+        service.get(BASE_PATH, this::listStatements, jsonTransformer);
+
+        service.delete(BASE_PATH, this::resetStatistics);
+    }
+
+    @GET
+    @ApiOperation(value = "Lists the Cassandra statements dominating the load, labeled with the class that prepared them")
+    @ApiImplicitParams({
+        @ApiImplicitParam(required = false, dataType = "Integer", name = "limit", paramType = "query",
+            example = "?limit=10", value = "Number of statements to return. Defaults to 10."),
+        @ApiImplicitParam(required = false, dataType = "String", name = SORT_BY_PARAMETER, paramType = "query",
+            example = "?sortBy=meanDuration",
+            value = "One of totalDuration, meanDuration, maxDuration or executions. Defaults to totalDuration.")
+    })
+    @ApiResponses(value = {
+        @ApiResponse(code = HttpStatus.OK_200, message = "The statements", response = StatementStatisticsDTO.class,
+            responseContainer = "List"),
+        @ApiResponse(code = HttpStatus.BAD_REQUEST_400, message = "Invalid limit or sortBy parameter")
+    })
+    public List<StatementStatisticsDTO> listStatements(Request request, Response response) {
+        int limit = ParametersExtractor.extractLimit(request)
+            .getLimit()
+            .orElse(DEFAULT_LIMIT);
+
+        return profiler.top(limit, extractSortBy(request))
+            .stream()
+            .map(StatementStatisticsDTO::from)
+            .collect(Guavate.toImmutableList());
+    }
+
+    @DELETE
+    @ApiOperation(value = "Resets the statistics of Cassandra statements")
+    @ApiResponses(value = {
+        @ApiResponse(code = HttpStatus.NO_CONTENT_204, message = "Statistics were reset")
+    })
+    public String resetStatistics(Request request, Response response) {
+        profiler.reset();
+        return Responses.returnNoContent(response);
+    }
+
+    private StatementStatistics.SortBy extractSortBy(Request request) {
+        return Optional.ofNullable(request.queryParams(SORT_BY_PARAMETER))
+            .map(this::parseSortBy)
+            .orElse(DEFAULT_SORT_BY);
+    }
+
+    private StatementStatistics.SortBy parseSortBy(String value) {
+        return Arrays.stream(StatementStatistics.SortBy.values())
+            .filter(sortBy -> sortBy.asParameter().equals(value))
+            .findFirst()
+            .orElseThrow(() -> ErrorResponder.builder()
+                .statusCode(HttpStatus.BAD_REQUEST_400)
+                .type(ErrorResponder.ErrorType.INVALID_ARGUMENT)
+                .message("Invalid value for '%s': %s", SORT_BY_PARAMETER, value)
+                .haltError());
+    }
+}
@@ -0,0 +1,166 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.webadmin.routes;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.RestAssured.when;
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+
+import org.apache.james.backends.cassandra.utils.CassandraStatementProfiler;
+import org.apache.james.backends.cassandra.utils.StatementStatistics;
+import org.apache.james.webadmin.WebAdminServer;
+import org.apache.james.webadmin.WebAdminUtils;
+import org.apache.james.webadmin.utils.JsonTransformer;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.google.common.collect.ImmutableList;
+
+import io.restassured.RestAssured;
+
+public class CassandraStatementsRoutesTest {
+    private static final StatementStatistics SLOW_SELECT = new StatementStatistics("CassandraMessageDAO:select:messageV2",
+        2, 0, Duration.ofMillis(300), Duration.ofMillis(200), 2, 0, 0, 0);
+    private static final StatementStatistics FREQUENT_INSERT = new StatementStatistics("CassandraMessageIdDAO:insert:messageIdTable",
+        10, 1, Duration.ofMillis(100), Duration.ofMillis(20), 0, 0, 1, 3);
+
+    private WebAdminServer webAdminServer;
+    private CassandraStatementProfiler profiler;
+
+    @Before
+    public void setUp() {
+        profiler = mock(CassandraStatementProfiler.class);
+        Mockito.when(profiler.top(10, StatementStatistics.SortBy.TOTAL_DURATION))
+            .thenReturn(ImmutableList.of(SLOW_SELECT, FREQUENT_INSERT));
+        Mockito.when(profiler.top(1, StatementStatistics.SortBy.EXECUTIONS))
+            .thenReturn(ImmutableList.of(FREQUENT_INSERT));
+
+        webAdminServer = WebAdminUtils.createWebAdminServer(new CassandraStatementsRoutes(profiler, new JsonTransformer()))
+            .start();
+
+        RestAssured.requestSpecification = WebAdminUtils.buildRequestSpecification(webAdminServer)
+            .setBasePath(CassandraStatementsRoutes.BASE_PATH)
+            .build();
+    }
+
+    @After
+    public void tearDown() {
+        webAdminServer.destroy();
+    }
+
+    @Test
+    public void getShouldReturnStatementsSortedByTotalDurationByDefault() {
+        String body = when()
+            .get()
+        .then()
+            .statusCode(HttpStatus.OK_200)
+            .extract()
+            .body()
+            .asString();
+
+        assertThatJson(body).isEqualTo("[" +
+            "  {" +
+            "    \"label\": \"CassandraMessageDAO:select:messageV2\"," +
+            "    \"executions\": 2," +
+            "    \"failures\": 0," +
+            "    \"totalDurationInMs\": 300," +
+            "    \"meanDurationInMs\": 150," +
+            "    \"maxDurationInMs\": 200," +
+            "    \"rows\": 2," +
+            "    \"pagedResults\": 0," +
+            "    \"retries\": 0," +
+            "    \"lwtNotApplied\": 0" +
+            "  }," +
+            "  {" +
+            "    \"label\": \"CassandraMessageIdDAO:insert:messageIdTable\"," +
+            "    \"executions\": 10," +
+            "    \"failures\": 1," +
+            "    \"totalDurationInMs\": 100," +
+            "    \"meanDurationInMs\": 10," +
+            "    \"maxDurationInMs\": 20," +
+            "    \"rows\": 0," +
+            "    \"pagedResults\": 0," +
+            "    \"retries\": 1," +
+            "    \"lwtNotApplied\": 3" +
+            "  }" +
+            "]");
+    }
+
+    @Test
+    public void getShouldApplyLimitAndSortBy() {
+        given()
+            .queryParam("limit", 1)
+            .queryParam("sortBy", "executions")
+        .when()
+            .get()
+        .then()
+            .statusCode(HttpStatus.OK_200)
+            .body("label", is(ImmutableList.of("CassandraMessageIdDAO:insert:messageIdTable")));
+    }
+
+    @Test
+    public void getShouldRejectInvalidSortBy() {
+        given()
+            .queryParam("sortBy", "invalid")
+        .when()
+            .get()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400)
+            .body("type", is("InvalidArgument"));
+    }
+
+    @Test
+    public void getShouldRejectNegativeLimit() {
+        given()
+            .queryParam("limit", -1)
+        .when()
+            .get()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400);
+    }
+
+    @Test
+    public void getShouldRejectZeroLimit() {
+        given()
+            .queryParam("limit", 0)
+        .when()
+            .get()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400);
+    }
+
+    @Test
+    public void deleteShouldResetStatistics() {
+        when()
+            .delete()
+        .then()
+            .statusCode(HttpStatus.NO_CONTENT_204);
+
+        verify(profiler).reset();
+    }
+}
@@ -72,14 +72,22 @@ public class WebAdminReprocessingContextInformationDTO implements AdditionalInfo
                     details.getSuccessfullyReprocessedMailCount(),
                     details.getFailedReprocessedMailCount(),
                     details.failures(),
-                    details.timestamp()))
+                    details.timestamp(),
+                    details.getCheckpoint()))
                 .typeName(FullReindexingTask.FULL_RE_INDEXING.asString())
                 .withFactory(AdditionalInformationDTOModule::new);
         }
 
+        private final Optional<String> checkpoint;
+
         WebAdminFullIndexationDTO(String type, RunningOptionsDTO runningOptions, int successfullyReprocessedMailCount, int failedReprocessedMailCount,
-                                  ReIndexingExecutionFailures failures, Instant timestamp) {
+                                  ReIndexingExecutionFailures failures, Instant timestamp, Optional<String> checkpoint) {
             super(type, runningOptions, successfullyReprocessedMailCount, failedReprocessedMailCount, failures, timestamp);
+            this.checkpoint = checkpoint;
+        }
+
+        public Optional<String> getCheckpoint() {
+            return checkpoint;
         }
     }
 
@@ -31,6 +31,9 @@ public class ReindexingRunningOptionsParser {
         return RunningOptions.builder()
             .messagesPerSeconds(intQueryParameter(request, "messagesPerSecond"))
             .mode(modeQueryParameter(request, "mode"))
+            .mailboxConcurrency(intQueryParameter(request, "mailboxConcurrency"))
+            .messageConcurrency(intQueryParameter(request, "messageConcurrency"))
+            .resumeAfter(Optional.ofNullable(request.queryParams("resumeAfter")))
             .build();
     }
 
@@ -0,0 +1,224 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.webadmin.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+
+import org.apache.james.mailbox.MailboxManager;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageManager;
+import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.model.FetchGroup;
+import org.apache.james.mailbox.model.MailboxMetaData;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.mailbox.model.MessageResult;
+import org.apache.james.mailbox.model.search.MailboxQuery;
+import org.apache.james.mailbox.store.MailboxSessionMapperFactory;
+import org.apache.james.mailbox.store.projections.MessageStructure;
+import org.apache.james.mailbox.store.projections.MessageStructureProjection;
+import org.apache.james.task.Task;
+import org.apache.james.task.Task.Result;
+import org.apache.james.user.api.UsersRepository;
+import org.apache.james.user.api.UsersRepositoryException;
+import org.apache.james.util.ReactorUtils;
+import org.apache.james.util.streams.Iterators;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.fge.lambdas.Throwing;
+import com.google.common.base.Preconditions;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Computes the {@link MessageStructureProjection} entries of messages stored before the projection was maintained.
+ *
+ * Messages already having an entry are left untouched.
+ */
+public class MessageStructureProjectionCorrector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessageStructureProjectionCorrector.class);
+    private static final Duration PERIOD = Duration.ofSeconds(1);
+    private static final int USER_CONCURRENCY = 1;
+    private static final int MAILBOX_CONCURRENCY = 1;
+
+    public static class RunningOptions {
+        public static RunningOptions withMessageRatePerSecond(int messageRatePerSecond) {
+            return new RunningOptions(messageRatePerSecond);
+        }
+
+        public static final RunningOptions DEFAULT = new RunningOptions(10);
+
+        private final int messagesPerSecond;
+
+        public RunningOptions(int messagesPerSecond) {
+            Preconditions.checkArgument(messagesPerSecond > 0, "'messagesPerSecond' must be strictly positive");
+
+            this.messagesPerSecond = messagesPerSecond;
+        }
+
+        public int getMessagesPerSecond() {
+            return messagesPerSecond;
+        }
+    }
+
+    private static class ProjectionEntry {
+        private final MessageManager messageManager;
+        private final MessageResult message;
+        private final MailboxSession session;
+
+        private ProjectionEntry(MessageManager messageManager, MessageResult message, MailboxSession session) {
+            this.messageManager = messageManager;
+            this.message = message;
+            this.session = session;
+        }
+    }
+
+    static class Progress {
+        private final AtomicLong processedUserCount = new AtomicLong();
+        private final AtomicLong processedMessageCount = new AtomicLong();
+        private final AtomicLong failedUserCount = new AtomicLong();
+        private final AtomicLong failedMessageCount = new AtomicLong();
+
+        long getProcessedUserCount() {
+            return processedUserCount.get();
+        }
+
+        long getProcessedMessageCount() {
+            return processedMessageCount.get();
+        }
+
+        long getFailedUserCount() {
+            return failedUserCount.get();
+        }
+
+        long getFailedMessageCount() {
+            return failedMessageCount.get();
+        }
+    }
+
+    private final UsersRepository usersRepository;
+    private final MailboxManager mailboxManager;
+    private final Optional<MessageStructureProjection> messageStructureProjection;
+
+    @Inject
+    MessageStructureProjectionCorrector(UsersRepository usersRepository, MailboxManager mailboxManager,
+                                        MailboxSessionMapperFactory mailboxSessionMapperFactory) {
+        this.usersRepository = usersRepository;
+        this.mailboxManager = mailboxManager;
+        this.messageStructureProjection = mailboxSessionMapperFactory.getMessageStructureProjection();
+    }
+
+    Mono<Result> correctAllProjectionItems(Progress progress, RunningOptions runningOptions) {
+        return messageStructureProjection
+            .map(projection -> correctProjection(projection, listAllMailboxMessages(progress), runningOptions, progress))
+            .orElseGet(() -> {
+                LOGGER.info("No message structure projection is maintained by this mailbox implementation, nothing to compute");
+                return Mono.just(Result.COMPLETED);
+            });
+    }
+
+    private Flux<ProjectionEntry> listAllMailboxMessages(Progress progress) {
+        try {
+            return Iterators.toFlux(usersRepository.list())
+                .map(mailboxManager::createSystemSession)
+                .doOnNext(any -> progress.processedUserCount.incrementAndGet())
+                .flatMap(session -> listUserMailboxMessages(progress, session), USER_CONCURRENCY);
+        } catch (UsersRepositoryException e) {
+            return Flux.error(e);
+        }
+    }
+
+    private Flux<ProjectionEntry> listUserMailboxMessages(Progress progress, MailboxSession session) {
+        return mailboxManager.search(MailboxQuery.privateMailboxesBuilder(session).build(), session)
+            .flatMap(mailboxMetadata -> retrieveMailbox(session, mailboxMetadata), MAILBOX_CONCURRENCY)
+            .flatMap(Throwing.function(messageManager -> listAllMailboxMessages(messageManager, session)
+                .map(message -> new ProjectionEntry(messageManager, message, session))), MAILBOX_CONCURRENCY)
+            .onErrorResume(MailboxException.class, e -> {
+                LOGGER.error("Message structure re-computation aborted for {} as we failed listing user mailboxes", session.getUser(), e);
+                progress.failedUserCount.incrementAndGet();
+                return Flux.empty();
+            });
+    }
+
+    private Mono<Result> correctProjection(MessageStructureProjection projection, Flux<ProjectionEntry> entries,
+                                           RunningOptions runningOptions, Progress progress) {
+        return entries
+            .filterWhen(entry -> isMissing(projection, entry))
+            .transform(ReactorUtils.<ProjectionEntry, Task.Result>throttle()
+                .elements(runningOptions.getMessagesPerSecond())
+                .per(PERIOD)
+                .forOperation(entry -> correctProjection(projection, entry, progress)))
+            .reduce(Task::combine)
+            .switchIfEmpty(Mono.just(Result.COMPLETED));
+    }
+
+    private Mono<Boolean> isMissing(MessageStructureProjection projection, ProjectionEntry entry) {
+        return Mono.from(projection.retrieve(entry.message.getMessageId()))
+            .hasElement()
+            .map(present -> !present);
+    }
+
+    private Mono<Result> correctProjection(MessageStructureProjection projection, ProjectionEntry entry, Progress progress) {
+        return retrieveContent(entry)
+            .map(this::computeStructure)
+            .flatMap(structure -> Mono.from(projection.store(entry.message.getMessageId(), structure)))
+            .doOnSuccess(any -> progress.processedMessageCount.incrementAndGet())
+            .thenReturn(Result.COMPLETED)
+            .onErrorResume(e -> {
+                LOGGER.error("Message structure re-computation aborted for {} - {} - {}",
+                    entry.session.getUser(),
+                    entry.messageManager.getId(),
+                    entry.message.getUid(), e);
+                progress.failedMessageCount.incrementAndGet();
+                return Mono.just(Result.PARTIAL);
+            });
+    }
+
+    private Mono<MessageManager> retrieveMailbox(MailboxSession session, MailboxMetaData mailboxMetadata) {
+        return Mono.fromCallable(() -> mailboxManager.getMailbox(mailboxMetadata.getId(), session));
+    }
+
+    private Flux<MessageResult> listAllMailboxMessages(MessageManager messageManager, MailboxSession session) throws MailboxException {
+        return Iterators.toFlux(messageManager.getMessages(MessageRange.all(), FetchGroup.MINIMAL, session));
+    }
+
+    private Mono<MessageResult> retrieveContent(ProjectionEntry entry) {
+        try {
+            return Iterators.toFlux(entry.messageManager.getMessages(MessageRange.one(entry.message.getUid()), FetchGroup.FULL_CONTENT, entry.session))
+                .next();
+        } catch (MailboxException e) {
+            return Mono.error(e);
+        }
+    }
+
+    private MessageStructure computeStructure(MessageResult messageResult) {
+        try {
+            return MessageStructure.from(messageResult);
+        } catch (MailboxException | IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
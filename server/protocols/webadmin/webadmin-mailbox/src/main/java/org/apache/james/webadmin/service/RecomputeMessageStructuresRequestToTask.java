@@ -0,0 +1,52 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.webadmin.service;
+
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+import org.apache.james.webadmin.service.MessageStructureProjectionCorrector.RunningOptions;
+import org.apache.james.webadmin.tasks.TaskFromRequestRegistry;
+import org.apache.james.webadmin.tasks.TaskRegistrationKey;
+
+import spark.Request;
+
+public class RecomputeMessageStructuresRequestToTask extends TaskFromRequestRegistry.TaskRegistration {
+    public static final TaskRegistrationKey TASK_REGISTRATION_KEY = TaskRegistrationKey.of("recomputeMessageStructures");
+
+    @Inject
+    RecomputeMessageStructuresRequestToTask(MessageStructureProjectionCorrector corrector) {
+        super(TASK_REGISTRATION_KEY,
+            request -> new RecomputeMessageStructuresTask(corrector, parseRunningOptions(request)));
+    }
+
+    private static RunningOptions parseRunningOptions(Request request) {
+        try {
+            return Optional.ofNullable(request.queryParams("messagesPerSecond"))
+                .map(Integer::parseInt)
+                .map(RunningOptions::withMessageRatePerSecond)
+                .orElse(RunningOptions.DEFAULT);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Illegal value supplied for query parameter 'messagesPerSecond', expecting a " +
+                "strictly positive optional integer", e);
+        }
+    }
+}
@@ -23,6 +23,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 import org.apache.james.json.JsonGenericSerializer;
 import org.apache.james.mailbox.MessageUid;
@@ -41,7 +42,7 @@ class WebAdminReprocessingContextInformationDTOTest {
 
     private final String serializedErrorRecoveryAdditionalInformation = "{" +
         "  \"type\":\"error-recovery-indexation\"," +
-        "  \"runningOptions\":{\"messagesPerSecond\":50,\"mode\":\"REBUILD_ALL\"}," +
+        "  \"runningOptions\":{\"messagesPerSecond\":50,\"mode\":\"REBUILD_ALL\",\"mailboxConcurrency\":1,\"messageConcurrency\":50}," +
         "  \"successfullyReprocessedMailCount\":42," +
         "  \"failedReprocessedMailCount\":2," +
         "  \"messageFailures\":{\"1\":[{\"uid\":10}],\"2\":[{\"uid\":20}]}," +
@@ -49,12 +50,13 @@ class WebAdminReprocessingContextInformationDTOTest {
         "  \"timestamp\":\"2018-11-13T12:00:55Z\"}";
     private final String serializedFullAdditionalInformation = "{" +
         "  \"type\":\"full-reindexing\"," +
-        "  \"runningOptions\":{\"messagesPerSecond\":50,\"mode\":\"REBUILD_ALL\"}," +
+        "  \"runningOptions\":{\"messagesPerSecond\":50,\"mode\":\"REBUILD_ALL\",\"mailboxConcurrency\":1,\"messageConcurrency\":50}," +
         "  \"successfullyReprocessedMailCount\":42," +
         "  \"failedReprocessedMailCount\":2," +
         "  \"messageFailures\":{\"1\":[{\"uid\":10}],\"2\":[{\"uid\":20}]}," +
         "  \"mailboxFailures\":[\"3\", \"4\"]," +
-        "  \"timestamp\":\"2018-11-13T12:00:55Z\"}";
+        "  \"timestamp\":\"2018-11-13T12:00:55Z\"," +
+        "  \"checkpoint\":\"4\"}";
 
     private final TestId mailboxId = TestId.of(1L);
     private final MessageUid messageUid = MessageUid.of(10L);
@@ -103,7 +105,8 @@ class WebAdminReprocessingContextInformationDTOTest {
                 2,
                 executionFailures,
                 TIMESTAMP,
-                ReIndexer.RunningOptions.DEFAULT);
+                ReIndexer.RunningOptions.DEFAULT,
+                Optional.of("4"));
 
         String json =
             JsonGenericSerializer.forModules(WebAdminReprocessingContextInformationDTO.WebAdminFullIndexationDTO
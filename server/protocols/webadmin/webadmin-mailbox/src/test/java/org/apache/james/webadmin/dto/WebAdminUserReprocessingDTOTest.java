@@ -42,7 +42,7 @@ class WebAdminUserReprocessingDTOTest {
 
     private final String serializedAdditionalInformation = "{" +
         "  \"type\":\"user-reindexing\",\"username\":\"bob\"," +
-        "  \"runningOptions\":{\"messagesPerSecond\":50,\"mode\":\"REBUILD_ALL\"}," +
+        "  \"runningOptions\":{\"messagesPerSecond\":50,\"mode\":\"REBUILD_ALL\",\"mailboxConcurrency\":1,\"messageConcurrency\":50}," +
         "  \"successfullyReprocessedMailCount\":42," +
         "  \"failedReprocessedMailCount\":2," +
         "  \"messageFailures\":{\"1\":[{\"uid\":10}],\"2\":[{\"uid\":20}]}," +
@@ -320,6 +320,29 @@ class MailboxesRoutesTest {
                     .body("completedDate", is(notNullValue()));
             }
 
+            @Test
+            void fullReprocessingShouldReturnCheckpoint() throws Exception {
+                MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
+                MailboxId mailboxId = mailboxManager.createMailbox(INBOX, systemSession).get();
+
+                String taskId = with()
+                    .queryParam("mailboxConcurrency", 2)
+                    .queryParam("messageConcurrency", 10)
+                    .post("/mailboxes?task=reIndex")
+                    .jsonPath()
+                    .get("taskId");
+
+                given()
+                    .basePath(TasksRoutes.BASE)
+                .when()
+                    .get(taskId + "/await")
+                .then()
+                    .body("status", is("completed"))
+                    .body("additionalInformation.runningOptions.mailboxConcurrency", is(2))
+                    .body("additionalInformation.runningOptions.messageConcurrency", is(10))
+                    .body("additionalInformation.checkpoint", is(mailboxId.serialize()));
+            }
+
             @Test
             void fullReprocessingShouldReturnTaskDetailsWhenFailing() throws Exception {
                 MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
@@ -576,6 +599,30 @@ class MailboxesRoutesTest {
                 assertThat(messageCaptor.getValue()).matches(message -> message.getMailboxId().equals(mailboxId)
                     && message.getUid().equals(createdMessage.getUid()));
             }
+
+            @Test
+            void fullReprocessingShouldSkipMailboxesUpToResumeAfter() throws Exception {
+                MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
+                MailboxId mailboxId = mailboxManager.createMailbox(INBOX, systemSession).get();
+                mailboxManager.getMailbox(INBOX, systemSession)
+                    .appendMessage(
+                        MessageManager.AppendCommand.builder().build("header: value\r\n\r\nbody"),
+                        systemSession);
+
+                String taskId = with()
+                    .queryParam("resumeAfter", mailboxId.serialize())
+                    .post("/mailboxes?task=reIndex")
+                    .jsonPath()
+                    .get("taskId");
+
+                with()
+                    .basePath(TasksRoutes.BASE)
+                    .get(taskId + "/await")
+                    .then()
+                    .body("status", is("completed"));
+
+                verifyNoMoreInteractions(searchIndex);
+            }
         }
     }
 
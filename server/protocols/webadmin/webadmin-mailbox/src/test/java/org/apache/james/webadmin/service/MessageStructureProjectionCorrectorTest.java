@@ -0,0 +1,94 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.webadmin.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.james.core.Username;
+import org.apache.james.domainlist.api.DomainList;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageManager;
+import org.apache.james.mailbox.inmemory.InMemoryMailboxManager;
+import org.apache.james.mailbox.inmemory.manager.InMemoryIntegrationResources;
+import org.apache.james.mailbox.model.ComposedMessageId;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.store.projections.MessageStructureProjection;
+import org.apache.james.task.Task;
+import org.apache.james.user.memory.MemoryUsersRepository;
+import org.apache.james.webadmin.service.MessageStructureProjectionCorrector.RunningOptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Mono;
+
+class MessageStructureProjectionCorrectorTest {
+    private static final DomainList NO_DOMAIN_LIST = null;
+    private static final Username BOB = Username.of("bob");
+
+    private MessageStructureProjectionCorrector testee;
+    private MessageStructureProjection projection;
+    private MessageManager messageManager;
+    private MailboxSession session;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        InMemoryMailboxManager mailboxManager = InMemoryIntegrationResources.defaultResources().getMailboxManager();
+        MemoryUsersRepository usersRepository = MemoryUsersRepository.withoutVirtualHosting(NO_DOMAIN_LIST);
+        usersRepository.addUser(BOB, "password");
+
+        session = mailboxManager.createSystemSession(BOB);
+        MailboxPath inbox = MailboxPath.inbox(session);
+        mailboxManager.createMailbox(inbox, session);
+        messageManager = mailboxManager.getMailbox(inbox, session);
+
+        projection = mailboxManager.getMapperFactory().getMessageStructureProjection().get();
+        testee = new MessageStructureProjectionCorrector(usersRepository, mailboxManager, mailboxManager.getMapperFactory());
+    }
+
+    @Test
+    void correctAllProjectionItemsShouldComputeMissingStructures() throws Exception {
+        ComposedMessageId messageId = appendMessage();
+
+        Task.Result result = testee.correctAllProjectionItems(new MessageStructureProjectionCorrector.Progress(), RunningOptions.DEFAULT).block();
+
+        assertThat(result).isEqualTo(Task.Result.COMPLETED);
+        assertThat(Mono.from(projection.retrieve(messageId.getMessageId())).blockOptional()).isPresent();
+    }
+
+    @Test
+    void correctAllProjectionItemsShouldOnlyProcessMessagesMissingAStructure() throws Exception {
+        appendMessage();
+        testee.correctAllProjectionItems(new MessageStructureProjectionCorrector.Progress(), RunningOptions.DEFAULT).block();
+        appendMessage();
+
+        MessageStructureProjectionCorrector.Progress progress = new MessageStructureProjectionCorrector.Progress();
+        testee.correctAllProjectionItems(progress, RunningOptions.DEFAULT).block();
+
+        assertThat(progress.getProcessedUserCount()).isEqualTo(1);
+        assertThat(progress.getProcessedMessageCount()).isEqualTo(1);
+        assertThat(progress.getFailedMessageCount()).isZero();
+    }
+
+    private ComposedMessageId appendMessage() throws Exception {
+        return messageManager.appendMessage(
+            MessageManager.AppendCommand.builder().build("header: value\r\n\r\nbody"),
+            session).getId();
+    }
+}
@@ -24,6 +24,7 @@ import static org.apache.james.backends.rabbitmq.Constants.EMPTY_ROUTING_KEY;
 import static org.apache.james.queue.api.MailQueue.ENQUEUED_METRIC_NAME_PREFIX;
 
 import java.time.Clock;
+import java.util.Optional;
 
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
@@ -69,7 +70,7 @@ class Enqueuer {
     void enQueue(Mail mail) throws MailQueue.MailQueueException {
         EnqueueId enqueueId = EnqueueId.generate();
         saveMail(mail)
-            .map(partIds -> new MailReference(enqueueId, mail, partIds))
+            .map(partIds -> new MailReference(enqueueId, mail, partIds, messageSize(mail)))
             .flatMap(Throwing.function(this::publishReferenceToRabbit).sneakyThrow())
             .flatMap(mailQueueView::storeMail)
             .thenEmpty(Mono.fromRunnable(enqueueMetric::increment))
@@ -84,6 +85,15 @@ class Enqueuer {
         }
     }
 
+    private Optional<Long> messageSize(Mail mail) {
+        try {
+            return Optional.of(mail.getMessageSize());
+        } catch (MessagingException e) {
+            // Size queries will read the body blob upon dequeue
+            return Optional.empty();
+        }
+    }
+
     private Mono<EnqueuedItem> publishReferenceToRabbit(MailReference mailReference) throws MailQueue.MailQueueException {
         AMQP.BasicProperties basicProperties = new AMQP.BasicProperties.Builder()
             .deliveryMode(PERSISTENT_TEXT_PLAIN.getDeliveryMode())
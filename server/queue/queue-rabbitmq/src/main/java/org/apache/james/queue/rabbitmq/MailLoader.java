@@ -26,9 +26,10 @@ import javax.mail.internet.AddressException;
 import javax.mail.internet.MimeMessage;
 
 import org.apache.james.blob.api.BlobId;
-import org.apache.james.blob.api.Store;
+import org.apache.james.blob.api.BlobStore;
 import org.apache.james.blob.mail.MimeMessagePartsId;
 import org.apache.james.queue.api.MailQueue;
+import org.apache.james.server.core.MimeMessageWrapper;
 import org.apache.mailet.Mail;
 
 import com.github.fge.lambdas.Throwing;
@@ -36,11 +37,11 @@ import com.github.fge.lambdas.Throwing;
 import reactor.core.publisher.Mono;
 
 class MailLoader {
-    private final Store<MimeMessage, MimeMessagePartsId> mimeMessageStore;
+    private final BlobStore blobStore;
     private final BlobId.Factory blobIdFactory;
 
-    MailLoader(Store<MimeMessage, MimeMessagePartsId> mimeMessageStore, BlobId.Factory blobIdFactory) {
-        this.mimeMessageStore = mimeMessageStore;
+    MailLoader(BlobStore blobStore, BlobId.Factory blobIdFactory) {
+        this.blobStore = blobStore;
         this.blobIdFactory = blobIdFactory;
     }
 
@@ -51,10 +52,19 @@ class MailLoader {
     }
 
     private Mono<Mail> buildMail(MailReference mailReference) {
-        return mimeMessageStore.read(mailReference.getPartsId())
+        return loadMimeMessage(mailReference)
             .flatMap(mimeMessage -> buildMailWithMessageReference(mailReference, mimeMessage));
     }
 
+    /**
+     * Only headers are read here, the body blob being read by the returned message upon first access.
+     */
+    private Mono<MimeMessage> loadMimeMessage(MailReference mailReference) {
+        MimeMessagePartsId partsId = mailReference.getPartsId();
+        return Mono.from(blobStore.readBytes(blobStore.getDefaultBucketName(), partsId.getHeaderBlobId()))
+            .map(headers -> new MimeMessageWrapper(new MimeMessagePartsSource(blobStore, partsId, headers, mailReference.getMessageSize())));
+    }
+
     private Mono<Mail> buildMailWithMessageReference(MailReference mailReference, MimeMessage mimeMessage) {
         Function<Mail, Mono<Object>> setMessage = mail ->
             Mono.fromRunnable(Throwing.runnable(() -> mail.setMessage(mimeMessage)).sneakyThrow())
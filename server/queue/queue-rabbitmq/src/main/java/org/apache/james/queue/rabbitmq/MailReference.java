@@ -19,6 +19,8 @@
 
 package org.apache.james.queue.rabbitmq;
 
+import java.util.Optional;
+
 import org.apache.james.blob.mail.MimeMessagePartsId;
 import org.apache.mailet.Mail;
 
@@ -27,11 +29,17 @@ public class MailReference {
     private final EnqueueId enqueueId;
     private final Mail mail;
     private final MimeMessagePartsId partsId;
+    private final Optional<Long> messageSize;
 
     public MailReference(EnqueueId enqueueId, Mail mail, MimeMessagePartsId partsId) {
+        this(enqueueId, mail, partsId, Optional.empty());
+    }
+
+    public MailReference(EnqueueId enqueueId, Mail mail, MimeMessagePartsId partsId, Optional<Long> messageSize) {
         this.enqueueId = enqueueId;
         this.mail = mail;
         this.partsId = partsId;
+        this.messageSize = messageSize;
     }
 
     public EnqueueId getEnqueueId() {
@@ -45,4 +53,12 @@ public class MailReference {
     public MimeMessagePartsId getPartsId() {
         return partsId;
     }
+
+    /**
+     * Size of the message when it was enqueued, allowing to answer size queries without reading the body blob.
+     * Absent for references enqueued before it was recorded.
+     */
+    public Optional<Long> getMessageSize() {
+        return messageSize;
+    }
 }
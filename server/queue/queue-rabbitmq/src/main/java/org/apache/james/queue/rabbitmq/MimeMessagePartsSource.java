@@ -0,0 +1,85 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.rabbitmq;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.mail.MimeMessagePartsId;
+import org.apache.james.server.core.MimeMessageSource;
+
+import com.google.common.io.ByteSource;
+
+/**
+ * {@link MimeMessageSource} over a message stored as header and body blobs.
+ *
+ * Headers are supplied eagerly while the body blob is only read once the stream reaches it. Combined with
+ * {@link org.apache.james.server.core.MimeMessageWrapper}, mails only processed based on their headers never load
+ * their body.
+ *
+ * The message size recorded upon enqueue is used to answer size queries, which otherwise would need to read the body.
+ */
+public class MimeMessagePartsSource extends MimeMessageSource {
+    private final MimeMessagePartsId partsId;
+    private final ByteSource content;
+    private final Optional<Long> messageSize;
+
+    MimeMessagePartsSource(BlobStore blobStore, MimeMessagePartsId partsId, byte[] headers, Optional<Long> messageSize) {
+        this.partsId = partsId;
+        this.messageSize = messageSize;
+        this.content = ByteSource.concat(
+            ByteSource.wrap(headers),
+            new ByteSource() {
+                @Override
+                public InputStream openStream() {
+                    return blobStore.read(blobStore.getDefaultBucketName(), partsId.getBodyBlobId());
+                }
+            });
+    }
+
+    @Override
+    public String getSourceId() {
+        return partsId.getHeaderBlobId().asString() + "-" + partsId.getBodyBlobId().asString();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return content.openStream();
+    }
+
+    @Override
+    public long getMessageSize() throws IOException {
+        if (messageSize.isPresent()) {
+            return messageSize.get();
+        }
+        return super.getMessageSize();
+    }
+
+    /**
+     * The body is already stored in the {@link BlobStore}: exposing its id allows it to be referenced rather than
+     * uploaded again.
+     */
+    @Override
+    public Optional<String> getStoredBodyId() {
+        return Optional.of(partsId.getBodyBlobId().asString());
+    }
+}
@@ -25,6 +25,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.time.Instant;
 import java.util.Date;
+import java.util.Optional;
 
 import javax.mail.MessagingException;
 
@@ -84,6 +85,12 @@ class MailDTOTest {
             .isEqualTo(mailDTOMin());
     }
 
+    @Test
+    void mailDtoShouldBeDeserializedWhenNoMessageSize() throws Exception {
+        assertThat(objectMapper.readValue(getSystemResourceAsString("json/mail_without_size.json"), MailReferenceDTO.class))
+            .isEqualTo(mailDTOMin());
+    }
+
     private MailReferenceDTO mailDTO1() throws MessagingException {
         return MailReferenceDTO.fromMailReference(
             new MailReference(
@@ -110,7 +117,8 @@ class MailDTOTest {
             MimeMessagePartsId.builder()
                 .headerBlobId(BLOB_ID_FACTORY.from("210e7136-ede3-44eb-9495-3ed816d6e23b"))
                 .bodyBlobId(BLOB_ID_FACTORY.from("ef46c026-7819-4048-b562-3a37469191ed"))
-                .build()));
+                .build(),
+            Optional.of(4096L)));
     }
 
     private MailReferenceDTO mailDTOMin() {
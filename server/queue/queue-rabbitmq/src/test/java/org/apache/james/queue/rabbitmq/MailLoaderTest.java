@@ -7,7 +7,7 @@
  * "License"); you may not use this file except in compliance   *
  * with the License.  You may obtain a copy of the License at   *
  *                                                              *
- * http://www.apache.org/licenses/LICENSE-2.0                   *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
  *                                                              *
  * Unless required by applicable law or agreed to in writing,   *
  * software distributed under the License is distributed on an  *
@@ -15,32 +15,70 @@
  * KIND, either express or implied.  See the License for the    *
  * specific language governing permissions and limitations      *
  * under the License.                                           *
- ***************************************************************/
+ ****************************************************************/
 
 package org.apache.james.queue.rabbitmq;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
 import javax.mail.internet.MimeMessage;
 
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.api.BucketName;
 import org.apache.james.blob.api.HashBlobId;
-import org.apache.james.blob.api.Store;
 import org.apache.james.blob.mail.MimeMessagePartsId;
+import org.apache.james.blob.mail.MimeMessageStore;
+import org.apache.james.blob.memory.MemoryBlobStore;
+import org.apache.james.blob.memory.MemoryDumbBlobStore;
+import org.apache.james.core.builder.MimeMessageBuilder;
+import org.apache.james.server.core.MimeMessageWrapper;
+import org.apache.james.util.MimeMessageUtil;
+import org.apache.mailet.Mail;
+import org.apache.mailet.base.test.FakeMail;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import reactor.core.publisher.Mono;
 
 class MailLoaderTest {
+    private static final HashBlobId.Factory BLOB_ID_FACTORY = new HashBlobId.Factory();
+
+    private BlobStore blobStore;
+    private MimeMessage message;
+    private MimeMessagePartsId partsId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        blobStore = spy(new MemoryBlobStore(BLOB_ID_FACTORY, new MemoryDumbBlobStore()));
+        message = MimeMessageBuilder.mimeMessageBuilder()
+            .addFrom("any@any.com")
+            .addToRecipient("toddy@any.com")
+            .setSubject("Important Mail")
+            .setText("Important mail content")
+            .build();
+        partsId = MimeMessageStore.factory(blobStore).mimeMessageStore().save(message).block();
+    }
+
     @Test
     void storeExceptionShouldBePropagated() {
-        Store<MimeMessage, MimeMessagePartsId> store = mock(Store.class);
-        when(store.read(any())).thenReturn(Mono.error(new RuntimeException("Cassandra problem")));
+        BlobStore failingBlobStore = mock(BlobStore.class);
+        when(failingBlobStore.getDefaultBucketName()).thenReturn(BucketName.DEFAULT);
+        when(failingBlobStore.readBytes(any(), any())).thenReturn(Mono.error(new RuntimeException("Cassandra problem")));
         MailReferenceDTO dto = mock(MailReferenceDTO.class);
-        when(dto.toMailReference(any())).thenReturn(mock(MailReference.class));
-        MailLoader loader = new MailLoader(store, new HashBlobId.Factory());
+        MailReference mailReference = mock(MailReference.class);
+        when(mailReference.getPartsId()).thenReturn(partsId);
+        when(dto.toMailReference(any())).thenReturn(mailReference);
+        MailLoader loader = new MailLoader(failingBlobStore, BLOB_ID_FACTORY);
 
         String result = loader.load(dto)
             .thenReturn("continued")
@@ -48,4 +86,63 @@ class MailLoaderTest {
             .block();
         assertThat(result).isEqualTo("caught");
     }
-}
\ No newline at end of file
+
+    @Test
+    void loadShouldPreserveMessageContent() throws Exception {
+        Mail mail = new MailLoader(blobStore, BLOB_ID_FACTORY).load(dto()).block().getMail();
+
+        assertThat(MimeMessageUtil.asString(mail.getMessage()))
+            .isEqualTo(MimeMessageUtil.asString(message));
+    }
+
+    @Test
+    void loadShouldNotReadBodyWhenOnlyHeadersAreAccessed() throws Exception {
+        Mail mail = new MailLoader(blobStore, BLOB_ID_FACTORY).load(dto()).block().getMail();
+
+        assertThat(mail.getMessage().getSubject()).isEqualTo("Important Mail");
+        verify(blobStore, never()).read(any(), eq(partsId.getBodyBlobId()));
+        verify(blobStore, never()).readBytes(any(), eq(partsId.getBodyBlobId()));
+    }
+
+    @Test
+    void loadShouldNotReadBodyWhenSizeIsAccessed() throws Exception {
+        long size = messageSize();
+        Mail mail = new MailLoader(blobStore, BLOB_ID_FACTORY).load(dto(Optional.of(size))).block().getMail();
+
+        assertThat(mail.getMessageSize()).isEqualTo(size);
+        verify(blobStore, never()).read(any(), eq(partsId.getBodyBlobId()));
+        verify(blobStore, never()).readBytes(any(), eq(partsId.getBodyBlobId()));
+    }
+
+    @Test
+    void loadShouldExposeTheStoredBody() throws Exception {
+        Mail mail = new MailLoader(blobStore, BLOB_ID_FACTORY).load(dto()).block().getMail();
+
+        assertThat(((MimeMessageWrapper) mail.getMessage()).getStoredBodyId())
+            .contains(partsId.getBodyBlobId().asString());
+    }
+
+    @Test
+    void loadShouldComputeSizeWhenNotRecorded() throws Exception {
+        Mail mail = new MailLoader(blobStore, BLOB_ID_FACTORY).load(dto()).block().getMail();
+
+        assertThat(mail.getMessageSize()).isEqualTo(messageSize());
+    }
+
+    private long messageSize() throws Exception {
+        return MimeMessageUtil.asString(message).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private MailReferenceDTO dto() throws Exception {
+        return dto(Optional.empty());
+    }
+
+    private MailReferenceDTO dto(Optional<Long> messageSize) throws Exception {
+        return MailReferenceDTO.fromMailReference(new MailReference(EnqueueId.generate(),
+            FakeMail.builder()
+                .name("mail-name")
+                .build(),
+            partsId,
+            messageSize));
+    }
+}
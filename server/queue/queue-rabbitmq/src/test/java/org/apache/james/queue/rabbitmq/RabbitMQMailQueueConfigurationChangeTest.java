@@ -89,12 +89,13 @@ class RabbitMQMailQueueConfigurationChangeTest {
 
     private UpdatableTickingClock clock;
     private RabbitMQMailQueueManagement mqManagementApi;
+    private CassandraBlobStore blobStore;
     private MimeMessageStore.Factory mimeMessageStoreFactory;
 
     @BeforeEach
     void setup(CassandraCluster cassandra) throws Exception {
-        CassandraBlobStore blobsDAO = CassandraBlobStore.forTesting(cassandra.getConf());
-        mimeMessageStoreFactory = MimeMessageStore.factory(blobsDAO);
+        blobStore = CassandraBlobStore.forTesting(cassandra.getConf());
+        mimeMessageStoreFactory = MimeMessageStore.factory(blobStore);
         clock = new UpdatableTickingClock(IN_SLICE_1);
         mqManagementApi = new RabbitMQMailQueueManagement(rabbitMQExtension.managementAPI());
     }
@@ -123,6 +124,7 @@ class RabbitMQMailQueueConfigurationChangeTest {
             rabbitMQExtension.getSender(),
             rabbitMQExtension.getReceiverProvider(),
             mimeMessageStoreFactory,
+            blobStore,
             BLOB_ID_FACTORY,
             mailQueueViewFactory,
             clock,
@@ -531,6 +531,7 @@ class RabbitMQMailQueueTest {
             metricTestSystem.getSpyGaugeRegistry(),
             rabbitMQExtension.getSender(), rabbitMQExtension.getReceiverProvider(),
             mimeMessageStoreFactory,
+            blobStore,
             BLOB_ID_FACTORY,
             mailQueueViewFactory,
             clock,
@@ -26,6 +26,7 @@ import static org.mockito.Mockito.when;
 import java.time.Clock;
 
 import org.apache.james.backends.rabbitmq.RabbitMQExtension;
+import org.apache.james.blob.api.BlobStore;
 import org.apache.james.blob.api.HashBlobId;
 import org.apache.james.blob.mail.MimeMessageStore;
 import org.apache.james.metrics.api.NoopGaugeRegistry;
@@ -66,6 +67,7 @@ class RabbitMqMailQueueFactoryTest implements MailQueueFactoryContract<RabbitMQM
             rabbitMQExtension.getSender(),
             rabbitMQExtension.getReceiverProvider(),
             mimeMessageStoreFactory,
+            mock(BlobStore.class),
             BLOB_ID_FACTORY,
             mailQueueViewFactory,
             Clock.systemUTC(),